@@ -194,6 +194,56 @@ public interface I_C_DataImport_Run
     /** Column name CreatedBy */
     public static final String COLUMNNAME_CreatedBy = "CreatedBy";
 
+	/**
+	 * Set Import records (ms).
+	 * Time spent importing the records, in milliseconds
+	 *
+	 * <br>Type: Integer
+	 * <br>Mandatory: true
+	 * <br>Virtual Column: false
+	 */
+	public void setImportRecordsMillis (int ImportRecordsMillis);
+
+	/**
+	 * Get Import records (ms).
+	 * Time spent importing the records, in milliseconds
+	 *
+	 * <br>Type: Integer
+	 * <br>Mandatory: true
+	 * <br>Virtual Column: false
+	 */
+	public int getImportRecordsMillis();
+
+    /** Column definition for ImportRecordsMillis */
+    public static final org.adempiere.model.ModelColumn<I_C_DataImport_Run, Object> COLUMN_ImportRecordsMillis = new org.adempiere.model.ModelColumn<I_C_DataImport_Run, Object>(I_C_DataImport_Run.class, "ImportRecordsMillis", null);
+    /** Column name ImportRecordsMillis */
+    public static final String COLUMNNAME_ImportRecordsMillis = "ImportRecordsMillis";
+
+	/**
+	 * Set Insert into import table (ms).
+	 * Time spent inserting rows into the import table, in milliseconds
+	 *
+	 * <br>Type: Integer
+	 * <br>Mandatory: true
+	 * <br>Virtual Column: false
+	 */
+	public void setInsertIntoImportTableMillis (int InsertIntoImportTableMillis);
+
+	/**
+	 * Get Insert into import table (ms).
+	 * Time spent inserting rows into the import table, in milliseconds
+	 *
+	 * <br>Type: Integer
+	 * <br>Mandatory: true
+	 * <br>Virtual Column: false
+	 */
+	public int getInsertIntoImportTableMillis();
+
+    /** Column definition for InsertIntoImportTableMillis */
+    public static final org.adempiere.model.ModelColumn<I_C_DataImport_Run, Object> COLUMN_InsertIntoImportTableMillis = new org.adempiere.model.ModelColumn<I_C_DataImport_Run, Object>(I_C_DataImport_Run.class, "InsertIntoImportTableMillis", null);
+    /** Column name InsertIntoImportTableMillis */
+    public static final String COLUMNNAME_InsertIntoImportTableMillis = "InsertIntoImportTableMillis";
+
 	/**
 	 * Set Aktiv.
 	 * Der Eintrag ist im System aktiv
@@ -244,6 +294,56 @@ public interface I_C_DataImport_Run
     /** Column name IsDocComplete */
     public static final String COLUMNNAME_IsDocComplete = "IsDocComplete";
 
+	/**
+	 * Set Records imported.
+	 * Number of import records which were processed by the actual import of this run
+	 *
+	 * <br>Type: Integer
+	 * <br>Mandatory: true
+	 * <br>Virtual Column: false
+	 */
+	public void setRecordsImported (int RecordsImported);
+
+	/**
+	 * Get Records imported.
+	 * Number of import records which were processed by the actual import of this run
+	 *
+	 * <br>Type: Integer
+	 * <br>Mandatory: true
+	 * <br>Virtual Column: false
+	 */
+	public int getRecordsImported();
+
+    /** Column definition for RecordsImported */
+    public static final org.adempiere.model.ModelColumn<I_C_DataImport_Run, Object> COLUMN_RecordsImported = new org.adempiere.model.ModelColumn<I_C_DataImport_Run, Object>(I_C_DataImport_Run.class, "RecordsImported", null);
+    /** Column name RecordsImported */
+    public static final String COLUMNNAME_RecordsImported = "RecordsImported";
+
+	/**
+	 * Set Rows inserted into import table.
+	 * Number of rows which were inserted into the import table by this run
+	 *
+	 * <br>Type: Integer
+	 * <br>Mandatory: true
+	 * <br>Virtual Column: false
+	 */
+	public void setRowsInsertedIntoImportTable (int RowsInsertedIntoImportTable);
+
+	/**
+	 * Get Rows inserted into import table.
+	 * Number of rows which were inserted into the import table by this run
+	 *
+	 * <br>Type: Integer
+	 * <br>Mandatory: true
+	 * <br>Virtual Column: false
+	 */
+	public int getRowsInsertedIntoImportTable();
+
+    /** Column definition for RowsInsertedIntoImportTable */
+    public static final org.adempiere.model.ModelColumn<I_C_DataImport_Run, Object> COLUMN_RowsInsertedIntoImportTable = new org.adempiere.model.ModelColumn<I_C_DataImport_Run, Object>(I_C_DataImport_Run.class, "RowsInsertedIntoImportTable", null);
+    /** Column name RowsInsertedIntoImportTable */
+    public static final String COLUMNNAME_RowsInsertedIntoImportTable = "RowsInsertedIntoImportTable";
+
 	/**
 	 * Get Aktualisiert.
 	 * Datum, an dem dieser Eintrag aktualisiert wurde
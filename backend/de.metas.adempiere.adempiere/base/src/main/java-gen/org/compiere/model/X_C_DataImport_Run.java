@@ -14,7 +14,7 @@ public class X_C_DataImport_Run extends org.compiere.model.PO implements I_C_Dat
 	/**
 	 *
 	 */
-	private static final long serialVersionUID = -1174657128L;
+	private static final long serialVersionUID = 1453296037L;
 
     /** Standard Constructor */
     public X_C_DataImport_Run (Properties ctx, int C_DataImport_Run_ID, String trxName)
@@ -24,7 +24,11 @@ public class X_C_DataImport_Run extends org.compiere.model.PO implements I_C_Dat
         {
 			setAD_User_ID (0);
 			setC_DataImport_Run_ID (0);
+			setImportRecordsMillis (0); // 0
+			setInsertIntoImportTableMillis (0); // 0
 			setIsDocComplete (false); // N
+			setRecordsImported (0); // 0
+			setRowsInsertedIntoImportTable (0); // 0
         } */
     }
 
@@ -158,6 +162,50 @@ public class X_C_DataImport_Run extends org.compiere.model.PO implements I_C_Dat
 		return ii.intValue();
 	}
 
+	/** Set Import records (ms).
+		@param ImportRecordsMillis 
+		Time spent importing the records, in milliseconds
+	  */
+	@Override
+	public void setImportRecordsMillis (int ImportRecordsMillis)
+	{
+		set_Value (COLUMNNAME_ImportRecordsMillis, Integer.valueOf(ImportRecordsMillis));
+	}
+
+	/** Get Import records (ms).
+		@return Time spent importing the records, in milliseconds
+	  */
+	@Override
+	public int getImportRecordsMillis () 
+	{
+		Integer ii = (Integer)get_Value(COLUMNNAME_ImportRecordsMillis);
+		if (ii == null)
+			 return 0;
+		return ii.intValue();
+	}
+
+	/** Set Insert into import table (ms).
+		@param InsertIntoImportTableMillis 
+		Time spent inserting rows into the import table, in milliseconds
+	  */
+	@Override
+	public void setInsertIntoImportTableMillis (int InsertIntoImportTableMillis)
+	{
+		set_Value (COLUMNNAME_InsertIntoImportTableMillis, Integer.valueOf(InsertIntoImportTableMillis));
+	}
+
+	/** Get Insert into import table (ms).
+		@return Time spent inserting rows into the import table, in milliseconds
+	  */
+	@Override
+	public int getInsertIntoImportTableMillis () 
+	{
+		Integer ii = (Integer)get_Value(COLUMNNAME_InsertIntoImportTableMillis);
+		if (ii == null)
+			 return 0;
+		return ii.intValue();
+	}
+
 	/** Set Beleg fertig stellen.
 		@param IsDocComplete 
 		Legt fest, ob ggf erstellte Belege (z.B. Produktionsaufträge) auch direkt automatisch fertig gestellt werden sollen.
@@ -183,4 +231,48 @@ public class X_C_DataImport_Run extends org.compiere.model.PO implements I_C_Dat
 		}
 		return false;
 	}
+
+	/** Set Records imported.
+		@param RecordsImported 
+		Number of import records which were processed by the actual import of this run
+	  */
+	@Override
+	public void setRecordsImported (int RecordsImported)
+	{
+		set_Value (COLUMNNAME_RecordsImported, Integer.valueOf(RecordsImported));
+	}
+
+	/** Get Records imported.
+		@return Number of import records which were processed by the actual import of this run
+	  */
+	@Override
+	public int getRecordsImported () 
+	{
+		Integer ii = (Integer)get_Value(COLUMNNAME_RecordsImported);
+		if (ii == null)
+			 return 0;
+		return ii.intValue();
+	}
+
+	/** Set Rows inserted into import table.
+		@param RowsInsertedIntoImportTable 
+		Number of rows which were inserted into the import table by this run
+	  */
+	@Override
+	public void setRowsInsertedIntoImportTable (int RowsInsertedIntoImportTable)
+	{
+		set_Value (COLUMNNAME_RowsInsertedIntoImportTable, Integer.valueOf(RowsInsertedIntoImportTable));
+	}
+
+	/** Get Rows inserted into import table.
+		@return Number of rows which were inserted into the import table by this run
+	  */
+	@Override
+	public int getRowsInsertedIntoImportTable () 
+	{
+		Integer ii = (Integer)get_Value(COLUMNNAME_RowsInsertedIntoImportTable);
+		if (ii == null)
+			 return 0;
+		return ii.intValue();
+	}
 }
\ No newline at end of file
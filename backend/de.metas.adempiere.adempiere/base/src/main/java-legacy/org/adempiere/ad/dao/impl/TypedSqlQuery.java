@@ -51,12 +51,14 @@ import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.exceptions.DBException;
 import org.adempiere.exceptions.DBMoreThanOneRecordsFoundException;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.util.lang.IAutoCloseable;
 import org.adempiere.util.text.TokenizedStringBuilder;
 import org.compiere.SpringContextHolder;
 import org.compiere.model.IQuery;
 import org.compiere.model.PO;
 import org.compiere.model.POInfo;
 import org.compiere.model.POResultSet;
+import org.compiere.model.POResultSetColumnMapping;
 import org.compiere.util.DB;
 import org.compiere.util.DB.ResultSetRowLoader;
 import org.compiere.util.Env;
@@ -69,6 +71,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -173,6 +176,12 @@ public class TypedSqlQuery<T> extends AbstractTypedQuery<T>
 		return _poInfo;
 	}
 
+	@VisibleForTesting
+	void setPOInfo(@NonNull final POInfo poInfo)
+	{
+		this._poInfo = poInfo;
+	}
+
 	/**
 	 * Sets custom SQL FROM clause to be used instead of {@link #getTableName()}.
 	 *
@@ -299,7 +308,7 @@ public class TypedSqlQuery<T> extends AbstractTypedQuery<T>
 			list = new ArrayList<>();
 		}
 
-		final String sql = buildSQL(null, null, null, true);
+		final String sql = buildSQLForModels();
 
 		PreparedStatement pstmt = null;
 		ResultSet rs = null;
@@ -308,18 +317,22 @@ public class TypedSqlQuery<T> extends AbstractTypedQuery<T>
 			pstmt = DB.prepareStatement(sql, trxName);
 			rs = createResultSet(pstmt);
 
-			final boolean readOnly = isReadOnlyRecords();
+			final boolean readOnly = isReturnReadOnlyModels();
 
-			ET model;
-			while ((model = retrieveNextModel(rs, clazz)) != null)
+			// Resolve the column mapping once, instead of looking up each column by name, for each row
+			try (final IAutoCloseable ignored = POResultSetColumnMapping.temporaryUse(getPOInfo(), rs))
 			{
-				InterfaceWrapperHelper.setSaveDeleteDisabled(model, readOnly);
-				list.add(model);
-
-				if(limit.isLimitHitOrExceeded(list))
+				ET model;
+				while ((model = retrieveNextModel(rs, clazz)) != null)
 				{
-					log.debug("Limit of {} reached. Stop.", limit);
-					break;
+					InterfaceWrapperHelper.setSaveDeleteDisabled(model, readOnly);
+					list.add(model);
+
+					if (limit.isLimitHitOrExceeded(list))
+					{
+						log.debug("Limit of {} reached. Stop.", limit);
+						break;
+					}
 				}
 			}
 		}
@@ -405,7 +418,7 @@ public class TypedSqlQuery<T> extends AbstractTypedQuery<T>
 		}
 		// metas: end
 
-		final String sql = buildSQL(null/* selectClause */, null/* fromClause */, null/* groupByClause */, true/* useOrderByClause */);
+		final String sql = buildSQLForModels();
 
 		PreparedStatement pstmt = null;
 		ResultSet rs = null;
@@ -420,7 +433,17 @@ public class TypedSqlQuery<T> extends AbstractTypedQuery<T>
 			}
 
 			rs = createResultSet(pstmt);
-			model = retrieveNextModel(rs, clazz);
+
+			// Same as in list(): load the model using the column mapping, which also skips the columns that were not selected
+			try (final IAutoCloseable ignored = POResultSetColumnMapping.temporaryUse(getPOInfo(), rs))
+			{
+				model = retrieveNextModel(rs, clazz);
+			}
+
+			if (model != null)
+			{
+				InterfaceWrapperHelper.setSaveDeleteDisabled(model, isReturnReadOnlyModels());
+			}
 		}
 		catch (final SQLException e)
 		{
@@ -544,6 +567,84 @@ public class TypedSqlQuery<T> extends AbstractTypedQuery<T>
 		return id;
 	}
 
+	/**
+	 * @return true if {@link IQuery#OPTION_LoadOnlyColumnNames} is set
+	 */
+	private boolean isLoadOnlyColumnNames()
+	{
+		final Collection<String> loadOnlyColumnNames = getOption(OPTION_LoadOnlyColumnNames);
+		return loadOnlyColumnNames != null && !loadOnlyColumnNames.isEmpty();
+	}
+
+	/**
+	 * @return true if the models returned by {@link #list(Class)} and {@link #first(Class)} can't be saved or deleted
+	 */
+	@VisibleForTesting
+	boolean isReturnReadOnlyModels()
+	{
+		return isReadOnlyRecords() || isLoadOnlyColumnNames();
+	}
+
+	/**
+	 * @return SQL used by {@link #list(Class)} and {@link #first(Class)} to load the models, see {@link #buildSelectClauseForModels()}
+	 */
+	@VisibleForTesting
+	String buildSQLForModels()
+	{
+		return buildSQL(buildSelectClauseForModels(), null/* fromClause */, null/* groupByClause */, true/* useOrderByClause */);
+	}
+
+	/**
+	 * @return SELECT clause which is selecting only the columns from {@link IQuery#OPTION_LoadOnlyColumnNames} and the key columns;
+	 * <code>null</code> if the option is not set, i.e. all columns shall be selected.
+	 */
+	@Nullable
+	private String buildSelectClauseForModels()
+	{
+		if (!isLoadOnlyColumnNames())
+		{
+			return null;
+		}
+
+		final POInfo info = getPOInfo();
+		final Collection<String> loadOnlyColumnNames = getOption(OPTION_LoadOnlyColumnNames);
+		for (final String columnName : loadOnlyColumnNames)
+		{
+			if (info.getColumnIndex(columnName) < 0)
+			{
+				throw new AdempiereException("Column " + columnName + " not found in " + info.getTableName())
+						.appendParametersToMessage()
+						.setParameter("query", this);
+			}
+		}
+
+		final List<String> keyColumnNames = info.getKeyColumnNames();
+		final StringBuilder sql = new StringBuilder("SELECT ");
+		boolean firstColumn = true;
+		for (int i = 0, size = info.getColumnCount(); i < size; i++)
+		{
+			if (info.isLazyLoading(i))
+			{
+				continue;
+			}
+
+			final String columnName = info.getColumnName(i);
+			if (!keyColumnNames.contains(columnName) && !loadOnlyColumnNames.contains(columnName))
+			{
+				continue;
+			}
+
+			if (!firstColumn)
+			{
+				sql.append(",");
+			}
+			sql.append(info.getColumnSqlForSelect(i)); // Normal and Virtual Column
+			firstColumn = false;
+		}
+
+		return sql.toString();
+	}
+
 	/**
 	 * red1 - returns full SQL string - for caller needs
 	 *
@@ -998,6 +1099,15 @@ public class TypedSqlQuery<T> extends AbstractTypedQuery<T>
 		return this;
 	}
 
+	/**
+	 * @return the filter which is applied to the loaded models (see {@link #list()}) or <code>null</code>
+	 */
+	@Nullable
+	public IQueryFilter<T> getPostQueryFilter()
+	{
+		return postQueryFilter;
+	}
+
 	/**
 	 * This method returns a copy of this instance.
 	 * <p>
@@ -1750,6 +1860,19 @@ public class TypedSqlQuery<T> extends AbstractTypedQuery<T>
 		return unions != null && !unions.isEmpty();
 	}
 
+	public ImmutableList<TypedSqlQuery<T>> getUnionQueries()
+	{
+		final List<SqlQueryUnion<T>> unions = this.unions;
+		if (unions == null || unions.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		return unions.stream()
+				.map(union -> TypedSqlQuery.cast(union.getQuery()))
+				.collect(ImmutableList.toImmutableList());
+	}
+
 	@Override
 	<ToModelType> QueryInsertExecutorResult executeInsert(
 			@NonNull final QueryInsertExecutor<ToModelType, T> queryInserter)
@@ -20,6 +20,8 @@ import de.metas.logging.LogManager;
 import de.metas.util.Check;
 import de.metas.util.Services;
 import lombok.NonNull;
+import org.adempiere.ad.persistence.GeneratedModelClassFactory;
+import org.adempiere.ad.persistence.IGeneratedModelDelegate;
 import org.adempiere.ad.persistence.IModelClassInfo;
 import org.adempiere.ad.persistence.IModelInternalAccessor;
 import org.adempiere.ad.persistence.ModelClassIntrospector;
@@ -68,7 +70,7 @@ import java.util.function.Supplier;
  *
  * @author Teo Sarca, teo.sarca@gmail.com
  */
-public class POWrapper implements InvocationHandler, IInterfaceWrapper
+public class POWrapper implements InvocationHandler, IInterfaceWrapper, IGeneratedModelDelegate
 {
 	public static <T> T create(final Object po, final Class<T> cl)
 	{
@@ -148,9 +150,23 @@ public class POWrapper implements InvocationHandler, IInterfaceWrapper
 			}
 		}
 
+		final POWrapper poWrapper = new POWrapper(cl, po, useOldValuesEffective, trlAdLanguageEffective);
+
+		//
+		// Use the generated model class if enabled (and if it could be generated)
+		final GeneratedModelClassFactory generatedModelClassFactory = GeneratedModelClassFactory.instance;
+		if (generatedModelClassFactory.isEnabled())
+		{
+			final T model = generatedModelClassFactory.newInstanceOrNull(cl, poWrapper);
+			if (model != null)
+			{
+				return model;
+			}
+		}
+
 		return (T)Proxy.newProxyInstance(cl.getClassLoader(),
 				new Class<?>[] { cl },
-				new POWrapper(cl, po, useOldValuesEffective, trlAdLanguageEffective));
+				poWrapper);
 	}
 
 	/**
@@ -319,6 +335,12 @@ public class POWrapper implements InvocationHandler, IInterfaceWrapper
 			return (T)model;
 		}
 
+		final IGeneratedModelDelegate generatedModelDelegate = GeneratedModelClassFactory.getDelegateOrNull(model);
+		if (generatedModelDelegate instanceof POWrapper)
+		{
+			return (T)((POWrapper)generatedModelDelegate).getPO();
+		}
+
 		if (Proxy.isProxyClass(model.getClass()))
 		{
 			final InvocationHandler ih = Proxy.getInvocationHandler(model);
@@ -339,6 +361,12 @@ public class POWrapper implements InvocationHandler, IInterfaceWrapper
 
 	private static final POWrapper getPOWrapperOrNull(final Object model)
 	{
+		final IGeneratedModelDelegate generatedModelDelegate = GeneratedModelClassFactory.getDelegateOrNull(model);
+		if (generatedModelDelegate instanceof POWrapper)
+		{
+			return (POWrapper)generatedModelDelegate;
+		}
+
 		if (Proxy.isProxyClass(model.getClass()))
 		{
 			final InvocationHandler ih = Proxy.getInvocationHandler(model);
@@ -692,6 +720,18 @@ public class POWrapper implements InvocationHandler, IInterfaceWrapper
 		return interfaceClass;
 	}
 
+	@Override
+	public IModelInternalAccessor getModelInternalAccessor()
+	{
+		return modelInternalAccessor;
+	}
+
+	@Override
+	public Object getColumnsLayoutKey()
+	{
+		return po.getPOInfo();
+	}
+
 	@Override
 	public Object invoke(final Object proxy_NOTUSED, final Method method, final Object[] args) throws Throwable
 	{
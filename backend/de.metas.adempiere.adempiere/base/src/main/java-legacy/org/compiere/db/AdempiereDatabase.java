@@ -168,6 +168,11 @@ public interface AdempiereDatabase
 	 */
 	public int getNextID(String Name);
 
+	/**
+	 * Return the next {@code count} values of this Sequence, using one database round trip.
+	 */
+	public int[] getNextIDs(String Name, int count);
+
 	/**
 	 * Creates SQL for retrieving next sequence value.
 	 */
@@ -793,6 +793,29 @@ public class DB_PostgreSQL implements AdempiereDatabase
 		return m_sequence_id;
 	}
 
+	@Override
+	public int[] getNextIDs(@NonNull final String sequenceName, final int count)
+	{
+		Check.assumeNotEmpty(sequenceName, "sequenceName not empty");
+		Check.assumeGreaterThanZero(count, "count");
+
+		final Integer[] ids = DB.getSQLValueArrayEx(
+				ITrx.TRXNAME_None,
+				"SELECT array_agg(nextval('" + sequenceName.toLowerCase() + "')::integer) FROM generate_series(1, ?)",
+				count);
+		if (ids == null)
+		{
+			return new int[0];
+		}
+
+		final int[] result = new int[ids.length];
+		for (int i = 0; i < ids.length; i++)
+		{
+			result[i] = ids[i];
+		}
+		return result;
+	}
+
 	@Override
 	public String TO_SEQUENCE_NEXTVAL(final String sequenceName)
 	{
@@ -17,6 +17,7 @@
 package org.compiere.model;
 
 import de.metas.document.sequence.IDocumentNoBuilder;
+import de.metas.document.sequence.SequenceBlockAllocator;
 import de.metas.logging.LogManager;
 import de.metas.util.Check;
 import de.metas.util.Services;
@@ -84,8 +85,21 @@ public class MSequence extends X_AD_Sequence
 	 */
 	// metas: 01558 - refactored in order to use newly introduced methods
 	public static int getNextID(final int AD_Client_ID, final String TableName, final String trxName_NOT_USED)
+	{
+		return getNextIDs(AD_Client_ID, TableName, 1)[0];
+	}
+
+	/**
+	 * Reserves the next {@code count} IDs of the given table's sequence, using one update of the {@code AD_Sequence} record.
+	 * <p>
+	 * Only the regular (i.e. non-dictionary, non-centralized) IDs are reserved in blocks; for the other ones, just one ID is returned, no matter the given {@code count}.
+	 *
+	 * @return the reserved IDs; at least one.
+	 */
+	public static int[] getNextIDs(final int AD_Client_ID, final String TableName, final int count)
 	{
 		Check.assumeNotEmpty(TableName, "The given parameter tableName is not empty");
+		Check.assumeGreaterThanZero(count, "count");
 
 		final boolean adempiereSys = isAdempiereSys(AD_Client_ID);
 		// FIXME: 08240 because we had big issues with AD_Sequence getting locked, we decided to acquire next sequence out of transaction (as a workaround)
@@ -138,7 +152,7 @@ public class MSequence extends X_AD_Sequence
 						updateSQL.close();
 					}
 
-					return nextId;
+					return new int[] { nextId };
 				}
 
 				// If not official dictionary try to get the ID from http custom server - if configured
@@ -159,33 +173,37 @@ public class MSequence extends X_AD_Sequence
 						updateSQL.close();
 					}
 
-					return nextId;
+					return new int[] { nextId };
 				}
 
 				//
 				if (USE_PROCEDURE)
 				{
-					return nextID(conn, AD_Sequence_ID, adempiereSys);
+					return new int[] { nextID(conn, AD_Sequence_ID, adempiereSys) };
 				}
 				else
 				{
 					PreparedStatement updateSQL;
 					final int incrementNo = rs.getInt(3);
 					final int nextId;
+					final int countToReserve;
 					if (adempiereSys)
 					{
+						// dictionary IDs are always handed out one by one
 						updateSQL = conn.prepareStatement("UPDATE AD_Sequence SET CurrentNextSys = CurrentNextSys + ? WHERE AD_Sequence_ID = ?");
 						nextId = rs.getInt(2);
+						countToReserve = 1;
 					}
 					else
 					{
 						updateSQL = conn.prepareStatement("UPDATE AD_Sequence SET CurrentNext = CurrentNext + ? WHERE AD_Sequence_ID = ?");
 						nextId = rs.getInt(1);
+						countToReserve = count;
 					}
 
 					try
 					{
-						updateSQL.setInt(1, incrementNo);
+						updateSQL.setInt(1, incrementNo * countToReserve);
 						updateSQL.setInt(2, AD_Sequence_ID);
 						updateSQL.executeUpdate();
 					}
@@ -194,7 +212,12 @@ public class MSequence extends X_AD_Sequence
 						updateSQL.close();
 					}
 
-					return nextId;
+					final int[] nextIds = new int[countToReserve];
+					for (int i = 0; i < countToReserve; i++)
+					{
+						nextIds[i] = nextId + i * incrementNo;
+					}
+					return nextIds;
 				}
 			}
 			else
@@ -240,7 +263,7 @@ public class MSequence extends X_AD_Sequence
 				DB.close(conn);
 			}
 		}
-	}	// getNextID
+	}	// getNextIDs
 
 	/**
 	 * Get Next ID
@@ -663,6 +686,27 @@ public class MSequence extends X_AD_Sequence
 		return false;
 	}
 
+	/**
+	 * @return true if the given table's IDs may be reserved in blocks (see {@link SequenceBlockAllocator}).
+	 * That's not the case for dictionary IDs, centrally maintained IDs and IDs which end up in migration scripts.
+	 */
+	public static boolean isBlockAllocationAllowed(final int AD_Client_ID, final String TableName)
+	{
+		if (isAdempiereSys(AD_Client_ID))
+		{
+			return false;
+		}
+		if (isQueryCentralizedIDServer(TableName, AD_Client_ID) || isQueryProjectIDServer(TableName, AD_Client_ID))
+		{
+			return false;
+		}
+		if (Ini.isPropertyBool(Ini.P_LOGMIGRATIONSCRIPT) && Services.get(IMigrationLogger.class).isLogTableName(TableName))
+		{
+			return false;
+		}
+		return true;
+	}
+
 	/**
 	 *
 	 * @param AD_Client_ID
@@ -16,6 +16,7 @@
  *****************************************************************************/
 package org.compiere.model;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableListMultimap;
@@ -40,6 +41,8 @@ import org.adempiere.ad.modelvalidator.IModelValidationEngine;
 import org.adempiere.ad.modelvalidator.ModelChangeType;
 import org.adempiere.ad.modelvalidator.ModelInterceptor2ModelValidatorWrapper;
 import org.adempiere.ad.modelvalidator.ModelInterceptorInitException;
+import org.adempiere.ad.modelvalidator.ModelInterceptorMetrics;
+import org.adempiere.ad.modelvalidator.ModelInterceptorMetrics.InvocationStats;
 import org.adempiere.ad.modelvalidator.ModuleActivatorDescriptor;
 import org.adempiere.ad.modelvalidator.ModuleActivatorDescriptorsCollection;
 import org.adempiere.ad.modelvalidator.ModuleActivatorDescriptorsRepository;
@@ -63,6 +66,8 @@ import org.compiere.Adempiere.RunMode;
 import org.compiere.SpringContextHolder;
 import org.compiere.util.Env;
 import org.compiere.util.Ini;
+import org.compiere.util.Util;
+import org.compiere.util.Util.ArrayKey;
 import org.slf4j.Logger;
 import org.slf4j.MDC;
 import org.slf4j.MDC.MDCCloseable;
@@ -79,6 +84,9 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 
 /**
  * Model Validation Engine
@@ -184,7 +192,8 @@ public class ModelValidationEngine implements IModelValidationEngine
 	/**************************************************************************
 	 * Constructor. Creates Model Validators
 	 */
-	private ModelValidationEngine()
+	@VisibleForTesting
+	ModelValidationEngine()
 	{
 		// metas: tsa: begin: break this in 2 parts because if the get() method is called during initialization we will end with multiple instances of ModelVaidationEngine
 	}
@@ -447,6 +456,15 @@ public class ModelValidationEngine implements IModelValidationEngine
 
 	private ArrayList<ModelValidator> m_globalValidators = new ArrayList<>();
 
+	/**
+	 * Model change interceptors to be invoked, indexed by table name, AD_Client_ID and timing.
+	 * Each entry is built on first use. When an interceptor is registered or removed, the whole map is replaced by an empty one (see {@link #resetDispatchTables()}),
+	 * so that an entry which is concurrently built from the previous interceptors ends up in the discarded map.
+	 */
+	private volatile ConcurrentHashMap<ArrayKey, ImmutableList<DispatchedInterceptor>> m_modelChangeDispatchTable = new ConcurrentHashMap<>();
+	/** Same as {@link #m_modelChangeDispatchTable} but for document validation listeners */
+	private volatile ConcurrentHashMap<ArrayKey, ImmutableList<DispatchedInterceptor>> m_docValidateDispatchTable = new ConcurrentHashMap<>();
+
 	/**
 	 * Contains model validators for subsequent processing. The boolean value tells if the subsequent processing takes place directly when fireModelChange() is invoked with this type (
 	 * <code>true</code>) or later on (<code>false</code>).
@@ -640,6 +658,7 @@ public class ModelValidationEngine implements IModelValidationEngine
 				logger.debug("Listener " + listener + " already added for " + propertyName);
 			}
 		}
+		resetDispatchTables();
 	}	// addModelValidator
 
 	@Override
@@ -676,6 +695,7 @@ public class ModelValidationEngine implements IModelValidationEngine
 			return;
 		}
 		list.remove(listener);
+		resetDispatchTables();
 		if (list.size() == 0)
 		{
 			m_modelChangeListeners.remove(propertyName);
@@ -696,102 +716,241 @@ public class ModelValidationEngine implements IModelValidationEngine
 
 	public void fireModelChange(@NonNull final PO po, final ModelChangeType changeType)
 	{
+		fireModelChange0(po, changeType);
+	}
 
-		if(!isPerformanceMonitorActive())
+	public void fireModelChange0(@Nullable final PO po, @NonNull final ModelChangeType changeType)
+	{
+		if (po == null || m_modelChangeListeners.isEmpty())
 		{
-			fireModelChange0(po, changeType);
+			return;
 		}
-		else
+		final Boolean dynAttributeDoNotFire = InterfaceWrapperHelper.getDynAttribute(po, DYNATTR_DO_NOT_INVOKE_ON_MODEL_CHANGE);
+		if (dynAttributeDoNotFire != null && dynAttributeDoNotFire)
 		{
-			final String tableName = po.get_TableName();
-			final String changeTypeStr = changeType.toString();
-
-			performanceMonitoringService().monitor(
-					() -> fireModelChange0(po, changeType),
-					Metadata
-							.builder()
-							.className("ModelValidationEngine")
-							.type(Type.MODEL_INTERCEPTOR)
-							.functionName("fireModelChange")
-							.label("changeType", changeTypeStr)
-							.label("tableName", tableName)
-							.label(PerformanceMonitoringService.LABEL_RECORD_ID, Integer.toString(po.get_ID()))
-							.build());
+			return; // nothing to do
+		}
+
+		//
+		// Resolve the interceptors once per event.
+		// In case there are none, do nothing; tables without interceptors for this timing shall cost (almost) nothing
+		final ImmutableList<DispatchedInterceptor> interceptors = getModelChangeInterceptors(po.get_TableName(), po.getAD_Client_ID(), changeType);
+		final List<I_AD_Table_ScriptValidator> scriptValidators = retrieveModelChangeScriptValidators(po, changeType);
+		if (interceptors.isEmpty() && scriptValidators.isEmpty())
+		{
+			return;
 		}
-	}
 
-	public void fireModelChange0(@Nullable final PO po, @NonNull final ModelChangeType changeType)
-	{
 		try (final MDCCloseable mdcCloseable = MDC.putCloseable("changeType", changeType.toString()))
 		{
-			if (po == null || m_modelChangeListeners.isEmpty())
+			if (!isPerformanceMonitorActive())
 			{
-				return;
+				fireModelChange0(po, changeType, interceptors, scriptValidators);
 			}
-			final Boolean dynAttributeDoNotFire = InterfaceWrapperHelper.getDynAttribute(po, DYNATTR_DO_NOT_INVOKE_ON_MODEL_CHANGE);
-			if (dynAttributeDoNotFire != null && dynAttributeDoNotFire)
+			else
 			{
-				return; // nothing to do
+				final String tableName = po.get_TableName();
+				final String changeTypeStr = changeType.toString();
+
+				performanceMonitoringService().monitor(
+						() -> fireModelChange0(po, changeType, interceptors, scriptValidators),
+						Metadata
+								.builder()
+								.className("ModelValidationEngine")
+								.type(Type.MODEL_INTERCEPTOR)
+								.functionName("fireModelChange")
+								.label("changeType", changeTypeStr)
+								.label("tableName", tableName)
+								.label(PerformanceMonitoringService.LABEL_RECORD_ID, Integer.toString(po.get_ID()))
+								.build());
 			}
+		}
+	}	// fireModelChange
 
-			//
-			// Make sure model if valid before firing the listeners
-			assertModelValidBeforeFiringEvent(po, changeType); // isDocumentValidateEvent=false
+	private void fireModelChange0(
+			@NonNull final PO po,
+			@NonNull final ModelChangeType changeType,
+			@NonNull final List<DispatchedInterceptor> interceptors,
+			@NonNull final List<I_AD_Table_ScriptValidator> scriptValidators)
+	{
+		//
+		// Make sure model if valid before firing the listeners
+		assertModelValidBeforeFiringEvent(po, changeType); // isDocumentValidateEvent=false
 
-			int countInterceptors = 0;
+		//
+		// Execute interceptors
+		final String trxName = po.get_TrxName();
+		executeInTrx(trxName, changeType, () -> fireModelChangeInTrx(po, changeType, interceptors, scriptValidators));
 
-			//
-			// Retrieve system level model interceptors
-			final String propertyNameSystem = getPropertyName(po.get_TableName());
-			final List<ModelValidator> interceptorsSystem = m_modelChangeListeners.get(propertyNameSystem);
-			final int countSystemInterceptors = interceptorsSystem != null ? interceptorsSystem.size() : 0;
-			countInterceptors += countSystemInterceptors;
+		logger.debug("Executed: ALL {} interceptors for {}", changeType, po);
+	}
 
-			//
-			// Retrieve client level model interceptors
-			final String propertyNameClient = getPropertyName(po.get_TableName(), po.getAD_Client_ID());
-			final List<ModelValidator> interceptorsClient = m_modelChangeListeners.get(propertyNameClient);
-			final int countClientInterceptors = interceptorsClient != null ? interceptorsClient.size() : 0;
-			countInterceptors += countClientInterceptors;
+	/**
+	 * @return true if all model interceptors which would be fired when the given record is created can cope with it being saved in a batch.
+	 * Script validators and interceptors which are not {@link IModelInterceptor}s are never considered to be batch-insert compatible.
+	 * @see IModelInterceptor#isBatchInsertCompatible(String, ModelChangeType)
+	 */
+	public boolean isBatchInsertCompatible(@NonNull final PO po)
+	{
+		if (m_modelChangeListeners.isEmpty())
+		{
+			return true;
+		}
 
-			//
-			// Retrieve script interceptors
-			//
-			// now process the script model validator for this event
-			// metas: tsa: 02380: First check if changeType is available in tableEventValidators
-			// FIXME: refactor it and have it as a regular model validator; then remove it from here
-			final List<I_AD_Table_ScriptValidator> scriptValidators;
-			final int countScriptingInterceptors;
-			if (ModelValidator.tableEventValidators.length > changeType.toInt())
+		final String tableName = po.get_TableName();
+		for (final ModelChangeType changeType : new ModelChangeType[] { ModelChangeType.BEFORE_SAVE_TRX, ModelChangeType.BEFORE_NEW, ModelChangeType.AFTER_NEW, ModelChangeType.AFTER_NEW_REPLICATION })
+		{
+			if (!retrieveModelChangeScriptValidators(po, changeType).isEmpty())
 			{
-				scriptValidators = Services.get(IADTableScriptValidatorDAO.class).retrieveTableScriptValidators(
-						po.getCtx(),
-						po.get_Table_ID(),
-						ModelValidator.tableEventValidators[changeType.toInt()]);
-				countScriptingInterceptors = scriptValidators != null ? scriptValidators.size() : 0;
+				logger.debug("{} is not batch-insert compatible because of its script validators for {}", tableName, changeType);
+				return false;
 			}
-			else
+
+			for (final DispatchedInterceptor interceptor : getModelChangeInterceptors(tableName, po.getAD_Client_ID(), changeType))
 			{
-				scriptValidators = null;
-				countScriptingInterceptors = 0;
+				if (!isBatchInsertCompatible(interceptor.getValidator(), tableName, changeType))
+				{
+					logger.debug("{} is not batch-insert compatible because of {} ({})", tableName, interceptor.getValidator(), changeType);
+					return false;
+				}
 			}
-			countInterceptors += countScriptingInterceptors;
+		}
 
-			//
-			// In case there are no interceptors, do nothing
-			if (countInterceptors <= 0)
+		return true;
+	}
+
+	private List<I_AD_Table_ScriptValidator> retrieveModelChangeScriptValidators(@NonNull final PO po, @NonNull final ModelChangeType changeType)
+	{
+		// metas: tsa: 02380: First check if changeType is available in tableEventValidators
+		// FIXME: refactor it and have it as a regular model validator; then remove it from here
+		if (ModelValidator.tableEventValidators.length <= changeType.toInt())
+		{
+			return ImmutableList.of();
+		}
+
+		final List<I_AD_Table_ScriptValidator> scriptValidators = Services.get(IADTableScriptValidatorDAO.class).retrieveTableScriptValidators(
+				po.getCtx(),
+				po.get_Table_ID(),
+				ModelValidator.tableEventValidators[changeType.toInt()]);
+		return scriptValidators != null ? scriptValidators : ImmutableList.of();
+	}
+
+	@VisibleForTesting
+	ImmutableList<DispatchedInterceptor> getModelChangeInterceptors(
+			@NonNull final String tableName,
+			final int adClientId,
+			@NonNull final ModelChangeType changeType)
+	{
+		return m_modelChangeDispatchTable.computeIfAbsent(
+				Util.mkKey(tableName, adClientId, changeType),
+				key -> createDispatchedInterceptors(
+						m_modelChangeListeners,
+						tableName,
+						adClientId,
+						changeType,
+						validator -> isModelChangeApplicable(validator, tableName, changeType)));
+	}
+
+	@VisibleForTesting
+	ImmutableList<DispatchedInterceptor> getDocValidateInterceptors(
+			@NonNull final String tableName,
+			final int adClientId,
+			@NonNull final DocTimingType docTiming)
+	{
+		return m_docValidateDispatchTable.computeIfAbsent(
+				Util.mkKey(tableName, adClientId, docTiming),
+				key -> createDispatchedInterceptors(
+						m_docValidateListeners,
+						tableName,
+						adClientId,
+						docTiming,
+						validator -> isDocValidateApplicable(validator, tableName, docTiming)));
+	}
+
+	/**
+	 * @return the system level interceptors followed by the client level interceptors which apply for given table, client and timing
+	 */
+	private ImmutableList<DispatchedInterceptor> createDispatchedInterceptors(
+			@NonNull final Map<String, ArrayList<ModelValidator>> listeners,
+			@NonNull final String tableName,
+			final int adClientId,
+			@NonNull final TimingType timing,
+			@NonNull final Predicate<ModelValidator> isApplicable)
+	{
+		final ImmutableList.Builder<DispatchedInterceptor> result = ImmutableList.builder();
+		for (final String propertyName : ImmutableList.of(getPropertyName(tableName), getPropertyName(tableName, adClientId)))
+		{
+			final List<ModelValidator> validators = listeners.get(propertyName);
+			if (validators == null)
 			{
-				return;
+				continue;
 			}
 
-			//
-			// Execute interceptors
-			final String trxName = po.get_TrxName();
-			executeInTrx(trxName, changeType, () -> fireModelChange0(po, changeType, interceptorsSystem, interceptorsClient, scriptValidators));
+			for (final ModelValidator validator : validators)
+			{
+				if (!appliesFor(validator, adClientId))
+				{
+					logger.debug("Skip {} ({}) for {}/AD_Client_ID={}", validator, timing, tableName, adClientId);
+					continue;
+				}
+				if (!isApplicable.test(validator))
+				{
+					continue;
+				}
 
-			logger.debug("Executed: ALL {} interceptors for {}", changeType, po);
+				final InvocationStats stats = ModelInterceptorMetrics.instance.getInvocationStats(validator.toString(), timing);
+				result.add(new DispatchedInterceptor(validator, stats));
+			}
 		}
-	}	// fireModelChange
+
+		return result.build();
+	}
+
+	private static boolean isModelChangeApplicable(@NonNull final ModelValidator validator, @NonNull final String tableName, @NonNull final ModelChangeType changeType)
+	{
+		if (validator instanceof ModelInterceptor2ModelValidatorWrapper)
+		{
+			return ((ModelInterceptor2ModelValidatorWrapper)validator).isModelChangeApplicable(tableName, changeType);
+		}
+		else if (validator instanceof IModelInterceptor)
+		{
+			return ((IModelInterceptor)validator).isModelChangeApplicable(tableName, changeType);
+		}
+		return true;
+	}
+
+	private static boolean isBatchInsertCompatible(@NonNull final ModelValidator validator, @NonNull final String tableName, @NonNull final ModelChangeType changeType)
+	{
+		if (validator instanceof ModelInterceptor2ModelValidatorWrapper)
+		{
+			return ((ModelInterceptor2ModelValidatorWrapper)validator).isBatchInsertCompatible(tableName, changeType);
+		}
+		else if (validator instanceof IModelInterceptor)
+		{
+			return ((IModelInterceptor)validator).isBatchInsertCompatible(tableName, changeType);
+		}
+		return false;
+	}
+
+	private static boolean isDocValidateApplicable(@NonNull final ModelValidator validator, @NonNull final String tableName, @NonNull final DocTimingType docTiming)
+	{
+		if (validator instanceof ModelInterceptor2ModelValidatorWrapper)
+		{
+			return ((ModelInterceptor2ModelValidatorWrapper)validator).isDocValidateApplicable(tableName, docTiming);
+		}
+		else if (validator instanceof IModelInterceptor)
+		{
+			return ((IModelInterceptor)validator).isDocValidateApplicable(tableName, docTiming);
+		}
+		return true;
+	}
+
+	private void resetDispatchTables()
+	{
+		// don't clear() them: a computeIfAbsent which is still running could put back an entry which was built from the previous interceptors
+		m_modelChangeDispatchTable = new ConcurrentHashMap<>();
+		m_docValidateDispatchTable = new ConcurrentHashMap<>();
+	}
 
 	private boolean isPerformanceMonitorActive()
 	{
@@ -840,24 +999,14 @@ public class ModelValidationEngine implements IModelValidationEngine
 
 	}
 
-	private final void fireModelChange0(
+	private final void fireModelChangeInTrx(
 			@NonNull final PO po,
 			@NonNull final ModelChangeType changeType,
-			@Nullable List<ModelValidator> interceptorsSystem,
-			@Nullable List<ModelValidator> interceptorsClient,
-			@Nullable List<I_AD_Table_ScriptValidator> scriptValidators)
+			@NonNull final List<DispatchedInterceptor> interceptors,
+			@Nullable final List<I_AD_Table_ScriptValidator> scriptValidators)
 	{
-		if (interceptorsSystem != null)
-		{
-			// ad_entitytype.modelvalidationclasses
-			invokeModelChangeMethods(po, changeType, interceptorsSystem);
-		}
-
-		if (interceptorsClient != null)
-		{
-			// ad_client.modelvalidationclasses
-			invokeModelChangeMethods(po, changeType, interceptorsClient);
-		}
+		// ad_entitytype.modelvalidationclasses, followed by ad_client.modelvalidationclasses
+		invokeModelChangeMethods(po, changeType, interceptors);
 
 		//
 		// now process the script model validator for this event
@@ -960,49 +1109,46 @@ public class ModelValidationEngine implements IModelValidationEngine
 	private final void invokeModelChangeMethods(
 			@NonNull final PO po,
 			@NonNull final ModelChangeType changeType,
-			@NonNull final List<ModelValidator> validators)
+			@NonNull final List<DispatchedInterceptor> interceptors)
 	{
-		for (final ModelValidator validator : validators)
+		for (final DispatchedInterceptor interceptor : interceptors)
 		{
-			invokeModelChangeMethod(po, changeType, validator);
+			invokeModelChangeMethod(po, changeType, interceptor);
 		}
 	}
 
 	private void invokeModelChangeMethod(
 			@NonNull final PO po,
 			@NonNull final ModelChangeType changeType,
-			@NonNull final ModelValidator validator)
+			@NonNull final DispatchedInterceptor interceptor)
 	{
+		final ModelValidator validator = interceptor.getValidator();
 		try (final MDCCloseable mdcCloseable = MDC.putCloseable("interceptor", validator.toString()))
 		{
-			if (!appliesFor(validator, po.getAD_Client_ID()))
+			final Stopwatch stopwatch = Stopwatch.createStarted();
+			try
 			{
-				logger.debug("Skip {} ({}) for {}", validator, changeType, po);
-				return;
-			}
-
-		final Stopwatch stopwatch = Stopwatch.createStarted();
-				try
-		{
+				// the default cause
+				final String error = validator.modelChange(po, changeType.toInt());
+				if (!Check.isEmpty(error))
+				{
+					throw new AdempiereException(error);
+				}
 
-			// the default cause
-			final String error = validator.modelChange(po, changeType.toInt());
-			if (!Check.isEmpty(error))
+				logger.debug("Executed in {}: {} ({}) for {}", stopwatch, validator, changeType, po);
+			}
+			catch (final Exception ex)
 			{
-				throw new AdempiereException(error);
+				logger.debug("Failed executing in {}: {} ({}) for {}", stopwatch, validator, changeType, po, ex);
+				throw AdempiereException.wrapIfNeeded(ex);
+			}
+			finally
+			{
+				interceptor.getStats().record(stopwatch.elapsed(TimeUnit.NANOSECONDS));
 			}
-
-					logger.debug("Executed in {}: {} ({}) for {}", stopwatch, validator, changeType, po);
-		}
-		catch (final Exception ex)
-		{
-					logger.debug("Failed executing in {}: {} ({}) for {}", stopwatch, validator, changeType, po, ex);
-			throw AdempiereException.wrapIfNeeded(ex);
 		}
 	}
 
-				}
-
 	/**************************************************************************
 	 * Add Document Validation Listener
 	 *
@@ -1032,6 +1178,7 @@ public class ModelValidationEngine implements IModelValidationEngine
 		{
 			list.add(listener);
 		}
+		resetDispatchTables();
 	}	// addDocValidate
 
 	@Override
@@ -1065,6 +1212,7 @@ public class ModelValidationEngine implements IModelValidationEngine
 			return;
 		}
 		list.remove(listener);
+		resetDispatchTables();
 		if (list.size() == 0)
 		{
 			m_docValidateListeners.remove(propertyName);
@@ -1126,25 +1274,7 @@ public class ModelValidationEngine implements IModelValidationEngine
 		{
 			return null;
 		}
-		//
-		// Make sure model if valid before firing the listeners
-		assertModelValidBeforeFiringEvent(po, docTiming); // isDocumentValidateEvent=true
-
-		int countInterceptors = 0;
-
-		//
-		// Retrieve system level model interceptors
-		final String propertyNameSystem = getPropertyName(po.get_TableName());
-		final List<ModelValidator> interceptorsSystem = m_docValidateListeners.get(propertyNameSystem);
-		final int countSystemInterceptors = interceptorsSystem != null ? interceptorsSystem.size() : 0;
-		countInterceptors += countSystemInterceptors;
-
-		//
-		// Retrieve client level model interceptors
-		final String propertyNameClient = getPropertyName(po.get_TableName(), po.getAD_Client_ID());
-		final List<ModelValidator> interceptorsClient = m_docValidateListeners.get(propertyNameClient);
-		final int countClientInterceptors = interceptorsClient != null ? interceptorsClient.size() : 0;
-		countInterceptors += countClientInterceptors;
+		final ImmutableList<DispatchedInterceptor> interceptors = getDocValidateInterceptors(po.get_TableName(), po.getAD_Client_ID(), docTiming);
 
 		//
 		// Retrieve script interceptors
@@ -1159,14 +1289,14 @@ public class ModelValidationEngine implements IModelValidationEngine
 					po.getCtx(),
 					po.get_Table_ID(),
 					ModelValidator.documentEventValidators.get(docTiming));
-			final int countScriptingInterceptors = scriptValidators != null ? scriptValidators.size() : 0;
-			countInterceptors += countScriptingInterceptors;
 		}
 		else
 		{
 			scriptValidators = null;
 		}
 
+		final int countInterceptors = interceptors.size() + (scriptValidators != null ? scriptValidators.size() : 0);
+
 		//
 		// In case there are no interceptors, do nothing
 		if (countInterceptors <= 0)
@@ -1174,10 +1304,14 @@ public class ModelValidationEngine implements IModelValidationEngine
 			return null;
 		}
 
+		//
+		// Make sure model if valid before firing the listeners
+		assertModelValidBeforeFiringEvent(po, docTiming); // isDocumentValidateEvent=true
+
 		//
 		// Execute interceptors
 		final String trxName = po.get_TrxName();
-		executeInTrx(trxName, docTiming, () -> fireDocValidate0(po, docTiming, interceptorsSystem, interceptorsClient, scriptValidators));
+		executeInTrx(trxName, docTiming, () -> fireDocValidate0(po, docTiming, interceptors, scriptValidators));
 
 		logger.trace("Executed ALL {} {} interceptors for {}", countInterceptors, docTiming, po);
 
@@ -1186,21 +1320,11 @@ public class ModelValidationEngine implements IModelValidationEngine
 
 	private void fireDocValidate0(final PO po,
 			final DocTimingType docTiming,
-			final List<ModelValidator> interceptorsSystem,
-			final List<ModelValidator> interceptorsClient,
+			final List<DispatchedInterceptor> interceptors,
 			final List<I_AD_Table_ScriptValidator> scriptValidators)
 	{
-		if (interceptorsSystem != null)
-		{
-			// ad_entitytype.modelvalidationclasses
-			fireDocValidate(po, docTiming, interceptorsSystem);
-		}
-
-		if (interceptorsClient != null)
-		{
-			// ad_client.modelvalidationclasses
-			fireDocValidate(po, docTiming, interceptorsClient);
-		}
+		// ad_entitytype.modelvalidationclasses, followed by ad_client.modelvalidationclasses
+		fireDocValidate(po, docTiming, interceptors);
 
 		//
 		// now process the script model validator for this docTiming
@@ -1216,9 +1340,9 @@ public class ModelValidationEngine implements IModelValidationEngine
 	private void fireDocValidate(
 			final PO po,
 			final DocTimingType docTiming,
-			final List<ModelValidator> interceptors)
+			final List<DispatchedInterceptor> interceptors)
 	{
-		for (final ModelValidator interceptor : interceptors)
+		for (final DispatchedInterceptor interceptor : interceptors)
 		{
 			invokeDocValidateMethod(po, docTiming, interceptor);
 		}
@@ -1227,14 +1351,9 @@ public class ModelValidationEngine implements IModelValidationEngine
 	private void invokeDocValidateMethod(
 			@NonNull final PO po,
 			@NonNull final DocTimingType docTiming,
-			@NonNull final ModelValidator interceptor)
+			@NonNull final DispatchedInterceptor dispatchedInterceptor)
 	{
-		if (!appliesFor(interceptor, po.getAD_Client_ID()))
-		{
-			logger.trace("Skip {} ({}) for {}", interceptor, docTiming, po);
-			return;
-		}
-
+		final ModelValidator interceptor = dispatchedInterceptor.getValidator();
 		final Stopwatch stopwatch = Stopwatch.createStarted();
 		try
 		{
@@ -1251,6 +1370,10 @@ public class ModelValidationEngine implements IModelValidationEngine
 			logger.trace("Failed executing in {}: {} ({}) for {}", stopwatch, interceptor, docTiming, po, ex);
 			throw AdempiereException.wrapIfNeeded(ex);
 		}
+		finally
+		{
+			dispatchedInterceptor.getStats().record(stopwatch.elapsed(TimeUnit.NANOSECONDS));
+		}
 	}
 
 	@Override
@@ -1444,6 +1567,7 @@ public class ModelValidationEngine implements IModelValidationEngine
 		if (!m_globalValidators.contains(validator))
 		{
 			m_globalValidators.add(validator);
+			resetDispatchTables();
 		}
 	}
 
@@ -1568,4 +1692,30 @@ public class ModelValidationEngine implements IModelValidationEngine
 			state = State.TO_BE_INITALIZED;
 		}
 	}
+
+	/**
+	 * An interceptor as it's kept in the dispatch tables, together with its invocation statistics.
+	 */
+	@VisibleForTesting
+	static final class DispatchedInterceptor
+	{
+		private final ModelValidator validator;
+		private final InvocationStats stats;
+
+		private DispatchedInterceptor(@NonNull final ModelValidator validator, @NonNull final InvocationStats stats)
+		{
+			this.validator = validator;
+			this.stats = stats;
+		}
+
+		public ModelValidator getValidator()
+		{
+			return validator;
+		}
+
+		public InvocationStats getStats()
+		{
+			return stats;
+		}
+	}
 }	// ModelValidatorEngine
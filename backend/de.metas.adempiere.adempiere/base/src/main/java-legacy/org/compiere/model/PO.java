@@ -16,6 +16,7 @@
  *****************************************************************************/
 package org.compiere.model;
 
+import com.google.common.annotations.VisibleForTesting;
 import de.metas.ad_reference.ADRefList;
 import de.metas.audit.apirequest.request.log.StateType;
 import de.metas.cache.model.CacheInvalidateMultiRequest;
@@ -661,6 +662,15 @@ public abstract class PO
 		return m_oldValues[index];
 	}   // get_Value
 
+	/**
+	 * @return true if the value of given column was loaded, i.e. it won't be lazy loaded on first access
+	 */
+	@VisibleForTesting
+	final boolean is_ValueLoaded(final int index)
+	{
+		return m_valueLoaded[index];
+	}
+
 	/**
 	 * Get Value as int
 	 *
@@ -1640,13 +1650,18 @@ public abstract class PO
 	}   // load
 
 	/**
-	 * Load from the current position of a ResultSet
+	 * Load from the current position of a ResultSet.
+	 * <p>
+	 * If a {@link POResultSetColumnMapping} is active for the given ResultSet, the columns are read by position
+	 * and the columns which are not part of the ResultSet are left to be lazy loaded.
 	 *
 	 * @param rs result set
 	 * @return true if loaded
 	 */
 	protected final boolean load(final ResultSet rs)
 	{
+		final POResultSetColumnMapping columnMapping = POResultSetColumnMapping.getCurrentOrNull(p_info, rs);
+
 		final int size = get_ColumnCount();
 		boolean success = true;
 		int index = 0;
@@ -1658,7 +1673,15 @@ public abstract class PO
 			{
 				continue;
 			}
-			if (!loadColumn(index, rs))
+
+			if (columnMapping != null)
+			{
+				if (columnMapping.isSelected(index) && !loadColumn(index, rs, columnMapping))
+				{
+					success = false;
+				}
+			}
+			else if (!loadColumn(index, rs))
 			{
 				success = false;
 			}
@@ -1739,6 +1762,59 @@ public abstract class PO
 		return success;
 	}
 
+	/**
+	 * Same as {@link #loadColumn(int, ResultSet)} but reading the column by its position, using the reader which was resolved upfront.
+	 */
+	private boolean loadColumn(final int index, final ResultSet rs, final POResultSetColumnMapping columnMapping)
+	{
+		boolean success = true;
+		final int position = columnMapping.getPosition(index);
+		try
+		{
+			switch (columnMapping.getColumnReader(index))
+			{
+				case INTEGER:
+					m_oldValues[index] = decrypt(index, rs.getInt(position));
+					break;
+				case BIG_DECIMAL:
+					m_oldValues[index] = decrypt(index, rs.getBigDecimal(position));
+					break;
+				case BOOLEAN:
+					m_oldValues[index] = StringUtils.toBoolean(decrypt(index, rs.getString(position)));
+					break;
+				case TIMESTAMP:
+					m_oldValues[index] = decrypt(index, rs.getTimestamp(position));
+					break;
+				case LOB:
+					m_oldValues[index] = get_LOB(rs.getObject(position));
+					break;
+				case STRING:
+					m_oldValues[index] = decrypt(index, rs.getString(position));
+					break;
+				default:
+					m_oldValues[index] = loadSpecial(rs, index);
+					break;
+			}
+
+			// If the column's value was NULL, set null to our old values array (see loadColumn(int, ResultSet))
+			if (rs.wasNull() && m_oldValues[index] != null)
+			{
+				m_oldValues[index] = null;
+			}
+
+			m_newValues[index] = null; // reset new value
+			m_valueLoaded[index] = true; // mark the column as loaded
+		}
+		catch (final SQLException e)
+		{
+			log.warn("(rs) - " + index
+					+ ": " + p_info.getTableName() + "." + p_info.getColumnName(index)
+					+ " (" + p_info.getColumnClass(index) + ") - " + e);
+			success = false;
+		}
+		return success;
+	}
+
 	private boolean loadColumn(final int index)
 	{
 		if (is_new())
@@ -2631,6 +2707,32 @@ public abstract class PO
 	{
 		final boolean newRecord = is_new();    // save locally as load resets
 
+		fireBeforeSave(newRecord);
+
+		// Save
+		if (newRecord)
+		{
+			final boolean b = saveNew();
+			if (!b)
+			{
+				throw new AdempiereException("saveNew failed").setParameter("po", this).appendParametersToMessage();
+			}
+		}
+		else
+		{
+			final boolean b = saveUpdate();
+			if (!b)
+			{
+				throw new AdempiereException("saveUpdate failed").setParameter("po", this).appendParametersToMessage();
+			}
+		}
+	}
+
+	/**
+	 * Calls {@link #beforeSave(boolean)}, the before new/change model interceptors and the before new/change cache invalidation.
+	 */
+	private void fireBeforeSave(final boolean newRecord)
+	{
 		// Before Save
 		if (!isAssignedID)
 		{
@@ -2658,24 +2760,6 @@ public abstract class PO
 				log.warn("Cache invalidation on before new/change failed for {}. Ignored.", this, ex);
 			}
 		}
-
-		// Save
-		if (newRecord)
-		{
-			final boolean b = saveNew();
-			if (!b)
-			{
-				throw new AdempiereException("saveNew failed").setParameter("po", this).appendParametersToMessage();
-			}
-		}
-		else
-		{
-			final boolean b = saveUpdate();
-			if (!b)
-			{
-				throw new AdempiereException("saveUpdate failed").setParameter("po", this).appendParametersToMessage();
-			}
-		}
 	}
 
 	/**
@@ -3142,7 +3226,7 @@ public abstract class PO
 	 *
 	 * @return true if succeed (even if it does nothing); false ONLY if failed
 	 */
-	private boolean retrieveAndSetIds()
+	private boolean retrieveAndSetIds(final int preallocatedId)
 	{
 		// ID was assigned externally. Nothing to do
 		if (isAssignedID)
@@ -3168,7 +3252,11 @@ public abstract class PO
 
 		Integer idNew = saveNew_getID();
 
-		if (idNew <= 0
+		if (idNew <= 0 && preallocatedId > 0)
+		{
+			idNew = preallocatedId;
+		}
+		else if (idNew <= 0
 				&& DB.isUseNativeSequences(getAD_Client_ID(), get_TableName()))
 		{
 			idNew = I_ZERO_NATIVESEQUENCE;
@@ -3214,13 +3302,23 @@ public abstract class PO
 	{
 		//
 		// Generate and set new IDs
-		if (!retrieveAndSetIds())
+		if (!retrieveAndSetIds(-1))
 		{
 			// Setting new IDs failed.
 			// Execute saveFinish directly (last line in this method)
 			return saveFinish(true, false); // newRecord=true, success=false
 		}
 
+		final PreparedInsert insert = prepareInsert();
+		final boolean inserted = executeInsert(insert);
+		return saveNewFinish(insert, inserted);
+	}   // saveNew
+
+	/**
+	 * Sets the DocumentNo/Value etc. and builds the INSERT statement. Expects the IDs to be already set.
+	 */
+	private PreparedInsert prepareInsert()
+	{
 		final String tableName = p_info.getTableName();
 		POReturningAfterInsertLoader loadAfterInsertProcessor = new POReturningAfterInsertLoader();
 
@@ -3486,14 +3584,29 @@ public abstract class PO
 			loadAfterInsertProcessor = null;
 		}
 
-		//
-		// Execute actual database INSERT
-		final int no = DB.executeUpdateAndThrowExceptionOnFail(sqlInsert.toString(),
+		final boolean hasLOBs = m_lobInfo != null && !m_lobInfo.isEmpty();
+		return new PreparedInsert(sqlInsert.toString(), loadAfterInsertProcessor, hasLOBs);
+	}
+
+	/**
+	 * Execute actual database INSERT
+	 */
+	private boolean executeInsert(final PreparedInsert insert)
+	{
+		final int no = DB.executeUpdateAndThrowExceptionOnFail(insert.getSql(),
 															   (Object[])null,  // params,
 															   m_trxName,
 															   0,  // timeOut,
-															   loadAfterInsertProcessor);
-		boolean ok = no == 1;
+															   insert.loadAfterInsertProcessor);
+		return no == 1;
+	}
+
+	/**
+	 * Saves the LOBs, creates the change log, reloads this record if needed and calls {@link #saveFinish(boolean, boolean)}.
+	 */
+	private boolean saveNewFinish(final PreparedInsert insert, final boolean inserted)
+	{
+		boolean ok = inserted;
 
 		//
 		// Save LOBs
@@ -3531,7 +3644,7 @@ public abstract class PO
 			String msg = "Not inserted - ";
 			if (LogManager.isLevelFiner())
 			{
-				msg += sqlInsert.toString();
+				msg += insert.getSql();
 			}
 			else
 			{
@@ -3548,7 +3661,55 @@ public abstract class PO
 		}
 
 		return saveFinish(true, ok);
-	}   // saveNew
+	}
+
+	/**
+	 * Prepares this new record to be inserted together with other records of the same table; see {@link POBatchInsert}.
+	 * Calls {@link #beforeSave(boolean)}, fires the before-new model interceptors, sets the ID and builds the INSERT statement.
+	 * The caller is responsible for executing the returned statement and then calling {@link #saveNewBatched_finish(PreparedInsert, boolean)}.
+	 *
+	 * @param preallocatedId ID to be used if this record has no ID yet; ignored if {@code <= 0}
+	 */
+	final PreparedInsert saveNewBatched_prepare(final int preallocatedId)
+	{
+		Check.assume(is_new(), "record is new: {}", this);
+		savePrepare();
+		fireBeforeSave(true);
+
+		if (!retrieveAndSetIds(preallocatedId))
+		{
+			throw new AdempiereException("Setting new IDs failed").setParameter("po", this).appendParametersToMessage();
+		}
+
+		return prepareInsert();
+	}
+
+	/**
+	 * Executes the given INSERT of this record on its own; used for statements which are not {@link PreparedInsert#isBatchable()}.
+	 */
+	final boolean saveNewBatched_executeSingle(final PreparedInsert insert)
+	{
+		return executeInsert(insert);
+	}
+
+	/**
+	 * Finishes the save of this record after its INSERT was executed, i.e. calls {@link #afterSave(boolean, boolean)}, fires the after-new model interceptors etc.
+	 */
+	final void saveNewBatched_finish(final PreparedInsert insert, final boolean inserted)
+	{
+		if (!saveNewFinish(insert, inserted))
+		{
+			throw new AdempiereException("saveNew failed").setParameter("po", this).appendParametersToMessage();
+		}
+	}
+
+	/**
+	 * Marks this record as new again, because the batch it was saved with failed and was rolled back (like {@link #saveEx()} does when a single save fails).
+	 */
+	final void saveNewBatched_rollback()
+	{
+		m_createNew = true;
+	}
 
 	/**
 	 * Get ID for new record during save.
@@ -5134,6 +5295,40 @@ public abstract class PO
 
 	public void setCopiedFromRecordId(int fromRecordId) {setDynAttribute(DYNATTR_CopiedFromRecordId, fromRecordId);}
 
+	/**
+	 * The INSERT statement of a new record, as built by {@link #prepareInsert()}.
+	 */
+	static final class PreparedInsert
+	{
+		private final String sql;
+		@Nullable
+		private final POReturningAfterInsertLoader loadAfterInsertProcessor;
+		private final boolean hasLOBs;
+
+		private PreparedInsert(
+				@NonNull final String sql,
+				@Nullable final POReturningAfterInsertLoader loadAfterInsertProcessor,
+				final boolean hasLOBs)
+		{
+			this.sql = sql;
+			this.loadAfterInsertProcessor = loadAfterInsertProcessor;
+			this.hasLOBs = hasLOBs;
+		}
+
+		String getSql()
+		{
+			return sql;
+		}
+
+		/**
+		 * @return true if the statement can be executed within a JDBC batch, i.e. nothing has to be loaded back from the inserted row
+		 */
+		boolean isBatchable()
+		{
+			return loadAfterInsertProcessor == null && !hasLOBs;
+		}
+	}
+
 	private class POReturningAfterInsertLoader implements ISqlUpdateReturnProcessor
 	{
 		private final List<String> columnNames;
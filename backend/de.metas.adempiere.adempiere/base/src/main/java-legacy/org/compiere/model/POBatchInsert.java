@@ -0,0 +1,464 @@
+package org.compiere.model;
+
+import com.google.common.annotations.VisibleForTesting;
+import de.metas.logging.LogManager;
+import de.metas.util.Check;
+import de.metas.util.Services;
+import de.metas.util.StringUtils;
+import lombok.Builder;
+import lombok.NonNull;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.exceptions.DBException;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.model.POWrapper;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.util.DB;
+import org.compiere.util.TrxRunnable2;
+import org.slf4j.Logger;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+/**
+ * Saves new {@link PO}s using JDBC batch inserts.
+ * <p>
+ * Consecutive new records of the same table and transaction are saved together:
+ * <ol>
+ * <li>the IDs of the whole batch are reserved at once
+ * <li>for each record (in the given order): {@link PO#beforeSave(boolean)} and the before-new model interceptors are called and the INSERT is built
+ * <li>the INSERTs are executed as one JDBC batch
+ * <li>for each record (in the given order): {@link PO#afterSave(boolean, boolean)} and the after-new model interceptors are called
+ * </ol>
+ * So unlike with single saves, the before-new interceptors of a record can't see the previous records of the same batch in the database.
+ * That's why records are saved one by one unless all of their table's interceptors declared to be batch-insert compatible (see {@link ModelValidationEngine#isBatchInsertCompatible(PO)}),
+ * and also if their class overrides {@code beforeSave} or {@code afterSave}.
+ * Annotated interceptors have to declare it on each of their before/after-new methods, using {@code @ModelChange(batchInsertCompatible = true)}.
+ * The {@value #SYSCONFIG_Enabled}.{@code <TableName>} sysconfig overrides that check for a particular table.
+ * <p>
+ * Batch inserts are disabled by default (see {@value #SYSCONFIG_Enabled}). Note that:
+ * <ul>
+ * <li>if a batch fails, it is rolled back as a whole and the exception is propagated; the records after the failed batch are not saved.
+ * Unlike with single saves, this also means that none of the failed batch's records are saved, not even the ones before the failing record.
+ * The batch is not retried one by one, because its before-new interceptors were already called and the records were already changed by them.
+ * <li>the performance monitoring records one entry per batch, not one per record.
+ * </ul>
+ */
+public final class POBatchInsert
+{
+	private static final Logger logger = LogManager.getLogger(POBatchInsert.class);
+
+	/**
+	 * Sysconfig to enable/disable the batch inserts in general. Default is {@code N}.
+	 * It can be suffixed with {@code .<TableName>} to enable or disable them for one particular table, no matter if its model interceptors are batch-insert compatible.
+	 * The per-table setting only applies when batch inserts are enabled in general.
+	 */
+	private static final String SYSCONFIG_Enabled = "de.metas.PO.BatchInsert.Enabled";
+	private static final boolean DEFAULT_Enabled = false;
+	private static final String SYSCONFIG_MaxBatchSize = "de.metas.PO.BatchInsert.MaxBatchSize";
+	private static final int DEFAULT_MaxBatchSize = 500;
+
+	private static final ConcurrentHashMap<Class<?>, Boolean> overridesSaveHooksByClass = new ConcurrentHashMap<>();
+
+	private static final POServicesFacade services = new POServicesFacade();
+
+	private POBatchInsert()
+	{
+	}
+
+	/**
+	 * Saves the given models in the given order.
+	 *
+	 * @param singleSaver used to save the models which can't be saved in a batch
+	 */
+	public static void saveAll(@NonNull final Collection<?> models, @NonNull final Consumer<Object> singleSaver)
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		if (models.size() < 2 || !sysConfigBL.getBooleanValue(SYSCONFIG_Enabled, DEFAULT_Enabled))
+		{
+			models.forEach(singleSaver);
+			return;
+		}
+
+		Batcher.<PO>builder()
+				.batchableExtractor(POBatchInsert::extractBatchablePO)
+				.sameBatchPredicate(POBatchInsert::isSameBatch)
+				.maxBatchSize(sysConfigBL.getIntValue(SYSCONFIG_MaxBatchSize, DEFAULT_MaxBatchSize))
+				.batchInsertAllowedPredicate(POBatchInsert::isBatchInsertAllowed)
+				.batchInserter(POBatchInsert::insertBatchMonitored)
+				.singleSaver(singleSaver)
+				.build()
+				.saveAll(models);
+	}
+
+	/**
+	 * Splits the models into batches and single saves, keeping their order.
+	 * It knows nothing about {@link PO}s, so it can be tested without a database.
+	 */
+	@VisibleForTesting
+	static final class Batcher<T>
+	{
+		@NonNull private final Function<Object, T> batchableExtractor;
+		@NonNull private final BiPredicate<T, T> sameBatchPredicate;
+		private final int maxBatchSize;
+		@NonNull private final Predicate<List<T>> batchInsertAllowedPredicate;
+		@NonNull private final Consumer<List<T>> batchInserter;
+		@NonNull private final Consumer<Object> singleSaver;
+
+		/**
+		 * @param batchableExtractor returns the batchable record of the given model or {@code null} if the model shall be saved on its own
+		 * @param batchInserter      saves the given records in one go; if it fails, it shall leave no trace in the database
+		 */
+		@Builder
+		private Batcher(
+				@NonNull final Function<Object, T> batchableExtractor,
+				@NonNull final BiPredicate<T, T> sameBatchPredicate,
+				final int maxBatchSize,
+				@NonNull final Predicate<List<T>> batchInsertAllowedPredicate,
+				@NonNull final Consumer<List<T>> batchInserter,
+				@NonNull final Consumer<Object> singleSaver)
+		{
+			this.batchableExtractor = batchableExtractor;
+			this.sameBatchPredicate = sameBatchPredicate;
+			this.maxBatchSize = Math.max(1, maxBatchSize);
+			this.batchInsertAllowedPredicate = batchInsertAllowedPredicate;
+			this.batchInserter = batchInserter;
+			this.singleSaver = singleSaver;
+		}
+
+		public void saveAll(@NonNull final Collection<?> models)
+		{
+			final ArrayList<T> batch = new ArrayList<>();
+			for (final Object model : models)
+			{
+				final T record = batchableExtractor.apply(model);
+				if (record == null)
+				{
+					saveBatch(batch);
+					singleSaver.accept(model);
+					continue;
+				}
+
+				if (!batch.isEmpty() && (!sameBatchPredicate.test(batch.get(0), record) || batch.size() >= maxBatchSize))
+				{
+					saveBatch(batch);
+				}
+				batch.add(record);
+			}
+			saveBatch(batch);
+		}
+
+		private void saveBatch(@NonNull final List<T> batch)
+		{
+			if (batch.isEmpty())
+			{
+				return;
+			}
+
+			try
+			{
+				if (batch.size() < 2 || !batchInsertAllowedPredicate.test(batch))
+				{
+					batch.forEach(singleSaver);
+					return;
+				}
+
+				batchInserter.accept(batch);
+			}
+			finally
+			{
+				batch.clear();
+			}
+		}
+	}
+
+	@Nullable
+	private static PO extractBatchablePO(@Nullable final Object model)
+	{
+		if (model == null || !POWrapper.isHandled(model))
+		{
+			return null;
+		}
+
+		final PO po = POWrapper.getStrictPO(model);
+		if (po == null || !po.is_new())
+		{
+			return null;
+		}
+
+		final POInfo poInfo = po.getPOInfo();
+		if (!poInfo.isSingleKeyColumnName() || !poInfo.getKeyColumnName().endsWith("_ID"))
+		{
+			return null;
+		}
+
+		// the whole batch is saved within the records' transaction, so we need one; otherwise, each record would be saved in its own transaction
+		if (!Services.get(ITrxManager.class).isActive(po.get_TrxName()))
+		{
+			return null;
+		}
+
+		return po;
+	}
+
+	private static boolean isSameBatch(@NonNull final PO first, @NonNull final PO po)
+	{
+		return first.get_Table_ID() == po.get_Table_ID()
+				&& first.getAD_Client_ID() == po.getAD_Client_ID()
+				&& Objects.equals(first.get_TrxName(), po.get_TrxName());
+	}
+
+	private static boolean isBatchInsertAllowed(@NonNull final List<PO> batch)
+	{
+		final PO first = batch.get(0);
+		final String tableName = first.get_TableName();
+		final String enabledForTable = Services.get(ISysConfigBL.class).getValue(SYSCONFIG_Enabled + "." + tableName);
+		if (!Check.isBlank(enabledForTable))
+		{
+			return StringUtils.toBoolean(enabledForTable);
+		}
+
+		if (!ModelValidationEngine.get().isBatchInsertCompatible(first))
+		{
+			logger.debug("Not using batch insert for {} because not all of its model interceptors are batch-insert compatible", tableName);
+			return false;
+		}
+
+		for (final PO po : batch)
+		{
+			if (isOverridingSaveHooks(po.getClass()))
+			{
+				logger.debug("Not using batch insert for {} because {} overrides beforeSave or afterSave", tableName, po.getClass());
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	@VisibleForTesting
+	static boolean isOverridingSaveHooks(@NonNull final Class<?> poClass)
+	{
+		return overridesSaveHooksByClass.computeIfAbsent(poClass, POBatchInsert::computeOverridingSaveHooks);
+	}
+
+	private static boolean computeOverridingSaveHooks(@NonNull final Class<?> poClass)
+	{
+		for (Class<?> clazz = poClass; clazz != null && !PO.class.equals(clazz); clazz = clazz.getSuperclass())
+		{
+			for (final Method method : clazz.getDeclaredMethods())
+			{
+				final Class<?>[] parameterTypes = method.getParameterTypes();
+				if ("beforeSave".equals(method.getName()) && parameterTypes.length == 1 && parameterTypes[0] == boolean.class)
+				{
+					return true;
+				}
+				if ("afterSave".equals(method.getName()) && parameterTypes.length == 2 && parameterTypes[0] == boolean.class && parameterTypes[1] == boolean.class)
+				{
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static void insertBatchMonitored(@NonNull final List<PO> batch)
+	{
+		if (services.isPerfMonActive())
+		{
+			services.performanceMonitoringServiceSaveBatch(() -> insertBatch(batch));
+		}
+		else
+		{
+			insertBatch(batch);
+		}
+	}
+
+	private static void insertBatch(@NonNull final List<PO> batch)
+	{
+		final PO first = batch.get(0);
+		final String trxNameInitial = first.get_TrxName();
+
+		final ArrayList<PO> pos = new ArrayList<>(batch);
+		final ArrayList<String> trxNamesInitial = new ArrayList<>(pos.size());
+		pos.forEach(po -> trxNamesInitial.add(po.get_TrxName()));
+
+		Services.get(ITrxManager.class).run(trxNameInitial, new TrxRunnable2()
+		{
+			@Override
+			public void run(final String localTrxName)
+			{
+				pos.forEach(po -> po.set_TrxName(localTrxName));
+				insertBatch0(pos, localTrxName);
+			}
+
+			@Override
+			public boolean doCatch(final Throwable e) throws Throwable
+			{
+				// whatever was inserted so far is rolled back, so all records are new again
+				logger.debug("Batch insert of {} {} records failed", pos.size(), first.get_TableName(), e);
+				pos.forEach(PO::saveNewBatched_rollback);
+				throw e;
+			}
+
+			@Override
+			public void doFinally()
+			{
+				for (int i = 0; i < pos.size(); i++)
+				{
+					pos.get(i).set_TrxName(trxNamesInitial.get(i));
+				}
+			}
+		});
+	}
+
+	private static void insertBatch0(@NonNull final List<PO> pos, @NonNull final String trxName)
+	{
+		final PO first = pos.get(0);
+		final int[] preallocatedIds = preallocateIds(pos);
+
+		//
+		// Before save: called for all records, before any of them is inserted
+		final ArrayList<PO.PreparedInsert> inserts = new ArrayList<>(pos.size());
+		for (int i = 0; i < pos.size(); i++)
+		{
+			inserts.add(pos.get(i).saveNewBatched_prepare(preallocatedIds[i]));
+		}
+
+		//
+		// Execute the INSERTs, in order.
+		// The ones which need to load something back from the DB are executed on their own.
+		final boolean[] inserted = new boolean[pos.size()];
+		final ArrayList<Integer> pendingIndexes = new ArrayList<>();
+		for (int i = 0; i < pos.size(); i++)
+		{
+			final PO.PreparedInsert insert = inserts.get(i);
+			if (insert.isBatchable())
+			{
+				pendingIndexes.add(i);
+			}
+			else
+			{
+				executeBatch(pendingIndexes, inserts, inserted, trxName);
+				inserted[i] = pos.get(i).saveNewBatched_executeSingle(insert);
+			}
+		}
+		executeBatch(pendingIndexes, inserts, inserted, trxName);
+
+		//
+		// After save, in the same order
+		for (int i = 0; i < pos.size(); i++)
+		{
+			pos.get(i).saveNewBatched_finish(inserts.get(i), inserted[i]);
+		}
+
+		logger.debug("Inserted {} {} records using batch insert", pos.size(), first.get_TableName());
+	}
+
+	/**
+	 * @return the IDs to be used for the given records; {@code 0} for the ones which already have an ID
+	 */
+	private static int[] preallocateIds(@NonNull final List<PO> pos)
+	{
+		final int[] preallocatedIds = new int[pos.size()];
+
+		int countIdsNeeded = 0;
+		for (final PO po : pos)
+		{
+			if (!po.isAssignedID() && po.saveNew_getID() <= 0)
+			{
+				countIdsNeeded++;
+			}
+		}
+		if (countIdsNeeded <= 0)
+		{
+			return preallocatedIds;
+		}
+
+		final PO first = pos.get(0);
+		final int[] ids = DB.getNextIDs(first.getAD_Client_ID(), first.get_TableName(), countIdsNeeded);
+		int idsIndex = 0;
+		for (int i = 0; i < pos.size(); i++)
+		{
+			final PO po = pos.get(i);
+			if (!po.isAssignedID() && po.saveNew_getID() <= 0)
+			{
+				preallocatedIds[i] = ids[idsIndex++];
+			}
+		}
+		return preallocatedIds;
+	}
+
+	private static void executeBatch(
+			@NonNull final List<Integer> indexes,
+			@NonNull final List<PO.PreparedInsert> inserts,
+			@NonNull final boolean[] inserted,
+			@NonNull final String trxName)
+	{
+		if (indexes.isEmpty())
+		{
+			return;
+		}
+
+		Statement stmt = null;
+		try
+		{
+			stmt = DB.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, trxName);
+			for (final int index : indexes)
+			{
+				stmt.addBatch(inserts.get(index).getSql());
+			}
+
+			final int[] updateCounts = stmt.executeBatch();
+			for (int i = 0; i < indexes.size(); i++)
+			{
+				final int updateCount = i < updateCounts.length ? updateCounts[i] : Statement.EXECUTE_FAILED;
+				inserted[indexes.get(i)] = updateCount == 1 || updateCount == Statement.SUCCESS_NO_INFO;
+			}
+		}
+		catch (final SQLException ex)
+		{
+			final SQLException cause = ex.getNextException() != null ? ex.getNextException() : ex;
+			throw new DBException(cause, inserts.get(indexes.get(0)).getSql());
+		}
+		finally
+		{
+			DB.close(stmt);
+			indexes.clear();
+		}
+	}
+}
@@ -1,5 +1,6 @@
 package org.compiere.model;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
@@ -423,6 +424,26 @@ public final class POInfo implements Serializable, ColumnDisplayTypeProvider
 				: POTrlInfo.NOT_TRANSLATED;
 	}
 
+	/**
+	 * Creates a POInfo for given columns, without loading anything from database.
+	 */
+	@VisibleForTesting
+	static POInfo ofColumns(
+			@NonNull final String tableName,
+			@NonNull final AdTableId adTableId,
+			@NonNull final List<POInfoColumn> columns)
+	{
+		final POInfoHeader header = POInfoHeader.builder()
+				.tableName(tableName)
+				.adTableId(adTableId)
+				.accessLevel(TableAccessLevel.ClientPlusOrganization)
+				.cloningEnabled(TableCloningEnabled.Auto)
+				.whenChildCloningStrategy(TableWhenChildCloningStrategy.AllowCloning)
+				.downlineCloningStrategy(TableDownlineCloningStrategy.Auto)
+				.build();
+		return new POInfo(header, columns);
+	}
+
 	private static POInfoHeader retrievePOInfoHeader(@NonNull final ResultSet rs) throws SQLException
 	{
 		return POInfoHeader.builder()
@@ -0,0 +1,233 @@
+package org.compiere.model;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.util.lang.IAutoCloseable;
+import org.compiere.util.DisplayType;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import lombok.NonNull;
+
+/**
+ * Maps the {@link POInfo} column indexes to the positions of a {@link ResultSet}'s columns, together with the typed reader to be used for each column.
+ * <p>
+ * The mapping is resolved once per {@link ResultSet} (i.e. once per query), so the {@link PO}s which are loaded from it
+ * are reading their column values by position, without looking up the columns by name or checking the column class for each row.
+ * <p>
+ * {@link PO#load(ResultSet)} is using the mapping only while it's active (see {@link #temporaryUse(POInfo, ResultSet)}) and only for the {@link ResultSet} it was created for.
+ * POInfo columns which are not part of the {@link ResultSet} are not loaded, so they will be lazy loaded on first access.
+ *
+ * @author metas-dev <dev@metasfresh.com>
+ */
+public final class POResultSetColumnMapping
+{
+	/**
+	 * Mapping which is active on current thread, see {@link #temporaryUse(POInfo, ResultSet)}.
+	 */
+	private static final ThreadLocal<POResultSetColumnMapping> currentMappingRef = new ThreadLocal<>();
+
+	/**
+	 * Tells how a column value shall be read from {@link ResultSet}. Mirrors the column class checks from PO's column loading.
+	 */
+	enum ColumnReader
+	{
+		INTEGER, BIG_DECIMAL, BOOLEAN, TIMESTAMP, LOB, STRING, SPECIAL
+	}
+
+	/**
+	 * Position of a POInfo column which is not part of the {@link ResultSet}
+	 */
+	static final int POSITION_None = 0;
+
+	private final POInfo poInfo;
+	private final ResultSet resultSet;
+	/** JDBC (1-based) column position, indexed by POInfo column index */
+	private final int[] positions;
+	/** column reader, indexed by POInfo column index */
+	private final ColumnReader[] readers;
+
+	private POResultSetColumnMapping(
+			@NonNull final POInfo poInfo,
+			@NonNull final ResultSet resultSet,
+			@NonNull final int[] positions,
+			@NonNull final ColumnReader[] readers)
+	{
+		this.poInfo = poInfo;
+		this.resultSet = resultSet;
+		this.positions = positions;
+		this.readers = readers;
+	}
+
+	/**
+	 * Resolves the column mapping of given {@link ResultSet} and makes {@link PO#load(ResultSet)} use it, on current thread, until the returned closeable is closed.
+	 *
+	 * @return an auto-closeable used to restore the previously active mapping (if any)
+	 */
+	public static IAutoCloseable temporaryUse(@NonNull final POInfo poInfo, @NonNull final ResultSet resultSet) throws SQLException
+	{
+		final POResultSetColumnMapping previousMapping = currentMappingRef.get();
+		currentMappingRef.set(of(poInfo, resultSet));
+		return () -> currentMappingRef.set(previousMapping);
+	}
+
+	/**
+	 * @return the active mapping if it was created for given POInfo and ResultSet; <code>null</code> otherwise
+	 */
+	@Nullable
+	static POResultSetColumnMapping getCurrentOrNull(@NonNull final POInfo poInfo, @NonNull final ResultSet resultSet)
+	{
+		final POResultSetColumnMapping currentMapping = currentMappingRef.get();
+		if (currentMapping == null
+				|| currentMapping.poInfo != poInfo
+				|| currentMapping.resultSet != resultSet)
+		{
+			return null;
+		}
+		return currentMapping;
+	}
+
+	private static POResultSetColumnMapping of(@NonNull final POInfo poInfo, @NonNull final ResultSet resultSet) throws SQLException
+	{
+		final int columnCount = poInfo.getColumnCount();
+
+		final List<String> columnNames = new ArrayList<>(columnCount);
+		final ColumnReader[] readers = new ColumnReader[columnCount];
+		for (int index = 0; index < columnCount; index++)
+		{
+			columnNames.add(poInfo.getColumnName(index));
+			readers[index] = toColumnReader(poInfo.getColumnClass(index), poInfo.getColumnDisplayType(index));
+		}
+
+		final int[] positions = resolvePositions(columnNames, extractColumnLabels(resultSet));
+
+		return new POResultSetColumnMapping(poInfo, resultSet, positions, readers);
+	}
+
+	private static List<String> extractColumnLabels(@NonNull final ResultSet resultSet) throws SQLException
+	{
+		final ResultSetMetaData metaData = resultSet.getMetaData();
+		final int resultSetColumnCount = metaData.getColumnCount();
+
+		final List<String> columnLabels = new ArrayList<>(resultSetColumnCount);
+		for (int position = 1; position <= resultSetColumnCount; position++)
+		{
+			columnLabels.add(metaData.getColumnLabel(position));
+		}
+		return columnLabels;
+	}
+
+	/**
+	 * Matches the column names case-insensitive (postgres is returning lower case labels), like {@link ResultSet#findColumn(String)} does.
+	 * If a label occurs more than once, the first position is used.
+	 *
+	 * @return JDBC column positions, indexed by the index of the column name; {@link #POSITION_None} for columns which are not part of the ResultSet
+	 */
+	@VisibleForTesting
+	static int[] resolvePositions(@NonNull final List<String> columnNames, @NonNull final List<String> resultSetColumnLabels)
+	{
+		final Map<String, Integer> positionsByLabel = new HashMap<>(resultSetColumnLabels.size());
+		for (int i = 0; i < resultSetColumnLabels.size(); i++)
+		{
+			final String label = resultSetColumnLabels.get(i);
+			if (label != null)
+			{
+				positionsByLabel.putIfAbsent(label.toLowerCase(), i + 1);
+			}
+		}
+
+		final int[] positions = new int[columnNames.size()];
+		for (int index = 0; index < positions.length; index++)
+		{
+			final Integer position = positionsByLabel.get(columnNames.get(index).toLowerCase());
+			positions[index] = position != null ? position : POSITION_None;
+		}
+		return positions;
+	}
+
+	@VisibleForTesting
+	static ColumnReader toColumnReader(@Nullable final Class<?> columnClass, final int displayType)
+	{
+		if (columnClass == Integer.class)
+		{
+			return ColumnReader.INTEGER;
+		}
+		else if (columnClass == BigDecimal.class)
+		{
+			return ColumnReader.BIG_DECIMAL;
+		}
+		else if (columnClass == Boolean.class)
+		{
+			return ColumnReader.BOOLEAN;
+		}
+		else if (columnClass == Timestamp.class)
+		{
+			return ColumnReader.TIMESTAMP;
+		}
+		else if (DisplayType.isLOB(displayType))
+		{
+			return ColumnReader.LOB;
+		}
+		else if (columnClass == String.class)
+		{
+			return ColumnReader.STRING;
+		}
+		else
+		{
+			return ColumnReader.SPECIAL;
+		}
+	}
+
+	/**
+	 * @return true if the column with given POInfo index is part of the ResultSet
+	 */
+	boolean isSelected(final int index)
+	{
+		return positions[index] != POSITION_None;
+	}
+
+	/**
+	 * @return JDBC (1-based) column position
+	 */
+	int getPosition(final int index)
+	{
+		return positions[index];
+	}
+
+	ColumnReader getColumnReader(final int index)
+	{
+		return readers[index];
+	}
+}
@@ -52,6 +52,13 @@ final class POServicesFacade
 					.type(PerformanceMonitoringService.Type.PO)
 					.functionName("saveEx")
 					.build();
+	private static final PerformanceMonitoringService.Metadata PM_METADATA_SAVE_BATCH =
+			PerformanceMonitoringService.Metadata
+					.builder()
+					.className("PO")
+					.type(PerformanceMonitoringService.Type.PO)
+					.functionName("saveNewBatched")
+					.build();
 	private static final PerformanceMonitoringService.Metadata PM_METADATA_LOAD =
 			PerformanceMonitoringService.Metadata
 					.builder()
@@ -182,6 +189,13 @@ final class POServicesFacade
 		performanceMonitoringService.monitor(runnable, PM_METADATA_SAVE_EX);
 	}
 
+	public void performanceMonitoringServiceSaveBatch(@NonNull final Runnable runnable)
+	{
+		final PerformanceMonitoringService performanceMonitoringService = performanceMonitoringService();
+
+		performanceMonitoringService.monitor(runnable, PM_METADATA_SAVE_BATCH);
+	}
+
 	public boolean performanceMonitoringServiceLoad(@NonNull final Callable<Boolean> callable)
 	{
 		final PerformanceMonitoringService performanceMonitoringService = performanceMonitoringService();
@@ -26,6 +26,9 @@ import com.google.common.collect.ImmutableSet;
 import de.metas.cache.CacheMgt;
 import de.metas.common.util.pair.ImmutablePair;
 import de.metas.document.sequence.IDocumentNoBuilderFactory;
+import de.metas.document.sequence.SequenceBlockAllocator;
+import de.metas.document.sequence.SequenceBlockAllocator.SequenceKey;
+import de.metas.document.sequence.SequenceBlockAllocator.SequenceKind;
 import de.metas.lang.SOTrx;
 import de.metas.logging.LogManager;
 import de.metas.logging.MetasfreshLastError;
@@ -1746,22 +1749,67 @@ public class DB
 	 * <p>
 	 * <b>WARNING:</b> the underlying sequence might be reset, depending on existing primary keys in the DB
 	 * <p>
+	 * Depending on the configuration, the IDs are reserved in blocks, so they are not necessarily in chronological order (see {@link SequenceBlockAllocator}).
+	 * <p>
 	 *
 	 * @param trxName optional Transaction Name
 	 * @return next primary key number
 	 */
 	public int getNextID(final int AD_Client_ID, final String TableName, final String trxName)
 	{
+		final SequenceBlockAllocator sequenceBlockAllocator = SequenceBlockAllocator.instance;
+		final int blockSize = MSequence.isBlockAllocationAllowed(AD_Client_ID, TableName)
+				? sequenceBlockAllocator.getConfiguredBlockSize(SequenceKind.TABLE_ID, TableName)
+				: 1;
+
 		final boolean useNativeSequences = DB.isUseNativeSequences(AD_Client_ID, TableName);
 		if (useNativeSequences)
 		{
 			final String sequenceName = getTableSequenceName(TableName);
-			final int nextId = CConnection.get().getDatabase().getNextID(sequenceName);
-			return nextId;
+			return sequenceBlockAllocator.next(
+					SequenceKey.tableId(TableName),
+					blockSize,
+					count -> count > 1
+							? CConnection.get().getDatabase().getNextIDs(sequenceName, count)
+							: new int[] { CConnection.get().getDatabase().getNextID(sequenceName) });
+		}
+
+		return sequenceBlockAllocator.next(
+				SequenceKey.tableId(TableName),
+				blockSize,
+				count -> MSequence.getNextIDs(AD_Client_ID, TableName, count));
+	}    // getNextID
+
+	/**
+	 * Get the next {@code count} IDs for database records, reserving them with as few database roundtrips as possible.
+	 * Where block allocation is not allowed (see {@link MSequence#isBlockAllocationAllowed(int, String)}), the IDs are retrieved one by one.
+	 *
+	 * @return exactly {@code count} IDs
+	 */
+	public int[] getNextIDs(final int AD_Client_ID, final String TableName, final int count)
+	{
+		Check.assumeGreaterThanZero(count, "count");
+
+		final int[] ids = new int[count];
+		int idsCount = 0;
+		if (count > 1 && MSequence.isBlockAllocationAllowed(AD_Client_ID, TableName))
+		{
+			final int[] reservedIds = DB.isUseNativeSequences(AD_Client_ID, TableName)
+					? CConnection.get().getDatabase().getNextIDs(getTableSequenceName(TableName), count)
+					: MSequence.getNextIDs(AD_Client_ID, TableName, count);
+
+			idsCount = Math.min(reservedIds.length, count);
+			System.arraycopy(reservedIds, 0, ids, 0, idsCount);
 		}
 
-		return MSequence.getNextID(AD_Client_ID, TableName, trxName);
-	}    // getNextID
+		// fallback for the sequences which did not (fully) reserve the requested block
+		while (idsCount < count)
+		{
+			ids[idsCount++] = getNextID(AD_Client_ID, TableName, ITrx.TRXNAME_None);
+		}
+
+		return ids;
+	}
 
 	public String TO_TABLESEQUENCE_NEXTVAL(final String tableName)
 	{
@@ -7,8 +7,12 @@ import org.springframework.context.event.EventListener;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
+import de.metas.cache.warmup.CacheWarmUpService;
 import de.metas.logging.LogManager;
 import de.metas.logging.MetasfreshIssueAppender;
+import lombok.NonNull;
+
+import java.util.Optional;
 
 /*
  * #%L
@@ -37,6 +41,16 @@ public class ApplicationReadyListener
 {
 	private static final Logger logger = LogManager.getLogger(ApplicationReadyListener.class);
 
+	private final Optional<CacheWarmUpService> cacheWarmUpService;
+
+	/**
+	 * @param cacheWarmUpService optional, because some tests are starting with a minimal spring context which includes this listener
+	 */
+	public ApplicationReadyListener(@NonNull final Optional<CacheWarmUpService> cacheWarmUpService)
+	{
+		this.cacheWarmUpService = cacheWarmUpService;
+	}
+
 	@EventListener(ApplicationReadyEvent.class)
 	@Order(Orders.FORCE_MODEL_VALIDATION_ENGINE_INIT)
 	public void initModelValidationEngine()
@@ -59,4 +73,10 @@ public class ApplicationReadyListener
 		metasfreshIssueAppender.enableIssueReporting();
 	}
 
+	@EventListener(ApplicationReadyEvent.class)
+	@Order(Orders.CACHE_WARM_UP)
+	public void startCacheWarmUp()
+	{
+		cacheWarmUpService.ifPresent(CacheWarmUpService::warmUpInBackground);
+	}
 }
@@ -39,4 +39,10 @@ public class Orders
 	 * See {@link ApplicationReadyListener#enableIssueReporting()}
 	 */
 	public static final int ENABLE_ISSUE_LOG_APPENDER = 100;
+
+	/**
+	 * Start warming up the caches after everything else was initialized, because only the caches which already exist can be warmed up.
+	 * See {@link ApplicationReadyListener#startCacheWarmUp()}
+	 */
+	public static final int CACHE_WARM_UP = 10000;
 }
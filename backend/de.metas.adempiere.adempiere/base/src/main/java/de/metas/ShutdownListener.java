@@ -1,10 +1,16 @@
 package de.metas;
 
+import de.metas.cache.warmup.CacheWarmUpService;
+import lombok.NonNull;
 import org.compiere.SpringContextHolder;
 import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextClosedEvent;
 import org.springframework.context.event.ContextStoppedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
 /*
  * #%L
  * de.metas.adempiere.adempiere.base
@@ -30,9 +36,28 @@ import org.springframework.stereotype.Component;
 @Component
 public class ShutdownListener implements ApplicationListener<ContextStoppedEvent>
 {
+	private final Optional<CacheWarmUpService> cacheWarmUpService;
+
+	/**
+	 * @param cacheWarmUpService optional, because some tests are starting with a minimal spring context which includes this listener
+	 */
+	public ShutdownListener(@NonNull final Optional<CacheWarmUpService> cacheWarmUpService)
+	{
+		this.cacheWarmUpService = cacheWarmUpService;
+	}
+
 	@Override
 	public void onApplicationEvent(final ContextStoppedEvent event)
 	{
 		SpringContextHolder.instance.clearApplicationContext();
 	}
+
+	/**
+	 * NOTE: the snapshot is saved on close (and not on stop), because that's what happens on a regular shutdown and the database is still available at that point.
+	 */
+	@EventListener(ContextClosedEvent.class)
+	public void saveCacheHotKeysSnapshot()
+	{
+		cacheWarmUpService.ifPresent(CacheWarmUpService::saveHotKeysSnapshotNoFail);
+	}
 }
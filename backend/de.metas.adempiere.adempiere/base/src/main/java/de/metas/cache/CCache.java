@@ -16,6 +16,8 @@
  *****************************************************************************/
 package de.metas.cache;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
@@ -25,6 +27,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.ExecutionError;
 import com.google.common.util.concurrent.UncheckedExecutionException;
+import de.metas.cache.shared.SharedCacheSerializer;
 import de.metas.logging.LogManager;
 import lombok.Builder;
 import lombok.NonNull;
@@ -113,6 +116,13 @@ public class CCache<K, V> implements CacheInterface
 		 * This means that we can have a have a cache with a defined (limited) size without any expiration time.
 		 */
 		LRU,
+
+		/**
+		 * Data is cached in a bounded map which uses a frequency-aware admission policy (W-TinyLFU): a new entry is admitted only if it's likely to be used more often than the entry it would evict.
+		 * The bound is either the number of entries (<code>initialCapacity</code>, see {@link #DEFAULT_FREQUENCY_AWARE_MAXIMUM_SIZE}) or, if <code>maximumWeightInBytes</code> is set, the estimated weight of all entries.
+		 * Weighted caches are also taken into account by {@link CacheMgt}'s global memory budget.
+		 */
+		FrequencyAware,
 	}
 
 	/**
@@ -126,8 +136,20 @@ public class CCache<K, V> implements CacheInterface
 
 	private static final Logger logger = LogManager.getLogger(CCache.class);
 
+	/** Maximum size of a {@link CacheMapType#FrequencyAware} cache which has neither a weight bound nor an initialCapacity */
+	private static final int DEFAULT_FREQUENCY_AWARE_MAXIMUM_SIZE = 1000;
+
 	/** Internal map that is used as cache */
 	private final Cache<K, V> cache;
+	/** Same as {@link #cache} but only set if the cache is {@link CacheMapType#FrequencyAware} */
+	@Nullable
+	private final CaffeineBackedCache<K, V> caffeineCache;
+	/** Optional shared (second level) tier */
+	@Nullable
+	private final SharedCacheTier<K, V> sharedTier;
+	/** Optional loader used to warm up this cache after restart */
+	@Nullable
+	private final CacheWarmUpLoader<K, V> warmUpLoader;
 
 	static final AtomicLong NEXT_CACHE_ID = new AtomicLong(1);
 	/** unique cache ID, mainly used for tracking, logging and debugging */
@@ -139,6 +161,7 @@ public class CCache<K, V> implements CacheInterface
 	/** Expire after minutes */
 	private final int expireMinutes;
 	public static final int EXPIREMINUTES_Never = 0;
+	static final String NO_CACHE_NAME_PREFIX = "$NoCacheName$";
 	/** Just reset */
 	private boolean m_justReset = true;
 
@@ -187,7 +210,11 @@ public class CCache<K, V> implements CacheInterface
 				CacheMapType.HashMap,
 				(CachingKeysMapper<K>)null,
 				(CacheRemovalListener<K, V>)null,
-				(CacheAdditionListener<K, V>)null);
+				(CacheAdditionListener<K, V>)null,
+				(Long)null,
+				(CacheWeigher<K, V>)null,
+				(SharedCacheSerializer<K, V>)null,
+				(CacheWarmUpLoader<K, V>)null);
 	}
 
 	@Builder
@@ -200,7 +227,11 @@ public class CCache<K, V> implements CacheInterface
 			final CacheMapType cacheMapType,
 			@Nullable final CachingKeysMapper<K> invalidationKeysMapper,
 			@Nullable final CacheRemovalListener<K, V> removalListener,
-			@Nullable final CacheAdditionListener<K, V> additionListener)
+			@Nullable final CacheAdditionListener<K, V> additionListener,
+			@Nullable final Long maximumWeightInBytes,
+			@Nullable final CacheWeigher<K, V> weigher,
+			@Nullable final SharedCacheSerializer<K, V> sharedCacheSerializer,
+			@Nullable final CacheWarmUpLoader<K, V> warmUpLoader)
 	{
 		this.cacheId = NEXT_CACHE_ID.getAndIncrement();
 
@@ -212,7 +243,7 @@ public class CCache<K, V> implements CacheInterface
 		{
 			if (tableName == null)
 			{
-				this.cacheName = "$NoCacheName$" + cacheId;
+				this.cacheName = NO_CACHE_NAME_PREFIX + cacheId;
 				tableNameEffective = CacheLabel.NO_TABLENAME_PREFIX + cacheId;
 			}
 			else
@@ -244,13 +275,50 @@ public class CCache<K, V> implements CacheInterface
 		}
 
 		this.labels = buildCacheLabels(tableNameEffective, additionalTableNamesToResetFor);
+		this.sharedTier = sharedCacheSerializer != null
+				? new SharedCacheTier<>(this.cacheName, this.labels, sharedCacheSerializer)
+				: null;
+		this.warmUpLoader = warmUpLoader;
 
 		this.expireMinutes = expireMinutes != null ? expireMinutes : EXPIREMINUTES_Never;
-		this.cache = buildGuavaCache(
-				cacheMapType != null ? cacheMapType : CacheMapType.HashMap,
-				initialCapacity != null ? initialCapacity : 0,
-				this.expireMinutes,
-				removalListener);
+
+		final CacheMapType cacheMapTypeEffective;
+		if (cacheMapType != null)
+		{
+			cacheMapTypeEffective = cacheMapType;
+		}
+		else
+		{
+			cacheMapTypeEffective = maximumWeightInBytes != null ? CacheMapType.FrequencyAware : CacheMapType.HashMap;
+		}
+
+		if (cacheMapTypeEffective == CacheMapType.FrequencyAware)
+		{
+			this.caffeineCache = buildCaffeineCache(
+					initialCapacity != null ? initialCapacity : 0,
+					maximumWeightInBytes,
+					weigher,
+					this.expireMinutes,
+					removalListener);
+			this.cache = this.caffeineCache;
+		}
+		else
+		{
+			if (maximumWeightInBytes != null)
+			{
+				throw new AdempiereException("maximumWeightInBytes is supported only for " + CacheMapType.FrequencyAware + " caches")
+						.appendParametersToMessage()
+						.setParameter("cacheName", cacheName)
+						.setParameter("cacheMapType", cacheMapTypeEffective);
+			}
+
+			this.caffeineCache = null;
+			this.cache = buildGuavaCache(
+					cacheMapTypeEffective,
+					initialCapacity != null ? initialCapacity : 0,
+					this.expireMinutes,
+					removalListener);
+		}
 
 		if (DEBUG)
 		{
@@ -323,7 +391,8 @@ public class CCache<K, V> implements CacheInterface
 			final int expireMinutes,
 			@Nullable final CacheRemovalListener<K, V> removalListener)
 	{
-		CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder();
+		CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder()
+				.recordStats();
 		if (cacheMapType == CacheMapType.HashMap)
 		{
 			cacheBuilder = cacheBuilder
@@ -359,6 +428,56 @@ public class CCache<K, V> implements CacheInterface
 		return cacheBuilder.build();
 	}
 
+	private static <K, V> CaffeineBackedCache<K, V> buildCaffeineCache(
+			final int maximumSize,
+			@Nullable final Long maximumWeightInBytes,
+			@Nullable final CacheWeigher<K, V> weigher,
+			final int expireMinutes,
+			@Nullable final CacheRemovalListener<K, V> removalListener)
+	{
+		Caffeine<Object, Object> caffeine = Caffeine.newBuilder()
+				.recordStats();
+
+		final long configuredMaximum;
+		if (maximumWeightInBytes != null)
+		{
+			if (weigher == null)
+			{
+				throw new AdempiereException("A weigher is required when maximumWeightInBytes is set");
+			}
+
+			configuredMaximum = maximumWeightInBytes;
+			caffeine = caffeine
+					.maximumWeight(maximumWeightInBytes)
+					.weigher((key, value) -> {
+						@SuppressWarnings("unchecked") final int weight = weigher.weigh((K)key, (V)value);
+						return Math.max(weight, 0);
+					});
+		}
+		else
+		{
+			// NOTE: initialCapacity is used as maximum size (same as for LRU caches), but if it's not set we don't want a cache which holds nothing
+			configuredMaximum = maximumSize > 0 ? maximumSize : DEFAULT_FREQUENCY_AWARE_MAXIMUM_SIZE;
+			caffeine = caffeine.maximumSize(configuredMaximum);
+		}
+
+		if (expireMinutes > 0)
+		{
+			caffeine = caffeine.expireAfterWrite(expireMinutes, TimeUnit.MINUTES);
+		}
+
+		if (removalListener != null)
+		{
+			caffeine = caffeine.removalListener((key, value, cause) -> {
+				@SuppressWarnings("unchecked") final K keyCasted = (K)key;
+				@SuppressWarnings("unchecked") final V valueCasted = (V)value;
+				removalListener.itemRemoved(keyCasted, valueCasted);
+			});
+		}
+
+		return new CaffeineBackedCache<>(caffeine, configuredMaximum);
+	}
+
 	/**
 	 * @return unique cache ID
 	 */
@@ -418,6 +537,8 @@ public class CCache<K, V> implements CacheInterface
 	{
 		try (final IAutoCloseable cacheIdMDC = CacheMDC.putCache(this))
 		{
+			forceSharedVersionCheck();
+
 			final long no = cache.size();
 			clear();
 			if (no > 0)
@@ -442,6 +563,8 @@ public class CCache<K, V> implements CacheInterface
 	{
 		try (final IAutoCloseable cacheIdMDC = CacheMDC.putCache(this))
 		{
+			forceSharedVersionCheck();
+
 			if (!invalidationKeysMapper.isPresent())
 			{
 				// NOTE: reseting only by "key" is not supported, so we are reseting everything
@@ -550,6 +673,8 @@ public class CCache<K, V> implements CacheInterface
 	{
 		try (final IAutoCloseable cacheIdMDC = CacheMDC.putCache(this))
 		{
+			discardLocalEntriesIfStale();
+
 			final V result = cache.getIfPresent(key);
 			logger.debug("get - key={}; result={}", key, result);
 			return result;
@@ -603,15 +728,22 @@ public class CCache<K, V> implements CacheInterface
 			{
 				remove(key);
 			}
+			discardLocalEntriesIfStale();
 
 			if (valueInitializer == null)
 			{
 				return cache.getIfPresent(key);
 			}
 
+			final Callable<V> valueInitializerEffective = sharedTier != null
+					? () -> sharedTier.getOrLoad(key, valueInitializer)
+					: valueInitializer;
+
 			try
 			{
-				return cache.get(key, valueInitializer);
+				final V value = cache.get(key, valueInitializerEffective);
+				checkMemoryBudgetIfWeighted();
+				return value;
 			}
 			catch (final InvalidCacheLoadException e)
 			{
@@ -684,6 +816,7 @@ public class CCache<K, V> implements CacheInterface
 			{
 				removeAll(keys);
 			}
+			discardLocalEntriesIfStale();
 
 			//
 			// Fetch from cache what's available
@@ -725,6 +858,7 @@ public class CCache<K, V> implements CacheInterface
 					fireAdditionListener(key, value);
 				}
 				values.addAll(valuesLoaded.values()); // add loaded values to the list we will return
+				checkMemoryBudgetIfWeighted();
 			}
 
 			return values;
@@ -765,6 +899,7 @@ public class CCache<K, V> implements CacheInterface
 			{
 				cache.put(key, value);
 				fireAdditionListener(key, value);
+				checkMemoryBudgetIfWeighted();
 			}
 		}
 	}
@@ -793,6 +928,7 @@ public class CCache<K, V> implements CacheInterface
 			{
 				fireAdditionListener(entry.getKey(), entry.getValue());
 			}
+			checkMemoryBudgetIfWeighted();
 		}
 	}
 
@@ -843,12 +979,146 @@ public class CCache<K, V> implements CacheInterface
 		}
 	}
 
+	private void discardLocalEntriesIfStale()
+	{
+		if (sharedTier != null && sharedTier.checkLocalEntriesStale())
+		{
+			logger.debug("Discarding all local entries because the shared cache version changed");
+			cache.invalidateAll();
+		}
+	}
+
+	/**
+	 * Called when the shared cache version of this cache's tables might have changed.
+	 */
+	void forceSharedVersionCheck()
+	{
+		if (sharedTier != null)
+		{
+			sharedTier.forceVersionCheck();
+		}
+	}
+
+	private void checkMemoryBudgetIfWeighted()
+	{
+		if (isWeighted())
+		{
+			CacheMgt.get().checkMemoryBudgetIfDue();
+		}
+	}
+
+	/**
+	 * @return true if this cache is bounded by the estimated weight of its entries
+	 */
+	public boolean isWeighted()
+	{
+		return caffeineCache != null && caffeineCache.isWeighted();
+	}
+
+	/**
+	 * @return estimated weight in bytes of all cached entries or zero if this cache is not weighted
+	 */
+	public long getWeightedSize()
+	{
+		return caffeineCache != null ? caffeineCache.getWeightedSize() : 0;
+	}
+
+	/**
+	 * Applies the pending writes and evictions, so that {@link #getWeightedSize()} is exact. To be used only in tests and for diagnostics.
+	 */
+	@VisibleForTesting
+	void cleanUp()
+	{
+		cache.cleanUp();
+	}
+
+	/**
+	 * @return the backing caffeine cache if this cache is weighted, <code>null</code> otherwise
+	 */
+	@Nullable
+	CaffeineBackedCache<K, V> getWeightedCaffeineCacheOrNull()
+	{
+		return isWeighted() ? caffeineCache : null;
+	}
+
+	public boolean isWarmUpEnabled()
+	{
+		return warmUpLoader != null;
+	}
+
+	int getWarmUpPriority()
+	{
+		return warmUpLoader != null ? warmUpLoader.getPriority() : 0;
+	}
+
+	/**
+	 * @return the hottest keys (as key strings, hottest first) or empty list if warm-up is not enabled for this cache.
+	 * If the cache is not {@link CacheMapType#FrequencyAware}, it's not known which keys are the hottest, so the currently cached keys are returned.
+	 */
+	ImmutableList<String> getHotKeyStrings(final int limit)
+	{
+		final CacheWarmUpLoader<K, V> warmUpLoader = this.warmUpLoader;
+		if (warmUpLoader == null || limit <= 0)
+		{
+			return ImmutableList.of();
+		}
+
+		final List<K> keys = caffeineCache != null
+				? caffeineCache.getHottestKeys(limit)
+				: cache.asMap().keySet().stream().limit(limit).collect(ImmutableList.toImmutableList());
+
+		return keys.stream()
+				.map(warmUpLoader::toKeyString)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	/**
+	 * Loads the values for given key strings, until the given deadline.
+	 * Failures are logged and counted, but they don't stop the warm-up.
+	 */
+	CacheWarmUpResult warmUp(@NonNull final List<String> keyStrings, final long deadlineMillis)
+	{
+		final CacheWarmUpLoader<K, V> warmUpLoader = this.warmUpLoader;
+		if (warmUpLoader == null)
+		{
+			return CacheWarmUpResult.builder().keysSkipped(keyStrings.size()).build();
+		}
+
+		int keysLoaded = 0;
+		int keysFailed = 0;
+		for (final String keyString : keyStrings)
+		{
+			if (System.currentTimeMillis() > deadlineMillis || Thread.currentThread().isInterrupted())
+			{
+				break;
+			}
+
+			try
+			{
+				getOrLoad(warmUpLoader.fromKeyString(keyString), warmUpLoader::load);
+				keysLoaded++;
+			}
+			catch (final Exception ex)
+			{
+				keysFailed++;
+				logger.debug("Failed warming up key {}. Ignored.", keyString, ex);
+			}
+		}
+
+		return CacheWarmUpResult.builder()
+				.cachesCount(1)
+				.keysLoaded(keysLoaded)
+				.keysFailed(keysFailed)
+				.keysSkipped(keyStrings.size() - keysLoaded - keysFailed)
+				.build();
+	}
+
 	/**
 	 * @return cache statistics
 	 */
 	public CCacheStats stats()
 	{
-		return new CCacheStats(cacheId, cacheName, cache.size(), cache.stats());
+		return new CCacheStats(cacheId, cacheName, cache.size(), getWeightedSize(), cache.stats());
 	}
 
 	private boolean isNoCache()
@@ -864,13 +1134,15 @@ public class CCache<K, V> implements CacheInterface
 		private final long cacheId;
 		private final String name;
 		private final long size;
+		private final long weightInBytes;
 		private final CacheStats guavaStats;
 
-		private CCacheStats(final long cacheId, final String name, final long size, final CacheStats guavaStats)
+		private CCacheStats(final long cacheId, final String name, final long size, final long weightInBytes, final CacheStats guavaStats)
 		{
 			this.cacheId = cacheId;
 			this.name = name;
 			this.size = size;
+			this.weightInBytes = weightInBytes;
 			this.guavaStats = guavaStats;
 		}
 
@@ -880,6 +1152,7 @@ public class CCache<K, V> implements CacheInterface
 			return MoreObjects.toStringHelper(this)
 					.add("name", name)
 					.add("size", size)
+					.add("weightInBytes", weightInBytes)
 					.add("guavaStats", guavaStats)
 					.add("cacheId", cacheId)
 					.toString();
@@ -888,7 +1161,7 @@ public class CCache<K, V> implements CacheInterface
 		@Override
 		public int hashCode()
 		{
-			return Objects.hash(cacheId, name, size, guavaStats);
+			return Objects.hash(cacheId, name, size, weightInBytes, guavaStats);
 		}
 
 		@Override
@@ -900,6 +1173,7 @@ public class CCache<K, V> implements CacheInterface
 				return cacheId == other.cacheId
 						&& name.equals(other.name)
 						&& size == other.size
+						&& weightInBytes == other.weightInBytes
 						&& guavaStats.equals(other.guavaStats);
 			}
 			return false;
@@ -920,6 +1194,11 @@ public class CCache<K, V> implements CacheInterface
 			return size;
 		}
 
+		public long getWeightInBytes()
+		{
+			return weightInBytes;
+		}
+
 		public CacheStats getGuavaStats()
 		{
 			return guavaStats;
@@ -0,0 +1,59 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+package de.metas.cache;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * The hottest keys of each cache (hottest first), as key strings (see {@link CacheWarmUpLoader#toKeyString(Object)}).
+ */
+@Value(staticConstructor = "of")
+public class CacheHotKeysSnapshot
+{
+	public static final CacheHotKeysSnapshot EMPTY = of(ImmutableMap.of());
+
+	@NonNull ImmutableMap<String, ImmutableList<String>> keysByCacheName;
+
+	public ImmutableSet<String> getCacheNames()
+	{
+		return keysByCacheName.keySet();
+	}
+
+	public ImmutableList<String> getKeys(@NonNull final String cacheName)
+	{
+		return keysByCacheName.getOrDefault(cacheName, ImmutableList.of());
+	}
+
+	public int getKeysCount()
+	{
+		return keysByCacheName.values().stream().mapToInt(ImmutableList::size).sum();
+	}
+
+	public boolean isEmpty()
+	{
+		return keysByCacheName.isEmpty();
+	}
+}
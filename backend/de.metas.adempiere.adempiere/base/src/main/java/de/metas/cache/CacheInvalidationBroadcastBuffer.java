@@ -0,0 +1,303 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.cache;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.CacheInvalidateRequest;
+import de.metas.logging.LogManager;
+import lombok.NonNull;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.slf4j.Logger;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Collects the cache invalidation requests which shall be broadcasted to other nodes and sends them as one compact {@link CacheInvalidateMultiRequest}.
+ * <p>
+ * The requests are
+ * <ul>
+ * <li>deduplicated</li>
+ * <li>dropped if they are about a single record of a table which is anyway invalidated entirely</li>
+ * <li>merged to one "all records of table" request if there are at least {@code tableLevelThreshold} single record requests for the same table</li>
+ * </ul>
+ * If a {@code bufferMillis} window is configured, all requests which arrive within that window are sent together in one message.
+ * Else each {@link #add(CacheInvalidateMultiRequest)} call results in one (coalesced) message.
+ */
+final class CacheInvalidationBroadcastBuffer
+{
+	private static final Logger logger = LogManager.getLogger(CacheInvalidationBroadcastBuffer.class);
+
+	/**
+	 * JVM system property: for how many milliseconds to collect the requests before sending them. Zero (the default) means no buffering.
+	 */
+	static final String SYSTEM_PROPERTY_BufferMillis = "de.metas.cache.remoteInvalidation.bufferMillis";
+	/**
+	 * JVM system property: from how many single record requests of the same table on, they are replaced by one request that invalidates the whole table.
+	 */
+	static final String SYSTEM_PROPERTY_TableLevelThreshold = "de.metas.cache.remoteInvalidation.tableLevelThreshold";
+	private static final int DEFAULT_TableLevelThreshold = 500;
+	/**
+	 * If that many requests are buffered, they are sent right away, without waiting for the buffer window to pass.
+	 */
+	private static final int MAX_BUFFERED_REQUESTS = 100_000;
+
+	static CacheInvalidationBroadcastBuffer newInstance(@NonNull final Consumer<CacheInvalidateMultiRequest> sender)
+	{
+		return new CacheInvalidationBroadcastBuffer(
+				Long.getLong(SYSTEM_PROPERTY_BufferMillis, 0),
+				Integer.getInteger(SYSTEM_PROPERTY_TableLevelThreshold, DEFAULT_TableLevelThreshold),
+				sender);
+	}
+
+	private final long bufferMillis;
+	private final int tableLevelThreshold;
+	private final Consumer<CacheInvalidateMultiRequest> sender;
+
+	private final Object lock = new Object();
+	private List<CacheInvalidateRequest> bufferedRequests = new ArrayList<>();
+	private boolean flushScheduled = false;
+	@Nullable
+	private ScheduledExecutorService _flushExecutor;
+
+	private final AtomicLong requestsReceived = new AtomicLong();
+	private final AtomicLong requestsSent = new AtomicLong();
+	private final AtomicLong messagesSent = new AtomicLong();
+
+	@VisibleForTesting
+	CacheInvalidationBroadcastBuffer(
+			final long bufferMillis,
+			final int tableLevelThreshold,
+			@NonNull final Consumer<CacheInvalidateMultiRequest> sender)
+	{
+		this.bufferMillis = Math.max(bufferMillis, 0);
+		this.tableLevelThreshold = tableLevelThreshold > 0 ? tableLevelThreshold : Integer.MAX_VALUE;
+		this.sender = sender;
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("bufferMillis", bufferMillis)
+				.add("tableLevelThreshold", tableLevelThreshold)
+				.add("requestsReceived", requestsReceived.get())
+				.add("requestsSent", requestsSent.get())
+				.add("messagesSent", messagesSent.get())
+				.toString();
+	}
+
+	public long getRequestsReceived()
+	{
+		return requestsReceived.get();
+	}
+
+	public long getRequestsSent()
+	{
+		return requestsSent.get();
+	}
+
+	public long getMessagesSent()
+	{
+		return messagesSent.get();
+	}
+
+	public void add(@NonNull final CacheInvalidateMultiRequest multiRequest)
+	{
+		requestsReceived.addAndGet(multiRequest.getRequests().size());
+
+		if (bufferMillis <= 0)
+		{
+			send(multiRequest.getRequests());
+			return;
+		}
+
+		final boolean flushNow;
+		synchronized (lock)
+		{
+			bufferedRequests.addAll(multiRequest.getRequests());
+			flushNow = bufferedRequests.size() >= MAX_BUFFERED_REQUESTS;
+			if (!flushNow && !flushScheduled)
+			{
+				flushScheduled = true;
+				getFlushExecutor().schedule(this::flushNoFail, bufferMillis, TimeUnit.MILLISECONDS);
+			}
+		}
+
+		if (flushNow)
+		{
+			flush();
+		}
+	}
+
+	private ScheduledExecutorService getFlushExecutor()
+	{
+		ScheduledExecutorService flushExecutor = _flushExecutor;
+		if (flushExecutor == null)
+		{
+			flushExecutor = _flushExecutor = Executors.newSingleThreadScheduledExecutor(CustomizableThreadFactory.builder()
+					.setThreadNamePrefix(getClass().getSimpleName())
+					.setDaemon(true)
+					.build());
+		}
+		return flushExecutor;
+	}
+
+	private void flushNoFail()
+	{
+		try
+		{
+			flush();
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed broadcasting the buffered cache invalidation requests. Ignored.", ex);
+		}
+	}
+
+	/**
+	 * Sends all buffered requests right away.
+	 */
+	public void flush()
+	{
+		final List<CacheInvalidateRequest> requests;
+		synchronized (lock)
+		{
+			requests = bufferedRequests;
+			bufferedRequests = new ArrayList<>();
+			flushScheduled = false;
+		}
+
+		send(requests);
+	}
+
+	private void send(@NonNull final Collection<CacheInvalidateRequest> requests)
+	{
+		final CacheInvalidateMultiRequest coalescedRequest = coalesce(requests, tableLevelThreshold);
+		if (coalescedRequest == null)
+		{
+			return;
+		}
+
+		sender.accept(coalescedRequest);
+
+		requestsSent.addAndGet(coalescedRequest.getRequests().size());
+		messagesSent.incrementAndGet();
+		logger.debug("Sent {} coalesced from {} requests", coalescedRequest, requests.size());
+	}
+
+	/**
+	 * @return coalesced request or null if there are no requests
+	 */
+	@Nullable
+	@VisibleForTesting
+	static CacheInvalidateMultiRequest coalesce(@NonNull final Collection<CacheInvalidateRequest> requests, final int tableLevelThreshold)
+	{
+		if (requests.isEmpty())
+		{
+			return null;
+		}
+
+		final Set<String> tableNamesToInvalidateEntirely = new HashSet<>();
+		final Map<String, Set<CacheInvalidateRequest>> singleRecordRequestsByTableName = new HashMap<>();
+		final Set<CacheInvalidateRequest> otherRequests = new LinkedHashSet<>();
+		for (final CacheInvalidateRequest request : requests)
+		{
+			if (request.isAll())
+			{
+				return CacheInvalidateMultiRequest.all();
+			}
+			else if (isAllRecordsOfRootTable(request))
+			{
+				tableNamesToInvalidateEntirely.add(request.getRootTableName());
+			}
+			else if (isSingleRootRecord(request))
+			{
+				singleRecordRequestsByTableName.computeIfAbsent(request.getRootTableName(), k -> new LinkedHashSet<>()).add(request);
+			}
+			else
+			{
+				// NOTE: we keep the root/child requests as they are, because the listeners might need both records
+				otherRequests.add(request);
+			}
+		}
+
+		singleRecordRequestsByTableName.forEach((tableName, singleRecordRequests) -> {
+			if (singleRecordRequests.size() >= tableLevelThreshold)
+			{
+				tableNamesToInvalidateEntirely.add(tableName);
+			}
+		});
+
+		final ImmutableSet.Builder<CacheInvalidateRequest> result = ImmutableSet.builder();
+		tableNamesToInvalidateEntirely.forEach(tableName -> result.add(CacheInvalidateRequest.allRecordsForTable(tableName)));
+		singleRecordRequestsByTableName.forEach((tableName, singleRecordRequests) -> {
+			if (!tableNamesToInvalidateEntirely.contains(tableName))
+			{
+				result.addAll(singleRecordRequests);
+			}
+		});
+		result.addAll(otherRequests);
+
+		return CacheInvalidateMultiRequest.of(result.build());
+	}
+
+	private static boolean isAllRecordsOfRootTable(@NonNull final CacheInvalidateRequest request)
+	{
+		return request.getChildTableName() == null
+				&& request.getRootTableName() != null
+				&& request.isAllRecords();
+	}
+
+	private static boolean isSingleRootRecord(@NonNull final CacheInvalidateRequest request)
+	{
+		final TableRecordReference rootRecord = request.getRootRecordOrNull();
+		return rootRecord != null && request.getChildTableName() == null;
+	}
+
+	@VisibleForTesting
+	ImmutableList<CacheInvalidateRequest> getBufferedRequests()
+	{
+		synchronized (lock)
+		{
+			return ImmutableList.copyOf(bufferedRequests);
+		}
+	}
+}
@@ -4,6 +4,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableSet;
 import de.metas.cache.model.CacheInvalidateMultiRequest;
 import de.metas.cache.model.CacheInvalidateRequest;
+import de.metas.cache.shared.SharedCacheStorage;
 import de.metas.event.Event;
 import de.metas.event.IEventBus;
 import de.metas.event.IEventBusFactory;
@@ -61,6 +62,8 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 
 	private final CacheInvalidateMultiRequestSerializer jsonSerializer = new CacheInvalidateMultiRequestSerializer();
 
+	private final CacheInvalidationBroadcastBuffer broadcastBuffer = CacheInvalidationBroadcastBuffer.newInstance(this::sendEvent);
+
 	private CacheInvalidationRemoteHandler()
 	{
 	}
@@ -121,6 +124,8 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 
 	/**
 	 * Broadcast a cache invalidation request.
+	 * <p>
+	 * NOTE: the request is not sent right away but coalesced with other requests, see {@link CacheInvalidationBroadcastBuffer}.
 	 */
 	public void postEvent(final CacheInvalidateMultiRequest request)
 	{
@@ -132,13 +137,35 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 		}
 
 		// Do nothing if given table name is not in our table names to broadcast list
-		if (!isAllowBroadcast(request))
+		final CacheInvalidateMultiRequest requestToBroadcast = filterAllowedToBroadcast(request);
+		if (requestToBroadcast == null)
 		{
 			logger.trace("Skip broadcasting {} because it's not allowed", request);
 			return;
 		}
 
-		// Broadcast the event.
+		broadcastBuffer.add(requestToBroadcast);
+	}
+
+	/**
+	 * Sends all cache invalidation requests which are still waiting to be broadcasted.
+	 */
+	public void flushPendingEvents()
+	{
+		broadcastBuffer.flush();
+	}
+
+	public String getBroadcastStatistics()
+	{
+		return broadcastBuffer.toString();
+	}
+
+	private void sendEvent(@NonNull final CacheInvalidateMultiRequest request)
+	{
+		// The other nodes shall see the new shared cache table versions when they get the event.
+		// Else they could reload the shared values which were stored with the old version and share them again.
+		flushSharedCacheTableVersionsNoFail();
+
 		final Event event = createEventFromRequest(request);
 		try (final MDCCloseable ignored = EventMDC.putEvent(event))
 		{
@@ -150,14 +177,48 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 		}
 	}
 
-	private boolean isAllowBroadcast(final CacheInvalidateMultiRequest multiRequest)
+	private static void flushSharedCacheTableVersionsNoFail()
+	{
+		final SharedCacheStorage sharedCacheStorage = CacheMgt.get().getSharedCacheStorage();
+		if (sharedCacheStorage == null)
+		{
+			return;
+		}
+
+		try
+		{
+			sharedCacheStorage.flush();
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed writing the shared cache table versions before broadcasting. Ignored.", ex);
+		}
+	}
+
+	@Nullable
+	private CacheInvalidateMultiRequest filterAllowedToBroadcast(final CacheInvalidateMultiRequest multiRequest)
+	{
+		return filterAllowedToBroadcast(multiRequest, getTableNamesToBroadcastIndex());
+	}
+
+	/**
+	 * @return the given multi-request, as it is, if at least one of its requests is allowed to be broadcasted; <code>null</code> otherwise.
+	 * NOTE: we don't drop the other requests of a multi-request, because they might be needed by the listeners on the other nodes.
+	 */
+	@Nullable
+	@VisibleForTesting
+	static CacheInvalidateMultiRequest filterAllowedToBroadcast(
+			@NonNull final CacheInvalidateMultiRequest multiRequest,
+			@NonNull final ImmutableTableNamesGroupsIndex tableNamesToBroadcastIndex)
 	{
-		return multiRequest.getRequests().stream().anyMatch(this::isAllowBroadcast);
+		final boolean allowBroadcast = multiRequest.getRequests()
+				.stream()
+				.anyMatch(request -> isAllowBroadcast(request, tableNamesToBroadcastIndex));
+		return allowBroadcast ? multiRequest : null;
 	}
 
-	private boolean isAllowBroadcast(final CacheInvalidateRequest request)
+	private static boolean isAllowBroadcast(final CacheInvalidateRequest request, final ImmutableTableNamesGroupsIndex index)
 	{
-		final ImmutableTableNamesGroupsIndex index = this.getTableNamesToBroadcastIndex();
 		return index.containsTableName(request.getRootTableName())
 				|| index.containsTableName(request.getChildTableName());
 	}
@@ -16,13 +16,28 @@
  *****************************************************************************/
 package de.metas.cache;
 
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
@@ -33,6 +48,7 @@ import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxListenerManager.TrxEventTiming;
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
 import org.adempiere.util.jmx.JMXRegistry;
 import org.adempiere.util.jmx.JMXRegistry.OnJMXAlreadyExistsPolicy;
 import org.adempiere.util.lang.IAutoCloseable;
@@ -42,16 +58,20 @@ import org.slf4j.Logger;
 import org.slf4j.MDC.MDCCloseable;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.MapMaker;
 import com.google.common.collect.Maps;
 
 import de.metas.cache.model.CacheInvalidateMultiRequest;
 import de.metas.cache.model.CacheInvalidateRequest;
+import de.metas.cache.shared.SharedCacheStorage;
 import de.metas.logging.LogManager;
 import de.metas.util.Check;
 import de.metas.util.Services;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.NonNull;
 
 /**
@@ -71,6 +91,11 @@ public final class CacheMgt
 
 	public static final String JMX_BASE_NAME = "de.metas.cache";
 
+	/**
+	 * JVM system property which can be used to define the global memory budget of all weighted caches (see {@link #setMemoryBudgetInBytes(long)}).
+	 */
+	public static final String SYSTEM_PROPERTY_MemoryBudgetInBytes = "de.metas.cache.memoryBudgetInBytes";
+
 	private final ConcurrentHashMap<CacheLabel, CachesGroup> cachesByLabel = new ConcurrentHashMap<>();
 
 	private final CopyOnWriteArrayList<ICacheResetListener> globalCacheResetListeners = new CopyOnWriteArrayList<>();
@@ -81,6 +106,29 @@ public final class CacheMgt
 	private final AtomicBoolean cacheResetRunning = new AtomicBoolean();
 	private final AtomicLong lastCacheReset = new AtomicLong();
 
+	/**
+	 * All {@link CCache}s which are bounded by weight, indexed by cacheId.
+	 * NOTE: weak values because we don't want to prevent the caches from being garbage collected.
+	 */
+	private final ConcurrentMap<Long, CCache<?, ?>> weightedCaches = new MapMaker()
+			.weakValues()
+			.makeMap();
+	/** Global memory budget for all weighted caches; zero or negative means no budget */
+	private final AtomicLong memoryBudgetInBytes = new AtomicLong(Long.getLong(SYSTEM_PROPERTY_MemoryBudgetInBytes, 0));
+	private final AtomicLong nextMemoryBudgetCheckMillis = new AtomicLong(0);
+	private static final long MEMORY_BUDGET_CHECK_INTERVAL_MILLIS = 1000;
+	/** The weighted caches are allowed to grow back to their configured maximum only if we are below this fraction of the memory budget */
+	private static final double MEMORY_BUDGET_RELAX_THRESHOLD = 0.8;
+	/** When relaxed, the weighted caches grow back by this fraction of their configured maximum on each check */
+	private static final double MEMORY_BUDGET_RESTORE_STEP = 0.25;
+	/** While the memory budget is exceeded, a weighted cache is not lowered below this fraction of its configured maximum */
+	private static final double MEMORY_BUDGET_MIN_FRACTION = 0.05;
+
+	private final CacheMgtMetrics metrics = new CacheMgtMetrics();
+
+	@Nullable
+	private volatile SharedCacheStorage sharedCacheStorage = null;
+
 	private CacheMgt()
 	{
 		JMXRegistry.get().registerJMX(new JMXCacheMgt(), OnJMXAlreadyExistsPolicy.Replace);
@@ -133,6 +181,16 @@ public final class CacheMgt
 			labels.stream()
 					.map(this::getCachesGroup)
 					.forEach(cacheGroup -> cacheGroup.addCache(cache));
+
+			if (cache instanceof CCache)
+			{
+				final CCache<?, ?> ccache = (CCache<?, ?>)cache;
+				if (ccache.isWeighted())
+				{
+					weightedCaches.put(ccache.getCacheId(), ccache);
+				}
+				metrics.register(ccache);
+			}
 		}
 	}
 
@@ -144,6 +202,8 @@ public final class CacheMgt
 					.stream()
 					.map(this::getCachesGroup)
 					.forEach(cacheGroup -> cacheGroup.removeCache(cache));
+
+			weightedCaches.remove(cache.getCacheId());
 		}
 	}
 
@@ -157,6 +217,22 @@ public final class CacheMgt
 		return CacheInvalidationRemoteHandler.instance.getTableNamesToBroadcast();
 	}
 
+	/**
+	 * @return statistics about how many cache invalidation requests were broadcasted and in how many messages
+	 */
+	public String getRemoteInvalidationStatistics()
+	{
+		return CacheInvalidationRemoteHandler.instance.getBroadcastStatistics();
+	}
+
+	/**
+	 * Broadcasts right away the cache invalidation requests which are still buffered.
+	 */
+	public void flushPendingRemoteInvalidations()
+	{
+		CacheInvalidationRemoteHandler.instance.flushPendingEvents();
+	}
+
 	/** @return last time cache reset timestamp */
 	public long getLastCacheReset()
 	{
@@ -329,6 +405,15 @@ public final class CacheMgt
 	 */
 	long reset(@NonNull final CacheInvalidateMultiRequest multiRequest, @NonNull final ResetMode mode)
 	{
+		//
+		// Let the shared cache tier know that the data changed.
+		// We do this only on the node where the change originated (i.e. the one which broadcasts) and before invalidating the local caches,
+		// so that those caches can't pick up shared values which were loaded before the change.
+		if (mode.isBroadcast())
+		{
+			incrementSharedCacheVersionsNoFail(multiRequest);
+		}
+
 		final long resetCount;
 		if (mode.isResetLocal())
 		{
@@ -351,6 +436,75 @@ public final class CacheMgt
 		return resetCount;
 	}
 
+	@Nullable
+	public SharedCacheStorage getSharedCacheStorage()
+	{
+		return sharedCacheStorage;
+	}
+
+	/**
+	 * Sets the storage of the shared (second level) cache tier. Only caches which were created with a shared cache serializer are using it.
+	 *
+	 * @param sharedCacheStorage storage or null to disable the shared cache tier
+	 */
+	public void setSharedCacheStorage(@Nullable final SharedCacheStorage sharedCacheStorage)
+	{
+		this.sharedCacheStorage = sharedCacheStorage;
+		logger.info("Using shared cache storage: {}", sharedCacheStorage);
+	}
+
+	private void incrementSharedCacheVersionsNoFail(@NonNull final CacheInvalidateMultiRequest multiRequest)
+	{
+		final SharedCacheStorage sharedCacheStorage = this.sharedCacheStorage;
+		if (sharedCacheStorage == null)
+		{
+			return;
+		}
+
+		final Set<String> tableNames;
+		if (multiRequest.isResetAll())
+		{
+			tableNames = ImmutableSet.of(SharedCacheStorage.TABLENAME_ALL);
+		}
+		else
+		{
+			final ImmutableSet.Builder<String> tableNamesBuilder = ImmutableSet.builder();
+			for (final CacheInvalidateRequest request : multiRequest.getRequests())
+			{
+				if (request.getRootTableName() != null)
+				{
+					tableNamesBuilder.add(request.getRootTableName());
+				}
+				if (request.getChildTableName() != null)
+				{
+					tableNamesBuilder.add(request.getChildTableName());
+				}
+			}
+			tableNames = tableNamesBuilder.build();
+		}
+
+		try
+		{
+			sharedCacheStorage.incrementTableVersions(tableNames);
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed incrementing the shared cache versions for {}. Ignored.", tableNames, ex);
+		}
+
+		//
+		// Make sure our local caches are fetching the new version right away
+		final Stream<CCache<?, ?>> cachesToNotify = multiRequest.isResetAll()
+				? streamDistinctCCaches()
+				: tableNames.stream()
+				.map(tableName -> getCachesGroupIfPresent(CacheLabel.ofTableName(tableName)))
+				.filter(Objects::nonNull)
+				.flatMap(CachesGroup::streamCaches)
+				.filter(cache -> cache instanceof CCache)
+				.map(cache -> (CCache<?, ?>)cache);
+		cachesToNotify.forEach(CCache::forceSharedVersionCheck);
+	}
+
 	private long invalidateForMultiRequest(final CacheInvalidateMultiRequest multiRequest)
 	{
 		if (multiRequest.isResetAll())
@@ -429,6 +583,271 @@ public final class CacheMgt
 				.sum();
 	}
 
+	/**
+	 * @return statistics of all registered {@link CCache}s
+	 */
+	public ImmutableList<CCache.CCacheStats> getCacheStats()
+	{
+		return streamDistinctCCaches()
+				.map(CCache::stats)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	private Stream<CCache<?, ?>> streamDistinctCCaches()
+	{
+		final Set<Long> seenCacheIds = new HashSet<>();
+		return cachesByLabel.values()
+				.stream()
+				.flatMap(CachesGroup::streamCaches)
+				.filter(cache -> cache instanceof CCache)
+				.filter(cache -> seenCacheIds.add(cache.getCacheId()))
+				.map(cache -> (CCache<?, ?>)cache);
+	}
+
+	/**
+	 * Binds the statistics of all current and future {@link CCache}s to given registry.
+	 */
+	public void bindMetrics(@NonNull final MeterRegistry meterRegistry)
+	{
+		metrics.bindTo(meterRegistry);
+		streamDistinctCCaches().forEach(metrics::register);
+	}
+
+	public long getMemoryBudgetInBytes()
+	{
+		return memoryBudgetInBytes.get();
+	}
+
+	/**
+	 * Sets the global memory budget, i.e. how many (estimated) bytes all weighted caches (see {@link CCache.CacheMapType#FrequencyAware}) are allowed to hold together.
+	 *
+	 * @param memoryBudgetInBytes budget; zero or negative means no budget
+	 */
+	public void setMemoryBudgetInBytes(final long memoryBudgetInBytes)
+	{
+		this.memoryBudgetInBytes.set(memoryBudgetInBytes);
+		logger.info("Set cache memory budget to {} bytes", memoryBudgetInBytes);
+		enforceMemoryBudget();
+	}
+
+	/**
+	 * @return total estimated weight of all weighted caches
+	 */
+	public long getTotalWeightedSizeInBytes()
+	{
+		return weightedCaches.values()
+				.stream()
+				.filter(Objects::nonNull)
+				.mapToLong(CCache::getWeightedSize)
+				.sum();
+	}
+
+	/**
+	 * Called by weighted caches after they changed. Enforces the memory budget, but not more often than {@link #MEMORY_BUDGET_CHECK_INTERVAL_MILLIS}.
+	 */
+	void checkMemoryBudgetIfDue()
+	{
+		if (memoryBudgetInBytes.get() <= 0)
+		{
+			return;
+		}
+
+		final long now = System.currentTimeMillis();
+		final long nextCheckMillis = nextMemoryBudgetCheckMillis.get();
+		if (now < nextCheckMillis || !nextMemoryBudgetCheckMillis.compareAndSet(nextCheckMillis, now + MEMORY_BUDGET_CHECK_INTERVAL_MILLIS))
+		{
+			return;
+		}
+
+		enforceMemoryBudget();
+	}
+
+	/**
+	 * If the weighted caches are together above the global memory budget, the budget is shared among them proportionally to the maximum weight they were configured with,
+	 * which makes them evict their least valuable entries. No cache is lowered below {@link #MEMORY_BUDGET_MIN_FRACTION} of its configured maximum.
+	 * <p>
+	 * If they are well below the budget, they are allowed to grow back step by step (see {@link #MEMORY_BUDGET_RESTORE_STEP}) to the maximum weight they were configured with.
+	 *
+	 * @return how many (estimated) bytes were evicted
+	 */
+	public long enforceMemoryBudget()
+	{
+		final long budget = memoryBudgetInBytes.get();
+		final List<CaffeineBackedCache<?, ?>> caches = weightedCaches.values()
+				.stream()
+				.filter(Objects::nonNull)
+				.<CaffeineBackedCache<?, ?>>map(CCache::getWeightedCaffeineCacheOrNull)
+				.filter(Objects::nonNull)
+				.collect(ImmutableList.toImmutableList());
+
+		if (budget <= 0)
+		{
+			caches.forEach(CaffeineBackedCache::restoreConfiguredMaximum);
+			return 0;
+		}
+
+		final long totalWeightBefore = caches.stream().mapToLong(CaffeineBackedCache::getWeightedSize).sum();
+		if (totalWeightBefore <= budget * MEMORY_BUDGET_RELAX_THRESHOLD)
+		{
+			caches.forEach(cache -> cache.growMaximumTowardsConfigured(MEMORY_BUDGET_RESTORE_STEP));
+			return 0;
+		}
+		if (totalWeightBefore <= budget)
+		{
+			return 0;
+		}
+
+		final long totalConfiguredMaximum = caches.stream().mapToLong(CaffeineBackedCache::getConfiguredMaximum).sum();
+		final double ratio = Math.min((double)budget / totalConfiguredMaximum, 1);
+		for (final CaffeineBackedCache<?, ?> cache : caches)
+		{
+			final long configuredMaximum = cache.getConfiguredMaximum();
+			final long floor = Math.max((long)(configuredMaximum * MEMORY_BUDGET_MIN_FRACTION), 1);
+			final long newMaximum = Math.max((long)(configuredMaximum * ratio), floor);
+			if (newMaximum < cache.getMaximum())
+			{
+				cache.setMaximum(newMaximum);
+			}
+		}
+
+		final long totalWeightAfter = caches.stream().mapToLong(CaffeineBackedCache::getWeightedSize).sum();
+		final long evicted = Math.max(totalWeightBefore - totalWeightAfter, 0);
+		logger.info("Cache memory budget of {} bytes exceeded: evicted {} bytes from {} weighted caches", budget, evicted, caches.size());
+		return evicted;
+	}
+
+	/**
+	 * @return the hottest keys of all caches which have warm-up enabled (see {@link CacheWarmUpLoader})
+	 */
+	public CacheHotKeysSnapshot createHotKeysSnapshot(final int maxKeysPerCache)
+	{
+		final Map<String, LinkedHashSet<String>> keysByCacheName = new LinkedHashMap<>();
+		streamDistinctCCaches()
+				.filter(CCache::isWarmUpEnabled)
+				.forEach(cache -> {
+					// NOTE: there can be more cache instances with the same name, so we are merging their keys
+					final LinkedHashSet<String> keys = keysByCacheName.computeIfAbsent(cache.getCacheName(), k -> new LinkedHashSet<>());
+					for (final String keyString : cache.getHotKeyStrings(maxKeysPerCache))
+					{
+						if (keys.size() >= maxKeysPerCache)
+						{
+							break;
+						}
+						keys.add(keyString);
+					}
+				});
+
+		final ImmutableMap.Builder<String, ImmutableList<String>> result = ImmutableMap.builder();
+		keysByCacheName.forEach((cacheName, keys) -> {
+			if (!keys.isEmpty())
+			{
+				result.put(cacheName, ImmutableList.copyOf(keys));
+			}
+		});
+		return CacheHotKeysSnapshot.of(result.build());
+	}
+
+	/**
+	 * Reloads the keys from given snapshot into the currently registered caches.
+	 * <p>
+	 * The caches are warmed up in parallel, in the order of their {@link CacheWarmUpLoader#getPriority()}, the hottest keys first.
+	 * The keys which could not be loaded within the time budget are skipped.
+	 * <p>
+	 * NOTE: only caches which already exist when this method is called are warmed up.
+	 */
+	public CacheWarmUpResult warmUp(
+			@NonNull final CacheHotKeysSnapshot snapshot,
+			final int threads,
+			@NonNull final Duration timeBudget)
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final long deadlineMillis = System.currentTimeMillis() + timeBudget.toMillis();
+
+		final Map<String, CCache<?, ?>> cachesByName = new HashMap<>();
+		streamDistinctCCaches()
+				.filter(CCache::isWarmUpEnabled)
+				.filter(cache -> !snapshot.getKeys(cache.getCacheName()).isEmpty())
+				.forEach(cache -> cachesByName.putIfAbsent(cache.getCacheName(), cache));
+		final ImmutableList<CCache<?, ?>> cachesOrdered = cachesByName.values()
+				.stream()
+				.sorted(Comparator.<CCache<?, ?>>comparingInt(CCache::getWarmUpPriority).reversed())
+				.collect(ImmutableList.toImmutableList());
+
+		final ExecutorService executor = Executors.newFixedThreadPool(
+				Math.max(threads, 1),
+				CustomizableThreadFactory.builder()
+						.setThreadNamePrefix("CacheWarmUp")
+						.setDaemon(true)
+						.build());
+		final List<Future<CacheWarmUpResult>> futures = new ArrayList<>();
+		try
+		{
+			for (final CCache<?, ?> cache : cachesOrdered)
+			{
+				final ImmutableList<String> keys = snapshot.getKeys(cache.getCacheName());
+				futures.add(executor.submit(() -> cache.warmUp(keys, deadlineMillis)));
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+
+		int keysLoaded = 0;
+		int keysFailed = 0;
+		int keysSkipped = 0;
+		for (int i = 0; i < futures.size(); i++)
+		{
+			final int keysCount = snapshot.getKeys(cachesOrdered.get(i).getCacheName()).size();
+			final CacheWarmUpResult cacheResult = getWarmUpResultOrNull(futures.get(i), deadlineMillis);
+			if (cacheResult != null)
+			{
+				keysLoaded += cacheResult.getKeysLoaded();
+				keysFailed += cacheResult.getKeysFailed();
+				keysSkipped += cacheResult.getKeysSkipped();
+			}
+			else
+			{
+				keysSkipped += keysCount;
+			}
+		}
+		executor.shutdownNow();
+
+		final CacheWarmUpResult result = CacheWarmUpResult.builder()
+				.cachesCount(cachesOrdered.size())
+				.keysLoaded(keysLoaded)
+				.keysFailed(keysFailed)
+				.keysSkipped(keysSkipped)
+				.durationMillis(stopwatch.elapsed(TimeUnit.MILLISECONDS))
+				.startupToWarmMillis(ManagementFactory.getRuntimeMXBean().getUptime())
+				.build();
+
+		metrics.recordWarmUp(result);
+		logger.info("Cache warm-up done: {}", result);
+		return result;
+	}
+
+	@Nullable
+	private static CacheWarmUpResult getWarmUpResultOrNull(@NonNull final Future<CacheWarmUpResult> future, final long deadlineMillis)
+	{
+		try
+		{
+			final long timeoutMillis = Math.max(deadlineMillis - System.currentTimeMillis(), 0);
+			return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+		}
+		catch (final InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			future.cancel(true);
+			return null;
+		}
+		catch (final ExecutionException | TimeoutException ex)
+		{
+			future.cancel(true);
+			return null;
+		}
+	}
+
 	/**
 	 * String Representation
 	 */
@@ -443,7 +862,11 @@ public final class CacheMgt
 	 */
 	public String toStringX()
 	{
-		return "CacheMgt[Instances=" + cachesByLabel.size() + ", Elements=" + computeTotalSize() + "]";
+		return "CacheMgt[Instances=" + cachesByLabel.size()
+				+ ", Elements=" + computeTotalSize()
+				+ ", WeightedSizeInBytes=" + getTotalWeightedSizeInBytes()
+				+ ", MemoryBudgetInBytes=" + getMemoryBudgetInBytes()
+				+ "]";
 	}
 
 	public void addCacheResetListener(@NonNull final ICacheResetListener cacheResetListener)
@@ -596,7 +1019,7 @@ public final class CacheMgt
 			}
 		}
 
-		private Stream<CacheInterface> streamCaches()
+		public Stream<CacheInterface> streamCaches()
 		{
 			return caches.values()
 					.stream()
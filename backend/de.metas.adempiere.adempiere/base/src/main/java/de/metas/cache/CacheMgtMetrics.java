@@ -0,0 +1,149 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.cache;
+
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.MapMaker;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.NonNull;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToLongFunction;
+
+/**
+ * Publishes the {@link CCache} statistics to micrometer.
+ * <p>
+ * The meters are aggregated by cache name, because there can be many cache instances with the same name (e.g. one per trxName).
+ * Caches without a name are not published.
+ */
+final class CacheMgtMetrics
+{
+	private static final String METER_PREFIX = "mf.cache.";
+
+	private final AtomicReference<MeterRegistry> meterRegistryRef = new AtomicReference<>();
+
+	private final ConcurrentHashMap<String, Set<CCache<?, ?>>> cachesByName = new ConcurrentHashMap<>();
+	private final Set<String> boundCacheNames = ConcurrentHashMap.newKeySet();
+
+	private final AtomicReference<CacheWarmUpResult> lastWarmUpResult = new AtomicReference<>();
+
+	void bindTo(@NonNull final MeterRegistry meterRegistry)
+	{
+		meterRegistryRef.set(meterRegistry);
+		boundCacheNames.clear();
+		cachesByName.keySet().forEach(this::bindIfNeeded);
+
+		TimeGauge.builder(METER_PREFIX + "warmUp.startupToWarm", lastWarmUpResult, TimeUnit.MILLISECONDS, r -> getWarmUpValue(r, CacheWarmUpResult::getStartupToWarmMillis))
+				.register(meterRegistry);
+		TimeGauge.builder(METER_PREFIX + "warmUp.duration", lastWarmUpResult, TimeUnit.MILLISECONDS, r -> getWarmUpValue(r, CacheWarmUpResult::getDurationMillis))
+				.register(meterRegistry);
+		Gauge.builder(METER_PREFIX + "warmUp.keysLoaded", lastWarmUpResult, r -> getWarmUpValue(r, CacheWarmUpResult::getKeysLoaded))
+				.register(meterRegistry);
+	}
+
+	void recordWarmUp(@NonNull final CacheWarmUpResult result)
+	{
+		lastWarmUpResult.set(result);
+	}
+
+	private static double getWarmUpValue(@NonNull final AtomicReference<CacheWarmUpResult> resultRef, @NonNull final ToLongFunction<CacheWarmUpResult> valueFunction)
+	{
+		final CacheWarmUpResult result = resultRef.get();
+		return result != null ? valueFunction.applyAsLong(result) : Double.NaN;
+	}
+
+	void register(@NonNull final CCache<?, ?> cache)
+	{
+		final String cacheName = cache.getCacheName();
+		if (cacheName.startsWith(CCache.NO_CACHE_NAME_PREFIX))
+		{
+			return;
+		}
+
+		cachesByName.computeIfAbsent(cacheName, k -> newWeakSet()).add(cache);
+		bindIfNeeded(cacheName);
+	}
+
+	private static Set<CCache<?, ?>> newWeakSet()
+	{
+		// NOTE: weak keys, because we don't want to prevent the caches from being garbage collected
+		return Collections.newSetFromMap(new MapMaker().weakKeys().makeMap());
+	}
+
+	private void bindIfNeeded(@NonNull final String cacheName)
+	{
+		final MeterRegistry meterRegistry = meterRegistryRef.get();
+		if (meterRegistry == null)
+		{
+			return;
+		}
+		if (!boundCacheNames.add(cacheName))
+		{
+			return;
+		}
+
+		final Set<CCache<?, ?>> caches = cachesByName.get(cacheName);
+		final Tags tags = Tags.of(Tag.of("cache", cacheName));
+
+		FunctionCounter.builder(METER_PREFIX + "gets", caches, c -> sum(c, CacheStats::hitCount))
+				.tags(tags).tag("result", "hit")
+				.register(meterRegistry);
+		FunctionCounter.builder(METER_PREFIX + "gets", caches, c -> sum(c, CacheStats::missCount))
+				.tags(tags).tag("result", "miss")
+				.register(meterRegistry);
+		FunctionCounter.builder(METER_PREFIX + "evictions", caches, c -> sum(c, CacheStats::evictionCount))
+				.tags(tags)
+				.register(meterRegistry);
+		FunctionCounter.builder(METER_PREFIX + "loadFailures", caches, c -> sum(c, CacheStats::loadExceptionCount))
+				.tags(tags)
+				.register(meterRegistry);
+		FunctionTimer.builder(METER_PREFIX + "loads", caches, c -> sum(c, CacheStats::loadSuccessCount), c -> sum(c, CacheStats::totalLoadTime), TimeUnit.NANOSECONDS)
+				.tags(tags)
+				.register(meterRegistry);
+
+		Gauge.builder(METER_PREFIX + "size", caches, c -> c.stream().mapToLong(CCache::size).sum())
+				.tags(tags)
+				.register(meterRegistry);
+		Gauge.builder(METER_PREFIX + "weight", caches, c -> c.stream().mapToLong(CCache::getWeightedSize).sum())
+				.tags(tags)
+				.baseUnit("bytes")
+				.register(meterRegistry);
+	}
+
+	private static long sum(@NonNull final Set<CCache<?, ?>> caches, @NonNull final ToLongFunction<CacheStats> statsFunction)
+	{
+		return caches.stream()
+				.mapToLong(cache -> statsFunction.applyAsLong(cache.stats().getGuavaStats()))
+				.sum();
+	}
+}
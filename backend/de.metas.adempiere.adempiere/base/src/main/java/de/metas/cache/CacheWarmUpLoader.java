@@ -0,0 +1,98 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+package de.metas.cache;
+
+import de.metas.util.lang.RepoIdAware;
+import lombok.NonNull;
+
+import javax.annotation.Nullable;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Makes a {@link CCache} eligible for warm-up: its hottest keys are remembered in the {@link CacheHotKeysSnapshot} and reloaded after restart.
+ * <p>
+ * NOTE: the values are loaded in a background thread, out of transaction and without a user context.
+ */
+public interface CacheWarmUpLoader<K, V>
+{
+	/**
+	 * @return key string, from which the key can be restored using {@link #fromKeyString(String)}
+	 */
+	String toKeyString(@NonNull K key);
+
+	K fromKeyString(@NonNull String keyString);
+
+	/**
+	 * @return value or null if there is nothing to be cached for given key
+	 */
+	@Nullable
+	V load(@NonNull K key);
+
+	/**
+	 * @return warm-up priority; caches with higher priority are warmed up first
+	 */
+	default int getPriority()
+	{
+		return 0;
+	}
+
+	/**
+	 * @param idMapper  converts the repoId back to the key
+	 * @param loader    loads the value for given key
+	 * @param priority  see {@link #getPriority()}
+	 * @return loader for caches which are keyed by a {@link RepoIdAware}
+	 */
+	static <K extends RepoIdAware, V> CacheWarmUpLoader<K, V> ofRepoIdKeys(
+			@NonNull final IntFunction<K> idMapper,
+			@NonNull final Function<K, V> loader,
+			final int priority)
+	{
+		return new CacheWarmUpLoader<K, V>()
+		{
+			@Override
+			public String toKeyString(@NonNull final K key)
+			{
+				return String.valueOf(key.getRepoId());
+			}
+
+			@Override
+			public K fromKeyString(@NonNull final String keyString)
+			{
+				return idMapper.apply(Integer.parseInt(keyString));
+			}
+
+			@Nullable
+			@Override
+			public V load(@NonNull final K key)
+			{
+				return loader.apply(key);
+			}
+
+			@Override
+			public int getPriority()
+			{
+				return priority;
+			}
+		};
+	}
+}
@@ -0,0 +1,44 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+package de.metas.cache;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class CacheWarmUpResult
+{
+	int cachesCount;
+	int keysLoaded;
+	int keysFailed;
+	/**
+	 * Keys which were not loaded because the time budget was exhausted
+	 */
+	int keysSkipped;
+
+	long durationMillis;
+	/**
+	 * Milliseconds from JVM start until the warm-up was finished, i.e. until the first requests are served from warmed up caches.
+	 */
+	long startupToWarmMillis;
+}
@@ -0,0 +1,43 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.cache;
+
+/**
+ * Estimates how many bytes a cached key/value pair occupies.
+ * Used by {@link CCache}s which are bounded by weight (i.e. maximumWeightInBytes) instead of by number of entries.
+ * <p>
+ * NOTE: the estimation is called each time a value is put into cache, so it shall be cheap and shall not traverse big object graphs.
+ */
+@FunctionalInterface
+public interface CacheWeigher<K, V>
+{
+	/**
+	 * @return estimated size in bytes; shall be non-negative
+	 */
+	int weigh(K key, V value);
+
+	static <K, V> CacheWeigher<K, V> constant(final int bytesPerEntry)
+	{
+		return (key, value) -> bytesPerEntry;
+	}
+}
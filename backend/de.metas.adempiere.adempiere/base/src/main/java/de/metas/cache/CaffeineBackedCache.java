@@ -0,0 +1,255 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import lombok.NonNull;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Exposes a Caffeine cache (W-TinyLFU admission, optionally bounded by weight) through guava's {@link Cache} interface,
+ * so that {@link CCache} can use it the same way it uses the guava caches.
+ * <p>
+ * The exceptions thrown by {@link #get(Object, Callable)} follow the guava contract, because {@link CCache} relies on it.
+ */
+final class CaffeineBackedCache<K, V> implements Cache<K, V>
+{
+	private final com.github.benmanes.caffeine.cache.Cache<K, V> delegate;
+
+	/**
+	 * The maximum as it was configured when the cache was built.
+	 * The effective maximum might be temporarily lowered by {@link CacheMgt} when the global memory budget is exceeded.
+	 */
+	private final long configuredMaximum;
+
+	CaffeineBackedCache(@NonNull final Caffeine<Object, Object> caffeine, final long configuredMaximum)
+	{
+		this.delegate = caffeine.build();
+		this.configuredMaximum = configuredMaximum;
+	}
+
+	@Nullable
+	@Override
+	public V getIfPresent(@NonNull final Object key)
+	{
+		return delegate.getIfPresent(key);
+	}
+
+	@Override
+	public V get(@NonNull final K key, @NonNull final Callable<? extends V> loader) throws ExecutionException
+	{
+		final V value;
+		try
+		{
+			value = delegate.get(key, k -> {
+				try
+				{
+					return loader.call();
+				}
+				catch (final RuntimeException | Error e)
+				{
+					throw e;
+				}
+				catch (final Exception e)
+				{
+					throw new CompletionException(e);
+				}
+			});
+		}
+		catch (final CompletionException e)
+		{
+			throw new ExecutionException(e.getCause());
+		}
+		catch (final RuntimeException e)
+		{
+			throw new UncheckedExecutionException(e);
+		}
+		catch (final Error e)
+		{
+			throw new ExecutionError(e);
+		}
+
+		if (value == null)
+		{
+			// same as guava: null values are not cached
+			throw new InvalidCacheLoadException("Loader returned null for key " + key);
+		}
+		return value;
+	}
+
+	@Override
+	public ImmutableMap<K, V> getAllPresent(@NonNull final Iterable<?> keys)
+	{
+		return ImmutableMap.copyOf(delegate.getAllPresent(keys));
+	}
+
+	@Override
+	public void put(@NonNull final K key, @NonNull final V value)
+	{
+		delegate.put(key, value);
+	}
+
+	@Override
+	public void putAll(@NonNull final Map<? extends K, ? extends V> map)
+	{
+		delegate.putAll(map);
+	}
+
+	@Override
+	public void invalidate(@NonNull final Object key)
+	{
+		delegate.invalidate(key);
+	}
+
+	@Override
+	public void invalidateAll(@NonNull final Iterable<?> keys)
+	{
+		delegate.invalidateAll(keys);
+	}
+
+	@Override
+	public void invalidateAll()
+	{
+		delegate.invalidateAll();
+	}
+
+	@Override
+	public long size()
+	{
+		return delegate.estimatedSize();
+	}
+
+	@Override
+	public CacheStats stats()
+	{
+		final com.github.benmanes.caffeine.cache.stats.CacheStats stats = delegate.stats();
+		return new CacheStats(
+				stats.hitCount(),
+				stats.missCount(),
+				stats.loadSuccessCount(),
+				stats.loadFailureCount(),
+				stats.totalLoadTime(),
+				stats.evictionCount());
+	}
+
+	@Override
+	public ConcurrentMap<K, V> asMap()
+	{
+		return delegate.asMap();
+	}
+
+	@Override
+	public void cleanUp()
+	{
+		delegate.cleanUp();
+	}
+
+	private Optional<Policy.Eviction<K, V>> getEvictionPolicy()
+	{
+		return delegate.policy().eviction();
+	}
+
+	boolean isWeighted()
+	{
+		return getEvictionPolicy().map(Policy.Eviction::isWeighted).orElse(false);
+	}
+
+	/**
+	 * @return the estimated weight in bytes of all entries, or zero if this cache is not weighted.
+	 * NOTE: pending writes and evictions are not applied here (see {@link #cleanUp()}), so the value can be slightly behind.
+	 */
+	long getWeightedSize()
+	{
+		return getEvictionPolicy()
+				.map(Policy.Eviction::weightedSize)
+				.orElse(OptionalLong.empty())
+				.orElse(0);
+	}
+
+	/**
+	 * @return the keys which are most likely to be retained, hottest first
+	 */
+	ImmutableList<K> getHottestKeys(final int limit)
+	{
+		return getEvictionPolicy()
+				.map(eviction -> ImmutableList.copyOf(eviction.hottest(limit).keySet()))
+				.orElseGet(() -> delegate.asMap().keySet().stream().limit(limit).collect(ImmutableList.toImmutableList()));
+	}
+
+	long getMaximum()
+	{
+		return getEvictionPolicy().map(Policy.Eviction::getMaximum).orElse(configuredMaximum);
+	}
+
+	long getConfiguredMaximum()
+	{
+		return configuredMaximum;
+	}
+
+	/**
+	 * Changes the cache's maximum (weight or size). If the cache is above the new maximum, entries are evicted right away.
+	 */
+	void setMaximum(final long maximum)
+	{
+		getEvictionPolicy().ifPresent(eviction -> eviction.setMaximum(Math.max(0, maximum)));
+	}
+
+	/**
+	 * Raises the maximum by given fraction of the configured maximum, but not above the configured maximum.
+	 */
+	void growMaximumTowardsConfigured(final double stepFraction)
+	{
+		final long maximum = getMaximum();
+		if (maximum >= configuredMaximum)
+		{
+			return;
+		}
+
+		final long step = Math.max((long)(configuredMaximum * stepFraction), 1);
+		setMaximum(Math.min(maximum + step, configuredMaximum));
+	}
+
+	void restoreConfiguredMaximum()
+	{
+		if (getMaximum() != configuredMaximum)
+		{
+			setMaximum(configuredMaximum);
+		}
+	}
+}
@@ -6,6 +6,7 @@ import org.adempiere.util.lang.impl.TableRecordReference;
 
 import com.google.common.collect.ImmutableList;
 
+import de.metas.cache.shared.SharedCacheSerializer;
 import de.metas.util.Check;
 import lombok.NonNull;
 
@@ -49,7 +50,11 @@ public class IDCache<V> extends CCache<Object, V>
 				cacheMapType,
 				KEYS_MAPPER,
 				(CacheRemovalListener<Object, V>)null,
-				(CacheAdditionListener<Object, V>)null);
+				(CacheAdditionListener<Object, V>)null,
+				(Long)null, // maximumWeightInBytes
+				(CacheWeigher<Object, V>)null,
+				(SharedCacheSerializer<Object, V>)null,
+				(CacheWarmUpLoader<Object, V>)null);
 
 		Check.assumeNotEmpty(tableName, "tableName not empty");
 	}
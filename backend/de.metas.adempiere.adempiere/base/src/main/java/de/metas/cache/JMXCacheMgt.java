@@ -1,11 +1,13 @@
 package de.metas.cache;
 
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Set;
 
 import org.adempiere.util.jmx.IJMXNameAware;
 import org.slf4j.Logger;
 
+import de.metas.cache.CCache.CCacheStats;
 import de.metas.logging.LogManager;
 
 /**
@@ -83,6 +85,18 @@ public class JMXCacheMgt implements JMXCacheMgtMBean, IJMXNameAware
 		getCacheMgt().enableRemoteCacheInvalidationForTableName(tableName);
 	}
 
+	@Override
+	public String getRemoteInvalidationStatistics()
+	{
+		return getCacheMgt().getRemoteInvalidationStatistics();
+	}
+
+	@Override
+	public void flushPendingRemoteInvalidations()
+	{
+		getCacheMgt().flushPendingRemoteInvalidations();
+	}
+
 	@Override
 	public long resetAll()
 	{
@@ -101,4 +115,39 @@ public class JMXCacheMgt implements JMXCacheMgtMBean, IJMXNameAware
 		return getCacheMgt().reset(tableName, recordId);
 	}
 
+	@Override
+	public String[] getCacheStatistics()
+	{
+		return getCacheMgt()
+				.getCacheStats()
+				.stream()
+				.sorted(Comparator.comparingLong(CCacheStats::getWeightInBytes).thenComparingLong(CCacheStats::getSize).reversed())
+				.map(CCacheStats::toString)
+				.toArray(String[]::new);
+	}
+
+	@Override
+	public long getTotalWeightedSizeInBytes()
+	{
+		return getCacheMgt().getTotalWeightedSizeInBytes();
+	}
+
+	@Override
+	public long getMemoryBudgetInBytes()
+	{
+		return getCacheMgt().getMemoryBudgetInBytes();
+	}
+
+	@Override
+	public void setMemoryBudgetInBytes(final long memoryBudgetInBytes)
+	{
+		getCacheMgt().setMemoryBudgetInBytes(memoryBudgetInBytes);
+	}
+
+	@Override
+	public long enforceMemoryBudget()
+	{
+		return getCacheMgt().enforceMemoryBudget();
+	}
+
 }
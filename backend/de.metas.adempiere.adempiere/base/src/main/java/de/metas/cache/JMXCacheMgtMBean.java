@@ -20,9 +20,23 @@ public interface JMXCacheMgtMBean
 
 	void enableRemoteCacheInvalidationForTableName(String tableName);
 
+	String getRemoteInvalidationStatistics();
+
+	void flushPendingRemoteInvalidations();
+
 	long resetAll();
 
 	long resetForTable(String tableName);
 
 	long resetForRecordId(String tableName, int recordId);
+
+	String[] getCacheStatistics();
+
+	long getTotalWeightedSizeInBytes();
+
+	long getMemoryBudgetInBytes();
+
+	void setMemoryBudgetInBytes(long memoryBudgetInBytes);
+
+	long enforceMemoryBudget();
 }
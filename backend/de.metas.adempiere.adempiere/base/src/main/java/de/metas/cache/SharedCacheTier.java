@@ -0,0 +1,245 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+package de.metas.cache;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
+import de.metas.cache.shared.SharedCacheEntry;
+import de.metas.cache.shared.SharedCacheSerializer;
+import de.metas.cache.shared.SharedCacheStorage;
+import de.metas.logging.LogManager;
+import de.metas.util.Services;
+import lombok.NonNull;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.slf4j.Logger;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.Callable;
+
+/**
+ * The shared (second level) tier of a {@link CCache}. The entries are kept in the {@link SharedCacheStorage} which is configured in {@link CacheMgt}.
+ * <p>
+ * Each entry is stored together with the version of the cache's tables from <b>before</b> the value was loaded.
+ * An entry is used only if that version is still the current one, so values which were loaded while a table was changed are never served.
+ * <p>
+ * The current version is fetched from the storage at most once per {@link #VERSION_CHECK_INTERVAL_MILLIS}, or right away after the cache was reset on this node.
+ * If it changed, the local (first level) entries are stale too, see {@link #checkLocalEntriesStale()},
+ * and the shared entries which were stored with an older version are removed from the storage.
+ * <p>
+ * Because the version depends on the tables, the entries are stored under the cache name <b>and</b> a hash of the table names, see {@link #toStorageCacheName(String, ImmutableSet)}.
+ * So caches which have the same name but different tables (e.g. a different {@code additionalTableNameToResetFor}) are never sharing their entries.
+ */
+final class SharedCacheTier<K, V>
+{
+	private static final Logger logger = LogManager.getLogger(SharedCacheTier.class);
+
+	private static final long VERSION_CHECK_INTERVAL_MILLIS = 1000;
+	private static final long VERSION_UNKNOWN = -1;
+
+	private final String storageCacheName;
+	private final ImmutableSet<String> tableNames;
+	private final SharedCacheSerializer<K, V> serializer;
+
+	private volatile long currentVersion = VERSION_UNKNOWN;
+	private volatile long nextVersionCheckMillis = 0;
+
+	SharedCacheTier(
+			@NonNull final String cacheName,
+			@NonNull final ImmutableSet<CacheLabel> labels,
+			@NonNull final SharedCacheSerializer<K, V> serializer)
+	{
+		this.tableNames = labels.stream()
+				.filter(label -> !label.containsNoTableNameMarker())
+				.map(CacheLabel::getName)
+				.collect(ImmutableSet.toImmutableSet());
+		this.storageCacheName = toStorageCacheName(cacheName, tableNames);
+		this.serializer = serializer;
+	}
+
+	/**
+	 * @return the cache name followed by a hash of the sorted table names, e.g. {@code M_Product#by#M_Product_ID#1a2b3c4d}.
+	 * The hash shall be the same on all nodes, so we use {@link String#hashCode()}, which is specified.
+	 */
+	@VisibleForTesting
+	static String toStorageCacheName(@NonNull final String cacheName, @NonNull final ImmutableSet<String> tableNames)
+	{
+		final String tableNamesSorted = String.join(",", ImmutableSortedSet.copyOf(tableNames));
+		return cacheName + "#" + Integer.toHexString(tableNamesSorted.hashCode());
+	}
+
+	@Nullable
+	private static SharedCacheStorage getStorageOrNull()
+	{
+		return CacheMgt.get().getSharedCacheStorage();
+	}
+
+	/**
+	 * Makes sure the version will be fetched again from storage on next access.
+	 */
+	void forceVersionCheck()
+	{
+		nextVersionCheckMillis = 0;
+	}
+
+	/**
+	 * @return true if the tables were invalidated since the last check, so the local entries shall be discarded
+	 */
+	boolean checkLocalEntriesStale()
+	{
+		final SharedCacheStorage storage = getStorageOrNull();
+		if (storage == null)
+		{
+			return false;
+		}
+
+		final long now = System.currentTimeMillis();
+		if (now < nextVersionCheckMillis)
+		{
+			return false;
+		}
+
+		synchronized (this)
+		{
+			if (now < nextVersionCheckMillis)
+			{
+				return false;
+			}
+
+			final long previousVersion = currentVersion;
+			nextVersionCheckMillis = now + VERSION_CHECK_INTERVAL_MILLIS;
+			try
+			{
+				currentVersion = storage.computeVersion(tableNames);
+			}
+			catch (final Exception ex)
+			{
+				// NOTE: while the version is unknown, the shared tier is bypassed
+				logger.warn("Failed fetching the shared cache version of {}. Ignored.", tableNames, ex);
+				currentVersion = VERSION_UNKNOWN;
+				return false;
+			}
+
+			final boolean versionChanged = previousVersion != VERSION_UNKNOWN && previousVersion != currentVersion;
+			if (versionChanged)
+			{
+				removeSupersededEntriesNoFail(storage, currentVersion);
+			}
+			return versionChanged;
+		}
+	}
+
+	private void removeSupersededEntriesNoFail(@NonNull final SharedCacheStorage storage, final long version)
+	{
+		try
+		{
+			storage.removeEntriesOlderThan(storageCacheName, version);
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed removing the entries older than version {} from shared cache {}. Ignored.", version, storageCacheName, ex);
+		}
+	}
+
+	/**
+	 * Gets the value from shared storage if it's there and up to date. Else it loads it using given loader and puts it to shared storage, once the current transaction is committed.
+	 * <p>
+	 * If anything goes wrong with the shared storage, the value is loaded using given loader, so the shared tier never makes things fail.
+	 */
+	@Nullable
+	V getOrLoad(@NonNull final K key, @NonNull final Callable<V> loader) throws Exception
+	{
+		final SharedCacheStorage storage = getStorageOrNull();
+		if (storage == null)
+		{
+			return loader.call();
+		}
+
+		checkLocalEntriesStale();
+		final long versionBeforeLoad = currentVersion;
+
+		if (versionBeforeLoad == VERSION_UNKNOWN)
+		{
+			return loader.call();
+		}
+
+		final String keyString = serializer.toKeyString(key);
+		final V sharedValue = getFromStorageNoFail(storage, keyString, versionBeforeLoad);
+		if (sharedValue != null)
+		{
+			return sharedValue;
+		}
+
+		final V value = loader.call();
+		if (value != null)
+		{
+			// NOTE: the value might have been loaded in a transaction which is not committed yet,
+			// so we publish it to the other nodes only after commit (or right away if there is no transaction).
+			Services.get(ITrxManager.class).runAfterCommit(() -> putToStorageNoFail(storage, keyString, value, versionBeforeLoad));
+		}
+		return value;
+	}
+
+	@Nullable
+	private V getFromStorageNoFail(
+			@NonNull final SharedCacheStorage storage,
+			@NonNull final String keyString,
+			final long expectedVersion)
+	{
+		try
+		{
+			final SharedCacheEntry entry = storage.get(storageCacheName, keyString);
+			if (entry == null)
+			{
+				return null;
+			}
+			if (entry.getVersion() != expectedVersion)
+			{
+				storage.remove(storageCacheName, keyString);
+				return null;
+			}
+
+			return serializer.deserialize(entry.getValue());
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed getting {} from shared cache {}. Ignored.", keyString, storageCacheName, ex);
+			return null;
+		}
+	}
+
+	private void putToStorageNoFail(
+			@NonNull final SharedCacheStorage storage,
+			@NonNull final String keyString,
+			@NonNull final V value,
+			final long version)
+	{
+		try
+		{
+			storage.put(storageCacheName, keyString, SharedCacheEntry.of(serializer.serialize(value), version));
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed putting {} to shared cache {}. Ignored.", keyString, storageCacheName, ex);
+		}
+	}
+}
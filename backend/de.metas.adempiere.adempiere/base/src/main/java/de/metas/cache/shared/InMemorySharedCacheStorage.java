@@ -0,0 +1,104 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+package de.metas.cache.shared;
+
+import com.google.common.collect.ImmutableMap;
+import lombok.NonNull;
+import lombok.Value;
+
+import javax.annotation.Nullable;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link SharedCacheStorage} which keeps everything in this JVM.
+ * Mainly useful for testing, or to share the values between the caches of one node which would otherwise load the same data.
+ */
+public class InMemorySharedCacheStorage implements SharedCacheStorage
+{
+	private final ConcurrentHashMap<EntryKey, SharedCacheEntry> entries = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, Long> versionsByTableName = new ConcurrentHashMap<>();
+
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + "[entries=" + entries.size() + ", versions=" + versionsByTableName + "]";
+	}
+
+	@Nullable
+	@Override
+	public SharedCacheEntry get(@NonNull final String cacheName, @NonNull final String key)
+	{
+		return entries.get(EntryKey.of(cacheName, key));
+	}
+
+	@Override
+	public void put(@NonNull final String cacheName, @NonNull final String key, @NonNull final SharedCacheEntry entry)
+	{
+		entries.put(EntryKey.of(cacheName, key), entry);
+	}
+
+	@Override
+	public void remove(@NonNull final String cacheName, @NonNull final String key)
+	{
+		entries.remove(EntryKey.of(cacheName, key));
+	}
+
+	@Override
+	public void removeEntriesOlderThan(@NonNull final String cacheName, final long version)
+	{
+		entries.entrySet().removeIf(entry -> entry.getKey().getCacheName().equals(cacheName) && entry.getValue().getVersion() < version);
+	}
+
+	@Override
+	public ImmutableMap<String, Long> getTableVersions(@NonNull final Set<String> tableNames)
+	{
+		final ImmutableMap.Builder<String, Long> result = ImmutableMap.builder();
+		for (final String tableName : tableNames)
+		{
+			final Long version = versionsByTableName.get(tableName);
+			if (version != null)
+			{
+				result.put(tableName, version);
+			}
+		}
+		return result.build();
+	}
+
+	@Override
+	public void incrementTableVersions(@NonNull final Set<String> tableNames)
+	{
+		tableNames.forEach(tableName -> versionsByTableName.merge(tableName, 1L, Long::sum));
+	}
+
+	public int size()
+	{
+		return entries.size();
+	}
+
+	@Value(staticConstructor = "of")
+	private static class EntryKey
+	{
+		@NonNull String cacheName;
+		@NonNull String key;
+	}
+}
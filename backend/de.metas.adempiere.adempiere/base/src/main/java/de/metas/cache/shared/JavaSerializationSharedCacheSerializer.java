@@ -0,0 +1,70 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+package de.metas.cache.shared;
+
+import lombok.NonNull;
+import org.adempiere.exceptions.AdempiereException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+final class JavaSerializationSharedCacheSerializer<K, V extends Serializable> implements SharedCacheSerializer<K, V>
+{
+	@Override
+	public String toKeyString(@NonNull final K key)
+	{
+		return String.valueOf(key);
+	}
+
+	@Override
+	public byte[] serialize(@NonNull final V value)
+	{
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final ObjectOutputStream out = new ObjectOutputStream(bytes))
+		{
+			out.writeObject(value);
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed serializing " + value, ex);
+		}
+		return bytes.toByteArray();
+	}
+
+	@Override
+	public V deserialize(@NonNull final byte[] bytes)
+	{
+		try (final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes)))
+		{
+			@SuppressWarnings("unchecked") final V value = (V)in.readObject();
+			return value;
+		}
+		catch (final IOException | ClassNotFoundException ex)
+		{
+			throw new AdempiereException("Failed deserializing cached value", ex);
+		}
+	}
+}
@@ -0,0 +1,35 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+package de.metas.cache.shared;
+
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * A serialized cache value, together with the version (see {@link SharedCacheStorage#computeVersion(java.util.Set)}) which was current when the value was loaded.
+ */
+@Value(staticConstructor = "of")
+public class SharedCacheEntry
+{
+	@NonNull byte[] value;
+	long version;
+}
@@ -0,0 +1,49 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+package de.metas.cache.shared;
+
+import lombok.NonNull;
+
+import java.io.Serializable;
+
+/**
+ * Converts the keys and values of a {@link de.metas.cache.CCache} to the form in which they are kept in the {@link SharedCacheStorage}.
+ */
+public interface SharedCacheSerializer<K, V>
+{
+	/**
+	 * @return key string; it shall uniquely identify the key within the cache
+	 */
+	String toKeyString(@NonNull K key);
+
+	byte[] serialize(@NonNull V value);
+
+	V deserialize(@NonNull byte[] bytes);
+
+	/**
+	 * @return serializer which uses {@link String#valueOf(Object)} for the keys and java serialization for the values.
+	 */
+	static <K, V extends Serializable> SharedCacheSerializer<K, V> javaSerialization()
+	{
+		return new JavaSerializationSharedCacheSerializer<>();
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+package de.metas.cache.shared;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import lombok.NonNull;
+
+import javax.annotation.Nullable;
+import java.util.Set;
+
+/**
+ * SPI for the shared (second level) cache tier, i.e. a storage which is shared by all metasfresh nodes and which holds serialized cache values.
+ * <p>
+ * Next to the values, the storage also holds a version counter per table. The counter is incremented each time the table's caches are invalidated,
+ * so any node can tell if a cached value is stale by comparing the versions it was stored with to the current ones.
+ *
+ * @see de.metas.cache.CacheMgt#setSharedCacheStorage(SharedCacheStorage)
+ */
+public interface SharedCacheStorage
+{
+	/**
+	 * Pseudo table name whose version is incremented when all caches are invalidated.
+	 */
+	String TABLENAME_ALL = "*";
+
+	@Nullable
+	SharedCacheEntry get(@NonNull String cacheName, @NonNull String key);
+
+	void put(@NonNull String cacheName, @NonNull String key, @NonNull SharedCacheEntry entry);
+
+	void remove(@NonNull String cacheName, @NonNull String key);
+
+	/**
+	 * Removes the entries of given cache which were stored with a version lower than the given one, i.e. which can't be served anymore.
+	 */
+	void removeEntriesOlderThan(@NonNull String cacheName, long version);
+
+	/**
+	 * @return current versions of given tables; tables which were never invalidated have version zero and might be missing from the result.
+	 */
+	ImmutableMap<String, Long> getTableVersions(@NonNull Set<String> tableNames);
+
+	/**
+	 * Increments the versions of given tables. Implementations might write the increments later (see {@link #flush()}),
+	 * but they are always considered by {@link #getTableVersions(Set)} of this instance.
+	 */
+	void incrementTableVersions(@NonNull Set<String> tableNames);
+
+	/**
+	 * Writes the table version increments which were not written yet, if any.
+	 */
+	default void flush() {}
+
+	/**
+	 * Sums up the versions of given tables and of {@link #TABLENAME_ALL}.
+	 * Because the versions are only incremented, the sum changes whenever any of those tables was invalidated.
+	 */
+	default long computeVersion(@NonNull final Set<String> tableNames)
+	{
+		final ImmutableSet<String> tableNamesPlusAll = ImmutableSet.<String> builder()
+				.addAll(tableNames)
+				.add(TABLENAME_ALL)
+				.build();
+		final ImmutableMap<String, Long> versions = getTableVersions(tableNamesPlusAll);
+		return versions.values().stream().mapToLong(Long::longValue).sum();
+	}
+}
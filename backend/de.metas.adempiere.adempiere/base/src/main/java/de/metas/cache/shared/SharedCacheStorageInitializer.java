@@ -0,0 +1,109 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+package de.metas.cache.shared;
+
+import de.metas.cache.CacheMgt;
+import de.metas.logging.LogManager;
+import org.adempiere.exceptions.AdempiereException;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Nullable;
+
+/**
+ * Configures {@link CacheMgt}'s shared cache storage, according to the {@value #PROPERTY_Storage} property:
+ * <ul>
+ * <li>{@code none} (default): there is no shared cache tier; each node caches only locally</li>
+ * <li>{@code in-memory}: see {@link InMemorySharedCacheStorage}</li>
+ * <li>{@code sql}: see {@link SqlSharedCacheStorage}</li>
+ * </ul>
+ */
+@Component
+public class SharedCacheStorageInitializer
+{
+	private static final Logger logger = LogManager.getLogger(SharedCacheStorageInitializer.class);
+
+	public static final String PROPERTY_Storage = "metasfresh.cache.shared.storage";
+
+	@Nullable
+	private final SharedCacheStorage storage;
+
+	public SharedCacheStorageInitializer(@Value("${" + PROPERTY_Storage + ":none}") final String storageType)
+	{
+		storage = createStorageOrNull(storageType);
+		if (storage != null)
+		{
+			CacheMgt.get().setSharedCacheStorage(storage);
+		}
+		else
+		{
+			logger.info("No shared cache storage configured");
+		}
+	}
+
+	/**
+	 * Makes sure the table version increments which were not written yet are not lost when the application is shut down.
+	 */
+	@EventListener(ContextClosedEvent.class)
+	public void flushStorageNoFail()
+	{
+		if (storage == null)
+		{
+			return;
+		}
+
+		try
+		{
+			storage.flush();
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed flushing {}. Ignored.", storage, ex);
+		}
+	}
+
+	@Nullable
+	private static SharedCacheStorage createStorageOrNull(@Nullable final String storageType)
+	{
+		if (storageType == null || storageType.isBlank() || "none".equalsIgnoreCase(storageType))
+		{
+			return null;
+		}
+		else if ("in-memory".equalsIgnoreCase(storageType))
+		{
+			return new InMemorySharedCacheStorage();
+		}
+		else if ("sql".equalsIgnoreCase(storageType))
+		{
+			return new SqlSharedCacheStorage();
+		}
+		else
+		{
+			throw new AdempiereException("Unknown shared cache storage type: " + storageType)
+					.appendParametersToMessage()
+					.setParameter("property", PROPERTY_Storage);
+		}
+	}
+}
@@ -0,0 +1,180 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+package de.metas.cache.shared;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import lombok.NonNull;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.exceptions.DBException;
+import org.compiere.util.DB;
+
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link SharedCacheStorage} which keeps the values in the (unlogged) {@code T_Cache_Shared} table, so that they are shared by all nodes which connect to the same database.
+ * <p>
+ * NOTE: all statements are executed out of transaction, because the shared cache shall never see uncommitted data of a particular transaction.
+ * <p>
+ * The table version increments are not written for each cache reset, but collected and written once per short time window (see {@link TableVersionIncrementsBuffer}).
+ */
+public class SqlSharedCacheStorage implements SharedCacheStorage
+{
+	private final TableVersionIncrementsBuffer tableVersionIncrementsBuffer = TableVersionIncrementsBuffer.newInstance(SqlSharedCacheStorage::writeTableVersionIncrements);
+
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + "[tableVersionIncrementsBuffer=" + tableVersionIncrementsBuffer + "]";
+	}
+
+	@Nullable
+	@Override
+	public SharedCacheEntry get(@NonNull final String cacheName, @NonNull final String key)
+	{
+		final String sql = "SELECT Value, Version FROM T_Cache_Shared WHERE CacheName=? AND CacheKey=?";
+		final List<Object> sqlParams = ImmutableList.of(cacheName, key);
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_None);
+			DB.setParameters(pstmt, sqlParams);
+			rs = pstmt.executeQuery();
+			if (rs.next())
+			{
+				return SharedCacheEntry.of(rs.getBytes("Value"), rs.getLong("Version"));
+			}
+			else
+			{
+				return null;
+			}
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql, sqlParams);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+
+	@Override
+	public void put(@NonNull final String cacheName, @NonNull final String key, @NonNull final SharedCacheEntry entry)
+	{
+		DB.executeUpdateAndThrowExceptionOnFail(
+				"INSERT INTO T_Cache_Shared (CacheName, CacheKey, Value, Version, Updated) VALUES (?, ?, ?, ?, now())"
+						+ " ON CONFLICT (CacheName, CacheKey) DO UPDATE SET Value=EXCLUDED.Value, Version=EXCLUDED.Version, Updated=EXCLUDED.Updated",
+				new Object[] { cacheName, key, entry.getValue(), BigDecimal.valueOf(entry.getVersion()) },
+				ITrx.TRXNAME_None);
+	}
+
+	@Override
+	public void remove(@NonNull final String cacheName, @NonNull final String key)
+	{
+		DB.executeUpdateAndThrowExceptionOnFail(
+				"DELETE FROM T_Cache_Shared WHERE CacheName=? AND CacheKey=?",
+				new Object[] { cacheName, key },
+				ITrx.TRXNAME_None);
+	}
+
+	@Override
+	public void removeEntriesOlderThan(@NonNull final String cacheName, final long version)
+	{
+		DB.executeUpdateAndThrowExceptionOnFail(
+				"DELETE FROM T_Cache_Shared WHERE CacheName=? AND Version<?",
+				new Object[] { cacheName, BigDecimal.valueOf(version) },
+				ITrx.TRXNAME_None);
+	}
+
+	@Override
+	public ImmutableMap<String, Long> getTableVersions(@NonNull final Set<String> tableNames)
+	{
+		if (tableNames.isEmpty())
+		{
+			return ImmutableMap.of();
+		}
+
+		// make sure the increments which were not written yet are also considered
+		return tableVersionIncrementsBuffer.getVersions(tableNames, SqlSharedCacheStorage::retrieveTableVersions);
+	}
+
+	private static Map<String, Long> retrieveTableVersions(@NonNull final Set<String> tableNames)
+	{
+		final List<Object> sqlParams = new ArrayList<>();
+		final String sql = "SELECT TableName, Version FROM T_Cache_TableVersion WHERE TableName IN " + DB.buildSqlList(tableNames, sqlParams);
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_None);
+			DB.setParameters(pstmt, sqlParams);
+			rs = pstmt.executeQuery();
+
+			final HashMap<String, Long> result = new HashMap<>();
+			while (rs.next())
+			{
+				result.put(rs.getString("TableName"), rs.getLong("Version"));
+			}
+			return result;
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql, sqlParams);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+
+	@Override
+	public void incrementTableVersions(@NonNull final Set<String> tableNames)
+	{
+		tableVersionIncrementsBuffer.add(tableNames);
+	}
+
+	@Override
+	public void flush()
+	{
+		tableVersionIncrementsBuffer.flush();
+	}
+
+	private static void writeTableVersionIncrements(@NonNull final Map<String, Long> incrementsByTableName)
+	{
+		incrementsByTableName.forEach((tableName, increment) -> DB.executeUpdateAndThrowExceptionOnFail(
+				"INSERT INTO T_Cache_TableVersion (TableName, Version) VALUES (?, ?)"
+						+ " ON CONFLICT (TableName) DO UPDATE SET Version=T_Cache_TableVersion.Version + EXCLUDED.Version",
+				new Object[] { tableName, BigDecimal.valueOf(increment) },
+				ITrx.TRXNAME_None));
+	}
+}
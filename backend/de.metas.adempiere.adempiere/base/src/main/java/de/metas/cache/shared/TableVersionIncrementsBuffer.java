@@ -0,0 +1,277 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+package de.metas.cache.shared;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import de.metas.logging.LogManager;
+import lombok.NonNull;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.slf4j.Logger;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Collects the table version increments of {@link SharedCacheStorage#incrementTableVersions(Set)} and writes them in one go, once per {@code flushMillis} window,
+ * so that many cache resets of the same table are resulting in one update of the table's version.
+ * <p>
+ * The increments which were not written yet are still reported by {@link #getVersions(Set, Function)}, so that the caches of this node are seeing the new versions right away.
+ * Flushing and {@link #getVersions(Set, Function)} exclude each other, so an increment is never counted both as written and as pending.
+ * <p>
+ * NOTE: the other nodes are seeing the increments only after they were flushed, so they shall be flushed before the cache invalidation is broadcasted.
+ */
+final class TableVersionIncrementsBuffer
+{
+	private static final Logger logger = LogManager.getLogger(TableVersionIncrementsBuffer.class);
+
+	/**
+	 * JVM system property: for how many milliseconds to collect the table version increments before writing them. Zero means no buffering.
+	 */
+	static final String SYSTEM_PROPERTY_FlushMillis = "de.metas.cache.shared.tableVersions.flushMillis";
+	private static final long DEFAULT_FlushMillis = 100;
+
+	static TableVersionIncrementsBuffer newInstance(@NonNull final Consumer<ImmutableMap<String, Long>> writer)
+	{
+		return new TableVersionIncrementsBuffer(Long.getLong(SYSTEM_PROPERTY_FlushMillis, DEFAULT_FlushMillis), writer);
+	}
+
+	private final long flushMillis;
+	private final Consumer<ImmutableMap<String, Long>> writer;
+
+	private final Object lock = new Object();
+	/** increments which were not written yet */
+	private Map<String, Long> pendingIncrements = new HashMap<>();
+	private boolean flushScheduled = false;
+	/** write lock is held while writing; read lock is held while reading the written versions, see {@link #getVersions(Set, Function)} */
+	private final ReadWriteLock writeInProgressLock = new ReentrantReadWriteLock();
+	@Nullable
+	private ScheduledExecutorService _flushExecutor;
+
+	private final AtomicLong incrementsReceived = new AtomicLong();
+	private final AtomicLong writes = new AtomicLong();
+
+	@VisibleForTesting
+	TableVersionIncrementsBuffer(
+			final long flushMillis,
+			@NonNull final Consumer<ImmutableMap<String, Long>> writer)
+	{
+		this.flushMillis = Math.max(flushMillis, 0);
+		this.writer = writer;
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("flushMillis", flushMillis)
+				.add("incrementsReceived", incrementsReceived.get())
+				.add("writes", writes.get())
+				.toString();
+	}
+
+	public long getIncrementsReceived()
+	{
+		return incrementsReceived.get();
+	}
+
+	public long getWrites()
+	{
+		return writes.get();
+	}
+
+	public void add(@NonNull final Set<String> tableNames)
+	{
+		if (tableNames.isEmpty())
+		{
+			return;
+		}
+
+		incrementsReceived.addAndGet(tableNames.size());
+
+		if (flushMillis <= 0)
+		{
+			final ImmutableMap.Builder<String, Long> increments = ImmutableMap.builder();
+			tableNames.forEach(tableName -> increments.put(tableName, 1L));
+			writeInProgressLock.writeLock().lock();
+			try
+			{
+				write(increments.build());
+			}
+			finally
+			{
+				writeInProgressLock.writeLock().unlock();
+			}
+			return;
+		}
+
+		synchronized (lock)
+		{
+			tableNames.forEach(tableName -> pendingIncrements.merge(tableName, 1L, Long::sum));
+			scheduleFlushIfNeeded();
+		}
+	}
+
+	private void scheduleFlushIfNeeded()
+	{
+		if (!flushScheduled && !pendingIncrements.isEmpty())
+		{
+			flushScheduled = true;
+			getFlushExecutor().schedule(this::flushNoFail, flushMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private ScheduledExecutorService getFlushExecutor()
+	{
+		ScheduledExecutorService flushExecutor = _flushExecutor;
+		if (flushExecutor == null)
+		{
+			flushExecutor = _flushExecutor = Executors.newSingleThreadScheduledExecutor(CustomizableThreadFactory.builder()
+					.setThreadNamePrefix(getClass().getSimpleName())
+					.setDaemon(true)
+					.build());
+		}
+		return flushExecutor;
+	}
+
+	/**
+	 * @param writtenVersionsLoader loads the versions which were already written
+	 * @return the written versions of given tables plus their increments which were not written yet
+	 */
+	public ImmutableMap<String, Long> getVersions(
+			@NonNull final Set<String> tableNames,
+			@NonNull final Function<Set<String>, Map<String, Long>> writtenVersionsLoader)
+	{
+		writeInProgressLock.readLock().lock();
+		try
+		{
+			final HashMap<String, Long> result = new HashMap<>(writtenVersionsLoader.apply(tableNames));
+			getPendingIncrements(tableNames).forEach((tableName, increment) -> result.merge(tableName, increment, Long::sum));
+			return ImmutableMap.copyOf(result);
+		}
+		finally
+		{
+			writeInProgressLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return the increments of given tables which were not written yet
+	 */
+	@VisibleForTesting
+	ImmutableMap<String, Long> getPendingIncrements(@NonNull final Set<String> tableNames)
+	{
+		synchronized (lock)
+		{
+			if (pendingIncrements.isEmpty())
+			{
+				return ImmutableMap.of();
+			}
+
+			final ImmutableMap.Builder<String, Long> result = ImmutableMap.builder();
+			for (final String tableName : tableNames)
+			{
+				final Long increment = pendingIncrements.get(tableName);
+				if (increment != null)
+				{
+					result.put(tableName, increment);
+				}
+			}
+			return result.build();
+		}
+	}
+
+	private void flushNoFail()
+	{
+		try
+		{
+			flush();
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed writing the buffered table version increments. Will retry.", ex);
+		}
+	}
+
+	/**
+	 * Writes all collected increments right away. If writing fails, they are kept and retried with the next flush.
+	 */
+	public void flush()
+	{
+		writeInProgressLock.writeLock().lock();
+		try
+		{
+			final ImmutableMap<String, Long> increments;
+			synchronized (lock)
+			{
+				flushScheduled = false;
+				if (pendingIncrements.isEmpty())
+				{
+					return;
+				}
+
+				increments = ImmutableMap.copyOf(pendingIncrements);
+				pendingIncrements = new HashMap<>();
+			}
+
+			boolean written = false;
+			try
+			{
+				write(increments);
+				written = true;
+			}
+			finally
+			{
+				if (!written)
+				{
+					synchronized (lock)
+					{
+						increments.forEach((tableName, increment) -> pendingIncrements.merge(tableName, increment, Long::sum));
+						scheduleFlushIfNeeded();
+					}
+				}
+			}
+		}
+		finally
+		{
+			writeInProgressLock.writeLock().unlock();
+		}
+	}
+
+	private void write(@NonNull final ImmutableMap<String, Long> increments)
+	{
+		writer.accept(increments);
+		writes.incrementAndGet();
+		logger.debug("Wrote table version increments: {}", increments);
+	}
+}
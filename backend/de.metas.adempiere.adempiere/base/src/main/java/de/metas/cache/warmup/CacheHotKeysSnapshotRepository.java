@@ -0,0 +1,123 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+package de.metas.cache.warmup;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import de.metas.cache.CacheHotKeysSnapshot;
+import de.metas.util.Services;
+import lombok.NonNull;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.exceptions.DBException;
+import org.compiere.util.DB;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Repository
+public class CacheHotKeysSnapshotRepository
+{
+	private final ITrxManager trxManager = Services.get(ITrxManager.class);
+
+	private static final String SQL_SelectAll = "SELECT CacheName, CacheKey FROM T_Cache_HotKey ORDER BY CacheName, SeqNo";
+	private static final String SQL_Insert = "INSERT INTO T_Cache_HotKey (CacheName, SeqNo, CacheKey) VALUES (?, ?, ?)";
+
+	public CacheHotKeysSnapshot get()
+	{
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(SQL_SelectAll, ITrx.TRXNAME_None);
+			rs = pstmt.executeQuery();
+
+			final Map<String, ImmutableList.Builder<String>> keysByCacheName = new LinkedHashMap<>();
+			while (rs.next())
+			{
+				keysByCacheName.computeIfAbsent(rs.getString("CacheName"), k -> ImmutableList.builder())
+						.add(rs.getString("CacheKey"));
+			}
+
+			final ImmutableMap.Builder<String, ImmutableList<String>> result = ImmutableMap.builder();
+			keysByCacheName.forEach((cacheName, keys) -> result.put(cacheName, keys.build()));
+			return CacheHotKeysSnapshot.of(result.build());
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, SQL_SelectAll);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+
+	/**
+	 * Replaces the previously saved snapshot.
+	 */
+	public void save(@NonNull final CacheHotKeysSnapshot snapshot)
+	{
+		trxManager.runInNewTrx(() -> {
+			DB.executeUpdateAndThrowExceptionOnFail("DELETE FROM T_Cache_HotKey", ITrx.TRXNAME_ThreadInherited);
+			insert(snapshot);
+		});
+	}
+
+	private static void insert(@NonNull final CacheHotKeysSnapshot snapshot)
+	{
+		if (snapshot.isEmpty())
+		{
+			return;
+		}
+
+		PreparedStatement pstmt = null;
+		try
+		{
+			pstmt = DB.prepareStatement(SQL_Insert, ITrx.TRXNAME_ThreadInherited);
+			for (final String cacheName : snapshot.getCacheNames())
+			{
+				int seqNo = 1;
+				for (final String keyString : snapshot.getKeys(cacheName))
+				{
+					DB.setParameters(pstmt, new Object[] { cacheName, seqNo, keyString });
+					pstmt.addBatch();
+					seqNo++;
+				}
+			}
+
+			pstmt.executeBatch();
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, SQL_Insert);
+		}
+		finally
+		{
+			DB.close(pstmt);
+		}
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+package de.metas.cache.warmup;
+
+import de.metas.cache.CacheHotKeysSnapshot;
+import de.metas.cache.CacheMgt;
+import de.metas.cache.CacheWarmUpLoader;
+import de.metas.logging.LogManager;
+import lombok.NonNull;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Saves the hottest keys of the caches which support warm-up (see {@link CacheWarmUpLoader}) on shutdown and reloads them in background on next startup,
+ * so that the first users after a restart don't have to wait for all the caches to be filled.
+ */
+@Service
+public class CacheWarmUpService
+{
+	private static final Logger logger = LogManager.getLogger(CacheWarmUpService.class);
+
+	private final CacheHotKeysSnapshotRepository snapshotRepository;
+
+	private final boolean enabled;
+	private final int maxKeysPerCache;
+	private final int threads;
+	private final Duration timeBudget;
+
+	/**
+	 * Runs the warm-up, which is DB heavy, so it shall not block the common fork-join pool
+	 */
+	@Nullable
+	private ExecutorService _warmUpExecutor;
+
+	public CacheWarmUpService(
+			@NonNull final CacheHotKeysSnapshotRepository snapshotRepository,
+			@Value("${metasfresh.cache.warmUp.enabled:false}") final boolean enabled,
+			@Value("${metasfresh.cache.warmUp.maxKeysPerCache:1000}") final int maxKeysPerCache,
+			@Value("${metasfresh.cache.warmUp.threads:4}") final int threads,
+			@Value("${metasfresh.cache.warmUp.timeBudgetSeconds:120}") final int timeBudgetSeconds)
+	{
+		this.snapshotRepository = snapshotRepository;
+		this.enabled = enabled;
+		this.maxKeysPerCache = maxKeysPerCache;
+		this.threads = threads;
+		this.timeBudget = Duration.ofSeconds(timeBudgetSeconds);
+	}
+
+	public void saveHotKeysSnapshotNoFail()
+	{
+		if (!enabled)
+		{
+			return;
+		}
+
+		try
+		{
+			final CacheHotKeysSnapshot snapshot = CacheMgt.get().createHotKeysSnapshot(maxKeysPerCache);
+			snapshotRepository.save(snapshot);
+			logger.info("Saved {} hot keys of {} caches", snapshot.getKeysCount(), snapshot.getCacheNames().size());
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed saving the cache hot keys snapshot. Ignored.", ex);
+		}
+	}
+
+	public void warmUpInBackground()
+	{
+		if (!enabled)
+		{
+			logger.info("Cache warm-up is disabled");
+			return;
+		}
+
+		getWarmUpExecutor().execute(this::warmUpNoFail);
+	}
+
+	private synchronized ExecutorService getWarmUpExecutor()
+	{
+		ExecutorService warmUpExecutor = _warmUpExecutor;
+		if (warmUpExecutor == null)
+		{
+			warmUpExecutor = _warmUpExecutor = Executors.newSingleThreadExecutor(CustomizableThreadFactory.builder()
+					.setThreadNamePrefix(getClass().getSimpleName())
+					.setDaemon(true)
+					.build());
+		}
+		return warmUpExecutor;
+	}
+
+	@EventListener(ContextClosedEvent.class)
+	public synchronized void shutdownWarmUpExecutor()
+	{
+		final ExecutorService warmUpExecutor = _warmUpExecutor;
+		if (warmUpExecutor != null)
+		{
+			warmUpExecutor.shutdownNow();
+			_warmUpExecutor = null;
+		}
+	}
+
+	private void warmUpNoFail()
+	{
+		try
+		{
+			final CacheHotKeysSnapshot snapshot = snapshotRepository.get();
+			if (snapshot.isEmpty())
+			{
+				logger.info("No cache hot keys snapshot found. Skip warm-up.");
+				return;
+			}
+
+			CacheMgt.get().warmUp(snapshot, threads, timeBudget);
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Cache warm-up failed. Ignored.", ex);
+		}
+	}
+}
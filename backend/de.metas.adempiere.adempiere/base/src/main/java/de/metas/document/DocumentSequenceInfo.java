@@ -27,6 +27,11 @@ public class DocumentSequenceInfo
 	private final boolean startNewMonth;
 	private final String dateColumn;
 
+	/**
+	 * Audited sequences are expected to be gapless, so their numbers are never reserved in blocks.
+	 */
+	private final boolean audited;
+
 	private final CustomSequenceNoProvider customSequenceNoProvider;
 
 	@Builder
@@ -41,6 +46,7 @@ public class DocumentSequenceInfo
 			final boolean startNewYear,
 			final boolean startNewMonth,
 			final String dateColumn,
+			final boolean audited,
 			final CustomSequenceNoProvider customSequenceNoProvider)
 	{
 		this.adSequenceId = adSequenceId;
@@ -53,6 +59,7 @@ public class DocumentSequenceInfo
 		this.startNewYear = startNewYear;
 		this.startNewMonth = startNewMonth;
 		this.dateColumn = dateColumn;
+		this.audited = audited;
 		this.customSequenceNoProvider = customSequenceNoProvider;
 	}
 }
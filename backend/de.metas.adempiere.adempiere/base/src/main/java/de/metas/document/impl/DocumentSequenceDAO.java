@@ -144,6 +144,7 @@ public class DocumentSequenceDAO implements IDocumentSequenceDAO
 				.startNewYear(record.isStartNewYear())
 				.startNewMonth(record.isStartNewMonth())
 				.dateColumn(record.getDateColumn())
+				.audited(record.isAudited())
 				//
 				.customSequenceNoProvider(createCustomSequenceNoProviderOrNull(record))
 				//
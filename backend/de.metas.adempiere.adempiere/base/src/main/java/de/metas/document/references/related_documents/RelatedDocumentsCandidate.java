@@ -89,6 +89,25 @@ public final class RelatedDocumentsCandidate
 				.toString();
 	}
 
+	RelatedDocumentsCandidate withDocumentsCountSupplier(@NonNull final RelatedDocumentsCountSupplier documentsCountSupplier)
+	{
+		if (this.documentsCountSupplier == documentsCountSupplier)
+		{
+			return this;
+		}
+
+		return builder()
+				.id(id)
+				.internalName(internalName)
+				.targetWindow(targetWindow)
+				.priority(priority)
+				.windowCaption(windowCaption)
+				.filterByFieldCaption(filterByFieldCaption)
+				.querySupplier(querySupplier)
+				.documentsCountSupplier(documentsCountSupplier)
+				.build();
+	}
+
 	public AdWindowId getTargetWindowId()
 	{
 		return targetWindow.getAdWindowId();
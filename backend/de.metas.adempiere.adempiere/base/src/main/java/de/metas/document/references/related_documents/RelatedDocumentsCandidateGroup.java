@@ -44,6 +44,7 @@ import org.slf4j.Logger;
 import java.time.Duration;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
 
 @Value
@@ -69,6 +70,14 @@ public class RelatedDocumentsCandidateGroup
 		return builder().candidate(candidate).build();
 	}
 
+	RelatedDocumentsCandidateGroup mapCandidates(@NonNull final UnaryOperator<RelatedDocumentsCandidate> mapper)
+	{
+		final ImmutableList<RelatedDocumentsCandidate> candidatesNew = CollectionUtils.map(candidates, mapper);
+		return candidates.equals(candidatesNew)
+				? this
+				: builder().candidates(candidatesNew).build();
+	}
+
 	public boolean isMatching(@NonNull final RelatedDocumentsId relatedDocumentsId)
 	{
 		return candidates.stream().anyMatch(candidate -> candidate.isMatching(relatedDocumentsId));
@@ -0,0 +1,261 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+package de.metas.document.references.related_documents;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import de.metas.cache.CacheMgt;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.CacheInvalidateRequest;
+import de.metas.logging.LogManager;
+import de.metas.util.Services;
+import lombok.NonNull;
+import lombok.Value;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.slf4j.Logger;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Nullable;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caches the related documents counts, per source record.
+ * <p>
+ * A cached count is dropped when, according to {@link CacheMgt}, its target table or its source record was changed.
+ * Because not all tables are invalidated across nodes, the counts are also expiring after {@value #SYSCONFIG_ExpireMinutes} minutes.
+ */
+@Component
+public class RelatedDocumentsCountCache
+{
+	private static final Logger logger = LogManager.getLogger(RelatedDocumentsCountCache.class);
+
+	private static final String SYSCONFIG_MaxSourceRecords = "de.metas.document.references.countsCache.maxSourceRecords";
+	private static final int DEFAULT_MaxSourceRecords = 1000;
+	private static final String SYSCONFIG_ExpireMinutes = "de.metas.document.references.countsCache.expireMinutes";
+	private static final int DEFAULT_ExpireMinutes = 10;
+
+	private final boolean enabled;
+	private final Cache<TableRecordReference, SourceRecordCounts> countsBySourceRecord;
+
+	/**
+	 * Source and target table names of all counts we ever cached, so we can quickly ignore the invalidations of other tables.
+	 */
+	private final Set<String> knownTableNames = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Incremented on each relevant invalidation, so we won't cache a count which was computed while it was invalidated.
+	 */
+	private final AtomicLong invalidationsCount = new AtomicLong();
+
+	public RelatedDocumentsCountCache()
+	{
+		this(Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_MaxSourceRecords, DEFAULT_MaxSourceRecords),
+				Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_ExpireMinutes, DEFAULT_ExpireMinutes));
+
+		CacheMgt.get().addCacheResetListener(this::onCacheReset);
+	}
+
+	@VisibleForTesting
+	RelatedDocumentsCountCache(final int maxSourceRecords, final int expireMinutes)
+	{
+		this.enabled = maxSourceRecords > 0;
+		this.countsBySourceRecord = CacheBuilder.newBuilder()
+				.maximumSize(Math.max(maxSourceRecords, 0))
+				.expireAfterWrite(Math.max(expireMinutes, 1), TimeUnit.MINUTES)
+				.build();
+
+		logger.info("Initialized: enabled={}, maxSourceRecords={}, expireMinutes={}", enabled, maxSourceRecords, expireMinutes);
+	}
+
+	/**
+	 * @return a candidate which is using this cache for counting the documents which are related to given source record.
+	 */
+	RelatedDocumentsCandidate withCachedCount(
+			@NonNull final RelatedDocumentsCandidate candidate,
+			@NonNull final IZoomSource fromDocument)
+	{
+		if (!enabled || fromDocument.getRecord_ID() <= 0)
+		{
+			return candidate;
+		}
+
+		final TableRecordReference sourceRecordRef = TableRecordReference.of(fromDocument.getTableName(), fromDocument.getRecord_ID());
+		final RelatedDocumentsCountSupplier countSupplier = candidate.getDocumentsCountSupplier();
+
+		return candidate.withDocumentsCountSupplier(
+				permissions -> getRecordsCount(
+						sourceRecordRef,
+						CountKey.of(candidate.getId(), permissions.getCacheKey()),
+						() -> candidate.getQuerySupplier().getQuery().getTableName(),
+						() -> countSupplier.getRecordsCount(permissions)));
+	}
+
+	@VisibleForTesting
+	int getRecordsCount(
+			@NonNull final TableRecordReference sourceRecordRef,
+			@NonNull final CountKey countKey,
+			@NonNull final Supplier<String> targetTableNameSupplier,
+			@NonNull final Supplier<Integer> countSupplier)
+	{
+		final SourceRecordCounts sourceRecordCounts = countsBySourceRecord.asMap().computeIfAbsent(sourceRecordRef, key -> new SourceRecordCounts());
+
+		final CachedCount cachedCount = sourceRecordCounts.get(countKey);
+		if (cachedCount != null)
+		{
+			return cachedCount.getCount();
+		}
+
+		final String targetTableName = targetTableNameSupplier.get();
+		knownTableNames.add(sourceRecordRef.getTableName());
+		knownTableNames.add(targetTableName);
+
+		final long invalidationsCountBefore = invalidationsCount.get();
+		final int count = countSupplier.get();
+		if (invalidationsCount.get() == invalidationsCountBefore)
+		{
+			sourceRecordCounts.put(countKey, CachedCount.of(targetTableName, count));
+		}
+
+		return count;
+	}
+
+	@VisibleForTesting
+	long onCacheReset(@NonNull final CacheInvalidateMultiRequest multiRequest)
+	{
+		if (countsBySourceRecord.size() <= 0)
+		{
+			return 0;
+		}
+
+		if (multiRequest.isResetAll())
+		{
+			invalidationsCount.incrementAndGet();
+			final long size = countsBySourceRecord.size();
+			countsBySourceRecord.invalidateAll();
+			return size;
+		}
+
+		long resetCount = 0;
+		for (final CacheInvalidateRequest request : multiRequest.getRequests())
+		{
+			final String tableName = request.getTableNameEffective();
+			if (tableName == null || !knownTableNames.contains(tableName))
+			{
+				continue;
+			}
+
+			invalidationsCount.incrementAndGet();
+
+			//
+			// The source record itself was changed
+			if (request.isAllRecords())
+			{
+				resetCount += invalidateSourceRecords(tableName);
+			}
+			else
+			{
+				final TableRecordReference recordRef = request.getRecordEffective();
+				if (countsBySourceRecord.asMap().remove(recordRef) != null)
+				{
+					resetCount++;
+				}
+			}
+
+			//
+			// Something in the target table was changed
+			resetCount += invalidateTargetTable(tableName);
+		}
+
+		return resetCount;
+	}
+
+	private long invalidateSourceRecords(@NonNull final String sourceTableName)
+	{
+		long resetCount = 0;
+		for (final TableRecordReference sourceRecordRef : countsBySourceRecord.asMap().keySet())
+		{
+			if (sourceTableName.equals(sourceRecordRef.getTableName()))
+			{
+				countsBySourceRecord.invalidate(sourceRecordRef);
+				resetCount++;
+			}
+		}
+		return resetCount;
+	}
+
+	private long invalidateTargetTable(@NonNull final String targetTableName)
+	{
+		long resetCount = 0;
+		for (final SourceRecordCounts sourceRecordCounts : countsBySourceRecord.asMap().values())
+		{
+			resetCount += sourceRecordCounts.removeByTargetTableName(targetTableName);
+		}
+		return resetCount;
+	}
+
+	@VisibleForTesting
+	@Value(staticConstructor = "of")
+	static class CountKey
+	{
+		@NonNull RelatedDocumentsId relatedDocumentsId;
+		@NonNull String permissionsKey;
+	}
+
+	@Value(staticConstructor = "of")
+	private static class CachedCount
+	{
+		@NonNull String targetTableName;
+		int count;
+	}
+
+	private static class SourceRecordCounts
+	{
+		private final ConcurrentHashMap<CountKey, CachedCount> counts = new ConcurrentHashMap<>();
+
+		@Nullable
+		public CachedCount get(@NonNull final CountKey key)
+		{
+			return counts.get(key);
+		}
+
+		public void put(@NonNull final CountKey key, @NonNull final CachedCount cachedCount)
+		{
+			counts.put(key, cachedCount);
+		}
+
+		public int removeByTargetTableName(@NonNull final String targetTableName)
+		{
+			final int sizeBefore = counts.size();
+			counts.values().removeIf(cachedCount -> targetTableName.equals(cachedCount.getTargetTableName()));
+			return sizeBefore - counts.size();
+		}
+	}
+}
@@ -41,10 +41,14 @@ public class RelatedDocumentsFactory
 	private static final Logger logger = LogManager.getLogger(RelatedDocumentsFactory.class);
 
 	private final ImmutableList<IRelatedDocumentsProvider> providers;
+	private final RelatedDocumentsCountCache countCache;
 
-	public RelatedDocumentsFactory(@NonNull final List<IRelatedDocumentsProvider> providers)
+	public RelatedDocumentsFactory(
+			@NonNull final List<IRelatedDocumentsProvider> providers,
+			@NonNull final RelatedDocumentsCountCache countCache)
 	{
 		this.providers = ImmutableList.copyOf(providers);
+		this.countCache = countCache;
 
 		logger.info("Providers: {}", this.providers);
 	}
@@ -110,7 +114,7 @@ public class RelatedDocumentsFactory
 
 					//
 					// Collect eligible candidates
-					result.add(candidatesGroup);
+					result.add(candidatesGroup.mapCandidates(candidate -> countCache.withCachedCount(candidate, fromDocument)));
 				}
 			}
 			catch (final Exception ex)
@@ -32,4 +32,9 @@ public interface RelatedDocumentsPermissions
 	boolean hasReadAccess(AdWindowId adWindowId);
 
 	String addAccessSQL(String sql, String tableNameFQ);
+
+	/**
+	 * @return a key which is the same for all permissions which are giving the same records count
+	 */
+	String getCacheKey();
 }
@@ -63,6 +63,12 @@ public class RelatedDocumentsPermissionsFactory
 		{
 			return sql;
 		}
+
+		@Override
+		public String getCacheKey()
+		{
+			return "ALL";
+		}
 	}
 
 	@ToString
@@ -86,5 +92,13 @@ public class RelatedDocumentsPermissionsFactory
 		{
 			return rolePermissions.addAccessSQL(sql, tableNameFQ, true, Access.READ);
 		}
+
+		@Override
+		public String getCacheKey()
+		{
+			return rolePermissions.getRoleId().getRepoId()
+					+ "|" + rolePermissions.getUserId().getRepoId()
+					+ "|" + rolePermissions.getClientId().getRepoId();
+		}
 	}
 }
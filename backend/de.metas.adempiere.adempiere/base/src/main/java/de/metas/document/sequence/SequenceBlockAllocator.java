@@ -0,0 +1,322 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.document.sequence;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+import de.metas.logging.LogManager;
+import de.metas.util.Services;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.NonNull;
+import lombok.Value;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.util.lang.IMutable;
+import org.adempiere.util.lang.Mutable;
+import org.adempiere.service.ISysConfigBL;
+import org.slf4j.Logger;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Hands out record IDs and document numbers from blocks which are reserved in the database in one go.
+ * <p>
+ * Without this, each new ID or document number means one update of the respective {@code AD_Sequence} row, so during bulk processing that row becomes a point where all writers wait for each other.
+ * With a block size of N, a node reserves N values at once and hands them out to all its threads; the unused rest of a block is lost when the node is stopped
+ * or when the respective {@code AD_Sequence} is changed (see {@link SequenceBlockAllocatorCacheResetListener}).
+ * So with block allocation the values are still unique, but they are neither gapless nor in chronological order across nodes.
+ * <p>
+ * The block size is configured via sysconfig, per sequence or as default for all sequences of a kind (see {@link SequenceKind}).
+ * The default is 1, i.e. each value is fetched from the database when it's needed (strict mode).
+ * Callers which must be gapless (e.g. audited document number sequences) shall always ask for block size 1.
+ * <p>
+ * Blocks are always reserved out of transaction, i.e. the reservation is committed right away.
+ * Otherwise, if the caller's transaction was rolled back, the sequence would be reset in the database while this node would still hand out the rest of the block,
+ * and the same values would be reserved a second time later.
+ */
+public final class SequenceBlockAllocator
+{
+	public static final SequenceBlockAllocator instance = new SequenceBlockAllocator();
+
+	private static final Logger logger = LogManager.getLogger(SequenceBlockAllocator.class);
+
+	private static final int MAX_BLOCK_SIZE = 1000;
+	private static final String METER_PREFIX = "mf.sequence.";
+	private static final String DOCUMENT_NO_SEQUENCE_ID_SEPARATOR = "#";
+
+	public enum SequenceKind
+	{
+		TABLE_ID("de.metas.document.sequence.TableID.BlockSize"),
+		DOCUMENT_NO("de.metas.document.sequence.DocumentNo.BlockSize");
+
+		private final String sysConfigPrefix;
+
+		SequenceKind(@NonNull final String sysConfigPrefix)
+		{
+			this.sysConfigPrefix = sysConfigPrefix;
+		}
+	}
+
+	/**
+	 * Identifies one range of values, e.g. one table's IDs or the document numbers of one sequence in a given calendar year.
+	 */
+	@Value(staticConstructor = "of")
+	public static class SequenceKey
+	{
+		@NonNull SequenceKind kind;
+
+		/** table name for {@link SequenceKind#TABLE_ID}, AD_Sequence.Name for {@link SequenceKind#DOCUMENT_NO} */
+		@NonNull String sequenceName;
+
+		/** additional discriminator, e.g. the calendar year and month for sequences which restart every year */
+		@Nullable String period;
+
+		public static SequenceKey tableId(@NonNull final String tableName)
+		{
+			return of(SequenceKind.TABLE_ID, tableName, null);
+		}
+
+		public static SequenceKey documentNo(@NonNull final String sequenceName, final int adSequenceId, @Nullable final String period)
+		{
+			return of(SequenceKind.DOCUMENT_NO, sequenceName + DOCUMENT_NO_SEQUENCE_ID_SEPARATOR + adSequenceId, period);
+		}
+
+		/**
+		 * @return true if this key was created using {@link #documentNo(String, int, String)} with the given {@code AD_Sequence_ID}.
+		 */
+		public boolean isDocumentNo(final int adSequenceId)
+		{
+			return kind == SequenceKind.DOCUMENT_NO && sequenceName.endsWith(DOCUMENT_NO_SEQUENCE_ID_SEPARATOR + adSequenceId);
+		}
+
+		private StatsKey toStatsKey()
+		{
+			return new StatsKey(kind, sequenceName);
+		}
+	}
+
+	private final ConcurrentHashMap<SequenceKey, Block> blocks = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<StatsKey, Stats> statsByKey = new ConcurrentHashMap<>();
+	private final AtomicReference<MeterRegistry> meterRegistryRef = new AtomicReference<>();
+
+	private SequenceBlockAllocator()
+	{
+	}
+
+	/**
+	 * @return the block size configured for the given sequence; at least 1.
+	 */
+	public int getConfiguredBlockSize(@NonNull final SequenceKind kind, @NonNull final String sequenceName)
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final int defaultBlockSize = sysConfigBL.getIntValue(kind.sysConfigPrefix, 1);
+		final int blockSize = sysConfigBL.getIntValue(kind.sysConfigPrefix + "." + sequenceName, defaultBlockSize);
+		return Math.max(1, Math.min(blockSize, MAX_BLOCK_SIZE));
+	}
+
+	/**
+	 * @param blockSize      how many values shall be reserved when the current block is used up; 1 means that no values are kept in memory.
+	 * @param blockReserver  reserves the given number of values in the database and returns them.
+	 *                       It may return fewer values than requested (but at least one), e.g. if the underlying sequence does not support blocks.
+	 *                       If a block is reserved, it's called out of transaction and it shall not use any transaction of its own which might be rolled back.
+	 */
+	public int next(
+			@NonNull final SequenceKey key,
+			final int blockSize,
+			@NonNull final IntFunction<int[]> blockReserver)
+	{
+		final Stats stats = getStats(key);
+		final long startNanos = System.nanoTime();
+		try
+		{
+			if (blockSize <= 1)
+			{
+				stats.reservations.increment();
+				return reserve(key, 1, blockReserver)[0];
+			}
+
+			return blocks.computeIfAbsent(key, k -> new Block()).next(() -> {
+				stats.reservations.increment();
+				return reserveOutOfTrx(key, blockSize, blockReserver);
+			});
+		}
+		finally
+		{
+			stats.calls.increment();
+			stats.waitNanos.add(System.nanoTime() - startNanos);
+		}
+	}
+
+	/**
+	 * @return the value which {@link #next(SequenceKey, int, IntFunction)} would return without reserving a new block, if any.
+	 */
+	public OptionalInt peekNext(@NonNull final SequenceKey key)
+	{
+		final Block block = blocks.get(key);
+		return block != null ? block.peek() : OptionalInt.empty();
+	}
+
+	/**
+	 * Forgets all values which were reserved but not handed out yet.
+	 * Those values are lost, i.e. they will be gaps in the respective sequences.
+	 */
+	public void discardReservedValues()
+	{
+		blocks.clear();
+		logger.info("Discarded all reserved sequence values");
+	}
+
+	/**
+	 * Same as {@link #discardReservedValues()}, but only for the sequences whose keys match the given filter.
+	 *
+	 * @return how many blocks were discarded
+	 */
+	public int discardReservedValues(@NonNull final Predicate<SequenceKey> filter)
+	{
+		int countDiscarded = 0;
+		for (final SequenceKey key : ImmutableSet.copyOf(blocks.keySet()))
+		{
+			if (filter.test(key) && blocks.remove(key) != null)
+			{
+				logger.info("Discarded reserved sequence values of {}", key);
+				countDiscarded++;
+			}
+		}
+		return countDiscarded;
+	}
+
+	public boolean hasReservedValues(@NonNull final SequenceKind kind)
+	{
+		return blocks.keySet().stream().anyMatch(key -> key.getKind() == kind);
+	}
+
+	private static int[] reserveOutOfTrx(@NonNull final SequenceKey key, final int count, @NonNull final IntFunction<int[]> blockReserver)
+	{
+		final IMutable<int[]> values = new Mutable<>();
+		Services.get(ITrxManager.class).runOutOfTransaction(localTrxName -> values.setValue(reserve(key, count, blockReserver)));
+		return values.getValue();
+	}
+
+	private static int[] reserve(@NonNull final SequenceKey key, final int count, @NonNull final IntFunction<int[]> blockReserver)
+	{
+		final int[] values = blockReserver.apply(count);
+		if (values == null || values.length == 0 || Arrays.stream(values).anyMatch(value -> value < 0))
+		{
+			throw new AdempiereException("No sequence values were reserved")
+					.appendParametersToMessage()
+					.setParameter("key", key)
+					.setParameter("count", count)
+					.setParameter("values", values != null ? Arrays.toString(values) : null);
+		}
+
+		logger.trace("Reserved {} values for {}", values.length, key);
+		return values;
+	}
+
+	public void bindTo(@NonNull final MeterRegistry meterRegistry)
+	{
+		meterRegistryRef.set(meterRegistry);
+		statsByKey.forEach((statsKey, stats) -> bind(meterRegistry, statsKey, stats));
+	}
+
+	private Stats getStats(@NonNull final SequenceKey key)
+	{
+		return statsByKey.computeIfAbsent(key.toStatsKey(), statsKey -> {
+			final Stats stats = new Stats();
+			final MeterRegistry meterRegistry = meterRegistryRef.get();
+			if (meterRegistry != null)
+			{
+				bind(meterRegistry, statsKey, stats);
+			}
+			return stats;
+		});
+	}
+
+	private static void bind(@NonNull final MeterRegistry meterRegistry, @NonNull final StatsKey statsKey, @NonNull final Stats stats)
+	{
+		final Tags tags = Tags.of("kind", statsKey.getKind().name(), "sequence", statsKey.getSequenceName());
+
+		FunctionTimer.builder(METER_PREFIX + "wait", stats, s -> s.calls.sum(), s -> s.waitNanos.sum(), TimeUnit.NANOSECONDS)
+				.description("Time spent waiting for the next sequence value, including reserving a new block in the database")
+				.tags(tags)
+				.register(meterRegistry);
+		FunctionCounter.builder(METER_PREFIX + "reservations", stats, s -> s.reservations.sum())
+				.description("Number of database round trips to reserve sequence values")
+				.tags(tags)
+				.register(meterRegistry);
+	}
+
+	@VisibleForTesting
+	long getReservationsCount(@NonNull final SequenceKey key)
+	{
+		final Stats stats = statsByKey.get(key.toStatsKey());
+		return stats != null ? stats.reservations.sum() : 0;
+	}
+
+	private static final class Block
+	{
+		private int[] values = new int[0];
+		private int nextIndex = 0;
+
+		public synchronized int next(@NonNull final Supplier<int[]> reserver)
+		{
+			if (nextIndex >= values.length)
+			{
+				values = reserver.get();
+				nextIndex = 0;
+			}
+			return values[nextIndex++];
+		}
+
+		public synchronized OptionalInt peek()
+		{
+			return nextIndex < values.length ? OptionalInt.of(values[nextIndex]) : OptionalInt.empty();
+		}
+	}
+
+	@Value
+	private static class StatsKey
+	{
+		@NonNull SequenceKind kind;
+		@NonNull String sequenceName;
+	}
+
+	private static final class Stats
+	{
+		private final LongAdder calls = new LongAdder();
+		private final LongAdder waitNanos = new LongAdder();
+		private final LongAdder reservations = new LongAdder();
+	}
+}
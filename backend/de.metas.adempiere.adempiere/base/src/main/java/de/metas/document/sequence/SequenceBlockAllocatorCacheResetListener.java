@@ -0,0 +1,126 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+package de.metas.document.sequence;
+
+import com.google.common.collect.ImmutableSet;
+import de.metas.cache.CacheMgt;
+import de.metas.cache.ICacheResetListener;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.CacheInvalidateRequest;
+import de.metas.document.sequence.SequenceBlockAllocator.SequenceKey;
+import de.metas.document.sequence.SequenceBlockAllocator.SequenceKind;
+import lombok.NonNull;
+import org.adempiere.ad.trx.api.ITrx;
+import org.compiere.model.I_AD_Sequence;
+import org.compiere.util.DB;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+
+/**
+ * Makes the {@link SequenceBlockAllocator} discard the values it reserved for an {@code AD_Sequence} when that sequence is changed, e.g. when its {@code CurrentNext} is reset by a user.
+ * Otherwise this node would keep handing out values from the old range.
+ * <p>
+ * Note that reserving a block does not announce an {@code AD_Sequence} change, so the nodes don't discard each other's blocks while they are working.
+ */
+@Component
+public class SequenceBlockAllocatorCacheResetListener implements ICacheResetListener
+{
+	private final SequenceBlockAllocator sequenceBlockAllocator;
+
+	public SequenceBlockAllocatorCacheResetListener()
+	{
+		this(SequenceBlockAllocator.instance);
+	}
+
+	SequenceBlockAllocatorCacheResetListener(@NonNull final SequenceBlockAllocator sequenceBlockAllocator)
+	{
+		this.sequenceBlockAllocator = sequenceBlockAllocator;
+	}
+
+	@PostConstruct
+	private void postConstruct()
+	{
+		CacheMgt.get().addCacheResetListener(I_AD_Sequence.Table_Name, this);
+	}
+
+	@Override
+	public long reset(@NonNull final CacheInvalidateMultiRequest multiRequest)
+	{
+		if (multiRequest.isResetAll())
+		{
+			sequenceBlockAllocator.discardReservedValues();
+			return 1;
+		}
+
+		final ImmutableSet.Builder<Integer> adSequenceIds = ImmutableSet.builder();
+		for (final CacheInvalidateRequest request : multiRequest.getRequests())
+		{
+			if (!I_AD_Sequence.Table_Name.equals(request.getTableNameEffective()))
+			{
+				continue;
+			}
+			if (request.isAllRecords())
+			{
+				sequenceBlockAllocator.discardReservedValues();
+				return 1;
+			}
+			adSequenceIds.add(request.getRecordEffective().getRecord_ID());
+		}
+
+		long countDiscarded = 0;
+		for (final int adSequenceId : adSequenceIds.build())
+		{
+			countDiscarded += discardReservedValues(adSequenceId);
+		}
+		return countDiscarded;
+	}
+
+	private int discardReservedValues(final int adSequenceId)
+	{
+		int countDiscarded = sequenceBlockAllocator.discardReservedValues(key -> key.isDocumentNo(adSequenceId));
+
+		// table ID sequences are identified by their name, so we need to load it; but only if there is anything to discard
+		if (sequenceBlockAllocator.hasReservedValues(SequenceKind.TABLE_ID))
+		{
+			final String tableName = retrieveTableIdSequenceNameOrNull(adSequenceId);
+			if (tableName != null)
+			{
+				countDiscarded += sequenceBlockAllocator.discardReservedValues(SequenceKey.tableId(tableName)::equals);
+			}
+		}
+
+		return countDiscarded;
+	}
+
+	@Nullable
+	private static String retrieveTableIdSequenceNameOrNull(final int adSequenceId)
+	{
+		return DB.getSQLValueStringEx(
+				ITrx.TRXNAME_None,
+				"SELECT " + I_AD_Sequence.COLUMNNAME_Name + " FROM " + I_AD_Sequence.Table_Name + " WHERE " + I_AD_Sequence.COLUMNNAME_AD_Sequence_ID + "=? AND " + I_AD_Sequence.COLUMNNAME_IsTableID + "='Y'",
+				adSequenceId);
+	}
+}
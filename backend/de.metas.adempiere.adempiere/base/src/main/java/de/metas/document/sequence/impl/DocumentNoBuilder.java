@@ -34,6 +34,9 @@ import de.metas.document.sequence.ICountryIdProvider;
 import de.metas.document.sequence.DocSequenceId;
 import de.metas.document.sequence.IDocumentNoBuilder;
 import de.metas.document.sequence.IDocumentNoBuilderFactory;
+import de.metas.document.sequence.SequenceBlockAllocator;
+import de.metas.document.sequence.SequenceBlockAllocator.SequenceKey;
+import de.metas.document.sequence.SequenceBlockAllocator.SequenceKind;
 import de.metas.document.sequenceno.CustomSequenceNoProvider;
 import de.metas.i18n.AdMessageKey;
 import de.metas.i18n.IMsgBL;
@@ -65,6 +68,7 @@ import javax.annotation.Nullable;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.OptionalInt;
 import java.util.function.Supplier;
 
 /**
@@ -349,15 +353,62 @@ class DocumentNoBuilder implements IDocumentNoBuilder
 
 	private int retrieveAndIncrementSequenceCurrentNext(@NonNull final DocumentSequenceInfo docSeqInfo)
 	{
-		final String trxName = getTrxName();
+		final SequenceBlockAllocator sequenceBlockAllocator = SequenceBlockAllocator.instance;
+
+		// audited sequences need to be gapless and the dictionary's sequences are always incremented one by one
+		final int blockSize = docSeqInfo.isAudited() || isAdempiereSys()
+				? 1
+				: sequenceBlockAllocator.getConfiguredBlockSize(SequenceKind.DOCUMENT_NO, docSeqInfo.getName());
+
+		// a reserved block must be committed right away, no matter if the current document's transaction is rolled back later;
+		// otherwise the same numbers would be reserved again
+		return sequenceBlockAllocator.next(
+				toSequenceKey(docSeqInfo),
+				blockSize,
+				count -> retrieveAndIncrementSequenceCurrentNext(docSeqInfo, count, blockSize > 1 ? ITrx.TRXNAME_None : getTrxName()));
+	}
+
+	private SequenceKey toSequenceKey(@NonNull final DocumentSequenceInfo docSeqInfo)
+	{
+		final String period;
+		if (isAdempiereSys())
+		{
+			period = "System";
+		}
+		else if (docSeqInfo.isStartNewYear())
+		{
+			final String calendarMonth = docSeqInfo.isStartNewMonth() ? getCalendarMonth(docSeqInfo.getDateColumn()) : DEFAULT_CALENDAR_MONTH_TO_USE;
+			period = getCalendarYear(docSeqInfo.getDateColumn()) + "-" + calendarMonth;
+		}
+		else
+		{
+			period = null;
+		}
+
+		return SequenceKey.documentNo(docSeqInfo.getName(), docSeqInfo.getAdSequenceId(), period);
+	}
+
+	/**
+	 * Increments the sequence by {@code count} numbers in one update.
+	 *
+	 * @return the reserved sequence numbers
+	 */
+	private int[] retrieveAndIncrementSequenceCurrentNext(
+			@NonNull final DocumentSequenceInfo docSeqInfo,
+			final int count,
+			@Nullable final String trxName)
+	{
+		final int incrementNo = docSeqInfo.getIncrementNo();
+		final int totalIncrement = incrementNo * count;
+
 		final List<Object> sqlParams = new ArrayList<>();
 		final String sql;
 		if (isAdempiereSys())
 		{
 			sql = "UPDATE AD_Sequence SET CurrentNextSys = CurrentNextSys + ? WHERE AD_Sequence_ID=? RETURNING CurrentNextSys - ?";
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(totalIncrement);
 			sqlParams.add(docSeqInfo.getAdSequenceId());
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(totalIncrement);
 		}
 		else if (docSeqInfo.isStartNewYear())
 		{
@@ -370,19 +421,19 @@ class DocumentNoBuilder implements IDocumentNoBuilder
 			}
 
 			sql = "UPDATE AD_Sequence_No SET CurrentNext = CurrentNext + ? WHERE AD_Sequence_ID = ? AND CalendarYear = ? AND CalendarMonth = ? RETURNING CurrentNext - ?";
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(totalIncrement);
 			sqlParams.add(docSeqInfo.getAdSequenceId());
 			sqlParams.add(calendarYear);
 			sqlParams.add(calendarMonth);
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(totalIncrement);
 
 		}
 		else
 		{
 			sql = "UPDATE AD_Sequence SET CurrentNext = CurrentNext + ? WHERE AD_Sequence_ID = ? RETURNING CurrentNext - ?";
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(totalIncrement);
 			sqlParams.add(docSeqInfo.getAdSequenceId());
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(totalIncrement);
 		}
 
 		final IMutable<Integer> currentSeq = new Mutable<>(-1);
@@ -392,15 +443,43 @@ class DocumentNoBuilder implements IDocumentNoBuilder
 						   QUERY_TIME_OUT,
 						   rs -> currentSeq.setValue(rs.getInt(1)));
 
-		CacheMgt.get().resetLocalNowAndBroadcastOnTrxCommit(
-				trxName,
-				CacheInvalidateMultiRequest.rootRecord(I_AD_Sequence.Table_Name,docSeqInfo.getAdSequenceId()));
+		final int firstSeq = currentSeq.getValue();
+		if (firstSeq < 0)
+		{
+			// nothing was updated, e.g. because the AD_Sequence_No record of the current calendar year is missing
+			throw new DocumentNoBuilderException("No sequence number could be reserved for " + docSeqInfo.getName())
+					.appendParametersToMessage()
+					.setParameter("AD_Sequence_ID", docSeqInfo.getAdSequenceId())
+					.setParameter("sql", sql)
+					.setParameter("sqlParams", sqlParams);
+		}
 
-		return currentSeq.getValue();
+		// A reserved block is not announced: the numbers are handed out from memory, so AD_Sequence.CurrentNext doesn't tell which number is next anyway,
+		// and SequenceBlockAllocatorCacheResetListener would make all nodes discard their reserved blocks of this sequence.
+		if (count <= 1)
+		{
+			CacheMgt.get().resetLocalNowAndBroadcastOnTrxCommit(
+					trxName,
+					CacheInvalidateMultiRequest.rootRecord(I_AD_Sequence.Table_Name, docSeqInfo.getAdSequenceId()));
+		}
+
+		final int[] seqs = new int[count];
+		for (int i = 0; i < count; i++)
+		{
+			seqs[i] = firstSeq + i * incrementNo;
+		}
+		return seqs;
 	}
 
 	private int retrieveSequenceCurrentNext(@NonNull final DocumentSequenceInfo docSeqInfo)
 	{
+		// if this node has already reserved the next number, then that's the one which will be used
+		final OptionalInt reservedNext = SequenceBlockAllocator.instance.peekNext(toSequenceKey(docSeqInfo));
+		if (reservedNext.isPresent())
+		{
+			return reservedNext.getAsInt();
+		}
+
 		final int adSequenceId = docSeqInfo.getAdSequenceId();
 		final String trxName = getTrxName();
 
@@ -153,6 +153,7 @@ final class DataImportCommand
 			if (processImportRecordsSynchronously)
 			{
 				final ValidateAndActualImportRecordsResult processResult = dataImportService.validateAndImportRecordsNow(requestToActuallyImportRecords());
+
 				validationResult = processResult.getImportRecordsValidation();
 				if (stopOnFirstError && validationResult.hasErrors())
 				{
@@ -197,6 +198,7 @@ final class DataImportCommand
 				.selectionId(getOrCreateRecordsToImportSelectionId())
 				.notifyUserId(userId)
 				.completeDocuments(completeDocuments)
+				.dataImportRunId(getOrCreateDataImportRunId())
 				.additionalParameters(additionalParameters)
 				.build();
 	}
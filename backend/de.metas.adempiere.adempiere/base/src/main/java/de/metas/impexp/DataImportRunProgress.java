@@ -0,0 +1,96 @@
+package de.metas.impexp;
+
+import java.time.Duration;
+
+import javax.annotation.Nullable;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Progress and throughput of a data import run, as recorded by {@link DataImportRunsService}.
+ */
+@Value
+@Builder(toBuilder = true)
+public class DataImportRunProgress
+{
+	@NonNull
+	DataImportRunId dataImportRunId;
+
+	/** rows inserted into the import table (e.g. I_BPartner) */
+	int countRowsInsertedIntoImportTable;
+	@NonNull
+	@Builder.Default
+	Duration insertIntoImportTableDuration = Duration.ZERO;
+
+	/** import records which were imported into the target table (e.g. C_BPartner) */
+	int countRecordsImported;
+	@NonNull
+	@Builder.Default
+	Duration importRecordsDuration = Duration.ZERO;
+
+	public static DataImportRunProgress empty(@NonNull final DataImportRunId dataImportRunId)
+	{
+		return builder().dataImportRunId(dataImportRunId).build();
+	}
+
+	public DataImportRunProgress addRowsInsertedIntoImportTable(final int count, @NonNull final Duration duration)
+	{
+		return toBuilder()
+				.countRowsInsertedIntoImportTable(countRowsInsertedIntoImportTable + count)
+				.insertIntoImportTableDuration(insertIntoImportTableDuration.plus(duration))
+				.build();
+	}
+
+	public DataImportRunProgress addRecordsImported(final int count, @NonNull final Duration duration)
+	{
+		return toBuilder()
+				.countRecordsImported(countRecordsImported + count)
+				.importRecordsDuration(importRecordsDuration.plus(duration))
+				.build();
+	}
+
+	/** @return rows inserted into the import table per second or <code>null</code> if nothing was recorded yet */
+	@Nullable
+	public Long getRowsInsertedIntoImportTablePerSecond()
+	{
+		return perSecond(countRowsInsertedIntoImportTable, insertIntoImportTableDuration);
+	}
+
+	/** @return records imported per second or <code>null</code> if nothing was recorded yet */
+	@Nullable
+	public Long getRecordsImportedPerSecond()
+	{
+		return perSecond(countRecordsImported, importRecordsDuration);
+	}
+
+	@Nullable
+	private static Long perSecond(final int count, @NonNull final Duration duration)
+	{
+		final long millis = duration.toMillis();
+		return millis > 0 ? count * 1000L / millis : null;
+	}
+}
@@ -3,10 +3,21 @@ package de.metas.impexp;
 import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
 
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.dao.IQueryBL;
 import org.compiere.model.I_C_DataImport_Run;
+import org.slf4j.Logger;
 import org.springframework.stereotype.Service;
 
 import de.metas.impexp.config.DataImportConfigId;
+import de.metas.logging.LogManager;
+import de.metas.util.Services;
+import lombok.NonNull;
 
 /*
  * #%L
@@ -33,6 +44,9 @@ import de.metas.impexp.config.DataImportConfigId;
 @Service
 public class DataImportRunsService
 {
+	private static final Logger logger = LogManager.getLogger(DataImportRunsService.class);
+	private final IQueryBL queryBL = Services.get(IQueryBL.class);
+
 	public DataImportRunId createNewRun(final DataImportRunCreateRequest request)
 	{
 		final I_C_DataImport_Run record = newInstance(I_C_DataImport_Run.class);
@@ -45,4 +59,90 @@ public class DataImportRunsService
 
 		return DataImportRunId.ofRepoId(record.getC_DataImport_Run_ID());
 	}
+
+	public void recordRowsInsertedIntoImportTable(
+			@NonNull final DataImportRunId runId,
+			final int countRows,
+			@NonNull final Duration duration)
+	{
+		final DataImportRunProgress progress = updateProgress(runId, previous -> previous.addRowsInsertedIntoImportTable(countRows, duration));
+		if (progress == null)
+		{
+			return;
+		}
+
+		logger.debug("{}: inserted {} rows into import table in {} ({} rows/sec overall)", runId, countRows, duration, progress.getRowsInsertedIntoImportTablePerSecond());
+	}
+
+	public void recordRecordsImported(
+			@NonNull final DataImportRunId runId,
+			final int countRecords,
+			@NonNull final Duration duration)
+	{
+		final DataImportRunProgress progress = updateProgress(runId, previous -> previous.addRecordsImported(countRecords, duration));
+		if (progress == null)
+		{
+			return;
+		}
+
+		logger.info("{}: imported {} records in {} ({} records/sec overall)", runId, countRecords, duration, progress.getRecordsImportedPerSecond());
+	}
+
+	/**
+	 * Updates the progress of given run. The record is saved out of transaction, so the progress is visible while the import is still running.
+	 *
+	 * @return updated progress or <code>null</code> if the run does not exist
+	 */
+	@Nullable
+	private synchronized DataImportRunProgress updateProgress(
+			@NonNull final DataImportRunId runId,
+			@NonNull final UnaryOperator<DataImportRunProgress> updater)
+	{
+		final I_C_DataImport_Run record = retrieveRunRecordOutOfTrx(runId);
+		if (record == null)
+		{
+			logger.warn("No C_DataImport_Run found for {}. Not recording progress.", runId);
+			return null;
+		}
+
+		final DataImportRunProgress progress = updater.apply(toProgress(record));
+		record.setRowsInsertedIntoImportTable(progress.getCountRowsInsertedIntoImportTable());
+		record.setInsertIntoImportTableMillis(toMillisInt(progress.getInsertIntoImportTableDuration()));
+		record.setRecordsImported(progress.getCountRecordsImported());
+		record.setImportRecordsMillis(toMillisInt(progress.getImportRecordsDuration()));
+		saveRecord(record);
+
+		return progress;
+	}
+
+	public Optional<DataImportRunProgress> getProgress(@NonNull final DataImportRunId runId)
+	{
+		final I_C_DataImport_Run record = retrieveRunRecordOutOfTrx(runId);
+		return record != null ? Optional.of(toProgress(record)) : Optional.empty();
+	}
+
+	@Nullable
+	private I_C_DataImport_Run retrieveRunRecordOutOfTrx(@NonNull final DataImportRunId runId)
+	{
+		return queryBL.createQueryBuilderOutOfTrx(I_C_DataImport_Run.class)
+				.addEqualsFilter(I_C_DataImport_Run.COLUMNNAME_C_DataImport_Run_ID, runId)
+				.create()
+				.firstOnly(I_C_DataImport_Run.class);
+	}
+
+	private static DataImportRunProgress toProgress(@NonNull final I_C_DataImport_Run record)
+	{
+		return DataImportRunProgress.builder()
+				.dataImportRunId(DataImportRunId.ofRepoId(record.getC_DataImport_Run_ID()))
+				.countRowsInsertedIntoImportTable(record.getRowsInsertedIntoImportTable())
+				.insertIntoImportTableDuration(Duration.ofMillis(record.getInsertIntoImportTableMillis()))
+				.countRecordsImported(record.getRecordsImported())
+				.importRecordsDuration(Duration.ofMillis(record.getImportRecordsMillis()))
+				.build();
+	}
+
+	private static int toMillisInt(@NonNull final Duration duration)
+	{
+		return (int)Math.min(duration.toMillis(), Integer.MAX_VALUE);
+	}
 }
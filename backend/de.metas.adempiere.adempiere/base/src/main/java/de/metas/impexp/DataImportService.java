@@ -27,6 +27,8 @@ import org.compiere.util.TimeUtil;
 import org.slf4j.Logger;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.Nullable;
+import java.time.Duration;
 import java.util.Optional;
 
 /*
@@ -154,6 +156,7 @@ public class DataImportService
 
 	public ValidateAndActualImportRecordsResult validateAndImportRecordsNow(@NonNull final ImportRecordsRequest request)
 	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
 		final ImportProcessResult result = importProcessFactory.newImportProcessForTableName(request.getImportTableName())
 				.setCtx(Env.getCtx())
 				.setLoggable(Loggables.get())
@@ -161,6 +164,12 @@ public class DataImportService
 				.completeDocuments(request.isCompleteDocuments())
 				.setParameters(request.getAdditionalParameters())
 				.run();
+		stopwatch.stop();
+
+		if (request.getDataImportRunId() != null)
+		{
+			recordRecordsImported(request.getDataImportRunId(), result.getActualImport(), TimeUtil.toDuration(stopwatch));
+		}
 
 		if (request.getNotifyUserId() != null)
 		{
@@ -173,6 +182,19 @@ public class DataImportService
 				.build();
 	}
 
+	private void recordRecordsImported(
+			@NonNull final DataImportRunId dataImportRunId,
+			@Nullable final ActualImportRecordsResult actualImport,
+			@NonNull final Duration duration)
+	{
+		if (actualImport == null || !actualImport.getCountImportRecordsConsidered().isPresent())
+		{
+			return;
+		}
+
+		dataImportRunService.recordRecordsImported(dataImportRunId, actualImport.getCountImportRecordsConsidered().getAsInt(), duration);
+	}
+
 	AsyncImportRecordsResponse importRecordsAsync(@NonNull final ImportRecordsRequest request)
 	{
 		if (importRecordsAsyncExecutor == null)
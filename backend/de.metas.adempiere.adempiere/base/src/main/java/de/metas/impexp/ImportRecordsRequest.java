@@ -62,6 +62,12 @@ public class ImportRecordsRequest
 
 	boolean completeDocuments;
 
+	private static final String PARAM_DataImportRunId = "C_DataImport_Run_ID";
+
+	/** if set, the import progress is recorded on this run */
+	@Nullable
+	DataImportRunId dataImportRunId;
+
 	@NonNull
 	@Default
 	Params additionalParameters = Params.EMPTY;
@@ -79,6 +85,7 @@ public class ImportRecordsRequest
 		map.put(IImportProcess.PARAM_Selection_ID, selectionId);
 		map.put(PARAM_NotifyUserId, notifyUserId);
 		map.put(IImportProcess.PARAM_IsDocComplete, completeDocuments);
+		map.put(PARAM_DataImportRunId, dataImportRunId);
 
 		return Params.ofMap(map);
 	}
@@ -102,6 +109,7 @@ public class ImportRecordsRequest
 				.selectionId(selectionId)
 				.notifyUserId(params.getParameterAsId(PARAM_NotifyUserId, UserId.class))
 				.completeDocuments(params.getParameterAsBool(IImportProcess.PARAM_IsDocComplete))
+				.dataImportRunId(params.getParameterAsId(PARAM_DataImportRunId, DataImportRunId.class))
 				.additionalParameters(Params.copyOf(params))
 				.build();
 	}
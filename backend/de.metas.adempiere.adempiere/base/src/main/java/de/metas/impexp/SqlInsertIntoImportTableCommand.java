@@ -1,5 +1,6 @@
 package de.metas.impexp;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
 import de.metas.impexp.config.DataImportConfigId;
@@ -9,11 +10,13 @@ import de.metas.impexp.format.ImportTableDescriptor;
 import de.metas.impexp.parser.ImpDataLine;
 import de.metas.impexp.util.SqlAndParamsExtractor;
 import de.metas.impexp.util.SqlAndParamsExtractor.ParametersExtractor;
+import de.metas.common.util.time.SystemTime;
 import de.metas.organization.OrgId;
 import de.metas.user.UserId;
 import de.metas.util.Check;
 import de.metas.util.GuavaCollectors;
 import de.metas.util.Services;
+import de.metas.util.StringUtils;
 import lombok.Builder;
 import lombok.NonNull;
 import org.adempiere.ad.trx.api.ITrx;
@@ -23,11 +26,23 @@ import org.adempiere.service.ClientId;
 import org.adempiere.util.api.Params;
 import org.compiere.util.DB;
 import org.compiere.util.TimeUtil;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.copy.PGCopyOutputStream;
 
 import javax.annotation.Nullable;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -57,6 +72,9 @@ import java.util.stream.Stream;
 
 /**
  * Inserts {@link ImpDataLine}s into import tables.
+ * <p>
+ * If enabled (sysconfig <code>de.metas.impexp.insertUsingCopy</code>, off by default) and the underlying connection is a postgres one, each batch is streamed line by line via <code>COPY ... FROM STDIN</code> into a temporary table
+ * and then moved into the import table using one <code>INSERT ... SELECT</code>. Else the lines are inserted using JDBC batches.
  * 
  * @author metas-dev <dev@metasfresh.com>
  *
@@ -67,6 +85,7 @@ final class SqlInsertIntoImportTableCommand
 	private final ITrxManager trxManager = Services.get(ITrxManager.class);
 
 	private static final int DEFAULT_InsertBatchSize = 10000;
+	private static final int COPY_BUFFER_SIZE = 64 * 1024;
 
 	//
 	// Parameters
@@ -81,10 +100,16 @@ final class SqlInsertIntoImportTableCommand
 	private final int insertBatchSize;
 	private Stream<ImpDataLine> linesStream;
 	private final Params overrideColumnValues;
+	private boolean useCopy;
+	@Nullable
+	private final DataImportRunsService dataImportRunsService;
 
 	//
 	// State
 	private SqlAndParamsExtractor<ImpDataLine> _sqlInsertIntoImportTable; // lazy
+	private final String copyTableName;
+	private final ArrayList<String> copyColumnNames = new ArrayList<>();
+	private String sqlInsertIntoImportTableFromCopyTable; // built together with _sqlInsertIntoImportTable
 	private int countTotalRows = 0;
 	private int countValidRows = 0;
 	private final ArrayList<InsertIntoImportTableResult.Error> errors = new ArrayList<>();
@@ -99,7 +124,9 @@ final class SqlInsertIntoImportTableCommand
 			@Nullable final DataImportConfigId dataImportConfigId,
 			final int insertBatchSize,
 			@NonNull final Stream<ImpDataLine> linesStream,
-			@Nullable final Params overrideColumnValues)
+			@Nullable final Params overrideColumnValues,
+			final boolean useCopy,
+			@Nullable final DataImportRunsService dataImportRunsService)
 	{
 		this.importTableDescriptor = importFormat.getImportTableDescriptor();
 		this.importFormatName = importFormat.getName();
@@ -114,6 +141,9 @@ final class SqlInsertIntoImportTableCommand
 
 		this.linesStream = linesStream;
 		this.overrideColumnValues = overrideColumnValues;
+		this.useCopy = useCopy;
+		this.dataImportRunsService = dataImportRunsService;
+		this.copyTableName = "tmp_" + importTableDescriptor.getTableName() + "_" + dataImportRunId.getRepoId();
 	}
 
 	public InsertIntoImportTableResult execute()
@@ -145,10 +175,141 @@ final class SqlInsertIntoImportTableCommand
 			return;
 		}
 
+		final Stopwatch stopwatch = Stopwatch.createStarted();
 		trxManager.run(ITrx.TRXNAME_ThreadInherited, () -> insertIntoDatabaseInTrx(lines));
+		stopwatch.stop();
+
+		if (dataImportRunsService != null)
+		{
+			dataImportRunsService.recordRowsInsertedIntoImportTable(dataImportRunId, lines.size(), TimeUtil.toDuration(stopwatch));
+		}
 	}
 
 	private void insertIntoDatabaseInTrx(final List<ImpDataLine> lines)
+	{
+		if (useCopy)
+		{
+			final SqlAndParamsExtractor<ImpDataLine> sqlAndParamsExtractor = getInsertIntoImportTableSql();
+			final String sqlCreateTempTable = "CREATE TEMPORARY TABLE " + copyTableName + " ON COMMIT DROP AS"
+					+ " SELECT " + String.join(",", copyColumnNames) + " FROM " + importTableDescriptor.getTableName() + " WITH NO DATA";
+
+			PreparedStatement pstmt = null;
+			try
+			{
+				pstmt = DB.prepareStatement(sqlCreateTempTable, ITrx.TRXNAME_ThreadInherited);
+				final Connection connection = pstmt.getConnection();
+				if (connection.isWrapperFor(PGConnection.class))
+				{
+					pstmt.executeUpdate();
+					copyIntoDatabase(connection.unwrap(PGConnection.class).getCopyAPI(), sqlAndParamsExtractor, lines);
+					return;
+				}
+			}
+			catch (final SQLException ex)
+			{
+				throw new DBException(ex, sqlCreateTempTable);
+			}
+			finally
+			{
+				DB.close(pstmt);
+			}
+
+			// not a postgres connection => fallback to JDBC batch inserts from now on
+			useCopy = false;
+		}
+
+		insertIntoDatabaseUsingJdbcBatch(lines);
+	}
+
+	private void copyIntoDatabase(
+			@NonNull final CopyManager copyManager,
+			@NonNull final SqlAndParamsExtractor<ImpDataLine> sqlAndParamsExtractor,
+			@NonNull final List<ImpDataLine> lines) throws SQLException
+	{
+		final String sqlCopy = "COPY " + copyTableName + "(" + String.join(",", copyColumnNames) + ") FROM STDIN (FORMAT csv)";
+
+		// Stream the CSV line by line to the server, so we never hold the whole batch as CSV in memory
+		final CopyIn copyIn = copyManager.copyIn(sqlCopy);
+		try
+		{
+			final Writer writer = new BufferedWriter(new OutputStreamWriter(new PGCopyOutputStream(copyIn, COPY_BUFFER_SIZE), StandardCharsets.UTF_8));
+			final StringBuilder csvLine = new StringBuilder();
+			for (final ImpDataLine line : lines)
+			{
+				csvLine.setLength(0);
+				final List<Object> params = sqlAndParamsExtractor.extractParameters(line);
+				for (int i = 0; i < params.size(); i++)
+				{
+					if (i > 0)
+					{
+						csvLine.append(',');
+					}
+					appendCsvValue(csvLine, params.get(i));
+				}
+				csvLine.append('\n');
+				writer.append(csvLine);
+
+				updateStats(line);
+			}
+
+			writer.close(); // flushes the remaining data and ends the COPY
+		}
+		catch (final IOException ex)
+		{
+			cancelCopyIfActive(copyIn);
+			throw new DBException(ex.getLocalizedMessage() + "\n SQL: " + sqlCopy, ex);
+		}
+		catch (final RuntimeException ex)
+		{
+			cancelCopyIfActive(copyIn);
+			throw ex;
+		}
+
+		DB.executeUpdateAndThrowExceptionOnFail(sqlInsertIntoImportTableFromCopyTable, ITrx.TRXNAME_ThreadInherited);
+		DB.executeUpdateAndThrowExceptionOnFail("DROP TABLE " + copyTableName, ITrx.TRXNAME_ThreadInherited);
+	}
+
+	private static void cancelCopyIfActive(@NonNull final CopyIn copyIn) throws SQLException
+	{
+		if (copyIn.isActive())
+		{
+			copyIn.cancelCopy();
+		}
+	}
+
+	/**
+	 * Appends given value using the postgres CSV format. Unquoted empty values are read as <code>NULL</code>.
+	 */
+	@VisibleForTesting
+	static void appendCsvValue(@NonNull final StringBuilder csv, @Nullable final Object value)
+	{
+		if (value == null)
+		{
+			return;
+		}
+
+		final String valueStr;
+		if (value instanceof Boolean)
+		{
+			valueStr = StringUtils.ofBoolean((Boolean)value);
+		}
+		else if (value instanceof Timestamp)
+		{
+			valueStr = ((Timestamp)value).toInstant().atZone(SystemTime.zoneId()).toOffsetDateTime().toString();
+		}
+		else if (value instanceof BigDecimal)
+		{
+			valueStr = ((BigDecimal)value).toPlainString();
+		}
+		else
+		{
+			valueStr = value.toString();
+		}
+
+		csv.append('"').append(valueStr.replace("\"", "\"\"")).append('"');
+	}
+
+	private void insertIntoDatabaseUsingJdbcBatch(final List<ImpDataLine> lines)
 	{
 		final SqlAndParamsExtractor<ImpDataLine> sqlAndParamsExtractor = getInsertIntoImportTableSql();
 		final String sql = sqlAndParamsExtractor.getSql();
@@ -165,20 +326,7 @@ final class SqlInsertIntoImportTableCommand
 				DB.setParameters(pstmt, params);
 				pstmt.addBatch();
 
-				// Update stats:
-				countTotalRows++;
-				if (line.hasErrors())
-				{
-					errors.add(InsertIntoImportTableResult.Error.builder()
-							.message(line.getErrorMessageAsStringOrNull())
-							.lineNo(line.getFileLineNo())
-							.lineContent(line.getLineString())
-							.build());
-				}
-				else
-				{
-					countValidRows++;
-				}
+				updateStats(line);
 			}
 
 			pstmt.executeBatch();
@@ -193,6 +341,23 @@ final class SqlInsertIntoImportTableCommand
 		}
 	}
 
+	private void updateStats(final ImpDataLine line)
+	{
+		countTotalRows++;
+		if (line.hasErrors())
+		{
+			errors.add(InsertIntoImportTableResult.Error.builder()
+					.message(line.getErrorMessageAsStringOrNull())
+					.lineNo(line.getFileLineNo())
+					.lineContent(line.getLineString())
+					.build());
+		}
+		else
+		{
+			countValidRows++;
+		}
+	}
+
 	private SqlAndParamsExtractor<ImpDataLine> getInsertIntoImportTableSql()
 	{
 		SqlAndParamsExtractor<ImpDataLine> sqlInsertIntoImportTable = this._sqlInsertIntoImportTable;
@@ -213,24 +378,31 @@ final class SqlInsertIntoImportTableCommand
 
 		final StringBuilder sqlColumns = new StringBuilder();
 		final StringBuilder sqlValues = new StringBuilder();
+		final StringBuilder sqlValuesFromCopyTable = new StringBuilder();
 		final List<ParametersExtractor<ImpDataLine>> sqlParamsExtractors = new ArrayList<>();
+		copyColumnNames.clear();
 
 		sqlColumns.append(keyColumnName);
 		sqlValues.append(DB.TO_TABLESEQUENCE_NEXTVAL(tableName));
+		sqlValuesFromCopyTable.append(DB.TO_TABLESEQUENCE_NEXTVAL(tableName));
 
 		//
 		// Standard fields
 		sqlColumns.append(", AD_Client_ID");
 		sqlValues.append(", ").append(clientId.getRepoId());
+		sqlValuesFromCopyTable.append(", ").append(clientId.getRepoId());
 		//
 		sqlColumns.append(", AD_Org_ID");
 		sqlValues.append(", ").append(orgId.getRepoId());
+		sqlValuesFromCopyTable.append(", ").append(orgId.getRepoId());
 		//
 		sqlColumns.append(", Created,CreatedBy,Updated,UpdatedBy,IsActive");
 		sqlValues.append(", now(),").append(userId.getRepoId()).append(",now(),").append(userId.getRepoId()).append(",'Y'");
+		sqlValuesFromCopyTable.append(", now(),").append(userId.getRepoId()).append(",now(),").append(userId.getRepoId()).append(",'Y'");
 		//
 		sqlColumns.append(", Processed, I_IsImported");
 		sqlValues.append(", 'N', 'N'");
+		sqlValuesFromCopyTable.append(", 'N', 'N'");
 
 		//
 		// I_LineNo
@@ -238,6 +410,8 @@ final class SqlInsertIntoImportTableCommand
 		{
 			sqlColumns.append(", ").append(importTableDescriptor.getImportLineNoColumnName());
 			sqlValues.append(", ?");
+			copyColumnNames.add(importTableDescriptor.getImportLineNoColumnName());
+			sqlValuesFromCopyTable.append(", ").append(importTableDescriptor.getImportLineNoColumnName());
 			sqlParamsExtractors.add(dataLine -> ImmutableList.of(dataLine.getFileLineNo()));
 		}
 
@@ -247,6 +421,8 @@ final class SqlInsertIntoImportTableCommand
 		{
 			sqlColumns.append(", ").append(importTableDescriptor.getImportLineContentColumnName());
 			sqlValues.append(", ?");
+			copyColumnNames.add(importTableDescriptor.getImportLineContentColumnName());
+			sqlValuesFromCopyTable.append(", ").append(importTableDescriptor.getImportLineContentColumnName());
 			sqlParamsExtractors.add(dataLine -> Collections.singletonList(dataLine.getLineString()));
 		}
 
@@ -256,6 +432,7 @@ final class SqlInsertIntoImportTableCommand
 			Check.assumeNotNull(dataImportRunId, "dataImportRunId is not null");
 			sqlColumns.append(", ").append(ImportTableDescriptor.COLUMNNAME_C_DataImport_Run_ID);
 			sqlValues.append(", ").append(dataImportRunId.getRepoId());
+			sqlValuesFromCopyTable.append(", ").append(dataImportRunId.getRepoId());
 		}
 
 		//
@@ -264,6 +441,7 @@ final class SqlInsertIntoImportTableCommand
 		{
 			sqlColumns.append(", ").append(importTableDescriptor.getDataImportConfigIdColumnName());
 			sqlValues.append(", ").append(dataImportConfigId.getRepoId());
+			sqlValuesFromCopyTable.append(", ").append(dataImportConfigId.getRepoId());
 		}
 
 		//
@@ -272,6 +450,8 @@ final class SqlInsertIntoImportTableCommand
 			final int errorMaxLength = importTableDescriptor.getErrorMsgMaxLength();
 			sqlColumns.append(", ").append(ImportTableDescriptor.COLUMNNAME_I_ErrorMsg);
 			sqlValues.append(", ?");
+			copyColumnNames.add(ImportTableDescriptor.COLUMNNAME_I_ErrorMsg);
+			sqlValuesFromCopyTable.append(", ").append(ImportTableDescriptor.COLUMNNAME_I_ErrorMsg);
 			sqlParamsExtractors.add(dataLine -> Collections.singletonList(dataLine.getErrorMessageAsStringOrNull(errorMaxLength)));
 		}
 
@@ -281,6 +461,7 @@ final class SqlInsertIntoImportTableCommand
 			overrideColumnValues.getParameterNames().forEach(columnName -> {
 				sqlColumns.append(", ").append(columnName);
 				sqlValues.append(", ").append(overrideColumnValues.getParameterAsObject(columnName));
+				sqlValuesFromCopyTable.append(", ").append(overrideColumnValues.getParameterAsObject(columnName));
 			});
 		}
 
@@ -293,10 +474,15 @@ final class SqlInsertIntoImportTableCommand
 			{
 				sqlColumns.append(", ").append(column.getColumnName());
 				sqlValues.append(", ?");
+				copyColumnNames.add(column.getColumnName());
+				sqlValuesFromCopyTable.append(", ").append(column.getColumnName());
 			}
 			sqlParamsExtractors.add(dataLine -> dataLine.getJdbcValues(columnsToInsert));
 		}
 
+		sqlInsertIntoImportTableFromCopyTable = "INSERT INTO " + tableName + "(" + sqlColumns + ")"
+				+ " SELECT " + sqlValuesFromCopyTable + " FROM " + copyTableName;
+
 		return SqlAndParamsExtractor.<ImpDataLine> builder()
 				.sql("INSERT INTO " + tableName + "(" + sqlColumns + ") VALUES (" + sqlValues + ")")
 				.parametersExtractors(sqlParamsExtractors)
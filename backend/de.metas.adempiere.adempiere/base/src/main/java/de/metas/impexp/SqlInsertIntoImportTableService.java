@@ -1,6 +1,8 @@
 package de.metas.impexp;
 
+import de.metas.util.Services;
 import lombok.NonNull;
+import org.adempiere.service.ISysConfigBL;
 import org.springframework.stereotype.Service;
 
 /*
@@ -28,6 +30,15 @@ import org.springframework.stereotype.Service;
 @Service
 public class SqlInsertIntoImportTableService implements InsertIntoImportTableService
 {
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+	private final DataImportRunsService dataImportRunsService;
+
+	private static final String SYSCONFIG_UseCopy = "de.metas.impexp.insertUsingCopy";
+
+	public SqlInsertIntoImportTableService(@NonNull final DataImportRunsService dataImportRunsService)
+	{
+		this.dataImportRunsService = dataImportRunsService;
+	}
 
 	@Override
 	public InsertIntoImportTableResult insertData(@NonNull final InsertIntoImportTableRequest request)
@@ -42,6 +53,8 @@ public class SqlInsertIntoImportTableService implements InsertIntoImportTableSer
 				.insertBatchSize(request.getInsertBatchSize())
 				.linesStream(request.getStream())
 				.overrideColumnValues(request.getOverrideColumnValues())
+				.useCopy(sysConfigBL.getBooleanValue(SYSCONFIG_UseCopy, false))
+				.dataImportRunsService(dataImportRunsService)
 				.build();
 
 		return command.execute();
@@ -33,10 +33,12 @@ import org.compiere.util.DisplayType;
 import org.compiere.util.TimeUtil;
 
 import javax.annotation.Nullable;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
 import java.io.Writer;
@@ -65,17 +67,23 @@ public class CSVWriter
 	@Getter
 	private int linesWrote;
 
+	/**
+	 * @param outputFile   file to write to; either this one or {@code outputStream} must be set
+	 * @param outputStream stream to write to (e.g. a HTTP response). The stream will be closed when this writer is closed.
+	 */
 	@Builder
 	private CSVWriter(
-			@NonNull final File outputFile,
+			@Nullable final File outputFile,
+			@Nullable final OutputStream outputStream,
 			@NonNull final List<String> header,
 			@NonNull final String adLanguage,
 			@Nullable final String fieldDelimiter)
 	{
 		Check.assume(!header.isEmpty(), "header not empty");
+		Check.assume(outputFile == null != (outputStream == null), "Exactly one of outputFile and outputStream shall be set");
 
 		this.outputFile = outputFile;
-		this.writer = createWriter(outputFile);
+		this.writer = outputFile != null ? createWriter(outputFile) : createWriter(outputStream);
 
 		this.header = ImmutableList.copyOf(header);
 		this.fieldDelimiter = fieldDelimiter != null ? fieldDelimiter : DEFAULT_FieldDelimiter;
@@ -90,28 +98,38 @@ public class CSVWriter
 	{
 		try
 		{
-			final FileOutputStream out = new FileOutputStream(outputFile, false);
+			return createWriter(new FileOutputStream(outputFile, false));
+		}
+		catch (FileNotFoundException ex)
+		{
+			throw new AdempiereException("Failed writing to " + outputFile);
+		}
+	}
 
-			if(enforceUTF8BOM)
+	private static Writer createWriter(@NonNull final OutputStream out)
+	{
+		if (enforceUTF8BOM)
+		{
+			try
 			{
-				try
-				{
-					// Enforce UTF-8 bom  (see https://stackoverflow.com/questions/4389005/how-to-add-a-utf-8-bom-in-java)
-					out.write('\ufeef'); // emits 0xef
-					out.write('\ufebb'); // emits 0xbb
-					out.write('\ufebf'); // emits 0xbf
-				}
-				catch (IOException e)
-				{
-					throw new AdempiereException(" Failed to apply UTF-8 encoding" + outputFile);
-				}
+				// Enforce UTF-8 bom  (see https://stackoverflow.com/questions/4389005/how-to-add-a-utf-8-bom-in-java)
+				out.write('\ufeef'); // emits 0xef
+				out.write('\ufebb'); // emits 0xbb
+				out.write('\ufebf'); // emits 0xbf
+			}
+			catch (IOException e)
+			{
+				throw new AdempiereException("Failed to apply UTF-8 encoding", e);
 			}
+		}
 
-			return new OutputStreamWriter(out, encoding);
+		try
+		{
+			return new BufferedWriter(new OutputStreamWriter(out, encoding));
 		}
-		catch (FileNotFoundException | UnsupportedEncodingException ex)
+		catch (UnsupportedEncodingException ex)
 		{
-			throw new AdempiereException("Failed writing to " + outputFile);
+			throw new AdempiereException("Failed creating writer for encoding " + encoding, ex);
 		}
 	}
 
@@ -226,7 +244,7 @@ public class CSVWriter
 		}
 		catch (IOException ex)
 		{
-			throw new AdempiereException("Failed flushing CSV data to file", ex);
+			throw new AdempiereException("Failed flushing CSV data", ex);
 		}
 		finally
 		{
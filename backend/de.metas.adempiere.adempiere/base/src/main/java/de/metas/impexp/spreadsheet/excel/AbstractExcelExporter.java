@@ -51,6 +51,7 @@ import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.compiere.Adempiere;
 import org.compiere.util.DisplayType;
 import org.compiere.util.Env;
@@ -581,13 +582,44 @@ public abstract class AbstractExcelExporter
 	 */
 	public final void export(@NonNull final OutputStream out) throws IOException
 	{
-		Workbook workbook = exportToWorkbook();
-		workbook.write(out);
+		final Workbook workbook = exportToWorkbook();
+		try
+		{
+			workbook.write(out);
+		}
+		finally
+		{
+			// streaming workbooks keep the flushed rows in temporary files until disposed
+			if (workbook instanceof SXSSFWorkbook)
+			{
+				((SXSSFWorkbook)workbook).dispose();
+			}
+		}
 		out.close();
 	}
 
 	@VisibleForTesting
 	final Workbook exportToWorkbook()
+	{
+		try
+		{
+			return exportToWorkbook0();
+		}
+		finally
+		{
+			onExportFinished();
+		}
+	}
+
+	/**
+	 * Called after all rows were exported to the workbook, also if the export failed.
+	 * Implementations which are iterating rows from an open source (e.g. a database cursor) shall release it here.
+	 */
+	protected void onExportFinished()
+	{
+	}
+
+	private Workbook exportToWorkbook0()
 	{
 		markAsExecuted();
 
@@ -33,7 +33,7 @@ import javax.annotation.Nullable;
 import static de.metas.common.util.CoalesceUtil.coalesce;
 
 @Value
-@Builder
+@Builder(toBuilder = true)
 public class ExcelExportConstants
 {
 	public static ExcelExportConstants givenOrDefault(@Nullable final ExcelExportConstants constants)
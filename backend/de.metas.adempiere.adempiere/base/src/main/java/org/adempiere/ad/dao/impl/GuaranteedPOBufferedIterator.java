@@ -136,6 +136,7 @@ import lombok.NonNull;
 				PlainContextAware.newWithTrxName(query.getCtx(), query.getTrxName()),
 				clazzToUse,
 				querySelectionUUID);
+		querySelection.setOption(IQuery.OPTION_LoadOnlyColumnNames, query.getOption(IQuery.OPTION_LoadOnlyColumnNames));
 
 		//
 		// Create the buffered iterator which will retrieve from selection, page by page
@@ -156,6 +156,34 @@ import java.util.Set;
 		execute(PointcutType.DocValidate, model, timing.toInt());
 	}
 
+	@Override
+	public boolean isModelChangeApplicable(final String tableName, final ModelChangeType changeType)
+	{
+		return hasPointcuts(PointcutType.ModelChange, tableName, changeType.toInt());
+	}
+
+	@Override
+	public boolean isDocValidateApplicable(final String tableName, final DocTimingType timing)
+	{
+		return hasPointcuts(PointcutType.DocValidate, tableName, timing.toInt());
+	}
+
+	@Override
+	public boolean isBatchInsertCompatible(final String tableName, final ModelChangeType changeType)
+	{
+		return descriptor.getPointcuts(PointcutKey.of(tableName, PointcutType.ModelChange))
+				.stream()
+				.filter(pointcut -> pointcut.getTimings().contains(changeType.toInt()))
+				.allMatch(Pointcut::isBatchInsertCompatible);
+	}
+
+	private boolean hasPointcuts(final PointcutType type, final String tableName, final int timing)
+	{
+		return descriptor.getPointcuts(PointcutKey.of(tableName, type))
+				.stream()
+				.anyMatch(pointcut -> pointcut.getTimings().contains(timing));
+	}
+
 	private void execute(final PointcutType type, final Object po, final int timing)
 	{
 		final String tableName = InterfaceWrapperHelper.getModelTableName(po);
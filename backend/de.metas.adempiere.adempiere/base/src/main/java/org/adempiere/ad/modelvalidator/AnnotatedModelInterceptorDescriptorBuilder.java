@@ -256,6 +256,7 @@ final class AnnotatedModelInterceptorDescriptorBuilder
 				.ignoreColumnNames(annModelChange.ignoreColumnsChanged())
 				.onlyIfUIAction(annModelChange.ifUIAction())
 				.skipIfCopying(annModelChange.skipIfCopying())
+				.batchInsertCompatible(annModelChange.batchInsertCompatible())
 				.build());
 	}
 
@@ -96,6 +96,46 @@ public class CompositeModelInterceptor implements IModelInterceptor, IUserLoginL
 		}
 	}
 
+	@Override
+	public boolean isModelChangeApplicable(final String tableName, final ModelChangeType changeType)
+	{
+		for (final IModelInterceptor interceptor : interceptors)
+		{
+			if (interceptor.isModelChangeApplicable(tableName, changeType))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean isBatchInsertCompatible(final String tableName, final ModelChangeType changeType)
+	{
+		for (final IModelInterceptor interceptor : interceptors)
+		{
+			if (interceptor.isModelChangeApplicable(tableName, changeType)
+					&& !interceptor.isBatchInsertCompatible(tableName, changeType))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public boolean isDocValidateApplicable(final String tableName, final DocTimingType timing)
+	{
+		for (final IModelInterceptor interceptor : interceptors)
+		{
+			if (interceptor.isDocValidateApplicable(tableName, timing))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
 	@Override
 	public void onUserLogin(final int AD_Org_ID, final int AD_Role_ID, final int AD_User_ID)
 	{
@@ -85,4 +85,37 @@ public interface IModelInterceptor
 		// does nothing by default
 	}
 
+	/**
+	 * Tells the model validation engine if this interceptor has anything to do when the given model change occurs on the given table.
+	 * The engine is skipping the interceptor when this method returns false, so please return true if not sure.
+	 *
+	 * @return true by default
+	 */
+	default boolean isModelChangeApplicable(String tableName, ModelChangeType changeType)
+	{
+		return true;
+	}
+
+	/**
+	 * Tells if this interceptor can cope with new records of the given table being saved in a batch (see {@link org.compiere.model.POBatchInsert}),
+	 * i.e. with its before-new code being called for all records of the batch before any of them is inserted.
+	 * Please return false if not sure.
+	 *
+	 * @return false by default
+	 */
+	default boolean isBatchInsertCompatible(String tableName, ModelChangeType changeType)
+	{
+		return false;
+	}
+
+	/**
+	 * Same as {@link #isModelChangeApplicable(String, ModelChangeType)} but for document validation timings.
+	 *
+	 * @return true by default
+	 */
+	default boolean isDocValidateApplicable(String tableName, DocTimingType timing)
+	{
+		return true;
+	}
+
 }
@@ -109,6 +109,30 @@ public final class ModelInterceptor2ModelValidatorWrapper implements ModelValida
 		return null;
 	}
 
+	/**
+	 * @see IModelInterceptor#isModelChangeApplicable(String, ModelChangeType)
+	 */
+	public final boolean isModelChangeApplicable(final String tableName, final ModelChangeType changeType)
+	{
+		return interceptor.isModelChangeApplicable(tableName, changeType);
+	}
+
+	/**
+	 * @see IModelInterceptor#isBatchInsertCompatible(String, ModelChangeType)
+	 */
+	public final boolean isBatchInsertCompatible(final String tableName, final ModelChangeType changeType)
+	{
+		return interceptor.isBatchInsertCompatible(tableName, changeType);
+	}
+
+	/**
+	 * @see IModelInterceptor#isDocValidateApplicable(String, DocTimingType)
+	 */
+	public final boolean isDocValidateApplicable(final String tableName, final DocTimingType timing)
+	{
+		return interceptor.isDocValidateApplicable(tableName, timing);
+	}
+
 	@Override
 	public final String login(final int AD_Org_ID, final int AD_Role_ID, final int AD_User_ID)
 	{
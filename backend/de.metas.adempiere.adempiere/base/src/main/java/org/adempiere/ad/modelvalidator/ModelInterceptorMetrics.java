@@ -0,0 +1,117 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package org.adempiere.ad.modelvalidator;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.NonNull;
+import lombok.Value;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how often each model interceptor is invoked and how much time it takes, so that slow interceptors can be spotted in production.
+ * <p>
+ * The statistics are always collected (it's just a few counters) and are published to micrometer when a registry was bound (see {@link ModelInterceptorMetricsMeterBinder}).
+ */
+public final class ModelInterceptorMetrics
+{
+	public static final ModelInterceptorMetrics instance = new ModelInterceptorMetrics();
+
+	private static final String METER_PREFIX = "mf.modelInterceptor.";
+
+	private final ConcurrentHashMap<StatsKey, InvocationStats> statsByKey = new ConcurrentHashMap<>();
+	private final AtomicReference<MeterRegistry> meterRegistryRef = new AtomicReference<>();
+
+	private ModelInterceptorMetrics()
+	{
+	}
+
+	/**
+	 * @param interceptorName usually the interceptor's {@code toString()}
+	 */
+	public InvocationStats getInvocationStats(@NonNull final String interceptorName, @NonNull final TimingType timing)
+	{
+		final String eventType = timing instanceof DocTimingType ? "docValidate" : "modelChange";
+		return statsByKey.computeIfAbsent(new StatsKey(interceptorName, eventType), statsKey -> {
+			final InvocationStats stats = new InvocationStats();
+			final MeterRegistry meterRegistry = meterRegistryRef.get();
+			if (meterRegistry != null)
+			{
+				bind(meterRegistry, statsKey, stats);
+			}
+			return stats;
+		});
+	}
+
+	public void bindTo(@NonNull final MeterRegistry meterRegistry)
+	{
+		meterRegistryRef.set(meterRegistry);
+		statsByKey.forEach((statsKey, stats) -> bind(meterRegistry, statsKey, stats));
+	}
+
+	private static void bind(@NonNull final MeterRegistry meterRegistry, @NonNull final StatsKey statsKey, @NonNull final InvocationStats stats)
+	{
+		FunctionTimer.builder(METER_PREFIX + "invocations", stats, InvocationStats::getCount, InvocationStats::getTotalNanos, TimeUnit.NANOSECONDS)
+				.description("Invocations of a model interceptor and the time spent in it")
+				.tags(Tags.of("interceptor", statsKey.getInterceptorName(), "eventType", statsKey.getEventType()))
+				.register(meterRegistry);
+	}
+
+	@Value
+	private static class StatsKey
+	{
+		@NonNull String interceptorName;
+		@NonNull String eventType;
+	}
+
+	public static final class InvocationStats
+	{
+		private final LongAdder count = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+
+		private InvocationStats()
+		{
+		}
+
+		public void record(final long durationNanos)
+		{
+			count.increment();
+			totalNanos.add(durationNanos);
+		}
+
+		public long getCount()
+		{
+			return count.sum();
+		}
+
+		public long getTotalNanos()
+		{
+			return totalNanos.sum();
+		}
+	}
+}
@@ -52,6 +52,7 @@ import java.lang.reflect.Method;
 
 	private final boolean onlyIfUIAction;
 	private final boolean skipIfCopying;
+	private final boolean batchInsertCompatible;
 
 	@Builder
 	private Pointcut(
@@ -61,6 +62,7 @@ import java.lang.reflect.Method;
 			final boolean afterCommit,
 			final boolean onlyIfUIAction,
 			final boolean skipIfCopying,
+			final boolean batchInsertCompatible,
 			//
 			final Class<?> modelClass,
 			final String[] columnNamesToCheckForChanges,
@@ -91,6 +93,7 @@ import java.lang.reflect.Method;
 		this.afterCommit = afterCommit;
 		this.onlyIfUIAction = onlyIfUIAction;
 		this.skipIfCopying = skipIfCopying;
+		this.batchInsertCompatible = batchInsertCompatible;
 
 		this.modelClass = extractModelClass(method, modelClass);
 		this.tableName = extractModelTableName(this.modelClass);
@@ -99,4 +99,13 @@ public @interface ModelChange
 	 * Skip calling this interceptor if we are copying (with details)
 	 */
 	boolean skipIfCopying() default false;
+
+	/**
+	 * Set it to <code>true</code> if the method can cope with new records being saved in a batch (see {@link org.compiere.model.POBatchInsert}),
+	 * i.e. if a before-new method does not rely on the previous records of the same batch being already in the database
+	 * and if it's OK that a failing record rolls back the whole batch.
+	 * <p>
+	 * Unless all before/after-new methods of a table are batch-insert compatible, the records of this table are saved one by one.
+	 */
+	boolean batchInsertCompatible() default false;
 }
@@ -0,0 +1,121 @@
+package org.adempiere.ad.persistence;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.lang.reflect.Method;
+
+import org.adempiere.ad.persistence.GeneratedModelClassInfo.ResolvedColumns;
+import org.adempiere.exceptions.AdempiereException;
+
+import lombok.NonNull;
+
+/**
+ * Base class of all model classes generated by {@link GeneratedModelClassFactory}.
+ * <p>
+ * Each generated model method is calling {@link #invokeSlot(int, Object[])} with the index of the method in {@link GeneratedModelClassInfo},
+ * so there is no reflection and no method lookup involved.
+ * Column value getters are invoked directly by the column index which was resolved upfront.
+ *
+ * @author metas-dev <dev@metasfresh.com>
+ */
+public abstract class AbstractGeneratedModel
+{
+	private final IGeneratedModelDelegate delegate;
+	private final IModelInternalAccessor accessor;
+	private final GeneratedModelClassInfo classInfo;
+	private final ResolvedColumns columns;
+
+	protected AbstractGeneratedModel(
+			@NonNull final IGeneratedModelDelegate delegate,
+			@NonNull final GeneratedModelClassInfo classInfo)
+	{
+		this.delegate = delegate;
+		this.accessor = delegate.getModelInternalAccessor();
+		this.classInfo = classInfo;
+		this.columns = classInfo.getResolvedColumns(delegate.getColumnsLayoutKey(), accessor);
+	}
+
+	/**
+	 * NOTE: the name was chosen to not collide with any model interface getter.
+	 */
+	public final IGeneratedModelDelegate get_GeneratedModelDelegate()
+	{
+		return delegate;
+	}
+
+	protected final Object invokeSlot(final int slot, final Object[] methodArgs)
+	{
+		try
+		{
+			final IColumnValueGetterMethodInfo columnValueGetter = classInfo.getColumnValueGetterOrNull(slot);
+			if (columnValueGetter != null)
+			{
+				return columnValueGetter.invoke(accessor, columns.getColumnName(slot), columns.getColumnIndex(slot));
+			}
+
+			return classInfo.getMethodInfo(slot).invoke(accessor, methodArgs);
+		}
+		catch (final RuntimeException ex)
+		{
+			throw ex;
+		}
+		catch (final Exception ex)
+		{
+			throw AdempiereException.wrapIfNeeded(ex);
+		}
+	}
+
+	@Override
+	public boolean equals(final Object obj)
+	{
+		return accessor.invokeEquals(new Object[] { obj });
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return (Integer)invokeObjectMethod(GeneratedModelClassInfo.METHOD_hashCode);
+	}
+
+	@Override
+	public String toString()
+	{
+		return (String)invokeObjectMethod(GeneratedModelClassInfo.METHOD_toString);
+	}
+
+	private Object invokeObjectMethod(final Method method)
+	{
+		try
+		{
+			return accessor.invokeParent(method, null);
+		}
+		catch (final RuntimeException ex)
+		{
+			throw ex;
+		}
+		catch (final Exception ex)
+		{
+			throw AdempiereException.wrapIfNeeded(ex);
+		}
+	}
+}
@@ -23,6 +23,11 @@ package org.adempiere.ad.persistence;
  */
 
 import java.lang.reflect.Method;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableList;
 
 /**
  * Boolean getter handler
@@ -32,47 +37,49 @@ import java.lang.reflect.Method;
  * @author tsa
  *
  */
-/* package */class BooleanGetterMethodInfo extends AbstractModelMethodInfo
+/* package */class BooleanGetterMethodInfo extends AbstractModelMethodInfo implements IColumnValueGetterMethodInfo
 {
 
-	private final String propertyName;
+	private final ImmutableList<String> columnNameCandidates;
 	private final Class<?> returnType;
 
 	public BooleanGetterMethodInfo(final Method interfaceMethod, final String propertyName)
 	{
 		super(interfaceMethod);
-		this.propertyName = propertyName;
+		this.columnNameCandidates = ImmutableList.of(propertyName, "Is" + propertyName, "is" + propertyName);
 		this.returnType = interfaceMethod.getReturnType();
 	}
 
 	@Override
 	public Object invoke(final IModelInternalAccessor model, final Object[] methodArgs_IGNORED) throws Exception
 	{
-		// TODO: optimization: cache matched PropertyName and ColumnIndex
-
-		String propertyNameToUse = propertyName;
-		int ii = model.getColumnIndex(propertyNameToUse);
-		if (ii >= 0)
+		for (final String columnName : columnNameCandidates)
 		{
-			return model.getValue(propertyNameToUse, ii, returnType);
+			final int columnIndex = model.getColumnIndex(columnName);
+			if (columnIndex >= 0)
+			{
+				return invoke(model, columnName, columnIndex);
+			}
 		}
 
-		propertyNameToUse = "Is" + propertyName;
-		ii = model.getColumnIndex(propertyNameToUse);
-		if (ii >= 0)
-		{
-			return model.getValue(propertyNameToUse, ii, returnType);
-		}
+		return invoke(model, null, -1);
+	}
 
-		propertyNameToUse = "is" + propertyName;
-		ii = model.getColumnIndex(propertyNameToUse);
-		if (ii >= 0)
+	@Override
+	public List<String> getColumnNameCandidates()
+	{
+		return columnNameCandidates;
+	}
+
+	@Override
+	public Object invoke(final IModelInternalAccessor model, @Nullable final String columnName, final int columnIndex)
+	{
+		if (columnIndex < 0)
 		{
-			return model.getValue(propertyNameToUse, ii, returnType);
+			throw new IllegalArgumentException("Method " + getInterfaceMethod() + " is not supported on model " + model);
 		}
 
-		//
-		throw new IllegalArgumentException("Method " + getInterfaceMethod() + " is not supported on model " + model);
+		return model.getValue(columnName, columnIndex, returnType);
 	}
 
 }
@@ -0,0 +1,275 @@
+package org.adempiere.ad.persistence;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.slf4j.Logger;
+
+import de.metas.logging.LogManager;
+import javassist.ClassClassPath;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtConstructor;
+import javassist.CtMethod;
+import javassist.CtNewConstructor;
+import javassist.LoaderClassPath;
+import javassist.NotFoundException;
+import lombok.NonNull;
+
+/**
+ * Generates (at runtime, using javassist) concrete implementations of model interfaces.
+ * <p>
+ * Compared to a {@link java.lang.reflect.Proxy} based wrapper, the generated classes are not using reflection nor looking up the invoked method,
+ * and are reading the column values by column indexes which were resolved upfront (see {@link AbstractGeneratedModel}).
+ * <p>
+ * The {@link org.adempiere.model.POWrapper} is using the generated classes only if the JVM was started with <code>-D{@value #SYSTEM_PROPERTY_Enabled}=true</code>.
+ *
+ * @author metas-dev <dev@metasfresh.com>
+ */
+public final class GeneratedModelClassFactory
+{
+	public static final GeneratedModelClassFactory instance = new GeneratedModelClassFactory();
+
+	public static final String SYSTEM_PROPERTY_Enabled = "org.adempiere.ad.persistence.GeneratedModelClassFactory.Enabled";
+
+	private static final Logger logger = LogManager.getLogger(GeneratedModelClassFactory.class);
+
+	private static final String GENERATED_CLASSNAME_SUFFIX = "$$GeneratedModel";
+
+	private final boolean enabled = Boolean.getBoolean(SYSTEM_PROPERTY_Enabled);
+	private final Map<Class<?>, Optional<GeneratedModelClass>> generatedClasses = new ConcurrentHashMap<>();
+
+	private GeneratedModelClassFactory()
+	{
+	}
+
+	/**
+	 * @return true if the generated classes shall be used instead of {@link java.lang.reflect.Proxy} based wrappers
+	 */
+	public boolean isEnabled()
+	{
+		return enabled;
+	}
+
+	/**
+	 * @return new model instance or <code>null</code> if no class could be generated for the given <code>modelClass</code>, in which case the caller shall fall back to a proxy.
+	 */
+	@Nullable
+	public <T> T newInstanceOrNull(@NonNull final Class<T> modelClass, @NonNull final IGeneratedModelDelegate delegate)
+	{
+		final GeneratedModelClass generatedClass = generatedClasses
+				.computeIfAbsent(modelClass, this::generateClass)
+				.orElse(null);
+		if (generatedClass == null)
+		{
+			return null;
+		}
+
+		return modelClass.cast(generatedClass.newInstance(delegate));
+	}
+
+	@Nullable
+	public static IGeneratedModelDelegate getDelegateOrNull(@Nullable final Object model)
+	{
+		if (model instanceof AbstractGeneratedModel)
+		{
+			return ((AbstractGeneratedModel)model).get_GeneratedModelDelegate();
+		}
+
+		return null;
+	}
+
+	private Optional<GeneratedModelClass> generateClass(@NonNull final Class<?> modelClass)
+	{
+		if (!modelClass.isInterface())
+		{
+			return Optional.empty();
+		}
+
+		try
+		{
+			final List<Method> methods = getMethodsToImplement(modelClass);
+			final GeneratedModelClassInfo classInfo = new GeneratedModelClassInfo(modelClass, methods, ModelClassIntrospector.getInstance());
+
+			final Class<?> clazz = generateClass(classInfo);
+			final Constructor<?> constructor = clazz.getConstructor(IGeneratedModelDelegate.class, GeneratedModelClassInfo.class);
+
+			logger.debug("Generated {} for {}", clazz, modelClass);
+			return Optional.of(new GeneratedModelClass(classInfo, constructor));
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed generating model class for {}. Falling back to proxies.", modelClass, ex);
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * @return the interface methods, deduplicated by signature. Methods which are already implemented by {@link AbstractGeneratedModel} (equals, hashCode, toString) are excluded.
+	 */
+	private static List<Method> getMethodsToImplement(@NonNull final Class<?> modelClass)
+	{
+		final Map<String, Method> methodsBySignature = new LinkedHashMap<>();
+		for (final Method method : modelClass.getMethods())
+		{
+			if (Modifier.isStatic(method.getModifiers()) || isObjectMethod(method))
+			{
+				continue;
+			}
+
+			final String signature = method.getName() + Arrays.toString(method.getParameterTypes());
+			final Method existingMethod = methodsBySignature.putIfAbsent(signature, method);
+			if (existingMethod != null && !existingMethod.getReturnType().equals(method.getReturnType()))
+			{
+				// we would need bridge methods to support this case
+				throw new AdempiereException("Methods with same signature but different return types are not supported: " + existingMethod + ", " + method);
+			}
+		}
+
+		return new ArrayList<>(methodsBySignature.values());
+	}
+
+	private static boolean isObjectMethod(@NonNull final Method method)
+	{
+		try
+		{
+			Object.class.getMethod(method.getName(), method.getParameterTypes());
+			return true;
+		}
+		catch (final NoSuchMethodException ex)
+		{
+			return false;
+		}
+	}
+
+	private static Class<?> generateClass(@NonNull final GeneratedModelClassInfo classInfo) throws Exception
+	{
+		final Class<?> modelClass = classInfo.getModelClass();
+
+		final ClassPool pool = new ClassPool(true);
+		pool.appendClassPath(new ClassClassPath(AbstractGeneratedModel.class));
+		pool.appendClassPath(new LoaderClassPath(modelClass.getClassLoader()));
+
+		// NOTE: generate the class in the model interface's package, so we can also implement non-public interfaces
+		final CtClass ctClass = pool.makeClass(modelClass.getName() + GENERATED_CLASSNAME_SUFFIX);
+		try
+		{
+			ctClass.setSuperclass(pool.get(AbstractGeneratedModel.class.getName()));
+			ctClass.addInterface(pool.get(modelClass.getName()));
+
+			final CtConstructor ctConstructor = CtNewConstructor.make(
+					toCtClasses(pool, IGeneratedModelDelegate.class, GeneratedModelClassInfo.class),
+					new CtClass[] {},
+					"{ super($1, $2); }",
+					ctClass);
+			ctClass.addConstructor(ctConstructor);
+
+			final List<Method> methods = classInfo.getMethods();
+			for (int slot = 0, slotsCount = methods.size(); slot < slotsCount; slot++)
+			{
+				final Method method = methods.get(slot);
+
+				final CtMethod ctMethod = new CtMethod(
+						toCtClass(pool, method.getReturnType()),
+						method.getName(),
+						toCtClasses(pool, method.getParameterTypes()),
+						ctClass);
+				ctMethod.setModifiers(javassist.Modifier.PUBLIC);
+
+				// NOTE: same as the proxies, pass null instead of an empty arguments array
+				final String methodArgs = method.getParameterCount() > 0 ? "$args" : "null";
+				if (method.getReturnType() == void.class)
+				{
+					ctMethod.setBody("{ invokeSlot(" + slot + ", " + methodArgs + "); }");
+				}
+				else
+				{
+					ctMethod.setBody("{ return ($r)invokeSlot(" + slot + ", " + methodArgs + "); }");
+				}
+
+				ctClass.addMethod(ctMethod);
+			}
+
+			return ctClass.toClass(modelClass);
+		}
+		finally
+		{
+			ctClass.detach();
+		}
+	}
+
+	private static CtClass[] toCtClasses(final ClassPool pool, final Class<?>... types) throws NotFoundException
+	{
+		final CtClass[] ctClasses = new CtClass[types.length];
+		for (int i = 0; i < types.length; i++)
+		{
+			ctClasses[i] = toCtClass(pool, types[i]);
+		}
+		return ctClasses;
+	}
+
+	private static CtClass toCtClass(final ClassPool pool, final Class<?> type) throws NotFoundException
+	{
+		// NOTE: getTypeName() is returning "int", "java.lang.String[]" etc, which is what javassist expects
+		return pool.get(type.getTypeName());
+	}
+
+	private static final class GeneratedModelClass
+	{
+		private final GeneratedModelClassInfo classInfo;
+		private final Constructor<?> constructor;
+
+		private GeneratedModelClass(@NonNull final GeneratedModelClassInfo classInfo, @NonNull final Constructor<?> constructor)
+		{
+			this.classInfo = classInfo;
+			this.constructor = constructor;
+		}
+
+		public Object newInstance(@NonNull final IGeneratedModelDelegate delegate)
+		{
+			try
+			{
+				return constructor.newInstance(delegate, classInfo);
+			}
+			catch (final Exception ex)
+			{
+				throw AdempiereException.wrapIfNeeded(ex)
+						.appendParametersToMessage()
+						.setParameter("modelClass", classInfo.getModelClass());
+			}
+		}
+	}
+}
@@ -0,0 +1,194 @@
+package org.adempiere.ad.persistence;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableList;
+
+import lombok.NonNull;
+
+/**
+ * Meta data shared by all instances of a class generated by {@link GeneratedModelClassFactory}.
+ * <p>
+ * Each model interface method gets a "slot" (i.e. its index in {@link #getMethods()}), which is hardcoded in the generated method's body.
+ *
+ * @author metas-dev <dev@metasfresh.com>
+ */
+public final class GeneratedModelClassInfo
+{
+	static final Method METHOD_hashCode = getObjectMethod("hashCode");
+	static final Method METHOD_toString = getObjectMethod("toString");
+
+	private final Class<?> modelClass;
+	private final ImmutableList<Method> methods;
+	private final IModelMethodInfo[] methodInfos;
+	/** for each slot, the column value getter or <code>null</code> */
+	private final IColumnValueGetterMethodInfo[] columnValueGetters;
+
+	/**
+	 * Columns resolved for the most recently seen columns layout.
+	 * Usually all model instances of a given class have the same layout (i.e. the same POInfo), so a one element cache is enough.
+	 */
+	private volatile ResolvedColumns lastResolvedColumns;
+
+	GeneratedModelClassInfo(
+			@NonNull final Class<?> modelClass,
+			@NonNull final List<Method> methods,
+			@NonNull final IModelClassIntrospector introspector)
+	{
+		this.modelClass = modelClass;
+		this.methods = ImmutableList.copyOf(methods);
+
+		final IModelClassInfo modelClassInfo = introspector.getModelClassInfo(modelClass);
+		final int slotsCount = this.methods.size();
+		this.methodInfos = new IModelMethodInfo[slotsCount];
+		this.columnValueGetters = new IColumnValueGetterMethodInfo[slotsCount];
+		for (int slot = 0; slot < slotsCount; slot++)
+		{
+			final IModelMethodInfo methodInfo = modelClassInfo.getMethodInfo(this.methods.get(slot));
+			methodInfos[slot] = methodInfo;
+			columnValueGetters[slot] = methodInfo instanceof IColumnValueGetterMethodInfo ? (IColumnValueGetterMethodInfo)methodInfo : null;
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return "GeneratedModelClassInfo[" + modelClass + "]";
+	}
+
+	public Class<?> getModelClass()
+	{
+		return modelClass;
+	}
+
+	ImmutableList<Method> getMethods()
+	{
+		return methods;
+	}
+
+	IModelMethodInfo getMethodInfo(final int slot)
+	{
+		return methodInfos[slot];
+	}
+
+	@Nullable
+	IColumnValueGetterMethodInfo getColumnValueGetterOrNull(final int slot)
+	{
+		return columnValueGetters[slot];
+	}
+
+	ResolvedColumns getResolvedColumns(@Nullable final Object columnsLayoutKey, @NonNull final IModelInternalAccessor accessor)
+	{
+		if (columnsLayoutKey == null)
+		{
+			return resolveColumns(null, accessor);
+		}
+
+		ResolvedColumns resolvedColumns = lastResolvedColumns;
+		if (resolvedColumns == null || resolvedColumns.getColumnsLayoutKey() != columnsLayoutKey)
+		{
+			resolvedColumns = resolveColumns(columnsLayoutKey, accessor);
+			lastResolvedColumns = resolvedColumns;
+		}
+		return resolvedColumns;
+	}
+
+	private ResolvedColumns resolveColumns(@Nullable final Object columnsLayoutKey, @NonNull final IModelInternalAccessor accessor)
+	{
+		final int slotsCount = columnValueGetters.length;
+		final String[] columnNames = new String[slotsCount];
+		final int[] columnIndexes = new int[slotsCount];
+		for (int slot = 0; slot < slotsCount; slot++)
+		{
+			columnIndexes[slot] = -1;
+
+			final IColumnValueGetterMethodInfo columnValueGetter = columnValueGetters[slot];
+			if (columnValueGetter == null)
+			{
+				continue;
+			}
+
+			for (final String columnName : columnValueGetter.getColumnNameCandidates())
+			{
+				final int columnIndex = accessor.getColumnIndex(columnName);
+				if (columnIndex >= 0)
+				{
+					columnNames[slot] = columnName;
+					columnIndexes[slot] = columnIndex;
+					break;
+				}
+			}
+		}
+
+		return new ResolvedColumns(columnsLayoutKey, columnNames, columnIndexes);
+	}
+
+	private static Method getObjectMethod(final String methodName)
+	{
+		try
+		{
+			return Object.class.getMethod(methodName);
+		}
+		catch (final NoSuchMethodException ex)
+		{
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/**
+	 * Column name and column index of each slot, for a given columns layout.
+	 */
+	static final class ResolvedColumns
+	{
+		private final Object columnsLayoutKey;
+		private final String[] columnNames;
+		private final int[] columnIndexes;
+
+		private ResolvedColumns(@Nullable final Object columnsLayoutKey, final String[] columnNames, final int[] columnIndexes)
+		{
+			this.columnsLayoutKey = columnsLayoutKey;
+			this.columnNames = columnNames;
+			this.columnIndexes = columnIndexes;
+		}
+
+		Object getColumnsLayoutKey()
+		{
+			return columnsLayoutKey;
+		}
+
+		String getColumnName(final int slot)
+		{
+			return columnNames[slot];
+		}
+
+		int getColumnIndex(final int slot)
+		{
+			return columnIndexes[slot];
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package org.adempiere.ad.persistence;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link IModelMethodInfo} which is reading the value of one column.
+ * <p>
+ * The column can be resolved upfront (see {@link #getColumnNameCandidates()}), so the getter can be invoked directly by column index.
+ *
+ * @author metas-dev <dev@metasfresh.com>
+ */
+public interface IColumnValueGetterMethodInfo extends IModelMethodInfo
+{
+	/**
+	 * @return the column names which could back this getter; the first one which exists in the underlying model shall be used.
+	 */
+	List<String> getColumnNameCandidates();
+
+	/**
+	 * Same as {@link #invoke(IModelInternalAccessor, Object[])}, but using an already resolved column.
+	 *
+	 * @param columnName  resolved column name or <code>null</code> if none of the {@link #getColumnNameCandidates()} exists
+	 * @param columnIndex resolved column index or <code>-1</code> if none of the {@link #getColumnNameCandidates()} exists
+	 */
+	Object invoke(IModelInternalAccessor model, @Nullable String columnName, int columnIndex);
+}
@@ -0,0 +1,39 @@
+package org.adempiere.ad.persistence;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * The record behind a model instance which was created by {@link GeneratedModelClassFactory} (e.g. the {@link org.adempiere.model.POWrapper}).
+ *
+ * @author metas-dev <dev@metasfresh.com>
+ */
+public interface IGeneratedModelDelegate
+{
+	IModelInternalAccessor getModelInternalAccessor();
+
+	/**
+	 * @return object which identifies the columns layout of the underlying record (e.g. its POInfo).
+	 *         The column indexes are resolved once per layout and then reused by all model instances which have the same layout.
+	 */
+	Object getColumnsLayoutKey();
+}
@@ -25,9 +25,14 @@ package org.adempiere.ad.persistence;
 
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
+import java.util.List;
+
+import javax.annotation.Nullable;
 
 import org.compiere.model.PO;
 
+import com.google.common.collect.ImmutableList;
+
 /**
  * Value getter handler.
  * 
@@ -36,11 +41,12 @@ import org.compiere.model.PO;
  * @author tsa
  *
  */
-/* package */class ValueGetterMethodInfo extends AbstractModelMethodInfo
+/* package */class ValueGetterMethodInfo extends AbstractModelMethodInfo implements IColumnValueGetterMethodInfo
 {
 	private static final Object DEFAULTVALUE_NotSupported = new Object();
 
 	private final String propertyName;
+	private final ImmutableList<String> columnNameCandidates;
 	private final Class<?> returnType;
 	private final Object defaultValue;
 
@@ -48,6 +54,7 @@ import org.compiere.model.PO;
 	{
 		super(interfaceMethod);
 		this.propertyName = propertyName;
+		this.columnNameCandidates = ImmutableList.of(propertyName);
 		this.returnType = interfaceMethod.getReturnType();
 
 		//
@@ -74,11 +81,23 @@ import org.compiere.model.PO;
 	@Override
 	public Object invoke(final IModelInternalAccessor model, final Object[] methodArgs) throws Exception
 	{
-		Object value = null;
 		final int idx = model.getColumnIndex(propertyName);
-		if (idx >= 0)
+		return invoke(model, propertyName, idx);
+	}
+
+	@Override
+	public List<String> getColumnNameCandidates()
+	{
+		return columnNameCandidates;
+	}
+
+	@Override
+	public Object invoke(final IModelInternalAccessor model, @Nullable final String columnName, final int columnIndex)
+	{
+		Object value = null;
+		if (columnIndex >= 0)
 		{
-			value = model.getValue(propertyName, idx, returnType);
+			value = model.getValue(columnName, columnIndex, returnType);
 		}
 
 		if (value != null)
@@ -66,6 +66,7 @@ import org.compiere.Adempiere;
 import org.compiere.model.GridField;
 import org.compiere.model.GridTab;
 import org.compiere.model.PO;
+import org.compiere.model.POBatchInsert;
 import org.compiere.model.POInfo;
 import org.compiere.util.Env;
 import org.compiere.util.Evaluatee;
@@ -555,6 +556,10 @@ public class InterfaceWrapperHelper
 		}
 	}
 
+	/**
+	 * Saves the given models in the given order.
+	 * New {@link PO}s of the same table are inserted using JDBC batches where possible; see {@link POBatchInsert}.
+	 */
 	public static void saveAll(@NonNull final Collection<?> models)
 	{
 		if (models.isEmpty())
@@ -562,7 +567,7 @@ public class InterfaceWrapperHelper
 			return;
 		}
 
-		models.forEach(InterfaceWrapperHelper::saveRecord);
+		POBatchInsert.saveAll(models, InterfaceWrapperHelper::saveRecord);
 	}
 
 	/**
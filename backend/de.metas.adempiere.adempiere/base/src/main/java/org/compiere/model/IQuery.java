@@ -80,6 +80,14 @@ public interface IQuery<T>
 	 */
 	String OPTION_ReturnReadOnlyRecords = "ReturnReadOnlyRecords";
 
+	/**
+	 * Collection of column names. If set, {@link #list(Class)}, {@link #first(Class)} and the iterators are selecting only those columns (plus the key columns) from database.
+	 * The other columns are loaded on first access, one SQL per column and record, so please make sure you set all columns which you need.
+	 * <p>
+	 * The returned records can't be saved or deleted, same as with {@link #OPTION_ReturnReadOnlyRecords}.
+	 */
+	String OPTION_LoadOnlyColumnNames = "LoadOnlyColumnNames";
+
 	/**
 	 * Default value for {@link #OPTION_GuaranteedIteratorRequired}.
 	 * <p>
@@ -1,6 +1,7 @@
 package de.metas.cache;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /*
  * #%L
@@ -29,6 +30,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Supplier;
 
+import org.adempiere.exceptions.AdempiereException;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -244,4 +246,70 @@ public class CCacheTest
 		cache.remove("k1");
 		assertThat(removedItems).containsEntry("k1", "v1");
 	}
+
+	@Test
+	public void test_FrequencyAware_weighted()
+	{
+		final CCache<String, String> cache = CCache.<String, String> builder()
+				.cacheName("Test")
+				.maximumWeightInBytes(1000L)
+				.weigher(CacheWeigher.constant(100))
+				.build();
+		assertThat(cache.isWeighted()).isTrue();
+
+		for (int i = 1; i <= 5; i++)
+		{
+			testPutGet(cache, "key" + i, "value" + i);
+		}
+
+		cache.cleanUp();
+		assertThat(cache.getWeightedSize()).isEqualTo(500);
+		assertThat(cache.stats().getWeightInBytes()).isEqualTo(500);
+	}
+
+	@Test
+	public void test_FrequencyAware_getWithLoader()
+	{
+		final CCache<String, String> cache = CCache.<String, String> builder()
+				.cacheName("Test")
+				.initialCapacity(10)
+				.cacheMapType(CCache.CacheMapType.FrequencyAware)
+				.build();
+		assertThat(cache.isWeighted()).isFalse();
+
+		assertThat(cache.getOrLoad("key1", key -> null)).isNull();
+		assertThat(cache.containsKey("key1")).isFalse();
+
+		assertThat(cache.getOrLoad("key1", key -> "value1")).isEqualTo("value1");
+		assertThat(cache.get("key1")).isEqualTo("value1");
+
+		assertThat(cache.stats().getGuavaStats().hitCount()).isEqualTo(1);
+		assertThat(cache.stats().getGuavaStats().loadSuccessCount()).isEqualTo(1);
+	}
+
+	@Test(expected = MyUncheckedException.class)
+	public void test_FrequencyAware_LoaderThrowsUncheckedException()
+	{
+		final CCache<String, String> cache = CCache.<String, String> builder()
+				.cacheName("Test")
+				.initialCapacity(10)
+				.cacheMapType(CCache.CacheMapType.FrequencyAware)
+				.build();
+
+		cache.getOrLoad("key1", key -> {
+			throw new MyUncheckedException();
+		});
+	}
+
+	@Test
+	public void test_maximumWeightInBytes_notSupportedForLRU()
+	{
+		assertThatThrownBy(() -> CCache.<String, String> builder()
+				.cacheName("Test")
+				.cacheMapType(CCache.CacheMapType.LRU)
+				.maximumWeightInBytes(1000L)
+				.weigher(CacheWeigher.constant(100))
+				.build())
+				.isInstanceOf(AdempiereException.class);
+	}
 }
@@ -0,0 +1,208 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.cache;
+
+import com.google.common.collect.ImmutableList;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.CacheInvalidateRequest;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheInvalidationBroadcastBufferTest
+{
+	@Nested
+	class coalesce
+	{
+		@Test
+		void duplicates()
+		{
+			final CacheInvalidateMultiRequest result = CacheInvalidationBroadcastBuffer.coalesce(
+					ImmutableList.of(
+							CacheInvalidateRequest.rootRecord("T1", 1),
+							CacheInvalidateRequest.rootRecord("T1", 1),
+							CacheInvalidateRequest.rootRecord("T1", 2)),
+					10);
+
+			assertThat(result).isNotNull();
+			assertThat(result.getRequests()).containsExactlyInAnyOrder(
+					CacheInvalidateRequest.rootRecord("T1", 1),
+					CacheInvalidateRequest.rootRecord("T1", 2));
+		}
+
+		@Test
+		void recordsOfTableInvalidatedEntirely()
+		{
+			final CacheInvalidateMultiRequest result = CacheInvalidationBroadcastBuffer.coalesce(
+					ImmutableList.of(
+							CacheInvalidateRequest.rootRecord("T1", 1),
+							CacheInvalidateRequest.allRecordsForTable("T1"),
+							CacheInvalidateRequest.rootRecord("T2", 1)),
+					10);
+
+			assertThat(result).isNotNull();
+			assertThat(result.getRequests()).containsExactlyInAnyOrder(
+					CacheInvalidateRequest.allRecordsForTable("T1"),
+					CacheInvalidateRequest.rootRecord("T2", 1));
+		}
+
+		@Test
+		void tableLevelThresholdReached()
+		{
+			final CacheInvalidateMultiRequest result = CacheInvalidationBroadcastBuffer.coalesce(
+					ImmutableList.of(
+							CacheInvalidateRequest.rootRecord("T1", 1),
+							CacheInvalidateRequest.rootRecord("T1", 2),
+							CacheInvalidateRequest.rootRecord("T1", 3),
+							CacheInvalidateRequest.rootRecord("T2", 1)),
+					3);
+
+			assertThat(result).isNotNull();
+			assertThat(result.getRequests()).containsExactlyInAnyOrder(
+					CacheInvalidateRequest.allRecordsForTable("T1"),
+					CacheInvalidateRequest.rootRecord("T2", 1));
+		}
+
+		@Test
+		void childRecordsAreKept()
+		{
+			final CacheInvalidateRequest childRequest = CacheInvalidateRequest.builder()
+					.rootRecord("C_Order", 1)
+					.childRecord("C_OrderLine", 2)
+					.build();
+			final CacheInvalidateMultiRequest result = CacheInvalidationBroadcastBuffer.coalesce(
+					ImmutableList.of(childRequest, CacheInvalidateRequest.rootRecord("C_Order", 1)),
+					1);
+
+			assertThat(result).isNotNull();
+			assertThat(result.getRequests()).containsExactlyInAnyOrder(
+					childRequest,
+					CacheInvalidateRequest.allRecordsForTable("C_Order"));
+		}
+
+		@Test
+		void all()
+		{
+			final CacheInvalidateMultiRequest result = CacheInvalidationBroadcastBuffer.coalesce(
+					ImmutableList.of(CacheInvalidateRequest.rootRecord("T1", 1), CacheInvalidateRequest.all()),
+					10);
+
+			assertThat(result).isSameAs(CacheInvalidateMultiRequest.all());
+		}
+
+		@Test
+		void empty()
+		{
+			assertThat(CacheInvalidationBroadcastBuffer.coalesce(ImmutableList.of(), 10)).isNull();
+		}
+	}
+
+	/**
+	 * Creates a cache like it would be on a receiving node, which holds one entry per record ID and is able to invalidate single records.
+	 */
+	private static CCache<Integer, String> newRecordIdCache(final String tableName, final int recordsCount)
+	{
+		final CCache<Integer, String> cache = CCache.<Integer, String>builder()
+				.cacheName(tableName + "#by#RecordId#" + UUID.randomUUID())
+				.tableName(tableName)
+				.initialCapacity(recordsCount)
+				.invalidationKeysMapper(recordRef -> ImmutableList.of(recordRef.getRecord_ID()))
+				.build();
+		for (int recordId = 1; recordId <= recordsCount; recordId++)
+		{
+			cache.put(recordId, tableName + "-" + recordId);
+		}
+		return cache;
+	}
+
+	/**
+	 * @return a buffer whose messages are applied to the local caches, like {@link CacheInvalidationRemoteHandler} does on the receiving nodes
+	 */
+	private static CacheInvalidationBroadcastBuffer newBufferApplyingMessagesLocally(final int tableLevelThreshold)
+	{
+		return new CacheInvalidationBroadcastBuffer(60_000, tableLevelThreshold, message -> CacheMgt.get().reset(message, CacheMgt.ResetMode.LOCAL));
+	}
+
+	/**
+	 * Simulates an import of 100k records, where each imported record fires its own cache invalidation.
+	 */
+	@Test
+	void bulkImport_100k_records()
+	{
+		final int recordsCount = 100_000;
+		final CCache<Integer, String> importCache = newRecordIdCache("I_Product", recordsCount);
+		final CCache<Integer, String> productCache = newRecordIdCache("M_Product", recordsCount);
+		final CCache<Integer, String> notImportedCache = newRecordIdCache("C_BPartner", 10);
+		final CacheInvalidationBroadcastBuffer buffer = newBufferApplyingMessagesLocally(500);
+
+		for (int recordId = 1; recordId <= recordsCount; recordId++)
+		{
+			buffer.add(CacheInvalidateMultiRequest.rootRecord("I_Product", recordId));
+			buffer.add(CacheInvalidateMultiRequest.rootRecord("M_Product", recordId));
+		}
+		buffer.flush();
+
+		// every record was invalidated on the receiving side, no matter how the requests were coalesced
+		assertThat(importCache.size()).isZero();
+		assertThat(productCache.size()).isZero();
+		assertThat(notImportedCache.size()).isEqualTo(10);
+
+		assertThat(buffer.getRequestsReceived()).isEqualTo(2L * recordsCount);
+		assertThat(buffer.getMessagesSent()).isEqualTo(2); // one because MAX_BUFFERED_REQUESTS was reached and one on flush
+	}
+
+	@Test
+	void fewRecords_onlyThoseRecordsAreInvalidated()
+	{
+		final CCache<Integer, String> productCache = newRecordIdCache("M_Product", 20);
+		final CCache<Integer, String> otherCache = newRecordIdCache("C_BPartner", 20);
+		final CacheInvalidationBroadcastBuffer buffer = newBufferApplyingMessagesLocally(500);
+
+		for (int recordId = 1; recordId <= 10; recordId++)
+		{
+			buffer.add(CacheInvalidateMultiRequest.rootRecord("M_Product", recordId));
+			buffer.add(CacheInvalidateMultiRequest.rootRecord("M_Product", recordId)); // duplicate
+		}
+		buffer.flush();
+
+		assertThat(productCache.keySet()).containsExactlyInAnyOrder(11, 12, 13, 14, 15, 16, 17, 18, 19, 20);
+		assertThat(otherCache.size()).isEqualTo(20);
+	}
+
+	@Test
+	void noBufferWindow_sendsRightAway()
+	{
+		final List<CacheInvalidateMultiRequest> messagesSent = new ArrayList<>();
+		final CacheInvalidationBroadcastBuffer buffer = new CacheInvalidationBroadcastBuffer(0, 500, messagesSent::add);
+
+		buffer.add(CacheInvalidateMultiRequest.rootRecord("T1", 1));
+
+		assertThat(messagesSent).hasSize(1);
+		assertThat(buffer.getBufferedRequests()).isEmpty();
+	}
+}
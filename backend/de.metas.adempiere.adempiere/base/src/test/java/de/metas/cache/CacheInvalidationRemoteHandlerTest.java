@@ -45,4 +45,26 @@ class CacheInvalidationRemoteHandlerTest
 		assertThat(result).isNotNull();
 	}
 
+	@Test
+	void filterAllowedToBroadcast_keepsTheWholeMultiRequest()
+	{
+		final ImmutableTableNamesGroupsIndex index = ImmutableTableNamesGroupsIndex.EMPTY.addingToDefaultGroup("BroadcastedTable");
+		final CacheInvalidateMultiRequest multiRequest = CacheInvalidateMultiRequest.of(
+				CacheInvalidateRequest.rootRecord("BroadcastedTable", 1),
+				CacheInvalidateRequest.rootRecord("NotBroadcastedTable", 2));
+
+		assertThat(CacheInvalidationRemoteHandler.filterAllowedToBroadcast(multiRequest, index)).isSameAs(multiRequest);
+	}
+
+	@Test
+	void filterAllowedToBroadcast_noneAllowed()
+	{
+		final ImmutableTableNamesGroupsIndex index = ImmutableTableNamesGroupsIndex.EMPTY.addingToDefaultGroup("BroadcastedTable");
+		final CacheInvalidateMultiRequest multiRequest = CacheInvalidateMultiRequest.of(
+				CacheInvalidateRequest.rootRecord("NotBroadcastedTable", 1),
+				CacheInvalidateRequest.rootRecord("NotBroadcastedTable", 2));
+
+		assertThat(CacheInvalidationRemoteHandler.filterAllowedToBroadcast(multiRequest, index)).isNull();
+	}
+
 }
@@ -2,6 +2,7 @@ package de.metas.cache;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.time.Duration;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
@@ -104,6 +105,172 @@ public class CacheMgtTest
 		invoiceLineCache.assertRecordInvalidated(TableRecordReference.of("C_InvoiceLine", 2));
 	}
 
+	@Test
+	public void enforceMemoryBudget()
+	{
+		final CacheMgt cacheManager = CacheMgt.get();
+		final CCache<Integer, String> cache1 = newWeightedCache("Table1");
+		final CCache<Integer, String> cache2 = newWeightedCache("Table2");
+		for (int i = 1; i <= 10; i++)
+		{
+			cache1.put(i, "value" + i);
+			cache2.put(i, "value" + i);
+		}
+		cleanUp(cache1, cache2);
+		assertThat(cache1.getWeightedSize() + cache2.getWeightedSize()).isEqualTo(2000);
+
+		try
+		{
+			cacheManager.setMemoryBudgetInBytes(1000);
+			cleanUp(cache1, cache2);
+			assertThat(cache1.getWeightedSize() + cache2.getWeightedSize()).isLessThanOrEqualTo(1000);
+			assertThat(cacheManager.getTotalWeightedSizeInBytes()).isLessThanOrEqualTo(1000);
+
+			// budget removed => caches are allowed to grow back
+			cacheManager.setMemoryBudgetInBytes(0);
+			for (int i = 1; i <= 10; i++)
+			{
+				cache1.put(i, "value" + i);
+			}
+			cleanUp(cache1);
+			assertThat(cache1.getWeightedSize()).isEqualTo(1000);
+		}
+		finally
+		{
+			cacheManager.setMemoryBudgetInBytes(0);
+		}
+	}
+
+	@Test
+	public void enforceMemoryBudget_breachAndRecovery()
+	{
+		final CacheMgt cacheManager = CacheMgt.get();
+		final CCache<Integer, String> cache1 = newWeightedCache("Table1", 1000);
+		final CCache<Integer, String> cache2 = newWeightedCache("Table2", 1000);
+		final CCache<Integer, String> emptyCache = newWeightedCache("Table3", 1000);
+		for (int i = 1; i <= 10; i++)
+		{
+			cache1.put(i, "value" + i);
+			cache2.put(i, "value" + i);
+		}
+		cleanUp(cache1, cache2);
+		assertThat(cache1.getWeightedSize() + cache2.getWeightedSize()).isEqualTo(2000);
+
+		try
+		{
+			//
+			// Breach: the budget is shared, but no cache gets a maximum of zero, not even the empty one
+			cacheManager.setMemoryBudgetInBytes(1000);
+			cleanUp(cache1, cache2);
+			assertThat(cacheManager.getTotalWeightedSizeInBytes()).isLessThanOrEqualTo(1000);
+			final long cache1MaximumAfterBreach = getMaximum(cache1);
+			assertThat(cache1MaximumAfterBreach).isPositive().isLessThan(1000);
+			assertThat(getMaximum(emptyCache)).isPositive();
+
+			// repeated breaches are not lowering the maximums any further
+			for (int i = 1; i <= 10; i++)
+			{
+				cache1.put(i, "value" + i);
+				cache2.put(i, "value" + i);
+			}
+			cleanUp(cache1, cache2);
+			cacheManager.enforceMemoryBudget();
+			cacheManager.enforceMemoryBudget();
+			cleanUp(cache1, cache2);
+			assertThat(getMaximum(cache1)).isGreaterThanOrEqualTo(cache1MaximumAfterBreach);
+			assertThat(cacheManager.getTotalWeightedSizeInBytes()).isLessThanOrEqualTo(1000);
+
+			//
+			// Recovery: the pressure is gone => the maximums are growing back step by step
+			cache1.reset();
+			cache2.reset();
+			cacheManager.enforceMemoryBudget();
+			assertThat(getMaximum(cache1)).isGreaterThan(cache1MaximumAfterBreach);
+			for (int i = 0; i < 10; i++)
+			{
+				cacheManager.enforceMemoryBudget();
+			}
+			assertThat(getMaximum(cache1)).isEqualTo(1000);
+			assertThat(getMaximum(cache2)).isEqualTo(1000);
+			assertThat(getMaximum(emptyCache)).isEqualTo(1000);
+		}
+		finally
+		{
+			cacheManager.setMemoryBudgetInBytes(0);
+		}
+	}
+
+	@Test
+	public void hotKeysSnapshotAndWarmUp()
+	{
+		final CacheMgt cacheManager = CacheMgt.get();
+		final CCache<Integer, String> cache = CCache.<Integer, String> builder()
+				.tableName("WarmUpTable")
+				.warmUpLoader(new CacheWarmUpLoader<Integer, String>()
+				{
+					@Override
+					public String toKeyString(@NonNull final Integer key)
+					{
+						return key.toString();
+					}
+
+					@Override
+					public Integer fromKeyString(@NonNull final String keyString)
+					{
+						return Integer.parseInt(keyString);
+					}
+
+					@Override
+					public String load(@NonNull final Integer key)
+					{
+						return "value" + key;
+					}
+				})
+				.build();
+		cache.put(1, "value1");
+		cache.put(2, "value2");
+
+		final CacheHotKeysSnapshot snapshot = cacheManager.createHotKeysSnapshot(100);
+		assertThat(snapshot.getKeys("WarmUpTable")).containsExactlyInAnyOrder("1", "2");
+
+		// simulate restart
+		cache.reset();
+		assertThat(cache.size()).isZero();
+
+		final CacheWarmUpResult result = cacheManager.warmUp(snapshot, 2, Duration.ofSeconds(10));
+		assertThat(result.getKeysLoaded()).isEqualTo(2);
+		assertThat(result.getKeysSkipped()).isZero();
+		assertThat(cache.get(1)).isEqualTo("value1");
+		assertThat(cache.get(2)).isEqualTo("value2");
+	}
+
+	private static void cleanUp(final CCache<?, ?>... caches)
+	{
+		for (final CCache<?, ?> cache : caches)
+		{
+			cache.cleanUp();
+		}
+	}
+
+	private static CCache<Integer, String> newWeightedCache(final String tableName)
+	{
+		return newWeightedCache(tableName, 10_000L);
+	}
+
+	private static CCache<Integer, String> newWeightedCache(final String tableName, final long maximumWeightInBytes)
+	{
+		return CCache.<Integer, String> builder()
+				.tableName(tableName)
+				.maximumWeightInBytes(maximumWeightInBytes)
+				.weigher(CacheWeigher.constant(100))
+				.build();
+	}
+
+	private static long getMaximum(final CCache<?, ?> cache)
+	{
+		return cache.getWeightedCaffeineCacheOrNull().getMaximum();
+	}
+
 	private static class AssertCache implements CacheInterface
 	{
 		public static AssertCache newForTableName(final String tableName)
@@ -0,0 +1,189 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+package de.metas.cache;
+
+import com.google.common.collect.ImmutableSet;
+import de.metas.cache.shared.InMemorySharedCacheStorage;
+import de.metas.cache.shared.SharedCacheSerializer;
+import de.metas.util.Services;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SharedCacheTierTest
+{
+	private InMemorySharedCacheStorage storage;
+
+	@BeforeEach
+	void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+		storage = new InMemorySharedCacheStorage();
+		CacheMgt.get().setSharedCacheStorage(storage);
+	}
+
+	@AfterEach
+	void afterEach()
+	{
+		CacheMgt.get().setSharedCacheStorage(null);
+	}
+
+	/**
+	 * Simulates two nodes, each one having its own local cache.
+	 */
+	private static CCache<Integer, String> newNodeCache()
+	{
+		return CCache.<Integer, String>builder()
+				.cacheName("SharedCacheTierTest")
+				.tableName("M_Product")
+				.sharedCacheSerializer(SharedCacheSerializer.javaSerialization())
+				.build();
+	}
+
+	@Test
+	void valueLoadedByOneNode_isServedToTheOtherNode()
+	{
+		final CCache<Integer, String> node1 = newNodeCache();
+		final CCache<Integer, String> node2 = newNodeCache();
+		final AtomicInteger loadCount = new AtomicInteger();
+
+		assertThat(node1.getOrLoad(1, key -> "value" + loadCount.incrementAndGet())).isEqualTo("value1");
+		assertThat(node2.getOrLoad(1, key -> "value" + loadCount.incrementAndGet())).isEqualTo("value1");
+
+		assertThat(loadCount).hasValue(1);
+		assertThat(storage.size()).isEqualTo(1);
+	}
+
+	@Test
+	void tableChanged_valueIsReloaded()
+	{
+		final CCache<Integer, String> node1 = newNodeCache();
+		final CCache<Integer, String> node2 = newNodeCache();
+		final AtomicInteger loadCount = new AtomicInteger();
+
+		node1.getOrLoad(1, key -> "value" + loadCount.incrementAndGet());
+		node2.getOrLoad(1, key -> "value" + loadCount.incrementAndGet());
+
+		storage.incrementTableVersions(ImmutableSet.of("M_Product"));
+		node2.forceSharedVersionCheck();
+
+		assertThat(node2.getOrLoad(1, key -> "value" + loadCount.incrementAndGet())).isEqualTo("value2");
+		assertThat(loadCount).hasValue(2);
+	}
+
+	@Test
+	void tableChanged_supersededEntriesAreRemoved()
+	{
+		final CCache<Integer, String> node1 = newNodeCache();
+		node1.getOrLoad(1, key -> "value1");
+		node1.getOrLoad(2, key -> "value2");
+		assertThat(storage.size()).isEqualTo(2);
+
+		storage.incrementTableVersions(ImmutableSet.of("M_Product"));
+		node1.forceSharedVersionCheck();
+
+		// entry 2 is removed because it's stale, entry 1 is reloaded and stored with the new version
+		node1.getOrLoad(1, key -> "value1");
+		assertThat(storage.size()).isEqualTo(1);
+	}
+
+	@Test
+	void noStorageConfigured()
+	{
+		CacheMgt.get().setSharedCacheStorage(null);
+
+		final CCache<Integer, String> node1 = newNodeCache();
+		final CCache<Integer, String> node2 = newNodeCache();
+		final AtomicInteger loadCount = new AtomicInteger();
+
+		node1.getOrLoad(1, key -> "value" + loadCount.incrementAndGet());
+		assertThat(node2.getOrLoad(1, key -> "value" + loadCount.incrementAndGet())).isEqualTo("value2");
+		assertThat(storage.size()).isZero();
+	}
+
+	@Test
+	void valueLoadedInTrx_isPublishedOnlyAfterCommit()
+	{
+		final CCache<Integer, String> node1 = newNodeCache();
+
+		Services.get(ITrxManager.class).runInNewTrx(() -> {
+			assertThat(node1.getOrLoad(1, key -> "value1")).isEqualTo("value1");
+			assertThat(storage.size()).isZero();
+		});
+
+		assertThat(storage.size()).isEqualTo(1);
+	}
+
+	@Test
+	void valueLoadedInTrx_isNotPublishedOnRollback()
+	{
+		final CCache<Integer, String> node1 = newNodeCache();
+
+		assertThatThrownBy(() -> Services.get(ITrxManager.class).runInNewTrx(() -> {
+			node1.getOrLoad(1, key -> "value1");
+			throw new RuntimeException("rollback");
+		})).hasMessageContaining("rollback");
+
+		assertThat(storage.size()).isZero();
+	}
+
+	@Test
+	void sameNameButDifferentTables_entriesAreNotShared()
+	{
+		final CCache<Integer, String> productCache = newNodeCache();
+		final CCache<Integer, String> productAndUOMCache = CCache.<Integer, String>builder()
+				.cacheName("SharedCacheTierTest")
+				.tableName("M_Product")
+				.additionalTableNameToResetFor("C_UOM")
+				.sharedCacheSerializer(SharedCacheSerializer.javaSerialization())
+				.build();
+		final AtomicInteger loadCount = new AtomicInteger();
+
+		productCache.getOrLoad(1, key -> "value" + loadCount.incrementAndGet());
+		assertThat(productAndUOMCache.getOrLoad(1, key -> "value" + loadCount.incrementAndGet())).isEqualTo("value2");
+		assertThat(storage.size()).isEqualTo(2);
+
+		// only the entries which depend on C_UOM are superseded
+		storage.incrementTableVersions(ImmutableSet.of("C_UOM"));
+		productCache.forceSharedVersionCheck();
+		productAndUOMCache.forceSharedVersionCheck();
+
+		assertThat(newNodeCache().getOrLoad(1, key -> "value" + loadCount.incrementAndGet())).isEqualTo("value1");
+		assertThat(productAndUOMCache.getOrLoad(1, key -> "value" + loadCount.incrementAndGet())).isEqualTo("value3");
+	}
+
+	@Test
+	void toStorageCacheName_doesNotDependOnTheTablesOrder()
+	{
+		assertThat(SharedCacheTier.toStorageCacheName("cache", ImmutableSet.of("M_Product", "C_UOM")))
+				.isEqualTo(SharedCacheTier.toStorageCacheName("cache", ImmutableSet.of("C_UOM", "M_Product")))
+				.isNotEqualTo(SharedCacheTier.toStorageCacheName("cache", ImmutableSet.of("M_Product")))
+				.startsWith("cache#");
+	}
+}
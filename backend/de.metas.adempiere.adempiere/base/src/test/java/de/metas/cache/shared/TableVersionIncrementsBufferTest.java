@@ -0,0 +1,133 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.cache.shared;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TableVersionIncrementsBufferTest
+{
+	/**
+	 * Simulates 10k cache resets of the same tables, e.g. while importing products.
+	 */
+	@Test
+	void manyResets_oneWrite()
+	{
+		final List<ImmutableMap<String, Long>> writes = new ArrayList<>();
+		final TableVersionIncrementsBuffer buffer = new TableVersionIncrementsBuffer(60_000, writes::add);
+
+		for (int i = 1; i <= 10_000; i++)
+		{
+			buffer.add(ImmutableSet.of("M_Product", "C_UOM_Conversion"));
+		}
+		assertThat(writes).isEmpty();
+
+		buffer.flush();
+
+		assertThat(buffer.getIncrementsReceived()).isEqualTo(20_000);
+		assertThat(buffer.getWrites()).isEqualTo(1);
+		assertThat(writes).containsExactly(ImmutableMap.of("M_Product", 10_000L, "C_UOM_Conversion", 10_000L));
+	}
+
+	@Test
+	void pendingIncrementsAreReportedUntilWritten()
+	{
+		final List<ImmutableMap<String, Long>> writes = new ArrayList<>();
+		final TableVersionIncrementsBuffer buffer = new TableVersionIncrementsBuffer(60_000, writes::add);
+
+		buffer.add(ImmutableSet.of("M_Product"));
+		buffer.add(ImmutableSet.of("M_Product", "C_BPartner"));
+
+		assertThat(buffer.getPendingIncrements(ImmutableSet.of("M_Product", "C_BPartner", "C_Order")))
+				.isEqualTo(ImmutableMap.of("M_Product", 2L, "C_BPartner", 1L));
+
+		buffer.flush();
+
+		assertThat(buffer.getPendingIncrements(ImmutableSet.of("M_Product", "C_BPartner", "C_Order"))).isEmpty();
+	}
+
+	@Test
+	void versionsAreNotCountedTwiceWhileWriting()
+	{
+		final HashMap<String, Long> writtenVersions = new HashMap<>();
+		final TableVersionIncrementsBuffer buffer = new TableVersionIncrementsBuffer(60_000, increments -> increments.forEach((tableName, increment) -> writtenVersions.merge(tableName, increment, Long::sum)));
+		final Function<Set<String>, Map<String, Long>> writtenVersionsLoader = tableNames -> ImmutableMap.copyOf(writtenVersions);
+
+		buffer.add(ImmutableSet.of("M_Product"));
+		assertThat(buffer.getVersions(ImmutableSet.of("M_Product"), writtenVersionsLoader)).isEqualTo(ImmutableMap.of("M_Product", 1L));
+
+		buffer.flush();
+		assertThat(buffer.getVersions(ImmutableSet.of("M_Product"), writtenVersionsLoader)).isEqualTo(ImmutableMap.of("M_Product", 1L));
+
+		buffer.add(ImmutableSet.of("M_Product"));
+		assertThat(buffer.getVersions(ImmutableSet.of("M_Product"), writtenVersionsLoader)).isEqualTo(ImmutableMap.of("M_Product", 2L));
+	}
+
+	@Test
+	void writeFails_incrementsAreKept()
+	{
+		final List<ImmutableMap<String, Long>> writes = new ArrayList<>();
+		final boolean[] fail = { true };
+		final TableVersionIncrementsBuffer buffer = new TableVersionIncrementsBuffer(60_000, increments -> {
+			if (fail[0])
+			{
+				throw new RuntimeException("DB not available");
+			}
+			writes.add(increments);
+		});
+
+		buffer.add(ImmutableSet.of("M_Product"));
+		assertThatThrownBy(buffer::flush).hasMessageContaining("DB not available");
+		assertThat(buffer.getPendingIncrements(ImmutableSet.of("M_Product"))).isEqualTo(ImmutableMap.of("M_Product", 1L));
+
+		buffer.add(ImmutableSet.of("M_Product"));
+		fail[0] = false;
+		buffer.flush();
+
+		assertThat(writes).containsExactly(ImmutableMap.of("M_Product", 2L));
+		assertThat(buffer.getPendingIncrements(ImmutableSet.of("M_Product"))).isEmpty();
+	}
+
+	@Test
+	void noFlushWindow_writesRightAway()
+	{
+		final List<ImmutableMap<String, Long>> writes = new ArrayList<>();
+		final TableVersionIncrementsBuffer buffer = new TableVersionIncrementsBuffer(0, writes::add);
+
+		buffer.add(ImmutableSet.of("M_Product"));
+
+		assertThat(writes).containsExactly(ImmutableMap.of("M_Product", 1L));
+		assertThat(buffer.getPendingIncrements(ImmutableSet.of("M_Product"))).isEmpty();
+	}
+}
@@ -0,0 +1,126 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+package de.metas.document.references.related_documents;
+
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.document.references.related_documents.RelatedDocumentsCountCache.CountKey;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RelatedDocumentsCountCacheTest
+{
+	private static final TableRecordReference ORDER_1 = TableRecordReference.of("C_Order", 1);
+	private static final CountKey INVOICES_KEY = CountKey.of(RelatedDocumentsId.ofString("invoices"), "role1");
+
+	private RelatedDocumentsCountCache cache;
+	private AtomicInteger countCalls;
+
+	@BeforeEach
+	void beforeEach()
+	{
+		cache = new RelatedDocumentsCountCache(100, 10);
+		countCalls = new AtomicInteger();
+	}
+
+	private int getInvoicesCount(final TableRecordReference sourceRecordRef, final int count)
+	{
+		return cache.getRecordsCount(
+				sourceRecordRef,
+				INVOICES_KEY,
+				() -> "C_Invoice",
+				() -> {
+					countCalls.incrementAndGet();
+					return count;
+				});
+	}
+
+	@Test
+	void countIsCached()
+	{
+		assertThat(getInvoicesCount(ORDER_1, 3)).isEqualTo(3);
+		assertThat(getInvoicesCount(ORDER_1, 4)).isEqualTo(3);
+		assertThat(countCalls).hasValue(1);
+	}
+
+	@Test
+	void countIsCachedPerPermissionsKey()
+	{
+		getInvoicesCount(ORDER_1, 3);
+		final int count = cache.getRecordsCount(ORDER_1, CountKey.of(INVOICES_KEY.getRelatedDocumentsId(), "role2"), () -> "C_Invoice", () -> 1);
+		assertThat(count).isEqualTo(1);
+	}
+
+	@Test
+	void invalidatedWhenTargetTableChanged()
+	{
+		getInvoicesCount(ORDER_1, 3);
+
+		cache.onCacheReset(CacheInvalidateMultiRequest.rootRecord("C_Invoice", 123));
+
+		assertThat(getInvoicesCount(ORDER_1, 4)).isEqualTo(4);
+		assertThat(countCalls).hasValue(2);
+	}
+
+	@Test
+	void invalidatedWhenSourceRecordChanged()
+	{
+		getInvoicesCount(ORDER_1, 3);
+
+		cache.onCacheReset(CacheInvalidateMultiRequest.rootRecord("C_Order", 1));
+
+		assertThat(getInvoicesCount(ORDER_1, 4)).isEqualTo(4);
+	}
+
+	@Test
+	void notInvalidatedWhenOtherRecordsChanged()
+	{
+		getInvoicesCount(ORDER_1, 3);
+
+		cache.onCacheReset(CacheInvalidateMultiRequest.rootRecord("C_Order", 2));
+		cache.onCacheReset(CacheInvalidateMultiRequest.rootRecord("M_Product", 1));
+
+		assertThat(getInvoicesCount(ORDER_1, 4)).isEqualTo(3);
+		assertThat(countCalls).hasValue(1);
+	}
+
+	@Test
+	void notCachedIfInvalidatedWhileCounting()
+	{
+		cache.getRecordsCount(
+				ORDER_1,
+				INVOICES_KEY,
+				() -> "C_Invoice",
+				() -> {
+					cache.onCacheReset(CacheInvalidateMultiRequest.allRecordsForTable("C_Invoice"));
+					return 3;
+				});
+
+		assertThat(getInvoicesCount(ORDER_1, 4)).isEqualTo(4);
+	}
+}
@@ -0,0 +1,230 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.document.sequence;
+
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.document.sequence.SequenceBlockAllocator.SequenceKey;
+import de.metas.document.sequence.SequenceBlockAllocator.SequenceKind;
+import de.metas.organization.OrgId;
+import de.metas.util.Services;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxListenerManager.TrxEventTiming;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_AD_Sequence;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SequenceBlockAllocatorTest
+{
+	private final SequenceBlockAllocator allocator = SequenceBlockAllocator.instance;
+
+	private AtomicInteger currentNext;
+	private AtomicInteger reservationsCount;
+
+	@BeforeEach
+	void init()
+	{
+		AdempiereTestHelper.get().init();
+		allocator.discardReservedValues();
+
+		currentNext = new AtomicInteger(1000);
+		reservationsCount = new AtomicInteger(0);
+	}
+
+	/**
+	 * Simulates an AD_Sequence record with IncrementNo=1
+	 */
+	private IntFunction<int[]> sequenceRecord()
+	{
+		return count -> {
+			reservationsCount.incrementAndGet();
+			final int first = currentNext.getAndAdd(count);
+			final int[] values = new int[count];
+			for (int i = 0; i < count; i++)
+			{
+				values[i] = first + i;
+			}
+			return values;
+		};
+	}
+
+	/**
+	 * Simulates an AD_Sequence record which is updated in the thread's transaction (if any), i.e. whose update is undone if that transaction is rolled back.
+	 */
+	private IntFunction<int[]> transactionalSequenceRecord()
+	{
+		final IntFunction<int[]> sequenceRecord = sequenceRecord();
+		return count -> {
+			final int[] values = sequenceRecord.apply(count);
+
+			final ITrxManager trxManager = Services.get(ITrxManager.class);
+			if (trxManager.hasThreadInheritedTrx())
+			{
+				final ITrx trx = trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.Fail);
+				trx.getTrxListenerManager()
+						.newEventListener(TrxEventTiming.AFTER_ROLLBACK)
+						.registerHandlingMethod(rolledBackTrx -> currentNext.addAndGet(-values.length));
+			}
+			return values;
+		};
+	}
+
+	@Test
+	void strictMode_reservesEachValue()
+	{
+		final SequenceKey key = SequenceKey.tableId("Test_Strict");
+
+		assertThat(allocator.next(key, 1, sequenceRecord())).isEqualTo(1000);
+		assertThat(allocator.next(key, 1, sequenceRecord())).isEqualTo(1001);
+		assertThat(allocator.next(key, 1, sequenceRecord())).isEqualTo(1002);
+
+		assertThat(reservationsCount).hasValue(3);
+		assertThat(allocator.peekNext(key)).isEmpty();
+		assertThat(allocator.getReservationsCount(key)).isEqualTo(3);
+	}
+
+	@Test
+	void blockMode_reservesOnceForTheWholeBlock()
+	{
+		final SequenceKey key = SequenceKey.tableId("Test_Block");
+
+		for (int i = 0; i < 10; i++)
+		{
+			assertThat(allocator.next(key, 5, sequenceRecord())).isEqualTo(1000 + i);
+		}
+
+		assertThat(reservationsCount).hasValue(2);
+		assertThat(allocator.peekNext(key)).isEqualTo(OptionalInt.empty());
+
+		assertThat(allocator.next(key, 5, sequenceRecord())).isEqualTo(1010);
+		assertThat(allocator.peekNext(key)).isEqualTo(OptionalInt.of(1011));
+	}
+
+	@Test
+	void blockMode_acceptsSmallerBlocksThanRequested()
+	{
+		final SequenceKey key = SequenceKey.tableId("Test_SmallerBlock");
+
+		assertThat(allocator.next(key, 5, count -> new int[] { 42 })).isEqualTo(42);
+		assertThat(allocator.next(key, 5, count -> new int[] { 43 })).isEqualTo(43);
+	}
+
+	@Test
+	void blocksAreSeparatedByPeriod()
+	{
+		final SequenceKey key2022 = SequenceKey.of(SequenceKind.DOCUMENT_NO, "Test_Invoices", "2022-1");
+		final SequenceKey key2023 = SequenceKey.of(SequenceKind.DOCUMENT_NO, "Test_Invoices", "2023-1");
+
+		assertThat(allocator.next(key2022, 10, sequenceRecord())).isEqualTo(1000);
+		assertThat(allocator.next(key2023, 10, sequenceRecord())).isEqualTo(1010);
+		assertThat(allocator.next(key2022, 10, sequenceRecord())).isEqualTo(1001);
+	}
+
+	@Test
+	void configuredBlockSize()
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		assertThat(allocator.getConfiguredBlockSize(SequenceKind.TABLE_ID, "C_Order")).isEqualTo(1);
+
+		sysConfigBL.setValue("de.metas.document.sequence.TableID.BlockSize", 20, ClientId.SYSTEM, OrgId.ANY);
+		assertThat(allocator.getConfiguredBlockSize(SequenceKind.TABLE_ID, "C_Order")).isEqualTo(20);
+
+		sysConfigBL.setValue("de.metas.document.sequence.TableID.BlockSize.C_Order", 50, ClientId.SYSTEM, OrgId.ANY);
+		assertThat(allocator.getConfiguredBlockSize(SequenceKind.TABLE_ID, "C_Order")).isEqualTo(50);
+		assertThat(allocator.getConfiguredBlockSize(SequenceKind.TABLE_ID, "C_Invoice")).isEqualTo(20);
+		assertThat(allocator.getConfiguredBlockSize(SequenceKind.DOCUMENT_NO, "C_Order")).isEqualTo(1);
+	}
+
+	@Test
+	void blockMode_rollback_valuesAreNotReused()
+	{
+		final SequenceKey key = SequenceKey.tableId("Test_Rollback");
+		final List<Integer> values = new ArrayList<>();
+
+		assertThatThrownBy(() -> Services.get(ITrxManager.class).runInNewTrx(() -> {
+			values.add(allocator.next(key, 5, transactionalSequenceRecord()));
+			values.add(allocator.next(key, 5, transactionalSequenceRecord()));
+			throw new RuntimeException("rollback");
+		})).hasMessageContaining("rollback");
+
+		for (int i = 0; i < 5; i++)
+		{
+			values.add(allocator.next(key, 5, transactionalSequenceRecord()));
+		}
+
+		assertThat(values).doesNotHaveDuplicates().containsExactly(1000, 1001, 1002, 1003, 1004, 1005, 1006);
+		assertThat(reservationsCount).hasValue(2);
+	}
+
+	@Test
+	void errorValueIsNeitherUsedNorCached()
+	{
+		final SequenceKey key = SequenceKey.documentNo("Test_Error", 4711, null);
+
+		assertThatThrownBy(() -> allocator.next(key, 5, count -> new int[] { -1 }))
+				.hasMessageContaining("No sequence values were reserved");
+		assertThat(allocator.peekNext(key)).isEmpty();
+
+		assertThat(allocator.next(key, 5, sequenceRecord())).isEqualTo(1000);
+	}
+
+	@Test
+	void cacheReset_discardsOnlyTheChangedSequence()
+	{
+		final SequenceKey key1 = SequenceKey.documentNo("Test_Seq", 1, null);
+		final SequenceKey key11 = SequenceKey.documentNo("Test_Seq", 11, null);
+		assertThat(allocator.next(key1, 5, sequenceRecord())).isEqualTo(1000);
+		assertThat(allocator.next(key11, 5, sequenceRecord())).isEqualTo(1005);
+
+		final SequenceBlockAllocatorCacheResetListener listener = new SequenceBlockAllocatorCacheResetListener(allocator);
+		assertThat(listener.reset(CacheInvalidateMultiRequest.rootRecord(I_AD_Sequence.Table_Name, 1))).isEqualTo(1);
+
+		assertThat(allocator.peekNext(key1)).isEmpty();
+		assertThat(allocator.peekNext(key11)).isEqualTo(OptionalInt.of(1006));
+		assertThat(allocator.next(key1, 5, sequenceRecord())).isEqualTo(1010);
+	}
+
+	@Test
+	void cacheReset_all()
+	{
+		final SequenceKey key = SequenceKey.documentNo("Test_Seq", 1, null);
+		assertThat(allocator.next(key, 5, sequenceRecord())).isEqualTo(1000);
+
+		new SequenceBlockAllocatorCacheResetListener(allocator).reset(CacheInvalidateMultiRequest.all());
+
+		assertThat(allocator.peekNext(key)).isEmpty();
+	}
+}
@@ -0,0 +1,97 @@
+package de.metas.impexp;
+
+import static org.adempiere.model.InterfaceWrapperHelper.load;
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_C_DataImport_Run;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class DataImportRunsServiceTest
+{
+	private DataImportRunsService dataImportRunsService;
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+		dataImportRunsService = new DataImportRunsService();
+	}
+
+	private static DataImportRunId createRun()
+	{
+		final I_C_DataImport_Run record = newInstance(I_C_DataImport_Run.class);
+		saveRecord(record);
+		return DataImportRunId.ofRepoId(record.getC_DataImport_Run_ID());
+	}
+
+	@Test
+	public void noSuchRun()
+	{
+		assertThat(dataImportRunsService.getProgress(DataImportRunId.ofRepoId(1))).isEmpty();
+	}
+
+	@Test
+	public void noProgressRecorded()
+	{
+		final DataImportRunId runId = createRun();
+
+		final DataImportRunProgress progress = dataImportRunsService.getProgress(runId).get();
+		assertThat(progress.getCountRowsInsertedIntoImportTable()).isZero();
+		assertThat(progress.getRowsInsertedIntoImportTablePerSecond()).isNull();
+		assertThat(progress.getCountRecordsImported()).isZero();
+		assertThat(progress.getRecordsImportedPerSecond()).isNull();
+	}
+
+	@Test
+	public void recordProgress()
+	{
+		final DataImportRunId runId = createRun();
+		final DataImportRunId otherRunId = createRun();
+		dataImportRunsService.recordRowsInsertedIntoImportTable(runId, 10000, Duration.ofSeconds(1));
+		dataImportRunsService.recordRowsInsertedIntoImportTable(runId, 10000, Duration.ofSeconds(3));
+		dataImportRunsService.recordRecordsImported(runId, 500, Duration.ofSeconds(5));
+
+		final DataImportRunProgress progress = dataImportRunsService.getProgress(runId).get();
+		assertThat(progress.getCountRowsInsertedIntoImportTable()).isEqualTo(20000);
+		assertThat(progress.getInsertIntoImportTableDuration()).isEqualTo(Duration.ofSeconds(4));
+		assertThat(progress.getRowsInsertedIntoImportTablePerSecond()).isEqualTo(5000);
+		assertThat(progress.getCountRecordsImported()).isEqualTo(500);
+		assertThat(progress.getRecordsImportedPerSecond()).isEqualTo(100);
+
+		final I_C_DataImport_Run record = load(runId, I_C_DataImport_Run.class);
+		assertThat(record.getRowsInsertedIntoImportTable()).isEqualTo(20000);
+		assertThat(record.getInsertIntoImportTableMillis()).isEqualTo(4000);
+		assertThat(record.getRecordsImported()).isEqualTo(500);
+		assertThat(record.getImportRecordsMillis()).isEqualTo(5000);
+
+		assertThat(dataImportRunsService.getProgress(otherRunId).get().getCountRowsInsertedIntoImportTable()).isZero();
+	}
+}
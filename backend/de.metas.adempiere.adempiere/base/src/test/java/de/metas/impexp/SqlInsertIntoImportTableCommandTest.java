@@ -0,0 +1,134 @@
+package de.metas.impexp;
+
+import de.metas.common.util.time.SystemTime;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+class SqlInsertIntoImportTableCommandTest
+{
+	@BeforeEach
+	void beforeEach()
+	{
+		SystemTime.setFixedTimeSource(ZonedDateTime.of(2023, 3, 1, 0, 0, 0, 0, ZoneId.of("Europe/Berlin")));
+	}
+
+	@AfterEach
+	void afterEach()
+	{
+		SystemTime.resetTimeSource();
+	}
+
+	private static String toCsv(@Nullable final Object value)
+	{
+		final StringBuilder csv = new StringBuilder();
+		SqlInsertIntoImportTableCommand.appendCsvValue(csv, value);
+		return csv.toString();
+	}
+
+	@Test
+	void nullIsAnUnquotedEmptyValue()
+	{
+		assertThat(toCsv(null)).isEmpty();
+	}
+
+	@Test
+	void emptyStringIsQuoted()
+	{
+		// postgres reads an unquoted empty value as NULL, but a quoted one as empty string
+		assertThat(toCsv("")).isEqualTo("\"\"");
+	}
+
+	@Test
+	void plainString()
+	{
+		assertThat(toCsv("abc")).isEqualTo("\"abc\"");
+	}
+
+	@Test
+	void quotesAreDoubled()
+	{
+		assertThat(toCsv("say \"hi\"")).isEqualTo("\"say \"\"hi\"\"\"");
+	}
+
+	@Test
+	void delimitersAndNewlinesAreKeptInsideTheQuotes()
+	{
+		assertThat(toCsv("a,b;c\td")).isEqualTo("\"a,b;c\td\"");
+		assertThat(toCsv("line1\nline2\r\nline3")).isEqualTo("\"line1\nline2\r\nline3\"");
+	}
+
+	@Test
+	void backslashIsNotAnEscapeCharacter()
+	{
+		assertThat(toCsv("C:\\temp\\N")).isEqualTo("\"C:\\temp\\N\"");
+	}
+
+	@Test
+	void booleanIsEncodedAsYesNo()
+	{
+		assertThat(toCsv(true)).isEqualTo("\"Y\"");
+		assertThat(toCsv(false)).isEqualTo("\"N\"");
+	}
+
+	@Test
+	void bigDecimalIsEncodedWithoutExponent()
+	{
+		assertThat(toCsv(new BigDecimal("1E+3"))).isEqualTo("\"1000\"");
+		assertThat(toCsv(new BigDecimal("-12.50"))).isEqualTo("\"-12.50\"");
+	}
+
+	@Test
+	void integer()
+	{
+		assertThat(toCsv(42)).isEqualTo("\"42\"");
+	}
+
+	@Test
+	void timestampIsEncodedWithTheOffsetOfTheSystemTimeZone()
+	{
+		final Timestamp winter = Timestamp.from(ZonedDateTime.of(2023, 1, 15, 13, 14, 15, 0, ZoneId.of("UTC")).toInstant());
+		assertThat(toCsv(winter)).isEqualTo("\"2023-01-15T14:14:15+01:00\"");
+
+		final Timestamp summer = Timestamp.from(ZonedDateTime.of(2023, 7, 15, 13, 14, 15, 123000000, ZoneId.of("UTC")).toInstant());
+		assertThat(toCsv(summer)).isEqualTo("\"2023-07-15T15:14:15.123+02:00\"");
+	}
+
+	@Test
+	void valuesAreAppended()
+	{
+		final StringBuilder csv = new StringBuilder("\"x\",");
+		SqlInsertIntoImportTableCommand.appendCsvValue(csv, "y");
+		assertThat(csv).hasToString("\"x\",\"y\"");
+	}
+}
@@ -0,0 +1,210 @@
+package de.metas.impexp;
+
+import com.google.common.collect.ImmutableList;
+import de.metas.impexp.format.ImpFormat;
+import de.metas.impexp.format.ImpFormatId;
+import de.metas.impexp.format.ImpFormatRepository;
+import de.metas.impexp.format.ImportTableDescriptorRepository;
+import de.metas.impexp.parser.ImpDataCell;
+import de.metas.impexp.parser.ImpDataLine;
+import de.metas.organization.OrgId;
+import de.metas.user.UserId;
+import de.metas.util.Check;
+import de.metas.util.Services;
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.service.ClientId;
+import org.compiere.Adempiere.RunMode;
+import org.compiere.model.I_I_BPartner;
+import org.compiere.util.DB;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Inserts values which need escaping into {@code I_BPartner}, once using {@code COPY} and once using JDBC batch inserts, and checks that they are read back unchanged.
+ * <p>
+ * Needs a postgres database; the {@code PropertyFile} system property can be used to point to its connection settings.
+ */
+@Disabled("requires database connection")
+class SqlInsertIntoImportTableCommand_DBTest
+{
+	private static final ImmutableList<String> VALUES = ImmutableList.of(
+			"tab\tinside",
+			"line1\nline2\r\nline3",
+			"C:\\temp\\N",
+			"\\N",
+			"\\.",
+			"say \"hi\", ok; bye",
+			"",
+			"trailing backslash\\");
+
+	public static void main(final String[] args)
+	{
+		setupAdempiere();
+
+		final SqlInsertIntoImportTableCommand_DBTest test = new SqlInsertIntoImportTableCommand_DBTest();
+
+		test.init();
+		test.insertUsingCopy();
+		test.cleanup();
+
+		test.init();
+		test.insertUsingJdbcBatch();
+		test.cleanup();
+	}
+
+	@BeforeAll
+	static void setupAdempiere()
+	{
+		//
+		// Use hardcoded default PropertyFile if none found
+		if (Check.isEmpty(System.getProperty("PropertyFile"), true))
+		{
+			final String propertyFile =
+					new File(".").getAbsolutePath() // e.g. C:\workspaces\\de.metas.adempiere.adempiere\base\
+							+ File.separator + ".." + File.separator + ".." // e.g. C:\workspaces\
+							+ File.separator + "de.metas.endcustomer."
+							+ File.separator + "Adempiere.properties_" + System.getProperty("user.name");
+			System.out.println("Set default PropertyFile=" + propertyFile);
+			System.setProperty("PropertyFile", propertyFile);
+		}
+
+		Env.getSingleAdempiereInstance(null).startup(RunMode.SWING_CLIENT);
+	}
+
+	private final ImpFormatRepository impFormatRepository = new ImpFormatRepository(new ImportTableDescriptorRepository());
+	private final DataImportRunsService dataImportRunsService = new DataImportRunsService();
+
+	private ImpFormat importFormat;
+	private DataImportRunId dataImportRunId;
+
+	@BeforeEach
+	void init()
+	{
+		final ImpFormatId importFormatId = Services.get(ITrxManager.class).callInNewTrx(() -> ImportFormatBuilder.newInstance(I_I_BPartner.Table_Name)
+				.name("SqlInsertIntoImportTableCommand_DBTest_" + UUID.randomUUID())
+				.charset(StandardCharsets.UTF_8)
+				.stringColumn(I_I_BPartner.COLUMNNAME_Name)
+				.stringColumn(I_I_BPartner.COLUMNNAME_Description)
+				.build());
+		importFormat = impFormatRepository.getById(importFormatId);
+
+		dataImportRunId = dataImportRunsService.createNewRun(DataImportRunCreateRequest.builder()
+				.orgId(OrgId.ANY)
+				.userId(UserId.METASFRESH)
+				.importFormatId(importFormatId)
+				.build());
+	}
+
+	@AfterEach
+	void cleanup()
+	{
+		DB.executeUpdateAndThrowExceptionOnFail("DELETE FROM I_BPartner WHERE C_DataImport_Run_ID=?", new Object[] { dataImportRunId.getRepoId() }, null);
+		DB.executeUpdateAndThrowExceptionOnFail("DELETE FROM C_DataImport_Run WHERE C_DataImport_Run_ID=?", new Object[] { dataImportRunId.getRepoId() }, null);
+		DB.executeUpdateAndThrowExceptionOnFail("DELETE FROM AD_ImpFormat_Row WHERE AD_ImpFormat_ID=?", new Object[] { importFormat.getId().getRepoId() }, null);
+		DB.executeUpdateAndThrowExceptionOnFail("DELETE FROM AD_ImpFormat WHERE AD_ImpFormat_ID=?", new Object[] { importFormat.getId().getRepoId() }, null);
+	}
+
+	@Test
+	void insertUsingCopy()
+	{
+		insertAndAssertReadBackUnchanged(true);
+	}
+
+	@Test
+	void insertUsingJdbcBatch()
+	{
+		insertAndAssertReadBackUnchanged(false);
+	}
+
+	private void insertAndAssertReadBackUnchanged(final boolean useCopy)
+	{
+		final ArrayList<ImpDataLine> lines = new ArrayList<>();
+		for (int i = 0; i < VALUES.size(); i++)
+		{
+			final String value = VALUES.get(i);
+			lines.add(ImpDataLine.builder()
+					.fileLineNo(i + 1)
+					.lineStr(value + "\t" + value)
+					.cell(ImpDataCell.value(value))
+					.cell(ImpDataCell.value(value))
+					.build());
+		}
+		// a missing value has to end up as NULL and not as empty string
+		lines.add(ImpDataLine.builder()
+				.fileLineNo(VALUES.size() + 1)
+				.cell(ImpDataCell.value("not null"))
+				.cell(ImpDataCell.value(null))
+				.build());
+
+		final InsertIntoImportTableResult result = SqlInsertIntoImportTableCommand.builder()
+				.importFormat(importFormat)
+				.clientId(ClientId.METASFRESH)
+				.orgId(OrgId.ANY)
+				.userId(UserId.METASFRESH)
+				.dataImportRunId(dataImportRunId)
+				.linesStream(lines.stream())
+				.useCopy(useCopy)
+				.build()
+				.execute();
+		assertThat(result.getCountValidRows()).isEqualTo(lines.size());
+
+		final List<I_I_BPartner> importRecords = Services.get(IQueryBL.class)
+				.createQueryBuilder(I_I_BPartner.class)
+				.addEqualsFilter(I_I_BPartner.COLUMNNAME_C_DataImport_Run_ID, dataImportRunId.getRepoId())
+				.orderBy(I_I_BPartner.COLUMNNAME_I_LineNo)
+				.create()
+				.list();
+		assertThat(importRecords).hasSize(lines.size());
+
+		for (int i = 0; i < VALUES.size(); i++)
+		{
+			final String value = VALUES.get(i);
+			final I_I_BPartner importRecord = importRecords.get(i);
+			assertThat(importRecord.getI_LineNo()).isEqualTo(i + 1);
+			assertThat(importRecord.getName()).isEqualTo(value);
+			assertThat(importRecord.getDescription()).isEqualTo(value);
+			assertThat(importRecord.getI_LineContent()).isEqualTo(value + "\t" + value);
+			assertThat(importRecord.getI_ErrorMsg()).isNull();
+		}
+
+		final I_I_BPartner lastImportRecord = importRecords.get(VALUES.size());
+		assertThat(lastImportRecord.getName()).isEqualTo("not null");
+		assertThat(lastImportRecord.getDescription()).isNull();
+		assertThat(lastImportRecord.getI_LineContent()).isNull();
+	}
+}
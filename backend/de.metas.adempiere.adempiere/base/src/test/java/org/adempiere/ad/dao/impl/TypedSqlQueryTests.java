@@ -1,10 +1,17 @@
 package org.adempiere.ad.dao.impl;
 
+import com.google.common.collect.ImmutableList;
 import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.test.AdempiereTestHelper;
 import org.assertj.core.api.AbstractCharSequenceAssert;
+import org.compiere.model.IQuery;
 import org.compiere.model.I_AD_Table;
 import org.compiere.model.I_C_OrderLine;
+import org.compiere.model.POInfoTestHelper;
+import org.compiere.util.DisplayType;
 import org.compiere.util.Env;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
@@ -174,4 +181,108 @@ public class TypedSqlQueryTests
 											  + ")\n");
 		}
 	}
+
+	@Nested
+	public class loadOnlyColumnNames
+	{
+		private static final String COLUMNNAME_LazyColumn = "LazyColumn";
+
+		private final Properties ctx = new Properties();
+
+		@BeforeEach
+		public void init()
+		{
+			AdempiereTestHelper.get().init();
+		}
+
+		private TypedSqlQuery<I_C_OrderLine> newQuery(final String whereClause)
+		{
+			final TypedSqlQuery<I_C_OrderLine> query = new TypedSqlQuery<>(ctx, I_C_OrderLine.class, whereClause, ITrx.TRXNAME_None);
+			query.setPOInfo(POInfoTestHelper.newPOInfo(I_C_OrderLine.Table_Name)
+									.keyColumn(I_C_OrderLine.COLUMNNAME_C_OrderLine_ID)
+									.column(I_C_OrderLine.COLUMNNAME_M_Product_ID, DisplayType.Search)
+									.column(I_C_OrderLine.COLUMNNAME_QtyEntered, DisplayType.Quantity)
+									.column(I_C_OrderLine.COLUMNNAME_Description, DisplayType.Text)
+									.lazyColumn(COLUMNNAME_LazyColumn, DisplayType.Text)
+									.build());
+			return query;
+		}
+
+		@Test
+		public void notSet_allNotLazyColumnsAreSelected()
+		{
+			final TypedSqlQuery<I_C_OrderLine> query = newQuery("M_Product_ID=1000002");
+
+			assertThat(query.buildSQLForModels()).isEqualTo("SELECT C_OrderLine_ID,M_Product_ID,QtyEntered,Description  FROM C_OrderLine\n"
+																	 + " WHERE (M_Product_ID=1000002)");
+			assertThat(query.isReturnReadOnlyModels()).isFalse();
+		}
+
+		@Test
+		public void onlyKeyAndGivenColumnsAreSelected()
+		{
+			final TypedSqlQuery<I_C_OrderLine> query = newQuery("M_Product_ID=1000002");
+			query.setOption(IQuery.OPTION_LoadOnlyColumnNames, ImmutableList.of(I_C_OrderLine.COLUMNNAME_QtyEntered));
+
+			assertThat(query.buildSQLForModels()).isEqualTo("SELECT C_OrderLine_ID,QtyEntered  FROM C_OrderLine\n"
+																	 + " WHERE (M_Product_ID=1000002)");
+		}
+
+		@Test
+		public void lazyColumnsAreNeverSelected()
+		{
+			final TypedSqlQuery<I_C_OrderLine> query = newQuery("M_Product_ID=1000002");
+			query.setOption(IQuery.OPTION_LoadOnlyColumnNames, ImmutableList.of(COLUMNNAME_LazyColumn));
+
+			assertThat(query.buildSQLForModels()).isEqualTo("SELECT C_OrderLine_ID  FROM C_OrderLine\n"
+																	 + " WHERE (M_Product_ID=1000002)");
+		}
+
+		@Test
+		public void unknownColumn()
+		{
+			final TypedSqlQuery<I_C_OrderLine> query = newQuery("M_Product_ID=1000002");
+			query.setOption(IQuery.OPTION_LoadOnlyColumnNames, ImmutableList.of("NotExistingColumn"));
+
+			assertThatThrownBy(query::buildSQLForModels)
+					.isInstanceOf(AdempiereException.class)
+					.hasMessageContaining("NotExistingColumn");
+		}
+
+		@Test
+		public void unionQueriesAreSelectingTheSameColumns()
+		{
+			final TypedSqlQuery<I_C_OrderLine> query = newQuery("M_Product_ID=1000002");
+			query.setOption(IQuery.OPTION_LoadOnlyColumnNames, ImmutableList.of(I_C_OrderLine.COLUMNNAME_QtyEntered));
+			query.addUnion(new TypedSqlQuery<>(ctx, I_C_OrderLine.class, "M_Product_ID=1000003", ITrx.TRXNAME_None), true);
+
+			assertThat(query.buildSQLForModels()).isEqualTo("SELECT C_OrderLine_ID,QtyEntered  FROM C_OrderLine\n"
+																	 + " WHERE (M_Product_ID=1000002)\n"
+																	 + "UNION DISTINCT\n"
+																	 + "(\n"
+																	 + "SELECT C_OrderLine_ID,QtyEntered  FROM C_OrderLine\n"
+																	 + " WHERE (M_Product_ID=1000003)\n"
+																	 + ")\n");
+		}
+
+		@Test
+		public void returnedModelsAreReadOnly()
+		{
+			final TypedSqlQuery<I_C_OrderLine> query = newQuery("M_Product_ID=1000002");
+			query.setOption(IQuery.OPTION_LoadOnlyColumnNames, ImmutableList.of(I_C_OrderLine.COLUMNNAME_QtyEntered));
+
+			assertThat(query.isReturnReadOnlyModels()).isTrue();
+		}
+
+		@Test
+		public void emptyColumnNames_sameAsNotSet()
+		{
+			final TypedSqlQuery<I_C_OrderLine> query = newQuery("M_Product_ID=1000002");
+			query.setOption(IQuery.OPTION_LoadOnlyColumnNames, ImmutableList.of());
+
+			assertThat(query.buildSQLForModels()).isEqualTo("SELECT C_OrderLine_ID,M_Product_ID,QtyEntered,Description  FROM C_OrderLine\n"
+																	 + " WHERE (M_Product_ID=1000002)");
+			assertThat(query.isReturnReadOnlyModels()).isFalse();
+		}
+	}
 }
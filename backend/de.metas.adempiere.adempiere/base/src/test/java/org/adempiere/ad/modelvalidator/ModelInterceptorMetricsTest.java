@@ -0,0 +1,67 @@
+package org.adempiere.ad.modelvalidator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.adempiere.ad.modelvalidator.ModelInterceptorMetrics.InvocationStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ModelInterceptorMetricsTest
+{
+	@Test
+	public void test_getInvocationStats_sameInstanceForSameInterceptorAndEventType()
+	{
+		final InvocationStats stats1 = ModelInterceptorMetrics.instance.getInvocationStats("test_sameInstance", ModelChangeType.BEFORE_NEW);
+		final InvocationStats stats2 = ModelInterceptorMetrics.instance.getInvocationStats("test_sameInstance", ModelChangeType.AFTER_CHANGE);
+		final InvocationStats stats3 = ModelInterceptorMetrics.instance.getInvocationStats("test_sameInstance", DocTimingType.BEFORE_COMPLETE);
+
+		assertThat(stats1).isSameAs(stats2);
+		assertThat(stats1).isNotSameAs(stats3);
+	}
+
+	@Test
+	public void test_recordAndPublish()
+	{
+		final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		ModelInterceptorMetrics.instance.bindTo(meterRegistry);
+
+		final InvocationStats stats = ModelInterceptorMetrics.instance.getInvocationStats("test_recordAndPublish", DocTimingType.AFTER_COMPLETE);
+		stats.record(100);
+		stats.record(50);
+
+		assertThat(stats.getCount()).isEqualTo(2);
+		assertThat(stats.getTotalNanos()).isEqualTo(150);
+
+		final FunctionTimer timer = meterRegistry.get("mf.modelInterceptor.invocations")
+				.tag("interceptor", "test_recordAndPublish")
+				.tag("eventType", "docValidate")
+				.functionTimer();
+		assertThat(timer.count()).isEqualTo(2);
+		assertThat(timer.totalTime(TimeUnit.NANOSECONDS)).isEqualTo(150);
+	}
+}
@@ -0,0 +1,112 @@
+package org.adempiere.ad.persistence;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.ad.persistence.InMemoryGeneratedModelDelegate.I_Test_GeneratedModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the generated model classes with the {@link java.lang.reflect.Proxy} based wrapping, as done by {@link org.adempiere.model.POWrapper}.
+ * <p>
+ * Not a unit test; run it using {@link #main(String[])}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GeneratedModelClassBenchmark
+{
+	private I_Test_GeneratedModel proxyModel;
+	private I_Test_GeneratedModel generatedModel;
+
+	@Setup
+	public void setup()
+	{
+		final InMemoryGeneratedModelDelegate delegate = new InMemoryGeneratedModelDelegate();
+		proxyModel = delegate.createProxy(I_Test_GeneratedModel.class);
+		generatedModel = delegate.createGeneratedModel(I_Test_GeneratedModel.class);
+
+		proxyModel.setQty(10);
+		proxyModel.setAmount(BigDecimal.TEN);
+		proxyModel.setName("name");
+		proxyModel.setIsActive(true);
+	}
+
+	@Benchmark
+	public void getters_proxy(final Blackhole blackhole)
+	{
+		readAll(proxyModel, blackhole);
+	}
+
+	@Benchmark
+	public void getters_generated(final Blackhole blackhole)
+	{
+		readAll(generatedModel, blackhole);
+	}
+
+	@Benchmark
+	public void setter_proxy()
+	{
+		proxyModel.setQty(11);
+	}
+
+	@Benchmark
+	public void setter_generated()
+	{
+		generatedModel.setQty(11);
+	}
+
+	private static void readAll(final I_Test_GeneratedModel model, final Blackhole blackhole)
+	{
+		blackhole.consume(model.getQty());
+		blackhole.consume(model.getAmount());
+		blackhole.consume(model.getName());
+		blackhole.consume(model.isActive());
+	}
+
+	public static void main(final String[] args) throws RunnerException
+	{
+		new Runner(new OptionsBuilder()
+				.include(GeneratedModelClassBenchmark.class.getSimpleName())
+				.build())
+				.run();
+	}
+}
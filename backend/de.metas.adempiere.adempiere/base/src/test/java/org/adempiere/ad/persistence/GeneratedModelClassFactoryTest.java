@@ -0,0 +1,101 @@
+package org.adempiere.ad.persistence;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+
+import org.adempiere.ad.persistence.InMemoryGeneratedModelDelegate.I_Test_GeneratedModel;
+import org.junit.jupiter.api.Test;
+
+public class GeneratedModelClassFactoryTest
+{
+	@Test
+	public void test_gettersAndSetters()
+	{
+		final InMemoryGeneratedModelDelegate delegate = new InMemoryGeneratedModelDelegate();
+		final I_Test_GeneratedModel model = delegate.createGeneratedModel(I_Test_GeneratedModel.class);
+		assertThat(model).isInstanceOf(AbstractGeneratedModel.class);
+		assertThat(GeneratedModelClassFactory.getDelegateOrNull(model)).isSameAs(delegate);
+
+		// defaults
+		assertThat(model.getQty()).isEqualTo(0);
+		assertThat(model.getAmount()).isEqualByComparingTo(BigDecimal.ZERO);
+		assertThat(model.getName()).isNull();
+		assertThat(model.isActive()).isFalse();
+		assertThat(model.getDescription()).isNull();
+
+		model.setQty(12);
+		model.setAmount(new BigDecimal("34.5"));
+		model.setName("name1");
+		model.setIsActive(true);
+
+		assertThat(model.getQty()).isEqualTo(12);
+		assertThat(model.getAmount()).isEqualByComparingTo("34.5");
+		assertThat(model.getName()).isEqualTo("name1");
+		assertThat(model.isActive()).isTrue();
+	}
+
+	@Test
+	public void test_sameBehaviorAsProxy()
+	{
+		final InMemoryGeneratedModelDelegate delegate = new InMemoryGeneratedModelDelegate();
+		final I_Test_GeneratedModel model = delegate.createGeneratedModel(I_Test_GeneratedModel.class);
+		final I_Test_GeneratedModel proxy = delegate.createProxy(I_Test_GeneratedModel.class);
+
+		proxy.setQty(7);
+		proxy.setName("fromProxy");
+		assertThat(model.getQty()).isEqualTo(proxy.getQty()).isEqualTo(7);
+		assertThat(model.getName()).isEqualTo(proxy.getName()).isEqualTo("fromProxy");
+		assertThat(model.isActive()).isEqualTo(proxy.isActive());
+		assertThat(model.toString()).isEqualTo(proxy.toString());
+	}
+
+	@Test
+	public void test_getters_doNotLookupColumnIndexes()
+	{
+		final InMemoryGeneratedModelDelegate delegate = new InMemoryGeneratedModelDelegate();
+		final I_Test_GeneratedModel model = delegate.createGeneratedModel(I_Test_GeneratedModel.class);
+		final int countGetColumnIndexCallsAfterCreate = delegate.getCountGetColumnIndexCalls();
+
+		model.getQty();
+		model.getAmount();
+		model.isActive();
+		model.getDescription();
+
+		assertThat(delegate.getCountGetColumnIndexCalls()).isEqualTo(countGetColumnIndexCallsAfterCreate);
+	}
+
+	@Test
+	public void test_equals()
+	{
+		final InMemoryGeneratedModelDelegate delegate = new InMemoryGeneratedModelDelegate();
+		final I_Test_GeneratedModel model1 = delegate.createGeneratedModel(I_Test_GeneratedModel.class);
+		final I_Test_GeneratedModel model2 = delegate.createGeneratedModel(I_Test_GeneratedModel.class);
+		final I_Test_GeneratedModel otherModel = new InMemoryGeneratedModelDelegate().createGeneratedModel(I_Test_GeneratedModel.class);
+
+		assertThat(model1).isEqualTo(model2);
+		assertThat(model1).isNotEqualTo(otherModel);
+	}
+}
@@ -0,0 +1,224 @@
+package org.adempiere.ad.persistence;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Array backed {@link IGeneratedModelDelegate}, which mimics how the {@link org.adempiere.model.POWrapper} is accessing a PO by column index.
+ * <p>
+ * It can back both a generated model instance and a {@link Proxy} (invoked the same way as the POWrapper does), so the two can be compared without a database.
+ */
+class InMemoryGeneratedModelDelegate implements IGeneratedModelDelegate
+{
+	/**
+	 * Test model interface
+	 */
+	public interface I_Test_GeneratedModel
+	{
+		String Table_Name = "Test_GeneratedModel";
+
+		int getQty();
+
+		void setQty(int qty);
+
+		BigDecimal getAmount();
+
+		void setAmount(BigDecimal amount);
+
+		String getName();
+
+		void setName(String name);
+
+		boolean isActive();
+
+		void setIsActive(boolean active);
+
+		String getDescription(); // no such column
+	}
+
+	/** shared by all instances, like the POInfo */
+	private static final ColumnsLayout COLUMNS_LAYOUT = new ColumnsLayout(ImmutableList.of("Qty", "Amount", "Name", "IsActive"));
+
+	private final ColumnsLayout columnsLayout = COLUMNS_LAYOUT;
+	private final Object[] values = new Object[columnsLayout.columnNames.size()];
+	private int countGetColumnIndexCalls = 0;
+
+	public <T> T createGeneratedModel(final Class<T> modelClass)
+	{
+		return GeneratedModelClassFactory.instance.newInstanceOrNull(modelClass, this);
+	}
+
+	/**
+	 * @return proxy which is invoked exactly like the {@link org.adempiere.model.POWrapper} does
+	 */
+	public <T> T createProxy(final Class<T> modelClass)
+	{
+		final IModelClassInfo modelClassInfo = ModelClassIntrospector.getInstance().getModelClassInfo(modelClass);
+		return modelClass.cast(Proxy.newProxyInstance(
+				modelClass.getClassLoader(),
+				new Class<?>[] { modelClass },
+				(proxy, method, args) -> modelClassInfo.getMethodInfo(method).invoke(accessor, args)));
+	}
+
+	@Override
+	public IModelInternalAccessor getModelInternalAccessor()
+	{
+		return accessor;
+	}
+
+	@Override
+	public Object getColumnsLayoutKey()
+	{
+		return columnsLayout;
+	}
+
+	public int getCountGetColumnIndexCalls()
+	{
+		return countGetColumnIndexCalls;
+	}
+
+	private static final class ColumnsLayout
+	{
+		private final ImmutableList<String> columnNames;
+
+		private ColumnsLayout(final ImmutableList<String> columnNames)
+		{
+			this.columnNames = columnNames;
+		}
+	}
+
+	private final IModelInternalAccessor accessor = new IModelInternalAccessor()
+	{
+		@Override
+		public Set<String> getColumnNames()
+		{
+			return ImmutableSet.copyOf(columnsLayout.columnNames);
+		}
+
+		@Override
+		public int getColumnIndex(final String columnName)
+		{
+			countGetColumnIndexCalls++;
+			return columnsLayout.columnNames.indexOf(columnName);
+		}
+
+		@Override
+		public boolean isVirtualColumn(final String columnName)
+		{
+			return false;
+		}
+
+		@Override
+		public boolean isKeyColumnName(final String columnName)
+		{
+			return false;
+		}
+
+		@Override
+		public boolean isCalculated(final String columnName)
+		{
+			return false;
+		}
+
+		@Override
+		public boolean hasColumnName(final String columnName)
+		{
+			return columnsLayout.columnNames.contains(columnName);
+		}
+
+		@Override
+		public Object getValue(final String columnName, final int columnIndex, final Class<?> returnType)
+		{
+			final Object value = values[columnIndex];
+			if (boolean.class.equals(returnType))
+			{
+				return value != null && (Boolean)value;
+			}
+			return value;
+		}
+
+		@Override
+		public Object getValue(final String columnName, final Class<?> returnType)
+		{
+			return getValue(columnName, getColumnIndex(columnName), returnType);
+		}
+
+		@Override
+		public boolean setValue(final String columnName, final Object value)
+		{
+			final int columnIndex = getColumnIndex(columnName);
+			if (columnIndex < 0)
+			{
+				return false;
+			}
+			values[columnIndex] = value;
+			return true;
+		}
+
+		@Override
+		public boolean setValueNoCheck(final String columnName, final Object value)
+		{
+			return setValue(columnName, value);
+		}
+
+		@Override
+		public Object getReferencedObject(final String columnName, final Method interfaceMethod)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void setValueFromPO(final String idColumnName, final Class<?> parameterType, final Object value)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean invokeEquals(final Object[] methodArgs)
+		{
+			final Object other = methodArgs[0];
+			return other instanceof AbstractGeneratedModel
+					&& ((AbstractGeneratedModel)other).get_GeneratedModelDelegate() == InMemoryGeneratedModelDelegate.this;
+		}
+
+		@Override
+		public Object invokeParent(final Method method, final Object[] methodArgs) throws Exception
+		{
+			return method.invoke(InMemoryGeneratedModelDelegate.this, methodArgs);
+		}
+	};
+
+	@Override
+	public String toString()
+	{
+		return "InMemoryGeneratedModelDelegate" + Arrays.toString(values);
+	}
+}
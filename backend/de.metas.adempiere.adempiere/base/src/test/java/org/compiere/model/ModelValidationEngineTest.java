@@ -0,0 +1,346 @@
+package org.compiere.model;
+
+import com.google.common.collect.ImmutableList;
+import lombok.NonNull;
+import org.adempiere.ad.modelvalidator.DocTimingType;
+import org.adempiere.ad.modelvalidator.IModelInterceptor;
+import org.adempiere.ad.modelvalidator.IModelValidationEngine;
+import org.adempiere.ad.modelvalidator.ModelChangeType;
+import org.adempiere.ad.modelvalidator.ModelInterceptor2ModelValidatorWrapper;
+import org.adempiere.ad.modelvalidator.annotations.DocValidate;
+import org.adempiere.ad.modelvalidator.annotations.Interceptor;
+import org.adempiere.ad.modelvalidator.annotations.ModelChange;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.ModelValidationEngine.DispatchedInterceptor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+class ModelValidationEngineTest
+{
+	private static final int CLIENT_ID = 1000000;
+	private static final int OTHER_CLIENT_ID = 1000001;
+
+	private ModelValidationEngine engine;
+
+	@BeforeEach
+	void init()
+	{
+		AdempiereTestHelper.get().init();
+		engine = new ModelValidationEngine();
+	}
+
+	@Test
+	void getModelChangeInterceptors_systemBeforeClientInterceptors()
+	{
+		engine.addModelChange(I_Test.Table_Name, new TestInterceptor("client", CLIENT_ID));
+		engine.addModelChange(I_Test.Table_Name, new TestInterceptor("system", -1));
+
+		assertThat(getModelChangeInterceptorNames(CLIENT_ID, ModelChangeType.BEFORE_NEW)).containsExactly("system", "client");
+	}
+
+	@Test
+	void getModelChangeInterceptors_builtOnlyOnce()
+	{
+		engine.addModelChange(I_Test.Table_Name, new TestInterceptor("system", -1));
+
+		final ImmutableList<DispatchedInterceptor> interceptors = engine.getModelChangeInterceptors(I_Test.Table_Name, CLIENT_ID, ModelChangeType.BEFORE_NEW);
+
+		assertThat(engine.getModelChangeInterceptors(I_Test.Table_Name, CLIENT_ID, ModelChangeType.BEFORE_NEW)).isSameAs(interceptors);
+	}
+
+	@Test
+	void getModelChangeInterceptors_clientInterceptorOnlyForItsClient()
+	{
+		engine.addModelChange(I_Test.Table_Name, new TestInterceptor("client", CLIENT_ID));
+
+		assertThat(getModelChangeInterceptorNames(CLIENT_ID, ModelChangeType.BEFORE_NEW)).containsExactly("client");
+		assertThat(getModelChangeInterceptorNames(OTHER_CLIENT_ID, ModelChangeType.BEFORE_NEW)).isEmpty();
+	}
+
+	@Test
+	void getModelChangeInterceptors_otherTable()
+	{
+		engine.addModelChange(I_Test.Table_Name, new TestInterceptor("system", -1));
+
+		assertThat(engine.getModelChangeInterceptors(I_AD_Note.Table_Name, CLIENT_ID, ModelChangeType.BEFORE_NEW)).isEmpty();
+	}
+
+	@Test
+	void getModelChangeInterceptors_onlyApplicableTimings()
+	{
+		engine.addModelChange(I_Test.Table_Name, new TestInterceptor("beforeNew", -1, ModelChangeType.BEFORE_NEW));
+		engine.addModelChange(I_Test.Table_Name, new TestInterceptor("all", -1));
+
+		assertThat(getModelChangeInterceptorNames(CLIENT_ID, ModelChangeType.BEFORE_NEW)).containsExactly("beforeNew", "all");
+		assertThat(getModelChangeInterceptorNames(CLIENT_ID, ModelChangeType.AFTER_CHANGE)).containsExactly("all");
+	}
+
+	@Test
+	void annotatedInterceptor_onlyForItsPointcuts()
+	{
+		engine.addModelValidator(new TestAnnotatedInterceptor());
+
+		final String name = "annotated[" + TestAnnotatedInterceptor.class.getName() + "]";
+		assertThat(getModelChangeInterceptorNames(CLIENT_ID, ModelChangeType.BEFORE_NEW)).containsExactly(name);
+		assertThat(getModelChangeInterceptorNames(CLIENT_ID, ModelChangeType.AFTER_NEW)).isEmpty();
+		assertThat(getDocValidateInterceptorNames(DocTimingType.AFTER_COMPLETE)).containsExactly(name);
+		assertThat(getDocValidateInterceptorNames(DocTimingType.BEFORE_COMPLETE)).isEmpty();
+	}
+
+	@Test
+	void annotatedInterceptor_notBatchInsertCompatibleByDefault()
+	{
+		engine.addModelValidator(new TestAnnotatedInterceptor());
+
+		assertThat(isBatchInsertCompatible(ModelChangeType.BEFORE_NEW)).containsExactly(false);
+	}
+
+	@Test
+	void annotatedInterceptor_batchInsertCompatible()
+	{
+		engine.addModelValidator(new TestBatchInsertCompatibleInterceptor());
+
+		assertThat(isBatchInsertCompatible(ModelChangeType.BEFORE_NEW)).containsExactly(true);
+		assertThat(isBatchInsertCompatible(ModelChangeType.AFTER_NEW)).containsExactly(false);
+	}
+
+	@Test
+	void customInterceptor_notBatchInsertCompatibleByDefault()
+	{
+		engine.addModelChange(I_Test.Table_Name, new TestInterceptor("system", -1));
+
+		assertThat(isBatchInsertCompatible(ModelChangeType.BEFORE_NEW)).containsExactly(false);
+	}
+
+	@Test
+	void addAndRemoveModelChange_resetsDispatchTable()
+	{
+		final TestInterceptor interceptor = new TestInterceptor("system", -1);
+		assertThat(getModelChangeInterceptorNames(CLIENT_ID, ModelChangeType.BEFORE_NEW)).isEmpty();
+
+		engine.addModelChange(I_Test.Table_Name, interceptor);
+		assertThat(getModelChangeInterceptorNames(CLIENT_ID, ModelChangeType.BEFORE_NEW)).containsExactly("system");
+
+		engine.removeModelChange(I_Test.Table_Name, interceptor);
+		assertThat(getModelChangeInterceptorNames(CLIENT_ID, ModelChangeType.BEFORE_NEW)).isEmpty();
+	}
+
+	@Test
+	void addAndRemoveDocValidate_resetsDispatchTable()
+	{
+		final TestInterceptor interceptor = new TestInterceptor("system", -1);
+		assertThat(getDocValidateInterceptorNames(DocTimingType.AFTER_COMPLETE)).isEmpty();
+
+		engine.addDocValidate(I_Test.Table_Name, interceptor);
+		assertThat(getDocValidateInterceptorNames(DocTimingType.AFTER_COMPLETE)).containsExactly("system");
+
+		engine.removeDocValidate(I_Test.Table_Name, ModelInterceptor2ModelValidatorWrapper.wrapIfNeeded(interceptor));
+		assertThat(getDocValidateInterceptorNames(DocTimingType.AFTER_COMPLETE)).isEmpty();
+	}
+
+	@Test
+	void lateRegistration_afterFirstDispatch()
+	{
+		engine.addModelChange(I_Test.Table_Name, new TestInterceptor("system", -1));
+		assertThat(getModelChangeInterceptorNames(CLIENT_ID, ModelChangeType.BEFORE_NEW)).containsExactly("system");
+		assertThat(getModelChangeInterceptorNames(OTHER_CLIENT_ID, ModelChangeType.BEFORE_NEW)).containsExactly("system");
+		assertThat(getDocValidateInterceptorNames(DocTimingType.AFTER_COMPLETE)).isEmpty();
+
+		engine.addModelChange(I_Test.Table_Name, new TestInterceptor("client", CLIENT_ID));
+		engine.addModelValidator(new TestAnnotatedInterceptor());
+
+		final String annotatedName = "annotated[" + TestAnnotatedInterceptor.class.getName() + "]";
+		assertThat(getModelChangeInterceptorNames(CLIENT_ID, ModelChangeType.BEFORE_NEW)).containsExactlyInAnyOrder("system", annotatedName, "client");
+		assertThat(getModelChangeInterceptorNames(OTHER_CLIENT_ID, ModelChangeType.BEFORE_NEW)).containsExactlyInAnyOrder("system", annotatedName);
+		assertThat(getDocValidateInterceptorNames(DocTimingType.AFTER_COMPLETE)).containsExactly(annotatedName);
+	}
+
+	@Test
+	void removal_afterFirstDispatch()
+	{
+		final TestInterceptor interceptor = new TestInterceptor("system", -1);
+		engine.addModelChange(I_Test.Table_Name, interceptor);
+		engine.addModelChange(I_Test.Table_Name, new TestInterceptor("other", -1));
+		engine.addDocValidate(I_Test.Table_Name, interceptor);
+		assertThat(getModelChangeInterceptorNames(CLIENT_ID, ModelChangeType.BEFORE_NEW)).containsExactly("system", "other");
+		assertThat(getModelChangeInterceptorNames(CLIENT_ID, ModelChangeType.AFTER_CHANGE)).containsExactly("system", "other");
+		assertThat(getDocValidateInterceptorNames(DocTimingType.AFTER_COMPLETE)).containsExactly("system");
+
+		engine.removeModelChange(I_Test.Table_Name, interceptor);
+		assertThat(getModelChangeInterceptorNames(CLIENT_ID, ModelChangeType.BEFORE_NEW)).containsExactly("other");
+		assertThat(getModelChangeInterceptorNames(CLIENT_ID, ModelChangeType.AFTER_CHANGE)).containsExactly("other");
+		assertThat(getDocValidateInterceptorNames(DocTimingType.AFTER_COMPLETE)).containsExactly("system"); // still registered for the document events
+
+		engine.removeDocValidate(I_Test.Table_Name, ModelInterceptor2ModelValidatorWrapper.wrapIfNeeded(interceptor));
+		assertThat(getDocValidateInterceptorNames(DocTimingType.AFTER_COMPLETE)).isEmpty();
+	}
+
+	/**
+	 * Registers an interceptor while another thread is building the dispatch table entry from the previous interceptors.
+	 * The registration must not wait for the other thread, and the entry built by that thread must not be used afterwards.
+	 */
+	@Test
+	void registrationWhileBuildingDispatchTable_isNotLost() throws Exception
+	{
+		final CountDownLatch building = new CountDownLatch(1);
+		final CountDownLatch registered = new CountDownLatch(1);
+		engine.addModelChange(I_Test.Table_Name, new TestInterceptor("client", CLIENT_ID)
+		{
+			@Override
+			public boolean isModelChangeApplicable(final String tableName, final ModelChangeType changeType)
+			{
+				building.countDown();
+				try
+				{
+					registered.await(30, TimeUnit.SECONDS);
+				}
+				catch (final InterruptedException e)
+				{
+					throw new RuntimeException(e);
+				}
+				return true;
+			}
+		});
+
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		try
+		{
+			final Future<List<String>> namesBuiltConcurrently = executor.submit(() -> getModelChangeInterceptorNames(CLIENT_ID, ModelChangeType.BEFORE_NEW));
+			assertThat(building.await(10, TimeUnit.SECONDS)).isTrue();
+
+			// the system interceptors come first, so the other thread is already done with them
+			assertTimeoutPreemptively(Duration.ofSeconds(5), () -> engine.addModelChange(I_Test.Table_Name, new TestInterceptor("late", -1)));
+			registered.countDown();
+
+			assertThat(namesBuiltConcurrently.get(30, TimeUnit.SECONDS)).containsExactly("client");
+			assertThat(getModelChangeInterceptorNames(CLIENT_ID, ModelChangeType.BEFORE_NEW)).containsExactly("late", "client");
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+
+	private List<String> getModelChangeInterceptorNames(final int adClientId, final ModelChangeType changeType)
+	{
+		return toNames(engine.getModelChangeInterceptors(I_Test.Table_Name, adClientId, changeType));
+	}
+
+	private List<Boolean> isBatchInsertCompatible(final ModelChangeType changeType)
+	{
+		return engine.getModelChangeInterceptors(I_Test.Table_Name, CLIENT_ID, changeType)
+				.stream()
+				.map(interceptor -> ((ModelInterceptor2ModelValidatorWrapper)interceptor.getValidator()).isBatchInsertCompatible(I_Test.Table_Name, changeType))
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	private List<String> getDocValidateInterceptorNames(final DocTimingType docTiming)
+	{
+		return toNames(engine.getDocValidateInterceptors(I_Test.Table_Name, CLIENT_ID, docTiming));
+	}
+
+	private static List<String> toNames(final List<DispatchedInterceptor> interceptors)
+	{
+		return interceptors.stream()
+				.map(interceptor -> interceptor.getValidator().toString())
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	private static class TestInterceptor implements IModelInterceptor
+	{
+		private final String name;
+		private final int adClientId;
+		private final ImmutableList<ModelChangeType> applicableChangeTypes;
+
+		private TestInterceptor(@NonNull final String name, final int adClientId, final ModelChangeType... applicableChangeTypes)
+		{
+			this.name = name;
+			this.adClientId = adClientId;
+			this.applicableChangeTypes = ImmutableList.copyOf(applicableChangeTypes);
+		}
+
+		@Override
+		public String toString()
+		{
+			return name;
+		}
+
+		@Override
+		public void initialize(final IModelValidationEngine engine, final I_AD_Client client)
+		{
+		}
+
+		@Override
+		public int getAD_Client_ID()
+		{
+			return adClientId;
+		}
+
+		@Override
+		public boolean isModelChangeApplicable(final String tableName, final ModelChangeType changeType)
+		{
+			return applicableChangeTypes.isEmpty() || applicableChangeTypes.contains(changeType);
+		}
+	}
+
+	@Interceptor(I_Test.class)
+	public static class TestAnnotatedInterceptor
+	{
+		@ModelChange(timings = ModelValidator.TYPE_BEFORE_NEW)
+		public void beforeNew(final I_Test record)
+		{
+		}
+
+		@DocValidate(timings = ModelValidator.TIMING_AFTER_COMPLETE)
+		public void afterComplete(final I_Test record)
+		{
+		}
+	}
+
+	@Interceptor(I_Test.class)
+	public static class TestBatchInsertCompatibleInterceptor
+	{
+		@ModelChange(timings = ModelValidator.TYPE_BEFORE_NEW, batchInsertCompatible = true)
+		public void beforeNew(final I_Test record)
+		{
+		}
+
+		@ModelChange(timings = ModelValidator.TYPE_AFTER_NEW)
+		public void afterNew(final I_Test record)
+		{
+		}
+	}
+}
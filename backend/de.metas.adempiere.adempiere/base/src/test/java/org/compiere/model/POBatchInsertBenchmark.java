@@ -0,0 +1,133 @@
+package org.compiere.model;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.util.DB;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import de.metas.organization.OrgId;
+import de.metas.util.Services;
+
+/**
+ * Measures saving 50k new {@link I_Test} records using {@link InterfaceWrapperHelper#saveAll(java.util.Collection)},
+ * once saved one by one and once saved using JDBC batches (see {@link POBatchInsert}).
+ * <p>
+ * Needs a database, which is set up like in {@link POBatchInsert_DBTest}. The created records are deleted after each iteration.
+ * <p>
+ * Not a unit test; run it using {@link #main(String[])}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class POBatchInsertBenchmark
+{
+	private static final String SYSCONFIG_Enabled = "de.metas.PO.BatchInsert.Enabled";
+
+	@Param({ "50000" })
+	public int recordsCount;
+
+	@Param({ "false", "true" })
+	public boolean batchInsertEnabled;
+
+	private String namePrefix;
+
+	@Setup(Level.Trial)
+	public void setup()
+	{
+		POBatchInsert_DBTest.setupAdempiere();
+		setBatchInsertEnabled(batchInsertEnabled);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown()
+	{
+		setBatchInsertEnabled(false);
+	}
+
+	@Setup(Level.Iteration)
+	public void newNamePrefix()
+	{
+		namePrefix = "POBatchInsertBenchmark_" + UUID.randomUUID() + "_";
+	}
+
+	@TearDown(Level.Iteration)
+	public void deleteRecords()
+	{
+		DB.executeUpdateAndThrowExceptionOnFail("DELETE FROM Test WHERE Name LIKE ?", new Object[] { namePrefix + "%" }, null);
+	}
+
+	private static void setBatchInsertEnabled(final boolean enabled)
+	{
+		Services.get(ISysConfigBL.class).setValue(SYSCONFIG_Enabled, enabled, ClientId.SYSTEM, OrgId.ANY);
+	}
+
+	@Benchmark
+	public void saveAll()
+	{
+		Services.get(ITrxManager.class).runInNewTrx(() -> {
+			final ArrayList<I_Test> records = new ArrayList<>(recordsCount);
+			for (int i = 1; i <= recordsCount; i++)
+			{
+				final I_Test record = InterfaceWrapperHelper.newInstance(I_Test.class);
+				record.setName(namePrefix + i);
+				records.add(record);
+			}
+
+			InterfaceWrapperHelper.saveAll(records);
+		});
+	}
+
+	public static void main(final String[] args) throws RunnerException
+	{
+		new Runner(new OptionsBuilder()
+				.include(POBatchInsertBenchmark.class.getSimpleName())
+				.build())
+				.run();
+	}
+}
@@ -0,0 +1,182 @@
+package org.compiere.model;
+
+import com.google.common.collect.ImmutableList;
+import lombok.NonNull;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+class POBatchInsertTest
+{
+	@Test
+	void isOverridingSaveHooks_generatedModel()
+	{
+		assertThat(POBatchInsert.isOverridingSaveHooks(X_AD_Note.class)).isFalse();
+	}
+
+	@Test
+	void isOverridingSaveHooks_subclassWithoutHooks()
+	{
+		assertThat(POBatchInsert.isOverridingSaveHooks(MAccessLog.class)).isFalse();
+	}
+
+	@Test
+	void isOverridingSaveHooks_subclassWithHooks()
+	{
+		assertThat(POBatchInsert.isOverridingSaveHooks(MAlertRule.class)).isTrue();
+	}
+
+	@Test
+	void isOverridingSaveHooks_inheritedHooks()
+	{
+		class MAlertRuleExt extends MAlertRule
+		{
+			private MAlertRuleExt()
+			{
+				super(null, 0, null);
+			}
+		}
+
+		assertThat(POBatchInsert.isOverridingSaveHooks(MAlertRuleExt.class)).isTrue();
+	}
+
+	@Test
+	void saveAll_nonPOsAreSavedOneByOne()
+	{
+		AdempiereTestHelper.get().init();
+
+		final ArrayList<Object> saved = new ArrayList<>();
+		POBatchInsert.saveAll(ImmutableList.of("A1", "A2", "A3"), saved::add);
+
+		assertThat(saved).containsExactly("A1", "A2", "A3");
+	}
+
+	/**
+	 * Test models are strings: the first character is the "table", models starting with {@code x} are not batchable.
+	 */
+	private static class BatcherTester
+	{
+		private final ArrayList<String> log = new ArrayList<>();
+		/** how often the before-new interceptors were called per record */
+		private final HashMap<String, Integer> beforeNewCalls = new HashMap<>();
+		private boolean batchInsertAllowed = true;
+		@Nullable private String failingBatchRecord = null;
+
+		private POBatchInsert.Batcher<String> newBatcher(final int maxBatchSize)
+		{
+			return POBatchInsert.Batcher.<String>builder()
+					.batchableExtractor(model -> ((String)model).startsWith("x") ? null : (String)model)
+					.sameBatchPredicate((first, record) -> first.charAt(0) == record.charAt(0))
+					.maxBatchSize(maxBatchSize)
+					.batchInsertAllowedPredicate(batch -> batchInsertAllowed)
+					.batchInserter(this::insertBatch)
+					.singleSaver(this::saveSingle)
+					.build();
+		}
+
+		private void saveSingle(@NonNull final Object model)
+		{
+			fireBeforeNew((String)model);
+			log.add("single:" + model);
+		}
+
+		private void insertBatch(@NonNull final List<String> batch)
+		{
+			batch.forEach(this::fireBeforeNew);
+			if (failingBatchRecord != null && batch.contains(failingBatchRecord))
+			{
+				throw new AdempiereException("batch failed");
+			}
+			log.add("batch:" + String.join(",", batch));
+		}
+
+		private void fireBeforeNew(@NonNull final String record)
+		{
+			beforeNewCalls.merge(record, 1, Integer::sum);
+		}
+	}
+
+	@Test
+	void batcher_groupsConsecutiveRecordsOfSameTable()
+	{
+		final BatcherTester tester = new BatcherTester();
+		tester.newBatcher(500).saveAll(ImmutableList.of("A1", "A2", "B1", "B2", "B3", "A3"));
+
+		assertThat(tester.log).containsExactly("batch:A1,A2", "batch:B1,B2,B3", "single:A3");
+	}
+
+	@Test
+	void batcher_notBatchableRecordFlushesPendingBatch()
+	{
+		final BatcherTester tester = new BatcherTester();
+		tester.newBatcher(500).saveAll(ImmutableList.of("A1", "A2", "x1", "A3", "A4"));
+
+		assertThat(tester.log).containsExactly("batch:A1,A2", "single:x1", "batch:A3,A4");
+	}
+
+	@Test
+	void batcher_maxBatchSize()
+	{
+		final BatcherTester tester = new BatcherTester();
+		tester.newBatcher(2).saveAll(ImmutableList.of("A1", "A2", "A3", "A4", "A5"));
+
+		assertThat(tester.log).containsExactly("batch:A1,A2", "batch:A3,A4", "single:A5");
+	}
+
+	@Test
+	void batcher_batchInsertNotAllowed()
+	{
+		final BatcherTester tester = new BatcherTester();
+		tester.batchInsertAllowed = false;
+		tester.newBatcher(500).saveAll(ImmutableList.of("A1", "A2", "A3"));
+
+		assertThat(tester.log).containsExactly("single:A1", "single:A2", "single:A3");
+	}
+
+	@Test
+	void batcher_failedBatchIsNotRetried()
+	{
+		final BatcherTester tester = new BatcherTester();
+		tester.failingBatchRecord = "B2";
+
+		assertThatThrownBy(() -> tester.newBatcher(500).saveAll(ImmutableList.of("A1", "A2", "B1", "B2", "B3", "C1", "C2")))
+				.hasMessageContaining("batch failed");
+
+		assertThat(tester.log).containsExactly("batch:A1,A2");
+		assertThat(tester.beforeNewCalls).containsOnly(
+				entry("A1", 1), entry("A2", 1),
+				entry("B1", 1), entry("B2", 1), entry("B3", 1));
+	}
+}
@@ -0,0 +1,294 @@
+package org.compiere.model;
+
+import com.google.common.collect.ImmutableList;
+import de.metas.organization.OrgId;
+import de.metas.util.Check;
+import de.metas.util.Services;
+import lombok.NonNull;
+import org.adempiere.ad.modelvalidator.IModelInterceptor;
+import org.adempiere.ad.modelvalidator.IModelValidationEngine;
+import org.adempiere.ad.modelvalidator.ModelChangeType;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.Adempiere.RunMode;
+import org.compiere.util.DB;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Database coupled test which makes sure that {@link POBatchInsert} is really inserting {@link I_Test} records using JDBC batches
+ * and is calling the model interceptors of the table as documented.
+ * <p>
+ * The created records are deleted again at the end of each test.
+ */
+@Disabled("requires database connection")
+class POBatchInsert_DBTest
+{
+	private static final String SYSCONFIG_Enabled = "de.metas.PO.BatchInsert.Enabled";
+	private static final int RECORDS_COUNT = 10;
+
+	public static void main(final String[] args)
+	{
+		setupAdempiere();
+
+		final POBatchInsert_DBTest test = new POBatchInsert_DBTest();
+
+		test.init();
+		test.batchInsertCompatibleInterceptor();
+		test.cleanup();
+
+		test.init();
+		test.notBatchInsertCompatibleInterceptor();
+		test.cleanup();
+	}
+
+	@BeforeAll
+	static void setupAdempiere()
+	{
+		//
+		// Use hardcoded default PropertyFile if none found
+		if (Check.isEmpty(System.getProperty("PropertyFile"), true))
+		{
+			final String propertyFile =
+					new File(".").getAbsolutePath() // e.g. C:\workspaces\\de.metas.adempiere.adempiere\base\
+							+ File.separator + ".." + File.separator + ".." // e.g. C:\workspaces\
+							+ File.separator + "de.metas.endcustomer."
+							+ File.separator + "Adempiere.properties_" + System.getProperty("user.name");
+			System.out.println("Set default PropertyFile=" + propertyFile);
+			System.setProperty("PropertyFile", propertyFile);
+		}
+
+		Env.getSingleAdempiereInstance(null).startup(RunMode.SWING_CLIENT);
+	}
+
+	private String namePrefix;
+	private RecordingInterceptor interceptor;
+
+	@BeforeEach
+	void init()
+	{
+		namePrefix = "POBatchInsert_DBTest_" + UUID.randomUUID() + "_";
+		setBatchInsertEnabled(true);
+	}
+
+	@AfterEach
+	void cleanup()
+	{
+		if (interceptor != null)
+		{
+			ModelValidationEngine.get().removeModelChange(I_Test.Table_Name, interceptor);
+			interceptor = null;
+		}
+
+		setBatchInsertEnabled(false);
+		DB.executeUpdateAndThrowExceptionOnFail("DELETE FROM Test WHERE Name LIKE ?", new Object[] { namePrefix + "%" }, null);
+	}
+
+	private static void setBatchInsertEnabled(final boolean enabled)
+	{
+		Services.get(ISysConfigBL.class).setValue(SYSCONFIG_Enabled, enabled, ClientId.SYSTEM, OrgId.ANY);
+	}
+
+	@Test
+	void batchInsertCompatibleInterceptor()
+	{
+		registerInterceptor(true);
+
+		final List<I_Test> records = saveAllInNewTrx();
+
+		// all before-new calls happened before any record was inserted, and the after-new calls came after all of them
+		assertThat(interceptor.getEvents()).isEqualTo(expectedEvents_batch());
+		assertThat(interceptor.getCountsInDatabaseBeforeNew()).containsOnly(0);
+
+		assertSaved(records);
+	}
+
+	@Test
+	void notBatchInsertCompatibleInterceptor()
+	{
+		registerInterceptor(false);
+
+		final List<I_Test> records = saveAllInNewTrx();
+
+		// the records were saved one by one, so each before-new call sees the previous records in the database
+		assertThat(interceptor.getEvents()).isEqualTo(expectedEvents_oneByOne());
+		final ArrayList<Integer> expectedCounts = new ArrayList<>();
+		for (int i = 0; i < RECORDS_COUNT; i++)
+		{
+			expectedCounts.add(i);
+		}
+		assertThat(interceptor.getCountsInDatabaseBeforeNew()).isEqualTo(expectedCounts);
+
+		assertSaved(records);
+	}
+
+	private void registerInterceptor(final boolean batchInsertCompatible)
+	{
+		interceptor = new RecordingInterceptor(namePrefix, batchInsertCompatible);
+		ModelValidationEngine.get().addModelChange(I_Test.Table_Name, interceptor);
+	}
+
+	private List<I_Test> saveAllInNewTrx()
+	{
+		final ArrayList<I_Test> records = new ArrayList<>();
+		Services.get(ITrxManager.class).runInNewTrx(() -> {
+			for (int i = 1; i <= RECORDS_COUNT; i++)
+			{
+				final I_Test record = InterfaceWrapperHelper.newInstance(I_Test.class);
+				record.setName(namePrefix + i);
+				records.add(record);
+			}
+
+			InterfaceWrapperHelper.saveAll(records);
+		});
+		return records;
+	}
+
+	private void assertSaved(final List<I_Test> records)
+	{
+		assertThat(records).allSatisfy(record -> assertThat(InterfaceWrapperHelper.isNew(record)).isFalse());
+		assertThat(records).extracting(I_Test::getTest_ID).doesNotContain(0).doesNotHaveDuplicates();
+
+		assertThat(countInDatabase(namePrefix, null)).isEqualTo(RECORDS_COUNT);
+
+		// the values set by the before-new interceptor were inserted too
+		final int countWithDescription = DB.getSQLValueEx(null, "SELECT COUNT(1) FROM Test WHERE Name LIKE ? AND Description=?", namePrefix + "%", RecordingInterceptor.DESCRIPTION);
+		assertThat(countWithDescription).isEqualTo(RECORDS_COUNT);
+	}
+
+	private List<String> expectedEvents_batch()
+	{
+		final ArrayList<String> events = new ArrayList<>();
+		for (int i = 1; i <= RECORDS_COUNT; i++)
+		{
+			events.add("beforeNew:" + namePrefix + i);
+		}
+		for (int i = 1; i <= RECORDS_COUNT; i++)
+		{
+			events.add("afterNew:" + namePrefix + i);
+		}
+		return events;
+	}
+
+	private List<String> expectedEvents_oneByOne()
+	{
+		final ArrayList<String> events = new ArrayList<>();
+		for (int i = 1; i <= RECORDS_COUNT; i++)
+		{
+			events.add("beforeNew:" + namePrefix + i);
+			events.add("afterNew:" + namePrefix + i);
+		}
+		return events;
+	}
+
+	private static int countInDatabase(@NonNull final String namePrefix, final String trxName)
+	{
+		return DB.getSQLValueEx(trxName, "SELECT COUNT(1) FROM Test WHERE Name LIKE ?", namePrefix + "%");
+	}
+
+	private static class RecordingInterceptor implements IModelInterceptor
+	{
+		private static final String DESCRIPTION = "set by RecordingInterceptor";
+
+		private final String namePrefix;
+		private final boolean batchInsertCompatible;
+
+		private final ArrayList<String> events = new ArrayList<>();
+		private final ArrayList<Integer> countsInDatabaseBeforeNew = new ArrayList<>();
+
+		private RecordingInterceptor(@NonNull final String namePrefix, final boolean batchInsertCompatible)
+		{
+			this.namePrefix = namePrefix;
+			this.batchInsertCompatible = batchInsertCompatible;
+		}
+
+		@Override
+		public void initialize(final IModelValidationEngine engine, final I_AD_Client client)
+		{
+		}
+
+		@Override
+		public int getAD_Client_ID()
+		{
+			return -1;
+		}
+
+		@Override
+		public boolean isModelChangeApplicable(final String tableName, final ModelChangeType changeType)
+		{
+			return changeType == ModelChangeType.BEFORE_NEW || changeType == ModelChangeType.AFTER_NEW;
+		}
+
+		@Override
+		public boolean isBatchInsertCompatible(final String tableName, final ModelChangeType changeType)
+		{
+			return batchInsertCompatible;
+		}
+
+		@Override
+		public void onModelChange(final Object model, final ModelChangeType changeType)
+		{
+			final I_Test record = InterfaceWrapperHelper.create(model, I_Test.class);
+			if (!record.getName().startsWith(namePrefix))
+			{
+				return;
+			}
+
+			if (changeType == ModelChangeType.BEFORE_NEW)
+			{
+				events.add("beforeNew:" + record.getName());
+				countsInDatabaseBeforeNew.add(countInDatabase(namePrefix, InterfaceWrapperHelper.getTrxName(record)));
+				record.setDescription(DESCRIPTION);
+			}
+			else if (changeType == ModelChangeType.AFTER_NEW)
+			{
+				events.add("afterNew:" + record.getName());
+			}
+		}
+
+		public List<String> getEvents()
+		{
+			return ImmutableList.copyOf(events);
+		}
+
+		public List<Integer> getCountsInDatabaseBeforeNew()
+		{
+			return ImmutableList.copyOf(countsInDatabaseBeforeNew);
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package org.compiere.model;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.adempiere.ad.column.AdColumnId;
+import org.adempiere.ad.table.api.AdTableId;
+import org.compiere.model.copy.ColumnCloningStrategy;
+import org.compiere.util.DisplayType;
+
+import lombok.NonNull;
+
+/**
+ * Builds {@link POInfo}s without loading them from database.
+ */
+public final class POInfoTestHelper
+{
+	public static POInfoTestHelper newPOInfo(@NonNull final String tableName)
+	{
+		return new POInfoTestHelper(tableName);
+	}
+
+	private final String tableName;
+	private final List<POInfoColumn> columns = new ArrayList<>();
+
+	private POInfoTestHelper(@NonNull final String tableName)
+	{
+		this.tableName = tableName;
+	}
+
+	public POInfoTestHelper keyColumn(@NonNull final String columnName)
+	{
+		columns.add(newColumn(columnName, DisplayType.ID, true));
+		return this;
+	}
+
+	public POInfoTestHelper column(@NonNull final String columnName, final int displayType)
+	{
+		columns.add(newColumn(columnName, displayType, false));
+		return this;
+	}
+
+	public POInfoTestHelper lazyColumn(@NonNull final String columnName, final int displayType)
+	{
+		final POInfoColumn column = newColumn(columnName, displayType, false);
+		column.IsLazyLoading = true;
+		columns.add(column);
+		return this;
+	}
+
+	public POInfo build()
+	{
+		return POInfo.ofColumns(tableName, AdTableId.ofRepoId(1), columns);
+	}
+
+	private POInfoColumn newColumn(final String columnName, final int displayType, final boolean isKey)
+	{
+		return new POInfoColumn(
+				AdColumnId.ofRepoId(columns.size() + 1),
+				tableName,
+				columnName,
+				null, // columnSQL
+				displayType,
+				isKey, // isMandatory
+				!isKey, // isUpdateable
+				null, // defaultLogic
+				columnName, // columnLabel
+				null, // columnDescription
+				isKey,
+				false, // isParent
+				null, // AD_Reference_Value_ID
+				null, // AD_Reference_Value_TableName
+				0, // AD_Reference_Value_KeyColumn_DisplayType
+				null, // AD_Val_Rule_ID
+				0, // fieldLength
+				null, // valueMin
+				null, // valueMax
+				false, // isTranslated
+				false, // isEncrypted
+				true, // isAllowLogging
+				false, // isRestAPICustomColumn
+				0, // AD_Sequence_ID
+				ColumnCloningStrategy.Auto,
+				false); // isIdentifier
+	}
+}
@@ -0,0 +1,233 @@
+package org.compiere.model;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Properties;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.compiere.model.POResultSetColumnMapping.ColumnReader;
+import org.compiere.util.DisplayType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+public class POResultSetColumnMappingTest
+{
+	private static final String COLUMNNAME_Test_Record_ID = "Test_Record_ID";
+	private static final String COLUMNNAME_Name = "Name";
+	private static final String COLUMNNAME_Description = "Description";
+	private static final String COLUMNNAME_Amount = "Amount";
+	private static final String COLUMNNAME_Note = "Note";
+
+	private static final POInfo POINFO = POInfoTestHelper.newPOInfo("Test_Record")
+			.keyColumn(COLUMNNAME_Test_Record_ID)
+			.column(COLUMNNAME_Name, DisplayType.String)
+			.column(COLUMNNAME_Description, DisplayType.Text)
+			.column(COLUMNNAME_Amount, DisplayType.Amount)
+			.lazyColumn(COLUMNNAME_Note, DisplayType.Text)
+			.build();
+
+	private static final ImmutableMap<String, Integer> SQL_TYPES = ImmutableMap.of(
+			COLUMNNAME_Test_Record_ID, Types.INTEGER,
+			COLUMNNAME_Name, Types.VARCHAR,
+			COLUMNNAME_Description, Types.VARCHAR,
+			COLUMNNAME_Amount, Types.NUMERIC);
+
+	private static final ImmutableMap<String, Object> VALUES = ImmutableMap.of(
+			COLUMNNAME_Test_Record_ID, 1000001,
+			COLUMNNAME_Name, "name",
+			COLUMNNAME_Description, "description",
+			COLUMNNAME_Amount, new BigDecimal("12.34"));
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	@Test
+	public void resolvePositions_caseInsensitive()
+	{
+		final int[] positions = POResultSetColumnMapping.resolvePositions(
+				ImmutableList.of("C_Order_ID", "GrandTotal", "IsActive"),
+				ImmutableList.of("isactive", "c_order_id", "grandtotal"));
+
+		assertThat(positions).containsExactly(2, 3, 1);
+	}
+
+	@Test
+	public void resolvePositions_columnsNotSelected()
+	{
+		final int[] positions = POResultSetColumnMapping.resolvePositions(
+				ImmutableList.of("C_Order_ID", "GrandTotal", "Description"),
+				ImmutableList.of("C_Order_ID", "Description"));
+
+		assertThat(positions).containsExactly(1, POResultSetColumnMapping.POSITION_None, 2);
+	}
+
+	@Test
+	public void resolvePositions_duplicateLabel_firstOneWins()
+	{
+		final int[] positions = POResultSetColumnMapping.resolvePositions(
+				ImmutableList.of("C_Order_ID", "ZZ_Line"),
+				ImmutableList.of("C_Order_ID", "ZZ_Line", "c_order_id"));
+
+		assertThat(positions).containsExactly(1, 2);
+	}
+
+	@Test
+	public void toColumnReader()
+	{
+		assertThat(POResultSetColumnMapping.toColumnReader(Integer.class, DisplayType.ID)).isSameAs(ColumnReader.INTEGER);
+		assertThat(POResultSetColumnMapping.toColumnReader(BigDecimal.class, DisplayType.Amount)).isSameAs(ColumnReader.BIG_DECIMAL);
+		assertThat(POResultSetColumnMapping.toColumnReader(Boolean.class, DisplayType.YesNo)).isSameAs(ColumnReader.BOOLEAN);
+		assertThat(POResultSetColumnMapping.toColumnReader(Timestamp.class, DisplayType.Date)).isSameAs(ColumnReader.TIMESTAMP);
+		assertThat(POResultSetColumnMapping.toColumnReader(byte[].class, DisplayType.Binary)).isSameAs(ColumnReader.LOB);
+		assertThat(POResultSetColumnMapping.toColumnReader(String.class, DisplayType.String)).isSameAs(ColumnReader.STRING);
+		assertThat(POResultSetColumnMapping.toColumnReader(Object.class, DisplayType.Button)).isSameAs(ColumnReader.SPECIAL);
+	}
+
+	@Test
+	public void load_allColumnsSelected() throws SQLException
+	{
+		final ResultSet rs = createResultSet(COLUMNNAME_Test_Record_ID, COLUMNNAME_Name, COLUMNNAME_Description, COLUMNNAME_Amount);
+
+		final TestPO po;
+		try (final IAutoCloseable ignored = POResultSetColumnMapping.temporaryUse(POINFO, rs))
+		{
+			po = new TestPO(rs);
+		}
+
+		assertThat(po.get_Value(COLUMNNAME_Test_Record_ID)).isEqualTo(1000001);
+		assertThat(po.get_Value(COLUMNNAME_Name)).isEqualTo("name");
+		assertThat(po.get_Value(COLUMNNAME_Description)).isEqualTo("description");
+		assertThat(po.get_Value(COLUMNNAME_Amount)).isEqualTo(new BigDecimal("12.34"));
+
+		// lazy loading columns are never loaded from the ResultSet
+		assertThat(isValueLoaded(po, COLUMNNAME_Note)).isFalse();
+	}
+
+	@Test
+	public void load_onlySelectedColumns_othersAreLazyLoaded() throws SQLException
+	{
+		// i.e. what IQuery.OPTION_LoadOnlyColumnNames is selecting: the key column and the requested columns
+		final ResultSet rs = createResultSet(COLUMNNAME_Test_Record_ID, COLUMNNAME_Name);
+
+		final TestPO po;
+		try (final IAutoCloseable ignored = POResultSetColumnMapping.temporaryUse(POINFO, rs))
+		{
+			po = new TestPO(rs);
+		}
+
+		assertThat(po.get_Value(COLUMNNAME_Test_Record_ID)).isEqualTo(1000001);
+		assertThat(po.get_Value(COLUMNNAME_Name)).isEqualTo("name");
+
+		// NOTE: not calling get_Value() because it would load the column from database
+		assertThat(isValueLoaded(po, COLUMNNAME_Description)).isFalse();
+		assertThat(isValueLoaded(po, COLUMNNAME_Amount)).isFalse();
+		assertThat(isValueLoaded(po, COLUMNNAME_Note)).isFalse();
+	}
+
+	@Test
+	public void load_mappingOfOtherResultSetIsIgnored() throws SQLException
+	{
+		final ResultSet rs = createResultSet(COLUMNNAME_Test_Record_ID, COLUMNNAME_Name, COLUMNNAME_Description, COLUMNNAME_Amount);
+		final ResultSet otherRs = createResultSet(COLUMNNAME_Test_Record_ID);
+
+		final TestPO po;
+		try (final IAutoCloseable ignored = POResultSetColumnMapping.temporaryUse(POINFO, otherRs))
+		{
+			assertThat(POResultSetColumnMapping.getCurrentOrNull(POINFO, rs)).isNull();
+			po = new TestPO(rs);
+		}
+		assertThat(POResultSetColumnMapping.getCurrentOrNull(POINFO, otherRs)).isNull();
+
+		// loaded by column name
+		assertThat(po.get_Value(COLUMNNAME_Name)).isEqualTo("name");
+		assertThat(po.get_Value(COLUMNNAME_Description)).isEqualTo("description");
+		assertThat(po.get_Value(COLUMNNAME_Amount)).isEqualTo(new BigDecimal("12.34"));
+	}
+
+	private static boolean isValueLoaded(final PO po, final String columnName)
+	{
+		return po.is_ValueLoaded(po.get_ColumnIndex(columnName));
+	}
+
+	/**
+	 * @return result set positioned on its only row, having the given columns
+	 */
+	private static ResultSet createResultSet(final String... columnNames) throws SQLException
+	{
+		final RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+		metaData.setColumnCount(columnNames.length);
+		for (int i = 0; i < columnNames.length; i++)
+		{
+			// NOTE: postgres is returning lower case labels
+			metaData.setColumnName(i + 1, columnNames[i].toLowerCase());
+			metaData.setColumnLabel(i + 1, columnNames[i].toLowerCase());
+			metaData.setColumnType(i + 1, SQL_TYPES.get(columnNames[i]));
+		}
+
+		final CachedRowSet rowSet = RowSetProvider.newFactory().createCachedRowSet();
+		rowSet.setMetaData(metaData);
+		rowSet.moveToInsertRow();
+		for (int i = 0; i < columnNames.length; i++)
+		{
+			rowSet.updateObject(i + 1, VALUES.get(columnNames[i]));
+		}
+		rowSet.insertRow();
+		rowSet.moveToCurrentRow();
+
+		rowSet.beforeFirst();
+		assertThat(rowSet.next()).isTrue();
+		return rowSet;
+	}
+
+	private static class TestPO extends PO
+	{
+		private TestPO(final ResultSet rs)
+		{
+			super(new Properties(), rs, null);
+		}
+
+		@Override
+		protected POInfo initPO(final Properties ctx)
+		{
+			return POINFO;
+		}
+	}
+}
@@ -0,0 +1,254 @@
+package org.compiere.model;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+
+import org.compiere.model.POResultSetColumnMapping.ColumnReader;
+import org.compiere.util.DisplayType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.util.StringUtils;
+
+/**
+ * Compares reading the column values of many rows by column name (as PO is doing without a {@link POResultSetColumnMapping})
+ * with reading them by the positions and readers which were resolved once per result set, with and without a column projection.
+ * <p>
+ * The rows are kept in memory (see {@link CachedRowSet}), so no database is needed, and only the column reading part of the PO loading is measured.
+ * <p>
+ * Not a unit test; run it using {@link #main(String[])}, which is also reporting the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class POResultSetLoadingBenchmark
+{
+	private static final int ROWS_COUNT = 1000;
+
+	private static final ImmutableList<String> COLUMN_NAMES = ImmutableList.of("C_Order_ID", "AD_Client_ID", "AD_Org_ID", "DocumentNo", "DateOrdered", "GrandTotal", "IsActive", "Description");
+	private static final ImmutableList<Class<?>> COLUMN_CLASSES = ImmutableList.of(Integer.class, Integer.class, Integer.class, String.class, Timestamp.class, BigDecimal.class, Boolean.class, String.class);
+	private static final ImmutableList<Integer> COLUMN_DISPLAY_TYPES = ImmutableList.of(DisplayType.ID, DisplayType.TableDir, DisplayType.TableDir, DisplayType.String, DisplayType.Date, DisplayType.Amount, DisplayType.YesNo, DisplayType.Text);
+	private static final ImmutableList<Integer> COLUMN_SQL_TYPES = ImmutableList.of(Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.VARCHAR, Types.TIMESTAMP, Types.NUMERIC, Types.VARCHAR, Types.VARCHAR);
+
+	/** the columns selected when using a projection: the key column and GrandTotal */
+	private static final ImmutableList<String> PROJECTION_COLUMN_LABELS = ImmutableList.of("c_order_id", "grandtotal");
+
+	private CachedRowSet rowSet;
+	private List<String> columnLabels;
+
+	@Setup
+	public void setup() throws SQLException
+	{
+		final int columnCount = COLUMN_NAMES.size();
+
+		final RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+		metaData.setColumnCount(columnCount);
+		for (int index = 0; index < columnCount; index++)
+		{
+			// NOTE: postgres is returning lower case labels
+			metaData.setColumnName(index + 1, COLUMN_NAMES.get(index).toLowerCase());
+			metaData.setColumnLabel(index + 1, COLUMN_NAMES.get(index).toLowerCase());
+			metaData.setColumnType(index + 1, COLUMN_SQL_TYPES.get(index));
+		}
+
+		rowSet = RowSetProvider.newFactory().createCachedRowSet();
+		rowSet.setMetaData(metaData);
+		for (int row = 1; row <= ROWS_COUNT; row++)
+		{
+			rowSet.moveToInsertRow();
+			rowSet.updateInt(1, row);
+			rowSet.updateInt(2, 1000000);
+			rowSet.updateInt(3, 1000000);
+			rowSet.updateString(4, "DOC-" + row);
+			rowSet.updateTimestamp(5, new Timestamp(System.currentTimeMillis()));
+			rowSet.updateBigDecimal(6, BigDecimal.valueOf(row, 2));
+			rowSet.updateString(7, "Y");
+			rowSet.updateNull(8);
+			rowSet.insertRow();
+			rowSet.moveToCurrentRow();
+		}
+
+		columnLabels = COLUMN_NAMES.stream().map(String::toLowerCase).collect(ImmutableList.toImmutableList());
+	}
+
+	@Benchmark
+	public void load_byColumnName(final Blackhole blackhole) throws SQLException
+	{
+		final int columnCount = COLUMN_NAMES.size();
+
+		rowSet.beforeFirst();
+		while (rowSet.next())
+		{
+			final Object[] values = new Object[columnCount];
+			for (int index = 0; index < columnCount; index++)
+			{
+				values[index] = readByColumnName(rowSet, index);
+			}
+			blackhole.consume(values);
+		}
+	}
+
+	@Benchmark
+	public void load_byColumnMapping(final Blackhole blackhole) throws SQLException
+	{
+		loadByColumnMapping(columnLabels, blackhole);
+	}
+
+	@Benchmark
+	public void load_byColumnMapping_projection(final Blackhole blackhole) throws SQLException
+	{
+		loadByColumnMapping(PROJECTION_COLUMN_LABELS, blackhole);
+	}
+
+	private void loadByColumnMapping(final List<String> selectedColumnLabels, final Blackhole blackhole) throws SQLException
+	{
+		final int columnCount = COLUMN_NAMES.size();
+
+		// resolved once per result set
+		final int[] positions = POResultSetColumnMapping.resolvePositions(COLUMN_NAMES, selectedColumnLabels);
+		final ColumnReader[] readers = new ColumnReader[columnCount];
+		for (int index = 0; index < columnCount; index++)
+		{
+			readers[index] = POResultSetColumnMapping.toColumnReader(COLUMN_CLASSES.get(index), COLUMN_DISPLAY_TYPES.get(index));
+		}
+
+		rowSet.beforeFirst();
+		while (rowSet.next())
+		{
+			final Object[] values = new Object[columnCount];
+			for (int index = 0; index < columnCount; index++)
+			{
+				final int position = positions[index];
+				if (position != POResultSetColumnMapping.POSITION_None)
+				{
+					values[index] = readByPosition(rowSet, position, readers[index]);
+				}
+			}
+			blackhole.consume(values);
+		}
+	}
+
+	/**
+	 * Same column class checks and reads as {@link PO} is doing when loading a column by name.
+	 */
+	private static Object readByColumnName(final ResultSet rs, final int index) throws SQLException
+	{
+		final String columnName = COLUMN_NAMES.get(index);
+		final Class<?> clazz = COLUMN_CLASSES.get(index);
+		final int displayType = COLUMN_DISPLAY_TYPES.get(index);
+
+		final Object value;
+		if (clazz == Integer.class)
+		{
+			value = rs.getInt(columnName);
+		}
+		else if (clazz == BigDecimal.class)
+		{
+			value = rs.getBigDecimal(columnName);
+		}
+		else if (clazz == Boolean.class)
+		{
+			value = StringUtils.toBoolean(rs.getString(columnName));
+		}
+		else if (clazz == Timestamp.class)
+		{
+			value = rs.getTimestamp(columnName);
+		}
+		else if (DisplayType.isLOB(displayType))
+		{
+			value = rs.getObject(columnName);
+		}
+		else
+		{
+			value = rs.getString(columnName);
+		}
+
+		return rs.wasNull() ? null : value;
+	}
+
+	private static Object readByPosition(final ResultSet rs, final int position, final ColumnReader reader) throws SQLException
+	{
+		final Object value;
+		switch (reader)
+		{
+			case INTEGER:
+				value = rs.getInt(position);
+				break;
+			case BIG_DECIMAL:
+				value = rs.getBigDecimal(position);
+				break;
+			case BOOLEAN:
+				value = StringUtils.toBoolean(rs.getString(position));
+				break;
+			case TIMESTAMP:
+				value = rs.getTimestamp(position);
+				break;
+			case LOB:
+				value = rs.getObject(position);
+				break;
+			default:
+				value = rs.getString(position);
+				break;
+		}
+
+		return rs.wasNull() ? null : value;
+	}
+
+	public static void main(final String[] args) throws RunnerException
+	{
+		new Runner(new OptionsBuilder()
+				.include(POResultSetLoadingBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build())
+				.run();
+	}
+}
@@ -0,0 +1,21 @@
+-- Storage for the shared (second level) cache tier, see de.metas.cache.shared.SqlSharedCacheStorage
+-- NOTE: unlogged because the content can be reloaded at any time and we don't want to produce WAL for it
+
+CREATE UNLOGGED TABLE IF NOT EXISTS T_Cache_Shared
+(
+    CacheName VARCHAR(255)                           NOT NULL,
+    CacheKey  VARCHAR(2000)                          NOT NULL,
+    Value     BYTEA                                  NOT NULL,
+    Version   NUMERIC(18)                            NOT NULL,
+    Updated   TIMESTAMP WITH TIME ZONE DEFAULT now() NOT NULL,
+    CONSTRAINT T_Cache_Shared_Key PRIMARY KEY (CacheName, CacheKey)
+)
+;
+
+CREATE TABLE IF NOT EXISTS T_Cache_TableVersion
+(
+    TableName VARCHAR(255)          NOT NULL,
+    Version   NUMERIC(18) DEFAULT 0 NOT NULL,
+    CONSTRAINT T_Cache_TableVersion_Key PRIMARY KEY (TableName)
+)
+;
@@ -0,0 +1,11 @@
+-- Hottest cache keys, saved on shutdown and used to warm up the caches on next startup, see de.metas.cache.warmup.CacheHotKeysSnapshotRepository
+
+CREATE TABLE IF NOT EXISTS T_Cache_HotKey
+(
+    CacheName VARCHAR(255)                           NOT NULL,
+    SeqNo     NUMERIC(10)                            NOT NULL,
+    CacheKey  VARCHAR(2000)                          NOT NULL,
+    Created   TIMESTAMP WITH TIME ZONE DEFAULT now() NOT NULL,
+    CONSTRAINT T_Cache_HotKey_Key PRIMARY KEY (CacheName, SeqNo)
+)
+;
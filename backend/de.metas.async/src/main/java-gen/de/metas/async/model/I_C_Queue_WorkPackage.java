@@ -534,6 +534,29 @@ public interface I_C_Queue_WorkPackage
 	ModelColumn<I_C_Queue_WorkPackage, Object> COLUMN_Processed = new ModelColumn<>(I_C_Queue_WorkPackage.class, "Processed", null);
 	String COLUMNNAME_Processed = "Processed";
 
+	/**
+	 * Set Ready for processing at.
+	 * When the workpackage was marked as ready for processing
+	 *
+	 * <br>Type: DateTime
+	 * <br>Mandatory: false
+	 * <br>Virtual Column: false
+	 */
+	void setReadyForProcessingAt (@Nullable java.sql.Timestamp ReadyForProcessingAt);
+
+	/**
+	 * Get Ready for processing at.
+	 * When the workpackage was marked as ready for processing
+	 *
+	 * <br>Type: DateTime
+	 * <br>Mandatory: false
+	 * <br>Virtual Column: false
+	 */
+	@Nullable java.sql.Timestamp getReadyForProcessingAt();
+
+	ModelColumn<I_C_Queue_WorkPackage, Object> COLUMN_ReadyForProcessingAt = new ModelColumn<>(I_C_Queue_WorkPackage.class, "ReadyForProcessingAt", null);
+	String COLUMNNAME_ReadyForProcessingAt = "ReadyForProcessingAt";
+
 	/**
 	 * Set Skipped Count.
 	 *
@@ -12,7 +12,7 @@ import java.util.Properties;
 public class X_C_Queue_WorkPackage extends org.compiere.model.PO implements I_C_Queue_WorkPackage, org.compiere.model.I_Persistent 
 {
 
-	private static final long serialVersionUID = -2134246769L;
+	private static final long serialVersionUID = 1284567391L;
 
     /** Standard Constructor */
     public X_C_Queue_WorkPackage (final Properties ctx, final int C_Queue_WorkPackage_ID, @Nullable final String trxName)
@@ -360,6 +360,18 @@ public class X_C_Queue_WorkPackage extends org.compiere.model.PO implements I_C_
 		return get_ValueAsBoolean(COLUMNNAME_Processed);
 	}
 
+	@Override
+	public void setReadyForProcessingAt (final @Nullable java.sql.Timestamp ReadyForProcessingAt)
+	{
+		set_Value (COLUMNNAME_ReadyForProcessingAt, ReadyForProcessingAt);
+	}
+
+	@Override
+	public java.sql.Timestamp getReadyForProcessingAt() 
+	{
+		return get_ValueAsTimestamp(COLUMNNAME_ReadyForProcessingAt);
+	}
+
 	@Override
 	public void setSkipped_Count (final int Skipped_Count)
 	{
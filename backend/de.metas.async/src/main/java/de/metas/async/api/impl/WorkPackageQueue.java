@@ -46,8 +46,10 @@ import de.metas.async.processor.QueueProcessorId;
 import de.metas.async.processor.descriptor.QueueProcessorDescriptorRepository;
 import de.metas.async.processor.descriptor.model.QueuePackageProcessor;
 import de.metas.async.processor.impl.SyncQueueProcessorListener;
+import de.metas.async.processor.impl.planner.WorkPackageReadySignal;
 import de.metas.async.spi.IWorkpackagePrioStrategy;
 import de.metas.async.spi.NullWorkpackagePrio;
+import de.metas.common.util.time.SystemTime;
 import de.metas.lock.api.ILockManager;
 import de.metas.lock.exceptions.UnlockFailedException;
 import de.metas.logging.LogManager;
@@ -613,9 +615,12 @@ public class WorkPackageQueue implements IWorkPackageQueue
 
 				// Mark the workpackage as ready for processing and save it
 				workPackage.setIsReadyForProcessing(true);
+				workPackage.setReadyForProcessingAt(SystemTime.asTimestamp());
 				dao.save(workPackage);
 				logger.debug("C_Queue_WorkPackage.IsReadyForProcessing is now set to true");
 				success = true;
+
+				WorkPackageReadySignal.instance.fireAfterCommitNoFail(workPackage);
 			}
 			finally
 			{
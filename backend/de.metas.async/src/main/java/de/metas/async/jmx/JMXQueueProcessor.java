@@ -72,6 +72,12 @@ public class JMXQueueProcessor implements JMXQueueProcessorMBean
 		return processor.getStatisticsSnapshot().getCountSkipped();
 	}
 
+	@Override
+	public String getEnqueueToStartLatency()
+	{
+		return processor.getStatisticsSnapshot().getEnqueueToStartLatency().toDisplayString();
+	}
+
 	@Override
 	public String getQueueInfo()
 	{
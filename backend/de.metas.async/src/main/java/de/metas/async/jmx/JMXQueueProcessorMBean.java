@@ -37,5 +37,7 @@ public interface JMXQueueProcessorMBean
 
 	long getCountSkipped();
 
+	String getEnqueueToStartLatency();
+
 	String getQueueInfo();
 }
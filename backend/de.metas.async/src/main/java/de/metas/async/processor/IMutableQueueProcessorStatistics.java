@@ -60,4 +60,9 @@ public interface IMutableQueueProcessorStatistics extends IQueueProcessorStatist
 
 	void decrementQueueSize();
 
+	@Override
+	QueueProcessorLatencyStats getEnqueueToStartLatency();
+
+	void recordEnqueueToStartLatency(long latencyMillis);
+
 }
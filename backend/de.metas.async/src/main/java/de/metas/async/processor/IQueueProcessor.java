@@ -63,6 +63,14 @@ public interface IQueueProcessor
 
 	boolean isAvailableToWork();
 
+	/**
+	 * @return how many workpackages this processor could start right now
+	 */
+	default int getAvailableCapacity()
+	{
+		return isAvailableToWork() ? 1 : 0;
+	}
+
 	Set<QueuePackageProcessorId> getAssignedPackageProcessorIds();
 
 	boolean processLockedWorkPackage(I_C_Queue_WorkPackage workPackage);
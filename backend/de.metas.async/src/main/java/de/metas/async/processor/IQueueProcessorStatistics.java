@@ -40,4 +40,9 @@ public interface IQueueProcessorStatistics
 	long getQueueSize();
 
 	long getCountSkipped();
+
+	/**
+	 * @return how long the workpackages were waiting from being enqueued until their processing was started
+	 */
+	QueueProcessorLatencyStats getEnqueueToStartLatency();
 }
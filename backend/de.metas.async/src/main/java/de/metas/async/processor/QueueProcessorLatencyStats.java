@@ -0,0 +1,107 @@
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+package de.metas.async.processor;
+
+import com.google.common.collect.ImmutableList;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * Distribution of the time between a workpackage was enqueued and its processing was started.
+ */
+@Value
+public class QueueProcessorLatencyStats
+{
+	/**
+	 * Upper bounds (inclusive) of the buckets; the last bucket (not listed here) contains everything above the last bound.
+	 */
+	public static final ImmutableList<Long> BUCKET_UPPER_BOUNDS_MILLIS = ImmutableList.of(10L, 100L, 500L, 1_000L, 5_000L, 10_000L, 60_000L);
+
+	public static final QueueProcessorLatencyStats EMPTY = new QueueProcessorLatencyStats(0, 0, 0, new long[BUCKET_UPPER_BOUNDS_MILLIS.size() + 1]);
+
+	long count;
+	long totalMillis;
+	long maxMillis;
+	ImmutableList<Long> countsByBucket;
+
+	public QueueProcessorLatencyStats(
+			final long count,
+			final long totalMillis,
+			final long maxMillis,
+			@NonNull final long[] countsByBucket)
+	{
+		this.count = count;
+		this.totalMillis = totalMillis;
+		this.maxMillis = maxMillis;
+
+		final ImmutableList.Builder<Long> countsByBucketList = ImmutableList.builder();
+		for (final long bucketCount : countsByBucket)
+		{
+			countsByBucketList.add(bucketCount);
+		}
+		this.countsByBucket = countsByBucketList.build();
+	}
+
+	public static int getBucketIndex(final long latencyMillis)
+	{
+		for (int i = 0; i < BUCKET_UPPER_BOUNDS_MILLIS.size(); i++)
+		{
+			if (latencyMillis <= BUCKET_UPPER_BOUNDS_MILLIS.get(i))
+			{
+				return i;
+			}
+		}
+		return BUCKET_UPPER_BOUNDS_MILLIS.size();
+	}
+
+	public long getAverageMillis()
+	{
+		return count > 0 ? totalMillis / count : 0;
+	}
+
+	/**
+	 * @return human readable distribution, e.g. {@code count=3, avg=40ms, max=100ms, <=10ms: 1, <=100ms: 2}
+	 */
+	public String toDisplayString()
+	{
+		final StringBuilder sb = new StringBuilder()
+				.append("count=").append(count)
+				.append(", avg=").append(getAverageMillis()).append("ms")
+				.append(", max=").append(maxMillis).append("ms");
+
+		for (int i = 0; i < countsByBucket.size(); i++)
+		{
+			final long bucketCount = countsByBucket.get(i);
+			if (bucketCount <= 0)
+			{
+				continue;
+			}
+
+			final String bucketName = i < BUCKET_UPPER_BOUNDS_MILLIS.size()
+					? "<=" + BUCKET_UPPER_BOUNDS_MILLIS.get(i) + "ms"
+					: ">" + BUCKET_UPPER_BOUNDS_MILLIS.get(BUCKET_UPPER_BOUNDS_MILLIS.size() - 1) + "ms";
+			sb.append(", ").append(bucketName).append(": ").append(bucketCount);
+		}
+
+		return sb.toString();
+	}
+}
@@ -35,6 +35,8 @@ import de.metas.async.processor.IWorkpackageProcessorFactory;
 import de.metas.async.processor.QueuePackageProcessorId;
 import de.metas.async.processor.QueueProcessorId;
 import de.metas.async.spi.IWorkpackageProcessor;
+import de.metas.common.util.CoalesceUtil;
+import de.metas.common.util.time.SystemTime;
 import de.metas.logging.LogManager;
 import de.metas.monitoring.adapter.NoopPerformanceMonitoringService;
 import de.metas.monitoring.adapter.PerformanceMonitoringService;
@@ -45,6 +47,7 @@ import org.adempiere.model.InterfaceWrapperHelper;
 import org.compiere.SpringContextHolder;
 import org.slf4j.Logger;
 
+import java.sql.Timestamp;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.locks.ReentrantLock;
@@ -209,6 +212,7 @@ public abstract class AbstractQueueProcessor implements IQueueProcessor
 			final IWorkpackageProcessor workPackageProcessor = getWorkpackageProcessor(workPackage);
 			final PerformanceMonitoringService perfMonService = getPerfMonService();
 			final WorkpackageProcessorTask task = new WorkpackageProcessorTask(this, workPackageProcessor, workPackage, logsRepository, perfMonService);
+			recordEnqueueToStartLatency(workPackage);
 			executeTask(task);
 			success = true;
 			return true;
@@ -225,6 +229,27 @@ public abstract class AbstractQueueProcessor implements IQueueProcessor
 		}
 	}
 
+	/**
+	 * Records the time since the workpackage was marked as ready for processing.
+	 * Workpackages which were marked as ready directly in the database have no {@code ReadyForProcessingAt}; for them, the time since their creation is recorded.
+	 * <p>
+	 * NOTE: skipped workpackages are not recorded, because they were waiting on purpose.
+	 */
+	private void recordEnqueueToStartLatency(@NonNull final I_C_Queue_WorkPackage workPackage)
+	{
+		final Timestamp readyAt = CoalesceUtil.coalesce(workPackage.getReadyForProcessingAt(), workPackage.getCreated());
+		if (readyAt == null || workPackage.getSkippedAt() != null)
+		{
+			return;
+		}
+
+		final long latencyMillis = SystemTime.millis() - readyAt.getTime();
+		synchronized (statistics)
+		{
+			statistics.recordEnqueueToStartLatency(latencyMillis);
+		}
+	}
+
 	private IWorkpackageProcessor getWorkpackageProcessor(final I_C_Queue_WorkPackage workPackage)
 	{
 		final IWorkpackageProcessorFactory factory = getActualWorkpackageProcessorFactory();
@@ -2,6 +2,7 @@ package de.metas.async.processor.impl;
 
 import de.metas.async.Async_Constants;
 import de.metas.async.processor.IMutableQueueProcessorStatistics;
+import de.metas.async.processor.QueueProcessorLatencyStats;
 import de.metas.monitoring.api.IMeter;
 import de.metas.monitoring.api.IMonitoringBL;
 import de.metas.util.Services;
@@ -111,4 +112,19 @@ public class MonitorableQueueProcessorStatistics implements IMutableQueueProcess
 	{
 		getMeter(METERNAME_Skipped).plusOne();
 	}
+
+	/**
+	 * NOTE: not tracked at workpackage processor level; see the queue processor's statistics.
+	 */
+	@Override
+	public QueueProcessorLatencyStats getEnqueueToStartLatency()
+	{
+		return QueueProcessorLatencyStats.EMPTY;
+	}
+
+	@Override
+	public void recordEnqueueToStartLatency(final long latencyMillis)
+	{
+		// nothing
+	}
 }
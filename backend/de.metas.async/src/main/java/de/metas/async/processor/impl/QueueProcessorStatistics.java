@@ -23,6 +23,7 @@ package de.metas.async.processor.impl;
  */
 
 import de.metas.async.processor.IMutableQueueProcessorStatistics;
+import de.metas.async.processor.QueueProcessorLatencyStats;
 import lombok.ToString;
 
 @ToString
@@ -34,6 +35,11 @@ final class QueueProcessorStatistics implements IMutableQueueProcessorStatistics
 	private long countSkipped;
 	private long queueSize;
 
+	private long latencyCount;
+	private long latencyTotalMillis;
+	private long latencyMaxMillis;
+	private final long[] latencyCountsByBucket;
+
 	public QueueProcessorStatistics()
 	{
 		countAll = 0;
@@ -41,6 +47,10 @@ final class QueueProcessorStatistics implements IMutableQueueProcessorStatistics
 		countErrors = 0;
 		countSkipped = 0;
 		queueSize = 0;
+		latencyCount = 0;
+		latencyTotalMillis = 0;
+		latencyMaxMillis = 0;
+		latencyCountsByBucket = new long[QueueProcessorLatencyStats.BUCKET_UPPER_BOUNDS_MILLIS.size() + 1];
 	}
 
 	private QueueProcessorStatistics(final QueueProcessorStatistics from)
@@ -50,6 +60,10 @@ final class QueueProcessorStatistics implements IMutableQueueProcessorStatistics
 		countProcessed = from.countProcessed;
 		countSkipped = from.countSkipped;
 		queueSize = from.queueSize;
+		latencyCount = from.latencyCount;
+		latencyTotalMillis = from.latencyTotalMillis;
+		latencyMaxMillis = from.latencyMaxMillis;
+		latencyCountsByBucket = from.latencyCountsByBucket.clone();
 	}
 
 	@Override
@@ -124,4 +138,19 @@ final class QueueProcessorStatistics implements IMutableQueueProcessorStatistics
 		countSkipped++;
 	}
 
+	@Override
+	public QueueProcessorLatencyStats getEnqueueToStartLatency()
+	{
+		return new QueueProcessorLatencyStats(latencyCount, latencyTotalMillis, latencyMaxMillis, latencyCountsByBucket);
+	}
+
+	@Override
+	public void recordEnqueueToStartLatency(final long latencyMillis)
+	{
+		final long latencyMillisNorm = Math.max(latencyMillis, 0);
+		latencyCount++;
+		latencyTotalMillis += latencyMillisNorm;
+		latencyMaxMillis = Math.max(latencyMaxMillis, latencyMillisNorm);
+		latencyCountsByBucket[QueueProcessorLatencyStats.getBucketIndex(latencyMillisNorm)]++;
+	}
 }
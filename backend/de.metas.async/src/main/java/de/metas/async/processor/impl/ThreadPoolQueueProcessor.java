@@ -76,6 +76,12 @@ public class ThreadPoolQueueProcessor extends AbstractQueueProcessor
 		return this.executor.hasAvailablePermits();
 	}
 
+	@Override
+	public int getAvailableCapacity()
+	{
+		return this.executor.getAvailablePermits();
+	}
+
 	@Override
 	public String toString()
 	{
@@ -0,0 +1,242 @@
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+package de.metas.async.processor.impl.planner;
+
+import de.metas.logging.LogManager;
+import lombok.NonNull;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.compiere.db.CConnection;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+
+import javax.annotation.Nullable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Listens on {@link WorkPackageReadySignal#PG_CHANNEL} and fires {@link WorkPackageReadySignal} when a notification arrives,
+ * i.e. when a workpackage was made ready for processing on any node.
+ * <p>
+ * It uses a dedicated database connection which is not taken from the connection pool, because a pooled connection would stay subscribed to the channel when returned to the pool.
+ * The connection is closed when stopping; if it breaks, it's reopened after {@link #RECONNECT_DELAY_MILLIS}, in the meantime the planner falls back to polling.
+ */
+final class PostgresWorkPackageReadyListener
+{
+	private static final Logger logger = LogManager.getLogger(PostgresWorkPackageReadyListener.class);
+
+	private static final int RECEIVE_TIMEOUT_MILLIS = 5_000;
+	private static final int VALIDATE_TIMEOUT_SECONDS = 5;
+	private static final long RECONNECT_DELAY_MILLIS = 10_000;
+
+	private final WorkPackageReadySignal signal;
+
+	@Nullable
+	private Thread thread;
+	@Nullable
+	private Connection connection;
+
+	PostgresWorkPackageReadyListener(@NonNull final WorkPackageReadySignal signal)
+	{
+		this.signal = signal;
+	}
+
+	synchronized void startIfNotRunning()
+	{
+		if (thread != null && thread.isAlive())
+		{
+			return;
+		}
+
+		final Thread newThread = CustomizableThreadFactory.builder()
+				.setThreadNamePrefix("WorkPackageReadyListener")
+				.setDaemon(true)
+				.build()
+				.newThread(this::run);
+		thread = newThread;
+		newThread.start();
+		logger.info("Started listening on {}", WorkPackageReadySignal.PG_CHANNEL);
+	}
+
+	synchronized void stop()
+	{
+		if (thread == null)
+		{
+			return;
+		}
+
+		thread.interrupt();
+		thread = null;
+
+		// closing the connection also ends a getNotifications() call which is currently blocking the listener thread
+		closeNoFail(connection);
+		connection = null;
+
+		logger.info("Stopped listening on {}", WorkPackageReadySignal.PG_CHANNEL);
+	}
+
+	private synchronized boolean isStopped()
+	{
+		return thread != Thread.currentThread() || Thread.currentThread().isInterrupted();
+	}
+
+	private void run()
+	{
+		while (!isStopped())
+		{
+			try
+			{
+				listen();
+			}
+			catch (final Exception ex)
+			{
+				if (isStopped())
+				{
+					return;
+				}
+
+				logger.warn("Failed listening on {}. Retrying in {}ms", WorkPackageReadySignal.PG_CHANNEL, RECONNECT_DELAY_MILLIS, ex);
+				try
+				{
+					Thread.sleep(RECONNECT_DELAY_MILLIS);
+				}
+				catch (final InterruptedException interruptedException)
+				{
+					return;
+				}
+			}
+		}
+	}
+
+	private void listen() throws Exception
+	{
+		final Connection connection = openConnection();
+		try
+		{
+			if (!setConnection(connection))
+			{
+				return;
+			}
+
+			try (final Statement stmt = connection.createStatement())
+			{
+				stmt.execute("LISTEN " + WorkPackageReadySignal.PG_CHANNEL);
+			}
+
+			// signal once, in case something was enqueued while we were not listening
+			signal.fire();
+
+			final PGConnection pgConnection = connection.unwrap(PGConnection.class);
+			while (!isStopped())
+			{
+				final PGNotification[] notifications = pgConnection.getNotifications(RECEIVE_TIMEOUT_MILLIS);
+				if (notifications != null && notifications.length > 0)
+				{
+					signal.fire();
+				}
+				else if (!connection.isValid(VALIDATE_TIMEOUT_SECONDS))
+				{
+					throw new SQLException("Connection is no longer valid");
+				}
+			}
+		}
+		finally
+		{
+			unlistenAndClose(connection);
+		}
+	}
+
+	/**
+	 * @return a new connection which is not taken from the connection pool
+	 */
+	private static Connection openConnection() throws SQLException
+	{
+		final CConnection cc = CConnection.get();
+		final Connection connection = cc.getDatabase().getDriverConnection(cc.getConnectionURL(), cc.getDbUid(), cc.getDbPwd());
+		connection.setAutoCommit(true);
+		return connection;
+	}
+
+	/**
+	 * Remembers the given connection, so that {@link #stop()} can close it.
+	 *
+	 * @return false if we were stopped in the meantime
+	 */
+	private synchronized boolean setConnection(@NonNull final Connection connection)
+	{
+		if (isStopped())
+		{
+			return false;
+		}
+
+		this.connection = connection;
+		return true;
+	}
+
+	private void unlistenAndClose(@NonNull final Connection connection)
+	{
+		synchronized (this)
+		{
+			if (this.connection == connection)
+			{
+				this.connection = null;
+			}
+		}
+
+		try
+		{
+			if (!connection.isClosed())
+			{
+				try (final Statement stmt = connection.createStatement())
+				{
+					stmt.execute("UNLISTEN " + WorkPackageReadySignal.PG_CHANNEL);
+				}
+			}
+		}
+		catch (final Exception ex)
+		{
+			logger.debug("Failed to UNLISTEN {}. Closing the connection anyway.", WorkPackageReadySignal.PG_CHANNEL, ex);
+		}
+		finally
+		{
+			closeNoFail(connection);
+		}
+	}
+
+	private static void closeNoFail(@Nullable final Connection connection)
+	{
+		if (connection == null)
+		{
+			return;
+		}
+
+		try
+		{
+			connection.close();
+		}
+		catch (final Exception ex)
+		{
+			logger.debug("Failed closing {}", connection, ex);
+		}
+	}
+}
@@ -31,6 +31,7 @@ import de.metas.async.processor.QueuePackageProcessorId;
 import de.metas.async.processor.QueueProcessorId;
 import de.metas.async.processor.impl.AbstractQueueProcessor;
 import de.metas.lock.api.ILockManager;
+import de.metas.lock.api.LockOwner;
 import de.metas.logging.LogManager;
 import de.metas.util.Services;
 import lombok.NonNull;
@@ -43,6 +44,7 @@ import org.compiere.model.IQuery;
 import org.compiere.util.Env;
 import org.slf4j.Logger;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
@@ -59,11 +61,22 @@ public abstract class QueueProcessorPlanner implements Runnable
 	public final static String SYSCONFIG_POLLINTERVAL_MILLIS = "de.metas.async.PollIntervallMillis";
 	private final static int SYSCONFIG_POLLINTERVAL_DEFAULT_MS = 1000;
 
+	/**
+	 * How many minutes a workpackage lock is valid. After that, the lock is deleted and the workpackage can be claimed again (e.g. by another node), if it was not processed yet.
+	 * Needs to be greater than the time the longest workpackage takes to be processed. Zero (the default) means that the locks don't expire.
+	 */
+	private final static String SYSCONFIG_LOCK_LEASE_MINUTES = "de.metas.async.WorkPackageLock.LeaseMinutes";
+	private final static int SYSCONFIG_LOCK_LEASE_MINUTES_DEFAULT = 0;
+	private final static long REMOVE_EXPIRED_LOCKS_INTERVAL_MILLIS = 60_000;
+
 	private final ILockManager lockManager = Services.get(ILockManager.class);
 	private final IQueryBL queryBL = Services.get(IQueryBL.class);
 	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+	private final WorkPackageReadySignal readySignal = WorkPackageReadySignal.instance;
+	private final PostgresWorkPackageReadyListener postgresListener = new PostgresWorkPackageReadyListener(readySignal);
 
 	private final ReentrantLock mainLock = new ReentrantLock();
+	private long nextRemoveExpiredLocksMillis = 0;
 	protected final ConcurrentHashMap<QueueProcessorId, IQueueProcessor> queueProcessors;
 	protected final AtomicBoolean isRunning;
 
@@ -85,19 +98,18 @@ public abstract class QueueProcessorPlanner implements Runnable
 		{
 			try
 			{
-				final boolean successfulRun = runOnce();
+				// NOTE: taken before looking for work, so that a workpackage which gets ready while we are looking is not missed
+				final long signalSequenceBeforeRun = readySignal.getSignalSequence();
+				final RunResult runResult = runOnce();
 
-				if (!successfulRun && isStopOnFailedRun())
+				if (!runResult.isSuccessful() && isStopOnFailedRun())
 				{
 					logger.warn("*** QueueProcessorPlanner.run() -> last run was not successful & planner = {} has stopOnFailedRun policy; Shutting down...", this.getClass().getName());
 					shutdown();
 				}
 				else
 				{
-					// note: we always get the new value, because things might have changed since this method started
-					final int pollIntervalMs = getPollIntervalMillis();
-
-					Thread.sleep(pollIntervalMs);
+					waitForNextRun(runResult, signalSequenceBeforeRun);
 				}
 			}
 			catch (final InterruptedException e)
@@ -121,6 +133,41 @@ public abstract class QueueProcessorPlanner implements Runnable
 		}
 	}
 
+	private void waitForNextRun(@NonNull final RunResult lastRunResult, final long signalSequenceBeforeRun) throws InterruptedException
+	{
+		// note: we always get the new values, because things might have changed since this method started
+		if (!readySignal.isEventDrivenDispatch())
+		{
+			postgresListener.stop();
+			Thread.sleep(getPollIntervalMillis());
+			return;
+		}
+
+		postgresListener.startIfNotRunning();
+
+		final long waitMillis;
+		if (lastRunResult == RunResult.WORKPACKAGES_HANDLED)
+		{
+			// there might be more workpackages waiting
+			waitMillis = 0;
+		}
+		else if (lastRunResult == RunResult.NO_WORKPACKAGES)
+		{
+			// nothing to do; we will be signaled when a workpackage gets ready
+			waitMillis = readySignal.getSafetyNetPollIntervalMillis();
+		}
+		else
+		{
+			// e.g. all processors are busy; we are not signaled when they get available, so we keep polling
+			waitMillis = getPollIntervalMillis();
+		}
+
+		if (waitMillis > 0)
+		{
+			readySignal.await(signalSequenceBeforeRun, waitMillis);
+		}
+	}
+
 	@NonNull
 	public List<IQueueProcessor> getRegisteredQueueProcessors()
 	{
@@ -183,6 +230,7 @@ public abstract class QueueProcessorPlanner implements Runnable
 			}
 
 			this.shutdownPlanner();
+			postgresListener.stop();
 		}
 		finally
 		{
@@ -190,26 +238,43 @@ public abstract class QueueProcessorPlanner implements Runnable
 		}
 	}
 
-	private boolean runOnce()
+	private enum RunResult
+	{
+		NO_PROCESSOR_AVAILABLE,
+		NO_WORKPACKAGES,
+		WORKPACKAGES_HANDLED,
+		WORKPACKAGES_NOT_ALL_HANDLED;
+
+		public boolean isSuccessful()
+		{
+			return this == WORKPACKAGES_HANDLED;
+		}
+	}
+
+	private RunResult runOnce()
 	{
 		final List<IQueueProcessor> availableProcessors = getQueueProcessorsAvailableToWork();
 
 		if (availableProcessors.isEmpty())
 		{
 			logger.debug("run0 - all processors are busy! Skipping...");
-			return false;
+			return RunResult.NO_PROCESSOR_AVAILABLE;
 		}
 
+		removeExpiredLocksIfDue();
+
 		final Properties workPackageCtx = Env.newTemporaryCtx();
 
 		final List<I_C_Queue_WorkPackage> workPackages = pollAndLockWorkPackages(workPackageCtx, availableProcessors);
 		if (workPackages.isEmpty())
 		{
 			logger.debug("pollAndLockWorkpackages - returned no workPackage to be processed for availableProcessorIds={}", availableProcessors);
-			return false;
+			return RunResult.NO_WORKPACKAGES;
 		}
 
-		return handleWorkPackages(workPackageCtx, workPackages);
+		return handleWorkPackages(workPackageCtx, workPackages)
+				? RunResult.WORKPACKAGES_HANDLED
+				: RunResult.WORKPACKAGES_NOT_ALL_HANDLED;
 	}
 
 	private boolean handleWorkPackages(@NonNull final Properties ctx, @NonNull final List<I_C_Queue_WorkPackage> workPackages)
@@ -261,12 +326,10 @@ public abstract class QueueProcessorPlanner implements Runnable
 				.addEqualsFilter(I_C_Queue_WorkPackage.COLUMNNAME_C_Queue_WorkPackage_ID, -1)
 				.create();
 
-		final QueryLimit numberOfWorkPackagesPerProcessor = QueryLimit.ONE;
-
+		// claim as many workpackages as each processor can start right away, so that one round trip is enough to keep all its threads busy
 		final List<IQuery<I_C_Queue_WorkPackage>> queueProcessorSpecificQueries = queueProcessors
 				.stream()
-				.map(IQueueProcessor::getQueue)
-				.map(queue -> queue.createQuery(ctx, numberOfWorkPackagesPerProcessor))
+				.map(processor -> processor.getQueue().createQuery(ctx, QueryLimit.ofInt(Math.max(processor.getAvailableCapacity(), 1))))
 				.filter(Optional::isPresent)
 				.map(Optional::get)
 				.map(lockManager::addNotLockedClause)
@@ -282,6 +345,31 @@ public abstract class QueueProcessorPlanner implements Runnable
 		return lockManager.retrieveAndLockMultipleRecords(queueProcessorWPQueriesAggregator, I_C_Queue_WorkPackage.class);
 	}
 
+	private void removeExpiredLocksIfDue()
+	{
+		final long nowMillis = System.currentTimeMillis();
+		if (nowMillis < nextRemoveExpiredLocksMillis)
+		{
+			return;
+		}
+		nextRemoveExpiredLocksMillis = nowMillis + REMOVE_EXPIRED_LOCKS_INTERVAL_MILLIS;
+
+		final int leaseMinutes = sysConfigBL.getIntValue(SYSCONFIG_LOCK_LEASE_MINUTES, SYSCONFIG_LOCK_LEASE_MINUTES_DEFAULT);
+		if (leaseMinutes <= 0)
+		{
+			return;
+		}
+
+		try
+		{
+			lockManager.removeExpiredLocks(I_C_Queue_WorkPackage.Table_Name, LockOwner.NONE, Duration.ofMinutes(leaseMinutes));
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed removing the expired workpackage locks. Ignored.", ex);
+		}
+	}
+
 	@NonNull
 	private Optional<IQueueProcessor> getAvailableQueueProcessorForWorkPackage(@NonNull final QueuePackageProcessorId packageProcessorId)
 	{
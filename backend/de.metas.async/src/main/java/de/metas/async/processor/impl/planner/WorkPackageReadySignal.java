@@ -0,0 +1,152 @@
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+package de.metas.async.processor.impl.planner;
+
+import de.metas.async.model.I_C_Queue_WorkPackage;
+import de.metas.logging.LogManager;
+import de.metas.util.Services;
+import lombok.NonNull;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.util.DB;
+import org.slf4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wakes up the {@link QueueProcessorPlanner} as soon as there is something to do, instead of letting it wait for the next poll.
+ * <p>
+ * If event driven dispatch is enabled (see {@link #SYSCONFIG_EventDrivenDispatch}),
+ * <ul>
+ * <li>the planners of this JVM are signaled right after the transaction which made a workpackage ready for processing was committed</li>
+ * <li>a postgres {@code NOTIFY} is sent on {@link #PG_CHANNEL}, which is delivered to the other nodes on commit; see {@link PostgresWorkPackageReadyListener}</li>
+ * </ul>
+ * In that case, the planners are still polling, but only as a safety net, every {@link #SYSCONFIG_SafetyNetPollIntervalMillis}.
+ */
+public final class WorkPackageReadySignal
+{
+	public static final WorkPackageReadySignal instance = new WorkPackageReadySignal();
+
+	private static final Logger logger = LogManager.getLogger(WorkPackageReadySignal.class);
+
+	public static final String SYSCONFIG_EventDrivenDispatch = "de.metas.async.EventDrivenDispatch.Enabled";
+	public static final String SYSCONFIG_SafetyNetPollIntervalMillis = "de.metas.async.EventDrivenDispatch.SafetyNetPollIntervalMillis";
+	private static final int DEFAULT_SafetyNetPollIntervalMillis = 30_000;
+
+	static final String PG_CHANNEL = "c_queue_workpackage_ready";
+
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+	private final ITrxManager trxManager = Services.get(ITrxManager.class);
+
+	private final Object lock = new Object();
+	/**
+	 * Incremented on each {@link #fire()}. Each waiter remembers the last value it has seen, so no signal is lost,
+	 * no matter if it arrives while the waiter is polling or while another waiter consumes it.
+	 */
+	private long signalSequence = 0;
+
+	private WorkPackageReadySignal()
+	{
+	}
+
+	public boolean isEventDrivenDispatch()
+	{
+		return sysConfigBL.getBooleanValue(SYSCONFIG_EventDrivenDispatch, false);
+	}
+
+	int getSafetyNetPollIntervalMillis()
+	{
+		return sysConfigBL.getIntValue(SYSCONFIG_SafetyNetPollIntervalMillis, DEFAULT_SafetyNetPollIntervalMillis);
+	}
+
+	/**
+	 * Called after given workpackage was flagged as ready for processing. Never fails.
+	 */
+	public void fireAfterCommitNoFail(@NonNull final I_C_Queue_WorkPackage workPackage)
+	{
+		try
+		{
+			if (!isEventDrivenDispatch())
+			{
+				return;
+			}
+
+			final String trxName = InterfaceWrapperHelper.getTrxName(workPackage);
+
+			// NOTE: postgres delivers the notification only when the transaction is committed
+			DB.executeFunctionCallEx(trxName, "SELECT pg_notify(?, '')", new Object[] { PG_CHANNEL });
+
+			trxManager.getTrxListenerManagerOrAutoCommit(trxName).runAfterCommit(this::fire);
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed signaling that {} is ready for processing. The planner will find it on next poll.", workPackage, ex);
+		}
+	}
+
+	/**
+	 * Wakes up the planners of this JVM right away.
+	 */
+	public void fire()
+	{
+		synchronized (lock)
+		{
+			signalSequence++;
+			lock.notifyAll();
+		}
+	}
+
+	/**
+	 * @return current signal sequence; to be remembered by the waiter <b>before</b> it looks for work, and then passed to {@link #await(long, long)}.
+	 */
+	long getSignalSequence()
+	{
+		synchronized (lock)
+		{
+			return signalSequence;
+		}
+	}
+
+	/**
+	 * Waits until {@link #fire()} is called or the given timeout passed.
+	 * If {@link #fire()} was called since the given sequence was taken, this method returns right away.
+	 *
+	 * @param lastSeenSignalSequence see {@link #getSignalSequence()}
+	 * @return true if signaled
+	 */
+	boolean await(final long lastSeenSignalSequence, final long timeoutMillis) throws InterruptedException
+	{
+		synchronized (lock)
+		{
+			final long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+			long remainingMillis = timeoutMillis;
+			while (signalSequence == lastSeenSignalSequence && remainingMillis > 0)
+			{
+				lock.wait(remainingMillis);
+				remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+			}
+
+			return signalSequence != lastSeenSignalSequence;
+		}
+	}
+}
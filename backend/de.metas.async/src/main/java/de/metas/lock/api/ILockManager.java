@@ -30,6 +30,7 @@ import org.adempiere.ad.dao.IQueryFilter;
 import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.model.IQuery;
 
+import java.time.Duration;
 import java.util.List;
 
 /**
@@ -151,11 +152,24 @@ public interface ILockManager extends ISingletonService
 	 */
 	<T> IQueryBuilder<T> getLockedRecordsQueryBuilder(Class<T> modelClass, Object contextProvider);
 
+	/**
+	 * Retrieves the records matched by given query and locks them (with {@link LockOwner#NONE}).
+	 * <p>
+	 * Records which are concurrently locked by another DB client are skipped, so the result might contain less records than the query would return.
+	 */
 	<T> List<T> retrieveAndLockMultipleRecords(IQuery<T> query, Class<T> clazz);
 
 	<T> IQuery<T> addNotLockedClause(IQuery<T> query);
 	
 	int removeAutoCleanupLocks();
 
+	/**
+	 * Deletes the locks of given table and owner which were acquired more than {@code maxAge} ago.
+	 * Use it to make sure that records locked by a node which went down will eventually become available again.
+	 *
+	 * @return how many locks were removed
+	 */
+	int removeExpiredLocks(String tableName, LockOwner lockOwner, Duration maxAge);
+
 	ExistingLockInfo getLockInfo(TableRecordReference tableRecordReference, LockOwner lockOwner);
 }
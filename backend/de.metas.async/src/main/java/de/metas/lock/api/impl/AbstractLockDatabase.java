@@ -30,6 +30,7 @@ import de.metas.lock.api.IUnlockCommand;
 import de.metas.lock.api.LockOwner;
 import de.metas.lock.exceptions.LockFailedException;
 import de.metas.lock.exceptions.UnlockFailedException;
+import de.metas.lock.spi.IForeignLocks;
 import de.metas.lock.spi.ILockDatabase;
 import de.metas.logging.LogManager;
 import de.metas.util.Check;
@@ -56,6 +57,42 @@ public abstract class AbstractLockDatabase implements ILockDatabase
 {
 	protected final transient Logger logger = LogManager.getLogger(getClass());
 
+	private IForeignLocks foreignLocks = IForeignLocks.NONE;
+	private ILockDatabase wrappingLockDatabase = this;
+
+	/**
+	 * Sets the lock database which wraps this one. The locks acquired by this database are bound to it, so that changing them (see {@link ILock#split()}) goes through the wrapping database.
+	 */
+	public final void setWrappingLockDatabase(@NonNull final ILockDatabase wrappingLockDatabase)
+	{
+		this.wrappingLockDatabase = wrappingLockDatabase;
+	}
+
+	/**
+	 * Sets the locks which are not kept in this database, but which shall be respected when acquiring locks.
+	 */
+	public final void setForeignLocks(@NonNull final IForeignLocks foreignLocks)
+	{
+		this.foreignLocks = foreignLocks;
+	}
+
+	protected final IForeignLocks getForeignLocks()
+	{
+		return foreignLocks;
+	}
+
+	/**
+	 * To be called by implementations <b>after</b> they acquired the lock of given record. If it returns true, the lock shall be released again.
+	 *
+	 * @return true if given record is also locked by a foreign lock
+	 */
+	protected final boolean isLockedByForeignLock(@NonNull final TableRecordReference record)
+	{
+		final int adTableId = record.getAD_Table_ID();
+		return foreignLocks.mightHaveLocks(adTableId)
+				&& foreignLocks.isLocked(adTableId, record.getRecord_ID());
+	}
+
 	/** Asserts given lock owner is a valid owner to be used on for Locks */
 	protected static void assertValidLockOwner(@NonNull final LockOwner lockOwner)
 	{
@@ -120,7 +157,7 @@ public abstract class AbstractLockDatabase implements ILockDatabase
 
 	protected final ILock newLock(final LockOwner lockOwner, final boolean autoCleanup, final int countLocked)
 	{
-		return new Lock(this, lockOwner, autoCleanup, countLocked);
+		return new Lock(wrappingLockDatabase, lockOwner, autoCleanup, countLocked);
 	}
 
 	/**
@@ -329,7 +366,7 @@ public abstract class AbstractLockDatabase implements ILockDatabase
 
 	@Override
 	@NonNull
-	public final <T> List<T> retrieveAndLockMultipleRecords(@NonNull final IQuery<T> query, @NonNull final Class<T> clazz)
+	public <T> List<T> retrieveAndLockMultipleRecords(@NonNull final IQuery<T> query, @NonNull final Class<T> clazz)
 	{
 		final ILockCommand lockCommand = new LockCommand(this)
 				.setOwner(LockOwner.NONE);
@@ -29,6 +29,9 @@ import de.metas.lock.api.IUnlockCommand;
 import de.metas.lock.api.LockOwner;
 import de.metas.lock.spi.ExistingLockInfo;
 import de.metas.lock.spi.ILockDatabase;
+import de.metas.lock.spi.impl.HybridLockDatabase;
+import de.metas.lock.spi.impl.InMemoryLockDatabase;
+import de.metas.lock.spi.impl.LockOwnerPersistencePolicy;
 import de.metas.lock.spi.impl.SqlLockDatabase;
 import de.metas.util.Check;
 import lombok.NonNull;
@@ -37,15 +40,30 @@ import org.adempiere.ad.dao.IQueryFilter;
 import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.model.IQuery;
 
+import java.time.Duration;
 import java.util.List;
 
 public class LockManager implements ILockManager
 {
-	private final ILockDatabase lockDatabase = new SqlLockDatabase();
-
+	/**
+	 * How long an in-memory lock is valid if it's not released.
+	 */
+	private static final Duration IN_MEMORY_LOCKS_LEASE_DURATION = Duration.ofMinutes(10);
+
+	private final SqlLockDatabase sqlLockDatabase = new SqlLockDatabase();
+	private final InMemoryLockDatabase inMemoryLockDatabase = new InMemoryLockDatabase(IN_MEMORY_LOCKS_LEASE_DURATION);
+	private final LockOwnerPersistencePolicy lockOwnerPersistencePolicy = new LockOwnerPersistencePolicy();
+	private final HybridLockDatabase hybridLockDatabase = new HybridLockDatabase(sqlLockDatabase, inMemoryLockDatabase, lockOwnerPersistencePolicy);
+
+	/**
+	 * @return the {@link HybridLockDatabase} if some locks might be kept in memory; the plain SQL lock database otherwise, so that there is no overhead if no in-memory lock owner is configured.
+	 */
 	public ILockDatabase getLockDatabase()
 	{
-		return lockDatabase;
+		// NOTE: also when the in-memory lock owners were unconfigured in the meantime, the remaining in-memory locks still need to be seen
+		return lockOwnerPersistencePolicy.isEnabled() || inMemoryLockDatabase.hasLocks()
+				? hybridLockDatabase
+				: sqlLockDatabase;
 	}
 
 	@Override
@@ -173,6 +191,12 @@ public class LockManager implements ILockManager
 		return getLockDatabase().removeAutoCleanupLocks();
 	}
 
+	@Override
+	public int removeExpiredLocks(@NonNull final String tableName, @NonNull final LockOwner lockOwner, @NonNull final Duration maxAge)
+	{
+		return getLockDatabase().removeExpiredLocks(tableName, lockOwner, maxAge);
+	}
+
 	@Override
 	public <T> List<T> retrieveAndLockMultipleRecords(@NonNull final IQuery<T> query,@NonNull final Class<T> clazz)
 	{
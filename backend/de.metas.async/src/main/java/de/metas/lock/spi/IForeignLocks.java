@@ -0,0 +1,59 @@
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.lock.spi;
+
+/**
+ * Locks which are not kept in a given lock database, but which that lock database shall respect when acquiring its locks.
+ * <p>
+ * The lock database checks them <b>after</b> it acquired a lock and releases the lock again if the record is also locked by a foreign lock.
+ * That way, when two lock databases are locking the same record at the same time, at least one of them sees the other one's lock.
+ *
+ * @see de.metas.lock.spi.impl.HybridLockDatabase
+ */
+public interface IForeignLocks
+{
+	IForeignLocks NONE = new IForeignLocks()
+	{
+		@Override
+		public boolean mightHaveLocks(final int adTableId)
+		{
+			return false;
+		}
+
+		@Override
+		public boolean isLocked(final int adTableId, final int recordId)
+		{
+			return false;
+		}
+	};
+
+	/**
+	 * @return false if there is for sure no foreign lock on any record of given table. Used to skip the checks for each record.
+	 */
+	boolean mightHaveLocks(int adTableId);
+
+	/**
+	 * @return true if given record is locked by any owner
+	 */
+	boolean isLocked(int adTableId, int recordId);
+}
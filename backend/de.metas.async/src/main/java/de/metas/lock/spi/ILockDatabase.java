@@ -32,6 +32,7 @@ import org.adempiere.ad.dao.IQueryFilter;
 import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.model.IQuery;
 
+import java.time.Duration;
 import java.util.List;
 
 /**
@@ -75,5 +76,10 @@ public interface ILockDatabase
 
 	int removeAutoCleanupLocks();
 
+	/**
+	 * See {@link ILockManager#removeExpiredLocks(String, LockOwner, Duration)}.
+	 */
+	int removeExpiredLocks(String tableName, LockOwner lockOwner, Duration maxAge);
+
 	ExistingLockInfo getLockInfo(TableRecordReference tableRecordReference, LockOwner lockOwner);
 }
@@ -0,0 +1,314 @@
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+package de.metas.lock.spi.impl;
+
+import de.metas.lock.api.ILock;
+import de.metas.lock.api.ILockCommand;
+import de.metas.lock.api.IUnlockCommand;
+import de.metas.lock.api.LockOwner;
+import de.metas.lock.api.impl.AbstractLockDatabase;
+import de.metas.lock.exceptions.LockFailedException;
+import de.metas.lock.spi.ExistingLockInfo;
+import de.metas.lock.spi.IForeignLocks;
+import de.metas.lock.spi.ILockDatabase;
+import de.metas.util.Services;
+import lombok.NonNull;
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.dao.IQueryBuilder;
+import org.adempiere.ad.dao.IQueryFilter;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.IQuery;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Keeps the locks of some owners in memory and all other locks in database, as decided by {@link LockOwnerPersistencePolicy}.
+ * <p>
+ * The two lock databases respect each other's locks when acquiring a lock (see {@link IForeignLocks}), so a record can't be locked in both of them.
+ * The records of the tables which are locked only in memory (see {@link LockOwnerPersistencePolicy#isInMemoryOnlyTable(int)}) can't be locked in database at all,
+ * so their in-memory locks are acquired without a database round trip.
+ * <p>
+ * The clauses and filters which have to be visible to SQL combine the ones of both databases.
+ * The in-memory part of them contains the IDs of the records which are locked in memory at the time the clause or filter is created,
+ * see {@link InMemoryLockDatabase#getLockedWhereClause(Class, String, LockOwner)}.
+ */
+public class HybridLockDatabase implements ILockDatabase
+{
+	private final IQueryBL queryBL = Services.get(IQueryBL.class);
+
+	private final AbstractLockDatabase databaseLocks;
+	private final InMemoryLockDatabase inMemoryLocks;
+	private final LockOwnerPersistencePolicy policy;
+
+	public HybridLockDatabase(
+			@NonNull final AbstractLockDatabase databaseLocks,
+			@NonNull final InMemoryLockDatabase inMemoryLocks,
+			@NonNull final LockOwnerPersistencePolicy policy)
+	{
+		this.databaseLocks = databaseLocks;
+		this.inMemoryLocks = inMemoryLocks;
+		this.policy = policy;
+
+		// make sure that changing a lock goes through this database, see lock(ILockCommand)
+		databaseLocks.setWrappingLockDatabase(this);
+		inMemoryLocks.setWrappingLockDatabase(this);
+
+		// the records of in-memory-only tables count as locked for the database, so they are never locked there
+		databaseLocks.setForeignLocks(new IForeignLocks()
+		{
+			@Override
+			public boolean mightHaveLocks(final int adTableId)
+			{
+				return policy.isInMemoryOnlyTable(adTableId) || inMemoryLocks.hasLocks(adTableId);
+			}
+
+			@Override
+			public boolean isLocked(final int adTableId, final int recordId)
+			{
+				return policy.isInMemoryOnlyTable(adTableId) || inMemoryLocks.isLocked(adTableId, recordId, LockOwner.ANY);
+			}
+		});
+		// ...and that's why the in-memory locks of these tables don't need to be checked against the database
+		inMemoryLocks.setForeignLocks(new IForeignLocks()
+		{
+			@Override
+			public boolean mightHaveLocks(final int adTableId)
+			{
+				return !policy.isInMemoryOnlyTable(adTableId);
+			}
+
+			@Override
+			public boolean isLocked(final int adTableId, final int recordId)
+			{
+				return databaseLocks.isLocked(adTableId, recordId, LockOwner.ANY);
+			}
+		});
+	}
+
+	private ILockDatabase getLockDatabase(@Nullable final LockOwner lockOwner)
+	{
+		return policy.isInMemory(lockOwner) ? inMemoryLocks : databaseLocks;
+	}
+
+	/**
+	 * @return true if given owner could have locks in both lock databases
+	 */
+	private boolean isLookupInBothDatabases(@Nullable final LockOwner lockOwner)
+	{
+		return (lockOwner == null || lockOwner.isAnyOwner()) && inMemoryLocks.hasLocks();
+	}
+
+	@Override
+	public boolean isLocked(final Class<?> modelClass, final int recordId, final LockOwner lockOwner)
+	{
+		return isLocked(InterfaceWrapperHelper.getTableId(modelClass), recordId, lockOwner);
+	}
+
+	@Override
+	public boolean isLocked(final Object model, final LockOwner lockOwner)
+	{
+		return isLocked(InterfaceWrapperHelper.getModelTableId(model), InterfaceWrapperHelper.getId(model), lockOwner);
+	}
+
+	@Override
+	public boolean isLocked(final int adTableId, final int recordId, final LockOwner lockOwner)
+	{
+		if (isLookupInBothDatabases(lockOwner))
+		{
+			return inMemoryLocks.isLocked(adTableId, recordId, lockOwner)
+					|| databaseLocks.isLocked(adTableId, recordId, lockOwner);
+		}
+		return getLockDatabase(lockOwner).isLocked(adTableId, recordId, lockOwner);
+	}
+
+	@Override
+	public ILock lock(@NonNull final ILockCommand lockCommand)
+	{
+		// when changing an existing lock, we need to go where the existing lock is
+		final ILock parentLock = lockCommand.getParentLock();
+		if (parentLock != null && policy.isInMemory(parentLock.getOwner()) != policy.isInMemory(lockCommand.getOwner()))
+		{
+			throw new LockFailedException("Moving a lock between the in-memory and the database locks is not supported")
+					.setLockCommand(lockCommand);
+		}
+
+		final LockOwner lockOwner = parentLock != null ? parentLock.getOwner() : lockCommand.getOwner();
+		return getLockDatabase(lockOwner).lock(lockCommand);
+	}
+
+	@Override
+	public int unlock(@NonNull final IUnlockCommand unlockCommand)
+	{
+		final LockOwner lockOwner = unlockCommand.getOwner();
+		if (isLookupInBothDatabases(lockOwner))
+		{
+			return inMemoryLocks.unlock(unlockCommand) + databaseLocks.unlock(unlockCommand);
+		}
+		return getLockDatabase(lockOwner).unlock(unlockCommand);
+	}
+
+	@Override
+	public ILock retrieveLockForOwner(@NonNull final LockOwner lockOwner)
+	{
+		return getLockDatabase(lockOwner).retrieveLockForOwner(lockOwner);
+	}
+
+	@Override
+	public int removeAutoCleanupLocks()
+	{
+		return inMemoryLocks.removeAutoCleanupLocks() + databaseLocks.removeAutoCleanupLocks();
+	}
+
+	@Override
+	public int removeExpiredLocks(@NonNull final String tableName, @NonNull final LockOwner lockOwner, @NonNull final Duration maxAge)
+	{
+		if (isLookupInBothDatabases(lockOwner))
+		{
+			return inMemoryLocks.removeExpiredLocks(tableName, lockOwner, maxAge) + databaseLocks.removeExpiredLocks(tableName, lockOwner, maxAge);
+		}
+		return getLockDatabase(lockOwner).removeExpiredLocks(tableName, lockOwner, maxAge);
+	}
+
+	@Override
+	@Nullable
+	public ExistingLockInfo getLockInfo(@NonNull final TableRecordReference tableRecordReference, @Nullable final LockOwner lockOwner)
+	{
+		if (isLookupInBothDatabases(lockOwner))
+		{
+			final ExistingLockInfo inMemoryLockInfo = inMemoryLocks.getLockInfo(tableRecordReference, lockOwner);
+			return inMemoryLockInfo != null ? inMemoryLockInfo : databaseLocks.getLockInfo(tableRecordReference, lockOwner);
+		}
+		return getLockDatabase(lockOwner).getLockInfo(tableRecordReference, lockOwner);
+	}
+
+	//
+	// The records which are locked by retrieveAndLock* are checked against the in-memory locks by the database itself, see IForeignLocks
+	//
+
+	@Override
+	public <T> T retrieveAndLock(final IQuery<T> query, final Class<T> clazz)
+	{
+		return databaseLocks.retrieveAndLock(query, clazz);
+	}
+
+	@Override
+	public <T> List<T> retrieveAndLockMultipleRecords(final IQuery<T> query, final Class<T> clazz)
+	{
+		return databaseLocks.retrieveAndLockMultipleRecords(query, clazz);
+	}
+
+	//
+	// Everything below needs to be visible to SQL, so the in-memory locks are rendered as the IDs of the records which are locked at the time the clause or filter is created
+	//
+
+	@Override
+	public <T> IQuery<T> addNotLockedClause(final IQuery<T> query)
+	{
+		final IQuery<T> notLockedInDatabaseQuery = databaseLocks.addNotLockedClause(query);
+		return inMemoryLocks.hasLocks()
+				? inMemoryLocks.addNotLockedClause(notLockedInDatabaseQuery)
+				: notLockedInDatabaseQuery;
+	}
+
+	@Override
+	public <T> IQueryFilter<T> getLockedByFilter(final Class<T> modelClass, final LockOwner lockOwner)
+	{
+		if (policy.isInMemory(lockOwner))
+		{
+			return inMemoryLocks.getLockedByFilter(modelClass, lockOwner);
+		}
+
+		final IQueryFilter<T> lockedInDatabaseFilter = databaseLocks.getLockedByFilter(modelClass, lockOwner);
+		if (!isLookupInBothDatabases(lockOwner))
+		{
+			return lockedInDatabaseFilter;
+		}
+
+		return queryBL.createCompositeQueryFilter(modelClass)
+				.setJoinOr()
+				.addFilter(lockedInDatabaseFilter)
+				.addFilter(inMemoryLocks.getLockedByFilter(modelClass, lockOwner));
+	}
+
+	@Override
+	public <T> IQueryFilter<T> getNotLockedFilter(final Class<T> modelClass)
+	{
+		final IQueryFilter<T> notLockedInDatabaseFilter = databaseLocks.getNotLockedFilter(modelClass);
+		if (!inMemoryLocks.hasLocks())
+		{
+			return notLockedInDatabaseFilter;
+		}
+
+		return queryBL.createCompositeQueryFilter(modelClass)
+				.addFilter(notLockedInDatabaseFilter)
+				.addFilter(inMemoryLocks.getNotLockedFilter(modelClass));
+	}
+
+	@Override
+	public String getNotLockedWhereClause(final String tableName, final String joinColumnNameFQ)
+	{
+		final String notLockedInDatabaseWhereClause = databaseLocks.getNotLockedWhereClause(tableName, joinColumnNameFQ);
+		if (!inMemoryLocks.hasLocks())
+		{
+			return notLockedInDatabaseWhereClause;
+		}
+
+		return "(" + notLockedInDatabaseWhereClause + " AND " + inMemoryLocks.getNotLockedWhereClause(tableName, joinColumnNameFQ) + ")";
+	}
+
+	@Override
+	public String getLockedWhereClause(final Class<?> modelClass, final String joinColumnNameFQ, final LockOwner lockOwner)
+	{
+		if (policy.isInMemory(lockOwner))
+		{
+			return inMemoryLocks.getLockedWhereClause(modelClass, joinColumnNameFQ, lockOwner);
+		}
+
+		final String lockedInDatabaseWhereClause = databaseLocks.getLockedWhereClause(modelClass, joinColumnNameFQ, lockOwner);
+		if (!isLookupInBothDatabases(lockOwner))
+		{
+			return lockedInDatabaseWhereClause;
+		}
+
+		return "(" + lockedInDatabaseWhereClause + " OR " + inMemoryLocks.getLockedWhereClause(modelClass, joinColumnNameFQ, lockOwner) + ")";
+	}
+
+	@Override
+	public <T> IQueryBuilder<T> getLockedRecordsQueryBuilder(final Class<T> modelClass, final Object contextProvider)
+	{
+		if (!inMemoryLocks.hasLocks())
+		{
+			return databaseLocks.getLockedRecordsQueryBuilder(modelClass, contextProvider);
+		}
+
+		// same as AbstractLockDatabase, but including the records which are locked in memory
+		return queryBL.createQueryBuilder(modelClass, contextProvider)
+				.addOnlyActiveRecordsFilter()
+				.addOnlyContextClientOrSystem()
+				.filter(getLockedByFilter(modelClass, LockOwner.ANY));
+	}
+}
@@ -0,0 +1,719 @@
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+package de.metas.lock.spi.impl;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import de.metas.common.util.time.SystemTime;
+import de.metas.lock.api.ILock;
+import de.metas.lock.api.ILockCommand;
+import de.metas.lock.api.IUnlockCommand;
+import de.metas.lock.api.LockOwner;
+import de.metas.lock.api.impl.AbstractLockDatabase;
+import de.metas.lock.exceptions.LockFailedException;
+import de.metas.lock.spi.ExistingLockInfo;
+import de.metas.process.PInstanceId;
+import de.metas.util.Check;
+import de.metas.util.Services;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.dao.IQueryFilter;
+import org.adempiere.ad.dao.impl.InArrayQueryFilter;
+import org.adempiere.ad.dao.impl.NotQueryFilter;
+import org.adempiere.ad.dao.impl.TypedSqlQuery;
+import org.adempiere.ad.table.api.IADTableDAO;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.IQuery;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Keeps the locks in memory, so they are visible only within this JVM and don't survive a restart.
+ * <p>
+ * The locks of one record are kept as one immutable entry of a {@link ConcurrentHashMap} and are changed atomically via {@code compute}.
+ * That way, concurrent lock/unlock calls only contend when they are about the same record (or records which share the same hash bin).
+ * <p>
+ * Each lock is acquired for a lease duration. When the lease expires, the lock counts as released.
+ * That makes sure that a lock which was not released (e.g. because of a bug) does not block the record forever.
+ * <p>
+ * The locks are not stored in the database, so the SQL where clauses and query filters contain the IDs of the records which are locked at the time they are created.
+ * Records which are locked or unlocked afterwards are not taken into account.
+ * <p>
+ * When used with a {@link HybridLockDatabase}, every acquired lock is checked against the database locks (see {@link de.metas.lock.spi.IForeignLocks}),
+ * which costs one database round trip per locked record, unless the record's table is locked only in memory (see {@link LockOwnerPersistencePolicy#isInMemoryOnlyTable(int)}).
+ */
+public class InMemoryLockDatabase extends AbstractLockDatabase
+{
+	private final long leaseMillis;
+
+	private final ConcurrentHashMap<LockKey, RecordLocks> locks = new ConcurrentHashMap<>();
+	/**
+	 * How many records of a given AD_Table_ID have an entry in {@link #locks}; maintained by {@link #computeRecordLocks(LockKey, UnaryOperator)}.
+	 */
+	private final ConcurrentHashMap<Integer, AtomicInteger> recordsCountByTableId = new ConcurrentHashMap<>();
+	/**
+	 * The records for which a given owner has an entry in {@link #locks}; maintained by {@link #computeRecordLocks(LockKey, UnaryOperator)}.
+	 */
+	private final ConcurrentHashMap<LockOwner, Set<LockKey>> keysByOwner = new ConcurrentHashMap<>();
+	private final AtomicLong nextPurgeMillis = new AtomicLong(0);
+
+	public InMemoryLockDatabase(@NonNull final Duration leaseDuration)
+	{
+		Check.assume(!leaseDuration.isNegative() && !leaseDuration.isZero(), "leaseDuration shall be positive but it was {}", leaseDuration);
+		this.leaseMillis = leaseDuration.toMillis();
+	}
+
+	public Duration getLeaseDuration()
+	{
+		return Duration.ofMillis(leaseMillis);
+	}
+
+	private static long now()
+	{
+		return SystemTime.millis();
+	}
+
+	public boolean hasLocks()
+	{
+		return !locks.isEmpty();
+	}
+
+	public boolean hasLocks(final int adTableId)
+	{
+		final AtomicInteger recordsCount = recordsCountByTableId.get(adTableId);
+		return recordsCount != null && recordsCount.get() > 0;
+	}
+
+	/**
+	 * @param lockOwner the owner whose locks shall be considered; null or {@link LockOwner#ANY} means any owner
+	 * @return the IDs of given table's records which are currently locked by given owner
+	 */
+	public ImmutableSet<Integer> getLockedRecordIds(final int adTableId, @Nullable final LockOwner lockOwner)
+	{
+		if (!hasLocks(adTableId))
+		{
+			return ImmutableSet.of();
+		}
+
+		final LockOwner lockOwnerToUse = lockOwner != null ? lockOwner : LockOwner.ANY;
+		final Set<LockKey> keys = lockOwnerToUse.isAnyOwner()
+				? locks.keySet()
+				: keysByOwner.getOrDefault(lockOwnerToUse, ImmutableSet.of());
+
+		final long now = now();
+		return keys.stream()
+				.filter(key -> key.getAdTableId() == adTableId && isLocked(key, lockOwnerToUse, now))
+				.map(LockKey::getRecordId)
+				.collect(ImmutableSet.toImmutableSet());
+	}
+
+	public int getLocksCount()
+	{
+		final long now = now();
+		return (int)locks.values().stream().filter(recordLocks -> recordLocks.isLockedBy(LockOwner.ANY, now)).count();
+	}
+
+	/**
+	 * Changes the locks of given record atomically.
+	 * {@link #recordsCountByTableId} and {@link #keysByOwner} are updated within the same atomic operation, so they can't get out of step with {@link #locks}.
+	 *
+	 * @param remappingFunction gets the current locks of the record (null if none) and returns the new ones (null if none)
+	 */
+	private void computeRecordLocks(@NonNull final LockKey key, @NonNull final UnaryOperator<RecordLocks> remappingFunction)
+	{
+		locks.compute(key, (k, existingLocks) -> {
+			final RecordLocks newLocks = remappingFunction.apply(existingLocks);
+			if (existingLocks == null && newLocks != null)
+			{
+				recordsCountByTableId.computeIfAbsent(k.getAdTableId(), adTableId -> new AtomicInteger()).incrementAndGet();
+			}
+			else if (existingLocks != null && newLocks == null)
+			{
+				recordsCountByTableId.get(k.getAdTableId()).decrementAndGet();
+			}
+
+			updateOwnerIndex(k, existingLocks, newLocks);
+			return newLocks;
+		});
+	}
+
+	/**
+	 * NOTE: called while {@link #locks} holds the given key's entry, so the owner index of one record is changed in the same order as its locks.
+	 */
+	private void updateOwnerIndex(@NonNull final LockKey key, @Nullable final RecordLocks existingLocks, @Nullable final RecordLocks newLocks)
+	{
+		final ImmutableSet<LockOwner> existingOwners = existingLocks != null ? existingLocks.getOwners() : ImmutableSet.of();
+		final ImmutableSet<LockOwner> newOwners = newLocks != null ? newLocks.getOwners() : ImmutableSet.of();
+
+		for (final LockOwner owner : existingOwners)
+		{
+			if (!newOwners.contains(owner))
+			{
+				keysByOwner.computeIfPresent(owner, (o, keys) -> {
+					keys.remove(key);
+					return keys.isEmpty() ? null : keys;
+				});
+			}
+		}
+
+		for (final LockOwner owner : newOwners)
+		{
+			if (!existingOwners.contains(owner))
+			{
+				keysByOwner.compute(owner, (o, keys) -> {
+					final Set<LockKey> ownerKeys = keys != null ? keys : ConcurrentHashMap.newKeySet();
+					ownerKeys.add(key);
+					return ownerKeys;
+				});
+			}
+		}
+	}
+
+	private void computeRecordLocksIfPresent(@NonNull final LockKey key, @NonNull final UnaryOperator<RecordLocks> remappingFunction)
+	{
+		computeRecordLocks(key, existingLocks -> existingLocks != null ? remappingFunction.apply(existingLocks) : null);
+	}
+
+	@Override
+	public boolean isLocked(final int adTableId, final int recordId, final LockOwner lockOwner)
+	{
+		return isLocked(LockKey.of(adTableId, recordId), lockOwner, now());
+	}
+
+	private boolean isLocked(@NonNull final LockKey key, @Nullable final LockOwner lockOwner, final long now)
+	{
+		final RecordLocks recordLocks = locks.get(key);
+		return recordLocks != null && recordLocks.isLockedBy(lockOwner, now);
+	}
+
+	@Override
+	protected boolean lockRecord(@NonNull final ILockCommand lockCommand, @NonNull final TableRecordReference record)
+	{
+		if (record.getRecord_ID() < 0)
+		{
+			return false;
+		}
+
+		final LockOwner lockOwner = lockCommand.getOwner();
+		assertValidLockOwner(lockOwner);
+
+		purgeExpiredLocksIfDue();
+
+		final long now = now();
+		final LeasedLock lock = LeasedLock.builder()
+				.owner(lockOwner)
+				.autoCleanup(lockCommand.isAutoCleanup())
+				.allowMultipleOwners(isAllowMultipleOwners(lockCommand.getAllowAdditionalLocks()))
+				.acquiredAtMillis(now)
+				.expiresAtMillis(now + leaseMillis)
+				.build();
+
+		final LockKey key = LockKey.of(record);
+		final AtomicBoolean locked = new AtomicBoolean(false);
+		computeRecordLocks(key, existingLocks -> {
+			final RecordLocks activeLocks = existingLocks != null ? existingLocks.retainNotExpired(now) : null;
+			if (activeLocks != null && !activeLocks.canAdd(lock))
+			{
+				return activeLocks;
+			}
+
+			locked.set(true);
+			return RecordLocks.add(activeLocks, lock);
+		});
+
+		// the record might be locked in the other lock database, see IForeignLocks
+		if (locked.get() && isLockedByForeignLock(record))
+		{
+			unlock(key, lockOwner);
+			locked.set(false);
+		}
+
+		if (locked.get())
+		{
+			return true;
+		}
+		else if (lockCommand.isFailIfAlreadyLocked())
+		{
+			throw new LockFailedException("Record was already locked: " + record)
+					.setLockCommand(lockCommand)
+					.setRecordToLock(record);
+		}
+		else
+		{
+			return false;
+		}
+	}
+
+	@Override
+	protected boolean changeLockRecord(@NonNull final ILockCommand lockCommand, @NonNull final TableRecordReference record)
+	{
+		final ILock parentLock = lockCommand.getParentLock();
+		final LockOwner newOwner = lockCommand.getOwner();
+		final LockOwner owner = parentLock != null ? parentLock.getOwner() : newOwner;
+		assertValidLockOwner(newOwner);
+
+		final long now = now();
+		final LockKey key = LockKey.of(record);
+		final AtomicBoolean changed = new AtomicBoolean(false);
+		computeRecordLocksIfPresent(key, existingLocks -> {
+			final RecordLocks activeLocks = existingLocks.retainNotExpired(now);
+			final LeasedLock lock = activeLocks != null ? activeLocks.getLock(owner) : null;
+			if (lock == null)
+			{
+				return activeLocks;
+			}
+
+			changed.set(true);
+			final LeasedLock changedLock = lock.toBuilder()
+					.owner(newOwner)
+					.autoCleanup(lockCommand.isAutoCleanup())
+					.expiresAtMillis(now + leaseMillis)
+					.build();
+			return RecordLocks.add(activeLocks.remove(owner::equals), changedLock);
+		});
+
+		return changed.get();
+	}
+
+	@Override
+	protected int lockBySelection(@NonNull final ILockCommand lockCommand)
+	{
+		final String tableName = Services.get(IADTableDAO.class).retrieveTableName(lockCommand.getSelectionToLock_AD_Table_ID());
+		final PInstanceId pinstanceId = lockCommand.getSelectionToLock_AD_PInstance_ID();
+		final List<Integer> recordIds = Services.get(IQueryBL.class)
+				.createQueryBuilder(tableName)
+				.setOnlySelection(pinstanceId)
+				.create()
+				.listIds();
+
+		return lockRecordIds(lockCommand, tableName, recordIds);
+	}
+
+	@Override
+	protected int lockByFilters(@NonNull final ILockCommand lockCommand)
+	{
+		@SuppressWarnings("unchecked") final IQueryFilter<Object> filters = (IQueryFilter<Object>)lockCommand.getSelectionToLock_Filters();
+
+		final String tableName = Services.get(IADTableDAO.class).retrieveTableName(lockCommand.getSelectionToLock_AD_Table_ID());
+		final List<Integer> recordIds = Services.get(IQueryBL.class)
+				.createQueryBuilder(tableName)
+				.filter(filters)
+				.create()
+				.listIds();
+
+		return lockRecordIds(lockCommand, tableName, recordIds);
+	}
+
+	private int lockRecordIds(@NonNull final ILockCommand lockCommand, @NonNull final String tableName, @NonNull final List<Integer> recordIds)
+	{
+		int countLocked = 0;
+		for (final int recordId : recordIds)
+		{
+			if (lockRecord(lockCommand, TableRecordReference.of(tableName, recordId)))
+			{
+				countLocked++;
+			}
+		}
+
+		if (countLocked <= 0 && lockCommand.isFailIfNothingLocked())
+		{
+			throw new LockFailedException("Nothing locked for selection")
+					.setLockCommand(lockCommand);
+		}
+
+		return countLocked;
+	}
+
+	@Override
+	protected boolean unlockRecord(@NonNull final IUnlockCommand unlockCommand, @NonNull final TableRecordReference record)
+	{
+		return unlock(LockKey.of(record), unlockCommand.getOwner());
+	}
+
+	private boolean unlock(@NonNull final LockKey key, @NonNull final LockOwner owner)
+	{
+		final long now = now();
+		final AtomicBoolean unlocked = new AtomicBoolean(false);
+		computeRecordLocksIfPresent(key, existingLocks -> {
+			final RecordLocks activeLocks = existingLocks.retainNotExpired(now);
+			if (activeLocks == null)
+			{
+				return null;
+			}
+
+			final RecordLocks remainingLocks = activeLocks.remove(lockOwner -> owner.isAnyOwner() || owner.equals(lockOwner));
+			unlocked.set(remainingLocks != activeLocks);
+			return remainingLocks;
+		});
+
+		return unlocked.get();
+	}
+
+	@Override
+	protected int unlockByOwner(@NonNull final IUnlockCommand unlockCommand)
+	{
+		final LockOwner owner = unlockCommand.getOwner();
+		assertValidLockOwner(owner);
+
+		final Set<LockKey> keys = keysByOwner.get(owner);
+		if (keys == null)
+		{
+			return 0;
+		}
+
+		int countUnlocked = 0;
+		for (final LockKey key : ImmutableSet.copyOf(keys))
+		{
+			if (unlock(key, owner))
+			{
+				countUnlocked++;
+			}
+		}
+		return countUnlocked;
+	}
+
+	@Override
+	protected int unlockBySelection(@NonNull final IUnlockCommand unlockCommand)
+	{
+		final String tableName = Services.get(IADTableDAO.class).retrieveTableName(unlockCommand.getSelectionToUnlock_AD_Table_ID());
+		final List<Integer> recordIds = Services.get(IQueryBL.class)
+				.createQueryBuilder(tableName)
+				.setOnlySelection(unlockCommand.getSelectionToUnlock_AD_PInstance_ID())
+				.create()
+				.listIds();
+
+		int countUnlocked = 0;
+		for (final int recordId : recordIds)
+		{
+			if (unlockRecord(unlockCommand, TableRecordReference.of(tableName, recordId)))
+			{
+				countUnlocked++;
+			}
+		}
+		return countUnlocked;
+	}
+
+	@Override
+	public ILock retrieveLockForOwner(@NonNull final LockOwner lockOwner)
+	{
+		Check.assume(lockOwner.isRealOwner(), "Lock owner shall be real owner but it was {}", lockOwner);
+
+		final long now = now();
+		final Set<LockKey> keys = keysByOwner.getOrDefault(lockOwner, Set.of());
+
+		int countLocked = 0;
+		boolean autoCleanup = true;
+		for (final LockKey key : keys)
+		{
+			final RecordLocks recordLocks = locks.get(key);
+			final LeasedLock lock = recordLocks != null ? recordLocks.getLock(lockOwner) : null;
+			if (lock != null && !lock.isExpired(now))
+			{
+				countLocked++;
+				autoCleanup = lock.isAutoCleanup();
+			}
+		}
+
+		if (countLocked <= 0)
+		{
+			throw new LockFailedException("No lock found for " + lockOwner);
+		}
+
+		return newLock(lockOwner, autoCleanup, countLocked);
+	}
+
+	@Override
+	public int removeAutoCleanupLocks()
+	{
+		return removeLocks(key -> true, LeasedLock::isAutoCleanup);
+	}
+
+	@Override
+	public int removeExpiredLocks(@NonNull final String tableName, @NonNull final LockOwner lockOwner, @NonNull final Duration maxAge)
+	{
+		final int adTableId = Services.get(IADTableDAO.class).retrieveTableId(tableName);
+		final long acquiredBeforeMillis = now() - maxAge.toMillis();
+		return removeLocks(
+				key -> key.getAdTableId() == adTableId,
+				lock -> (lockOwner.isAnyOwner() || lockOwner.equals(lock.getOwner())) && lock.getAcquiredAtMillis() < acquiredBeforeMillis);
+	}
+
+	private int removeLocks(@NonNull final Predicate<LockKey> keyFilter, @NonNull final Predicate<LeasedLock> lockFilter)
+	{
+		final AtomicInteger countRemoved = new AtomicInteger(0);
+		for (final LockKey key : locks.keySet())
+		{
+			if (!keyFilter.test(key))
+			{
+				continue;
+			}
+
+			computeRecordLocksIfPresent(key, existingLocks -> {
+				final RecordLocks remainingLocks = existingLocks.removeLocks(lockFilter);
+				countRemoved.addAndGet(existingLocks.size() - (remainingLocks != null ? remainingLocks.size() : 0));
+				return remainingLocks;
+			});
+		}
+
+		return countRemoved.get();
+	}
+
+	/**
+	 * Deletes the expired locks of records which were not touched since their lease expired.
+	 * It's done at most once per lease duration.
+	 */
+	private void purgeExpiredLocksIfDue()
+	{
+		final long now = now();
+		final long nextPurge = nextPurgeMillis.get();
+		if (now < nextPurge || !nextPurgeMillis.compareAndSet(nextPurge, now + leaseMillis))
+		{
+			return;
+		}
+
+		final int countRemoved = removeLocks(key -> true, lock -> lock.isExpired(now));
+		if (countRemoved > 0)
+		{
+			logger.info("Removed {} expired in-memory locks", countRemoved);
+		}
+	}
+
+	@Override
+	@Nullable
+	public ExistingLockInfo getLockInfo(@NonNull final TableRecordReference tableRecordReference, @Nullable final LockOwner lockOwner)
+	{
+		final RecordLocks recordLocks = locks.get(LockKey.of(tableRecordReference));
+		final LeasedLock lock = recordLocks != null ? recordLocks.getActiveLock(lockOwner != null ? lockOwner : LockOwner.NONE, now()) : null;
+		if (lock == null)
+		{
+			return null;
+		}
+
+		return ExistingLockInfo.builder()
+				.ownerName(lock.getOwner().getOwnerName())
+				.lockedRecord(tableRecordReference)
+				.autoCleanup(lock.isAutoCleanup())
+				.allowMultipleOwners(lock.isAllowMultipleOwners())
+				.created(Instant.ofEpochMilli(lock.getAcquiredAtMillis()))
+				.build();
+	}
+
+	@Override
+	public <T> IQueryFilter<T> getLockedByFilter(final Class<T> modelClass, final LockOwner lockOwner)
+	{
+		final ImmutableSet<Integer> lockedRecordIds = getLockedRecordIds(InterfaceWrapperHelper.getTableId(modelClass), lockOwner);
+		return new InArrayQueryFilter<T>(InterfaceWrapperHelper.getKeyColumnName(modelClass), lockedRecordIds)
+				.setDefaultReturnWhenEmpty(false)
+				.setEmbedSqlParams(true);
+	}
+
+	@Override
+	public <T> IQueryFilter<T> getNotLockedFilter(final Class<T> modelClass)
+	{
+		return NotQueryFilter.of(getLockedByFilter(modelClass, LockOwner.ANY));
+	}
+
+	@Override
+	public String getNotLockedWhereClause(final String tableName, final String joinColumnNameFQ)
+	{
+		final ImmutableSet<Integer> lockedRecordIds = getLockedRecordIds(Services.get(IADTableDAO.class).retrieveTableId(tableName), LockOwner.ANY);
+		return !lockedRecordIds.isEmpty()
+				? joinColumnNameFQ + " NOT IN (" + Joiner.on(",").join(lockedRecordIds) + ")"
+				: "1=1";
+	}
+
+	@Override
+	protected String getLockedWhereClauseAllowNullLock(final Class<?> modelClass, final String joinColumnNameFQ, @Nullable final LockOwner lockOwner)
+	{
+		final ImmutableSet<Integer> lockedRecordIds = getLockedRecordIds(InterfaceWrapperHelper.getTableId(modelClass), lockOwner);
+		return !lockedRecordIds.isEmpty()
+				? joinColumnNameFQ + " IN (" + Joiner.on(",").join(lockedRecordIds) + ")"
+				: "1=0";
+	}
+
+	@Override
+	protected <T> IQuery<T> retrieveNotLockedQuery(final IQuery<T> query)
+	{
+		final TypedSqlQuery<T> sqlQuery = TypedSqlQuery.cast(query);
+
+		final String tableName = sqlQuery.getTableName();
+		final String keyColumnNameFQ = tableName + "." + sqlQuery.getKeyColumnName();
+
+		return sqlQuery.addWhereClause(true, getNotLockedWhereClause(tableName, keyColumnNameFQ));
+	}
+
+	@Value(staticConstructor = "of")
+	private static class LockKey
+	{
+		int adTableId;
+		int recordId;
+
+		static LockKey of(@NonNull final TableRecordReference record)
+		{
+			return of(record.getAD_Table_ID(), record.getRecord_ID());
+		}
+	}
+
+	@Value
+	@Builder(toBuilder = true)
+	private static class LeasedLock
+	{
+		@NonNull LockOwner owner;
+		boolean autoCleanup;
+		boolean allowMultipleOwners;
+		long acquiredAtMillis;
+		long expiresAtMillis;
+
+		boolean isExpired(final long now)
+		{
+			return now >= expiresAtMillis;
+		}
+	}
+
+	/**
+	 * Immutable snapshot of the locks of one record.
+	 */
+	@Value
+	private static class RecordLocks
+	{
+		@NonNull ImmutableMap<LockOwner, LeasedLock> locksByOwner;
+
+		static RecordLocks add(@Nullable final RecordLocks recordLocks, @NonNull final LeasedLock lock)
+		{
+			final ImmutableMap.Builder<LockOwner, LeasedLock> builder = ImmutableMap.builder();
+			if (recordLocks != null)
+			{
+				builder.putAll(recordLocks.getLocksByOwner());
+			}
+			builder.put(lock.getOwner(), lock);
+			return new RecordLocks(builder.build());
+		}
+
+		int size()
+		{
+			return locksByOwner.size();
+		}
+
+		ImmutableSet<LockOwner> getOwners()
+		{
+			return locksByOwner.keySet();
+		}
+
+		@Nullable
+		LeasedLock getLock(@NonNull final LockOwner owner)
+		{
+			return locksByOwner.get(owner);
+		}
+
+		/**
+		 * @return the not expired lock of given owner or, if the owner is {@link LockOwner#ANY}, the first not expired lock
+		 */
+		@Nullable
+		LeasedLock getActiveLock(@NonNull final LockOwner owner, final long now)
+		{
+			if (owner.isAnyOwner())
+			{
+				return locksByOwner.values().stream().filter(lock -> !lock.isExpired(now)).findFirst().orElse(null);
+			}
+
+			final LeasedLock lock = locksByOwner.get(owner);
+			return lock != null && !lock.isExpired(now) ? lock : null;
+		}
+
+		boolean isLockedBy(@Nullable final LockOwner owner, final long now)
+		{
+			return getActiveLock(owner != null ? owner : LockOwner.ANY, now) != null;
+		}
+
+		/**
+		 * Same rules as the unique indexes on {@code T_Lock}: there can be only one lock per owner,
+		 * and a lock which does not allow multiple owners can't share the record with any other lock.
+		 */
+		boolean canAdd(@NonNull final LeasedLock lock)
+		{
+			if (locksByOwner.containsKey(lock.getOwner()))
+			{
+				return false;
+			}
+			return lock.isAllowMultipleOwners()
+					&& locksByOwner.values().stream().allMatch(LeasedLock::isAllowMultipleOwners);
+		}
+
+		/**
+		 * @return the remaining locks (this instance if no lock was removed) or null if no lock remains
+		 */
+		@Nullable
+		RecordLocks removeLocks(@NonNull final Predicate<LeasedLock> lockFilter)
+		{
+			final ImmutableMap.Builder<LockOwner, LeasedLock> remainingLocks = ImmutableMap.builder();
+			boolean removed = false;
+			for (final Map.Entry<LockOwner, LeasedLock> entry : locksByOwner.entrySet())
+			{
+				if (lockFilter.test(entry.getValue()))
+				{
+					removed = true;
+				}
+				else
+				{
+					remainingLocks.put(entry);
+				}
+			}
+
+			if (!removed)
+			{
+				return this;
+			}
+
+			final ImmutableMap<LockOwner, LeasedLock> remainingLocksMap = remainingLocks.build();
+			return remainingLocksMap.isEmpty() ? null : new RecordLocks(remainingLocksMap);
+		}
+
+		@Nullable
+		RecordLocks remove(@NonNull final Predicate<LockOwner> ownerFilter)
+		{
+			return removeLocks(lock -> ownerFilter.test(lock.getOwner()));
+		}
+
+		@Nullable
+		RecordLocks retainNotExpired(final long now)
+		{
+			return removeLocks(lock -> lock.isExpired(now));
+		}
+	}
+}
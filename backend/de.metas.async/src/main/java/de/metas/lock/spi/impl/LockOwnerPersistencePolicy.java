@@ -0,0 +1,154 @@
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+package de.metas.lock.spi.impl;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import de.metas.lock.api.LockOwner;
+import de.metas.util.Services;
+import lombok.NonNull;
+import org.adempiere.ad.table.api.IADTableDAO;
+import org.adempiere.service.ISysConfigBL;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Decides per {@link LockOwner} if its locks shall be kept in memory or in database.
+ * <p>
+ * A lock owner's locks are kept in memory if its name starts with one of the prefixes configured in {@value #SYSCONFIG_InMemoryOwnerNamePrefixes}.
+ * Only configure owners whose locks
+ * <ul>
+ * <li>are short living, i.e. they are released before the transaction ends</li>
+ * <li>don't need to be visible to other nodes</li>
+ * <li>don't change while the SQL which selects the locked records is executed,
+ * because that SQL only contains the records which were locked in memory when it was created (e.g. {@code getLockedWhereClause})</li>
+ * </ul>
+ * Each in-memory lock is checked against the database locks when it's acquired, see {@link HybridLockDatabase},
+ * unless its table is configured in {@value #SYSCONFIG_InMemoryOnlyTableNames}.
+ * By default, no owner is configured, so all locks are kept in database.
+ */
+public class LockOwnerPersistencePolicy
+{
+	/**
+	 * Comma separated list of lock owner name prefixes.
+	 */
+	public static final String SYSCONFIG_InMemoryOwnerNamePrefixes = "de.metas.lock.InMemoryOwnerNamePrefixes";
+
+	/**
+	 * Comma separated list of table names whose records are locked only in memory.
+	 * The records of these tables can't be locked in database anymore, so all owners which lock them shall be configured in {@value #SYSCONFIG_InMemoryOwnerNamePrefixes}.
+	 * In return, the in-memory locks of these tables are not checked against the database locks.
+	 */
+	public static final String SYSCONFIG_InMemoryOnlyTableNames = "de.metas.lock.InMemoryOnlyTableNames";
+
+	private final AtomicReference<ParsedList<String>> parsedPrefixesRef = new AtomicReference<>(ParsedList.empty());
+	private final AtomicReference<ParsedList<Integer>> parsedInMemoryOnlyTableIdsRef = new AtomicReference<>(ParsedList.empty());
+
+	/**
+	 * @return true if some locks might be kept in memory, i.e. if any in-memory lock owner is configured
+	 */
+	public boolean isEnabled()
+	{
+		return !getPrefixes().isEmpty();
+	}
+
+	public boolean isInMemory(@Nullable final LockOwner lockOwner)
+	{
+		if (lockOwner == null || !lockOwner.isRealOwner())
+		{
+			return false;
+		}
+
+		final String ownerName = lockOwner.getOwnerName();
+		return getPrefixes().stream().anyMatch(ownerName::startsWith);
+	}
+
+	/**
+	 * @return true if given table's records are locked only in memory, see {@value #SYSCONFIG_InMemoryOnlyTableNames}
+	 */
+	public boolean isInMemoryOnlyTable(final int adTableId)
+	{
+		return getInMemoryOnlyTableIds().contains(adTableId);
+	}
+
+	private ImmutableList<String> getPrefixes()
+	{
+		return getParsedList(SYSCONFIG_InMemoryOwnerNamePrefixes, parsedPrefixesRef, prefix -> prefix)
+				.getValues();
+	}
+
+	private ImmutableList<Integer> getInMemoryOnlyTableIds()
+	{
+		return getParsedList(SYSCONFIG_InMemoryOnlyTableNames, parsedInMemoryOnlyTableIdsRef, tableName -> Services.get(IADTableDAO.class).retrieveTableId(tableName))
+				.getValues();
+	}
+
+	private static <T> ParsedList<T> getParsedList(
+			@NonNull final String sysConfigName,
+			@NonNull final AtomicReference<ParsedList<T>> parsedListRef,
+			@NonNull final Function<String, T> valueParser)
+	{
+		final String valuesString = Services.get(ISysConfigBL.class).getValue(sysConfigName, "");
+
+		ParsedList<T> parsedList = parsedListRef.get();
+		if (!parsedList.getValuesString().equals(valuesString))
+		{
+			parsedList = new ParsedList<>(valuesString, valueParser);
+			parsedListRef.set(parsedList);
+		}
+
+		return parsedList;
+	}
+
+	private static final class ParsedList<T>
+	{
+		static <T> ParsedList<T> empty()
+		{
+			return new ParsedList<>("", value -> null);
+		}
+
+		private final String valuesString;
+		private final ImmutableList<T> values;
+
+		private ParsedList(@NonNull final String valuesString, @NonNull final Function<String, T> valueParser)
+		{
+			this.valuesString = valuesString;
+			this.values = Splitter.on(',').trimResults().omitEmptyStrings().splitToStream(valuesString)
+					.map(valueParser)
+					.collect(ImmutableList.toImmutableList());
+		}
+
+		String getValuesString()
+		{
+			return valuesString;
+		}
+
+		ImmutableList<T> getValues()
+		{
+			return values;
+		}
+	}
+}
@@ -51,6 +51,7 @@ import org.compiere.model.IQuery;
 import org.slf4j.Logger;
 
 import javax.annotation.Nullable;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Comparator;
@@ -185,7 +186,18 @@ public class PlainLockDatabase extends AbstractLockDatabase
 		try (final CloseableReentrantLock lock = mainLock.open())
 		{
 			final RecordLocks recordLock = locks.computeIfAbsent(recordKey, RecordLocks::new);
-			return recordLock.addLock(new LockInfo(recordKey, lockCommand));
+			if (!recordLock.addLock(new LockInfo(recordKey, lockCommand)))
+			{
+				return false;
+			}
+
+			if (isLockedByForeignLock(record))
+			{
+				unlockForKey(lockCommand.getOwner(), recordKey);
+				return false;
+			}
+
+			return true;
 		}
 	}
 
@@ -403,6 +415,16 @@ public class PlainLockDatabase extends AbstractLockDatabase
 		return updateRecordLocks(recordLock -> recordLock.removeAutoCleanupLocks());
 	}
 
+	@Override
+	public int removeExpiredLocks(@NonNull final String tableName, @NonNull final LockOwner lockOwner, @NonNull final Duration maxAge)
+	{
+		final int adTableId = Services.get(IADTableDAO.class).retrieveTableId(tableName);
+		final Instant expiredBefore = Instant.now().minus(maxAge);
+		return updateRecordLocks(recordLock -> recordLock.getKey().getAdTableId() == adTableId
+				? recordLock.removeLocksAcquiredBefore(lockOwner, expiredBefore)
+				: 0);
+	}
+
 	//
 	//
 	//
@@ -535,6 +557,18 @@ public class PlainLockDatabase extends AbstractLockDatabase
 			return locksByLockOwner.get(lockOwner);
 		}
 
+		public synchronized int removeLocksAcquiredBefore(final LockOwner lockOwner, final Instant expiredBefore)
+		{
+			final LockInfo lockInfo = locksByLockOwner.get(lockOwner);
+			if (lockInfo == null || !lockInfo.getAcquiredAt().isBefore(expiredBefore))
+			{
+				return 0;
+			}
+
+			locksByLockOwner.remove(lockOwner);
+			return 1;
+		}
+
 		public int removeAutoCleanupLocks()
 		{
 			int countRemoved = 0;
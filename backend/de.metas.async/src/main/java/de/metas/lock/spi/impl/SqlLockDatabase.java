@@ -1,5 +1,6 @@
 package de.metas.lock.spi.impl;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import de.metas.lock.api.ILock;
 import de.metas.lock.api.ILockCommand;
@@ -11,6 +12,7 @@ import de.metas.lock.exceptions.LockFailedException;
 import de.metas.lock.exceptions.UnlockFailedException;
 import de.metas.lock.model.I_T_Lock;
 import de.metas.lock.spi.ExistingLockInfo;
+import de.metas.lock.spi.IForeignLocks;
 import de.metas.lock.spi.ILockDatabase;
 import de.metas.process.PInstanceId;
 import de.metas.util.Check;
@@ -21,6 +23,7 @@ import org.adempiere.ad.dao.IQueryFilter;
 import org.adempiere.ad.dao.ISqlQueryFilter;
 import org.adempiere.ad.dao.impl.TypedSqlQuery;
 import org.adempiere.ad.dao.impl.TypedSqlQueryFilter;
+import org.adempiere.ad.persistence.TableModelLoader;
 import org.adempiere.ad.table.api.AdTableId;
 import org.adempiere.ad.table.api.IADTableDAO;
 import org.adempiere.ad.trx.api.ITrx;
@@ -29,13 +32,16 @@ import org.adempiere.exceptions.DBUniqueConstraintException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.model.IQuery;
+import org.compiere.model.POInfo;
 import org.compiere.util.DB;
 import org.compiere.util.DisplayType;
 
 import javax.annotation.Nullable;
+import java.math.BigDecimal;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -184,14 +190,22 @@ public class SqlLockDatabase extends AbstractLockDatabase
 					+ " FROM " + tableName
 					+ " WHERE (" + sqlFilter.getSql() + ")";
 			sqlParams.addAll(sqlFilter.getSqlParams(null));
+			final int countLocked;
 			try
 			{
-				return performLockSQLInsert(lockCommand, sqlParams, sql);
+				countLocked = performLockSQLInsert(lockCommand, sqlParams, sql);
 			}
 			catch (final LockFailedException e)
 			{
 				throw e.setExistingLocks(retrieveExistingLocksForFilter(AdTableId.ofRepoId(adTableId), sqlFilter));
 			}
+
+			assertNotLockedByForeignLocks(
+					lockCommand,
+					adTableId,
+					"SELECT " + tableName + "_ID FROM " + tableName + " WHERE (" + sqlFilter.getSql() + ")",
+					sqlFilter.getSqlParams(null));
+			return countLocked;
 		}
 
 		Check.errorIf(true, "Currently we just support ISqlQueryFilters. This filter is not supported: {}", selectionToLockFilters);
@@ -228,14 +242,69 @@ public class SqlLockDatabase extends AbstractLockDatabase
 				//
 				+ " FROM T_Selection"
 				+ " WHERE AD_PInstance_ID=" + toSqlParam(pinstanceId, sqlParams);
+		final int countLocked;
 		try
 		{
-			return performLockSQLInsert(lockCommand, sqlParams, sql);
+			countLocked = performLockSQLInsert(lockCommand, sqlParams, sql);
 		}
 		catch (final LockFailedException e)
 		{
 			throw e.setExistingLocks(retrieveExistingLocksForSelection(AdTableId.ofRepoId(adTableId), pinstanceId));
 		}
+
+		assertNotLockedByForeignLocks(
+				lockCommand,
+				adTableId,
+				"SELECT T_Selection_ID FROM T_Selection WHERE AD_PInstance_ID=?",
+				ImmutableList.of(pinstanceId));
+		return countLocked;
+	}
+
+	/**
+	 * Makes sure that none of the records which were just locked by given selection/filter is also locked by a foreign lock (see {@link IForeignLocks}).
+	 * If there is such a record, all the records which were just locked are unlocked again and it fails, same as if some of the records were already locked in {@code T_Lock}.
+	 *
+	 * @param recordIdsSql SQL which selects the IDs of the records that were locked
+	 */
+	private void assertNotLockedByForeignLocks(
+			@NonNull final ILockCommand lockCommand,
+			final int adTableId,
+			@NonNull final String recordIdsSql,
+			@Nullable final List<?> recordIdsSqlParams)
+	{
+		if (!getForeignLocks().mightHaveLocks(adTableId))
+		{
+			return;
+		}
+
+		final List<Object> sqlParams = new ArrayList<>();
+		final String whereClause = I_T_Lock.COLUMNNAME_AD_Table_ID + "=" + toSqlParam(adTableId, sqlParams)
+				+ " AND " + I_T_Lock.COLUMNNAME_Owner + "=" + toSqlParam(lockCommand.getOwner().getOwnerName(), sqlParams)
+				+ " AND " + I_T_Lock.COLUMNNAME_Record_ID + " IN (" + recordIdsSql + ")";
+		if (recordIdsSqlParams != null)
+		{
+			sqlParams.addAll(recordIdsSqlParams);
+		}
+
+		final TableRecordReference recordLockedByForeignLock = DB.retrieveRowsOutOfTrx(
+						"SELECT " + I_T_Lock.COLUMNNAME_Record_ID + " FROM " + I_T_Lock.Table_Name + " WHERE " + whereClause,
+						sqlParams,
+						rs -> TableRecordReference.of(adTableId, rs.getInt(I_T_Lock.COLUMNNAME_Record_ID)))
+				.stream()
+				.filter(this::isLockedByForeignLock)
+				.findFirst()
+				.orElse(null);
+		if (recordLockedByForeignLock == null)
+		{
+			return;
+		}
+
+		final String sqlDelete = "DELETE FROM " + I_T_Lock.Table_Name + " WHERE " + whereClause;
+		DB.executeUpdateAndThrowExceptionOnFail(sqlDelete, sqlParams.toArray(), ITrx.TRXNAME_None);
+
+		throw new LockFailedException("Some of the records were already locked")
+				.setLockCommand(lockCommand)
+				.setRecordToLock(recordLockedByForeignLock);
 	}
 
 	protected int performLockSQLInsert(final ILockCommand lockCommand, final List<Object> sqlParams, final String sql)
@@ -358,7 +427,6 @@ public class SqlLockDatabase extends AbstractLockDatabase
 		try
 		{
 			DB.executeUpdateAndThrowExceptionOnFail(sql, sqlParams.toArray(), ITrx.TRXNAME_None);
-			return true;
 		}
 		catch (final DBUniqueConstraintException e)
 		{
@@ -384,6 +452,148 @@ public class SqlLockDatabase extends AbstractLockDatabase
 					.setSql(sql, sqlParams.toArray())
 					.setRecordToLock(record);
 		}
+
+		// the record might be locked in-memory, see IForeignLocks
+		if (isLockedByForeignLock(record))
+		{
+			unlockRecordNoFail(record, lockOwner);
+			if (lockCommand.isFailIfAlreadyLocked())
+			{
+				throw new LockFailedException("Record was already locked: " + record)
+						.setLockCommand(lockCommand)
+						.setRecordToLock(record);
+			}
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Locks the records matched by given query in one DB round trip.
+	 * <p>
+	 * The candidate records are row-locked with {@code FOR UPDATE SKIP LOCKED}, so concurrent DB clients (e.g. the async planners of other nodes)
+	 * which are claiming from the same candidates don't wait for each other and don't fail on the unique constraint but just skip the records that are already being claimed.
+	 * <p>
+	 * The claimed records are returned in the order of given query (or of its union queries, if the query itself is not ordered).
+	 * If the query has a post-query filter, the claimed records which are not accepted by it are unlocked right away and not returned.
+	 * Same for the claimed records which are also locked by a foreign lock (see {@link IForeignLocks}).
+	 */
+	@Override
+	@NonNull
+	public <T> List<T> retrieveAndLockMultipleRecords(@NonNull final IQuery<T> query, @NonNull final Class<T> clazz)
+	{
+		final TypedSqlQuery<T> sqlQuery = TypedSqlQuery.cast(query);
+		final String tableName = sqlQuery.getTableName();
+		final String keyColumnName = sqlQuery.getKeyColumnName();
+		final String keyColumnNameFQ = tableName + "." + keyColumnName;
+		final int adTableId = adTableDAO.retrieveTableId(tableName);
+		final LockOwner lockOwner = LockOwner.NONE;
+
+		final List<Object> sqlParams = new ArrayList<>();
+		final String sqlCandidates = sqlQuery.buildSQL("SELECT " + keyColumnNameFQ, null, null, true);
+		sqlParams.addAll(sqlQuery.getParametersEffective());
+
+		final String sql = "WITH candidates AS (" + sqlCandidates + ")"
+				//
+				+ "\n, claimable AS ("
+				+ " SELECT " + keyColumnNameFQ + " AS Record_ID FROM " + tableName
+				+ " WHERE " + keyColumnNameFQ + " IN (SELECT " + keyColumnName + " FROM candidates)"
+				+ " FOR UPDATE SKIP LOCKED"
+				+ ")"
+				//
+				+ "\n, claimed AS ("
+				+ " INSERT INTO " + I_T_Lock.Table_Name + " ("
+				+ I_T_Lock.COLUMNNAME_AD_Table_ID
+				+ ", " + I_T_Lock.COLUMNNAME_Record_ID
+				+ ", " + I_T_Lock.COLUMNNAME_Owner
+				+ ", " + I_T_Lock.COLUMNNAME_IsAutoCleanup
+				+ ", " + I_T_Lock.COLUMNNAME_IsAllowMultipleOwners
+				+ ")"
+				+ " SELECT "
+				+ toSqlParam(adTableId, sqlParams) // AD_Table_ID
+				+ ", claimable.Record_ID" // Record_ID
+				+ ", " + toSqlParam(lockOwner.getOwnerName(), sqlParams) // Owner
+				+ ", " + toSqlParam(true, sqlParams) // IsAutoCleanup
+				+ ", " + toSqlParam(false, sqlParams) // IsAllowMultipleOwners
+				+ " FROM claimable"
+				+ " ON CONFLICT DO NOTHING" // someone else locked the record since the candidates were selected
+				+ " RETURNING " + I_T_Lock.COLUMNNAME_Record_ID
+				+ ")"
+				//
+				+ "\n SELECT " + POInfo.getPOInfoNotNull(tableName).getSqlSelectColumns()
+				+ " FROM " + tableName
+				+ " WHERE " + keyColumnNameFQ + " IN (SELECT " + I_T_Lock.COLUMNNAME_Record_ID + " FROM claimed)"
+				+ " ORDER BY " + getOrderByForClaimedRecords(sqlQuery);
+
+		final IQueryFilter<T> postQueryFilter = sqlQuery.getPostQueryFilter();
+		final ArrayList<T> lockedModels = new ArrayList<>();
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_None);
+			DB.setParameters(pstmt, sqlParams);
+			rs = pstmt.executeQuery();
+			while (rs.next())
+			{
+				final T model = TableModelLoader.instance.retrieveModel(sqlQuery.getCtx(), tableName, clazz, rs, sqlQuery.getTrxName());
+				final TableRecordReference record = TableRecordReference.of(model);
+				if ((postQueryFilter != null && !postQueryFilter.accept(model)) || isLockedByForeignLock(record))
+				{
+					unlockRecordNoFail(record, lockOwner);
+					continue;
+				}
+				lockedModels.add(model);
+			}
+		}
+		catch (final SQLException e)
+		{
+			throw new LockFailedException("Failed locking records of " + tableName, e)
+					.setSql(sql, sqlParams.toArray());
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+
+		logger.debug("retrieveAndLockMultipleRecords: locked {} records of {}", lockedModels.size(), tableName);
+		return lockedModels;
+	}
+
+	@VisibleForTesting
+	static String getOrderByForClaimedRecords(@NonNull final TypedSqlQuery<?> sqlQuery)
+	{
+		final String orderBy = sqlQuery.getOrderBy();
+		if (!Check.isBlank(orderBy))
+		{
+			return orderBy;
+		}
+
+		// e.g. the async planner's query, which is just an unordered union of the ordered queries of each queue
+		return sqlQuery.getUnionQueries()
+				.stream()
+				.map(TypedSqlQuery::getOrderBy)
+				.filter(unionOrderBy -> !Check.isBlank(unionOrderBy))
+				.findFirst()
+				.orElseGet(() -> sqlQuery.getTableName() + "." + sqlQuery.getKeyColumnName());
+	}
+
+	private void unlockRecordNoFail(@NonNull final TableRecordReference record, @NonNull final LockOwner lockOwner)
+	{
+		final StringBuilder sql = new StringBuilder(SQL_DeleteLock);
+		final List<Object> sqlParams = new ArrayList<>();
+		appendTableRecordWhereClause(record, sql, sqlParams);
+		appendLockOwnerWhereClause(lockOwner, sql, sqlParams);
+
+		try
+		{
+			DB.executeUpdateAndThrowExceptionOnFail(sql.toString(), sqlParams.toArray(), ITrx.TRXNAME_None);
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed unlocking {}. Ignored.", record, ex);
+		}
 	}
 
 	@Override
@@ -661,6 +871,23 @@ public class SqlLockDatabase extends AbstractLockDatabase
 		return countLocksReleased;
 	}
 
+	@Override
+	public int removeExpiredLocks(@NonNull final String tableName, @NonNull final LockOwner lockOwner, @NonNull final Duration maxAge)
+	{
+		final List<Object> sqlParams = new ArrayList<>();
+		final StringBuilder sql = new StringBuilder("DELETE FROM " + I_T_Lock.Table_Name + " WHERE 1=1");
+		sql.append(" AND ").append(I_T_Lock.COLUMNNAME_AD_Table_ID).append("=").append(toSqlParam(adTableDAO.retrieveTableId(tableName), sqlParams));
+		appendLockOwnerWhereClause(lockOwner, sql, sqlParams);
+		sql.append(" AND ").append(I_T_Lock.COLUMNNAME_Created).append(" < now() - ").append(toSqlParam(BigDecimal.valueOf(maxAge.getSeconds()), sqlParams)).append(" * interval '1 second'");
+
+		final int countLocksReleased = DB.executeUpdateAndThrowExceptionOnFail(sql.toString(), sqlParams.toArray(), ITrx.TRXNAME_None);
+		if (countLocksReleased > 0)
+		{
+			logger.info("Deleted {} lock records of {} from {} which are older than {}", countLocksReleased, tableName, I_T_Lock.Table_Name, maxAge);
+		}
+		return countLocksReleased;
+	}
+
 	@Override
 	@Nullable
 	public ExistingLockInfo getLockInfo(@NonNull final TableRecordReference tableRecordReference, @Nullable final LockOwner lockOwner)
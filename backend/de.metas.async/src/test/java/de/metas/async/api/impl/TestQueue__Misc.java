@@ -4,12 +4,17 @@ import de.metas.async.api.IWorkPackageQueue;
 import de.metas.async.model.I_C_Queue_WorkPackage;
 import de.metas.async.processor.IWorkPackageQueueFactory;
 import de.metas.async.spi.WorkpackageProcessorAdapter;
+import de.metas.common.util.time.SystemTime;
 import de.metas.util.Services;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.test.AdempiereTestHelper;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.sql.Timestamp;
+import java.time.ZonedDateTime;
+
 import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 import static org.adempiere.model.InterfaceWrapperHelper.save;
 import static org.assertj.core.api.Assertions.*;
@@ -44,6 +49,12 @@ public class TestQueue__Misc
 		AdempiereTestHelper.get().init();
 	}
 
+	@After
+	public void afterEach()
+	{
+		SystemTime.resetTimeSource();
+	}
+
 	@Test
 	public void markReadyForProcessingAfterTrxCommit_NoThreadIneritedTrx()
 	{
@@ -57,6 +68,22 @@ public class TestQueue__Misc
 		assertThat(workpackage.isReadyForProcessing()).isTrue();
 	}
 
+	@Test
+	public void markReadyForProcessing_setsReadyForProcessingAt()
+	{
+		final ZonedDateTime now = ZonedDateTime.parse("2023-03-01T10:00:00+01:00");
+		SystemTime.setFixedTimeSource(now);
+
+		final I_C_Queue_WorkPackage workpackage = newInstance(I_C_Queue_WorkPackage.class);
+		save(workpackage);
+		assertThat(workpackage.getReadyForProcessingAt()).isNull();
+
+		final IWorkPackageQueue queueForEnqueuing = Services.get(IWorkPackageQueueFactory.class).getQueueForEnqueuing(NOPWorkpackageProcessor.class);
+		queueForEnqueuing.markReadyForProcessing(workpackage);
+
+		assertThat(workpackage.getReadyForProcessingAt()).isEqualTo(Timestamp.from(now.toInstant()));
+	}
+
 	private static final class NOPWorkpackageProcessor extends WorkpackageProcessorAdapter
 	{
 		@Override
@@ -0,0 +1,60 @@
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+package de.metas.async.processor.impl;
+
+import de.metas.async.processor.QueueProcessorLatencyStats;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueueProcessorStatisticsTest
+{
+	@Test
+	void enqueueToStartLatency()
+	{
+		final QueueProcessorStatistics statistics = new QueueProcessorStatistics();
+		statistics.recordEnqueueToStartLatency(5);
+		statistics.recordEnqueueToStartLatency(80);
+		statistics.recordEnqueueToStartLatency(100);
+		statistics.recordEnqueueToStartLatency(120_000);
+
+		final QueueProcessorLatencyStats latency = statistics.getEnqueueToStartLatency();
+		assertThat(latency.getCount()).isEqualTo(4);
+		assertThat(latency.getMaxMillis()).isEqualTo(120_000);
+		assertThat(latency.getAverageMillis()).isEqualTo(30_046);
+		assertThat(latency.getCountsByBucket()).containsExactly(1L, 2L, 0L, 0L, 0L, 0L, 0L, 1L);
+		assertThat(latency.toDisplayString()).isEqualTo("count=4, avg=30046ms, max=120000ms, <=10ms: 1, <=100ms: 2, >60000ms: 1");
+	}
+
+	@Test
+	void cloneIsIndependent()
+	{
+		final QueueProcessorStatistics statistics = new QueueProcessorStatistics();
+		statistics.recordEnqueueToStartLatency(5);
+
+		final QueueProcessorStatistics snapshot = statistics.clone();
+		statistics.recordEnqueueToStartLatency(5);
+
+		assertThat(snapshot.getEnqueueToStartLatency().getCount()).isEqualTo(1);
+		assertThat(snapshot.getEnqueueToStartLatency().getCountsByBucket().get(0)).isEqualTo(1L);
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+package de.metas.async.processor.impl.planner;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkPackageReadySignalTest
+{
+	private WorkPackageReadySignal signal;
+
+	@BeforeEach
+	void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+		signal = WorkPackageReadySignal.instance;
+	}
+
+	@Test
+	void notSignaled_timesOut() throws Exception
+	{
+		assertThat(signal.await(signal.getSignalSequence(), 10)).isFalse();
+	}
+
+	@Test
+	void signalFiredWhileLookingForWork_isNotLost() throws Exception
+	{
+		final long signalSequenceBeforeRun = signal.getSignalSequence();
+		signal.fire(); // e.g. fired while the planner was polling
+
+		assertThat(signal.await(signalSequenceBeforeRun, TimeUnit.MINUTES.toMillis(1))).isTrue();
+	}
+
+	@Test
+	void oneSignal_wakesUpAllWaiters() throws Exception
+	{
+		final long signalSequenceBeforeRun = signal.getSignalSequence();
+		signal.fire();
+
+		// the first waiter is not consuming the signal for the second one
+		assertThat(signal.await(signalSequenceBeforeRun, TimeUnit.MINUTES.toMillis(1))).isTrue();
+		assertThat(signal.await(signalSequenceBeforeRun, TimeUnit.MINUTES.toMillis(1))).isTrue();
+	}
+
+	@Test
+	void waiterIsWokenUp() throws Exception
+	{
+		final long signalSequenceBeforeRun = signal.getSignalSequence();
+		final CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> {
+			try
+			{
+				return signal.await(signalSequenceBeforeRun, TimeUnit.MINUTES.toMillis(1));
+			}
+			catch (final InterruptedException e)
+			{
+				throw new RuntimeException(e);
+			}
+		});
+
+		signal.fire();
+
+		assertThat(waiter.get(10, TimeUnit.SECONDS)).isTrue();
+	}
+}
@@ -0,0 +1,429 @@
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+package de.metas.lock.spi.impl;
+
+import de.metas.async.model.I_C_Queue_Element;
+import de.metas.async.model.I_C_Queue_WorkPackage;
+import de.metas.common.util.time.SystemTime;
+import de.metas.lock.api.ILock;
+import de.metas.lock.api.ILockCommand.AllowAdditionalLocks;
+import de.metas.lock.api.LockOwner;
+import de.metas.lock.api.impl.LockManager;
+import de.metas.lock.exceptions.LockFailedException;
+import de.metas.lock.spi.ExistingLockInfo;
+import de.metas.lock.spi.ILockDatabase;
+import de.metas.organization.OrgId;
+import de.metas.util.Services;
+import org.adempiere.ad.dao.IQueryFilter;
+import org.adempiere.ad.table.api.IADTableDAO;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InMemoryLockDatabaseTest
+{
+	private static final ZonedDateTime NOW = ZonedDateTime.parse("2023-03-01T10:00:00+01:00");
+
+	private int adTableId;
+	private InMemoryLockDatabase database;
+	private LockManager lockManager;
+
+	@BeforeEach
+	void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+		SystemTime.setFixedTimeSource(NOW);
+
+		adTableId = Services.get(IADTableDAO.class).retrieveTableId(I_C_Queue_WorkPackage.Table_Name);
+		database = new InMemoryLockDatabase(Duration.ofMinutes(1));
+		lockManager = newLockManager(database);
+	}
+
+	@AfterEach
+	void afterEach()
+	{
+		SystemTime.resetTimeSource();
+	}
+
+	private static LockManager newLockManager(final ILockDatabase lockDatabase)
+	{
+		return new LockManager()
+		{
+			@Override
+			public ILockDatabase getLockDatabase()
+			{
+				return lockDatabase;
+			}
+		};
+	}
+
+	private ILock lock(final LockOwner owner, final int recordId)
+	{
+		return lockManager.lock()
+				.setOwner(owner)
+				.setFailIfAlreadyLocked(false)
+				.setRecordByTableRecordId(adTableId, recordId)
+				.acquire();
+	}
+
+	@Test
+	void lockAndUnlockByOwner()
+	{
+		final LockOwner owner = LockOwner.newOwner("test");
+		final ILock lock = lockManager.lock()
+				.setOwner(owner)
+				.addRecord(TableRecordReference.of(adTableId, 1))
+				.addRecord(TableRecordReference.of(adTableId, 2))
+				.acquire();
+
+		assertThat(lock.getCountLocked()).isEqualTo(2);
+		assertThat(database.isLocked(adTableId, 1, owner)).isTrue();
+		assertThat(database.isLocked(adTableId, 2, LockOwner.ANY)).isTrue();
+		assertThat(database.retrieveLockForOwner(owner).getCountLocked()).isEqualTo(2);
+
+		assertThat(lockManager.unlock().setOwner(owner).release()).isEqualTo(2);
+
+		assertThat(database.isLocked(adTableId, 1, LockOwner.ANY)).isFalse();
+		assertThat(database.isLocked(adTableId, 2, LockOwner.ANY)).isFalse();
+		assertThat(database.hasLocks()).isFalse();
+	}
+
+	@Test
+	void recordLockedByOtherOwner()
+	{
+		lock(LockOwner.newOwner("owner1"), 1);
+
+		assertThat(lock(LockOwner.newOwner("owner2"), 1).getCountLocked()).isZero();
+
+		assertThatThrownBy(() -> lockManager.lock()
+				.setOwner(LockOwner.newOwner("owner3"))
+				.setFailIfAlreadyLocked(true)
+				.setRecordByTableRecordId(adTableId, 1)
+				.acquire())
+				.isInstanceOf(LockFailedException.class);
+	}
+
+	@Test
+	void allowMultipleOwners()
+	{
+		final LockOwner owner1 = LockOwner.newOwner("owner1");
+		final LockOwner owner2 = LockOwner.newOwner("owner2");
+		for (final LockOwner owner : new LockOwner[] { owner1, owner2 })
+		{
+			final ILock lock = lockManager.lock()
+					.setOwner(owner)
+					.setAllowAdditionalLocks(AllowAdditionalLocks.FOR_DIFFERENT_OWNERS)
+					.setRecordByTableRecordId(adTableId, 1)
+					.acquire();
+			assertThat(lock.getCountLocked()).isEqualTo(1);
+		}
+
+		lockManager.unlock().setOwner(owner1).setRecordByTableRecordId(adTableId, 1).release();
+
+		assertThat(database.isLocked(adTableId, 1, owner1)).isFalse();
+		assertThat(database.isLocked(adTableId, 1, owner2)).isTrue();
+	}
+
+	@Test
+	void leaseExpires()
+	{
+		lock(LockOwner.newOwner("owner1"), 1);
+
+		SystemTime.setFixedTimeSource(NOW.plusSeconds(59));
+		assertThat(database.isLocked(adTableId, 1, LockOwner.ANY)).isTrue();
+
+		SystemTime.setFixedTimeSource(NOW.plusSeconds(60));
+		assertThat(database.isLocked(adTableId, 1, LockOwner.ANY)).isFalse();
+		assertThat(lock(LockOwner.newOwner("owner2"), 1).getCountLocked()).isEqualTo(1);
+	}
+
+	@Test
+	void hasLocksPerTable()
+	{
+		final int otherAdTableId = Services.get(IADTableDAO.class).retrieveTableId(I_C_Queue_Element.Table_Name);
+		final LockOwner owner = LockOwner.newOwner("test");
+		lock(owner, 1);
+		lock(owner, 2);
+
+		assertThat(database.hasLocks(adTableId)).isTrue();
+		assertThat(database.hasLocks(otherAdTableId)).isFalse();
+		assertThat(database.getLockedRecordIds(otherAdTableId, LockOwner.ANY)).isEmpty();
+
+		lockManager.unlock().setOwner(owner).setRecordByTableRecordId(adTableId, 1).release();
+		assertThat(database.hasLocks(adTableId)).isTrue();
+
+		lockManager.unlock().setOwner(owner).setRecordByTableRecordId(adTableId, 2).release();
+		assertThat(database.hasLocks(adTableId)).isFalse();
+	}
+
+	@Test
+	void changeLock()
+	{
+		final LockOwner owner1 = LockOwner.newOwner("owner1");
+		final LockOwner owner2 = LockOwner.newOwner("owner2");
+		final ILock lock = lockManager.lock()
+				.setOwner(owner1)
+				.addRecord(TableRecordReference.of(adTableId, 1))
+				.addRecord(TableRecordReference.of(adTableId, 2))
+				.acquire();
+
+		lock.split()
+				.setOwner(owner2)
+				.setRecordByTableRecordId(adTableId, 2)
+				.acquire();
+
+		assertThat(database.getLockedRecordIds(adTableId, owner1)).containsExactly(1);
+		assertThat(database.getLockedRecordIds(adTableId, owner2)).containsExactly(2);
+
+		assertThat(lockManager.unlock().setOwner(owner1).release()).isEqualTo(1);
+		assertThat(database.isLocked(adTableId, 2, owner2)).isTrue();
+
+		assertThat(lockManager.unlock().setOwner(owner2).release()).isEqualTo(1);
+		assertThat(database.hasLocks()).isFalse();
+	}
+
+	@Test
+	void lockedByFilterAndWhereClause()
+	{
+		final I_C_Queue_WorkPackage locked = newWorkPackage();
+		final I_C_Queue_WorkPackage lockedByOtherOwner = newWorkPackage();
+		final I_C_Queue_WorkPackage notLocked = newWorkPackage();
+		final LockOwner owner = LockOwner.newOwner("owner");
+		lock(owner, locked.getC_Queue_WorkPackage_ID());
+		lock(LockOwner.newOwner("other"), lockedByOtherOwner.getC_Queue_WorkPackage_ID());
+
+		final IQueryFilter<I_C_Queue_WorkPackage> lockedByFilter = database.getLockedByFilter(I_C_Queue_WorkPackage.class, owner);
+		assertThat(lockedByFilter.accept(locked)).isTrue();
+		assertThat(lockedByFilter.accept(lockedByOtherOwner)).isFalse();
+		assertThat(lockedByFilter.accept(notLocked)).isFalse();
+
+		final IQueryFilter<I_C_Queue_WorkPackage> notLockedFilter = database.getNotLockedFilter(I_C_Queue_WorkPackage.class);
+		assertThat(notLockedFilter.accept(locked)).isFalse();
+		assertThat(notLockedFilter.accept(lockedByOtherOwner)).isFalse();
+		assertThat(notLockedFilter.accept(notLocked)).isTrue();
+
+		assertThat(database.getLockedWhereClause(I_C_Queue_WorkPackage.class, "wp.C_Queue_WorkPackage_ID", owner))
+				.isEqualTo("wp.C_Queue_WorkPackage_ID IN (" + locked.getC_Queue_WorkPackage_ID() + ")");
+		assertThat(database.getLockedWhereClause(I_C_Queue_WorkPackage.class, "wp.C_Queue_WorkPackage_ID", LockOwner.newOwner("none")))
+				.isEqualTo("1=0");
+
+		lockManager.unlock().setOwner(owner).release();
+		assertThat(database.getLockedByFilter(I_C_Queue_WorkPackage.class, owner).accept(locked)).isFalse();
+	}
+
+	@Test
+	void lockManager_usesHybridDatabaseOnlyIfConfigured()
+	{
+		final LockManager lockManager = new LockManager();
+		assertThat(lockManager.getLockDatabase()).isInstanceOf(SqlLockDatabase.class);
+
+		Services.get(ISysConfigBL.class).setValue(LockOwnerPersistencePolicy.SYSCONFIG_InMemoryOwnerNamePrefixes, "inMemory", ClientId.SYSTEM, OrgId.ANY);
+		assertThat(lockManager.getLockDatabase()).isInstanceOf(HybridLockDatabase.class);
+	}
+
+	@Test
+	void hybrid_locksAreKeptWhereThePolicySays()
+	{
+		Services.get(ISysConfigBL.class).setValue(LockOwnerPersistencePolicy.SYSCONFIG_InMemoryOwnerNamePrefixes, "inMemory1, inMemory2", ClientId.SYSTEM, OrgId.ANY);
+
+		final PlainLockDatabase databaseLocks = new PlainLockDatabase();
+		final HybridLockDatabase hybridDatabase = new HybridLockDatabase(databaseLocks, database, new LockOwnerPersistencePolicy());
+		lockManager = newLockManager(hybridDatabase);
+
+		final LockOwner inMemoryOwner = LockOwner.newOwner("inMemory2");
+		final LockOwner databaseOwner = LockOwner.newOwner("other");
+		lock(inMemoryOwner, 1);
+		lock(databaseOwner, 2);
+
+		assertThat(database.isLocked(adTableId, 1, inMemoryOwner)).isTrue();
+		assertThat(databaseLocks.isLocked(adTableId, 1, LockOwner.ANY)).isFalse();
+		assertThat(databaseLocks.isLocked(adTableId, 2, databaseOwner)).isTrue();
+		assertThat(database.isLocked(adTableId, 2, LockOwner.ANY)).isFalse();
+
+		assertThat(hybridDatabase.isLocked(adTableId, 1, LockOwner.ANY)).isTrue();
+		assertThat(hybridDatabase.isLocked(adTableId, 2, LockOwner.ANY)).isTrue();
+
+		assertThat(lockManager.unlock().setOwner(inMemoryOwner).release()).isEqualTo(1);
+		assertThat(hybridDatabase.isLocked(adTableId, 1, LockOwner.ANY)).isFalse();
+		assertThat(hybridDatabase.isLocked(adTableId, 2, LockOwner.ANY)).isTrue();
+	}
+
+	private HybridLockDatabase newHybridDatabase(final PlainLockDatabase databaseLocks)
+	{
+		Services.get(ISysConfigBL.class).setValue(LockOwnerPersistencePolicy.SYSCONFIG_InMemoryOwnerNamePrefixes, "inMemory", ClientId.SYSTEM, OrgId.ANY);
+
+		final HybridLockDatabase hybridDatabase = new HybridLockDatabase(databaseLocks, database, new LockOwnerPersistencePolicy());
+		lockManager = newLockManager(hybridDatabase);
+		return hybridDatabase;
+	}
+
+	@Test
+	void hybrid_recordLockedInDatabaseIsNotLockedInMemory()
+	{
+		final PlainLockDatabase databaseLocks = new PlainLockDatabase();
+		newHybridDatabase(databaseLocks);
+
+		lock(LockOwner.newOwner("other"), 1);
+
+		final LockOwner inMemoryOwner = LockOwner.newOwner("inMemory");
+		assertThat(lock(inMemoryOwner, 1).getCountLocked()).isZero();
+		assertThat(database.hasLocks()).isFalse();
+
+		assertThatThrownBy(() -> lockManager.lock()
+				.setOwner(inMemoryOwner)
+				.setFailIfAlreadyLocked(true)
+				.setRecordByTableRecordId(adTableId, 1)
+				.acquire())
+				.isInstanceOf(LockFailedException.class);
+	}
+
+	@Test
+	void hybrid_recordLockedInMemoryIsNotLockedInDatabase()
+	{
+		final PlainLockDatabase databaseLocks = new PlainLockDatabase();
+		newHybridDatabase(databaseLocks);
+
+		lock(LockOwner.newOwner("inMemory"), 1);
+
+		assertThat(lock(LockOwner.newOwner("other"), 1).getCountLocked()).isZero();
+		assertThat(databaseLocks.isLocked(adTableId, 1, LockOwner.ANY)).isFalse();
+		assertThat(lock(LockOwner.newOwner("other"), 2).getCountLocked()).isEqualTo(1);
+	}
+
+	@Test
+	void hybrid_movingLockBetweenDatabasesIsNotSupported()
+	{
+		newHybridDatabase(new PlainLockDatabase());
+
+		final ILock inMemoryLock = lock(LockOwner.newOwner("inMemory"), 1);
+
+		assertThatThrownBy(() -> inMemoryLock.split()
+				.setOwner(LockOwner.newOwner("other"))
+				.setRecordByTableRecordId(adTableId, 1)
+				.acquire())
+				.isInstanceOf(LockFailedException.class);
+		assertThat(database.isLocked(adTableId, 1, LockOwner.ANY)).isTrue();
+	}
+
+	@Test
+	void hybrid_lockInfoOfAnyOwnerIncludesInMemoryLocks()
+	{
+		final HybridLockDatabase hybridDatabase = newHybridDatabase(new PlainLockDatabase());
+
+		final LockOwner inMemoryOwner = LockOwner.newOwner("inMemory");
+		lock(inMemoryOwner, 1);
+
+		final ExistingLockInfo lockInfo = hybridDatabase.getLockInfo(TableRecordReference.of(adTableId, 1), LockOwner.ANY);
+		assertThat(lockInfo).isNotNull();
+		assertThat(lockInfo.getOwnerName()).isEqualTo(inMemoryOwner.getOwnerName());
+	}
+
+	@Test
+	void hybrid_notLockedFilterExcludesInMemoryLocks()
+	{
+		final HybridLockDatabase hybridDatabase = newHybridDatabase(new PlainLockDatabase());
+
+		final I_C_Queue_WorkPackage lockedInMemory = newWorkPackage();
+		final I_C_Queue_WorkPackage lockedInDatabase = newWorkPackage();
+		final I_C_Queue_WorkPackage notLocked = newWorkPackage();
+		lock(LockOwner.newOwner("inMemory"), lockedInMemory.getC_Queue_WorkPackage_ID());
+		lock(LockOwner.newOwner("other"), lockedInDatabase.getC_Queue_WorkPackage_ID());
+
+		final IQueryFilter<I_C_Queue_WorkPackage> notLockedFilter = hybridDatabase.getNotLockedFilter(I_C_Queue_WorkPackage.class);
+		assertThat(notLockedFilter.accept(lockedInMemory)).isFalse();
+		assertThat(notLockedFilter.accept(lockedInDatabase)).isFalse();
+		assertThat(notLockedFilter.accept(notLocked)).isTrue();
+	}
+
+	@Test
+	void hybrid_lockedByFilterIncludesInMemoryLocks()
+	{
+		final HybridLockDatabase hybridDatabase = newHybridDatabase(new PlainLockDatabase());
+
+		final I_C_Queue_WorkPackage lockedInMemory = newWorkPackage();
+		final I_C_Queue_WorkPackage lockedInDatabase = newWorkPackage();
+		final I_C_Queue_WorkPackage notLocked = newWorkPackage();
+		final LockOwner inMemoryOwner = LockOwner.newOwner("inMemory");
+		lock(inMemoryOwner, lockedInMemory.getC_Queue_WorkPackage_ID());
+		lock(LockOwner.newOwner("other"), lockedInDatabase.getC_Queue_WorkPackage_ID());
+
+		final IQueryFilter<I_C_Queue_WorkPackage> lockedByInMemoryOwnerFilter = hybridDatabase.getLockedByFilter(I_C_Queue_WorkPackage.class, inMemoryOwner);
+		assertThat(lockedByInMemoryOwnerFilter.accept(lockedInMemory)).isTrue();
+		assertThat(lockedByInMemoryOwnerFilter.accept(lockedInDatabase)).isFalse();
+		assertThat(lockedByInMemoryOwnerFilter.accept(notLocked)).isFalse();
+
+		final IQueryFilter<I_C_Queue_WorkPackage> lockedByAnyFilter = hybridDatabase.getLockedByFilter(I_C_Queue_WorkPackage.class, LockOwner.ANY);
+		assertThat(lockedByAnyFilter.accept(lockedInMemory)).isTrue();
+		assertThat(lockedByAnyFilter.accept(lockedInDatabase)).isTrue();
+		assertThat(lockedByAnyFilter.accept(notLocked)).isFalse();
+
+		assertThat(hybridDatabase.getLockedWhereClause(I_C_Queue_WorkPackage.class, "wp.C_Queue_WorkPackage_ID", inMemoryOwner))
+				.isEqualTo("wp.C_Queue_WorkPackage_ID IN (" + lockedInMemory.getC_Queue_WorkPackage_ID() + ")");
+	}
+
+	private static I_C_Queue_WorkPackage newWorkPackage()
+	{
+		final I_C_Queue_WorkPackage workPackage = InterfaceWrapperHelper.newInstance(I_C_Queue_WorkPackage.class);
+		InterfaceWrapperHelper.saveRecord(workPackage);
+		return workPackage;
+	}
+
+	@Test
+	void hybrid_inMemoryOnlyTable()
+	{
+		Services.get(ISysConfigBL.class).setValue(LockOwnerPersistencePolicy.SYSCONFIG_InMemoryOnlyTableNames, I_C_Queue_WorkPackage.Table_Name, ClientId.SYSTEM, OrgId.ANY);
+
+		final AtomicInteger databaseLookups = new AtomicInteger();
+		final PlainLockDatabase databaseLocks = new PlainLockDatabase()
+		{
+			@Override
+			public boolean isLocked(final int adTableId, final int recordId, final LockOwner lockOwner)
+			{
+				databaseLookups.incrementAndGet();
+				return super.isLocked(adTableId, recordId, lockOwner);
+			}
+		};
+		newHybridDatabase(databaseLocks);
+
+		// the in-memory lock is not checked against the database...
+		assertThat(lock(LockOwner.newOwner("inMemory"), 1).getCountLocked()).isEqualTo(1);
+		assertThat(databaseLookups).hasValue(0);
+
+		// ...because the table's records can't be locked in the database
+		assertThat(lock(LockOwner.newOwner("other"), 2).getCountLocked()).isZero();
+		assertThat(databaseLocks.getLocksCount()).isZero();
+	}
+}
@@ -0,0 +1,181 @@
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+package de.metas.lock.spi.impl;
+
+import de.metas.async.model.I_C_Queue_WorkPackage;
+import de.metas.lock.api.LockOwner;
+import de.metas.lock.api.impl.LockManager;
+import de.metas.lock.spi.ILockDatabase;
+import de.metas.organization.OrgId;
+import de.metas.util.Check;
+import de.metas.util.Services;
+import org.adempiere.ad.table.api.IADTableDAO;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.Adempiere.RunMode;
+import org.compiere.util.Env;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the lock/unlock throughput of several threads which are locking single records,
+ * once with the locks kept in {@code T_Lock} (see {@link SqlLockDatabase}) and once with the locks kept in memory (see {@link HybridLockDatabase}).
+ * <p>
+ * The in-memory locks are measured with and without the check against the {@code T_Lock} locks (see {@link LockOwnerPersistencePolicy#SYSCONFIG_InMemoryOnlyTableNames}).
+ * <p>
+ * Needs a database; the {@code PropertyFile} system property can be used to point to its connection settings.
+ * The sysconfigs which are changed for the benchmark are restored afterwards.
+ * <p>
+ * Not a unit test; run it using {@link #main(String[])}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class LockDatabaseBenchmark
+{
+	private static final int RECORDS_COUNT = 10_000;
+
+	public enum LockDatabaseType
+	{
+		DATABASE,
+		IN_MEMORY,
+		IN_MEMORY_ONLY_TABLE,
+	}
+
+	@Param
+	public LockDatabaseType lockDatabaseType;
+
+	private int adTableId;
+	private LockManager lockManager;
+
+	private String inMemoryOwnerNamePrefixesToRestore;
+	private String inMemoryOnlyTableNamesToRestore;
+
+	@Setup
+	public void setup()
+	{
+		setupAdempiere();
+
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		inMemoryOwnerNamePrefixesToRestore = sysConfigBL.getValue(LockOwnerPersistencePolicy.SYSCONFIG_InMemoryOwnerNamePrefixes, "");
+		inMemoryOnlyTableNamesToRestore = sysConfigBL.getValue(LockOwnerPersistencePolicy.SYSCONFIG_InMemoryOnlyTableNames, "");
+
+		sysConfigBL.setValue(LockOwnerPersistencePolicy.SYSCONFIG_InMemoryOwnerNamePrefixes, "inMemory", ClientId.SYSTEM, OrgId.ANY);
+		sysConfigBL.setValue(LockOwnerPersistencePolicy.SYSCONFIG_InMemoryOnlyTableNames,
+				lockDatabaseType == LockDatabaseType.IN_MEMORY_ONLY_TABLE ? I_C_Queue_WorkPackage.Table_Name : "",
+				ClientId.SYSTEM,
+				OrgId.ANY);
+
+		adTableId = Services.get(IADTableDAO.class).retrieveTableId(I_C_Queue_WorkPackage.Table_Name);
+
+		final SqlLockDatabase databaseLocks = new SqlLockDatabase();
+		final ILockDatabase lockDatabase = lockDatabaseType == LockDatabaseType.DATABASE
+				? databaseLocks
+				: new HybridLockDatabase(databaseLocks, new InMemoryLockDatabase(Duration.ofMinutes(10)), new LockOwnerPersistencePolicy());
+		lockManager = new LockManager()
+		{
+			@Override
+			public ILockDatabase getLockDatabase()
+			{
+				return lockDatabase;
+			}
+		};
+	}
+
+	private static void setupAdempiere()
+	{
+		//
+		// Use hardcoded default PropertyFile if none found
+		if (Check.isEmpty(System.getProperty("PropertyFile"), true))
+		{
+			final String propertyFile =
+					new File(".").getAbsolutePath() // e.g. C:\workspaces\de.metas.async\
+							+ File.separator + ".." // e.g. C:\workspaces\
+							+ File.separator + "de.metas.endcustomer."
+							+ File.separator + "Adempiere.properties_" + System.getProperty("user.name");
+			System.out.println("Set default PropertyFile=" + propertyFile);
+			System.setProperty("PropertyFile", propertyFile);
+		}
+
+		Env.getSingleAdempiereInstance(null).startup(RunMode.SWING_CLIENT);
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		sysConfigBL.setValue(LockOwnerPersistencePolicy.SYSCONFIG_InMemoryOwnerNamePrefixes, inMemoryOwnerNamePrefixesToRestore, ClientId.SYSTEM, OrgId.ANY);
+		sysConfigBL.setValue(LockOwnerPersistencePolicy.SYSCONFIG_InMemoryOnlyTableNames, inMemoryOnlyTableNamesToRestore, ClientId.SYSTEM, OrgId.ANY);
+	}
+
+	@Benchmark
+	public int lockAndUnlock()
+	{
+		final LockOwner owner = LockOwner.newOwner("inMemory");
+		final int recordId = ThreadLocalRandom.current().nextInt(1, RECORDS_COUNT + 1);
+
+		final int countLocked = lockManager.lock()
+				.setOwner(owner)
+				.setFailIfAlreadyLocked(false)
+				.setRecordByTableRecordId(adTableId, recordId)
+				.acquire()
+				.getCountLocked();
+		lockManager.unlock()
+				.setOwner(owner)
+				.release();
+
+		return countLocked;
+	}
+
+	public static void main(final String[] args) throws RunnerException
+	{
+		new Runner(new OptionsBuilder()
+				.include(LockDatabaseBenchmark.class.getSimpleName())
+				.build())
+				.run();
+	}
+}
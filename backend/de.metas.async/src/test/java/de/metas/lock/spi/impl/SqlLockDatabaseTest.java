@@ -0,0 +1,70 @@
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.lock.spi.impl;
+
+import de.metas.async.model.I_C_Queue_WorkPackage;
+import org.adempiere.ad.dao.impl.TypedSqlQuery;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlLockDatabaseTest
+{
+	private static final String QUEUE_ORDER_BY = I_C_Queue_WorkPackage.COLUMNNAME_Priority + ", " + I_C_Queue_WorkPackage.COLUMNNAME_C_Queue_WorkPackage_ID;
+
+	@BeforeEach
+	void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	private static TypedSqlQuery<I_C_Queue_WorkPackage> newQuery()
+	{
+		return new TypedSqlQuery<>(Env.getCtx(), I_C_Queue_WorkPackage.class, "1=1", ITrx.TRXNAME_None);
+	}
+
+	@Test
+	void claimedRecordsOrder_ofOrderedQuery()
+	{
+		final TypedSqlQuery<I_C_Queue_WorkPackage> query = newQuery().setOrderBy(QUEUE_ORDER_BY);
+
+		assertThat(SqlLockDatabase.getOrderByForClaimedRecords(query)).isEqualTo(QUEUE_ORDER_BY);
+	}
+
+	/**
+	 * Like the async planner's query, where the queue specific queries are ordered by priority and ID, but the union is not.
+	 */
+	@Test
+	void claimedRecordsOrder_ofUnorderedUnionOfOrderedQueries()
+	{
+		final TypedSqlQuery<I_C_Queue_WorkPackage> aggregatorQuery = newQuery();
+		aggregatorQuery.addUnion(newQuery().setOrderBy(QUEUE_ORDER_BY), true);
+		aggregatorQuery.addUnion(newQuery().setOrderBy(QUEUE_ORDER_BY), true);
+
+		assertThat(SqlLockDatabase.getOrderByForClaimedRecords(aggregatorQuery)).isEqualTo(QUEUE_ORDER_BY);
+	}
+}
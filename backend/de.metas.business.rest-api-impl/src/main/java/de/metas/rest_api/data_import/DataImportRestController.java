@@ -8,6 +8,9 @@ import de.metas.impexp.ActualImportRecordsResult;
 import de.metas.impexp.AsyncImportRecordsResponse;
 import de.metas.impexp.DataImportRequest;
 import de.metas.impexp.DataImportResult;
+import de.metas.impexp.DataImportRunId;
+import de.metas.impexp.DataImportRunProgress;
+import de.metas.impexp.DataImportRunsService;
 import de.metas.impexp.DataImportService;
 import de.metas.impexp.InsertIntoImportTableResult;
 import de.metas.impexp.ValidateImportRecordsResult;
@@ -29,6 +32,8 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -72,12 +77,34 @@ public class DataImportRestController
 {
 	private static final Logger logger = LogManager.getLogger(DataImportRestController.class);
 	private final DataImportService dataImportService;
+	private final DataImportRunsService dataImportRunsService;
 
 	private static final String ERROR_PARAM_WHERE = "where";
 
-	public DataImportRestController(@NonNull final DataImportService dataImportService)
+	public DataImportRestController(
+			@NonNull final DataImportService dataImportService,
+			@NonNull final DataImportRunsService dataImportRunsService)
 	{
 		this.dataImportService = dataImportService;
+		this.dataImportRunsService = dataImportRunsService;
+	}
+
+	@Operation(summary = "Gets the progress of a data import run, i.e. how many rows were inserted into the import table and how many records were imported so far.")
+	@GetMapping("/runs/{dataImportRunId}/progress")
+	public ResponseEntity<JsonDataImportRunProgress> getRunProgress(
+			@Parameter(description = "Data import run ID (i.e. `C_DataImport_Run_ID`), as returned by the import endpoints") //
+			@PathVariable("dataImportRunId") final int dataImportRunIdInt)
+	{
+		final DataImportRunId dataImportRunId = DataImportRunId.ofRepoIdOrNull(dataImportRunIdInt);
+		if (dataImportRunId == null)
+		{
+			return ResponseEntity.notFound().build();
+		}
+
+		return dataImportRunsService.getProgress(dataImportRunId)
+				.map(DataImportRestController::toJson)
+				.map(ResponseEntity::ok)
+				.orElseGet(() -> ResponseEntity.notFound().build());
 	}
 
 	@Operation(summary = "Uploads a text file. Using this endpoint is technically simpler for clients of this API than to upload a multipart file via the other endpoint.")
@@ -260,6 +287,19 @@ public class DataImportRestController
 				.build();
 	}
 
+	private static JsonDataImportRunProgress toJson(@NonNull final DataImportRunProgress progress)
+	{
+		return JsonDataImportRunProgress.builder()
+				.dataImportRunId(progress.getDataImportRunId())
+				.countRowsInsertedIntoImportTable(progress.getCountRowsInsertedIntoImportTable())
+				.insertIntoImportTableDuration(progress.getInsertIntoImportTableDuration().toString())
+				.rowsInsertedIntoImportTablePerSecond(progress.getRowsInsertedIntoImportTablePerSecond())
+				.countRecordsImported(progress.getCountRecordsImported())
+				.importRecordsDuration(progress.getImportRecordsDuration().toString())
+				.recordsImportedPerSecond(progress.getRecordsImportedPerSecond())
+				.build();
+	}
+
 	private static JsonErrorItem toJsonErrorItem(final InsertIntoImportTableResult.Error error)
 	{
 		return JsonErrorItem.builder()
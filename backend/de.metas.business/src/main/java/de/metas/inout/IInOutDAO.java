@@ -1,6 +1,7 @@
 package de.metas.inout;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import de.metas.bpartner.BPartnerId;
@@ -91,6 +92,11 @@ public interface IInOutDAO extends ISingletonService
 
 	<T extends I_M_InOutLine> List<T> retrieveLinesForOrderLine(I_C_OrderLine orderLine, Class<T> clazz);
 
+	/**
+	 * Bulk version of {@link #retrieveLinesForOrderLine(I_C_OrderLine, Class)}. The lines of each order line are ordered by {@code M_InOutLine_ID}.
+	 */
+	<T extends I_M_InOutLine> ImmutableListMultimap<OrderLineId, T> retrieveLinesByOrderLineIds(Set<OrderLineId> orderLineIds, Class<T> clazz);
+
 	/**
 	 * @return query to retrieve all {@link I_M_InOutLine}s which are part of a shipment with doc status <code>Draft</code>, <code>InProgress</code> or <code>WaitingConfirmation</code>.
 	 */
@@ -125,6 +125,12 @@ public interface IOrderLineBL extends ISingletonService
 
 	void updatePrices(OrderLinePriceUpdateRequest request);
 
+	/**
+	 * Same as {@link #updatePrices(OrderLinePriceUpdateRequest)} for each request, but the prices are calculated in bulk (see {@link de.metas.pricing.service.IPricingBL#calculatePrices(List)}).
+	 * Useful when repricing many lines at once, e.g. all lines of an order.
+	 */
+	void updatePrices(List<OrderLinePriceUpdateRequest> requests);
+
 	IPricingResult computePrices(OrderLinePriceUpdateRequest request);
 
 	PriceLimitRuleResult computePriceLimit(org.compiere.model.I_C_OrderLine orderLine);
@@ -1,5 +1,6 @@
 package de.metas.order;
 
+import com.google.common.collect.ImmutableList;
 import de.metas.adempiere.model.I_C_Order;
 import de.metas.bpartner.BPartnerContactId;
 import de.metas.bpartner.BPartnerId;
@@ -92,6 +93,7 @@ public class OrderFactory
 
 	private final IDocumentBL documentBL = Services.get(IDocumentBL.class);
 	private final IOrderBL orderBL = Services.get(IOrderBL.class);
+	private final IOrderLineBL orderLineBL = Services.get(IOrderLineBL.class);
 
 	private final I_C_Order order;
 	private boolean built = false;
@@ -132,6 +134,12 @@ public class OrderFactory
 
 			createDraftOrderHeader();
 
+			// calculate the prices of all lines in one go, so that the pricing data they share is loaded only once
+			final ImmutableList<OrderLinePriceUpdateRequest> priceUpdateRequests = orderLineBuilders.stream()
+					.map(OrderLineBuilder::prepare)
+					.collect(ImmutableList.toImmutableList());
+			orderLineBL.updatePrices(priceUpdateRequests);
+
 			orderLineBuilders.forEach(OrderLineBuilder::build);
 
 			return order;
@@ -95,6 +95,7 @@ public class OrderLineBuilder
 
 	private final ArrayList<OrderLineDetailCreateRequest> detailCreateRequests = new ArrayList<>();
 
+	private I_C_OrderLine preparedOrderLine;
 	private I_C_OrderLine createdOrderLine;
 
 	private Dimension dimension;
@@ -116,7 +117,13 @@ public class OrderLineBuilder
 		this.parent = parent;
 	}
 
-	/* package */ void build()
+	/**
+	 * Creates the order line, but neither calculates its prices nor saves it.
+	 * This allows the parent {@link OrderFactory} to calculate the prices of all its lines in one go, before {@link #build()} completes each of them.
+	 *
+	 * @return the request to update the prepared order line's prices
+	 */
+	/* package */ OrderLinePriceUpdateRequest prepare()
 	{
 		assertNotBuilt();
 		built = true;
@@ -153,7 +160,17 @@ public class OrderLineBuilder
 			dimensionService.updateRecord(orderLine, dimension);
 		}
 
-		orderLineBL.updatePrices(getUpdatePriceRequest(orderLine));
+		this.preparedOrderLine = orderLine;
+
+		return getUpdatePriceRequest(orderLine);
+	}
+
+	/**
+	 * Completes and saves the order line which was created by {@link #prepare()}, after its prices were updated.
+	 */
+	/* package */ void build()
+	{
+		final I_C_OrderLine orderLine = Check.assumeNotNull(preparedOrderLine, "order line was prepared: {}", this);
 
 		if (!Check.isBlank(description))
 		{
@@ -169,7 +186,7 @@ public class OrderLineBuilder
 		try (final MDCCloseable ignored = TableRecordMDC.putTableRecordReference(orderLine))
 		{
 			// would be great to also have the pricing engine run in here..if there is a way for this without the need to save twice
-			logger.debug("Set C_OrderLine.QtyOrdered={} as converted from qty={} and productId={}", qtyOrdered.toBigDecimal(), qty, productId);
+			logger.debug("Set C_OrderLine.QtyOrdered={} as converted from qty={} and productId={}", orderLine.getQtyOrdered(), qty, productId);
 
 			// Create Details if any
 			if (!detailCreateRequests.isEmpty())
@@ -36,6 +36,7 @@ import de.metas.order.location.adapter.OrderLineDocumentLocationAdapterFactory;
 import de.metas.organization.IOrgDAO;
 import de.metas.organization.OrgId;
 import de.metas.payment.paymentterm.PaymentTermId;
+import de.metas.pricing.IPricingContext;
 import de.metas.pricing.IPricingResult;
 import de.metas.pricing.PriceListId;
 import de.metas.pricing.PriceListVersionId;
@@ -43,6 +44,7 @@ import de.metas.pricing.PricingSystemId;
 import de.metas.pricing.limit.PriceLimitRuleResult;
 import de.metas.pricing.service.IPriceListBL;
 import de.metas.pricing.service.IPriceListDAO;
+import de.metas.pricing.service.IPricingBL;
 import de.metas.product.IProductBL;
 import de.metas.product.ProductId;
 import de.metas.product.ProductPrice;
@@ -88,6 +90,7 @@ import javax.annotation.Nullable;
 import java.math.BigDecimal;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -139,6 +142,7 @@ public class OrderLineBL implements IOrderLineBL
 	private final ITaxBL taxBL = Services.get(ITaxBL.class);
 	private final IDocTypeBL docTypeBL = Services.get(IDocTypeBL.class);
 	private final IPriceListBL priceListBL = Services.get(IPriceListBL.class);
+	private final IPricingBL pricingBL = Services.get(IPricingBL.class);
 	private final IPriceListDAO priceListDAO = Services.get(IPriceListDAO.class);
 	private final IOrgDAO orgDAO = Services.get(IOrgDAO.class);
 	private final IProductBOMBL productBOMBL = Services.get(IProductBOMBL.class);
@@ -417,6 +421,35 @@ public class OrderLineBL implements IOrderLineBL
 				.updateOrderLine();
 	}
 
+	@Override
+	public void updatePrices(@NonNull final List<OrderLinePriceUpdateRequest> requests)
+	{
+		final List<OrderLinePriceCalculator> calculators = new ArrayList<>();
+		final List<IPricingContext> pricingCtxs = new ArrayList<>();
+		for (final OrderLinePriceUpdateRequest request : requests)
+		{
+			final OrderLinePriceCalculator calculator = OrderLinePriceCalculator.builder()
+					.request(request)
+					.orderLineBL(this)
+					.build();
+
+			final IPricingContext pricingCtx = calculator.createPricingContextIfApplies();
+			if (pricingCtx == null)
+			{
+				continue;
+			}
+
+			calculators.add(calculator);
+			pricingCtxs.add(pricingCtx);
+		}
+
+		final List<IPricingResult> pricingResults = pricingBL.calculatePrices(pricingCtxs);
+		for (int i = 0; i < calculators.size(); i++)
+		{
+			calculators.get(i).updateOrderLine(pricingCtxs.get(i), pricingResults.get(i));
+		}
+	}
+
 	@Override
 	public void updateQtyReserved(@Nullable final I_C_OrderLine orderLine)
 	{
@@ -112,18 +112,41 @@ final class OrderLinePriceCalculator
 
 	public void updateOrderLine()
 	{
-		final I_C_OrderLine orderLine = request.getOrderLine();
-
-		// Product was not set yet. There is no point to calculate the prices
-		if (orderLine.getM_Product_ID() <= 0)
+		final IPricingContext pricingCtx = createPricingContextIfApplies();
+		if (pricingCtx == null)
 		{
 			return;
 		}
-		
-		//
-		// Calculate Pricing Result
-		final IEditablePricingContext pricingCtx = createPricingContext();
+
 		final IPricingResult pricingResult = pricingBL.calculatePrice(pricingCtx);
+		updateOrderLine(pricingCtx, pricingResult);
+	}
+
+	/**
+	 * @return pricing context or {@code null} if the order line's prices shall not be calculated
+	 */
+	@Nullable
+	IPricingContext createPricingContextIfApplies()
+	{
+		// Product was not set yet. There is no point to calculate the prices
+		if (request.getOrderLine().getM_Product_ID() <= 0)
+		{
+			return null;
+		}
+
+		return createPricingContext();
+	}
+
+	/**
+	 * Updates the order line from given pricing result.
+	 *
+	 * @param pricingCtx    the context which was returned by {@link #createPricingContextIfApplies()}
+	 * @param pricingResult the result which was calculated for {@code pricingCtx}
+	 */
+	void updateOrderLine(@NonNull final IPricingContext pricingCtx, @NonNull final IPricingResult pricingResult)
+	{
+		final I_C_OrderLine orderLine = request.getOrderLine();
+
 		if (!pricingResult.isCalculated())
 		{
 			throw new ProductNotOnPriceListException(pricingCtx, orderLine.getLine())
@@ -10,11 +10,17 @@ import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.mm.attributes.AttributeId;
 import org.adempiere.mm.attributes.api.ImmutableAttributeSet;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.product.ProductAndCategoryAndManufacturerId;
 import de.metas.util.Check;
 import de.metas.util.lang.Percent;
+import lombok.AccessLevel;
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.ToString;
 import lombok.Value;
 
 /*
@@ -58,6 +64,16 @@ public class PricingConditions
 
 	List<PricingConditionsBreak> breaks;
 
+	/** {@link #breaks} sorted by break value descending, and their break values in the same order, so that we don't have to sort on each {@link #pickApplyingBreak(PricingConditionsBreakQuery)} */
+	@Getter(AccessLevel.NONE)
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
+	ImmutableList<PricingConditionsBreak> breaksSortedByBreakValueDesc;
+	@Getter(AccessLevel.NONE)
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
+	BigDecimal[] breakValuesDesc;
+
 	@Builder
 	private PricingConditions(
 			PricingConditionsId id,
@@ -75,6 +91,13 @@ public class PricingConditions
 		this.breakValueType = breakValueType;
 		this.breakAttributeId = breakAttributeId;
 		this.breaks = breaks;
+
+		this.breaksSortedByBreakValueDesc = breaks != null
+				? breaks.stream().sorted(SORT_BY_BREAK_VALUE_DESC).collect(ImmutableList.toImmutableList())
+				: ImmutableList.of();
+		this.breakValuesDesc = breaksSortedByBreakValueDesc.stream()
+				.map(schemaBreak -> schemaBreak.getMatchCriteria().getBreakValue())
+				.toArray(BigDecimal[]::new);
 	}
 
 	public boolean isBreaksDiscountType()
@@ -95,11 +118,38 @@ public class PricingConditions
 			return null;
 		}
 
-		return breaks.stream()
-				.sorted(SORT_BY_BREAK_VALUE_DESC)
-				.filter(schemaBreak -> schemaBreakMatches(schemaBreak, breakValue, query))
-				.findFirst()
-				.orElse(null);
+		for (int i = indexOfFirstBreakValueLessOrEqualTo(breakValue); i < breaksSortedByBreakValueDesc.size(); i++)
+		{
+			final PricingConditionsBreak schemaBreak = breaksSortedByBreakValueDesc.get(i);
+			if (schemaBreakMatches(schemaBreak, breakValue, query))
+			{
+				return schemaBreak;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the index of the first break (in {@link #breaksSortedByBreakValueDesc}) whose break value is less or equal to the given <code>value</code>;
+	 *         all the breaks before it have a greater break value and therefore can't match.
+	 */
+	private int indexOfFirstBreakValueLessOrEqualTo(@NonNull final BigDecimal value)
+	{
+		int low = 0;
+		int high = breakValuesDesc.length;
+		while (low < high)
+		{
+			final int mid = (low + high) >>> 1;
+			if (breakValuesDesc[mid].compareTo(value) > 0)
+			{
+				low = mid + 1;
+			}
+			else
+			{
+				high = mid;
+			}
+		}
+		return low;
 	}
 
 	private boolean schemaBreakMatches(
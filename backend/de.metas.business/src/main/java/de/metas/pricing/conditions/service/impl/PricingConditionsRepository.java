@@ -69,6 +69,7 @@ import com.google.common.collect.ListMultimap;
 import ch.qos.logback.classic.Level;
 import de.metas.bpartner.BPartnerId;
 import de.metas.cache.CCache;
+import de.metas.cache.CacheWarmUpLoader;
 import de.metas.currency.ICurrencyBL;
 import de.metas.logging.LogManager;
 import de.metas.money.CurrencyId;
@@ -106,12 +107,27 @@ public class PricingConditionsRepository implements IPricingConditionsRepository
 
 	final IQueryBL queryBL = Services.get(IQueryBL.class);
 	
+	/**
+	 * Pricing conditions with many breaks are big, so this cache is bounded by their estimated weight rather than by their number.
+	 */
 	private final CCache<PricingConditionsId, PricingConditions> pricingConditionsById = CCache.<PricingConditionsId, PricingConditions> builder()
 			.tableName(I_M_DiscountSchema.Table_Name)
-			.initialCapacity(10)
 			.additionalTableNameToResetFor(I_M_DiscountSchemaBreak.Table_Name)
+			.cacheMapType(CCache.CacheMapType.FrequencyAware)
+			.maximumWeightInBytes(PRICING_CONDITIONS_CACHE_MAXIMUM_WEIGHT_IN_BYTES)
+			.weigher(PricingConditionsRepository::estimateWeightInBytes)
+			.warmUpLoader(CacheWarmUpLoader.ofRepoIdKeys(PricingConditionsId::ofRepoId, this::retrievePricingConditionsById, 10))
 			.build();
 
+	private static final long PRICING_CONDITIONS_CACHE_MAXIMUM_WEIGHT_IN_BYTES = 64L * 1024 * 1024;
+
+	private static int estimateWeightInBytes(final PricingConditionsId id, final PricingConditions pricingConditions)
+	{
+		// NOTE: each break is referenced twice: by the breaks list and by the list sorted by break value
+		final List<PricingConditionsBreak> breaks = pricingConditions.getBreaks();
+		return 512 + (breaks != null ? breaks.size() : 0) * 768;
+	}
+
 	@Override
 	public PricingConditions getPricingConditionsById(@NonNull final PricingConditionsId pricingConditionsId)
 	{
@@ -45,6 +45,7 @@ import de.metas.uom.UomId;
 import de.metas.util.Loggables;
 import de.metas.util.Services;
 import lombok.NonNull;
+import org.adempiere.service.ISysConfigBL;
 import org.compiere.SpringContextHolder;
 import org.compiere.model.I_M_PriceList;
 import org.compiere.model.I_M_PriceList_Version;
@@ -63,6 +64,13 @@ class MainProductPriceRule extends AbstractPriceListBasedRule
 {
 	private static final Logger logger = LogManager.getLogger(MainProductPriceRule.class);
 
+	/**
+	 * If enabled, the main product prices are taken from a cached index of the whole price list version (see {@link ProductPrices#getPrecompiledMainProductPriceOrNull(PriceListVersionId, ProductId)})
+	 * instead of querying the database for each product.
+	 */
+	private static final String SYSCONFIG_UsePrecompiledMainProductPrices = "de.metas.pricing.rules.price_list_version.MainProductPriceRule.UsePrecompiledMainProductPrices";
+
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
 	private final IPriceListDAO priceListsRepo = Services.get(IPriceListDAO.class);
 	private final IProductBL productsService = Services.get(IProductBL.class);
 	private final IProductDAO productsRepo = Services.get(IProductDAO.class);
@@ -150,6 +158,12 @@ class MainProductPriceRule extends AbstractPriceListBasedRule
 	private I_M_ProductPrice getProductPriceOrNull(final ProductId productId,
 			final I_M_PriceList_Version ctxPriceListVersion)
 	{
+		if (sysConfigBL.getBooleanValue(SYSCONFIG_UsePrecompiledMainProductPrices, false))
+		{
+			final PriceListVersionId priceListVersionId = PriceListVersionId.ofRepoId(ctxPriceListVersion.getM_PriceList_Version_ID());
+			return ProductPrices.getPrecompiledMainProductPriceOrNull(priceListVersionId, productId);
+		}
+
 		return ProductPrices.retrieveMainProductPriceOrNull(ctxPriceListVersion, productId);
 	}
 
@@ -23,8 +23,11 @@ package de.metas.pricing.service;
  */
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Set;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.bpartner.BPartnerId;
 import de.metas.lang.SOTrx;
 import de.metas.location.CountryId;
@@ -66,6 +69,16 @@ public interface IPricingBL extends ISingletonService
 
 	IPricingResult calculatePrice(IPricingContext pricingCtx);
 
+	/**
+	 * Calculates the prices of many pricing contexts (e.g. all lines of an order) in one go.
+	 * <p>
+	 * Same as calling {@link #calculatePrice(IPricingContext)} for each context, but the BPartner's pricing system and the price list versions are resolved only once
+	 * and the main product prices are loaded with one query per chunk of contexts.
+	 *
+	 * @return pricing results, in the same order as the given pricing contexts
+	 */
+	ImmutableList<IPricingResult> calculatePrices(List<? extends IPricingContext> pricingCtxs);
+
 	/**
 	 * Creates an initial {@link IPricingResult}. Copies some of the given <code>pricingCtx</code>'s properties to the pricing result.
 	 *
@@ -1,6 +1,14 @@
 package de.metas.pricing.service;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.SetMultimap;
 import de.metas.adempiere.model.I_M_Product;
+import de.metas.cache.CCache;
+import de.metas.cache.CCache.CacheMapType;
 import de.metas.i18n.AdMessageKey;
 import de.metas.i18n.IMsgBL;
 import de.metas.i18n.ITranslatableString;
@@ -18,20 +26,27 @@ import de.metas.uom.UomId;
 import de.metas.util.Check;
 import de.metas.util.Services;
 import lombok.NonNull;
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.dao.IQueryBuilder;
+import org.adempiere.ad.wrapper.POJOWrapper;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.util.lang.IAutoCloseable;
 import org.compiere.Adempiere;
 import org.compiere.model.I_M_PriceList;
 import org.compiere.model.I_M_PriceList_Version;
 import org.compiere.model.I_M_PricingSystem;
 import org.compiere.model.I_M_ProductPrice;
+import org.compiere.model.PO;
 import org.slf4j.Logger;
 
 import javax.annotation.Nullable;
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -71,6 +86,25 @@ public class ProductPrices
 
 	private static final Logger logger = LogManager.getLogger(ProductPrices.class);
 
+	/**
+	 * Main product prices of a whole price list version, indexed by product.
+	 * Invalidated when any product price or price list version is changed.
+	 * Only the most recently used price list versions are kept, because each of them might have many product prices.
+	 * The cached records are shared, so they are never handed out directly, see {@link #getPrecompiledMainProductPriceOrNull(PriceListVersionId, ProductId)}.
+	 */
+	private static final CCache<PriceListVersionId, ImmutableListMultimap<ProductId, I_M_ProductPrice>> precompiledMainProductPrices = CCache.<PriceListVersionId, ImmutableListMultimap<ProductId, I_M_ProductPrice>> builder()
+			.tableName(I_M_ProductPrice.Table_Name)
+			.additionalTableNameToResetFor(I_M_PriceList_Version.Table_Name)
+			.cacheMapType(CacheMapType.LRU)
+			.initialCapacity(10) // i.e. max size
+			.expireMinutes(60)
+			.build();
+
+	/**
+	 * Main product prices which were prefetched for the current thread, see {@link #temporaryPrefetchMainProductPrices(SetMultimap)}.
+	 */
+	private static final ThreadLocal<PrefetchedMainProductPrices> prefetchedMainProductPricesRef = new ThreadLocal<>();
+
 	public static final ProductPriceQuery newQuery(@NonNull final I_M_PriceList_Version plv)
 	{
 		final PriceListVersionId priceListVersionId = PriceListVersionId.ofRepoId(plv.getM_PriceList_Version_ID());
@@ -117,7 +151,9 @@ public class ProductPrices
 		final I_M_PriceList_Version priceListVersion = priceListsRepo.getPriceListVersionByIdInTrx(priceListVersionId);
 		final ProductId productId = ProductId.ofRepoId(productPrice.getM_Product_ID());
 
-		final List<I_M_ProductPrice> allMainPrices = retrieveAllMainPrices(priceListVersion, productId);
+		// don't use the prefetched main prices: this check runs when a product price is saved, so we need the current state of the database
+		final List<I_M_ProductPrice> allMainPrices = newMainProductPriceQuery(priceListVersion, productId)
+				.list();
 
 		final boolean productPriceIsMainPrice = allMainPrices.stream()
 				.anyMatch(mainPrice -> mainPrice.getM_ProductPrice_ID() == productPrice.getM_ProductPrice_ID());
@@ -169,10 +205,132 @@ public class ProductPrices
 		return getFirstOrThrowExceptionIfMoreThanOne(allMainPrices);
 	}
 
+	/**
+	 * Loads the main product prices of all given price list version/product pairs using one query
+	 * and makes {@link #retrieveMainProductPriceOrNull(I_M_PriceList_Version, ProductId)} return them, on current thread, until the returned closeable is closed.
+	 * <p>
+	 * Pairs which were not prefetched are still retrieved from database.
+	 * Like with {@link #getPrecompiledMainProductPriceOrNull(PriceListVersionId, ProductId)}, each caller gets its own copy of the prefetched record.
+	 *
+	 * @param productIdsByPriceListVersionId the products to prefetch, grouped by price list version
+	 * @return an auto-closeable used to restore the previously prefetched prices (if any)
+	 */
+	public static IAutoCloseable temporaryPrefetchMainProductPrices(@NonNull final SetMultimap<PriceListVersionId, ProductId> productIdsByPriceListVersionId)
+	{
+		final PrefetchedMainProductPrices previousPrefetchedMainProductPrices = prefetchedMainProductPricesRef.get();
+		prefetchedMainProductPricesRef.set(retrieveMainProductPrices(productIdsByPriceListVersionId));
+		return () -> prefetchedMainProductPricesRef.set(previousPrefetchedMainProductPrices);
+	}
+
+	private static PrefetchedMainProductPrices retrieveMainProductPrices(@NonNull final SetMultimap<PriceListVersionId, ProductId> productIdsByPriceListVersionId)
+	{
+		if (productIdsByPriceListVersionId.isEmpty())
+		{
+			return PrefetchedMainProductPrices.EMPTY;
+		}
+
+		final IQueryBuilder<I_M_ProductPrice> queryBuilder = Services.get(IQueryBL.class)
+				.createQueryBuilder(I_M_ProductPrice.class)
+				.addInArrayFilter(I_M_ProductPrice.COLUMNNAME_M_PriceList_Version_ID, productIdsByPriceListVersionId.keySet())
+				.addInArrayFilter(I_M_ProductPrice.COLUMNNAME_M_Product_ID, ImmutableSet.copyOf(productIdsByPriceListVersionId.values()));
+		addMainProductPriceFilters(queryBuilder);
+
+		final Map<PriceListVersionId, ImmutableListMultimap.Builder<ProductId, I_M_ProductPrice>> mainPricesBuilders = new HashMap<>();
+		queryBuilder
+				.orderBy(I_M_ProductPrice.COLUMNNAME_M_ProductPrice_ID)
+				.create()
+				.stream()
+				.forEach(productPrice -> {
+					final PriceListVersionId priceListVersionId = PriceListVersionId.ofRepoId(productPrice.getM_PriceList_Version_ID());
+					final ProductId productId = ProductId.ofRepoId(productPrice.getM_Product_ID());
+					if (productIdsByPriceListVersionId.containsEntry(priceListVersionId, productId))
+					{
+						mainPricesBuilders.computeIfAbsent(priceListVersionId, k -> ImmutableListMultimap.builder()).put(productId, productPrice);
+					}
+				});
+
+		final ImmutableMap.Builder<PriceListVersionId, ImmutableListMultimap<ProductId, I_M_ProductPrice>> mainPrices = ImmutableMap.builder();
+		mainPricesBuilders.forEach((priceListVersionId, builder) -> mainPrices.put(priceListVersionId, builder.build()));
+
+		return new PrefetchedMainProductPrices(ImmutableSetMultimap.copyOf(productIdsByPriceListVersionId), mainPrices.build());
+	}
+
+	/**
+	 * Same as {@link #retrieveMainProductPriceOrNull(I_M_PriceList_Version, ProductId)}, but gets the main product price from a cached index of the whole price list version.
+	 * <p>
+	 * The index is loaded out of transaction, so product prices which were not yet committed are not considered.
+	 * Each caller gets its own out-of-transaction copy of the cached record.
+	 */
+	@Nullable
+	public static I_M_ProductPrice getPrecompiledMainProductPriceOrNull(@NonNull final PriceListVersionId priceListVersionId, @NonNull final ProductId productId)
+	{
+		final ImmutableListMultimap<ProductId, I_M_ProductPrice> mainPricesByProductId = precompiledMainProductPrices.getOrLoad(priceListVersionId, ProductPrices::retrieveAllMainPricesByProductId);
+		final I_M_ProductPrice productPrice = getFirstOrThrowExceptionIfMoreThanOne(mainPricesByProductId.get(productId));
+		return productPrice != null ? copyOfCachedRecord(productPrice) : null;
+	}
+
+	/**
+	 * Same as {@link de.metas.cache.model.impl.ModelCacheService} does, so that the callers can't change the cached record nor each other's.
+	 */
+	private static I_M_ProductPrice copyOfCachedRecord(@NonNull final I_M_ProductPrice productPrice)
+	{
+		if (POJOWrapper.isHandled(productPrice))
+		{
+			return POJOWrapper.copy(productPrice);
+		}
+
+		final PO poCopy = InterfaceWrapperHelper.getStrictPO(productPrice).copy();
+		return InterfaceWrapperHelper.create(poCopy, I_M_ProductPrice.class);
+	}
+
+	/**
+	 * IMPORTANT: keep the filters in sync with {@link #newMainProductPriceQuery(I_M_PriceList_Version, ProductId)}
+	 */
+	private static ImmutableListMultimap<ProductId, I_M_ProductPrice> retrieveAllMainPricesByProductId(@NonNull final PriceListVersionId priceListVersionId)
+	{
+		final IQueryBuilder<I_M_ProductPrice> queryBuilder = Services.get(IQueryBL.class)
+				.createQueryBuilderOutOfTrx(I_M_ProductPrice.class)
+				.addEqualsFilter(I_M_ProductPrice.COLUMNNAME_M_PriceList_Version_ID, priceListVersionId);
+		addMainProductPriceFilters(queryBuilder);
+
+		return queryBuilder
+				.orderBy(I_M_ProductPrice.COLUMNNAME_M_ProductPrice_ID)
+				.create()
+				.stream()
+				.collect(ImmutableListMultimap.toImmutableListMultimap(
+						productPrice -> ProductId.ofRepoId(productPrice.getM_Product_ID()),
+						productPrice -> productPrice));
+	}
+
+	/**
+	 * IMPORTANT: keep the filters in sync with {@link #newMainProductPriceQuery(I_M_PriceList_Version, ProductId)}
+	 */
+	private static void addMainProductPriceFilters(@NonNull final IQueryBuilder<I_M_ProductPrice> queryBuilder)
+	{
+		queryBuilder
+				.addOnlyActiveRecordsFilter()
+				.addNotEqualsFilter(I_M_ProductPrice.COLUMN_IsInvalidPrice, true)
+				.addEqualsFilter(I_M_ProductPrice.COLUMN_IsAttributeDependant, false);
+		MATCHERS_MainProductPrice.forEach(matcher -> queryBuilder.filter(matcher.getQueryFilter()));
+	}
+
 	private static List<I_M_ProductPrice> retrieveAllMainPrices(
 			@NonNull final I_M_PriceList_Version plv,
 			@NonNull final ProductId productId)
 	{
+		final PrefetchedMainProductPrices prefetchedMainProductPrices = prefetchedMainProductPricesRef.get();
+		if (prefetchedMainProductPrices != null)
+		{
+			final PriceListVersionId priceListVersionId = PriceListVersionId.ofRepoId(plv.getM_PriceList_Version_ID());
+			final List<I_M_ProductPrice> mainPrices = prefetchedMainProductPrices.getMainPricesOrNull(priceListVersionId, productId);
+			if (mainPrices != null)
+			{
+				return mainPrices.stream()
+						.map(ProductPrices::copyOfCachedRecord)
+						.collect(ImmutableList.toImmutableList());
+			}
+		}
+
 		return newMainProductPriceQuery(plv, productId)
 				.list();
 	}
@@ -228,6 +386,37 @@ public class ProductPrices
 				.setParameter(I_M_Product.Table_Name, productName);
 	}
 
+	private static final class PrefetchedMainProductPrices
+	{
+		private static final PrefetchedMainProductPrices EMPTY = new PrefetchedMainProductPrices(ImmutableSetMultimap.of(), ImmutableMap.of());
+
+		private final ImmutableSetMultimap<PriceListVersionId, ProductId> prefetchedProductIds;
+		private final ImmutableMap<PriceListVersionId, ImmutableListMultimap<ProductId, I_M_ProductPrice>> mainPrices;
+
+		private PrefetchedMainProductPrices(
+				@NonNull final ImmutableSetMultimap<PriceListVersionId, ProductId> prefetchedProductIds,
+				@NonNull final ImmutableMap<PriceListVersionId, ImmutableListMultimap<ProductId, I_M_ProductPrice>> mainPrices)
+		{
+			this.prefetchedProductIds = prefetchedProductIds;
+			this.mainPrices = mainPrices;
+		}
+
+		/**
+		 * @return main prices (maybe empty) or {@code null} if the given price list version/product pair was not prefetched
+		 */
+		@Nullable
+		private List<I_M_ProductPrice> getMainPricesOrNull(@NonNull final PriceListVersionId priceListVersionId, @NonNull final ProductId productId)
+		{
+			if (!prefetchedProductIds.containsEntry(priceListVersionId, productId))
+			{
+				return null;
+			}
+
+			final ImmutableListMultimap<ProductId, I_M_ProductPrice> mainPricesByProductId = mainPrices.get(priceListVersionId);
+			return mainPricesByProductId != null ? mainPricesByProductId.get(productId) : ImmutableList.of();
+		}
+	}
+
 	@SuppressWarnings("serial")
 	public static final class DuplicateMainProductPriceException extends AdempiereException
 	{
@@ -263,6 +452,7 @@ public class ProductPrices
 		else
 		{
 			logger.info("Registered main product matcher: {}", matcher);
+			precompiledMainProductPrices.reset();
 		}
 	}
 
@@ -274,6 +464,7 @@ public class ProductPrices
 		}
 
 		MATCHERS_MainProductPrice.clear();
+		precompiledMainProductPrices.reset();
 		logger.info("Cleared all main product matchers");
 	}
 
@@ -24,6 +24,8 @@ package de.metas.pricing.service.impl;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.Lists;
 import de.metas.adempiere.model.I_C_InvoiceLine;
 import de.metas.bpartner.BPartnerId;
 import de.metas.bpartner.service.IBPartnerDAO;
@@ -77,12 +79,17 @@ import org.compiere.model.I_M_PriceList_Version;
 import org.compiere.model.I_M_ProductPrice;
 import org.compiere.util.DisplayType;
 import org.compiere.util.TimeUtil;
+import org.compiere.util.Util.ArrayKey;
 import org.slf4j.Logger;
 
 import javax.annotation.Nullable;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -91,6 +98,8 @@ public class PricingBL implements IPricingBL
 {
 	private static final Logger logger = LogManager.getLogger(PricingBL.class);
 
+	private static final int CALCULATE_PRICES_CHUNK_SIZE = 500;
+
 	private final transient IBPartnerDAO bpartnerDAO = Services.get(IBPartnerDAO.class);
 	private final transient IOrgDAO orgDAO = Services.get(IOrgDAO.class);
 	private final transient IPriceListBL priceListBL = Services.get(IPriceListBL.class);
@@ -167,11 +176,56 @@ public class PricingBL implements IPricingBL
 
 	@Override
 	public IPricingResult calculatePrice(@NonNull final IPricingContext pricingCtx)
+	{
+		final IPricingContext pricingCtxToUse = setupPricingContext(pricingCtx, new SharedPricingDimensions());
+		return calculatePriceForSetupContext(pricingCtxToUse);
+	}
+
+	@Override
+	public ImmutableList<IPricingResult> calculatePrices(@NonNull final List<? extends IPricingContext> pricingCtxs)
+	{
+		final SharedPricingDimensions sharedPricingDimensions = new SharedPricingDimensions();
+
+		final ImmutableList.Builder<IPricingResult> results = ImmutableList.builder();
+		for (final List<? extends IPricingContext> pricingCtxsChunk : Lists.partition(pricingCtxs, CALCULATE_PRICES_CHUNK_SIZE))
+		{
+			final ImmutableList<IPricingContext> pricingCtxsToUse = pricingCtxsChunk.stream()
+					.map(pricingCtx -> setupPricingContext(pricingCtx, sharedPricingDimensions))
+					.collect(ImmutableList.toImmutableList());
+
+			try (final IAutoCloseable ignored = ProductPrices.temporaryPrefetchMainProductPrices(extractProductIdsByPriceListVersionId(pricingCtxsToUse)))
+			{
+				for (final IPricingContext pricingCtxToUse : pricingCtxsToUse)
+				{
+					results.add(calculatePriceForSetupContext(pricingCtxToUse));
+				}
+			}
+		}
+
+		return results.build();
+	}
+
+	private static ImmutableSetMultimap<PriceListVersionId, ProductId> extractProductIdsByPriceListVersionId(@NonNull final List<IPricingContext> pricingCtxs)
+	{
+		final ImmutableSetMultimap.Builder<PriceListVersionId, ProductId> productIdsByPriceListVersionId = ImmutableSetMultimap.builder();
+		for (final IPricingContext pricingCtx : pricingCtxs)
+		{
+			final PriceListVersionId priceListVersionId = pricingCtx.getPriceListVersionId();
+			final ProductId productId = pricingCtx.getProductId();
+			if (priceListVersionId != null && productId != null)
+			{
+				productIdsByPriceListVersionId.put(priceListVersionId, productId);
+			}
+		}
+		return productIdsByPriceListVersionId.build();
+	}
+
+	private IPricingResult calculatePriceForSetupContext(@NonNull final IPricingContext pricingCtxToUse)
 	{
 		final PlainStringLoggable plainStringLoggable = Loggables.newPlainStringLoggable();
 		try (final IAutoCloseable ignored = Loggables.temporarySetLoggable(plainStringLoggable))
 		{
-			final IPricingResult result = calculatePrice0(pricingCtx);
+			final IPricingResult result = calculatePrice0(pricingCtxToUse);
 			return result.setLoggableMessages(plainStringLoggable.getSingleMessages());
 		}
 		catch (final ProductNotOnPriceListException e)
@@ -181,9 +235,8 @@ public class PricingBL implements IPricingBL
 		}
 	}
 
-	private IPricingResult calculatePrice0(@NonNull final IPricingContext pricingCtx)
+	private IPricingResult calculatePrice0(@NonNull final IPricingContext pricingCtxToUse)
 	{
-		final IPricingContext pricingCtxToUse = setupPricingContext(pricingCtx);
 		final PricingResult result = createInitialResult(pricingCtxToUse);
 
 		//
@@ -216,7 +269,7 @@ public class PricingBL implements IPricingBL
 		{
 			throw ProductNotOnPriceListException.builder()
 					.pricingCtx(pricingCtxToUse)
-					.productId(pricingCtx.getProductId())
+					.productId(pricingCtxToUse.getProductId())
 					.build()
 					.setParameter("pricingResult", result);
 		}
@@ -266,15 +319,19 @@ public class PricingBL implements IPricingBL
 	 *
 	 * @return configured pricing context (to be used in pricing calculations)
 	 */
-	private IPricingContext setupPricingContext(@NonNull final IPricingContext pricingCtx)
+	private IPricingContext setupPricingContext(
+			@NonNull final IPricingContext pricingCtx,
+			@NonNull final SharedPricingDimensions sharedPricingDimensions)
 	{
 		final IEditablePricingContext pricingCtxToUse = pricingCtx.copy();
-		setupPriceListAndDate(pricingCtxToUse);
+		setupPriceListAndDate(pricingCtxToUse, sharedPricingDimensions);
 
 		return pricingCtxToUse;
 	}
 
-	private void setupPriceListAndDate(@NonNull final IEditablePricingContext pricingCtx)
+	private void setupPriceListAndDate(
+			@NonNull final IEditablePricingContext pricingCtx,
+			@NonNull final SharedPricingDimensions sharedPricingDimensions)
 	{
 		final LocalDate priceDate = pricingCtx.getPriceDate();
 
@@ -285,7 +342,7 @@ public class PricingBL implements IPricingBL
 				&& pricingCtx.getPriceListId() == null
 				&& pricingCtx.getPriceListVersionId() == null)
 		{
-			final PricingSystemId pricingSystemId = bpartnerDAO.retrievePricingSystemIdOrNullInTrx(pricingCtx.getBPartnerId(), pricingCtx.getSoTrx());
+			final PricingSystemId pricingSystemId = sharedPricingDimensions.getPricingSystemIdOrNull(pricingCtx.getBPartnerId(), pricingCtx.getSoTrx());
 			if (pricingSystemId == null)
 			{
 				throw new AdempiereException("BPartnerId=" + pricingCtx.getBPartnerId().getRepoId() + " has no assigned " + pricingCtx.getSoTrx() + " pricingSystem")
@@ -303,12 +360,11 @@ public class PricingBL implements IPricingBL
 				&& pricingCtx.getProductId() != null
 				&& pricingCtx.getCountryId() != null)
 		{
-			final I_M_PriceList_Version computedPLV = priceListBL.getCurrentPriceListVersionOrNull(
+			final I_M_PriceList_Version computedPLV = sharedPricingDimensions.getCurrentPriceListVersionOrNull(
 					pricingCtx.getPricingSystemId(),
 					pricingCtx.getCountryId(),
 					TimeUtil.asZonedDateTime(pricingCtx.getPriceDate(), timeZone),
-					pricingCtx.isSkipCheckingPriceListSOTrxFlag() ? null : pricingCtx.getSoTrx(),
-					null);
+					pricingCtx.isSkipCheckingPriceListSOTrxFlag() ? null : pricingCtx.getSoTrx());
 
 			if (computedPLV != null)
 			{
@@ -338,11 +394,9 @@ public class PricingBL implements IPricingBL
 			final I_M_PriceList priceList = priceListDAO.getById(pricingCtx.getPriceListId());
 			try
 			{
-				final Boolean processedPLVFiltering = null; // task 09533: the user doesn't know about PLV's processed flag, so we can't filter by it
-				final I_M_PriceList_Version plv = priceListDAO.retrievePriceListVersionOrNull(
+				final I_M_PriceList_Version plv = sharedPricingDimensions.getPriceListVersionOrNull(
 						priceList,
-						TimeUtil.asZonedDateTime(priceDate, timeZone),
-						processedPLVFiltering);
+						TimeUtil.asZonedDateTime(priceDate, timeZone));
 				if (plv != null)
 				{
 					final PriceListVersionId priceListVersionId = PriceListVersionId.ofRepoId(plv.getM_PriceList_Version_ID());
@@ -554,4 +608,49 @@ public class PricingBL implements IPricingBL
 	{
 		return priceLimitRules.getPriceCountryIds();
 	}
+
+	/**
+	 * Remembers the price list related lookups which are usually shared by many pricing contexts (e.g. by all lines of an order),
+	 * so that we don't repeat them for each context when we calculate the prices in bulk.
+	 */
+	private final class SharedPricingDimensions
+	{
+		private final Map<ArrayKey, Optional<PricingSystemId>> pricingSystemIds = new HashMap<>();
+		private final Map<ArrayKey, Optional<I_M_PriceList_Version>> currentPriceListVersions = new HashMap<>();
+		private final Map<ArrayKey, Optional<I_M_PriceList_Version>> priceListVersions = new HashMap<>();
+
+		@Nullable
+		private PricingSystemId getPricingSystemIdOrNull(final BPartnerId bpartnerId, final SOTrx soTrx)
+		{
+			return pricingSystemIds.computeIfAbsent(
+					ArrayKey.of(bpartnerId, soTrx),
+					key -> Optional.ofNullable(bpartnerDAO.retrievePricingSystemIdOrNullInTrx(bpartnerId, soTrx)))
+					.orElse(null);
+		}
+
+		@Nullable
+		private I_M_PriceList_Version getCurrentPriceListVersionOrNull(
+				@NonNull final PricingSystemId pricingSystemId,
+				@NonNull final CountryId countryId,
+				@NonNull final ZonedDateTime date,
+				@Nullable final SOTrx soTrx)
+		{
+			return currentPriceListVersions.computeIfAbsent(
+					ArrayKey.of(pricingSystemId, countryId, date, soTrx),
+					key -> Optional.ofNullable(priceListBL.getCurrentPriceListVersionOrNull(pricingSystemId, countryId, date, soTrx, null)))
+					.orElse(null);
+		}
+
+		@Nullable
+		private I_M_PriceList_Version getPriceListVersionOrNull(
+				@NonNull final I_M_PriceList priceList,
+				@NonNull final ZonedDateTime date)
+		{
+			final Boolean processedPLVFiltering = null; // task 09533: the user doesn't know about PLV's processed flag, so we can't filter by it
+			return priceListVersions.computeIfAbsent(
+					ArrayKey.of(priceList.getM_PriceList_ID(), date),
+					key -> Optional.ofNullable(priceListDAO.retrievePriceListVersionOrNull(priceList, date, processedPLVFiltering)))
+					.orElse(null);
+		}
+	}
 }
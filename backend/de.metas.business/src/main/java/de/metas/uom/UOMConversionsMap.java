@@ -1,5 +1,6 @@
 package de.metas.uom;
 
+import com.google.common.collect.ImmutableCollection;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
@@ -115,6 +116,14 @@ public class UOMConversionsMap
 		return null;
 	}
 
+	/**
+	 * @return the rates this map was built with (i.e. without the inverted ones)
+	 */
+	public ImmutableCollection<UOMConversionRate> getRatesList()
+	{
+		return rates.values();
+	}
+
 	public boolean isEmpty()
 	{
 		return rates.isEmpty();
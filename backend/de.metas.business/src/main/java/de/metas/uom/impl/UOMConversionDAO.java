@@ -3,6 +3,7 @@ package de.metas.uom.impl;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import de.metas.cache.CCache;
+import de.metas.cache.CacheWarmUpLoader;
 import de.metas.logging.LogManager;
 import de.metas.product.IProductBL;
 import de.metas.product.ProductId;
@@ -29,8 +30,13 @@ public class UOMConversionDAO implements IUOMConversionDAO
 {
 	private static final Logger logger = LogManager.getLogger(UOMConversionDAO.class);
 
+	/**
+	 * The product conversions are needed by all nodes, so they are shared via the shared cache tier (if configured) and warmed up after restart.
+	 */
 	private final CCache<ProductId, UOMConversionsMap> productConversionsCache = CCache.<ProductId, UOMConversionsMap> builder()
 			.tableName(I_C_UOM_Conversion.Table_Name)
+			.sharedCacheSerializer(new UOMConversionsMapSharedCacheSerializer())
+			.warmUpLoader(CacheWarmUpLoader.ofRepoIdKeys(ProductId::ofRepoId, this::retrieveProductConversions, 0))
 			.build();
 
 	@Override
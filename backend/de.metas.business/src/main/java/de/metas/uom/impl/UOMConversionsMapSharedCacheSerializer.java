@@ -0,0 +1,111 @@
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.uom.impl;
+
+import com.google.common.collect.ImmutableList;
+import de.metas.cache.shared.SharedCacheSerializer;
+import de.metas.product.ProductId;
+import de.metas.uom.UOMConversionRate;
+import de.metas.uom.UOMConversionsMap;
+import de.metas.uom.UomId;
+import lombok.NonNull;
+import org.adempiere.exceptions.AdempiereException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Serializes the product {@link UOMConversionsMap}s for the shared cache tier.
+ * <p>
+ * NOTE: only the from-to multiplier of each rate is written, because that's the only one set by {@link UOMConversionDAO}.
+ */
+final class UOMConversionsMapSharedCacheSerializer implements SharedCacheSerializer<ProductId, UOMConversionsMap>
+{
+	@Override
+	public String toKeyString(@NonNull final ProductId productId)
+	{
+		return String.valueOf(productId.getRepoId());
+	}
+
+	@Override
+	public byte[] serialize(@NonNull final UOMConversionsMap map)
+	{
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final DataOutputStream out = new DataOutputStream(bytes))
+		{
+			out.writeInt(ProductId.toRepoId(map.getProductId()));
+			out.writeBoolean(map.isHasRatesForNonStockingUOMs());
+
+			final ImmutableList<UOMConversionRate> rates = ImmutableList.copyOf(map.getRatesList());
+			out.writeInt(rates.size());
+			for (final UOMConversionRate rate : rates)
+			{
+				out.writeInt(rate.getFromUomId().getRepoId());
+				out.writeInt(rate.getToUomId().getRepoId());
+				out.writeUTF(rate.getFromToMultiplier().toString());
+				out.writeBoolean(rate.isCatchUOMForProduct());
+			}
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed serializing " + map, ex);
+		}
+		return bytes.toByteArray();
+	}
+
+	@Override
+	public UOMConversionsMap deserialize(@NonNull final byte[] bytes)
+	{
+		try (final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes)))
+		{
+			final ProductId productId = ProductId.ofRepoIdOrNull(in.readInt());
+			final boolean hasRatesForNonStockingUOMs = in.readBoolean();
+
+			final int ratesCount = in.readInt();
+			final ImmutableList.Builder<UOMConversionRate> rates = ImmutableList.builder();
+			for (int i = 0; i < ratesCount; i++)
+			{
+				rates.add(UOMConversionRate.builder()
+						.fromUomId(UomId.ofRepoId(in.readInt()))
+						.toUomId(UomId.ofRepoId(in.readInt()))
+						.fromToMultiplier(new BigDecimal(in.readUTF()))
+						.catchUOMForProduct(in.readBoolean())
+						.build());
+			}
+
+			return UOMConversionsMap.builder()
+					.productId(productId)
+					.hasRatesForNonStockingUOMs(hasRatesForNonStockingUOMs)
+					.rates(rates.build())
+					.build();
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed deserializing cached UOM conversions", ex);
+		}
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.pricing.conditions;
+
+import com.google.common.collect.ImmutableList;
+import de.metas.product.ProductAndCategoryAndManufacturerId;
+import de.metas.product.ProductId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link PricingConditions#pickApplyingBreak(PricingConditionsBreakQuery)} against the former implementation,
+ * which was sorting all breaks on each call.
+ * <p>
+ * The breaks are spread over {@value #PRODUCTS_COUNT} products, so that some of them have to be skipped until the applying one is found.
+ * <p>
+ * Not a unit test; run it using {@link #main(String[])}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PricingConditionsBenchmark
+{
+	private static final int PRODUCTS_COUNT = 10;
+
+	private static final Comparator<PricingConditionsBreak> SORT_BY_BREAK_VALUE_DESC = Comparator.<PricingConditionsBreak, BigDecimal> comparing(b -> b.getMatchCriteria().getBreakValue())
+			.thenComparing(PricingConditionsBreak::getSeqNo)
+			.reversed();
+
+	@Param({ "10", "100", "1000" })
+	public int breaksCount;
+
+	private PricingConditions pricingConditions;
+	private PricingConditionsBreakQuery query;
+
+	@Setup
+	public void setup()
+	{
+		final ImmutableList.Builder<PricingConditionsBreak> breaks = ImmutableList.builder();
+		for (int i = 0; i < breaksCount; i++)
+		{
+			breaks.add(PricingConditionsBreak.builder()
+					.matchCriteria(PricingConditionsBreakMatchCriteria.builder()
+							.breakValue(BigDecimal.valueOf(i * 10L))
+							.productId(ProductId.ofRepoId(1 + i % PRODUCTS_COUNT))
+							.build())
+					.seqNo(i * 10)
+					.priceSpecification(PriceSpecification.none())
+					.build());
+		}
+
+		pricingConditions = PricingConditions.builder()
+				.discountType(PricingConditionsDiscountType.BREAKS)
+				.breakValueType(BreakValueType.QUANTITY)
+				.breaks(breaks.build())
+				.build();
+
+		// a quantity in the middle of the breaks
+		query = PricingConditionsBreakQuery.builder()
+				.product(ProductAndCategoryAndManufacturerId.of(1, 1, 0))
+				.qty(BigDecimal.valueOf(breaksCount * 5L))
+				.price(BigDecimal.ONE)
+				.build();
+	}
+
+	@Benchmark
+	public PricingConditionsBreak pickApplyingBreak()
+	{
+		return pricingConditions.pickApplyingBreak(query);
+	}
+
+	@Benchmark
+	public PricingConditionsBreak pickApplyingBreak_sortingOnEachCall()
+	{
+		final BigDecimal breakValue = query.getQty();
+		return pricingConditions.getBreaks()
+				.stream()
+				.sorted(SORT_BY_BREAK_VALUE_DESC)
+				.filter(schemaBreak -> schemaBreak.getMatchCriteria().breakValueMatches(breakValue)
+						&& schemaBreak.getMatchCriteria().productMatches(query.getProduct())
+						&& schemaBreak.getMatchCriteria().attributeMatches(query.getAttributes()))
+				.findFirst()
+				.orElse(null);
+	}
+
+	public static void main(final String[] args) throws RunnerException
+	{
+		new Runner(new OptionsBuilder()
+				.include(PricingConditionsBenchmark.class.getSimpleName())
+				.build())
+				.run();
+	}
+}
@@ -148,6 +148,13 @@ public class PricingConditionsTest
 		data.assertSchemaBreakIdForQty(25).isEqualTo(data.break20.getM_DiscountSchemaBreak_ID());
 	}
 
+	@Test
+	public void testPickApplyingBreak_with_Multiple_breaks_defined_for_same_product_ExactBreakValue()
+	{
+		final PricingConditionsTestData1 data = PricingConditionsTestData1.newInstance();
+		data.assertSchemaBreakIdForQty(20).isEqualTo(data.break20.getM_DiscountSchemaBreak_ID());
+	}
+
 	@Test
 	public void testPickApplyingBreak_with_Multiple_breaks_defined_with_no_product()
 	{
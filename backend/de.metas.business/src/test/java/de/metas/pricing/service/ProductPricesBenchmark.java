@@ -0,0 +1,120 @@
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.pricing.service;
+
+import de.metas.pricing.PriceListVersionId;
+import de.metas.product.ProductId;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_M_PriceList_Version;
+import org.compiere.model.I_M_ProductPrice;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+
+/**
+ * Measures the main product price lookup of {@link ProductPrices#getPrecompiledMainProductPriceOrNull(PriceListVersionId, ProductId)}
+ * against the per product query of {@link ProductPrices#retrieveMainProductPriceOrNull(I_M_PriceList_Version, ProductId)}.
+ * <p>
+ * The product prices are kept in the in-memory POJO database, so the query costs are without the database round trips.
+ * <p>
+ * Not a unit test; run it using {@link #main(String[])}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductPricesBenchmark
+{
+	@Param({ "100", "10000" })
+	public int productsCount;
+
+	private I_M_PriceList_Version priceListVersion;
+	private PriceListVersionId priceListVersionId;
+
+	@Setup
+	public void setup()
+	{
+		AdempiereTestHelper.get().init();
+
+		priceListVersion = newInstance(I_M_PriceList_Version.class);
+		saveRecord(priceListVersion);
+		priceListVersionId = PriceListVersionId.ofRepoId(priceListVersion.getM_PriceList_Version_ID());
+
+		for (int productId = 1; productId <= productsCount; productId++)
+		{
+			final I_M_ProductPrice productPrice = newInstance(I_M_ProductPrice.class);
+			productPrice.setM_PriceList_Version_ID(priceListVersionId.getRepoId());
+			productPrice.setM_Product_ID(productId);
+			productPrice.setIsActive(true);
+			productPrice.setIsInvalidPrice(false);
+			productPrice.setIsAttributeDependant(false);
+			productPrice.setPriceStd(BigDecimal.valueOf(productId));
+			saveRecord(productPrice);
+		}
+	}
+
+	private ProductId randomProductId()
+	{
+		return ProductId.ofRepoId(ThreadLocalRandom.current().nextInt(1, productsCount + 1));
+	}
+
+	@Benchmark
+	public I_M_ProductPrice retrieveMainProductPrice()
+	{
+		return ProductPrices.retrieveMainProductPriceOrNull(priceListVersion, randomProductId());
+	}
+
+	@Benchmark
+	public I_M_ProductPrice getPrecompiledMainProductPrice()
+	{
+		return ProductPrices.getPrecompiledMainProductPriceOrNull(priceListVersionId, randomProductId());
+	}
+
+	public static void main(final String[] args) throws RunnerException
+	{
+		new Runner(new OptionsBuilder()
+				.include(ProductPricesBenchmark.class.getSimpleName())
+				.build())
+				.run();
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.pricing.service;
+
+import com.google.common.collect.ImmutableSetMultimap;
+import de.metas.pricing.PriceListVersionId;
+import de.metas.product.ProductId;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_M_PriceList_Version;
+import org.compiere.model.I_M_ProductPrice;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductPricesTest
+{
+	private I_M_PriceList_Version priceListVersion;
+	private PriceListVersionId priceListVersionId;
+	private final ProductId productId = ProductId.ofRepoId(10);
+
+	@BeforeEach
+	void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+
+		priceListVersion = newInstance(I_M_PriceList_Version.class);
+		saveRecord(priceListVersion);
+		priceListVersionId = PriceListVersionId.ofRepoId(priceListVersion.getM_PriceList_Version_ID());
+
+		final I_M_ProductPrice productPrice = newInstance(I_M_ProductPrice.class);
+		productPrice.setM_PriceList_Version_ID(priceListVersionId.getRepoId());
+		productPrice.setM_Product_ID(productId.getRepoId());
+		productPrice.setIsActive(true);
+		productPrice.setIsInvalidPrice(false);
+		productPrice.setIsAttributeDependant(false);
+		productPrice.setPriceStd(new BigDecimal("5"));
+		saveRecord(productPrice);
+	}
+
+	@Test
+	void precompiledMainProductPrice_eachCallerGetsItsOwnCopy()
+	{
+		final I_M_ProductPrice productPrice1 = ProductPrices.getPrecompiledMainProductPriceOrNull(priceListVersionId, productId);
+		final I_M_ProductPrice productPrice2 = ProductPrices.getPrecompiledMainProductPriceOrNull(priceListVersionId, productId);
+		assertThat(productPrice1).isNotNull().isNotSameAs(productPrice2);
+		assertThat(productPrice2).isNotNull();
+
+		productPrice1.setPriceStd(BigDecimal.ONE);
+
+		assertThat(productPrice2.getPriceStd()).isEqualByComparingTo("5");
+		assertThat(ProductPrices.getPrecompiledMainProductPriceOrNull(priceListVersionId, productId).getPriceStd()).isEqualByComparingTo("5");
+	}
+
+	@Test
+	void prefetchedMainProductPrice_eachCallerGetsItsOwnCopy()
+	{
+		try (final IAutoCloseable ignored = ProductPrices.temporaryPrefetchMainProductPrices(ImmutableSetMultimap.of(priceListVersionId, productId)))
+		{
+			final I_M_ProductPrice productPrice1 = ProductPrices.retrieveMainProductPriceOrNull(priceListVersion, productId);
+			final I_M_ProductPrice productPrice2 = ProductPrices.retrieveMainProductPriceOrNull(priceListVersion, productId);
+			assertThat(productPrice1).isNotNull().isNotSameAs(productPrice2);
+			assertThat(productPrice2).isNotNull();
+
+			productPrice1.setPriceStd(BigDecimal.ONE);
+
+			assertThat(productPrice2.getPriceStd()).isEqualByComparingTo("5");
+			assertThat(ProductPrices.retrieveMainProductPriceOrNull(priceListVersion, productId).getPriceStd()).isEqualByComparingTo("5");
+		}
+	}
+
+	@Test
+	void precompiledMainProductPrice_notFound()
+	{
+		assertThat(ProductPrices.getPrecompiledMainProductPriceOrNull(priceListVersionId, ProductId.ofRepoId(11))).isNull();
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.pricing.service.impl;
+
+import de.metas.organization.OrgId;
+import de.metas.pricing.IEditablePricingContext;
+import de.metas.pricing.IPricingResult;
+import de.metas.pricing.service.IPricingBL;
+import de.metas.pricing.tax.ProductTaxCategoryRepository;
+import de.metas.pricing.tax.ProductTaxCategoryService;
+import de.metas.product.ProductId;
+import de.metas.util.Services;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.SpringContextHolder;
+import org.compiere.model.I_C_UOM;
+import org.compiere.model.I_M_Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.adempiere.model.InterfaceWrapperHelper.load;
+
+/**
+ * Measures the whole {@link IPricingBL#calculatePrice(de.metas.pricing.IPricingContext)},
+ * once with the main product prices taken from the precompiled price list version index and once queried per product.
+ * <p>
+ * The pricing master data is kept in the in-memory POJO database, so the query costs are without the database round trips.
+ * <p>
+ * Not a unit test; run it using {@link #main(String[])}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PricingBLBenchmark
+{
+	/**
+	 * See {@code de.metas.pricing.rules.price_list_version.MainProductPriceRule}
+	 */
+	private static final String SYSCONFIG_UsePrecompiledMainProductPrices = "de.metas.pricing.rules.price_list_version.MainProductPriceRule.UsePrecompiledMainProductPrices";
+
+	@Param({ "100", "1000" })
+	public int productsCount;
+
+	@Param({ "false", "true" })
+	public boolean usePrecompiledMainProductPrices;
+
+	private IPricingBL pricingBL;
+	private PricingTestHelper helper;
+	private final List<ProductId> productIds = new ArrayList<>();
+
+	@Setup
+	public void setup()
+	{
+		AdempiereTestHelper.get().init();
+		helper = new PricingTestHelper();
+		SpringContextHolder.registerJUnitBean(new ProductTaxCategoryService(new ProductTaxCategoryRepository()));
+
+		Services.get(ISysConfigBL.class).setValue(SYSCONFIG_UsePrecompiledMainProductPrices, usePrecompiledMainProductPrices, ClientId.SYSTEM, OrgId.ANY);
+
+		final I_C_UOM uom = load(helper.getDefaultProduct().getC_UOM_ID(), I_C_UOM.class);
+		productIds.clear();
+		for (int i = 1; i <= productsCount; i++)
+		{
+			final I_M_Product product = helper.createProduct("Product_" + i, uom);
+			new ProductPriceBuilder(helper.getDefaultPriceListVerion(), product)
+					.setTaxCategoryId(helper.getTaxCategoryId())
+					.setPrice(i)
+					.build();
+
+			productIds.add(ProductId.ofRepoId(product.getM_Product_ID()));
+		}
+
+		pricingBL = Services.get(IPricingBL.class);
+
+		// make sure both variants actually find the prices
+		final IPricingResult result = calculatePrice();
+		if (!result.isCalculated())
+		{
+			throw new AdempiereException("Price was not calculated: " + result);
+		}
+	}
+
+	@Benchmark
+	public IPricingResult calculatePrice()
+	{
+		final IEditablePricingContext pricingCtx = helper.createPricingContext();
+		pricingCtx.setProductId(productIds.get(ThreadLocalRandom.current().nextInt(productIds.size())));
+		return pricingBL.calculatePrice(pricingCtx);
+	}
+
+	public static void main(final String[] args) throws RunnerException
+	{
+		new Runner(new OptionsBuilder()
+				.include(PricingBLBenchmark.class.getSimpleName())
+				.build())
+				.run();
+	}
+}
@@ -1,14 +1,20 @@
 package de.metas.pricing.service.impl;
 
+import com.google.common.collect.ImmutableList;
 import de.metas.common.util.time.SystemTime;
 import de.metas.pricing.IEditablePricingContext;
 import de.metas.pricing.IPricingResult;
+import de.metas.pricing.service.IPricingBL;
 import de.metas.pricing.tax.ProductTaxCategoryRepository;
 import de.metas.pricing.tax.ProductTaxCategoryService;
+import de.metas.product.ProductId;
+import de.metas.util.Services;
 import de.metas.util.lang.Percent;
 import org.adempiere.test.AdempiereTestHelper;
 import org.adempiere.test.AdempiereTestWatcher;
 import org.compiere.SpringContextHolder;
+import org.compiere.model.I_C_UOM;
+import org.compiere.model.I_M_Product;
 import org.hamcrest.Matchers;
 import org.junit.Assert;
 import org.junit.Before;
@@ -16,7 +22,9 @@ import org.junit.Rule;
 import org.junit.Test;
 
 import java.math.BigDecimal;
+import java.util.List;
 
+import static org.adempiere.model.InterfaceWrapperHelper.load;
 import static org.assertj.core.api.Assertions.*;
 
 /*
@@ -102,6 +110,83 @@ public class PricingTest
 		}
 	}
 
+	@Test
+	public void test_calculatePrices_inBulk()
+	{
+		final I_M_Product product1 = helper.getDefaultProduct();
+		helper.newProductPriceBuilder()
+				.setPrice(2)
+				.build();
+
+		final I_M_Product product2 = helper.createProduct("Product2", load(product1.getC_UOM_ID(), I_C_UOM.class));
+		new ProductPriceBuilder(helper.getDefaultPriceListVerion(), product2)
+				.setTaxCategoryId(helper.getTaxCategoryId())
+				.setPrice(5)
+				.build();
+
+		final I_M_Product productWithoutPrice = helper.createProduct("ProductWithoutPrice", load(product1.getC_UOM_ID(), I_C_UOM.class));
+
+		final List<IPricingResult> results = Services.get(IPricingBL.class).calculatePrices(ImmutableList.of(
+				createPricingContext(product1),
+				createPricingContext(product2),
+				createPricingContext(productWithoutPrice),
+				createPricingContext(product1)));
+
+		assertThat(results).hasSize(4);
+		assertThat(results.get(0).getPriceStd()).isEqualByComparingTo("2");
+		assertThat(results.get(1).getPriceStd()).isEqualByComparingTo("5");
+		assertThat(results.get(2).isCalculated()).isFalse();
+		assertThat(results.get(3).getPriceStd()).isEqualByComparingTo("2");
+	}
+
+	@Test
+	public void test_calculatePrices_sameAsCalculatePrice()
+	{
+		final I_M_Product product1 = helper.getDefaultProduct();
+		helper.newProductPriceBuilder()
+				.setPrice(2)
+				.build();
+
+		final I_M_Product product2 = helper.createProduct("Product2", load(product1.getC_UOM_ID(), I_C_UOM.class));
+		new ProductPriceBuilder(helper.getDefaultPriceListVerion(), product2)
+				.setTaxCategoryId(helper.getTaxCategoryId())
+				.setPrice(5)
+				.build();
+
+		final I_M_Product productWithoutPrice = helper.createProduct("ProductWithoutPrice", load(product1.getC_UOM_ID(), I_C_UOM.class));
+
+		final ImmutableList<IEditablePricingContext> pricingCtxs = ImmutableList.of(
+				createPricingContext(product1),
+				createPricingContext(product2),
+				createPricingContext(productWithoutPrice),
+				createPricingContext(product1));
+
+		final IPricingBL pricingBL = Services.get(IPricingBL.class);
+		final List<IPricingResult> results = pricingBL.calculatePrices(pricingCtxs);
+
+		assertThat(results).hasSameSizeAs(pricingCtxs);
+		for (int i = 0; i < pricingCtxs.size(); i++)
+		{
+			final IPricingResult result = results.get(i);
+			final IPricingResult expectedResult = pricingBL.calculatePrice(pricingCtxs.get(i));
+
+			assertThat(result.isCalculated()).as("calculated %s", i).isEqualTo(expectedResult.isCalculated());
+			assertThat(result.getPriceStd()).as("PriceStd %s", i).isEqualByComparingTo(expectedResult.getPriceStd());
+			assertThat(result.getPriceList()).as("PriceList %s", i).isEqualByComparingTo(expectedResult.getPriceList());
+			assertThat(result.getPriceLimit()).as("PriceLimit %s", i).isEqualByComparingTo(expectedResult.getPriceLimit());
+			assertThat(result.getPriceListVersionId()).as("PriceListVersionId %s", i).isEqualTo(expectedResult.getPriceListVersionId());
+			assertThat(result.getCurrencyId()).as("CurrencyId %s", i).isEqualTo(expectedResult.getCurrencyId());
+			assertThat(result.getTaxCategoryId()).as("TaxCategoryId %s", i).isEqualTo(expectedResult.getTaxCategoryId());
+		}
+	}
+
+	private IEditablePricingContext createPricingContext(final I_M_Product product)
+	{
+		final IEditablePricingContext pricingCtx = helper.createPricingContext();
+		pricingCtx.setProductId(ProductId.ofRepoId(product.getM_Product_ID()));
+		return pricingCtx;
+	}
+
 	@Test
 	public void test_MultipleDiscountChanges_WithAdvice()
 	{
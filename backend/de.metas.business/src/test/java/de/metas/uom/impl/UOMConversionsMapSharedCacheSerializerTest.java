@@ -0,0 +1,71 @@
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.uom.impl;
+
+import de.metas.product.ProductId;
+import de.metas.uom.UOMConversionRate;
+import de.metas.uom.UOMConversionsMap;
+import de.metas.uom.UomId;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UOMConversionsMapSharedCacheSerializerTest
+{
+	private final UOMConversionsMapSharedCacheSerializer serializer = new UOMConversionsMapSharedCacheSerializer();
+
+	@Test
+	void serializeAndDeserialize()
+	{
+		final UomId stockUomId = UomId.ofRepoId(1);
+		final UomId catchUomId = UomId.ofRepoId(2);
+		final UOMConversionsMap map = UOMConversionsMap.builder()
+				.productId(ProductId.ofRepoId(100))
+				.hasRatesForNonStockingUOMs(true)
+				.rate(UOMConversionRate.one(stockUomId))
+				.rate(UOMConversionRate.builder()
+						.fromUomId(stockUomId)
+						.toUomId(catchUomId)
+						.fromToMultiplier(new BigDecimal("0.125"))
+						.catchUOMForProduct(true)
+						.build())
+				.build();
+
+		final UOMConversionsMap result = serializer.deserialize(serializer.serialize(map));
+
+		assertThat(result.getProductId()).isEqualTo(ProductId.ofRepoId(100));
+		assertThat(result.isHasRatesForNonStockingUOMs()).isTrue();
+		assertThat(result.getCatchUomIds()).containsExactly(catchUomId);
+		assertThat(result.getRate(stockUomId, catchUomId).getFromToMultiplier()).isEqualByComparingTo("0.125");
+		assertThat(result.getRate(catchUomId, stockUomId).getFromToMultiplier()).isEqualByComparingTo("8");
+		assertThat(result.getRate(stockUomId, stockUomId).isOne()).isTrue();
+	}
+
+	@Test
+	void toKeyString()
+	{
+		assertThat(serializer.toKeyString(ProductId.ofRepoId(123))).isEqualTo("123");
+	}
+}
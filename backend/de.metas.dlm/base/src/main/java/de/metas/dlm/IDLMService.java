@@ -1,5 +1,6 @@
 package de.metas.dlm;
 
+import java.util.Collection;
 import java.util.stream.Stream;
 
 import org.adempiere.ad.dao.IQueryBuilder;
@@ -126,6 +127,13 @@ public interface IDLMService extends ISingletonService {
 	 */
 	int directUpdateDLMColumn(IContextAware ctxAware, int dlmPartitionId, String columnName, int targetValue);
 
+	/**
+	 * Same as {@link #directUpdateDLMColumn(IContextAware, int, String, int)}, but updates the records of all the given partitions with one statement per table.
+	 *
+	 * @return the number of records that were updated.
+	 */
+	int directUpdateDLMColumn(IContextAware ctxAware, Collection<Integer> dlmPartitionIds, String columnName, int targetValue);
+
 	
 
 	Stream<IQueryBuilder<IDLMAware>> retrieveDLMTableNames(IContextAware ctxAware, int dlmPartitionId);
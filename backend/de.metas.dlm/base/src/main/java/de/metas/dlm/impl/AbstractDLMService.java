@@ -197,24 +197,62 @@ public abstract class AbstractDLMService implements IDLMService
 		return updatedSum.getValue();
 	}
 
+	@Override
+	public int directUpdateDLMColumn(final IContextAware ctxAware,
+			final Collection<Integer> dlmPartitionIds,
+			final String columnName,
+			final int targetValue)
+	{
+		if (dlmPartitionIds.isEmpty())
+		{
+			return 0;
+		}
+
+		final IQueryBL queryBL = Services.get(IQueryBL.class);
+
+		final Mutable<Integer> updatedSum = new Mutable<>(0);
+
+		retrieveDLMTableNames(ctxAware).forEach(tableName -> {
+
+			final int updated = queryBL.createQueryBuilder(IDLMAware.class, tableName, ctxAware)
+					.addInArrayFilter(IDLMAware.COLUMNNAME_DLM_Partition_ID, dlmPartitionIds)
+					.addNotEqualsFilter(columnName, targetValue) // exclude records that already have the target value
+					.create()
+					.updateDirectly()
+					.addSetColumnValue(columnName, targetValue)
+					.execute();
+
+			logger.debug("Table {}: updated {} record(s) of {} partition(s) to {}={} (but not yet committed!)", tableName, updated, dlmPartitionIds.size(), columnName, targetValue);
+			updatedSum.setValue(updatedSum.getValue() + updated);
+		});
+
+		return updatedSum.getValue();
+	}
+
 	@Override
 	public Stream<IQueryBuilder<IDLMAware>> retrieveDLMTableNames(final IContextAware ctxAware, final int dlmPartitionId)
 	{
 		final IQueryBL queryBL = Services.get(IQueryBL.class);
 
-		final Stream<IQueryBuilder<IDLMAware>> result = queryBL.createQueryBuilder(I_AD_Table.class, ctxAware)
+		return retrieveDLMTableNames(ctxAware)
+				.map(tableName -> queryBL
+						.createQueryBuilder(IDLMAware.class, tableName, ctxAware)
+						// .addOnlyActiveRecordsFilter() we usually want all records
+						.addEqualsFilter(IDLMAware.COLUMNNAME_DLM_Partition_ID, dlmPartitionId));
+	}
+
+	private Stream<String> retrieveDLMTableNames(final IContextAware ctxAware)
+	{
+		final IQueryBL queryBL = Services.get(IQueryBL.class);
+
+		return queryBL.createQueryBuilder(I_AD_Table.class, ctxAware)
 				.addOnlyActiveRecordsFilter()
 				.addEqualsFilter(I_AD_Table.COLUMNNAME_IsDLM, true)
 				.orderBy().addColumn(org.compiere.model.I_AD_Table.COLUMNNAME_AD_Table_ID).endOrderBy()
 				.create()
 				.list()
 				.stream()
-				.map(t -> queryBL
-						.createQueryBuilder(IDLMAware.class, t.getTableName(), ctxAware)
-						// .addOnlyActiveRecordsFilter() we usually want all records
-						.addEqualsFilter(IDLMAware.COLUMNNAME_DLM_Partition_ID, dlmPartitionId));
-
-		return result;
+				.map(I_AD_Table::getTableName);
 	}
 
 	private void deactivateDlmColumn(final I_AD_Table table, final String columnName)
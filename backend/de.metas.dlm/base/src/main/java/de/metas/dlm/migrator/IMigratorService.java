@@ -1,5 +1,7 @@
 package de.metas.dlm.migrator;
 
+import java.util.List;
+
 import de.metas.dlm.IDLMService;
 import de.metas.dlm.Partition;
 import de.metas.dlm.model.IDLMAware;
@@ -80,4 +82,11 @@ public interface IMigratorService extends ISingletonService
 	 * @see IDLMService#directUpdateDLMColumn(org.adempiere.model.IContextAware, int, String, int)
 	 */
 	Partition migratePartition(Partition partition);
+
+	/**
+	 * Like {@link #migratePartition(Partition)}, but migrates all the given partitions together, with one update statement per table and target level.
+	 *
+	 * @return partition instances whose {@link Partition#getCurrentDLMLevel()} reflect the migration that was performed, in the same order as the given <code>partitions</code>.
+	 */
+	List<Partition> migratePartitions(List<Partition> partitions);
 }
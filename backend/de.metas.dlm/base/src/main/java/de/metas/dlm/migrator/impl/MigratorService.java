@@ -1,6 +1,11 @@
 package de.metas.dlm.migrator.impl;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxManager;
@@ -96,6 +101,32 @@ public class MigratorService implements IMigratorService
 		return updateDLMLevel0(partition, targetDlmLevel, PlainContextAware.newWithThreadInheritedTrx(Env.getCtx()));
 	}
 
+	@Override
+	public List<Partition> migratePartitions(final List<Partition> partitions)
+	{
+		final PlainContextAware ctxAware = PlainContextAware.newWithThreadInheritedTrx(Env.getCtx());
+		final IDLMService dlmService = Services.get(IDLMService.class);
+
+		// wed need to partition-IDs, otherwise we can't identifiey the DB-records to update
+		final Map<Integer, List<Integer>> targetDlmLevel2PartitionIds = new HashMap<>();
+		for (final Partition partition : partitions)
+		{
+			Check.errorIf(partition.getDLM_Partition_ID() <= 0, "Partition={} has no DLM_Partition_ID", partition);
+			targetDlmLevel2PartitionIds
+					.computeIfAbsent(partition.getTargetDLMLevel(), k -> new ArrayList<>())
+					.add(partition.getDLM_Partition_ID());
+		}
+
+		targetDlmLevel2PartitionIds.forEach((targetDlmLevel, dlmPartitionIds) -> {
+			final int updated = dlmService.directUpdateDLMColumn(ctxAware, dlmPartitionIds, IDLMAware.COLUMNNAME_DLM_Level, targetDlmLevel);
+			logger.info("Updated {} records of {} partitions to DLM_Level={}", updated, dlmPartitionIds.size(), targetDlmLevel);
+		});
+
+		return partitions.stream()
+				.map(partition -> partition.withCurrentDLMLevel(partition.getTargetDLMLevel()))
+				.collect(Collectors.toList());
+	}
+
 	private Partition updateDLMLevel0(final Partition partition, final int targetDlmLevel, final IContextAware ctxAware)
 	{
 		// wed need to partition-ID, otherwise we can't identifiey the DB-records to update
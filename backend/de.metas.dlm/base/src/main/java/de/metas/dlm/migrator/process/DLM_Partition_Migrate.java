@@ -1,16 +1,21 @@
 package de.metas.dlm.migrator.process;
 
 import java.util.Iterator;
+import java.util.List;
 
 import org.adempiere.ad.dao.ConstantQueryFilter;
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryFilter;
 import org.adempiere.ad.dao.impl.ModelColumnNameValue;
+import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.ad.trx.processor.api.ITrxItemProcessorExecutorService;
 import org.adempiere.ad.trx.processor.api.LoggableTrxItemExceptionHandler;
 import org.adempiere.ad.trx.processor.spi.TrxItemProcessorAdapter;
 import org.compiere.model.IQuery;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+
 import de.metas.dlm.IDLMService;
 import de.metas.dlm.Partition;
 import de.metas.dlm.migrator.IMigratorService;
@@ -48,8 +53,14 @@ public class DLM_Partition_Migrate extends JavaProcess
 	@Param(mandatory = true, parameterName = "IsTest")
 	private boolean testMigrate;
 
+	/**
+	 * Number of partitions that are migrated together in one transaction. If such a chunk fails, its partitions are migrated one by one.
+	 */
+	private static final int MIGRATE_CHUNK_SIZE = 100;
+
 	private final IMigratorService migratorService = Services.get(IMigratorService.class);
 	private final IDLMService dlmService = Services.get(IDLMService.class);
+	private final ITrxManager trxManager = Services.get(ITrxManager.class);
 
 	@RunOutOfTrx
 	@Override
@@ -75,36 +86,85 @@ public class DLM_Partition_Migrate extends JavaProcess
 				.setOption(IQuery.OPTION_IteratorBufferSize, 500)
 				.iterate(I_DLM_Partition.class);
 
-		trxItemProcessorExecutorService.<I_DLM_Partition, Void> createExecutor()
-				.setContext(getCtx(), getTrxName())
-				.setProcessor(new TrxItemProcessorAdapter<I_DLM_Partition, Void>()
-				{
-					@Override
-					public void process(final I_DLM_Partition partitionDB) throws Exception
+		if (testMigrate)
+		{
+			// each partition is test-migrated in its own local transaction
+			trxItemProcessorExecutorService.<I_DLM_Partition, Void> createExecutor()
+					.setContext(getCtx(), getTrxName())
+					.setProcessor(new TrxItemProcessorAdapter<I_DLM_Partition, Void>()
+					{
+						@Override
+						public void process(final I_DLM_Partition partitionDB) throws Exception
+						{
+							migratorService.testMigratePartition(dlmService.loadPartition(partitionDB));
+						}
+					})
+					.setExceptionHandler(LoggableTrxItemExceptionHandler.instance)
+					.process(partitionsToMigrate);
+		}
+		else
+		{
+			// migrate the partitions in bulk, i.e. with one update per table and chunk of partitions
+			trxItemProcessorExecutorService.<List<I_DLM_Partition>, Void> createExecutor()
+					.setContext(getCtx(), getTrxName())
+					.setProcessor(new TrxItemProcessorAdapter<List<I_DLM_Partition>, Void>()
 					{
-						process0(partitionDB);
-					}
-				})
-				.setExceptionHandler(LoggableTrxItemExceptionHandler.instance)
-				.process(partitionsToMigrate);
+						@Override
+						public void process(final List<I_DLM_Partition> partitionDBs) throws Exception
+						{
+							migrateChunk(getTrxName(), partitionDBs);
+						}
+					})
+					.setExceptionHandler(LoggableTrxItemExceptionHandler.instance)
+					.process(Iterators.partition(partitionsToMigrate, MIGRATE_CHUNK_SIZE));
+		}
 
 		return MSG_OK;
 	}
 
-	private void process0(final I_DLM_Partition partitionDB)
+	/**
+	 * Migrates the given chunk within a savepoint of the given trx. If that fails, the chunk's partitions are migrated one by one,
+	 * so that one partition which can't be migrated does not prevent the others of its chunk from being migrated.
+	 */
+	private void migrateChunk(final String trxName, final List<I_DLM_Partition> partitionDBs)
 	{
-		final Partition partition = dlmService.loadPartition(partitionDB);
-
-		if (testMigrate)
+		try
 		{
-			migratorService.testMigratePartition(partition);
+			trxManager.run(trxName, () -> migrate(partitionDBs));
 			return;
 		}
+		catch (final RuntimeException e)
+		{
+			addLog("Migrating {} partitions together failed; migrating them one by one. Error: {}", partitionDBs.size(), e.getLocalizedMessage());
+		}
+
+		for (final I_DLM_Partition partitionDB : partitionDBs)
+		{
+			try
+			{
+				trxManager.run(trxName, () -> migrate(ImmutableList.of(partitionDB)));
+			}
+			catch (final RuntimeException e)
+			{
+				addLog("Failed migrating DLM_Partition_ID={}: {}", partitionDB.getDLM_Partition_ID(), e.getLocalizedMessage());
+			}
+		}
+	}
+
+	private void migrate(final List<I_DLM_Partition> partitionDBs)
+	{
+		final List<Partition> partitions = partitionDBs.stream()
+				.map(dlmService::loadPartition)
+				.collect(ImmutableList.toImmutableList());
 
-		final Partition migratedPartition = migratorService.migratePartition(partition);
+		final List<Partition> migratedPartitions = migratorService.migratePartitions(partitions);
 
-		addLog("Migrated partition={} with result={}", partition, migratedPartition);
-		dlmService.storePartition(migratedPartition, false);
+		for (final Partition migratedPartition : migratedPartitions)
+		{
+			dlmService.storePartition(migratedPartition, false);
+		}
+		addLog("Migrated {} partitions; DLM_Partition_IDs={}",
+				migratedPartitions.size(), migratedPartitions.stream().map(Partition::getDLM_Partition_ID).collect(ImmutableList.toImmutableList()));
 	}
 
 }
@@ -14,6 +14,7 @@ import org.adempiere.util.lang.IContextAware;
 import org.adempiere.util.lang.ITableRecordReference;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 
 import de.metas.dlm.Partition;
 import de.metas.dlm.Partition.WorkQueue;
@@ -224,6 +225,17 @@ public class CreatePartitionIterateResult implements IStorableIterateResult
 		return queueItemsToProcess.removeFirst();
 	}
 
+	@Override
+	public void putBackIntoQueue(final List<ITableRecordReference> references)
+	{
+		// note: if the records were taken from persisted work queue items, those items are still deleted;
+		// the new items are stored instead, like the ones that were added after the last storing
+		for (final ITableRecordReference reference : Lists.reverse(references))
+		{
+			queueItemsToProcess.addFirst(WorkQueue.of(reference));
+		}
+	}
+
 	@Override
 	public List<WorkQueue> getQueueRecordsToStore()
 	{
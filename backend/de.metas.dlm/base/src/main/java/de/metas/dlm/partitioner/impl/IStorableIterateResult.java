@@ -55,6 +55,12 @@ public interface IStorableIterateResult extends IIterateResult
 	 */
 	List<WorkQueue> getQueueRecordsToDelete();
 
+	/**
+	 * Puts the given records, which were already taken from the queue via {@link #nextFromQueue()} but not yet processed, back to the head of the queue,
+	 * so that they are included in {@link #getQueueRecordsToStore()}.
+	 */
+	void putBackIntoQueue(List<ITableRecordReference> references);
+
 	/**
 	 * @return the {@link Partition} from the last invokation of {@link #clearAfterPartitionStored(Partition)}, or an empty partition.
 	 */
@@ -24,6 +24,9 @@ package de.metas.dlm.partitioner.impl;
 
 import ch.qos.logback.classic.Level;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import de.metas.adempiere.service.IColumnBL;
 import de.metas.dlm.IDLMService;
 import de.metas.dlm.Partition;
@@ -54,242 +57,412 @@ import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.util.TrxRunnable;
 import org.slf4j.Logger;
 
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 public class RecordCrawlerService implements IRecordCrawlerService
 {
 	private final transient Logger logger = LogManager.getLogger(getClass());
 
+	/**
+	 * Max number of queue items that are crawled together, i.e. loaded with one query per table and followed with one query per reference.
+	 */
+	private static final int CRAWL_BATCH_SIZE = 500;
+
 	@Override
 	public IIterateResult crawl(
 			final PartitionConfig config,
 			final IContextAware ctxAware,
 			final IIterateResult result)
 	{
-
-		final IColumnBL columnBL = Services.get(IColumnBL.class);
-		final IADTableDAO adTableDAO = Services.get(IADTableDAO.class);
-
 		// store what we are setting out to do here. E.g. if we are called from a DLMException, we want the situation such as
 		// "partition is not complete because testMigrate failed, and there are e.g. 20 orderlines to backtrack from" to be stored here.
 		// otherwise, the partiton we are in truth working on just now would be flagged as "completed" in the DB until further notice
 		storeIterateResult(config, result, ctxAware);
 
-		mainLoop:
 		while (!result.isQueueEmpty())
 		{
-			final ITableRecordReference currentReference = result.nextFromQueue();
-			final IDLMAware currentRecord = currentReference.getModel(ctxAware, IDLMAware.class);
-			if (currentRecord == null)
+			// store *before* taking the next batch from the queue, so that no queue item is "in flight" when the queue is persisted
+			if (shallStoreResult(result))
 			{
-				continue;
+				storeIterateResult(config, result, ctxAware);
 			}
 
-			if (shallStoreResult(result))
+			// take the next batch of records from the queue and group them by table, so that we can load and crawl them using one query per table and reference
+			final Map<String, List<ITableRecordReference>> tableName2References = new LinkedHashMap<>();
+			for (int i = 0; i < CRAWL_BATCH_SIZE && !result.isQueueEmpty(); i++)
 			{
-				storeIterateResult(config, result, ctxAware);
+				final ITableRecordReference reference = result.nextFromQueue();
+				tableName2References.computeIfAbsent(reference.getTableName(), k -> new ArrayList<>()).add(reference);
 			}
 
-			final String currentTableName = currentReference.getTableName();
-			final int currentRecordId = InterfaceWrapperHelper.getId(currentRecord);
+			final List<Map.Entry<String, List<ITableRecordReference>>> batches = new ArrayList<>(tableName2References.entrySet());
+			for (int i = 0; i < batches.size(); i++)
+			{
+				final boolean stop = crawlBatch(config, ctxAware, result, batches.get(i).getKey(), batches.get(i).getValue());
+				if (stop)
+				{
+					// the current batch was crawled only partially and the following ones not at all; put their records back, so they are persisted with the queue
+					putBackIntoQueue(result, batches.subList(i, batches.size()));
+
+					logger.info("Found {} records via config.name={}", result.size(), config.getName());
+					storeIterateResult(config, result, ctxAware);
+					return result;
+				}
+			}
+		}
 
-			// there might or migth not be a line for the current reference's table name. That would mean that we can only search "backward"
-			final Optional<PartitionerConfigLine> currentLineOrNull = config.getLine(currentTableName);
+		logger.info("Found {} records via config.name={}", result.size(), config.getName());
+		storeIterateResult(config, result, ctxAware);
+		return result;
+	}
+
+	private static void putBackIntoQueue(
+			final IIterateResult result,
+			final List<Map.Entry<String, List<ITableRecordReference>>> notCrawledBatches)
+	{
+		if (!(result instanceof IStorableIterateResult))
+		{
+			return; // nothing is persisted, so there is nothing to put back
+		}
+
+		final List<ITableRecordReference> notCrawledReferences = notCrawledBatches.stream()
+				.flatMap(batch -> batch.getValue().stream())
+				.collect(ImmutableList.toImmutableList());
+		((IStorableIterateResult)result).putBackIntoQueue(notCrawledReferences);
+	}
+
+	/**
+	 * Looks forward and backward from the given <code>currentReferences</code>, which all belong to the given <code>currentTableName</code>.
+	 *
+	 * @return <code>true</code> if the crawler was signaled to stop.
+	 */
+	private boolean crawlBatch(
+			final PartitionConfig config,
+			final IContextAware ctxAware,
+			final IIterateResult result,
+			final String currentTableName,
+			final List<ITableRecordReference> currentReferences)
+	{
+		final Map<Integer, IDLMAware> currentRecordsById = loadRecordsById(ctxAware, currentTableName, currentReferences.stream().map(ITableRecordReference::getRecord_ID).collect(ImmutableSet.toImmutableSet()));
+		if (currentRecordsById.isEmpty())
+		{
+			return false;
+		}
 
-			if (currentLineOrNull.isPresent())
+		// there might or migth not be a line for the current reference's table name. That would mean that we can only search "backward"
+		final Optional<PartitionerConfigLine> currentLineOrNull = config.getLine(currentTableName);
+		if (currentLineOrNull.isPresent())
+		{
+			final boolean stop = crawlForward(ctxAware, result, currentTableName, currentReferences, currentRecordsById, currentLineOrNull.get().getReferences());
+			if (stop)
 			{
-				final List<PartitionerConfigReference> forwardRefs = currentLineOrNull.get().getReferences();
+				return true;
+			}
+		}
 
-				// look FORWARD
-				//
-				// look at all the records that are referenced by 'currentRecord' and add them to 'hull',
-				// but only add them if they were not yet identified as parts of this partition (i.e. not yet added to 'records').
-				for (final PartitionerConfigReference forwardRef : forwardRefs)
-				{
-					if (forwardRef.isPartitionBoundary())
-					{
-						continue; // don't follow it
-					}
+		return crawlBackward(config, ctxAware, result, currentTableName, currentReferences, currentRecordsById);
+	}
 
-					// the table name for the foreign record which has 'foreignKey' as its ID
-					final String forwardTableName = forwardRef.getReferencedTableName();
-					final String forwardColumnName = forwardRef.getReferencingColumnName();
+	/**
+	 * Look FORWARD.
+	 * <p>
+	 * Look at all the records that are referenced by the current records and add them to the result,
+	 * but only load them if they were not yet identified as parts of this partition.
+	 */
+	private boolean crawlForward(
+			final IContextAware ctxAware,
+			final IIterateResult result,
+			final String currentTableName,
+			final List<ITableRecordReference> currentReferences,
+			final Map<Integer, IDLMAware> currentRecordsById,
+			final List<PartitionerConfigReference> forwardRefs)
+	{
+		final IColumnBL columnBL = Services.get(IColumnBL.class);
+		final IADTableDAO adTableDAO = Services.get(IADTableDAO.class);
 
-					// first check if this is all about a Record_ID/AD_Table_ID reference.
-					// if that is the case, then we need to verify that the AD_Table_ID of 'record' actually points to the table named 'forwardTableName'
-					if (IColumnBL.isRecordIdColumnName(forwardColumnName))
-					{
-						final String tableColumnName = columnBL.getTableIdColumnName(currentTableName, forwardColumnName)
-								.orElseThrow(Check.supplyEx("Table={} has no table column name for recordColumnName={}", currentTableName, forwardColumnName));
+		//
+		// collect the forward references of the whole batch
+		final List<ForwardEdge> forwardEdges = new ArrayList<>();
+		for (final ITableRecordReference currentReference : currentReferences)
+		{
+			final IDLMAware currentRecord = currentRecordsById.get(currentReference.getRecord_ID());
+			if (currentRecord == null)
+			{
+				continue;
+			}
+			final int currentRecordId = currentReference.getRecord_ID();
 
-						final Integer tableId = InterfaceWrapperHelper.getValueOrNull(currentRecord, tableColumnName);
-						if (tableId == null || tableId <= 0)
-						{
-							logger.trace("{}[{}] forward: the column={} does not reference any table; skipping", currentTableName, currentRecordId, forwardColumnName, forwardTableName, tableColumnName);
-							continue;
-						}
+			for (final PartitionerConfigReference forwardRef : forwardRefs)
+			{
+				if (forwardRef.isPartitionBoundary())
+				{
+					continue; // don't follow it
+				}
 
-						final String tableName = adTableDAO.retrieveTableName(tableId);
-						if (!tableName.equals(forwardTableName))
-						{
-							logger.trace("{}[{}] forward: the column={} does not reference a {}-record, but a {}-record; skipping", currentTableName, currentRecordId, forwardColumnName, forwardTableName, tableName);
-							continue;
-						}
-					}
+				// the table name for the foreign record which has 'foreignKey' as its ID
+				final String forwardTableName = forwardRef.getReferencedTableName();
+				final String forwardColumnName = forwardRef.getReferencingColumnName();
+
+				// first check if this is all about a Record_ID/AD_Table_ID reference.
+				// if that is the case, then we need to verify that the AD_Table_ID of 'record' actually points to the table named 'forwardTableName'
+				if (IColumnBL.isRecordIdColumnName(forwardColumnName))
+				{
+					final String tableColumnName = columnBL.getTableIdColumnName(currentTableName, forwardColumnName)
+							.orElseThrow(Check.supplyEx("Table={} has no table column name for recordColumnName={}", currentTableName, forwardColumnName));
 
-					// get the foreign key ID of
-					// table DLM_PartitionLine_Config.AD_Table_ID,
-					// column DLM_PartitionReference_Config.DLM_Referencing_Column_ID
-					final Integer forwardKey = InterfaceWrapperHelper.getValueOrNull(currentRecord, forwardColumnName);
-					if (forwardKey == null || forwardKey <= 0)
+					final Integer tableId = InterfaceWrapperHelper.getValueOrNull(currentRecord, tableColumnName);
+					if (tableId == null || tableId <= 0)
 					{
-						logger.trace("{}[{}] forward: the column={} does not reference anything; skipping", currentTableName, currentRecordId, forwardColumnName);
+						logger.trace("{}[{}] forward: the column={} does not reference any table; skipping", currentTableName, currentRecordId, forwardColumnName, forwardTableName, tableColumnName);
 						continue;
 					}
 
-					final TableRecordReference forwardReference = TableRecordReference.of(forwardTableName, forwardKey);
-
-					final boolean recordWasAlreadyAddedBefore = result.contains(forwardReference);
-					if (recordWasAlreadyAddedBefore)
+					final String tableName = adTableDAO.retrieveTableName(tableId);
+					if (!tableName.equals(forwardTableName))
 					{
-						logger.trace("{}[{}] forward: ITableRecordReference={} was already added in a previous iteration. Returning", currentTableName, currentRecordId, forwardReference); // avoid circles and also avoid loading the whole PO again
-					}
-					else
-					{
-						// the foreign record was not yet added before. Load it now.
-						final IDLMAware forwardRecord = forwardReference.getModel(ctxAware, IDLMAware.class);
-						if (forwardRecord == null)
-						{
-							// this happens with our "minidump" where we left out the HUs
-							Loggables.withLogger(logger, Level.WARN).addLog(
-									"{}[{}] forward: the record from table={} which we attempted to load via {}.{}={} is NULL",
-									currentTableName, currentRecordId, forwardTableName, currentTableName, forwardColumnName, forwardKey);
-							continue;
-						}
-
-						logger.debug("{}[{}] forward: loaded from table={} via {}.{}={}: referenced IDLMAware={}",
-								currentTableName, currentRecordId, forwardTableName, currentTableName, forwardColumnName, forwardKey, forwardRecord);
-
-						final AddResult addResult = result.addReferencedRecord(currentReference, forwardReference, forwardRecord.getDLM_Partition_ID());
-						if (forwardRecord.getDLM_Partition_ID() > 0)
-						{
-							// log why we do not search further using the new found foreign record
-							logger.debug("{}[{}] forward: referenced IDLMAware={} already has DLM_Partition_ID={}",
-									currentTableName, currentRecordId, forwardRecord, forwardRecord.getDLM_Partition_ID());
-						}
-						if (AddResult.STOP.equals(addResult))
-						{
-							Loggables.withLogger(logger, Level.WARN)
-									.addLog("The crawler was signaled to stop when it added ReferencedRecord={} to the result. Stopping now", forwardReference);
-							break mainLoop;
-						}
+						logger.trace("{}[{}] forward: the column={} does not reference a {}-record, but a {}-record; skipping", currentTableName, currentRecordId, forwardColumnName, forwardTableName, tableName);
+						continue;
 					}
 				}
-			}
 
-			// Look BACKWARD, i.e. get all config-references that point to 'currentTableName'.
-			// Then, for each of them, load the records that reference 'currentRecord' via the respective config-reference.
-			//
-			final List<PartitionerConfigReference> backwardRefs = config.getReferences(currentTableName);
-			for (final PartitionerConfigReference backwardRef : backwardRefs)
-			{
-				if (backwardRef.isPartitionBoundary())
+				// get the foreign key ID of
+				// table DLM_PartitionLine_Config.AD_Table_ID,
+				// column DLM_PartitionReference_Config.DLM_Referencing_Column_ID
+				final Integer forwardKey = InterfaceWrapperHelper.getValueOrNull(currentRecord, forwardColumnName);
+				if (forwardKey == null || forwardKey <= 0)
 				{
+					logger.trace("{}[{}] forward: the column={} does not reference anything; skipping", currentTableName, currentRecordId, forwardColumnName);
 					continue;
 				}
 
-				final PartitionerConfigLine backwardLine = backwardRef.getParent();
-				final String backwardTableName = backwardLine.getTableName();
-				final String backwardColumnName = backwardRef.getReferencingColumnName();
+				forwardEdges.add(new ForwardEdge(currentReference, forwardColumnName, TableRecordReference.of(forwardTableName, forwardKey)));
+			}
+		}
 
-				// load all records which reference foreignRecord
-				// don't excluded records with DLM_Partition_ID>0 becase we might need to merge them into the partition we are currently building
-				final IQueryBuilder<IDLMAware> queryBuilder = Services.get(IQueryBL.class)
-						.createQueryBuilder(IDLMAware.class, backwardTableName, ctxAware)
-						.addEqualsFilter(backwardRef.getReferencingColumnName(), currentRecordId);
+		//
+		// load the referenced records which we did not yet add before; one query per referenced table
+		final Map<String, Map<Integer, IDLMAware>> forwardRecordsByTableName = new HashMap<>();
+		forwardEdges.stream()
+				.map(ForwardEdge::getForwardReference)
+				.filter(forwardReference -> !result.contains(forwardReference)) // avoid circles and also avoid loading the whole PO again
+				.collect(Collectors.groupingBy(ITableRecordReference::getTableName, Collectors.mapping(ITableRecordReference::getRecord_ID, ImmutableSet.toImmutableSet())))
+				.forEach((forwardTableName, forwardIds) -> forwardRecordsByTableName.put(forwardTableName, loadRecordsById(ctxAware, forwardTableName, forwardIds)));
+
+		//
+		// add them to the result
+		for (final ForwardEdge forwardEdge : forwardEdges)
+		{
+			final ITableRecordReference currentReference = forwardEdge.getCurrentReference();
+			final int currentRecordId = currentReference.getRecord_ID();
+			final ITableRecordReference forwardReference = forwardEdge.getForwardReference();
+			final String forwardTableName = forwardReference.getTableName();
+			final String forwardColumnName = forwardEdge.getForwardColumnName();
+			final int forwardKey = forwardReference.getRecord_ID();
+
+			final boolean recordWasAlreadyAddedBefore = result.contains(forwardReference);
+			if (recordWasAlreadyAddedBefore)
+			{
+				logger.trace("{}[{}] forward: ITableRecordReference={} was already added in a previous iteration. Returning", currentTableName, currentRecordId, forwardReference); // avoid circles and also avoid loading the whole PO again
+				continue;
+			}
 
-				// if we have a case of AD_Table_ID/Record_ID,
-				// then we need to make sure to only load records whose AD_Table_ID references currentRecord
-				if (IColumnBL.isRecordIdColumnName(backwardColumnName))
-				{
-					// note that referencedTableColumnName = AD_Table_ID, in most cases
-					final String referencedTableColumnName = columnBL.getTableIdColumnName(backwardTableName, backwardRef.getReferencingColumnName())
-							.orElseThrow(Check.supplyEx("Table={} has no table column name for recordColumnName={}", backwardTableName, backwardColumnName));
+			final IDLMAware forwardRecord = forwardRecordsByTableName.getOrDefault(forwardTableName, ImmutableMap.of()).get(forwardKey);
+			if (forwardRecord == null)
+			{
+				// this happens with our "minidump" where we left out the HUs
+				Loggables.withLogger(logger, Level.WARN).addLog(
+						"{}[{}] forward: the record from table={} which we attempted to load via {}.{}={} is NULL",
+						currentTableName, currentRecordId, forwardTableName, currentTableName, forwardColumnName, forwardKey);
+				continue;
+			}
 
-					final int referencedTableID = adTableDAO.retrieveTableId(currentTableName);
+			logger.debug("{}[{}] forward: loaded from table={} via {}.{}={}: referenced IDLMAware={}",
+					currentTableName, currentRecordId, forwardTableName, currentTableName, forwardColumnName, forwardKey, forwardRecord);
 
-					queryBuilder.addEqualsFilter(referencedTableColumnName, referencedTableID);
-				}
+			final AddResult addResult = result.addReferencedRecord(currentReference, forwardReference, forwardRecord.getDLM_Partition_ID());
+			if (forwardRecord.getDLM_Partition_ID() > 0)
+			{
+				// log why we do not search further using the new found foreign record
+				logger.debug("{}[{}] forward: referenced IDLMAware={} already has DLM_Partition_ID={}",
+						currentTableName, currentRecordId, forwardRecord, forwardRecord.getDLM_Partition_ID());
+			}
+			if (AddResult.STOP.equals(addResult))
+			{
+				Loggables.withLogger(logger, Level.WARN)
+						.addLog("The crawler was signaled to stop when it added ReferencedRecord={} to the result. Stopping now", forwardReference);
+				return true;
+			}
+		}
+		return false;
+	}
 
-				// avoid loading the records we already added before.
-				// This doesn't work well. NOT IN is probably not very performant, see
-				// http://stackoverflow.com/questions/7125291/postgresql-not-in-versus-except-performance-difference-edited-2
-				// maybe it would become better when we do something along the lines of
-				// https://www.datadoghq.com/blog/100x-faster-postgres-performance-by-changing-1-line/
-				// at any rate it looks the postgresql jdbc driver "only" supports prepared statements with 65536 parameters,
-				// Solutions:
-				// 1. don't try to exclude anything and live with records beeing returned that we already saw earlier
-				// 2. store the partition more regularly and add some sort of negative left-join to the query
-				// {
-				// final String columnName = columnBL.getSingleKeyColumn(backwardTableName);
-				// final Collection<Integer> alreadyAddedBackwardIds = result.getIds(backwardTableName);
-				//
-				// queryBuilder.addNotInArrayFilter(columnName, alreadyAddedBackwardIds);
-				// }
-
-				// de.metas.dlm.partitioner.PartitionerTools.dumpHistogram(result)
-				final List<IDLMAware> backwardRecords = queryBuilder
-						.create()
-						.list();
-
-				for (final IDLMAware backwardRecord : backwardRecords)
-				{
-					InterfaceWrapperHelper.setTrxName(backwardRecord, ctxAware.getTrxName()); // we need this for MPinstance, because it explicitly ignores the trx it is loaded with in its constructor.
+	/**
+	 * Look BACKWARD, i.e. get all config-references that point to 'currentTableName'.
+	 * Then, for each of them, load the records that reference any of the current records via the respective config-reference.
+	 */
+	private boolean crawlBackward(
+			final PartitionConfig config,
+			final IContextAware ctxAware,
+			final IIterateResult result,
+			final String currentTableName,
+			final List<ITableRecordReference> currentReferences,
+			final Map<Integer, IDLMAware> currentRecordsById)
+	{
+		final IColumnBL columnBL = Services.get(IColumnBL.class);
+		final IADTableDAO adTableDAO = Services.get(IADTableDAO.class);
 
-					final ITableRecordReference backwardTableRecordReference = TableRecordReference.ofOrNull(backwardRecord);
+		final Map<Integer, ITableRecordReference> currentReferencesById = new HashMap<>();
+		for (final ITableRecordReference currentReference : currentReferences)
+		{
+			if (currentRecordsById.containsKey(currentReference.getRecord_ID()))
+			{
+				currentReferencesById.putIfAbsent(currentReference.getRecord_ID(), currentReference);
+			}
+		}
 
-					final AddResult addRecordResult = result.addReferencingRecord(backwardTableRecordReference, currentReference, backwardRecord.getDLM_Partition_ID());
+		final List<PartitionerConfigReference> backwardRefs = config.getReferences(currentTableName);
+		for (final PartitionerConfigReference backwardRef : backwardRefs)
+		{
+			if (backwardRef.isPartitionBoundary())
+			{
+				continue;
+			}
 
-					// should not happen because we excluded alreadyAddedBackwardIds from the loading query
-					// Check.errorUnless(recordWasNotYetAddedBefore, "{}[{}] backward: WAS ALREADY ADDED! - loaded referencing IDLMAware={} from table={} via {}.{}={}",
-					// currentTableName, currentRecordId, backwardRecord, backwardTableName, backwardTableName, backwardColumnName, currentRecordId);
+			final PartitionerConfigLine backwardLine = backwardRef.getParent();
+			final String backwardTableName = backwardLine.getTableName();
+			final String backwardColumnName = backwardRef.getReferencingColumnName();
 
-					switch (addRecordResult)
-					{
-						case ADDED_CONTINUE:
-							// log that the foreign record was not yet added before. We added it now
-							logger.debug("{}[{}] backward: loaded from table={} via {}.{}={}: referencing IDLMAware={}",
-									currentTableName, currentRecordId, backwardTableName, backwardTableName, backwardColumnName, currentRecordId, backwardRecord);
-
-							if (backwardRecord.getDLM_Partition_ID() > 0)
-							{
-								// log why we did not search further using the new found foreign record
-								logger.debug("{}[{}] backward: referenced IDLMAware={} already has DLM_Partition_ID={}",
-										currentTableName, currentRecordId, backwardRecord, backwardRecord.getDLM_Partition_ID());
-							}
-							break;
-						case NOT_ADDED_CONTINUE:
-							logger.trace("{}[{}] backward: ReferencingRecord={} was already added in a previous iteration. Returning", currentTableName, currentRecordId, backwardTableRecordReference);
-							break;
-						case STOP:
-							Loggables.addLog("The crawler was signaled to stop when it added ReferencingRecord={} the result. Stopping now", backwardTableRecordReference);
-							break mainLoop;
-						default:
-							Check.errorIf(true, "Unexpected result={}", addRecordResult);
-							break;
-					}
+			// load all records which reference any of the current records
+			// don't excluded records with DLM_Partition_ID>0 becase we might need to merge them into the partition we are currently building
+			final IQueryBuilder<IDLMAware> queryBuilder = Services.get(IQueryBL.class)
+					.createQueryBuilder(IDLMAware.class, backwardTableName, ctxAware)
+					.addInArrayFilter(backwardColumnName, currentReferencesById.keySet());
+
+			// if we have a case of AD_Table_ID/Record_ID,
+			// then we need to make sure to only load records whose AD_Table_ID references currentRecord
+			if (IColumnBL.isRecordIdColumnName(backwardColumnName))
+			{
+				// note that referencedTableColumnName = AD_Table_ID, in most cases
+				final String referencedTableColumnName = columnBL.getTableIdColumnName(backwardTableName, backwardColumnName)
+						.orElseThrow(Check.supplyEx("Table={} has no table column name for recordColumnName={}", backwardTableName, backwardColumnName));
+
+				final int referencedTableID = adTableDAO.retrieveTableId(currentTableName);
+
+				queryBuilder.addEqualsFilter(referencedTableColumnName, referencedTableID);
+			}
+
+			// Note: we don't try to exclude the records we already added before (e.g. with a NOT IN filter);
+			// NOT IN does not perform well and the postgresql jdbc driver "only" supports prepared statements with 65536 parameters.
+			// Instead, we live with records being returned that we already saw earlier.
+
+			// de.metas.dlm.partitioner.PartitionerTools.dumpHistogram(result)
+			final List<IDLMAware> backwardRecords = queryBuilder
+					.create()
+					.list();
+
+			for (final IDLMAware backwardRecord : backwardRecords)
+			{
+				InterfaceWrapperHelper.setTrxName(backwardRecord, ctxAware.getTrxName()); // we need this for MPinstance, because it explicitly ignores the trx it is loaded with in its constructor.
+
+				final Integer currentRecordId = InterfaceWrapperHelper.getValueOrNull(backwardRecord, backwardColumnName);
+				final ITableRecordReference currentReference = currentReferencesById.get(currentRecordId);
+				final ITableRecordReference backwardTableRecordReference = TableRecordReference.ofOrNull(backwardRecord);
+
+				final AddResult addRecordResult = result.addReferencingRecord(backwardTableRecordReference, currentReference, backwardRecord.getDLM_Partition_ID());
+				switch (addRecordResult)
+				{
+					case ADDED_CONTINUE:
+						// log that the foreign record was not yet added before. We added it now
+						logger.debug("{}[{}] backward: loaded from table={} via {}.{}={}: referencing IDLMAware={}",
+								currentTableName, currentRecordId, backwardTableName, backwardTableName, backwardColumnName, currentRecordId, backwardRecord);
+
+						if (backwardRecord.getDLM_Partition_ID() > 0)
+						{
+							// log why we did not search further using the new found foreign record
+							logger.debug("{}[{}] backward: referenced IDLMAware={} already has DLM_Partition_ID={}",
+									currentTableName, currentRecordId, backwardRecord, backwardRecord.getDLM_Partition_ID());
+						}
+						break;
+					case NOT_ADDED_CONTINUE:
+						logger.trace("{}[{}] backward: ReferencingRecord={} was already added in a previous iteration. Returning", currentTableName, currentRecordId, backwardTableRecordReference);
+						break;
+					case STOP:
+						Loggables.addLog("The crawler was signaled to stop when it added ReferencingRecord={} the result. Stopping now", backwardTableRecordReference);
+						return true;
+					default:
+						Check.errorIf(true, "Unexpected result={}", addRecordResult);
+						break;
 				}
 			}
 		}
+		return false;
+	}
 
-		logger.info("Found {} records via config.name={}", result.size(), config.getName());
-		storeIterateResult(config, result, ctxAware);
-		return result;
+	/**
+	 * Loads the records of the given table with one query.
+	 */
+	private Map<Integer, IDLMAware> loadRecordsById(
+			final IContextAware ctxAware,
+			final String tableName,
+			final Set<Integer> recordIds)
+	{
+		if (recordIds.isEmpty())
+		{
+			return ImmutableMap.of();
+		}
+
+		final Map<Integer, IDLMAware> recordsById = new HashMap<>(recordIds.size());
+		Services.get(IQueryBL.class)
+				.createQueryBuilder(IDLMAware.class, tableName, ctxAware)
+				.addInArrayFilter(InterfaceWrapperHelper.getKeyColumnName(tableName), recordIds)
+				.create()
+				.list()
+				.forEach(record -> {
+					InterfaceWrapperHelper.setTrxName(record, ctxAware.getTrxName()); // see the comment in crawlBackward
+					recordsById.put(InterfaceWrapperHelper.getId(record), record);
+				});
+		return recordsById;
+	}
+
+	private static final class ForwardEdge
+	{
+		private final ITableRecordReference currentReference;
+		private final String forwardColumnName;
+		private final ITableRecordReference forwardReference;
+
+		private ForwardEdge(
+				final ITableRecordReference currentReference,
+				final String forwardColumnName,
+				final ITableRecordReference forwardReference)
+		{
+			this.currentReference = currentReference;
+			this.forwardColumnName = forwardColumnName;
+			this.forwardReference = forwardReference;
+		}
+
+		public ITableRecordReference getCurrentReference()
+		{
+			return currentReference;
+		}
+
+		public String getForwardColumnName()
+		{
+			return forwardColumnName;
+		}
+
+		public ITableRecordReference getForwardReference()
+		{
+			return forwardReference;
+		}
 	}
 
 	private boolean shallStoreResult(final IIterateResult result)
@@ -1,6 +1,10 @@
 package de.metas.dlm.migrator.impl;
 
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
 import java.util.Collection;
+import java.util.List;
 
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.test.AdempiereTestHelper;
@@ -14,6 +18,8 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
 import de.metas.dlm.Partition;
+import de.metas.dlm.migrator.IMigratorService;
+import de.metas.dlm.model.I_AD_Table;
 import de.metas.dlm.model.IDLMAware;
 
 /*
@@ -65,4 +71,54 @@ public class MigratorServiceTests
 
 		new MigratorService().testMigratePartition(partition);
 	}
+
+	@Test
+	public void migratePartitions()
+	{
+		final I_AD_Table paymentTable = InterfaceWrapperHelper.newInstance(I_AD_Table.class);
+		paymentTable.setTableName(I_C_Payment.Table_Name);
+		paymentTable.setIsDLM(true);
+		InterfaceWrapperHelper.save(paymentTable);
+
+		final IDLMAware payment1 = createPayment(1, IMigratorService.DLM_Level_LIVE);
+		final IDLMAware payment2 = createPayment(2, IMigratorService.DLM_Level_ARCHIVE);
+		final IDLMAware payment3 = createPayment(3, IMigratorService.DLM_Level_LIVE);
+		final IDLMAware payment4 = createPayment(4, IMigratorService.DLM_Level_TEST); // its partition is not migrated
+
+		final Partition partition1 = new Partition().withDLM_Partition_ID(1).withTargetDLMLevel(IMigratorService.DLM_Level_ARCHIVE);
+		final Partition partition2 = new Partition().withDLM_Partition_ID(2).withTargetDLMLevel(IMigratorService.DLM_Level_LIVE);
+		final Partition partition3 = new Partition().withDLM_Partition_ID(3).withTargetDLMLevel(IMigratorService.DLM_Level_ARCHIVE);
+
+		final List<Partition> result = new MigratorService().migratePartitions(ImmutableList.of(partition1, partition2, partition3));
+
+		assertThat(result.size(), is(3));
+		assertThat(result.get(0).getDLM_Partition_ID(), is(1));
+		assertThat(result.get(0).getCurrentDLMLevel(), is(IMigratorService.DLM_Level_ARCHIVE));
+		assertThat(result.get(1).getDLM_Partition_ID(), is(2));
+		assertThat(result.get(1).getCurrentDLMLevel(), is(IMigratorService.DLM_Level_LIVE));
+		assertThat(result.get(2).getDLM_Partition_ID(), is(3));
+		assertThat(result.get(2).getCurrentDLMLevel(), is(IMigratorService.DLM_Level_ARCHIVE));
+
+		// the records themselves were updated
+		assertThat(retrieveDLMLevel(payment1), is(IMigratorService.DLM_Level_ARCHIVE));
+		assertThat(retrieveDLMLevel(payment2), is(IMigratorService.DLM_Level_LIVE));
+		assertThat(retrieveDLMLevel(payment3), is(IMigratorService.DLM_Level_ARCHIVE));
+		assertThat(retrieveDLMLevel(payment4), is(IMigratorService.DLM_Level_TEST));
+	}
+
+	private static IDLMAware createPayment(final int dlmPartitionId, final int dlmLevel)
+	{
+		final I_C_Payment payment = InterfaceWrapperHelper.newInstance(I_C_Payment.class);
+		final IDLMAware paymentDlmAware = InterfaceWrapperHelper.create(payment, IDLMAware.class);
+		paymentDlmAware.setDLM_Partition_ID(dlmPartitionId);
+		paymentDlmAware.setDLM_Level(dlmLevel);
+		InterfaceWrapperHelper.save(payment);
+		return paymentDlmAware;
+	}
+
+	private static int retrieveDLMLevel(final IDLMAware record)
+	{
+		InterfaceWrapperHelper.refresh(record);
+		return record.getDLM_Level();
+	}
 }
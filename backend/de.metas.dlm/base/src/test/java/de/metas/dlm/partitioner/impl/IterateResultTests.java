@@ -119,4 +119,45 @@ public class IterateResultTests
 		assertThat(iterateResult.isQueueEmpty(), is(true));
 		assertThat(iterateResult.size(), is(2));
 	}
+
+	/**
+	 * Records that were taken from the queue but were not processed are put back to the head of the queue and are then stored, while their persisted work queue items are still deleted.
+	 */
+	@Test
+	public void testPutBackIntoQueue()
+	{
+		final ITableRecordReference tableRecordReference1 = TableRecordReference.ofOrNull(newColor());
+		final ITableRecordReference tableRecordReference2 = TableRecordReference.ofOrNull(newColor());
+		final ITableRecordReference tableRecordReference3 = TableRecordReference.ofOrNull(newColor());
+
+		final WorkQueue persistedWorkQueue1 = WorkQueue.of(tableRecordReference1);
+		persistedWorkQueue1.setDLM_Partition_Workqueue_ID(10);
+		final Iterator<WorkQueue> initialQueue = ImmutableList.of(persistedWorkQueue1).iterator();
+		final IContextAware ctxAware = PlainContextAware.newWithThreadInheritedTrx();
+
+		final CreatePartitionIterateResult iterateResult = new CreatePartitionIterateResult(initialQueue, ctxAware);
+		iterateResult.addReferencedRecord(null, tableRecordReference2, 0);
+		iterateResult.addReferencedRecord(null, tableRecordReference3, 0);
+
+		assertThat(iterateResult.nextFromQueue(), is(tableRecordReference1));
+		assertThat(iterateResult.nextFromQueue(), is(tableRecordReference2));
+
+		iterateResult.putBackIntoQueue(ImmutableList.of(tableRecordReference1, tableRecordReference2));
+
+		assertThat(iterateResult.getQueueRecordsToDelete().size(), is(1));
+		assertThat(iterateResult.getQueueRecordsToDelete().get(0).getDLM_Partition_Workqueue_ID(), is(10));
+
+		assertThat(iterateResult.getQueueRecordsToStore().size(), is(3));
+		assertThat(iterateResult.nextFromQueue(), is(tableRecordReference1));
+		assertThat(iterateResult.nextFromQueue(), is(tableRecordReference2));
+		assertThat(iterateResult.nextFromQueue(), is(tableRecordReference3));
+		assertThat(iterateResult.isQueueEmpty(), is(true));
+	}
+
+	private static I_AD_Color newColor()
+	{
+		final I_AD_Color color = InterfaceWrapperHelper.newInstance(I_AD_Color.class);
+		InterfaceWrapperHelper.save(color);
+		return color;
+	}
 }
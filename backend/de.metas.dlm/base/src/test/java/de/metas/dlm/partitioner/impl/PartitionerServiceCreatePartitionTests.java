@@ -459,6 +459,12 @@ public class PartitionerServiceCreatePartitionTests
 			{
 				throw new UnsupportedOperationException();
 			}
+
+			@Override
+			public List<Partition> migratePartitions(final List<Partition> partitions)
+			{
+				throw new UnsupportedOperationException();
+			}
 		});
 	}
 
@@ -18,6 +18,7 @@ import de.metas.material.dispo.commons.candidate.businesscase.DistributionDetail
 import de.metas.material.dispo.commons.candidate.businesscase.ProductionDetail;
 import de.metas.material.dispo.commons.candidate.businesscase.PurchaseDetail;
 import de.metas.material.dispo.commons.candidate.businesscase.StockChangeDetail;
+import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseIndex;
 import de.metas.material.dispo.commons.repository.query.CandidatesQuery;
 import de.metas.material.dispo.commons.repository.query.DeleteCandidatesQuery;
 import de.metas.material.dispo.commons.repository.repohelpers.PurchaseDetailRepoHelper;
@@ -52,6 +53,7 @@ import org.adempiere.warehouse.WarehouseId;
 import org.compiere.model.I_M_ForecastLine;
 import org.compiere.util.TimeUtil;
 import org.reflections.util.Utils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Nullable;
@@ -102,15 +104,28 @@ public class CandidateRepositoryWriteService
 	private final StockChangeDetailRepo stockChangeDetailRepo;
 	private final IForecastDAO forecastDAO = Services.get(IForecastDAO.class);
 	private final CandidateRepositoryRetrieval candidateRepositoryRetrieval;
+	private final AvailableToPromiseIndex availableToPromiseIndex;
 
+	@Autowired
 	public CandidateRepositoryWriteService(
 			@NonNull final DimensionService dimensionService,
 			@NonNull final StockChangeDetailRepo stockChangeDetailRepo,
-			@NonNull final CandidateRepositoryRetrieval candidateRepositoryRetrieval)
+			@NonNull final CandidateRepositoryRetrieval candidateRepositoryRetrieval,
+			@NonNull final AvailableToPromiseIndex availableToPromiseIndex)
 	{
 		this.dimensionService = dimensionService;
 		this.stockChangeDetailRepo = stockChangeDetailRepo;
 		this.candidateRepositoryRetrieval = candidateRepositoryRetrieval;
+		this.availableToPromiseIndex = availableToPromiseIndex;
+	}
+
+	@VisibleForTesting
+	public CandidateRepositoryWriteService(
+			@NonNull final DimensionService dimensionService,
+			@NonNull final StockChangeDetailRepo stockChangeDetailRepo,
+			@NonNull final CandidateRepositoryRetrieval candidateRepositoryRetrieval)
+	{
+		this(dimensionService, stockChangeDetailRepo, candidateRepositoryRetrieval, new AvailableToPromiseIndex());
 	}
 
 	/**
@@ -315,6 +330,7 @@ public class CandidateRepositoryWriteService
 		save(syncedRecord); // save now, because we need to have MD_Candidate_ID > 0
 
 		setFallBackSeqNoAndGroupIdIfNeeded(syncedRecord);
+		availableToPromiseIndex.onCandidateSaved(syncedRecord);
 
 		addOrReplaceProductionDetail(candidate, syncedRecord);
 
@@ -769,6 +785,7 @@ public class CandidateRepositoryWriteService
 			deleteRecord(stockCandidate);
 			deleteRecord(candidateRecord);
 		}
+		availableToPromiseIndex.onCandidateDeleted(stockCandidate);
 
 		return deleteResult;
 	}
@@ -860,6 +877,7 @@ public class CandidateRepositoryWriteService
 														   candidateRecord.getQty());
 
 		deleteRecord(candidateRecord);
+		availableToPromiseIndex.onCandidateDeleted(candidateRecord);
 
 		return deleteResult;
 	}
@@ -951,6 +969,14 @@ public class CandidateRepositoryWriteService
 				.forEach(childCandidateId -> deleteCandidateById(childCandidateId, alreadySeenIds));
 	}
 
+	/**
+	 * To be called by code which saves {@link I_MD_Candidate} records on its own, so that the in-memory ATP index is kept up to date.
+	 */
+	public void notifyCandidateRecordSaved(@NonNull final I_MD_Candidate candidateRecord)
+	{
+		availableToPromiseIndex.onCandidateSaved(candidateRecord);
+	}
+
 	public void deactivateSimulatedCandidates()
 	{
 		queryBL.createQueryBuilder(I_MD_Candidate.class)
@@ -0,0 +1,541 @@
+package de.metas.material.dispo.commons.repository.atp;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import de.metas.bpartner.BPartnerId;
+import de.metas.cache.CacheMgt;
+import de.metas.cache.ICacheResetListener;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.CacheInvalidateRequest;
+import de.metas.logging.LogManager;
+import de.metas.material.commons.attributes.AttributesKeyPattern;
+import de.metas.material.commons.attributes.clasifiers.BPartnerClassifier;
+import de.metas.material.dispo.commons.candidate.CandidateId;
+import de.metas.material.dispo.model.I_MD_Candidate;
+import de.metas.material.dispo.model.X_MD_Candidate;
+import de.metas.material.event.commons.AttributesKey;
+import de.metas.product.ProductId;
+import de.metas.util.Services;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.warehouse.WarehouseId;
+import org.compiere.util.TimeUtil;
+import org.slf4j.Logger;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/*
+ * #%L
+ * metasfresh-material-dispo-commons
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * In-memory available-to-promise index.
+ * <p>
+ * For each product, warehouse, customer and storage attributes key it keeps the timeline of the active, non-simulated {@code STOCK} candidates, ordered by {@code DateProjected} and {@code SeqNo}.
+ * So for a given date, the ATP of one such key is the latest stock candidate at or before that date; this is the same thing {@code de_metas_material.retrieve_atp_at_date} computes in the database.
+ * <p>
+ * A product's timelines are loaded on its first lookup. After that they are kept up to date incrementally:
+ * <ul>
+ * <li>{@link de.metas.material.dispo.commons.repository.CandidateRepositoryWriteService} reports saved and deleted candidates; those changes are applied after the transaction was committed.</li>
+ * <li>changes made on other nodes are received as {@code MD_Candidate} cache invalidations; the affected candidates are reloaded by ID, table-wide invalidations drop the whole index.</li>
+ * </ul>
+ * NOTE: changes which are not made through the above are not seen by the index, so it would return stale data for them.
+ * Code which saves {@code MD_Candidate} records on its own has to call {@link de.metas.material.dispo.commons.repository.CandidateRepositoryWriteService#notifyCandidateRecordSaved(I_MD_Candidate)},
+ * and code which changes stock candidates via SQL has to reset the {@code MD_Candidate} cache (which drops the index).
+ * {@link de.metas.material.dispo.commons.repository.CandidateRepositoryWriteService#deactivateSimulatedCandidates()} is fine without, because simulated candidates are not indexed anyway.
+ * <p>
+ * The index is only used if the sysconfig {@value #SYSCONFIG_Enabled} is set to {@code Y}.
+ */
+@Component
+public class AvailableToPromiseIndex
+{
+	private static final Logger logger = LogManager.getLogger(AvailableToPromiseIndex.class);
+
+	@VisibleForTesting
+	static final String SYSCONFIG_Enabled = "de.metas.material.dispo.ATP.InMemoryIndex.Enabled";
+
+	/**
+	 * If more candidate IDs than this are invalidated at once, we drop the whole index instead of reloading them one by one.
+	 */
+	private static final int MAX_CANDIDATES_TO_RELOAD = 500;
+
+	private final IQueryBL queryBL = Services.get(IQueryBL.class);
+	private final ITrxManager trxManager = Services.get(ITrxManager.class);
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+
+	private final ConcurrentHashMap<ProductId, ProductTimelines> timelinesByProductId = new ConcurrentHashMap<>();
+	/**
+	 * The product of each indexed candidate, so that a changed or deleted candidate can be removed from its old product's timelines.
+	 * Updated only from within {@link #timelinesByProductId}'s {@code compute*} methods of the respective product.
+	 */
+	private final ConcurrentHashMap<CandidateId, ProductId> productIdsByCandidateId = new ConcurrentHashMap<>();
+	private final AtomicBoolean remoteCacheInvalidationEnabled = new AtomicBoolean(false);
+
+	/**
+	 * Set while this node is broadcasting its own changes, so that we don't reload them again from the local invalidation.
+	 */
+	private final ThreadLocal<Boolean> broadcastingOwnChanges = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+	public AvailableToPromiseIndex()
+	{
+		CacheMgt.get().addCacheResetListener(I_MD_Candidate.Table_Name, this::onCacheReset);
+	}
+
+	public boolean isEnabled()
+	{
+		final boolean enabled = sysConfigBL.getBooleanValue(SYSCONFIG_Enabled, false);
+		if (enabled)
+		{
+			// we need to know about the other nodes' changes, but only while the index is enabled, because it makes all nodes broadcast their MD_Candidate changes
+			if (remoteCacheInvalidationEnabled.compareAndSet(false, true))
+			{
+				CacheMgt.get().enableRemoteCacheInvalidationForTableName(I_MD_Candidate.Table_Name);
+			}
+		}
+		else if (!timelinesByProductId.isEmpty())
+		{
+			// while disabled we are not tracking the changes, so whatever we have is stale by now
+			clear();
+		}
+		return enabled;
+	}
+
+	public void clear()
+	{
+		timelinesByProductId.clear();
+		productIdsByCandidateId.clear();
+	}
+
+	/**
+	 * @return the ATP records matching any of the given {@code multiQuery}'s queries, in no particular order.
+	 * Like with the database's {@code UNION DISTINCT}, a record which matches more than one query is returned once.
+	 */
+	@NonNull
+	public ImmutableList<AddToResultGroupRequest> retrieveMatchingRecords(@NonNull final AvailableToPromiseMultiQuery multiQuery)
+	{
+		final HashMap<CandidateId, AddToResultGroupRequest> result = new HashMap<>();
+
+		for (final AvailableToPromiseQuery query : multiQuery.getQueries())
+		{
+			final Instant date = query.getDate().toInstant();
+			for (final Integer productRepoId : query.getProductIds())
+			{
+				getOrLoadTimelines(ProductId.ofRepoId(productRepoId))
+						.forEachLatestStockAt(date, key -> isMatching(query, key), stock -> result.putIfAbsent(stock.getCandidateId(), stock.toAddToResultGroupRequest()));
+			}
+		}
+
+		return ImmutableList.copyOf(result.values());
+	}
+
+	/**
+	 * Records the given candidate's current state. The index is updated when the current transaction is committed.
+	 * <p>
+	 * The record does not need to be a stock candidate; records which are not relevant for ATP are removed from the index, in case they were there before.
+	 */
+	public void onCandidateSaved(@NonNull final I_MD_Candidate candidateRecord)
+	{
+		if (!isEnabled())
+		{
+			return;
+		}
+
+		final StockCandidate stockCandidate = StockCandidate.ofRecordOrNull(candidateRecord);
+		final CandidateChange change = stockCandidate != null
+				? CandidateChange.saved(stockCandidate)
+				: CandidateChange.deleted(CandidateId.ofRepoId(candidateRecord.getMD_Candidate_ID()));
+
+		trxManager.accumulateAndProcessAfterCommit(
+				AvailableToPromiseIndex.class.getName() + ".changes",
+				ImmutableList.of(change),
+				this::applyChangesAndBroadcast);
+	}
+
+	public void onCandidateDeleted(@NonNull final I_MD_Candidate candidateRecord)
+	{
+		if (!isEnabled())
+		{
+			return;
+		}
+
+		final CandidateChange change = CandidateChange.deleted(CandidateId.ofRepoId(candidateRecord.getMD_Candidate_ID()));
+
+		trxManager.accumulateAndProcessAfterCommit(
+				AvailableToPromiseIndex.class.getName() + ".changes",
+				ImmutableList.of(change),
+				this::applyChangesAndBroadcast);
+	}
+
+	private void applyChangesAndBroadcast(@NonNull final List<CandidateChange> changes)
+	{
+		changes.forEach(this::applyChange);
+
+		// let the other nodes know
+		final ImmutableSet<Integer> candidateRepoIds = changes.stream()
+				.map(change -> change.getCandidateId().getRepoId())
+				.collect(ImmutableSet.toImmutableSet());
+
+		broadcastingOwnChanges.set(Boolean.TRUE);
+		try
+		{
+			CacheMgt.get().reset(CacheInvalidateMultiRequest.fromTableNameAndRecordIds(I_MD_Candidate.Table_Name, candidateRepoIds));
+		}
+		finally
+		{
+			broadcastingOwnChanges.set(Boolean.FALSE);
+		}
+	}
+
+	private void applyChange(@NonNull final CandidateChange change)
+	{
+		final CandidateId candidateId = change.getCandidateId();
+		final StockCandidate stockCandidate = change.getStockCandidate();
+		final ProductId newProductId = stockCandidate != null ? stockCandidate.getKey().getProductId() : null;
+
+		// the candidate might have been moved from another product, so first remove it from there
+		final ProductId previousProductId = productIdsByCandidateId.get(candidateId);
+		if (previousProductId != null && !previousProductId.equals(newProductId))
+		{
+			timelinesByProductId.computeIfPresent(previousProductId, (productId, timelines) -> {
+				timelines.remove(candidateId);
+				productIdsByCandidateId.remove(candidateId, productId);
+				return timelines;
+			});
+		}
+
+		if (stockCandidate == null)
+		{
+			return;
+		}
+
+		// note: if the product's timelines are just being loaded, computeIfPresent waits for the loading to finish;
+		// so the loaded data can't override a change which was committed meanwhile
+		timelinesByProductId.computeIfPresent(newProductId, (productId, timelines) -> {
+			timelines.put(stockCandidate);
+			productIdsByCandidateId.put(candidateId, productId);
+			return timelines;
+		});
+	}
+
+	private long onCacheReset(@NonNull final CacheInvalidateMultiRequest multiRequest)
+	{
+		if (broadcastingOwnChanges.get() || timelinesByProductId.isEmpty())
+		{
+			return 0;
+		}
+
+		if (multiRequest.isResetAll())
+		{
+			clear();
+			return 1;
+		}
+
+		final ImmutableSet.Builder<Integer> candidateRepoIdsBuilder = ImmutableSet.builder();
+		for (final CacheInvalidateRequest request : multiRequest.getRequests())
+		{
+			if (!I_MD_Candidate.Table_Name.equals(request.getTableNameEffective()))
+			{
+				continue;
+			}
+			if (request.isAllRecords())
+			{
+				clear();
+				return 1;
+			}
+			candidateRepoIdsBuilder.add(request.getRecordEffective().getRecord_ID());
+		}
+
+		final ImmutableSet<Integer> candidateRepoIds = candidateRepoIdsBuilder.build();
+		if (candidateRepoIds.isEmpty())
+		{
+			return 0;
+		}
+		if (candidateRepoIds.size() > MAX_CANDIDATES_TO_RELOAD)
+		{
+			clear();
+			return 1;
+		}
+
+		reloadCandidates(candidateRepoIds);
+		return candidateRepoIds.size();
+	}
+
+	private void reloadCandidates(@NonNull final Set<Integer> candidateRepoIds)
+	{
+		final HashMap<Integer, I_MD_Candidate> recordsById = new HashMap<>();
+		queryBL.createQueryBuilderOutOfTrx(I_MD_Candidate.class)
+				.addInArrayFilter(I_MD_Candidate.COLUMNNAME_MD_Candidate_ID, candidateRepoIds)
+				.create()
+				.stream()
+				.forEach(record -> recordsById.put(record.getMD_Candidate_ID(), record));
+
+		for (final Integer candidateRepoId : candidateRepoIds)
+		{
+			final I_MD_Candidate record = recordsById.get(candidateRepoId);
+			final StockCandidate stockCandidate = record != null ? StockCandidate.ofRecordOrNull(record) : null;
+
+			applyChange(stockCandidate != null
+					? CandidateChange.saved(stockCandidate)
+					: CandidateChange.deleted(CandidateId.ofRepoId(candidateRepoId)));
+		}
+
+		logger.debug("Reloaded {} candidates after remote change", candidateRepoIds.size());
+	}
+
+	private ProductTimelines getOrLoadTimelines(@NonNull final ProductId productId)
+	{
+		return timelinesByProductId.computeIfAbsent(productId, this::loadTimelines);
+	}
+
+	private ProductTimelines loadTimelines(@NonNull final ProductId productId)
+	{
+		final ProductTimelines timelines = new ProductTimelines();
+
+		queryBL.createQueryBuilderOutOfTrx(I_MD_Candidate.class)
+				.addOnlyActiveRecordsFilter()
+				.addEqualsFilter(I_MD_Candidate.COLUMNNAME_M_Product_ID, productId)
+				.addEqualsFilter(I_MD_Candidate.COLUMNNAME_MD_Candidate_Type, X_MD_Candidate.MD_CANDIDATE_TYPE_STOCK)
+				.create()
+				.iterateAndStream()
+				.map(StockCandidate::ofRecordOrNull)
+				.filter(Objects::nonNull)
+				.forEach(stock -> {
+					timelines.put(stock);
+					productIdsByCandidateId.put(stock.getCandidateId(), productId);
+				});
+
+		logger.debug("Loaded {} stock candidates for {}", timelines.size(), productId);
+		return timelines;
+	}
+
+	@VisibleForTesting
+	int getLoadedStockCandidatesCount()
+	{
+		return timelinesByProductId.values().stream().mapToInt(ProductTimelines::size).sum();
+	}
+
+	private static boolean isMatching(@NonNull final AvailableToPromiseQuery query, @NonNull final StockKey key)
+	{
+		final Set<WarehouseId> warehouseIds = query.getWarehouseIds();
+		if (!warehouseIds.isEmpty() && !warehouseIds.contains(key.getWarehouseId()))
+		{
+			return false;
+		}
+
+		final BPartnerClassifier bpartner = query.getBpartner();
+		if (bpartner.isNone() && key.getCustomerId() != null)
+		{
+			return false;
+		}
+		if (bpartner.isSpecificBPartner() && key.getCustomerId() != null && !key.getCustomerId().equals(bpartner.getBpartnerId()))
+		{
+			return false;
+		}
+
+		final ImmutableList<AttributesKeyPattern> patterns = query.getStorageAttributesKeyPatterns();
+		if (patterns.isEmpty() || patterns.contains(AttributesKeyPattern.ALL) || patterns.contains(AttributesKeyPattern.OTHER))
+		{
+			return true;
+		}
+		return patterns.stream().anyMatch(pattern -> pattern.matches(key.getStorageAttributesKey()));
+	}
+
+	/**
+	 * The stock timelines of one product. All access is synchronized on the instance.
+	 */
+	private static final class ProductTimelines
+	{
+		private static final Comparator<StockCandidate> ORDER_BY_DATE_AND_SEQNO = Comparator
+				.comparing(StockCandidate::getDate)
+				.thenComparing(StockCandidate::getSeqNo)
+				.thenComparing(stock -> stock.getCandidateId().getRepoId());
+
+		private final HashMap<CandidateId, StockCandidate> stocksById = new HashMap<>();
+		private final HashMap<StockKey, TreeMap<StockCandidate, StockCandidate>> timelinesByKey = new HashMap<>();
+
+		public synchronized int size()
+		{
+			return stocksById.size();
+		}
+
+		public synchronized void put(@NonNull final StockCandidate stock)
+		{
+			remove(stock.getCandidateId());
+
+			stocksById.put(stock.getCandidateId(), stock);
+			timelinesByKey.computeIfAbsent(stock.getKey(), key -> new TreeMap<>(ORDER_BY_DATE_AND_SEQNO)).put(stock, stock);
+		}
+
+		public synchronized void remove(@NonNull final CandidateId candidateId)
+		{
+			final StockCandidate existingStock = stocksById.remove(candidateId);
+			if (existingStock == null)
+			{
+				return;
+			}
+
+			final TreeMap<StockCandidate, StockCandidate> timeline = timelinesByKey.get(existingStock.getKey());
+			if (timeline != null)
+			{
+				timeline.remove(existingStock);
+				if (timeline.isEmpty())
+				{
+					timelinesByKey.remove(existingStock.getKey());
+				}
+			}
+		}
+
+		public synchronized void forEachLatestStockAt(
+				@NonNull final Instant date,
+				@NonNull final Predicate<StockKey> keyFilter,
+				@NonNull final Consumer<StockCandidate> consumer)
+		{
+			for (final Map.Entry<StockKey, TreeMap<StockCandidate, StockCandidate>> entry : timelinesByKey.entrySet())
+			{
+				final StockKey key = entry.getKey();
+				if (!keyFilter.test(key))
+				{
+					continue;
+				}
+
+				final StockCandidate latestStock = entry.getValue().floorKey(StockCandidate.upperBoundForDate(key, date));
+				if (latestStock != null)
+				{
+					consumer.accept(latestStock);
+				}
+			}
+		}
+	}
+
+	@Value
+	private static class StockKey
+	{
+		@NonNull ProductId productId;
+		@NonNull WarehouseId warehouseId;
+		@Nullable BPartnerId customerId;
+		@NonNull AttributesKey storageAttributesKey;
+	}
+
+	@Value
+	@Builder
+	private static class StockCandidate
+	{
+		@NonNull CandidateId candidateId;
+		@NonNull StockKey key;
+		@NonNull Instant date;
+		int seqNo;
+		@NonNull BigDecimal qty;
+
+		@Nullable
+		static StockCandidate ofRecordOrNull(@NonNull final I_MD_Candidate record)
+		{
+			// same conditions as in the DB function de_metas_material.retrieve_atp_at_date
+			final String status = record.getMD_Candidate_Status();
+			if (!record.isActive()
+					|| !X_MD_Candidate.MD_CANDIDATE_TYPE_STOCK.equals(record.getMD_Candidate_Type())
+					|| status == null
+					|| X_MD_Candidate.MD_CANDIDATE_STATUS_Simulated.equals(status)
+					|| record.getDateProjected() == null
+					|| record.getM_Product_ID() <= 0
+					|| record.getM_Warehouse_ID() <= 0)
+			{
+				return null;
+			}
+
+			return builder()
+					.candidateId(CandidateId.ofRepoId(record.getMD_Candidate_ID()))
+					.key(new StockKey(
+							ProductId.ofRepoId(record.getM_Product_ID()),
+							WarehouseId.ofRepoId(record.getM_Warehouse_ID()),
+							BPartnerId.ofRepoIdOrNull(record.getC_BPartner_Customer_ID()),
+							AttributesKey.ofString(record.getStorageAttributesKey())))
+					.date(TimeUtil.asInstantNonNull(record.getDateProjected()))
+					.seqNo(record.getSeqNo())
+					.qty(record.getQty())
+					.build();
+		}
+
+		/**
+		 * @return a probe which sorts after every real stock candidate of the given date
+		 */
+		static StockCandidate upperBoundForDate(@NonNull final StockKey key, @NonNull final Instant date)
+		{
+			return builder()
+					.candidateId(CandidateId.ofRepoId(Integer.MAX_VALUE))
+					.key(key)
+					.date(date)
+					.seqNo(Integer.MAX_VALUE)
+					.qty(BigDecimal.ZERO)
+					.build();
+		}
+
+		AddToResultGroupRequest toAddToResultGroupRequest()
+		{
+			return AddToResultGroupRequest.builder()
+					.productId(key.getProductId())
+					.bpartner(BPartnerClassifier.specificOrAny(key.getCustomerId())) // records that have no bPartner-ID are applicable to any bpartner
+					.warehouseId(key.getWarehouseId())
+					.storageAttributesKey(key.getStorageAttributesKey())
+					.qty(qty)
+					.date(date)
+					.seqNo(seqNo)
+					.build();
+		}
+	}
+
+	@Value
+	private static class CandidateChange
+	{
+		@NonNull CandidateId candidateId;
+
+		/** null means that the candidate is not (or no longer) relevant for ATP */
+		@Nullable StockCandidate stockCandidate;
+
+		static CandidateChange saved(@NonNull final StockCandidate stockCandidate)
+		{
+			return new CandidateChange(stockCandidate.getCandidateId(), stockCandidate);
+		}
+
+		static CandidateChange deleted(@NonNull final CandidateId candidateId)
+		{
+			return new CandidateChange(candidateId, null);
+		}
+	}
+}
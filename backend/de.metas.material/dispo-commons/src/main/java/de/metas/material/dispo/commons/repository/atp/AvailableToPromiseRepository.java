@@ -2,7 +2,9 @@ package de.metas.material.dispo.commons.repository.atp;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
 import de.metas.bpartner.BPartnerId;
+import de.metas.logging.LogManager;
 import de.metas.material.commons.attributes.AttributesKeyPattern;
 import de.metas.material.commons.attributes.AttributesKeyPatternsUtil;
 import de.metas.material.commons.attributes.clasifiers.BPartnerClassifier;
@@ -16,12 +18,17 @@ import org.adempiere.warehouse.WarehouseId;
 import org.compiere.model.IQuery;
 import org.compiere.util.Env;
 import org.compiere.util.TimeUtil;
+import org.compiere.util.Util.ArrayKey;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Nullable;
 import java.math.BigDecimal;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Function;
@@ -51,8 +58,24 @@ import java.util.function.Function;
 @Service
 public class AvailableToPromiseRepository
 {
+	private static final Logger logger = LogManager.getLogger(AvailableToPromiseRepository.class);
+
 	private static final String SYSCONFIG_AVAILABILITY_INFO_ATTRIBUTES_KEYS = "de.metas.ui.web.window.descriptor.sql.ProductLookupDescriptor.AvailabilityInfo.AttributesKeys";
 
+	private final AvailableToPromiseIndex availableToPromiseIndex;
+
+	@Autowired
+	public AvailableToPromiseRepository(@NonNull final AvailableToPromiseIndex availableToPromiseIndex)
+	{
+		this.availableToPromiseIndex = availableToPromiseIndex;
+	}
+
+	@VisibleForTesting
+	public AvailableToPromiseRepository()
+	{
+		this(new AvailableToPromiseIndex());
+	}
+
 	@NonNull
 	public BigDecimal retrieveAvailableStockQtySum(@NonNull final AvailableToPromiseMultiQuery multiQuery)
 	{
@@ -70,37 +93,63 @@ public class AvailableToPromiseRepository
 	@NonNull
 	public AvailableToPromiseResult retrieveAvailableStock(@NonNull final AvailableToPromiseMultiQuery multiQuery)
 	{
-		final boolean addToPredefinedBuckets = multiQuery.isAddToPredefinedBuckets();
-		final AvailableToPromiseResultBuilder result = addToPredefinedBuckets
-				? AvailableToPromiseResultBuilder.createEmptyWithPredefinedBuckets(multiQuery)
-				: AvailableToPromiseResultBuilder.createEmpty();
+		if (availableToPromiseIndex.isEnabled())
+		{
+			return retrieveAvailableStockFromIndex(multiQuery);
+		}
+		else
+		{
+			return retrieveAvailableStockFromDB(multiQuery);
+		}
+	}
+
+	@VisibleForTesting
+	AvailableToPromiseResult retrieveAvailableStockFromIndex(@NonNull final AvailableToPromiseMultiQuery multiQuery)
+	{
+		return createResult(multiQuery, availableToPromiseIndex.retrieveMatchingRecords(multiQuery));
+	}
 
+	@VisibleForTesting
+	AvailableToPromiseResult retrieveAvailableStockFromDB(@NonNull final AvailableToPromiseMultiQuery multiQuery)
+	{
 		final IQuery<I_MD_Candidate_ATP_QueryResult> dbQuery = createDBQueryForMaterialQueryOrNull(multiQuery);
 		if (dbQuery == null)
 		{
-			return result.build();
+			return createResult(multiQuery, ImmutableList.of());
 		}
 
-		final Function<I_MD_Candidate_ATP_QueryResult, Boolean> compareByWhetherRecordHasBPartnerId = record -> record.getC_BPartner_Customer_ID() > 0;
+		// note: this is a dedicated step in order to ease debugging (i.e. have a chance to take a look at the atpRecords)
+		final ImmutableList<AddToResultGroupRequest> requests = dbQuery.list()
+				.stream()
+				.map(AvailableToPromiseRepository::createAddToResultGroupRequest)
+				.collect(ImmutableList.toImmutableList());
+
+		return createResult(multiQuery, requests);
+	}
+
+	private static AvailableToPromiseResult createResult(
+			@NonNull final AvailableToPromiseMultiQuery multiQuery,
+			@NonNull final List<AddToResultGroupRequest> unsortedRequests)
+	{
+		final boolean addToPredefinedBuckets = multiQuery.isAddToPredefinedBuckets();
+		final AvailableToPromiseResultBuilder result = addToPredefinedBuckets
+				? AvailableToPromiseResultBuilder.createEmptyWithPredefinedBuckets(multiQuery)
+				: AvailableToPromiseResultBuilder.createEmpty();
+
+		final Function<AddToResultGroupRequest, Boolean> compareByWhetherRecordHasBPartnerId = request -> request.getBpartner().isSpecificBPartner();
 
-		final List<I_MD_Candidate_ATP_QueryResult> atpRecords = dbQuery.list()
+		final List<AddToResultGroupRequest> requests = unsortedRequests
 				.stream()
 				// records with dedicated bPartnerId first
 				// latest date first
 				// biggest seqNo first
 				.sorted(Comparator
 						.comparing(compareByWhetherRecordHasBPartnerId)
-						.thenComparing(I_MD_Candidate_ATP_QueryResult::getDateProjected)
-						.thenComparing(I_MD_Candidate_ATP_QueryResult::getSeqNo) // if dateProjected is equal, then SeqNo makes the difference
+						.thenComparing(AddToResultGroupRequest::getDate)
+						.thenComparing(AddToResultGroupRequest::getSeqNo) // if dateProjected is equal, then SeqNo makes the difference
 						.reversed())
 				.collect(ImmutableList.toImmutableList());
 
-		// note: this is a dedicated step in order to ease debugging (i.e. have a chance to take a look at the atpRecords)
-		final ImmutableList<AddToResultGroupRequest> requests = atpRecords
-				.stream()
-				.map(AvailableToPromiseRepository::createAddToResultGroupRequest)
-				.collect(ImmutableList.toImmutableList());
-
 		for (final AddToResultGroupRequest request : requests)
 		{
 			if (addToPredefinedBuckets)
@@ -116,6 +165,47 @@ public class AvailableToPromiseRepository
 		return result.build();
 	}
 
+	/**
+	 * Runs the given query against both the in-memory index and the database and compares the results.
+	 * Meant to be used to verify the index before enabling it and from time to time after that.
+	 *
+	 * @return the differences, as human readable strings; empty if the results are the same.
+	 */
+	public ImmutableList<String> checkIndexConsistency(@NonNull final AvailableToPromiseMultiQuery multiQuery)
+	{
+		final Map<ArrayKey, BigDecimal> dbQtys = toQtysByGroupKey(retrieveAvailableStockFromDB(multiQuery));
+		final Map<ArrayKey, BigDecimal> indexQtys = toQtysByGroupKey(retrieveAvailableStockFromIndex(multiQuery));
+
+		final ImmutableList.Builder<String> differences = ImmutableList.builder();
+		for (final ArrayKey groupKey : Sets.union(dbQtys.keySet(), indexQtys.keySet()))
+		{
+			final BigDecimal dbQty = dbQtys.get(groupKey);
+			final BigDecimal indexQty = indexQtys.get(groupKey);
+			if (dbQty == null || indexQty == null || dbQty.compareTo(indexQty) != 0)
+			{
+				differences.add(groupKey + ": DB=" + dbQty + ", index=" + indexQty);
+			}
+		}
+
+		final ImmutableList<String> result = differences.build();
+		if (!result.isEmpty())
+		{
+			logger.warn("ATP index is not consistent with the database for {}: {}", multiQuery, result);
+		}
+		return result;
+	}
+
+	private static Map<ArrayKey, BigDecimal> toQtysByGroupKey(@NonNull final AvailableToPromiseResult result)
+	{
+		final HashMap<ArrayKey, BigDecimal> qtysByGroupKey = new HashMap<>();
+		for (final AvailableToPromiseResultGroup group : result.getResultGroups())
+		{
+			final ArrayKey groupKey = ArrayKey.of(group.getProductId(), group.getWarehouse(), group.getBpartner(), group.getStorageAttributesKey());
+			qtysByGroupKey.merge(groupKey, group.getQty(), BigDecimal::add);
+		}
+		return qtysByGroupKey;
+	}
+
 	public AvailableToPromiseResult retrieveAvailableStock(@NonNull final AvailableToPromiseQuery query)
 	{
 		return retrieveAvailableStock(AvailableToPromiseMultiQuery.of(query));
@@ -0,0 +1,271 @@
+/*
+ * #%L
+ * metasfresh-material-dispo-commons
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.material.dispo.commons.repository.atp;
+
+import com.google.common.collect.ImmutableList;
+import de.metas.material.commons.attributes.AttributesKeyPattern;
+import de.metas.material.commons.attributes.clasifiers.BPartnerClassifier;
+import de.metas.material.dispo.model.I_MD_Candidate;
+import de.metas.material.dispo.model.X_MD_Candidate;
+import de.metas.material.event.commons.AttributesKey;
+import de.metas.organization.OrgId;
+import de.metas.product.ProductId;
+import de.metas.util.Check;
+import de.metas.util.Services;
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.dao.IQueryBuilder;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.warehouse.WarehouseId;
+import org.compiere.Adempiere.RunMode;
+import org.compiere.model.I_M_Product;
+import org.compiere.model.I_M_Warehouse;
+import org.compiere.util.Env;
+import org.compiere.util.TimeUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link AvailableToPromiseRepository#retrieveAvailableStock(AvailableToPromiseMultiQuery)} for single products,
+ * once answered by the {@code MD_Candidate_ATP_QueryResult} database query and once by the {@link AvailableToPromiseIndex}.
+ * <p>
+ * The data set consists of {@value #CANDIDATES_COUNT} stock candidates, spread over {@value #PRODUCTS_COUNT} products and {@value #ATTRIBUTES_KEYS_COUNT} storage attributes keys each.
+ * They are created the first time and marked with {@code UserElementString1=}{@value #MARKER}, so that later runs can reuse them; {@link #main(String[])} deletes them at the end.
+ * The index is completely loaded before measuring, so that the loading is not part of the results.
+ * <p>
+ * Needs a database; the {@code PropertyFile} system property can be used to point to its connection settings.
+ * <p>
+ * Not a unit test; run it using {@link #main(String[])}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AvailableToPromiseBenchmark
+{
+	private static final int CANDIDATES_COUNT = 1_000_000;
+	private static final int PRODUCTS_COUNT = 1_000;
+	private static final int ATTRIBUTES_KEYS_COUNT = 10;
+	private static final String MARKER = "AvailableToPromiseBenchmark";
+
+	private static final int SAVE_CHUNK_SIZE = 10_000;
+
+	public enum ATPSource
+	{
+		DATABASE,
+		INDEX,
+	}
+
+	@Param
+	public ATPSource atpSource;
+
+	private AvailableToPromiseIndex index;
+	private AvailableToPromiseRepository availableToPromiseRepository;
+	private ImmutableList<ProductId> productIds;
+
+	@Setup
+	public void setup()
+	{
+		setupAdempiere();
+
+		productIds = retrieveProductIds();
+		createCandidatesIfMissing();
+
+		Services.get(ISysConfigBL.class).setValue(AvailableToPromiseIndex.SYSCONFIG_Enabled, true, ClientId.SYSTEM, OrgId.ANY);
+		index = new AvailableToPromiseIndex();
+		availableToPromiseRepository = new AvailableToPromiseRepository(index);
+
+		// load the whole index and make sure that both sources are giving the same results
+		for (final ProductId productId : productIds)
+		{
+			final ImmutableList<String> differences = availableToPromiseRepository.checkIndexConsistency(createMultiQuery(productId));
+			if (!differences.isEmpty())
+			{
+				throw new AdempiereException("Index is not consistent with the database for " + productId + ": " + differences);
+			}
+		}
+		System.out.println("Loaded " + index.getLoadedStockCandidatesCount() + " stock candidates into the index");
+	}
+
+	private static void setupAdempiere()
+	{
+		//
+		// Use hardcoded default PropertyFile if none found
+		if (Check.isEmpty(System.getProperty("PropertyFile"), true))
+		{
+			final String propertyFile =
+					new File(".").getAbsolutePath() // e.g. C:\workspaces\de.metas.material\dispo-commons\
+							+ File.separator + ".." + File.separator + ".." // e.g. C:\workspaces\
+							+ File.separator + "de.metas.endcustomer."
+							+ File.separator + "Adempiere.properties_" + System.getProperty("user.name");
+			System.out.println("Set default PropertyFile=" + propertyFile);
+			System.setProperty("PropertyFile", propertyFile);
+		}
+
+		Env.getSingleAdempiereInstance(null).startup(RunMode.SWING_CLIENT);
+	}
+
+	private static ImmutableList<ProductId> retrieveProductIds()
+	{
+		final ImmutableList<ProductId> productIds = ImmutableList.copyOf(Services.get(IQueryBL.class)
+				.createQueryBuilder(I_M_Product.class)
+				.addOnlyActiveRecordsFilter()
+				.addEqualsFilter(I_M_Product.COLUMNNAME_IsStocked, true)
+				.orderBy(I_M_Product.COLUMNNAME_M_Product_ID)
+				.setLimit(PRODUCTS_COUNT)
+				.create()
+				.listIds(ProductId::ofRepoId));
+		if (productIds.size() < PRODUCTS_COUNT)
+		{
+			throw new AdempiereException("Expected " + PRODUCTS_COUNT + " stocked products but found only " + productIds.size());
+		}
+		return productIds;
+	}
+
+	private void createCandidatesIfMissing()
+	{
+		final int existingCount = createMarkedCandidatesQueryBuilder().create().count();
+		if (existingCount == CANDIDATES_COUNT)
+		{
+			System.out.println("Reusing the " + existingCount + " existing benchmark candidates");
+			return;
+		}
+		deleteCandidates();
+
+		final WarehouseId warehouseId = Services.get(IQueryBL.class)
+				.createQueryBuilder(I_M_Warehouse.class)
+				.addOnlyActiveRecordsFilter()
+				.orderBy(I_M_Warehouse.COLUMNNAME_M_Warehouse_ID)
+				.create()
+				.firstId(WarehouseId::ofRepoIdOrNull);
+		Check.assumeNotNull(warehouseId, "Active warehouse exists");
+
+		// spread each product's candidates over the last year
+		final Instant now = Instant.now();
+		final int candidatesPerProduct = CANDIDATES_COUNT / PRODUCTS_COUNT;
+		final long secondsBetweenCandidates = Duration.ofDays(365).getSeconds() / candidatesPerProduct;
+
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final ArrayList<I_MD_Candidate> chunk = new ArrayList<>(SAVE_CHUNK_SIZE);
+		int seqNo = 1;
+		for (final ProductId productId : productIds)
+		{
+			for (int i = 0; i < candidatesPerProduct; i++)
+			{
+				final I_MD_Candidate candidateRecord = InterfaceWrapperHelper.newInstance(I_MD_Candidate.class);
+				candidateRecord.setMD_Candidate_Type(X_MD_Candidate.MD_CANDIDATE_TYPE_STOCK);
+				candidateRecord.setMD_Candidate_Status(X_MD_Candidate.MD_CANDIDATE_STATUS_Doc_completed);
+				candidateRecord.setM_Product_ID(productId.getRepoId());
+				candidateRecord.setM_Warehouse_ID(warehouseId.getRepoId());
+				candidateRecord.setStorageAttributesKey(AttributesKey.ofAttributeValueIds(1 + i % ATTRIBUTES_KEYS_COUNT).getAsString());
+				candidateRecord.setDateProjected(TimeUtil.asTimestamp(now.minusSeconds((candidatesPerProduct - i) * secondsBetweenCandidates)));
+				candidateRecord.setSeqNo(seqNo++);
+				candidateRecord.setQty(BigDecimal.valueOf(i));
+				candidateRecord.setUserElementString1(MARKER);
+				chunk.add(candidateRecord);
+
+				if (chunk.size() >= SAVE_CHUNK_SIZE)
+				{
+					trxManager.runInNewTrx(() -> InterfaceWrapperHelper.saveAll(chunk));
+					chunk.clear();
+				}
+			}
+		}
+		trxManager.runInNewTrx(() -> InterfaceWrapperHelper.saveAll(chunk));
+		System.out.println("Created " + CANDIDATES_COUNT + " benchmark candidates");
+	}
+
+	private static IQueryBuilder<I_MD_Candidate> createMarkedCandidatesQueryBuilder()
+	{
+		return Services.get(IQueryBL.class)
+				.createQueryBuilder(I_MD_Candidate.class)
+				.addEqualsFilter(I_MD_Candidate.COLUMNNAME_UserElementString1, MARKER);
+	}
+
+	private static void deleteCandidates()
+	{
+		final int deletedCount = createMarkedCandidatesQueryBuilder().create().deleteDirectly();
+		System.out.println("Deleted " + deletedCount + " benchmark candidates");
+	}
+
+	private static AvailableToPromiseMultiQuery createMultiQuery(final ProductId productId)
+	{
+		return AvailableToPromiseMultiQuery.of(AvailableToPromiseQuery.builder()
+				.productId(productId.getRepoId())
+				.bpartner(BPartnerClassifier.any())
+				.storageAttributesKeyPattern(AttributesKeyPattern.ALL)
+				.build());
+	}
+
+	@Benchmark
+	public AvailableToPromiseResult retrieveAvailableStock()
+	{
+		final ProductId productId = productIds.get(ThreadLocalRandom.current().nextInt(productIds.size()));
+		final AvailableToPromiseMultiQuery multiQuery = createMultiQuery(productId);
+
+		return atpSource == ATPSource.INDEX
+				? availableToPromiseRepository.retrieveAvailableStockFromIndex(multiQuery)
+				: availableToPromiseRepository.retrieveAvailableStockFromDB(multiQuery);
+	}
+
+	public static void main(final String[] args) throws RunnerException
+	{
+		try
+		{
+			new Runner(new OptionsBuilder()
+					.include(AvailableToPromiseBenchmark.class.getSimpleName())
+					.build())
+					.run();
+		}
+		finally
+		{
+			setupAdempiere();
+			deleteCandidates();
+		}
+	}
+}
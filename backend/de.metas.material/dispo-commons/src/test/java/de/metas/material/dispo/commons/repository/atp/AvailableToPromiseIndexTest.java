@@ -0,0 +1,215 @@
+package de.metas.material.dispo.commons.repository.atp;
+
+import de.metas.bpartner.BPartnerId;
+import de.metas.event.IEventBusFactory;
+import de.metas.event.impl.PlainEventBusFactory;
+import de.metas.material.commons.attributes.AttributesKeyPattern;
+import de.metas.material.commons.attributes.AttributesKeyPatternsUtil;
+import de.metas.material.commons.attributes.clasifiers.BPartnerClassifier;
+import de.metas.material.dispo.model.I_MD_Candidate;
+import de.metas.material.dispo.model.I_MD_Candidate_ATP_QueryResult;
+import de.metas.material.dispo.model.X_MD_Candidate;
+import de.metas.material.event.commons.AttributesKey;
+import de.metas.organization.OrgId;
+import de.metas.util.Services;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.SpringContextHolder;
+import org.compiere.util.TimeUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static de.metas.material.event.EventTestHelper.AFTER_NOW;
+import static de.metas.material.event.EventTestHelper.BEFORE_BEFORE_NOW;
+import static de.metas.material.event.EventTestHelper.BEFORE_NOW;
+import static de.metas.material.event.EventTestHelper.PRODUCT_ID;
+import static de.metas.material.event.EventTestHelper.WAREHOUSE_ID;
+import static org.adempiere.model.InterfaceWrapperHelper.delete;
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.save;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * #%L
+ * metasfresh-material-dispo-commons
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+class AvailableToPromiseIndexTest
+{
+	private static final BPartnerId BPARTNER_ID_1 = BPartnerId.ofRepoId(10);
+	private static final BPartnerId BPARTNER_ID_2 = BPartnerId.ofRepoId(20);
+	private static final AttributesKey STORAGE_ATTRIBUTES_KEY = AttributesKey.ofAttributeValueIds(1, 2);
+
+	private AvailableToPromiseIndex index;
+	private AvailableToPromiseRepository availableToPromiseRepository;
+	private int seqNoCounter = 1;
+
+	@BeforeEach
+	void init()
+	{
+		AdempiereTestHelper.get().init();
+		SpringContextHolder.registerJUnitBean(IEventBusFactory.class, PlainEventBusFactory.newInstance()); // needed for the MD_Candidate remote cache invalidation
+		Services.get(ISysConfigBL.class).setValue(AvailableToPromiseIndex.SYSCONFIG_Enabled, true, ClientId.SYSTEM, OrgId.ANY);
+
+		index = new AvailableToPromiseIndex();
+		availableToPromiseRepository = new AvailableToPromiseRepository(index);
+	}
+
+	@Test
+	void indexIsConsistentWithDB()
+	{
+		createStockRecord(null, STORAGE_ATTRIBUTES_KEY, BEFORE_NOW, "10");
+		createStockRecord(BPARTNER_ID_1, STORAGE_ATTRIBUTES_KEY, BEFORE_BEFORE_NOW, "20");
+		createStockRecord(BPARTNER_ID_2, STORAGE_ATTRIBUTES_KEY, BEFORE_NOW, "30");
+		createStockRecord(null, AttributesKey.NONE, BEFORE_NOW, "40");
+
+		for (final boolean addToPredefinedBuckets : new boolean[] { true, false })
+		{
+			final AvailableToPromiseMultiQuery multiQuery = AvailableToPromiseMultiQuery.builder()
+					.addToPredefinedBuckets(addToPredefinedBuckets)
+					.query(query(BPartnerClassifier.specific(BPARTNER_ID_1), AttributesKeyPatternsUtil.ofAttributeKey(STORAGE_ATTRIBUTES_KEY)))
+					.query(query(BPartnerClassifier.specific(BPARTNER_ID_2), AttributesKeyPattern.ALL))
+					.query(query(BPartnerClassifier.none(), AttributesKeyPattern.ALL))
+					.build();
+
+			assertThat(availableToPromiseRepository.checkIndexConsistency(multiQuery)).isEmpty();
+		}
+	}
+
+	@Test
+	void latestStockCandidateAtQueryDateWins()
+	{
+		createStockCandidate(null, STORAGE_ATTRIBUTES_KEY, BEFORE_BEFORE_NOW, "10", X_MD_Candidate.MD_CANDIDATE_STATUS_Doc_completed);
+		createStockCandidate(null, STORAGE_ATTRIBUTES_KEY, BEFORE_NOW, "15", X_MD_Candidate.MD_CANDIDATE_STATUS_Doc_completed);
+		createStockCandidate(null, STORAGE_ATTRIBUTES_KEY, AFTER_NOW, "99", X_MD_Candidate.MD_CANDIDATE_STATUS_Doc_completed);
+
+		final AvailableToPromiseQuery query = query(BPartnerClassifier.none(), AttributesKeyPattern.ALL);
+		assertThat(availableToPromiseRepository.retrieveAvailableStockQtySum(query)).isEqualByComparingTo("15");
+		assertThat(availableToPromiseRepository.retrieveAvailableStockQtySum(query.withDateTime(TimeUtil.asZonedDateTime(BEFORE_BEFORE_NOW)))).isEqualByComparingTo("10");
+	}
+
+	@Test
+	void simulatedCandidatesAreIgnored()
+	{
+		createStockCandidate(null, STORAGE_ATTRIBUTES_KEY, BEFORE_BEFORE_NOW, "10", X_MD_Candidate.MD_CANDIDATE_STATUS_Doc_completed);
+		createStockCandidate(null, STORAGE_ATTRIBUTES_KEY, BEFORE_NOW, "50", X_MD_Candidate.MD_CANDIDATE_STATUS_Simulated);
+
+		assertThat(availableToPromiseRepository.retrieveAvailableStockQtySum(query(BPartnerClassifier.none(), AttributesKeyPattern.ALL))).isEqualByComparingTo("10");
+	}
+
+	@Test
+	void indexIsUpdatedIncrementally()
+	{
+		createStockCandidate(null, STORAGE_ATTRIBUTES_KEY, BEFORE_BEFORE_NOW, "10", X_MD_Candidate.MD_CANDIDATE_STATUS_Doc_completed);
+
+		final AvailableToPromiseQuery query = query(BPartnerClassifier.none(), AttributesKeyPattern.ALL);
+		assertThat(availableToPromiseRepository.retrieveAvailableStockQtySum(query)).isEqualByComparingTo("10");
+		assertThat(index.getLoadedStockCandidatesCount()).isEqualTo(1);
+
+		final I_MD_Candidate newerCandidate = createStockCandidate(null, STORAGE_ATTRIBUTES_KEY, BEFORE_NOW, "25", X_MD_Candidate.MD_CANDIDATE_STATUS_Doc_completed);
+		index.onCandidateSaved(newerCandidate);
+		assertThat(availableToPromiseRepository.retrieveAvailableStockQtySum(query)).isEqualByComparingTo("25");
+
+		newerCandidate.setQty(new BigDecimal("30"));
+		save(newerCandidate);
+		index.onCandidateSaved(newerCandidate);
+		assertThat(availableToPromiseRepository.retrieveAvailableStockQtySum(query)).isEqualByComparingTo("30");
+		assertThat(index.getLoadedStockCandidatesCount()).isEqualTo(2);
+
+		delete(newerCandidate);
+		index.onCandidateDeleted(newerCandidate);
+		assertThat(availableToPromiseRepository.retrieveAvailableStockQtySum(query)).isEqualByComparingTo("10");
+		assertThat(index.getLoadedStockCandidatesCount()).isEqualTo(1);
+	}
+
+	@Test
+	void candidateMovedToAnotherProduct()
+	{
+		final I_MD_Candidate candidate = createStockCandidate(null, STORAGE_ATTRIBUTES_KEY, BEFORE_NOW, "10", X_MD_Candidate.MD_CANDIDATE_STATUS_Doc_completed);
+
+		final AvailableToPromiseQuery query = query(BPartnerClassifier.none(), AttributesKeyPattern.ALL);
+		assertThat(availableToPromiseRepository.retrieveAvailableStockQtySum(query)).isEqualByComparingTo("10");
+
+		candidate.setM_Product_ID(PRODUCT_ID + 1);
+		save(candidate);
+		index.onCandidateSaved(candidate);
+
+		assertThat(availableToPromiseRepository.retrieveAvailableStockQtySum(query)).isEqualByComparingTo("0");
+		assertThat(index.getLoadedStockCandidatesCount()).isZero();
+	}
+
+	private static AvailableToPromiseQuery query(final BPartnerClassifier bpartner, final AttributesKeyPattern storageAttributesKeyPattern)
+	{
+		return AvailableToPromiseQuery.builder()
+				.productId(PRODUCT_ID)
+				.bpartner(bpartner)
+				.storageAttributesKeyPattern(storageAttributesKeyPattern)
+				.build();
+	}
+
+	/**
+	 * Creates a stock candidate and the matching ATP query result record, which is what the DB function would return for it.
+	 */
+	private void createStockRecord(
+			@Nullable final BPartnerId bpartnerId,
+			final AttributesKey storageAttributesKey,
+			final Instant dateProjected,
+			final String qty)
+	{
+		final I_MD_Candidate candidateRecord = createStockCandidate(bpartnerId, storageAttributesKey, dateProjected, qty, X_MD_Candidate.MD_CANDIDATE_STATUS_Doc_completed);
+
+		final I_MD_Candidate_ATP_QueryResult viewRecord = newInstance(I_MD_Candidate_ATP_QueryResult.class);
+		viewRecord.setM_Product_ID(candidateRecord.getM_Product_ID());
+		viewRecord.setM_Warehouse_ID(candidateRecord.getM_Warehouse_ID());
+		viewRecord.setC_BPartner_Customer_ID(candidateRecord.getC_BPartner_Customer_ID());
+		viewRecord.setDateProjected(candidateRecord.getDateProjected());
+		viewRecord.setStorageAttributesKey(candidateRecord.getStorageAttributesKey());
+		viewRecord.setQty(candidateRecord.getQty());
+		viewRecord.setSeqNo(candidateRecord.getSeqNo());
+		save(viewRecord);
+	}
+
+	private I_MD_Candidate createStockCandidate(
+			@Nullable final BPartnerId bpartnerId,
+			final AttributesKey storageAttributesKey,
+			final Instant dateProjected,
+			final String qty,
+			final String status)
+	{
+		final I_MD_Candidate candidateRecord = newInstance(I_MD_Candidate.class);
+		candidateRecord.setMD_Candidate_Type(X_MD_Candidate.MD_CANDIDATE_TYPE_STOCK);
+		candidateRecord.setMD_Candidate_Status(status);
+		candidateRecord.setIsActive(true);
+		candidateRecord.setM_Product_ID(PRODUCT_ID);
+		candidateRecord.setM_Warehouse_ID(WAREHOUSE_ID.getRepoId());
+		candidateRecord.setC_BPartner_Customer_ID(BPartnerId.toRepoId(bpartnerId));
+		candidateRecord.setStorageAttributesKey(storageAttributesKey.getAsString());
+		candidateRecord.setDateProjected(TimeUtil.asTimestamp(dateProjected));
+		candidateRecord.setSeqNo(seqNoCounter++);
+		candidateRecord.setQty(new BigDecimal(qty));
+		save(candidateRecord);
+		return candidateRecord;
+	}
+}
@@ -161,6 +161,7 @@ public class StockCandidateService
 		candidateRecord.setQty(candidateToUpdate.getQuantity());
 		candidateRecord.setDateProjected(TimeUtil.asTimestamp(candidateToUpdate.getDate()));
 		save(candidateRecord);
+		candidateRepositoryWriteService.notifyCandidateRecordSaved(candidateRecord);
 
 		return SaveResult.builder()
 				.candidate(candidateToUpdate)
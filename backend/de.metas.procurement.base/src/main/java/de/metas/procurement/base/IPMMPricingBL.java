@@ -1,7 +1,10 @@
 package de.metas.procurement.base;
 
 import de.metas.contracts.model.I_C_Flatrate_Term;
+import de.metas.pricing.IPricingContext;
+import de.metas.pricing.IPricingResult;
 import de.metas.pricing.rules.IPricingRule;
+import de.metas.pricing.service.IPricingBL;
 import de.metas.util.ISingletonService;
 
 /*
@@ -42,6 +45,19 @@ public interface IPMMPricingBL extends ISingletonService
 	 */
 	void updatePricing(IPMMPricingAware pricingAware);
 
+	/**
+	 * Creates the context to calculate the given {@code pricingAware}'s price with the pricing engine.
+	 * Together with {@link #updatePricing(IPMMPricingAware, IPricingResult)}, this allows to calculate the prices of many instances in one go, see {@link IPricingBL#calculatePrices(java.util.List)}.
+	 */
+	IPricingContext createPricingContext(IPMMPricingAware pricingAware);
+
+	/**
+	 * Same as {@link #updatePricing(IPMMPricingAware)}, but with an already calculated pricing result.
+	 *
+	 * @param pricingResult the pricing engine's result for the context that was created by {@link #createPricingContext(IPMMPricingAware)}
+	 */
+	void updatePricing(IPMMPricingAware pricingAware, IPricingResult pricingResult);
+
 	/**
 	 * Assume that the given {@code pricingAware} instance has a {@link I_C_Flatrate_Term} (fail if it hasn't!) and take the pricing from that term.
 	 * Unlike {@link #updatePricing(IPMMPricingAware)}, this method can be called from an actual {@link IPricingRule}, after it was made sure that the given {@code pricingAware} instance qualifies.
@@ -11,6 +11,7 @@ import de.metas.logging.LogManager;
 import de.metas.money.CurrencyId;
 import de.metas.money.Money;
 import de.metas.pricing.IEditablePricingContext;
+import de.metas.pricing.IPricingContext;
 import de.metas.pricing.IPricingResult;
 import de.metas.pricing.PriceListId;
 import de.metas.pricing.PricingSystemId;
@@ -23,7 +24,6 @@ import de.metas.product.ProductId;
 import de.metas.product.ProductPrice;
 import de.metas.uom.IUOMConversionBL;
 import de.metas.uom.UomId;
-import de.metas.util.Check;
 import de.metas.util.Services;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
@@ -72,6 +72,14 @@ public class PMMPricingBL implements IPMMPricingBL
 
 	@Override
 	public void updatePricing(final IPMMPricingAware pricingAware)
+	{
+		final IPricingContext pricingCtx = createPricingContext(pricingAware);
+		final IPricingResult pricingResult = pricingBL.calculatePrice(pricingCtx);
+		updatePricing(pricingAware, pricingResult);
+	}
+
+	@Override
+	public IPricingContext createPricingContext(final IPMMPricingAware pricingAware)
 	{
 		// Get BPartner
 		final I_C_BPartner bpartner = pricingAware.getC_BPartner();
@@ -92,27 +100,8 @@ public class PMMPricingBL implements IPMMPricingBL
 			throw new AdempiereException("@Missing@ @" + I_PMM_QtyReport_Event.COLUMNNAME_C_UOM_ID + "@");
 		}
 
-		// Always get the pricing from masterdata.
-		// We need it to be there, e.g. to know if the price is incl VAT and which VAT category to use.
-		updatePriceFromPricingMasterdata(pricingAware);
-
-		//
-		// contract product: override the price amount and currency from the contract, if one is set there
-		if (pricingAware.isContractedProduct())
-		{
-			updatePriceFromContract(pricingAware);
-		}
-	}
-
-	private void updatePriceFromPricingMasterdata(final IPMMPricingAware pricingAware)
-	{
 		final SOTrx soTrx = SOTrx.PURCHASE;
-
-		final I_C_BPartner bpartner = pricingAware.getC_BPartner();
-		Check.assumeNotNull(bpartner, "bpartner not null"); // shall not happen
 		final BPartnerId bpartnerId = BPartnerId.ofRepoId(bpartner.getC_BPartner_ID());
-		final I_M_Product product = pricingAware.getM_Product();
-		final I_C_UOM uom = pricingAware.getC_UOM();
 		final LocalDate date = TimeUtil.asLocalDate(pricingAware.getDate());
 
 		// Pricing system
@@ -134,8 +123,6 @@ public class PMMPricingBL implements IPMMPricingBL
 		}
 		final CountryId countryId = CountryId.ofRepoId(shipToLocations.get(0).getC_Location().getC_Country_ID());
 
-		//
-		// Fetch price from pricing engine
 		final BigDecimal qty = pricingAware.getQty();
 		final IEditablePricingContext pricingCtx = pricingBL.createInitialContext(
 				product.getAD_Org_ID(),
@@ -149,7 +136,26 @@ public class PMMPricingBL implements IPMMPricingBL
 		pricingCtx.setCountryId(countryId);
 		pricingCtx.setReferencedObject(pricingAware.getWrappedModel()); // important for ASI pricing
 
-		final IPricingResult pricingResult = pricingBL.calculatePrice(pricingCtx);
+		return pricingCtx;
+	}
+
+	@Override
+	public void updatePricing(final IPMMPricingAware pricingAware, final IPricingResult pricingResult)
+	{
+		// Always get the pricing from masterdata.
+		// We need it to be there, e.g. to know if the price is incl VAT and which VAT category to use.
+		updatePriceFromPricingMasterdata(pricingAware, pricingResult);
+
+		//
+		// contract product: override the price amount and currency from the contract, if one is set there
+		if (pricingAware.isContractedProduct())
+		{
+			updatePriceFromContract(pricingAware);
+		}
+	}
+
+	private void updatePriceFromPricingMasterdata(final IPMMPricingAware pricingAware, final IPricingResult pricingResult)
+	{
 		if (!pricingResult.isCalculated())
 		{
 			throw new AdempiereException("@Missing@ @" + I_M_ProductPrice.COLUMNNAME_M_ProductPrice_ID + "@: " + pricingResult);
@@ -0,0 +1,134 @@
+package de.metas.procurement.base.order.process;
+
+import de.metas.logging.LogManager;
+import de.metas.pricing.IPricingContext;
+import de.metas.pricing.IPricingResult;
+import de.metas.pricing.service.IPricingBL;
+import de.metas.procurement.base.IPMMPricingAware;
+import de.metas.procurement.base.IPMMPricingBL;
+import de.metas.procurement.base.model.I_PMM_PurchaseCandidate;
+import de.metas.procurement.base.order.IPMMPurchaseCandidateBL;
+import de.metas.util.Services;
+import lombok.Getter;
+import lombok.NonNull;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/*
+ * #%L
+ * de.metas.procurement.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Updates the prices of given purchase candidates and saves them. The prices of all given candidates are calculated in one go (see {@link IPricingBL#calculatePrices(List)}).
+ * <p>
+ * Errors are isolated per candidate: a candidate which can't be priced is passed to the error handler and the other candidates are priced anyway.
+ * If the prices can't be calculated in one go, the candidates are priced again one by one.
+ */
+final class PMMPurchaseCandidatesPricingUpdater
+{
+	private static final Logger logger = LogManager.getLogger(PMMPurchaseCandidatesPricingUpdater.class);
+
+	private final IPMMPurchaseCandidateBL pmmPurchaseCandidateBL = Services.get(IPMMPurchaseCandidateBL.class);
+	private final IPMMPricingBL pmmPricingBL = Services.get(IPMMPricingBL.class);
+	private final IPricingBL pricingBL = Services.get(IPricingBL.class);
+
+	private final BiConsumer<I_PMM_PurchaseCandidate, Exception> errorHandler;
+
+	@Getter
+	private int countProcessed = 0;
+
+	PMMPurchaseCandidatesPricingUpdater(@NonNull final BiConsumer<I_PMM_PurchaseCandidate, Exception> errorHandler)
+	{
+		this.errorHandler = errorHandler;
+	}
+
+	public void updatePricing(@NonNull final List<I_PMM_PurchaseCandidate> candidates)
+	{
+		final List<I_PMM_PurchaseCandidate> candidatesToPrice = new ArrayList<>(candidates.size());
+		final List<IPMMPricingAware> pricingAwares = new ArrayList<>(candidates.size());
+		final List<IPricingContext> pricingCtxs = new ArrayList<>(candidates.size());
+		for (final I_PMM_PurchaseCandidate candidate : candidates)
+		{
+			try
+			{
+				final IPMMPricingAware pricingAware = pmmPurchaseCandidateBL.asPMMPricingAware(candidate);
+				pricingCtxs.add(pmmPricingBL.createPricingContext(pricingAware));
+				pricingAwares.add(pricingAware);
+				candidatesToPrice.add(candidate);
+			}
+			catch (final Exception e)
+			{
+				errorHandler.accept(candidate, e);
+			}
+		}
+
+		final List<IPricingResult> pricingResults;
+		try
+		{
+			pricingResults = pricingBL.calculatePrices(pricingCtxs);
+		}
+		catch (final Exception e)
+		{
+			// don't let one candidate fail the whole batch; fall back to pricing them one by one
+			logger.warn("Error while calculating the prices of {} candidates in one go. Retrying them one by one", candidatesToPrice.size(), e);
+			candidatesToPrice.forEach(this::updatePricing);
+			return;
+		}
+
+		for (int i = 0; i < candidatesToPrice.size(); i++)
+		{
+			final I_PMM_PurchaseCandidate candidate = candidatesToPrice.get(i);
+			try
+			{
+				pmmPricingBL.updatePricing(pricingAwares.get(i), pricingResults.get(i));
+
+				InterfaceWrapperHelper.save(candidate);
+
+				countProcessed++;
+			}
+			catch (final Exception e)
+			{
+				errorHandler.accept(candidate, e);
+			}
+		}
+	}
+
+	private void updatePricing(final I_PMM_PurchaseCandidate candidate)
+	{
+		try
+		{
+			final IPMMPricingAware pricingAware = pmmPurchaseCandidateBL.asPMMPricingAware(candidate);
+			pmmPricingBL.updatePricing(pricingAware);
+
+			InterfaceWrapperHelper.save(candidate);
+
+			countProcessed++;
+		}
+		catch (final Exception e)
+		{
+			errorHandler.accept(candidate, e);
+		}
+	}
+}
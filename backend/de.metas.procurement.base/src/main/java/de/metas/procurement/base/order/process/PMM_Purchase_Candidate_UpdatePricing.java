@@ -1,24 +1,22 @@
 package de.metas.procurement.base.order.process;
 
+import com.google.common.collect.Iterators;
 import de.metas.lock.api.ILock;
 import de.metas.lock.api.ILockManager;
 import de.metas.lock.api.LockOwner;
 import de.metas.process.JavaProcess;
-import de.metas.procurement.base.IPMMPricingAware;
-import de.metas.procurement.base.IPMMPricingBL;
 import de.metas.procurement.base.model.I_PMM_PurchaseCandidate;
-import de.metas.procurement.base.order.IPMMPurchaseCandidateBL;
 import de.metas.util.Services;
 import de.metas.util.collections.IteratorUtils;
 import org.adempiere.ad.dao.ICompositeQueryFilter;
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.impl.CompareQueryFilter.Operator;
 import org.adempiere.ad.trx.api.ITrx;
-import org.adempiere.model.InterfaceWrapperHelper;
 import org.compiere.util.Env;
 
 import java.util.Date;
 import java.util.Iterator;
+import java.util.List;
 
 /*
  * #%L
@@ -53,8 +51,8 @@ public class PMM_Purchase_Candidate_UpdatePricing extends JavaProcess
 	// services
 	private final transient ILockManager lockManager = Services.get(ILockManager.class);
 	private final transient IQueryBL queryBL = Services.get(IQueryBL.class);
-	private final transient IPMMPurchaseCandidateBL pmmPurchaseCandidateBL = Services.get(IPMMPurchaseCandidateBL.class);
-	private final transient IPMMPricingBL pmmPricingBL = Services.get(IPMMPricingBL.class);
+
+	private static final int PRICING_BATCH_SIZE = 500;
 
 	// Parameters
 	//@Param(parameterName = "DatePromised", parameterTo = false)
@@ -64,7 +62,7 @@ public class PMM_Purchase_Candidate_UpdatePricing extends JavaProcess
 
 	// State
 	private ILock _lock;
-	private int countProcessed = 0;
+	private final PMMPurchaseCandidatesPricingUpdater pricingUpdater = new PMMPurchaseCandidatesPricingUpdater(this::handleError);
 	private int countError = 0;
 
 	@Override
@@ -74,10 +72,12 @@ public class PMM_Purchase_Candidate_UpdatePricing extends JavaProcess
 		try
 		{
 			candidates = retrieveAndLock();
-			while (candidates.hasNext())
+
+			// calculate the prices batch-wise, so that the pricing engine resolves the shared pricing data only once per batch
+			final Iterator<List<I_PMM_PurchaseCandidate>> candidateBatches = Iterators.partition(candidates, PRICING_BATCH_SIZE);
+			while (candidateBatches.hasNext())
 			{
-				final I_PMM_PurchaseCandidate candidate = candidates.next();
-				updatePricing(candidate);
+				pricingUpdater.updatePricing(candidateBatches.next());
 			}
 		}
 		finally
@@ -86,27 +86,15 @@ public class PMM_Purchase_Candidate_UpdatePricing extends JavaProcess
 			closeResources();
 		}
 
-		return "@Processed@: " + countProcessed + ", @IsError@: " + countError;
+		return "@Processed@: " + pricingUpdater.getCountProcessed() + ", @IsError@: " + countError;
 	}
 
-	private void updatePricing(final I_PMM_PurchaseCandidate candidate)
+	private void handleError(final I_PMM_PurchaseCandidate candidate, final Exception e)
 	{
-		try
-		{
-			final IPMMPricingAware pricingAware = pmmPurchaseCandidateBL.asPMMPricingAware(candidate);
-			pmmPricingBL.updatePricing(pricingAware);
-			
-			InterfaceWrapperHelper.save(candidate);
+		countError++;
 
-			countProcessed++;
-		}
-		catch (final Exception e)
-		{
-			countError++;
-
-			log.warn("Error while processing {}. Ignored", candidate, e);
-			addLog("Error on {}: {}", candidate, e.getLocalizedMessage());
-		}
+		log.warn("Error while processing {}. Ignored", candidate, e);
+		addLog("Error on {}: {}", candidate, e.getLocalizedMessage());
 	}
 
 	private final Iterator<I_PMM_PurchaseCandidate> retrieveAndLock()
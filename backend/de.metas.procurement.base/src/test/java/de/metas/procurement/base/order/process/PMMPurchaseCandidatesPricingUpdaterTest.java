@@ -0,0 +1,213 @@
+package de.metas.procurement.base.order.process;
+
+import com.google.common.collect.ImmutableList;
+import de.metas.adempiere.model.I_M_Product;
+import de.metas.pricing.IPricingContext;
+import de.metas.pricing.IPricingResult;
+import de.metas.pricing.service.IPricingBL;
+import de.metas.pricing.service.impl.PricingBL;
+import de.metas.pricing.service.impl.PricingTestHelper;
+import de.metas.pricing.service.impl.ProductPriceBuilder;
+import de.metas.pricing.tax.ProductTaxCategoryRepository;
+import de.metas.pricing.tax.ProductTaxCategoryService;
+import de.metas.procurement.base.IPMMPricingBL;
+import de.metas.procurement.base.model.I_PMM_PurchaseCandidate;
+import de.metas.procurement.base.order.IPMMPurchaseCandidateBL;
+import de.metas.util.Services;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.SpringContextHolder;
+import org.compiere.model.I_C_BPartner;
+import org.compiere.model.I_C_BPartner_Location;
+import org.compiere.model.I_C_Location;
+import org.compiere.model.I_C_UOM;
+import org.compiere.model.I_M_PriceList;
+import org.compiere.model.I_M_PriceList_Version;
+import org.compiere.util.TimeUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.adempiere.model.InterfaceWrapperHelper.load;
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * #%L
+ * de.metas.procurement.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+class PMMPurchaseCandidatesPricingUpdaterTest
+{
+	private PricingTestHelper helper;
+	private I_C_BPartner bpartner;
+
+	private I_M_Product product1;
+	private I_M_Product product2;
+	private I_M_Product productWithoutPrice;
+
+	private final List<I_PMM_PurchaseCandidate> failedCandidates = new ArrayList<>();
+
+	@BeforeEach
+	void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+		helper = new PricingTestHelper();
+		SpringContextHolder.registerJUnitBean(new ProductTaxCategoryService(new ProductTaxCategoryRepository()));
+
+		final I_M_PriceList purchasePriceList = helper.createPriceList(helper.getDefaultPricingSystem(), helper.defaultCountry);
+		purchasePriceList.setIsSOPriceList(false);
+		saveRecord(purchasePriceList);
+		final I_M_PriceList_Version purchasePriceListVersion = helper.createPriceListVersion(purchasePriceList);
+
+		final I_C_UOM uom = load(helper.getDefaultProduct().getC_UOM_ID(), I_C_UOM.class);
+		product1 = helper.createProduct("Product1", uom);
+		product2 = helper.createProduct("Product2", uom);
+		productWithoutPrice = helper.createProduct("ProductWithoutPrice", uom);
+		new ProductPriceBuilder(purchasePriceListVersion, product1).setTaxCategoryId(helper.getTaxCategoryId()).setPrice(2).build();
+		new ProductPriceBuilder(purchasePriceListVersion, product2).setTaxCategoryId(helper.getTaxCategoryId()).setPrice(5).build();
+
+		bpartner = newInstance(I_C_BPartner.class);
+		bpartner.setPO_PricingSystem_ID(helper.getDefaultPricingSystem().getM_PricingSystem_ID());
+		saveRecord(bpartner);
+
+		final I_C_Location location = newInstance(I_C_Location.class);
+		location.setC_Country_ID(helper.defaultCountry.getC_Country_ID());
+		saveRecord(location);
+
+		final I_C_BPartner_Location bpartnerLocation = newInstance(I_C_BPartner_Location.class);
+		bpartnerLocation.setC_BPartner_ID(bpartner.getC_BPartner_ID());
+		bpartnerLocation.setC_Location_ID(location.getC_Location_ID());
+		bpartnerLocation.setIsShipTo(true);
+		saveRecord(bpartnerLocation);
+	}
+
+	private I_PMM_PurchaseCandidate createCandidate(final I_M_Product product, final int qty)
+	{
+		final I_PMM_PurchaseCandidate candidate = newInstance(I_PMM_PurchaseCandidate.class);
+		candidate.setC_BPartner_ID(bpartner.getC_BPartner_ID());
+		candidate.setM_Product_ID(product.getM_Product_ID());
+		candidate.setC_UOM_ID(product.getC_UOM_ID());
+		candidate.setQtyPromised(BigDecimal.valueOf(qty));
+		candidate.setDatePromised(TimeUtil.getDay(2023, 5, 10));
+		saveRecord(candidate);
+		return candidate;
+	}
+
+	private ImmutableList<I_PMM_PurchaseCandidate> createCandidates()
+	{
+		return ImmutableList.of(
+				createCandidate(product1, 10),
+				createCandidate(product2, 20),
+				createCandidate(product1, 30));
+	}
+
+	private PMMPurchaseCandidatesPricingUpdater newPricingUpdater()
+	{
+		return new PMMPurchaseCandidatesPricingUpdater((candidate, exception) -> failedCandidates.add(candidate));
+	}
+
+	/**
+	 * Prices the given candidates the way it was done before the bulk pricing, i.e. one by one.
+	 */
+	private static void updatePricingOneByOne(final List<I_PMM_PurchaseCandidate> candidates)
+	{
+		final IPMMPurchaseCandidateBL pmmPurchaseCandidateBL = Services.get(IPMMPurchaseCandidateBL.class);
+		final IPMMPricingBL pmmPricingBL = Services.get(IPMMPricingBL.class);
+		candidates.forEach(candidate -> pmmPricingBL.updatePricing(pmmPurchaseCandidateBL.asPMMPricingAware(candidate)));
+	}
+
+	private static void assertSamePricing(final List<I_PMM_PurchaseCandidate> candidates, final List<I_PMM_PurchaseCandidate> expectedCandidates)
+	{
+		assertThat(candidates).hasSameSizeAs(expectedCandidates);
+		for (int i = 0; i < candidates.size(); i++)
+		{
+			final I_PMM_PurchaseCandidate candidate = candidates.get(i);
+			final I_PMM_PurchaseCandidate expectedCandidate = expectedCandidates.get(i);
+
+			assertThat(candidate.getPrice()).as("Price of candidate %s", i).isEqualByComparingTo(expectedCandidate.getPrice());
+			assertThat(candidate.getM_PricingSystem_ID()).as("M_PricingSystem_ID of candidate %s", i).isEqualTo(expectedCandidate.getM_PricingSystem_ID());
+			assertThat(candidate.getM_PriceList_ID()).as("M_PriceList_ID of candidate %s", i).isEqualTo(expectedCandidate.getM_PriceList_ID());
+			assertThat(candidate.getC_Currency_ID()).as("C_Currency_ID of candidate %s", i).isEqualTo(expectedCandidate.getC_Currency_ID());
+		}
+	}
+
+	@Test
+	void bulkPricing_sameAsOneByOne()
+	{
+		final ImmutableList<I_PMM_PurchaseCandidate> expectedCandidates = createCandidates();
+		updatePricingOneByOne(expectedCandidates);
+		assertThat(expectedCandidates).extracting(I_PMM_PurchaseCandidate::getPrice)
+				.usingElementComparator(BigDecimal::compareTo)
+				.containsExactly(new BigDecimal("2"), new BigDecimal("5"), new BigDecimal("2"));
+
+		final ImmutableList<I_PMM_PurchaseCandidate> candidates = createCandidates();
+		final PMMPurchaseCandidatesPricingUpdater pricingUpdater = newPricingUpdater();
+		pricingUpdater.updatePricing(candidates);
+
+		assertSamePricing(candidates, expectedCandidates);
+		assertThat(pricingUpdater.getCountProcessed()).isEqualTo(3);
+		assertThat(failedCandidates).isEmpty();
+	}
+
+	@Test
+	void bulkPricingFails_candidatesArePricedOneByOne()
+	{
+		final ImmutableList<I_PMM_PurchaseCandidate> expectedCandidates = createCandidates();
+		updatePricingOneByOne(expectedCandidates);
+
+		Services.registerService(IPricingBL.class, new PricingBL()
+		{
+			@Override
+			public ImmutableList<IPricingResult> calculatePrices(final List<? extends IPricingContext> pricingCtxs)
+			{
+				throw new AdempiereException("bulk pricing failed");
+			}
+		});
+
+		final ImmutableList<I_PMM_PurchaseCandidate> candidates = createCandidates();
+		final PMMPurchaseCandidatesPricingUpdater pricingUpdater = newPricingUpdater();
+		pricingUpdater.updatePricing(candidates);
+
+		assertSamePricing(candidates, expectedCandidates);
+		assertThat(pricingUpdater.getCountProcessed()).isEqualTo(3);
+		assertThat(failedCandidates).isEmpty();
+	}
+
+	@Test
+	void candidateWithoutPrice_othersArePriced()
+	{
+		final I_PMM_PurchaseCandidate candidateWithoutPrice = createCandidate(productWithoutPrice, 10);
+		final I_PMM_PurchaseCandidate candidate1 = createCandidate(product1, 10);
+		final I_PMM_PurchaseCandidate candidate2 = createCandidate(product2, 10);
+
+		final PMMPurchaseCandidatesPricingUpdater pricingUpdater = newPricingUpdater();
+		pricingUpdater.updatePricing(ImmutableList.of(candidateWithoutPrice, candidate1, candidate2));
+
+		assertThat(failedCandidates).containsExactly(candidateWithoutPrice);
+		assertThat(pricingUpdater.getCountProcessed()).isEqualTo(2);
+		assertThat(candidate1.getPrice()).isEqualByComparingTo("2");
+		assertThat(candidate2.getPrice()).isEqualByComparingTo("5");
+	}
+}
@@ -111,6 +111,13 @@ public interface IShipmentScheduleAllocDAO extends ISingletonService
 	 */
 	BigDecimal retrieveQtyDelivered(I_M_ShipmentSchedule shipmentSchedule);
 
+	/**
+	 * Bulk version of {@link #retrieveQtyDelivered(I_M_ShipmentSchedule)}.
+	 *
+	 * @return qtyDelivered for each of the given {@code scheduleIds}
+	 */
+	ImmutableMap<ShipmentScheduleId, BigDecimal> retrieveQtyDeliveredByScheduleIds(Set<ShipmentScheduleId> scheduleIds);
+
 	/**
 	 * Updates {@link I_M_ShipmentSchedule_QtyPicked#COLUMN_Processed} according to the given {@code inOut}.
 	 */
@@ -121,6 +128,13 @@ public interface IShipmentScheduleAllocDAO extends ISingletonService
 	 */
 	BigDecimal retrieveQtyPickedAndUnconfirmed(I_M_ShipmentSchedule shipmentSchedule);
 
+	/**
+	 * Bulk version of {@link #retrieveQtyPickedAndUnconfirmed(I_M_ShipmentSchedule)}.
+	 *
+	 * @return qtyPickedAndUnconfirmed (in product's stocking UOM) for each of the given {@code scheduleIds}
+	 */
+	ImmutableMap<ShipmentScheduleId, BigDecimal> retrieveQtyPickedAndUnconfirmedByScheduleIds(Set<ShipmentScheduleId> scheduleIds);
+
 	List<I_M_ShipmentSchedule_QtyPicked> retrieveOnShipmentLineRecords(ShipmentScheduleId shipmentScheduleId);
 
 	ImmutableMap<ShipmentScheduleId, List<I_M_ShipmentSchedule_QtyPicked>> retrieveOnShipmentLineRecordsByScheduleIds(Set<ShipmentScheduleId> scheduleIds);
@@ -0,0 +1,98 @@
+package de.metas.inoutcandidate.api.impl;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import de.metas.inout.ShipmentScheduleId;
+import de.metas.inoutcandidate.api.IShipmentScheduleAllocDAO;
+import de.metas.inoutcandidate.api.OlAndSched;
+import de.metas.inoutcandidate.model.I_M_ShipmentSchedule;
+import lombok.NonNull;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * The quantities which {@link ShipmentScheduleUpdater} needs for each shipment schedule, retrieved in bulk for all the schedules of one update run.
+ * <p>
+ * Note that those quantities are not changing while the schedules are updated, because no shipment lines or picked quantities are created meanwhile.
+ * For schedules which were not prefetched, the quantities are retrieved one by one.
+ */
+final class PrefetchedShipmentScheduleQtys
+{
+	public static PrefetchedShipmentScheduleQtys prefetch(
+			@NonNull final List<OlAndSched> olsAndScheds,
+			@NonNull final IShipmentScheduleAllocDAO shipmentScheduleAllocDAO)
+	{
+		final ImmutableSet<ShipmentScheduleId> scheduleIds = olsAndScheds.stream()
+				.map(OlAndSched::getShipmentScheduleId)
+				.collect(ImmutableSet.toImmutableSet());
+
+		return new PrefetchedShipmentScheduleQtys(
+				shipmentScheduleAllocDAO,
+				shipmentScheduleAllocDAO.retrieveQtyDeliveredByScheduleIds(scheduleIds),
+				shipmentScheduleAllocDAO.retrieveQtyPickedAndUnconfirmedByScheduleIds(scheduleIds));
+	}
+
+	public static PrefetchedShipmentScheduleQtys notPrefetched(@NonNull final IShipmentScheduleAllocDAO shipmentScheduleAllocDAO)
+	{
+		return new PrefetchedShipmentScheduleQtys(shipmentScheduleAllocDAO, ImmutableMap.of(), ImmutableMap.of());
+	}
+
+	private final IShipmentScheduleAllocDAO shipmentScheduleAllocDAO;
+	private final ImmutableMap<ShipmentScheduleId, BigDecimal> qtyDeliveredByScheduleId;
+	private final ImmutableMap<ShipmentScheduleId, BigDecimal> qtyPickedAndUnconfirmedByScheduleId;
+
+	private PrefetchedShipmentScheduleQtys(
+			@NonNull final IShipmentScheduleAllocDAO shipmentScheduleAllocDAO,
+			@NonNull final ImmutableMap<ShipmentScheduleId, BigDecimal> qtyDeliveredByScheduleId,
+			@NonNull final ImmutableMap<ShipmentScheduleId, BigDecimal> qtyPickedAndUnconfirmedByScheduleId)
+	{
+		this.shipmentScheduleAllocDAO = shipmentScheduleAllocDAO;
+		this.qtyDeliveredByScheduleId = qtyDeliveredByScheduleId;
+		this.qtyPickedAndUnconfirmedByScheduleId = qtyPickedAndUnconfirmedByScheduleId;
+	}
+
+	/**
+	 * @see IShipmentScheduleAllocDAO#retrieveQtyDelivered(I_M_ShipmentSchedule)
+	 */
+	public BigDecimal getQtyDelivered(@NonNull final I_M_ShipmentSchedule sched)
+	{
+		final BigDecimal qtyDelivered = qtyDeliveredByScheduleId.get(ShipmentScheduleId.ofRepoId(sched.getM_ShipmentSchedule_ID()));
+		return qtyDelivered != null
+				? qtyDelivered
+				: shipmentScheduleAllocDAO.retrieveQtyDelivered(sched);
+	}
+
+	/**
+	 * @see IShipmentScheduleAllocDAO#retrieveQtyPickedAndUnconfirmed(I_M_ShipmentSchedule)
+	 */
+	public BigDecimal getQtyPickedAndUnconfirmed(@NonNull final I_M_ShipmentSchedule sched)
+	{
+		final BigDecimal qtyPickedAndUnconfirmed = qtyPickedAndUnconfirmedByScheduleId.get(ShipmentScheduleId.ofRepoId(sched.getM_ShipmentSchedule_ID()));
+		return qtyPickedAndUnconfirmed != null
+				? qtyPickedAndUnconfirmed
+				: shipmentScheduleAllocDAO.retrieveQtyPickedAndUnconfirmed(sched);
+	}
+}
@@ -1,7 +1,11 @@
 package de.metas.inoutcandidate.api.impl;
 
+import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.SetMultimap;
 import de.metas.inout.InOutLineId;
 import de.metas.inout.ShipmentScheduleId;
 import de.metas.inout.model.I_M_InOut;
@@ -28,6 +32,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 
@@ -64,6 +69,11 @@ public class ShipmentScheduleAllocDAO implements IShipmentScheduleAllocDAO
 	private final IQueryBL queryBL = Services.get(IQueryBL.class);
 	private final IShipmentSchedulePA shipmentScheduleDao = Services.get(IShipmentSchedulePA.class);
 
+	/**
+	 * Max. number of IDs we put into one {@code IN (...)} clause when we are retrieving data for many shipment schedules at once.
+	 */
+	private static final int IN_ARRAY_CHUNK_SIZE = 1000;
+
 	/**
 	 * Creates a filter which keeps {@link I_M_ShipmentSchedule_QtyPicked} all records (active or not),
 	 * for given shipment schedule, which are <b>not</b> referenced by a shipment line.
@@ -190,6 +200,55 @@ public class ShipmentScheduleAllocDAO implements IShipmentScheduleAllocDAO
 		return coalesceNotNull(qty, ZERO);
 	}
 
+	@Override
+	public ImmutableMap<ShipmentScheduleId, BigDecimal> retrieveQtyDeliveredByScheduleIds(@NonNull final Set<ShipmentScheduleId> scheduleIds)
+	{
+		if (scheduleIds.isEmpty())
+		{
+			return ImmutableMap.of();
+		}
+
+		final HashMap<ShipmentScheduleId, BigDecimal> qtyDeliveredByScheduleId = new HashMap<>(scheduleIds.size());
+		for (final List<ShipmentScheduleId> scheduleIdsChunk : Iterables.partition(scheduleIds, IN_ARRAY_CHUNK_SIZE))
+		{
+			//
+			// Like in retrieveQtyDelivered(), one shipment line shall be counted only once per schedule, even if it's referenced by more than one QtyPicked record.
+			final SetMultimap<ShipmentScheduleId, InOutLineId> inoutLineIdsByScheduleId = HashMultimap.create();
+			queryBL.createQueryBuilder(I_M_ShipmentSchedule_QtyPicked.class)
+					.addOnlyActiveRecordsFilter()
+					.addInArrayFilter(I_M_ShipmentSchedule_QtyPicked.COLUMN_M_ShipmentSchedule_ID, scheduleIdsChunk)
+					.addNotEqualsFilter(I_M_ShipmentSchedule_QtyPicked.COLUMN_M_InOutLine_ID, null)
+					.create()
+					.forEach(qtyPicked -> inoutLineIdsByScheduleId.put(
+							ShipmentScheduleId.ofRepoId(qtyPicked.getM_ShipmentSchedule_ID()),
+							InOutLineId.ofRepoId(qtyPicked.getM_InOutLine_ID())));
+			if (inoutLineIdsByScheduleId.isEmpty())
+			{
+				continue;
+			}
+
+			final ImmutableMap<InOutLineId, BigDecimal> movementQtyByInOutLineId = queryBL.createQueryBuilder(I_M_InOutLine.class)
+					.addOnlyActiveRecordsFilter()
+					.addInArrayFilter(I_M_InOutLine.COLUMNNAME_M_InOutLine_ID, ImmutableSet.copyOf(inoutLineIdsByScheduleId.values()))
+					.addEqualsFilter(I_M_InOutLine.COLUMNNAME_Processed, true)
+					.create()
+					.stream()
+					.collect(ImmutableMap.toImmutableMap(
+							inoutLine -> InOutLineId.ofRepoId(inoutLine.getM_InOutLine_ID()),
+							I_M_InOutLine::getMovementQty));
+
+			inoutLineIdsByScheduleId.forEach((scheduleId, inoutLineId) -> {
+				final BigDecimal movementQty = movementQtyByInOutLineId.get(inoutLineId);
+				if (movementQty != null)
+				{
+					qtyDeliveredByScheduleId.merge(scheduleId, movementQty, BigDecimal::add);
+				}
+			});
+		}
+
+		return toMapOfAllScheduleIds(scheduleIds, qtyDeliveredByScheduleId);
+	}
+
 	@NonNull
 	@Override
 	public BigDecimal retrieveQtyPickedAndUnconfirmed(@NonNull final I_M_ShipmentSchedule shipmentSchedule)
@@ -330,6 +389,41 @@ public class ShipmentScheduleAllocDAO implements IShipmentScheduleAllocDAO
 		return retrieveOnShipmentLineRecordsQuery(shipmentSchedule).create().list();
 	}
 
+	@Override
+	public ImmutableMap<ShipmentScheduleId, BigDecimal> retrieveQtyPickedAndUnconfirmedByScheduleIds(@NonNull final Set<ShipmentScheduleId> scheduleIds)
+	{
+		if (scheduleIds.isEmpty())
+		{
+			return ImmutableMap.of();
+		}
+
+		final HashMap<ShipmentScheduleId, BigDecimal> qtyPickedByScheduleId = new HashMap<>(scheduleIds.size());
+		for (final List<ShipmentScheduleId> scheduleIdsChunk : Iterables.partition(scheduleIds, IN_ARRAY_CHUNK_SIZE))
+		{
+			queryBL.createQueryBuilder(I_M_ShipmentSchedule_QtyPicked.class)
+					.addOnlyActiveRecordsFilter()
+					.addInArrayFilter(I_M_ShipmentSchedule_QtyPicked.COLUMN_M_ShipmentSchedule_ID, scheduleIdsChunk)
+					.addEqualsFilter(I_M_ShipmentSchedule_QtyPicked.COLUMNNAME_Processed, false)
+					.create()
+					.forEach(qtyPicked -> qtyPickedByScheduleId.merge(
+							ShipmentScheduleId.ofRepoId(qtyPicked.getM_ShipmentSchedule_ID()),
+							qtyPicked.getQtyPicked(),
+							BigDecimal::add));
+		}
+
+		return toMapOfAllScheduleIds(scheduleIds, qtyPickedByScheduleId);
+	}
+
+	private static ImmutableMap<ShipmentScheduleId, BigDecimal> toMapOfAllScheduleIds(
+			@NonNull final Set<ShipmentScheduleId> scheduleIds,
+			@NonNull final Map<ShipmentScheduleId, BigDecimal> qtysByScheduleId)
+	{
+		return scheduleIds.stream()
+				.collect(ImmutableMap.toImmutableMap(
+						scheduleId -> scheduleId,
+						scheduleId -> coalesceNotNull(qtysByScheduleId.get(scheduleId), ZERO)));
+	}
+
 	public ImmutableMap<ShipmentScheduleId, List<I_M_ShipmentSchedule_QtyPicked>> retrieveOnShipmentLineRecordsByScheduleIds(@NonNull final Set<ShipmentScheduleId> scheduleIds)
 	{
 		final boolean onShipmentLine = true;
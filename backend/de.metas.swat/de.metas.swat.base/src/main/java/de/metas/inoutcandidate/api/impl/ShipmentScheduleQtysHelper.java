@@ -18,6 +18,7 @@ import org.compiere.util.Env;
 import org.slf4j.Logger;
 
 import java.math.BigDecimal;
+import java.util.function.Function;
 
 /*
  * #%L
@@ -56,6 +57,17 @@ import java.math.BigDecimal;
 			@NonNull final OlAndSched olAndSched,
 			@NonNull final IShipmentSchedulesDuringUpdate shipmentCandidates,
 			@NonNull final IShipmentScheduleAllocDAO shipmentScheduleAllocDAO)
+	{
+		updateQtyToDeliver(olAndSched, shipmentCandidates, shipmentScheduleAllocDAO::retrieveQtyDelivered);
+	}
+
+	/**
+	 * @param qtyDeliveredProvider provides the current qtyDelivered of a given shipment schedule; see {@link IShipmentScheduleAllocDAO#retrieveQtyDelivered(I_M_ShipmentSchedule)}.
+	 */
+	public static void updateQtyToDeliver(
+			@NonNull final OlAndSched olAndSched,
+			@NonNull final IShipmentSchedulesDuringUpdate shipmentCandidates,
+			@NonNull final Function<I_M_ShipmentSchedule, BigDecimal> qtyDeliveredProvider)
 	{
 		final I_M_ShipmentSchedule sched = olAndSched.getSched();
 		if (sched.isClosed() || sched.isDeliveryStop())
@@ -75,7 +87,7 @@ import java.math.BigDecimal;
 			sched.setStatus(computeShipmentScheduleStatus(lineCandidate, shipmentCandidates));
 		}
 
-		final BigDecimal newQtyToDeliverOverrideFulfilled = computeQtyToDeliverOverrideFulFilled(olAndSched, shipmentScheduleAllocDAO);
+		final BigDecimal newQtyToDeliverOverrideFulfilled = computeQtyToDeliverOverrideFulFilled(olAndSched, qtyDeliveredProvider);
 		if (olAndSched.getQtyOverride() != null)
 		{
 			if (olAndSched.getQtyOverride().signum() == 0)
@@ -190,10 +202,17 @@ import java.math.BigDecimal;
 	public static BigDecimal computeQtyToDeliverOverrideFulFilled(
 			@NonNull final OlAndSched olAndSched, 
 			@NonNull final IShipmentScheduleAllocDAO shipmentScheduleAllocDAO)
+	{
+		return computeQtyToDeliverOverrideFulFilled(olAndSched, shipmentScheduleAllocDAO::retrieveQtyDelivered);
+	}
+
+	public static BigDecimal computeQtyToDeliverOverrideFulFilled(
+			@NonNull final OlAndSched olAndSched,
+			@NonNull final Function<I_M_ShipmentSchedule, BigDecimal> qtyDeliveredProvider)
 	{
 		final I_M_ShipmentSchedule sched = olAndSched.getSched();
 
-		final BigDecimal qtyDelivered = shipmentScheduleAllocDAO.retrieveQtyDelivered(sched);
+		final BigDecimal qtyDelivered = qtyDeliveredProvider.apply(sched);
 		final BigDecimal deliveredDiff = qtyDelivered.subtract(olAndSched.getInitialSchedQtyDelivered());
 
 		final BigDecimal newQtyToDeliverOverrideFulfilled = sched.getQtyToDeliver_OverrideFulfilled().add(deliveredDiff);
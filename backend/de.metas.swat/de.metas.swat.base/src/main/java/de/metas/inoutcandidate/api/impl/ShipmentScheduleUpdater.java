@@ -10,7 +10,6 @@ import de.metas.bpartner.service.IBPartnerBL;
 import de.metas.bpartner_product.IBPartnerProductDAO;
 import de.metas.inout.ShipmentScheduleId;
 import de.metas.inoutcandidate.api.IShipmentConstraintsBL;
-import de.metas.inoutcandidate.api.IShipmentScheduleAllocBL;
 import de.metas.inoutcandidate.api.IShipmentScheduleAllocDAO;
 import de.metas.inoutcandidate.api.IShipmentScheduleBL;
 import de.metas.inoutcandidate.api.IShipmentScheduleEffectiveBL;
@@ -40,7 +39,6 @@ import de.metas.organization.OrgId;
 import de.metas.process.PInstanceId;
 import de.metas.product.IProductBL;
 import de.metas.product.ProductId;
-import de.metas.quantity.Quantity;
 import de.metas.tourplanning.api.IDeliveryDayBL;
 import de.metas.tourplanning.api.IShipmentScheduleDeliveryDayBL;
 import de.metas.tourplanning.model.TourId;
@@ -51,6 +49,7 @@ import de.metas.util.ILoggable;
 import de.metas.util.Loggables;
 import de.metas.util.Services;
 import lombok.NonNull;
+import lombok.Value;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.inout.util.DeliveryGroupCandidate;
 import org.adempiere.inout.util.DeliveryGroupCandidateGroupId;
@@ -80,6 +79,7 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
@@ -137,7 +137,6 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 	private final IShipmentScheduleBL shipmentScheduleBL = Services.get(IShipmentScheduleBL.class);
 	private final IShipmentScheduleDeliveryDayBL shipmentScheduleDeliveryDayBL = Services.get(IShipmentScheduleDeliveryDayBL.class);
 	private final IShipmentScheduleEffectiveBL shipmentScheduleEffectiveBL = Services.get(IShipmentScheduleEffectiveBL.class);
-	private final IShipmentScheduleAllocBL shipmentScheduleAllocBL = Services.get(IShipmentScheduleAllocBL.class);
 	private final IShipmentScheduleAllocDAO shipmentScheduleAllocDAO = Services.get(IShipmentScheduleAllocDAO.class);
 	private final IShipmentConstraintsBL shipmentConstraintsBL = Services.get(IShipmentConstraintsBL.class);
 	private final ShipmentScheduleQtyOnHandStorageFactory shipmentScheduleQtyOnHandStorageFactory;
@@ -264,6 +263,9 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 			return;
 		}
 
+		// retrieve the qtyDelivered and qtyPickedAndUnconfirmed of all our schedules with a few queries, instead of a few queries per schedule
+		final PrefetchedShipmentScheduleQtys prefetchedQtys = PrefetchedShipmentScheduleQtys.prefetch(olsAndScheds, shipmentScheduleAllocDAO);
+
 		//
 		// first update those shipment schedule properties that don't need two passes
 		for (final OlAndSched olAndSched : olsAndScheds)
@@ -291,16 +293,15 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 				final BigDecimal qtyPickedOrOnDraftShipment;
 				{
 					// task 08123: we also take those numbers into account that are *not* on an M_InOutLine yet, but are nonetheless picked
-					final Quantity qtyPickedAndUnconfirmed = shipmentScheduleAllocBL.retrieveQtyPickedAndUnconfirmed(sched);
-					logger.debug("QtyPickedAndUnconfirmed={}", qtyPickedAndUnconfirmed);
-					qtyPickedOrOnDraftShipment = qtyPickedAndUnconfirmed.toBigDecimal();
+					qtyPickedOrOnDraftShipment = prefetchedQtys.getQtyPickedAndUnconfirmed(sched);
+					logger.debug("QtyPickedAndUnconfirmed={}", qtyPickedOrOnDraftShipment);
 
 					sched.setQtyPickList(qtyPickedOrOnDraftShipment);
 				}
 			}
 		}
 
-		final ShipmentSchedulesDuringUpdate firstRun = generate_FirstRun(olsAndScheds);
+		final ShipmentSchedulesDuringUpdate firstRun = generate_FirstRun(olsAndScheds, prefetchedQtys);
 		firstRun.updateCompleteStatusAndSetQtyToZeroWhereNeeded();
 
 		applyCandidateProcessors(ctx, firstRun);
@@ -323,9 +324,10 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 		}
 
 		// make the second run
-		final IShipmentSchedulesDuringUpdate secondRun = generate_SecondRun(olsAndScheds, firstRun);
+		final IShipmentSchedulesDuringUpdate secondRun = generate_SecondRun(olsAndScheds, firstRun, prefetchedQtys);
 
 		// finally update the shipment schedule entries
+		final HashMap<BPartnerProductKey, Optional<I_C_BPartner_Product>> bpartnerProductsByKey = new HashMap<>();
 		for (final OlAndSched olAndSched : olsAndScheds)
 		{
 			final I_M_ShipmentSchedule schedRecord = olAndSched.getSched();
@@ -342,14 +344,14 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 
 			// task 09358: ol.qtyReserved should be as correct as QtyOrdered and QtyDelivered, but in some cases isn't. this here is a workaround to the problem
 			// task 09869: don't rely on ol anyways
-			final BigDecimal qtyDelivered = shipmentScheduleAllocDAO.retrieveQtyDelivered(schedRecord);
+			final BigDecimal qtyDelivered = prefetchedQtys.getQtyDelivered(schedRecord);
 			schedRecord.setQtyDelivered(qtyDelivered);
 			// takes into consideration isClosed flag 
 			schedRecord.setQtyReserved(BigDecimal.ZERO.max(shipmentScheduleEffectiveBL.computeQtyOrdered(olAndSched.getSched()).subtract(schedRecord.getQtyDelivered())));
 
 			updateLineNetAmt(olAndSched);
 
-			ShipmentScheduleQtysHelper.updateQtyToDeliver(olAndSched, secondRun, shipmentScheduleAllocDAO);
+			ShipmentScheduleQtysHelper.updateQtyToDeliver(olAndSched, secondRun, prefetchedQtys::getQtyDelivered);
 
 			updateProcessedFlag(schedRecord);
 			if (schedRecord.isProcessed())
@@ -382,7 +384,12 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 			final I_M_Product product = productsService.getById(productId);
 			final OrgId orgId = OrgId.ofRepoId(product.getAD_Org_ID());
 
-			final I_C_BPartner_Product bpp = bpartnerProductDAO.retrieveBPartnerProductAssociation(ctx, partnerId, productId, orgId);
+			// many schedules usually share the same partner and product, so we look up each association only once per update
+			final I_C_BPartner_Product bpp = bpartnerProductsByKey
+					.computeIfAbsent(
+							new BPartnerProductKey(partnerId, productId, orgId),
+							key -> Optional.ofNullable(bpartnerProductDAO.retrieveBPartnerProductAssociation(ctx, key.getPartnerId(), key.getProductId(), key.getOrgId())))
+					.orElse(null);
 			if (bpp == null)
 			{
 				// in case no dropship bpp entry was found, the schedule shall not be dropship
@@ -435,28 +442,38 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 		}
 	}
 
+	@VisibleForTesting
 	ShipmentSchedulesDuringUpdate generate_FirstRun(@NonNull final List<OlAndSched> lines)
+	{
+		return generate_FirstRun(lines, PrefetchedShipmentScheduleQtys.notPrefetched(shipmentScheduleAllocDAO));
+	}
+
+	private ShipmentSchedulesDuringUpdate generate_FirstRun(
+			@NonNull final List<OlAndSched> lines,
+			@NonNull final PrefetchedShipmentScheduleQtys prefetchedQtys)
 	{
 		try (final MDCCloseable ignored = ShipmentSchedulesMDC.putShipmentScheduleUpdateRunNo(1))
 		{
 			final ShipmentSchedulesDuringUpdate firstRun = new ShipmentSchedulesDuringUpdate();
-			return generate(lines, firstRun);
+			return generate(lines, firstRun, prefetchedQtys);
 		}
 	}
 
-	ShipmentSchedulesDuringUpdate generate_SecondRun(
+	private ShipmentSchedulesDuringUpdate generate_SecondRun(
 			@NonNull final List<OlAndSched> lines,
-			@NonNull final ShipmentSchedulesDuringUpdate firstRun)
+			@NonNull final ShipmentSchedulesDuringUpdate firstRun,
+			@NonNull final PrefetchedShipmentScheduleQtys prefetchedQtys)
 	{
 		try (final MDCCloseable ignored = ShipmentSchedulesMDC.putShipmentScheduleUpdateRunNo(2))
 		{
-			return generate(lines, firstRun);
+			return generate(lines, firstRun, prefetchedQtys);
 		}
 	}
 
 	private ShipmentSchedulesDuringUpdate generate(
 			@NonNull final List<OlAndSched> lines,
-			@NonNull final ShipmentSchedulesDuringUpdate shipmentSchedulesDuringUpdate)
+			@NonNull final ShipmentSchedulesDuringUpdate shipmentSchedulesDuringUpdate,
+			@NonNull final PrefetchedShipmentScheduleQtys prefetchedQtys)
 	{
 		//
 		// Load QtyOnHand in scope for our lines
@@ -467,7 +484,7 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 		// Iterate and try to allocate the QtyOnHand
 		for (final OlAndSched olAndSched : lines)
 		{
-			processSingleOlAndSched(olAndSched, shipmentSchedulesDuringUpdate, qtyOnHands);
+			processSingleOlAndSched(olAndSched, shipmentSchedulesDuringUpdate, qtyOnHands, prefetchedQtys);
 		}
 		return shipmentSchedulesDuringUpdate;
 	} // generate
@@ -475,7 +492,8 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 	private void processSingleOlAndSched(
 			final @NonNull OlAndSched olAndSched,
 			final @NonNull ShipmentSchedulesDuringUpdate shipmentSchedulesDuringUpdate,
-			final @NonNull ShipmentScheduleQtyOnHandStorageHolder shipmentScheduleQtyOnHandStorage)
+			final @NonNull ShipmentScheduleQtyOnHandStorageHolder shipmentScheduleQtyOnHandStorage,
+			final @NonNull PrefetchedShipmentScheduleQtys prefetchedQtys)
 	{
 		try (final MDCCloseable ignored = ShipmentSchedulesMDC.putShipmentScheduleId(olAndSched.getShipmentScheduleId()))
 		{
@@ -484,7 +502,7 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 			final DeliveryRule deliveryRule = shipmentScheduleEffectiveBL.getDeliveryRule(sched);
 			logger.debug("DeliveryRule={}", deliveryRule);
 
-			final BigDecimal qtyRequired = computeQtyRequiredForOlAndSched(olAndSched, deliveryRule);
+			final BigDecimal qtyRequired = computeQtyRequiredForOlAndSched(olAndSched, deliveryRule, prefetchedQtys);
 
 			//
 			// QtyToDeliver: qtyRequired - qtyPickList (non negative!)
@@ -572,14 +590,15 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 	@NonNull
 	private BigDecimal computeQtyRequiredForOlAndSched(
 			final @NonNull OlAndSched olAndSched,
-			final @NonNull DeliveryRule deliveryRule)
+			final @NonNull DeliveryRule deliveryRule,
+			final @NonNull PrefetchedShipmentScheduleQtys prefetchedQtys)
 	{
 		final I_M_ShipmentSchedule sched = olAndSched.getSched();
 
 		final BigDecimal qtyRequired;
 		if (olAndSched.getQtyOverride() != null)
 		{
-			final BigDecimal qtyToDeliverOverrideFulFilled = ShipmentScheduleQtysHelper.computeQtyToDeliverOverrideFulFilled(olAndSched, shipmentScheduleAllocDAO);
+			final BigDecimal qtyToDeliverOverrideFulFilled = ShipmentScheduleQtysHelper.computeQtyToDeliverOverrideFulFilled(olAndSched, prefetchedQtys::getQtyDelivered);
 			if (olAndSched.getQtyOverride().compareTo(qtyToDeliverOverrideFulFilled) > 0)
 			{
 				qtyRequired = olAndSched.getQtyOverride().subtract(qtyToDeliverOverrideFulFilled);
@@ -587,7 +606,7 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 			}
 			else
 			{
-				final BigDecimal qtyDelivered = shipmentScheduleAllocDAO.retrieveQtyDelivered(sched);
+				final BigDecimal qtyDelivered = prefetchedQtys.getQtyDelivered(sched);
 				qtyRequired = olAndSched.getQtyOrdered().subtract(qtyDelivered);
 				logger.debug("QtyOverride={} is less than QtyToDeliverOverrideFulFilled={}; => use QtyRequired={} as QtyOrdered={} minus QtyDelivered={}",
 						olAndSched.getQtyOverride(), qtyToDeliverOverrideFulFilled, qtyRequired, olAndSched.getQtyOrdered(), qtyDelivered);
@@ -601,7 +620,7 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 		}
 		else
 		{
-			final BigDecimal qtyDelivered = shipmentScheduleAllocDAO.retrieveQtyDelivered(sched);
+			final BigDecimal qtyDelivered = prefetchedQtys.getQtyDelivered(sched);
 			qtyRequired = olAndSched.getQtyOrdered().subtract(qtyDelivered);
 			logger.debug("DeliveryRule={}; => use QtyRequired={} as QtyOrdered={} minus QtyDelivered={}",
 					deliveryRule, qtyRequired, olAndSched.getQtyOrdered(), qtyDelivered);
@@ -942,4 +961,12 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 			return segments.stream();
 		}
 	}
+
+	@Value
+	private static class BPartnerProductKey
+	{
+		@NonNull BPartnerId partnerId;
+		@NonNull ProductId productId;
+		@NonNull OrgId orgId;
+	}
 }
@@ -1,6 +1,7 @@
 package de.metas.invoicecandidate.api;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableSet;
 import de.metas.adempiere.model.I_C_Invoice;
 import de.metas.aggregation.model.I_C_Aggregation;
@@ -437,6 +438,11 @@ public interface IInvoiceCandDAO extends ISingletonService
 
 	ImmutableList<I_C_InvoiceCandidate_InOutLine> retrieveICIOLForInvoiceCandidate(@NonNull I_C_Invoice_Candidate ic);
 
+	/**
+	 * Bulk version of {@link #retrieveICIOLForInvoiceCandidate(I_C_Invoice_Candidate)}.
+	 */
+	ImmutableListMultimap<InvoiceCandidateId, I_C_InvoiceCandidate_InOutLine> retrieveICIOLsByInvoiceCandidateIds(@NonNull Set<InvoiceCandidateId> invoiceCandidateIds);
+
 	@NonNull
 	List<I_C_Invoice_Candidate> retrieveApprovedForInvoiceReferencing(TableRecordReferenceSet singleTableReferences);
 }
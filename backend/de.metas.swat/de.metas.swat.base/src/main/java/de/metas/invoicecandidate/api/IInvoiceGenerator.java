@@ -57,4 +57,14 @@ public interface IInvoiceGenerator
 
 	IInvoiceGenerator setInvoicingParams(InvoicingParams invoicingParams);
 
+	/**
+	 * Advises the generator that the candidates it gets are ordered by their {@code HeaderAggregationKey}.
+	 * In that case, it can create the invoices of one header aggregation key as soon as all candidates with that key were read,
+	 * instead of aggregating all candidates in memory before creating the first invoice.
+	 * <p>
+	 * Only worth it when the candidates span many header aggregation keys, i.e. when generating invoices from a whole selection.
+	 * The async work packages already contain the candidates of one header aggregation key, so they don't set this.
+	 */
+	IInvoiceGenerator setCandidatesOrderedByHeaderAggregationKey(boolean candidatesOrderedByHeaderAggregationKey);
+
 }
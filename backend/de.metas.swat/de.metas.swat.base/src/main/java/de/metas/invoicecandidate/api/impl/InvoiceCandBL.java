@@ -751,6 +751,7 @@ public class InvoiceCandBL implements IInvoiceCandBL
 		return generateInvoices()
 				.setContext(ctx, trxName)
 				.setIgnoreInvoiceSchedule(ignoreInvoiceSchedule)
+				.setCandidatesOrderedByHeaderAggregationKey(true) // see retrieveIcForSelectionStableOrdering
 				.generateInvoices(candidates);
 	}
 
@@ -2477,6 +2478,17 @@ public class InvoiceCandBL implements IInvoiceCandBL
 	public void updateICIOLAssociationFromIOL(
 			@NonNull final I_C_InvoiceCandidate_InOutLine iciol,
 			@NonNull final org.compiere.model.I_M_InOutLine inOutLine)
+	{
+		setICIOLAssociationFromIOL(iciol, inOutLine);
+		saveRecord(iciol);
+	}
+
+	/**
+	 * Same as {@link #updateICIOLAssociationFromIOL(I_C_InvoiceCandidate_InOutLine, org.compiere.model.I_M_InOutLine)}, but doesn't save the association.
+	 */
+	/* package */ void setICIOLAssociationFromIOL(
+			@NonNull final I_C_InvoiceCandidate_InOutLine iciol,
+			@NonNull final org.compiere.model.I_M_InOutLine inOutLine)
 	{
 		iciol.setAD_Org_ID(inOutLine.getAD_Org_ID());
 		iciol.setM_InOutLine(inOutLine);
@@ -2513,8 +2525,6 @@ public class InvoiceCandBL implements IInvoiceCandBL
 		}
 
 		createMatchInvForInOutLine(inOutLine);
-
-		saveRecord(iciol);
 	}
 
 	@Override
@@ -1,6 +1,7 @@
 package de.metas.invoicecandidate.api.impl;
 
 import ch.qos.logback.classic.Level;
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
 import de.metas.adempiere.model.I_C_InvoiceLine;
 import de.metas.banking.BankAccountId;
@@ -102,6 +103,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static org.adempiere.model.InterfaceWrapperHelper.copyValues;
@@ -169,6 +171,7 @@ public class InvoiceCandBLCreateInvoices implements IInvoiceGenerator
 	private Boolean _ignoreInvoiceSchedule = null;
 	private InvoicingParams _invoicingParams;
 	private IInvoiceGenerateResult _collector;
+	private boolean _candidatesOrderedByHeaderAggregationKey = false;
 
 	public InvoiceCandBLCreateInvoices(
 			@Nullable final MatchInvoiceService matchInvoiceService)
@@ -914,10 +917,16 @@ public class InvoiceCandBLCreateInvoices implements IInvoiceGenerator
 		// Total net amount to invoice checker (08610)
 		final ICNetAmtToInvoiceChecker netAmtToInvoiceChecker = new ICNetAmtToInvoiceChecker();
 
+		final GenerateInvoicesStats stats = GenerateInvoicesStats.start(getCollector());
+
 		// get our service instance to aggregate the invoice candidates
-		final AggregationEngine aggregationEngine = newAggregationEngine();
+		AggregationEngine aggregationEngine = newAggregationEngine();
 
-		final List<I_C_Invoice_Candidate> icToUnlock = new ArrayList<>();
+		//
+		// If the candidates are ordered by header aggregation key, we create the invoices of each key as soon as we read all its candidates,
+		// instead of keeping all candidates' aggregations in memory until the end
+		final boolean streamingAggregation = isStreamingAggregation();
+		String currentHeaderAggregationKey = null;
 
 		//
 		// Iterate invoice candidates and add them to aggregation engine
@@ -926,7 +935,12 @@ public class InvoiceCandBLCreateInvoices implements IInvoiceGenerator
 			final I_C_Invoice_Candidate ic = invoiceCandidates.next();
 			try (final MDCCloseable ignored = TableRecordMDC.putTableRecordReference(ic))
 			{
-				icToUnlock.add(ic);
+				if (streamingAggregation && !Objects.equals(currentHeaderAggregationKey, ic.getHeaderAggregationKey()))
+				{
+					aggregateAndInvoice(aggregationEngine, stats);
+					aggregationEngine = newAggregationEngine();
+					currentHeaderAggregationKey = ic.getHeaderAggregationKey();
+				}
 
 				// Skip invoice candidate if we are adviced to do so
 				// TODO: i think this checking is no longer needed because we are doing it when enqueueing
@@ -960,11 +974,35 @@ public class InvoiceCandBLCreateInvoices implements IInvoiceGenerator
 
 		//
 		// Aggregate collected ICs and create the invoices
-		aggregateAndInvoice(aggregationEngine);
+		aggregateAndInvoice(aggregationEngine, stats);
+
+		Loggables.withLogger(logger, Level.INFO).addLog("Invoice generation result: {}", stats.stop(getCollector()));
 
 		return getCollector();
 	}
 
+	/**
+	 * @return {@code true} if the candidates are ordered by header aggregation key and we don't need to see all of them before creating the first invoice.
+	 */
+	private boolean isStreamingAggregation()
+	{
+		if (!_candidatesOrderedByHeaderAggregationKey)
+		{
+			return false;
+		}
+
+		final InvoicingParams invoicingParams = getInvoicingParams();
+		if (invoicingParams == null)
+		{
+			return true;
+		}
+
+		final BigDecimal expectedNetAmtToInvoice = invoicingParams.getCheck_NetAmtToInvoice();
+		return !invoicingParams.isConsolidateApprovedICs() // ... because then we don't aggregate by the ICs' HeaderAggregationKey
+				&& !invoicingParams.isAssumeOneInvoice()
+				&& (expectedNetAmtToInvoice == null || expectedNetAmtToInvoice.signum() == 0); // ... because the total amount needs to be checked before the first invoice is created
+	}
+
 	private AggregationEngine newAggregationEngine()
 	{
 		final InvoicingParams invoicingParams = getInvoicingParams();
@@ -985,9 +1023,12 @@ public class InvoiceCandBLCreateInvoices implements IInvoiceGenerator
 	/**
 	 * @param aggregationEngine note that this is a {@link de.metas.util.IMultitonService}, i.e. a service with internal state.
 	 */
-	private void aggregateAndInvoice(@NonNull final AggregationEngine aggregationEngine)
+	private void aggregateAndInvoice(
+			@NonNull final AggregationEngine aggregationEngine,
+			@NonNull final GenerateInvoicesStats stats)
 	{
 		final List<IInvoiceHeader> aggregationResult = aggregationEngine.aggregate();
+		stats.sampleUsedHeap();
 
 		if (getInvoicingParams() != null && getInvoicingParams().isAssumeOneInvoice())
 		{
@@ -1255,4 +1296,54 @@ public class InvoiceCandBLCreateInvoices implements IInvoiceGenerator
 	{
 		return _invoicingParams;
 	}
+
+	@Override
+	public IInvoiceGenerator setCandidatesOrderedByHeaderAggregationKey(final boolean candidatesOrderedByHeaderAggregationKey)
+	{
+		this._candidatesOrderedByHeaderAggregationKey = candidatesOrderedByHeaderAggregationKey;
+		return this;
+	}
+
+	/**
+	 * Throughput and memory usage of one {@link #generateInvoices(Iterator)} run, reported once at the end of the run.
+	 */
+	private static final class GenerateInvoicesStats
+	{
+		private final Stopwatch stopwatch = Stopwatch.createStarted();
+		private final int invoiceCountAtStart;
+		private long maxUsedHeapBytes = 0;
+
+		private GenerateInvoicesStats(final int invoiceCountAtStart)
+		{
+			this.invoiceCountAtStart = invoiceCountAtStart;
+		}
+
+		public static GenerateInvoicesStats start(@NonNull final IInvoiceGenerateResult collector)
+		{
+			final GenerateInvoicesStats stats = new GenerateInvoicesStats(collector.getInvoiceCount());
+			stats.sampleUsedHeap();
+			return stats;
+		}
+
+		/**
+		 * Remembers the currently used heap, if it's the highest so far. We sample it when the most candidates are aggregated in memory, i.e. right before the invoices are created.
+		 */
+		public void sampleUsedHeap()
+		{
+			final Runtime runtime = Runtime.getRuntime();
+			maxUsedHeapBytes = Math.max(maxUsedHeapBytes, runtime.totalMemory() - runtime.freeMemory());
+		}
+
+		public String stop(@NonNull final IInvoiceGenerateResult collector)
+		{
+			stopwatch.stop();
+			sampleUsedHeap();
+
+			final int invoiceCount = collector.getInvoiceCount() - invoiceCountAtStart;
+			final long elapsedMillis = Math.max(1, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+			final long invoicesPerMinute = invoiceCount * 60_000L / elapsedMillis;
+
+			return "Generated " + invoiceCount + " invoices in " + stopwatch + " (" + invoicesPerMinute + " invoices/minute); max. used heap: " + (maxUsedHeapBytes / (1024 * 1024)) + "MB";
+		}
+	}
 }
@@ -0,0 +1,180 @@
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.invoicecandidate.api.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Maps;
+import de.metas.inout.IInOutDAO;
+import de.metas.interfaces.I_C_OrderLine;
+import de.metas.invoicecandidate.InvoiceCandidateId;
+import de.metas.invoicecandidate.api.IInvoiceCandDAO;
+import de.metas.invoicecandidate.model.I_C_InvoiceCandidate_InOutLine;
+import de.metas.invoicecandidate.model.I_C_Invoice_Candidate;
+import de.metas.invoicecandidate.model.I_M_InOutLine;
+import de.metas.order.IOrderDAO;
+import de.metas.order.OrderLineId;
+import de.metas.util.Check;
+import de.metas.util.Services;
+import lombok.NonNull;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
+
+import javax.annotation.Nullable;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Loads the order lines, the shipment/receipt lines and the {@link I_C_InvoiceCandidate_InOutLine} records for many invoice candidates at once,
+ * so that {@link InvoiceCandInvalidUpdater} doesn't need to run those queries for each single invoice candidate.
+ * <p>
+ * The candidates are registered batch-wise while they are read (see {@link #prefetchingIterator(Iterator)}),
+ * but the data of a batch is only loaded when it's first requested, i.e. within the transaction of the chunk which is updating those candidates.
+ * If it's requested within another transaction, the data is loaded again.
+ */
+/* package */final class InvoiceCandInOutLinesPrefetcher
+{
+	private final IInOutDAO inOutDAO = Services.get(IInOutDAO.class);
+	private final IInvoiceCandDAO invoiceCandDAO = Services.get(IInvoiceCandDAO.class);
+	private final IOrderDAO orderDAO = Services.get(IOrderDAO.class);
+	private final ITrxManager trxManager = Services.get(ITrxManager.class);
+
+	private final int batchSize;
+
+	private ImmutableList<I_C_Invoice_Candidate> currentBatch = ImmutableList.of();
+
+	private String loadedTrxName = null;
+	private ImmutableSet<InvoiceCandidateId> loadedInvoiceCandidateIds = ImmutableSet.of();
+	private ImmutableMap<OrderLineId, I_C_OrderLine> orderLinesById = ImmutableMap.of();
+	private ImmutableListMultimap<OrderLineId, I_M_InOutLine> inoutLinesByOrderLineId = ImmutableListMultimap.of();
+	private ImmutableListMultimap<InvoiceCandidateId, I_C_InvoiceCandidate_InOutLine> iciolsByInvoiceCandidateId = ImmutableListMultimap.of();
+
+	InvoiceCandInOutLinesPrefetcher(final int batchSize)
+	{
+		Check.assumeGreaterThanZero(batchSize, "batchSize");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * @return an iterator which returns the same candidates as the given one, but reads them batch-wise and remembers the current batch for prefetching.
+	 */
+	public Iterator<I_C_Invoice_Candidate> prefetchingIterator(@NonNull final Iterator<I_C_Invoice_Candidate> candidates)
+	{
+		return Iterators.concat(Iterators.transform(Iterators.partition(candidates, batchSize), this::setCurrentBatch));
+	}
+
+	private Iterator<I_C_Invoice_Candidate> setCurrentBatch(@NonNull final List<I_C_Invoice_Candidate> batch)
+	{
+		currentBatch = ImmutableList.copyOf(batch);
+		return currentBatch.iterator();
+	}
+
+	/**
+	 * Same as {@link I_C_Invoice_Candidate#getC_OrderLine()}.
+	 * <p>
+	 * The order line is also set to the given candidate, so that the invoice candidate handlers (including their price calculation),
+	 * which are calling {@code getC_OrderLine()} on their own, don't load it again.
+	 */
+	@Nullable
+	public org.compiere.model.I_C_OrderLine getOrderLine(@NonNull final I_C_Invoice_Candidate ic)
+	{
+		final OrderLineId orderLineId = OrderLineId.ofRepoIdOrNull(ic.getC_OrderLine_ID());
+		if (orderLineId == null)
+		{
+			return null;
+		}
+
+		loadIfNeeded(ic);
+		final org.compiere.model.I_C_OrderLine orderLine = orderLinesById.get(orderLineId);
+		if (orderLine == null)
+		{
+			return ic.getC_OrderLine();
+		}
+
+		ic.setC_OrderLine(orderLine);
+		return orderLine;
+	}
+
+	/**
+	 * Same as {@link IInOutDAO#retrieveLinesForOrderLine(org.compiere.model.I_C_OrderLine, Class)}.
+	 */
+	public List<I_M_InOutLine> getInOutLines(@NonNull final I_C_Invoice_Candidate ic, @NonNull final OrderLineId orderLineId)
+	{
+		loadIfNeeded(ic);
+		return inoutLinesByOrderLineId.get(orderLineId);
+	}
+
+	/**
+	 * Same as {@link IInvoiceCandDAO#retrieveICIOLForInvoiceCandidate(I_C_Invoice_Candidate)}.
+	 */
+	public List<I_C_InvoiceCandidate_InOutLine> getICIOLs(@NonNull final I_C_Invoice_Candidate ic)
+	{
+		loadIfNeeded(ic);
+		return iciolsByInvoiceCandidateId.get(InvoiceCandidateId.ofRepoId(ic.getC_Invoice_Candidate_ID()));
+	}
+
+	/**
+	 * Same as {@link IInvoiceCandDAO#retrieveInvoiceCandidateInOutLine(I_C_Invoice_Candidate, org.compiere.model.I_M_InOutLine)}.
+	 */
+	@Nullable
+	public I_C_InvoiceCandidate_InOutLine getICIOL(@NonNull final I_C_Invoice_Candidate ic, @NonNull final org.compiere.model.I_M_InOutLine inoutLine)
+	{
+		return getICIOLs(ic)
+				.stream()
+				.filter(iciol -> iciol.getM_InOutLine_ID() == inoutLine.getM_InOutLine_ID())
+				.findFirst()
+				.orElse(null);
+	}
+
+	private void loadIfNeeded(@NonNull final I_C_Invoice_Candidate ic)
+	{
+		final InvoiceCandidateId invoiceCandidateId = InvoiceCandidateId.ofRepoId(ic.getC_Invoice_Candidate_ID());
+		final String trxName = trxManager.getThreadInheritedTrxName(OnTrxMissingPolicy.ReturnTrxNone);
+		if (loadedInvoiceCandidateIds.contains(invoiceCandidateId) && Objects.equals(loadedTrxName, trxName))
+		{
+			return;
+		}
+
+		final ImmutableList<I_C_Invoice_Candidate> candidatesToLoad = currentBatch.stream().anyMatch(candidate -> candidate.getC_Invoice_Candidate_ID() == invoiceCandidateId.getRepoId())
+				? currentBatch
+				: ImmutableList.of(ic);
+
+		loadedInvoiceCandidateIds = candidatesToLoad.stream()
+				.map(candidate -> InvoiceCandidateId.ofRepoId(candidate.getC_Invoice_Candidate_ID()))
+				.collect(ImmutableSet.toImmutableSet());
+
+		final ImmutableSet<OrderLineId> orderLineIds = candidatesToLoad.stream()
+				.map(candidate -> OrderLineId.ofRepoIdOrNull(candidate.getC_OrderLine_ID()))
+				.filter(Objects::nonNull)
+				.collect(ImmutableSet.toImmutableSet());
+
+		orderLinesById = Maps.uniqueIndex(orderDAO.retrieveOrderLinesByIds(orderLineIds), orderLine -> OrderLineId.ofRepoId(orderLine.getC_OrderLine_ID()));
+		inoutLinesByOrderLineId = inOutDAO.retrieveLinesByOrderLineIds(orderLineIds, I_M_InOutLine.class);
+		iciolsByInvoiceCandidateId = invoiceCandDAO.retrieveICIOLsByInvoiceCandidateIds(loadedInvoiceCandidateIds);
+		loadedTrxName = trxName;
+	}
+}
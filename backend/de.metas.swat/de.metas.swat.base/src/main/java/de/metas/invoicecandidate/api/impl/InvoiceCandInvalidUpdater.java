@@ -43,6 +43,7 @@ import de.metas.invoicecandidate.spi.IInvoiceCandidateHandler.PriceAndTax;
 import de.metas.lock.api.ILock;
 import de.metas.logging.LogManager;
 import de.metas.logging.TableRecordMDC;
+import de.metas.order.OrderLineId;
 import de.metas.tax.api.TaxId;
 import de.metas.util.Check;
 import de.metas.util.Loggables;
@@ -92,6 +93,11 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 	private static final String SYSCONFIG_ItemsPerBatch = "de.metas.invoicecandidate.api.impl.InvoiceCandInvalidUpdater.ItemsPerBatch";
 	private static final int DEFAULT_ItemsPerBatch = 100;
 
+	/**
+	 * Max. number of invoice candidates for which we load the shipment/receipt lines and C_InvoiceCandidate_InOutLines at once.
+	 */
+	private static final int MAX_PrefetchBatchSize = 500;
+
 	//
 	// Parameters
 	private Properties _ctx;
@@ -161,7 +167,8 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 
 		//
 		// Fetch the invoice candidates to update
-		final Iterator<I_C_Invoice_Candidate> candidatesToUpdate = icTagger.retrieveInvoiceCandidates();
+		final InvoiceCandInOutLinesPrefetcher inoutLinesPrefetcher = new InvoiceCandInOutLinesPrefetcher(Math.min(itemsPerBatch, MAX_PrefetchBatchSize));
+		final Iterator<I_C_Invoice_Candidate> candidatesToUpdate = inoutLinesPrefetcher.prefetchingIterator(icTagger.retrieveInvoiceCandidates());
 		if (!candidatesToUpdate.hasNext())
 		{
 			// no candidates found => nothing to do
@@ -201,7 +208,7 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 
 								chunkInvoiceCandidateIds.add(icRecord.getC_Invoice_Candidate_ID());
 
-								updateInvalid(icRecord);
+								updateInvalid(icRecord, inoutLinesPrefetcher);
 								if (!icRecord.isError())
 								{
 									logger.debug("Updated invoice candidate");
@@ -293,10 +300,15 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 
 	}
 
-	private void updateInvalid(@NonNull final I_C_Invoice_Candidate icRecord)
+	private void updateInvalid(
+			@NonNull final I_C_Invoice_Candidate icRecord,
+			@NonNull final InvoiceCandInOutLinesPrefetcher inoutLinesPrefetcher)
 	{
 		final Properties ctx = InterfaceWrapperHelper.getCtx(icRecord);
 
+		// load it together with the other candidates' order lines; this also spares the handlers from loading it again
+		final org.compiere.model.I_C_OrderLine orderLine = inoutLinesPrefetcher.getOrderLine(icRecord);
+
 		// reset scheduler result
 		icRecord.setSchedulerResult(null);
 		invoiceCandBL.resetError(icRecord);
@@ -327,7 +339,7 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 		// Note: the code originally related to task 06502 has partially been moved to de.metas.invoicecandidate.modelvalidator.M_InoutLine
 		// we'll need those icIols to be up to date to date in order to have QtyWithIssues (updateQtyWithIssues() et al. further down),
 		// and we need them (depending on which handler) for setDeliveredData()
-		populateC_InvoiceCandidate_InOutLine(icRecord, icRecord.getC_OrderLine());
+		populateC_InvoiceCandidate_InOutLine(icRecord, orderLine, inoutLinesPrefetcher);
 
 		// Update 'QtyToInvoice_OverrideFulfilled'
 		// If is turns out that the fulfillment is now sufficient,
@@ -371,10 +383,9 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 		invoiceCandBL.set_QtyInvoiced_NetAmtInvoiced_Aggregation0(ctx, icRecord);
 
 		// 06539 add qty overdelivery to qty delivered
-		final org.compiere.model.I_C_OrderLine ol = icRecord.getC_OrderLine();
-		if (ol != null)
+		if (orderLine != null)
 		{
-			icRecord.setQtyOrderedOverUnder(ol.getQtyOrderedOverUnder());
+			icRecord.setQtyOrderedOverUnder(orderLine.getQtyOrderedOverUnder());
 		}
 
 		// we'll need both qtyToInvoice/qtyToInvoiceInPriceUOM and priceActual to compute the netAmtToInvoice further down
@@ -410,11 +421,12 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 	 */
 	private void populateC_InvoiceCandidate_InOutLine(
 			@NonNull final I_C_Invoice_Candidate ic,
-			@Nullable final org.compiere.model.I_C_OrderLine orderLine)
+			@Nullable final org.compiere.model.I_C_OrderLine orderLine,
+			@NonNull final InvoiceCandInOutLinesPrefetcher inoutLinesPrefetcher)
 	{
 		if (orderLine == null)
 		{
-			final ImmutableList<I_C_InvoiceCandidate_InOutLine> iciols = invoiceCandDAO.retrieveICIOLForInvoiceCandidate(ic);
+			final List<I_C_InvoiceCandidate_InOutLine> iciols = inoutLinesPrefetcher.getICIOLs(ic);
 
 			Loggables.withLogger(logger, Level.DEBUG)
 					.addLog(MessageFormat.format("Populate icIols_IDs={0} for C_Invoice_Candidate_ID={1}",
@@ -435,23 +447,35 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 
 		final IContextAware context = InterfaceWrapperHelper.getContextAware(ic);
 
-		final List<I_M_InOutLine> inoutLines = inOutDAO.retrieveLinesForOrderLine(orderLine, I_M_InOutLine.class);
+		final List<I_M_InOutLine> inoutLines = inoutLinesPrefetcher.getInOutLines(ic, OrderLineId.ofRepoId(orderLine.getC_OrderLine_ID()));
+		final ArrayList<I_C_InvoiceCandidate_InOutLine> iciolsToUpdate = new ArrayList<>();
+		final ArrayList<I_C_InvoiceCandidate_InOutLine> iciolsToCreate = new ArrayList<>();
 		for (final I_M_InOutLine inOutLine : inoutLines)
 		{
 			// create a new PO or update the unique existing one
-			I_C_InvoiceCandidate_InOutLine iciol = invoiceCandDAO.retrieveInvoiceCandidateInOutLine(ic, inOutLine);
+			I_C_InvoiceCandidate_InOutLine iciol = inoutLinesPrefetcher.getICIOL(ic, inOutLine);
 			if (iciol == null)
 			{
 				iciol = newInstance(I_C_InvoiceCandidate_InOutLine.class, context);
 				iciol.setC_Invoice_Candidate(ic);
+				iciolsToCreate.add(iciol);
+			}
+			else
+			{
+				iciolsToUpdate.add(iciol);
 			}
 
 			Loggables.withLogger(logger, Level.DEBUG)
 					.addLog(MessageFormat.format("Populate icIols_IDs={0} for C_Invoice_Candidate_ID={1}",
 												 iciol.getC_InvoiceCandidate_InOutLine_ID()), ic.getC_Invoice_Candidate_ID());
 
-			Services.get(IInvoiceCandBL.class).updateICIOLAssociationFromIOL(iciol, inOutLine);
+			invoiceCandBL.setICIOLAssociationFromIOL(iciol, inOutLine);
 		}
+
+		// Save the associations before we go on, because the delivered data is loaded from them.
+		// The new ones are inserted together, using one JDBC batch where possible.
+		InterfaceWrapperHelper.saveAll(iciolsToUpdate);
+		InterfaceWrapperHelper.saveAll(iciolsToCreate);
 	}
 
 	private void assertNotExecuted()
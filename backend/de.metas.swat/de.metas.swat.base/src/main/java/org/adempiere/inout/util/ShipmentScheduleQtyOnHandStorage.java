@@ -3,8 +3,10 @@ package org.adempiere.inout.util;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Multimaps;
 import de.metas.inoutcandidate.api.IShipmentScheduleEffectiveBL;
 import de.metas.inoutcandidate.model.I_M_ShipmentSchedule;
 import de.metas.logging.TableRecordMDC;
@@ -52,6 +54,10 @@ public class ShipmentScheduleQtyOnHandStorage implements IShipmentScheduleQtyOnH
 	private final IPPOrderBL ppOrdersBL = Services.get(IPPOrderBL.class);
 
 	private final ImmutableList<ShipmentScheduleAvailableStockDetail> stockDetails;
+	/**
+	 * Same as {@link #stockDetails}, indexed by product, so we don't have to scan all of them for each shipment schedule.
+	 */
+	private final ImmutableListMultimap<ProductId, ShipmentScheduleAvailableStockDetail> stockDetailsByProductId;
 	private final Map<ArrayKey, StockDataQuery> cachedMaterialQueries = new HashMap<>();
 	private final Map<PPOrderId, Optional<QtyCalculationsBOM>> cachedPickingBOMs = new HashMap<>();
 
@@ -60,12 +66,14 @@ public class ShipmentScheduleQtyOnHandStorage implements IShipmentScheduleQtyOnH
 			@NonNull final StockRepository stockRepository)
 	{
 		this.stockDetails = toStockDetails(shipmentSchedules, stockRepository);
+		this.stockDetailsByProductId = Multimaps.index(this.stockDetails, ShipmentScheduleAvailableStockDetail::getProductId);
 	}
 
 	@VisibleForTesting
 	ShipmentScheduleQtyOnHandStorage(@NonNull final List<ShipmentScheduleAvailableStockDetail> stockDetails)
 	{
 		this.stockDetails = ImmutableList.copyOf(stockDetails);
+		this.stockDetailsByProductId = Multimaps.index(this.stockDetails, ShipmentScheduleAvailableStockDetail::getProductId);
 	}
 
 	private ImmutableList<ShipmentScheduleAvailableStockDetail> toStockDetails(
@@ -283,7 +291,7 @@ public class ShipmentScheduleQtyOnHandStorage implements IShipmentScheduleQtyOnH
 
 	private ImmutableList<ShipmentScheduleAvailableStockDetail> getStockDetailsMatching(@NonNull final StockDataQuery query)
 	{
-		return stockDetails
+		return stockDetailsByProductId.get(query.getProductId())
 				.stream()
 				.filter(stockDetail -> matching(query, stockDetail))
 				.collect(ImmutableList.toImmutableList());
@@ -2,11 +2,18 @@ package de.metas.inoutcandidate.api.impl;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.math.BigDecimal;
+
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_M_InOutLine;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.inout.ShipmentScheduleId;
 import de.metas.inoutcandidate.api.IShipmentScheduleAllocDAO;
 import de.metas.inoutcandidate.model.I_M_ShipmentSchedule;
 import de.metas.inoutcandidate.model.I_M_ShipmentSchedule_QtyPicked;
@@ -61,6 +68,56 @@ public class ShipmentScheduleAllocDAOTest
 				.containsExactly(qp2, qp4);
 	}
 
+	/**
+	 * Makes sure that the bulk methods return the same quantities as their single-schedule counterparts.
+	 */
+	@Test
+	public void test_retrieveQtysByScheduleIds()
+	{
+		final I_M_InOutLine processedLine1 = createInOutLine("7", true);
+		final I_M_InOutLine processedLine2 = createInOutLine("3", true);
+		final I_M_InOutLine draftLine = createInOutLine("100", false);
+
+		final I_M_ShipmentSchedule ss1 = createShipmentSchedule();
+		createShipmentScheduleQtyPickedRecord(ss1, processedLine1.getM_InOutLine_ID());
+		createShipmentScheduleQtyPickedRecord(ss1, processedLine1.getM_InOutLine_ID()); // same shipment line shall be counted only once
+		createShipmentScheduleQtyPickedRecord(ss1, processedLine2.getM_InOutLine_ID());
+		createShipmentScheduleQtyPickedRecord(ss1, draftLine.getM_InOutLine_ID());
+		createShipmentScheduleQtyPickedRecord(ss1, 0, "5");
+
+		final I_M_ShipmentSchedule ss2 = createShipmentSchedule();
+		createShipmentScheduleQtyPickedRecord(ss2, 0, "2");
+		createShipmentScheduleQtyPickedRecord(ss2, 0, "4");
+
+		final I_M_ShipmentSchedule ss3 = createShipmentSchedule();
+
+		final ShipmentScheduleId ss1Id = ShipmentScheduleId.ofRepoId(ss1.getM_ShipmentSchedule_ID());
+		final ShipmentScheduleId ss2Id = ShipmentScheduleId.ofRepoId(ss2.getM_ShipmentSchedule_ID());
+		final ShipmentScheduleId ss3Id = ShipmentScheduleId.ofRepoId(ss3.getM_ShipmentSchedule_ID());
+		final ImmutableSet<ShipmentScheduleId> scheduleIds = ImmutableSet.of(ss1Id, ss2Id, ss3Id);
+
+		final ImmutableMap<ShipmentScheduleId, BigDecimal> qtyDelivered = dao.retrieveQtyDeliveredByScheduleIds(scheduleIds);
+		assertThat(qtyDelivered).containsOnlyKeys(scheduleIds);
+		assertThat(qtyDelivered.get(ss1Id)).isEqualByComparingTo(dao.retrieveQtyDelivered(ss1)).isEqualByComparingTo("10");
+		assertThat(qtyDelivered.get(ss2Id)).isEqualByComparingTo(dao.retrieveQtyDelivered(ss2)).isZero();
+		assertThat(qtyDelivered.get(ss3Id)).isEqualByComparingTo(dao.retrieveQtyDelivered(ss3)).isZero();
+
+		final ImmutableMap<ShipmentScheduleId, BigDecimal> qtyPicked = dao.retrieveQtyPickedAndUnconfirmedByScheduleIds(scheduleIds);
+		assertThat(qtyPicked).containsOnlyKeys(scheduleIds);
+		assertThat(qtyPicked.get(ss1Id)).isEqualByComparingTo(dao.retrieveQtyPickedAndUnconfirmed(ss1));
+		assertThat(qtyPicked.get(ss2Id)).isEqualByComparingTo(dao.retrieveQtyPickedAndUnconfirmed(ss2)).isEqualByComparingTo("6");
+		assertThat(qtyPicked.get(ss3Id)).isEqualByComparingTo(dao.retrieveQtyPickedAndUnconfirmed(ss3)).isZero();
+	}
+
+	private final I_M_InOutLine createInOutLine(final String movementQty, final boolean processed)
+	{
+		final I_M_InOutLine inoutLine = InterfaceWrapperHelper.newInstance(I_M_InOutLine.class);
+		inoutLine.setMovementQty(new BigDecimal(movementQty));
+		inoutLine.setProcessed(processed);
+		InterfaceWrapperHelper.saveRecord(inoutLine);
+		return inoutLine;
+	}
+
 	private final I_M_ShipmentSchedule createShipmentSchedule()
 	{
 		final I_M_ShipmentSchedule sched = InterfaceWrapperHelper.newInstance(I_M_ShipmentSchedule.class);
@@ -69,10 +126,16 @@ public class ShipmentScheduleAllocDAOTest
 	}
 
 	private final I_M_ShipmentSchedule_QtyPicked createShipmentScheduleQtyPickedRecord(final I_M_ShipmentSchedule ss, final int inoutLineId)
+	{
+		return createShipmentScheduleQtyPickedRecord(ss, inoutLineId, "1");
+	}
+
+	private final I_M_ShipmentSchedule_QtyPicked createShipmentScheduleQtyPickedRecord(final I_M_ShipmentSchedule ss, final int inoutLineId, final String qtyPicked)
 	{
 		final I_M_ShipmentSchedule_QtyPicked record = InterfaceWrapperHelper.newInstance(I_M_ShipmentSchedule_QtyPicked.class);
 		record.setM_ShipmentSchedule_ID(ss.getM_ShipmentSchedule_ID());
 		record.setM_InOutLine_ID(inoutLineId);
+		record.setQtyPicked(new BigDecimal(qtyPicked));
 		InterfaceWrapperHelper.saveRecord(record);
 		return record;
 	}
@@ -0,0 +1,210 @@
+package de.metas.inoutcandidate.api.impl;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import de.metas.bpartner.service.IBPartnerBL;
+import de.metas.bpartner.service.impl.BPartnerBL;
+import de.metas.document.location.IDocumentLocationBL;
+import de.metas.document.location.impl.DocumentLocationBL;
+import de.metas.greeting.GreetingRepository;
+import de.metas.inoutcandidate.api.IDeliverRequest;
+import de.metas.inoutcandidate.api.IShipmentScheduleHandlerBL;
+import de.metas.inoutcandidate.api.OlAndSched;
+import de.metas.inoutcandidate.api.impl.shipmentschedule_test_specs.OrderLineSpec;
+import de.metas.inoutcandidate.api.impl.shipmentschedule_test_specs.OrderSpec;
+import de.metas.inoutcandidate.api.impl.shipmentschedule_test_specs.ProductSpec;
+import de.metas.inoutcandidate.api.impl.shipmentschedule_test_specs.ShipmentScheduleSpec;
+import de.metas.inoutcandidate.api.impl.shipmentschedule_test_specs.StockSpec;
+import de.metas.inoutcandidate.api.impl.shipmentschedule_test_specs.TestSetupSpec;
+import de.metas.inoutcandidate.api.impl.shipmentschedule_test_specs.TestSetupSpecHelper;
+import de.metas.inoutcandidate.api.impl.shipmentschedule_test_specs.UomSpec;
+import de.metas.inoutcandidate.model.I_M_ShipmentSchedule;
+import de.metas.inoutcandidate.spi.ShipmentScheduleHandler;
+import de.metas.logging.LogManager;
+import de.metas.order.DeliveryRule;
+import de.metas.user.UserRepository;
+import de.metas.util.Services;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.SpringContextHolder;
+import org.compiere.model.I_C_BPartner_Location;
+import org.compiere.model.I_C_OrderLine;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static org.adempiere.model.InterfaceWrapperHelper.load;
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Benchmark fixture for {@link ShipmentScheduleUpdater#updateSchedules(java.util.Properties, java.util.List)}, i.e. the production path
+ * which prefetches the delivered and picked quantities of all schedules and then runs both {@code generate} passes.
+ * Creates many shipment schedules over many stocked products and logs how many schedules per second were processed.
+ * <p>
+ * Not run as part of the build; remove the {@link Disabled} annotation to run it locally and tune the constants as needed.
+ */
+@Disabled("benchmark; run manually")
+public class ShipmentScheduleUpdater_generate_ManualTest
+{
+	private static final Logger logger = LogManager.getLogger(ShipmentScheduleUpdater_generate_ManualTest.class);
+
+	private static final int PRODUCTS_COUNT = 500;
+	private static final int ORDERS_COUNT = 100;
+	private static final int RUNS_COUNT = 5;
+
+	private ShipmentScheduleUpdater shipmentScheduleUpdater;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		final BPartnerBL bpartnerBL = new BPartnerBL(new UserRepository());
+		Services.registerService(IBPartnerBL.class, bpartnerBL);
+		SpringContextHolder.registerJUnitBean(IDocumentLocationBL.class, new DocumentLocationBL(bpartnerBL));
+		SpringContextHolder.registerJUnitBean(new GreetingRepository());
+		Services.get(IShipmentScheduleHandlerBL.class).registerHandler(new MinimalOrderLineHandler());
+
+		this.shipmentScheduleUpdater = ShipmentScheduleUpdater.newInstanceForUnitTesting();
+	}
+
+	@Test
+	public void updateSchedules()
+	{
+		final ImmutableList<OlAndSched> olAndScheds = TestSetupSpecHelper.setup(createSpec());
+		assertThat(olAndScheds).hasSize(PRODUCTS_COUNT * ORDERS_COUNT);
+
+		for (int run = 1; run <= RUNS_COUNT; run++)
+		{
+			final Stopwatch stopwatch = Stopwatch.createStarted();
+			shipmentScheduleUpdater.updateSchedules(Env.getCtx(), olAndScheds);
+			stopwatch.stop();
+
+			final long millis = Math.max(1, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+			logger.info("Run {}: {} schedules in {} => {} schedules/second",
+					run, olAndScheds.size(), stopwatch, olAndScheds.size() * 1000L / millis);
+		}
+	}
+
+	private static TestSetupSpec createSpec()
+	{
+		final TestSetupSpec.TestSetupSpecBuilder spec = TestSetupSpec.builder()
+				.uom(UomSpec.builder().name("stockUom").build());
+
+		for (int productNo = 1; productNo <= PRODUCTS_COUNT; productNo++)
+		{
+			final String product = "prod" + productNo;
+			spec.product(ProductSpec.builder().value(product).uomValue("stockUom").stocked(true).build())
+					.stock(StockSpec.builder().product(product).qtyStock(BigDecimal.valueOf(ORDERS_COUNT * 5)).build());
+		}
+
+		for (int orderNo = 1; orderNo <= ORDERS_COUNT; orderNo++)
+		{
+			final String order = "order" + orderNo;
+			spec.order(OrderSpec.builder().value(order).build());
+
+			for (int productNo = 1; productNo <= PRODUCTS_COUNT; productNo++)
+			{
+				final String product = "prod" + productNo;
+				final String orderLine = order + "_" + product;
+				spec.orderLine(OrderLineSpec.builder().value(orderLine).order(order).product(product).qtyOrdered(BigDecimal.TEN).build())
+						.shipmentSchedule(ShipmentScheduleSpec.builder().product(product).order(order).orderLine(orderLine)
+								.qtyOrdered(BigDecimal.TEN)
+								.deliveryRule(DeliveryRule.AVAILABILITY)
+								.build());
+			}
+		}
+
+		return spec.build();
+	}
+
+	/**
+	 * The schedules created by {@link TestSetupSpecHelper} already have what the real order line handler would take from their orders and order lines,
+	 * except for the partner location, the bill partner and the calculated ordered quantity.
+	 */
+	private static class MinimalOrderLineHandler extends ShipmentScheduleHandler
+	{
+		private final HashMap<Integer, I_C_BPartner_Location> bpartnerLocationsByBPartnerId = new HashMap<>();
+
+		@Override
+		public Iterator<?> retrieveModelsWithMissingCandidates(final Properties ctx, final String trxName)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public List<I_M_ShipmentSchedule> createCandidatesFor(final Object model)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void updateShipmentScheduleFromReferencedRecord(final I_M_ShipmentSchedule shipmentSchedule)
+		{
+			final I_C_BPartner_Location bpartnerLocation = bpartnerLocationsByBPartnerId.computeIfAbsent(shipmentSchedule.getC_BPartner_ID(), MinimalOrderLineHandler::createBPartnerLocation);
+			shipmentSchedule.setC_BPartner_Location_ID(bpartnerLocation.getC_BPartner_Location_ID());
+			shipmentSchedule.setBill_BPartner_ID(bpartnerLocation.getC_BPartner_ID());
+			shipmentSchedule.setBill_Location_ID(bpartnerLocation.getC_BPartner_Location_ID());
+
+			final I_C_OrderLine orderLine = load(shipmentSchedule.getC_OrderLine_ID(), I_C_OrderLine.class);
+			shipmentSchedule.setQtyOrdered_Calculated(orderLine.getQtyOrdered());
+		}
+
+		private static I_C_BPartner_Location createBPartnerLocation(final int bpartnerId)
+		{
+			final I_C_BPartner_Location bpartnerLocation = newInstance(I_C_BPartner_Location.class);
+			bpartnerLocation.setC_BPartner_ID(bpartnerId);
+			saveRecord(bpartnerLocation);
+			return bpartnerLocation;
+		}
+
+		@Override
+		public void invalidateCandidatesFor(final Object model)
+		{
+		}
+
+		@Override
+		public String getSourceTable()
+		{
+			return I_C_OrderLine.Table_Name;
+		}
+
+		@Override
+		public IDeliverRequest createDeliverRequest(final I_M_ShipmentSchedule sched, final I_C_OrderLine salesOrderLine)
+		{
+			return salesOrderLine::getQtyOrdered;
+		}
+	}
+}
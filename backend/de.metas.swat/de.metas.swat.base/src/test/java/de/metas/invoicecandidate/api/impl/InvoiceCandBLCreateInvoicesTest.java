@@ -23,6 +23,8 @@ package de.metas.invoicecandidate.api.impl;
  */
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterators;
 import de.metas.adempiere.model.I_C_InvoiceLine;
 import de.metas.bpartner.BPartnerLocationId;
@@ -78,10 +80,15 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 import static org.adempiere.model.InterfaceWrapperHelper.save;
 import static org.assertj.core.api.Assertions.*;
@@ -154,6 +161,24 @@ public class InvoiceCandBLCreateInvoicesTest
 		}
 	}
 
+	/**
+	 * {@link MockedDummyInvoiceGenerator} which also remembers the candidates of each invoice it was asked to generate.
+	 */
+	public static class RecordingInvoiceGenerator extends MockedDummyInvoiceGenerator
+	{
+		private static final List<Set<Integer>> invoiceCandidateIdsPerInvoice = new ArrayList<>();
+
+		@Override
+		public void init(final Properties ctx, final IInvoiceHeader header)
+		{
+			super.init(ctx, header);
+			invoiceCandidateIdsPerInvoice.add(header.getAllInvoiceCandidates()
+					.stream()
+					.map(I_C_Invoice_Candidate::getC_Invoice_Candidate_ID)
+					.collect(ImmutableSet.toImmutableSet()));
+		}
+	}
+
 	@BeforeEach
 	public void init()
 	{
@@ -174,6 +199,8 @@ SpringContextHolder.registerJUnitBean(new DocTypeInvoicingPoolService(new DocTyp
 		SpringContextHolder.registerJUnitBean(new MoneyService(new CurrencyRepository()));
 		SpringContextHolder.registerJUnitBean(new InvoiceCandidateRecordService());
 		SpringContextHolder.registerJUnitBean(new GreetingRepository());
+
+		RecordingInvoiceGenerator.invoiceCandidateIdsPerInvoice.clear();
 	}
 
 	/**
@@ -507,4 +534,105 @@ SpringContextHolder.registerJUnitBean(new DocTypeInvoicingPoolService(new DocTyp
 		assertThat(invoiceLineDimension).usingRecursiveComparison().isEqualTo(invoiceCandidateDimension);
 		assertThat(invoiceLineDimension).isEqualTo(invoiceCandidateDimension);
 	}
+
+	@Test
+	public void test_candidatesOrderedByHeaderAggregationKey_invoicesAreCreatedOnKeyChange()
+	{
+		final List<I_C_Invoice_Candidate> invoiceCandidates = createTwoCandidatesForEachOfTwoBPartners();
+		final IInvoiceGenerateResult result = invoiceCandBL.createInvoiceGenerateResult(true); // shallStoreInvoices=true
+		final Map<Integer, Integer> invoiceCountWhenRead = new HashMap<>();
+
+		invoiceCandBLCreateInvoices.setInvoiceGeneratorClass(RecordingInvoiceGenerator.class);
+		invoiceCandBLCreateInvoices
+				.setContext(Env.getCtx(), ITrx.TRXNAME_ThreadInherited)
+				.setCollector(result)
+				.setIgnoreInvoiceSchedule(true)
+				.setCandidatesOrderedByHeaderAggregationKey(true)
+				.generateInvoices(recordInvoiceCountWhenRead(invoiceCandidates, result, invoiceCountWhenRead));
+
+		assertThat(result.getInvoiceCount()).as("invoice count for " + result).isEqualTo(2);
+
+		// the first bpartner's invoice was created when the second bpartner's first candidate was read, i.e. before reading its second one
+		assertThat(invoiceCountWhenRead).containsExactlyInAnyOrderEntriesOf(ImmutableMap.of(
+				invoiceCandidates.get(0).getC_Invoice_Candidate_ID(), 0,
+				invoiceCandidates.get(1).getC_Invoice_Candidate_ID(), 0,
+				invoiceCandidates.get(2).getC_Invoice_Candidate_ID(), 0,
+				invoiceCandidates.get(3).getC_Invoice_Candidate_ID(), 1));
+
+		assertOneInvoicePerBPartner(invoiceCandidates);
+	}
+
+	@Test
+	public void test_candidatesNotOrderedByHeaderAggregationKey_invoicesAreCreatedAfterReadingAll()
+	{
+		final List<I_C_Invoice_Candidate> invoiceCandidates = createTwoCandidatesForEachOfTwoBPartners();
+		final IInvoiceGenerateResult result = invoiceCandBL.createInvoiceGenerateResult(true); // shallStoreInvoices=true
+		final Map<Integer, Integer> invoiceCountWhenRead = new HashMap<>();
+
+		invoiceCandBLCreateInvoices.setInvoiceGeneratorClass(RecordingInvoiceGenerator.class);
+		invoiceCandBLCreateInvoices
+				.setContext(Env.getCtx(), ITrx.TRXNAME_ThreadInherited)
+				.setCollector(result)
+				.setIgnoreInvoiceSchedule(true)
+				.generateInvoices(recordInvoiceCountWhenRead(invoiceCandidates, result, invoiceCountWhenRead));
+
+		assertThat(result.getInvoiceCount()).as("invoice count for " + result).isEqualTo(2);
+		assertThat(invoiceCountWhenRead).hasSize(4).containsOnlyKeys(invoiceCandidates.stream().map(I_C_Invoice_Candidate::getC_Invoice_Candidate_ID).toArray(Integer[]::new));
+		assertThat(invoiceCountWhenRead.values()).containsOnly(0);
+
+		assertOneInvoicePerBPartner(invoiceCandidates);
+	}
+
+	/**
+	 * @return two candidates of one bpartner, followed by two candidates of another bpartner, i.e. ordered by header aggregation key
+	 */
+	private List<I_C_Invoice_Candidate> createTwoCandidatesForEachOfTwoBPartners()
+	{
+		final ImmutableList.Builder<I_C_Invoice_Candidate> invoiceCandidates = ImmutableList.builder();
+		for (final String bpartnerName : ImmutableList.of("test-bp1", "test-bp2"))
+		{
+			final I_C_BPartner bPartner = BusinessTestHelper.createBPartner(bpartnerName);
+			final I_C_BPartner_Location bPartnerLocation = BusinessTestHelper.createBPartnerLocation(bPartner);
+			final BPartnerLocationId billBPartnerAndLocationId = BPartnerLocationId.ofRepoId(bPartnerLocation.getC_BPartner_ID(), bPartnerLocation.getC_BPartner_Location_ID());
+
+			for (int i = 0; i < 2; i++)
+			{
+				invoiceCandidates.add(icTestSupport.createInvoiceCandidate()
+						.setBillBPartnerAndLocationId(billBPartnerAndLocationId)
+						.setPriceEntered(10)
+						.setQtyOrdered(3)
+						.setManual(false)
+						.setSOTrx(true)
+						.build());
+			}
+		}
+
+		final List<I_C_Invoice_Candidate> result = invoiceCandidates.build();
+		icTestSupport.updateInvalid(result);
+
+		assertThat(result.get(0).getHeaderAggregationKey())
+				.isEqualTo(result.get(1).getHeaderAggregationKey())
+				.isNotEqualTo(result.get(2).getHeaderAggregationKey());
+		assertThat(result.get(2).getHeaderAggregationKey()).isEqualTo(result.get(3).getHeaderAggregationKey());
+
+		return result;
+	}
+
+	private static Iterator<I_C_Invoice_Candidate> recordInvoiceCountWhenRead(
+			final List<I_C_Invoice_Candidate> invoiceCandidates,
+			final IInvoiceGenerateResult result,
+			final Map<Integer, Integer> invoiceCountWhenRead)
+	{
+		return Iterators.transform(invoiceCandidates.iterator(), ic -> {
+			invoiceCountWhenRead.put(ic.getC_Invoice_Candidate_ID(), result.getInvoiceCount());
+			return ic;
+		});
+	}
+
+	private static void assertOneInvoicePerBPartner(final List<I_C_Invoice_Candidate> invoiceCandidates)
+	{
+		assertThat(RecordingInvoiceGenerator.invoiceCandidateIdsPerInvoice).containsExactlyInAnyOrder(
+				ImmutableSet.of(invoiceCandidates.get(0).getC_Invoice_Candidate_ID(), invoiceCandidates.get(1).getC_Invoice_Candidate_ID()),
+				ImmutableSet.of(invoiceCandidates.get(2).getC_Invoice_Candidate_ID(), invoiceCandidates.get(3).getC_Invoice_Candidate_ID()));
+	}
 }
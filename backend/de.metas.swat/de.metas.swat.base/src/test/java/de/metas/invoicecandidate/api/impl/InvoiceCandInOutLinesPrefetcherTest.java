@@ -0,0 +1,217 @@
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.invoicecandidate.api.impl;
+
+import com.google.common.collect.ImmutableList;
+import de.metas.inout.IInOutDAO;
+import de.metas.invoicecandidate.api.IInvoiceCandDAO;
+import de.metas.invoicecandidate.model.I_C_InvoiceCandidate_InOutLine;
+import de.metas.invoicecandidate.model.I_C_Invoice_Candidate;
+import de.metas.invoicecandidate.model.I_M_InOutLine;
+import de.metas.order.IOrderDAO;
+import de.metas.order.OrderLineId;
+import de.metas.util.Services;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_C_OrderLine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.adempiere.model.InterfaceWrapperHelper.load;
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares what {@link InvoiceCandInOutLinesPrefetcher} returns with what {@link InvoiceCandInvalidUpdater} used to retrieve for each single invoice candidate.
+ */
+public class InvoiceCandInOutLinesPrefetcherTest
+{
+	private IInOutDAO inOutDAO;
+	private IInvoiceCandDAO invoiceCandDAO;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		inOutDAO = Services.get(IInOutDAO.class);
+		invoiceCandDAO = Services.get(IInvoiceCandDAO.class);
+	}
+
+	@Test
+	public void sameResultsAsSingleRecordQueries()
+	{
+		final I_C_OrderLine orderLine1 = createOrderLine();
+		final I_M_InOutLine iol11 = createInOutLine(orderLine1, true);
+		final I_M_InOutLine iol12 = createInOutLine(orderLine1, true);
+		createInOutLine(orderLine1, false);
+		final I_C_Invoice_Candidate ic1 = createInvoiceCandidate(orderLine1);
+		createICIOL(ic1, iol11, true);
+		createICIOL(ic1, iol12, false);
+
+		final I_C_OrderLine orderLine2 = createOrderLine();
+		final I_M_InOutLine iol21 = createInOutLine(orderLine2, true);
+		final I_C_Invoice_Candidate ic2 = createInvoiceCandidate(orderLine2);
+
+		final I_C_Invoice_Candidate ic3 = createInvoiceCandidate(null);
+		createICIOL(ic3, iol21, true);
+
+		final I_C_Invoice_Candidate ic4 = createInvoiceCandidate(orderLine2);
+		createICIOL(ic4, iol21, true);
+
+		final ImmutableList<I_C_Invoice_Candidate> ics = ImmutableList.of(ic1, ic2, ic3, ic4);
+
+		final InvoiceCandInOutLinesPrefetcher prefetcher = new InvoiceCandInOutLinesPrefetcher(3);
+		final ArrayList<I_C_Invoice_Candidate> iteratedICs = new ArrayList<>();
+		prefetcher.prefetchingIterator(ics.iterator())
+				.forEachRemaining(ic -> {
+					iteratedICs.add(ic);
+					assertSameAsSingleRecordQueries(prefetcher, ic);
+				});
+
+		assertThat(iteratedICs).containsExactlyElementsOf(ics);
+	}
+
+	/**
+	 * Counts the queries: the data of a whole batch is loaded using one query per table, no matter how many candidates are in the batch.
+	 */
+	@Test
+	public void oneQueryPerTableAndBatch()
+	{
+		final ArrayList<I_C_Invoice_Candidate> ics = new ArrayList<>();
+		for (int i = 0; i < 5; i++)
+		{
+			final I_C_OrderLine orderLine = createOrderLine();
+			final I_M_InOutLine iol = createInOutLine(orderLine, true);
+			final I_C_Invoice_Candidate ic = createInvoiceCandidate(orderLine);
+			createICIOL(ic, iol, true);
+			ics.add(ic);
+		}
+
+		final IInOutDAO inOutDAOSpy = Mockito.spy(inOutDAO);
+		Services.registerService(IInOutDAO.class, inOutDAOSpy);
+		final IInvoiceCandDAO invoiceCandDAOSpy = Mockito.spy(invoiceCandDAO);
+		Services.registerService(IInvoiceCandDAO.class, invoiceCandDAOSpy);
+		final IOrderDAO orderDAOSpy = Mockito.spy(Services.get(IOrderDAO.class));
+		Services.registerService(IOrderDAO.class, orderDAOSpy);
+
+		final InvoiceCandInOutLinesPrefetcher prefetcher = new InvoiceCandInOutLinesPrefetcher(2);
+		prefetcher.prefetchingIterator(ics.iterator())
+				.forEachRemaining(ic -> {
+					final OrderLineId orderLineId = OrderLineId.ofRepoId(ic.getC_OrderLine_ID());
+					assertThat(prefetcher.getOrderLine(ic).getC_OrderLine_ID()).isEqualTo(orderLineId.getRepoId());
+					for (final I_M_InOutLine inoutLine : prefetcher.getInOutLines(ic, orderLineId))
+					{
+						assertThat(prefetcher.getICIOL(ic, inoutLine)).isNotNull();
+					}
+					assertThat(prefetcher.getICIOLs(ic)).hasSize(1);
+				});
+
+		// 5 candidates in batches of 2 => 3 batches
+		Mockito.verify(inOutDAOSpy, Mockito.times(3)).retrieveLinesByOrderLineIds(Mockito.anySet(), Mockito.eq(I_M_InOutLine.class));
+		Mockito.verify(invoiceCandDAOSpy, Mockito.times(3)).retrieveICIOLsByInvoiceCandidateIds(Mockito.anySet());
+		Mockito.verify(orderDAOSpy, Mockito.times(3)).retrieveOrderLinesByIds(Mockito.anySet());
+		Mockito.verify(inOutDAOSpy, Mockito.never()).retrieveLinesForOrderLine(Mockito.any(), Mockito.any());
+		Mockito.verify(invoiceCandDAOSpy, Mockito.never()).retrieveICIOLForInvoiceCandidate(Mockito.any());
+		Mockito.verify(invoiceCandDAOSpy, Mockito.never()).retrieveInvoiceCandidateInOutLine(Mockito.any(), Mockito.any());
+	}
+
+	private void assertSameAsSingleRecordQueries(final InvoiceCandInOutLinesPrefetcher prefetcher, final I_C_Invoice_Candidate ic)
+	{
+		assertThat(iciolIds(prefetcher.getICIOLs(ic)))
+				.containsExactlyInAnyOrderElementsOf(iciolIds(invoiceCandDAO.retrieveICIOLForInvoiceCandidate(ic)));
+
+		final OrderLineId orderLineId = OrderLineId.ofRepoIdOrNull(ic.getC_OrderLine_ID());
+		if (orderLineId == null)
+		{
+			assertThat(prefetcher.getOrderLine(ic)).isNull();
+			return;
+		}
+
+		assertThat(prefetcher.getOrderLine(ic).getC_OrderLine_ID()).isEqualTo(orderLineId.getRepoId());
+
+		final I_C_OrderLine orderLine = load(orderLineId, I_C_OrderLine.class);
+		final List<I_M_InOutLine> expectedInOutLines = inOutDAO.retrieveLinesForOrderLine(orderLine, I_M_InOutLine.class);
+		final List<I_M_InOutLine> inoutLines = prefetcher.getInOutLines(ic, orderLineId);
+		assertThat(inoutLines).extracting(I_M_InOutLine::getM_InOutLine_ID)
+				.containsExactlyElementsOf(expectedInOutLines.stream().map(I_M_InOutLine::getM_InOutLine_ID).collect(ImmutableList.toImmutableList()));
+
+		for (final I_M_InOutLine inoutLine : inoutLines)
+		{
+			final I_C_InvoiceCandidate_InOutLine expectedICIOL = invoiceCandDAO.retrieveInvoiceCandidateInOutLine(ic, inoutLine);
+			final I_C_InvoiceCandidate_InOutLine iciol = prefetcher.getICIOL(ic, inoutLine);
+			if (expectedICIOL == null)
+			{
+				assertThat(iciol).isNull();
+			}
+			else
+			{
+				assertThat(iciol.getC_InvoiceCandidate_InOutLine_ID()).isEqualTo(expectedICIOL.getC_InvoiceCandidate_InOutLine_ID());
+			}
+		}
+	}
+
+	private static ImmutableList<Integer> iciolIds(final List<I_C_InvoiceCandidate_InOutLine> iciols)
+	{
+		return iciols.stream().map(I_C_InvoiceCandidate_InOutLine::getC_InvoiceCandidate_InOutLine_ID).collect(ImmutableList.toImmutableList());
+	}
+
+	private I_C_OrderLine createOrderLine()
+	{
+		final I_C_OrderLine orderLine = newInstance(I_C_OrderLine.class);
+		saveRecord(orderLine);
+		return orderLine;
+	}
+
+	private I_M_InOutLine createInOutLine(final I_C_OrderLine orderLine, final boolean active)
+	{
+		final I_M_InOutLine inoutLine = newInstance(I_M_InOutLine.class);
+		inoutLine.setC_OrderLine_ID(orderLine.getC_OrderLine_ID());
+		inoutLine.setIsActive(active);
+		saveRecord(inoutLine);
+		return inoutLine;
+	}
+
+	private I_C_Invoice_Candidate createInvoiceCandidate(final I_C_OrderLine orderLine)
+	{
+		final I_C_Invoice_Candidate ic = newInstance(I_C_Invoice_Candidate.class);
+		if (orderLine != null)
+		{
+			ic.setC_OrderLine_ID(orderLine.getC_OrderLine_ID());
+		}
+		saveRecord(ic);
+		return ic;
+	}
+
+	private void createICIOL(final I_C_Invoice_Candidate ic, final I_M_InOutLine inoutLine, final boolean active)
+	{
+		final I_C_InvoiceCandidate_InOutLine iciol = newInstance(I_C_InvoiceCandidate_InOutLine.class);
+		iciol.setC_Invoice_Candidate_ID(ic.getC_Invoice_Candidate_ID());
+		iciol.setM_InOutLine_ID(inoutLine.getM_InOutLine_ID());
+		iciol.setIsActive(active);
+		saveRecord(iciol);
+	}
+}
@@ -40,8 +40,10 @@ import lombok.NonNull;
 import org.adempiere.exceptions.AdempiereException;
 import org.slf4j.Logger;
 
+import javax.annotation.Nullable;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 public class UserDashboardDataProvider
@@ -78,8 +80,11 @@ public class UserDashboardDataProvider
 		{
 			for (final UserDashboardItem dashboardItem : dashboard.getItems(widgetType))
 			{
-				final UserDashboardItemDataResponse itemData = getItemData(dashboardItem, context);
-				itemDataById.put(dashboardItem.getId(), itemData);
+				final UserDashboardItemDataResponse itemData = getItemData(dashboardItem, context, request.isSkipItemsNotLoadedYet());
+				if (itemData != null)
+				{
+					itemDataById.put(dashboardItem.getId(), itemData);
+				}
 			}
 		}
 
@@ -91,18 +96,30 @@ public class UserDashboardDataProvider
 		final UserDashboard dashboard = getDashboard();
 		final UserDashboardItem dashboardItem = dashboard.getItemById(request.getWidgetType(), request.getItemId());
 		final KPIDataContext context = request.getContext();
-		return getItemData(dashboardItem, context);
+		return Objects.requireNonNull(getItemData(dashboardItem, context, false));
 	}
 
+	/**
+	 * @return item data or null if <code>skipIfNotLoadedYet</code> and the data is not loaded yet
+	 */
+	@Nullable
 	private UserDashboardItemDataResponse getItemData(
 			@NonNull final UserDashboardItem item,
-			@NonNull final KPIDataContext context)
+			@NonNull final KPIDataContext context,
+			final boolean skipIfNotLoadedYet)
 	{
 		KPIDataRequest request = null;
 		try
 		{
 			request = toKPIDataRequest(item, context);
-			final KPIDataResult kpiData = kpiDataProvider.getKPIData(request);
+			final KPIDataResult kpiData = skipIfNotLoadedYet
+					? kpiDataProvider.getKPIDataIfAvailable(request).orElse(null)
+					: kpiDataProvider.getKPIData(request);
+			if (kpiData == null)
+			{
+				return null;
+			}
+
 			return UserDashboardItemDataResponse.ok(dashboardId, item.getId(), kpiData);
 		}
 		catch (@NonNull final Exception ex)
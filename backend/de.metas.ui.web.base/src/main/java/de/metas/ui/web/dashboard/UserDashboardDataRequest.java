@@ -37,4 +37,10 @@ public class UserDashboardDataRequest
 	@With
 	@Nullable DashboardWidgetType widgetType;
 	@NonNull KPIDataContext context;
+
+	/**
+	 * If true, the items whose KPI data is not loaded yet are not waited for but skipped.
+	 * Their loading is started in background.
+	 */
+	boolean skipItemsNotLoadedYet;
 }
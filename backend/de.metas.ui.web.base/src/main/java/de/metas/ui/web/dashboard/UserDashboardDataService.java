@@ -26,6 +26,7 @@ import de.metas.cache.CCache;
 import de.metas.cache.CacheMgt;
 import de.metas.cache.model.CacheInvalidateMultiRequest;
 import de.metas.elasticsearch.IESSystem;
+import de.metas.logging.LogManager;
 import de.metas.ui.web.dashboard.UserDashboardRepository.UserDashboardKey;
 import de.metas.ui.web.kpi.KPITimeRangeDefaults;
 import de.metas.ui.web.kpi.data.KPIDataProvider;
@@ -36,18 +37,37 @@ import de.metas.ui.web.kpi.descriptor.KPIRepository;
 import de.metas.util.Services;
 import lombok.NonNull;
 import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.slf4j.Logger;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class UserDashboardDataService
 {
+	private static final Logger logger = LogManager.getLogger(UserDashboardDataService.class);
+
 	private final UserDashboardRepository userDashboardRepository;
 	private final KPIDataProvider kpiDataProvider;
 
+	private static final String SYSCONFIG_KPILoaderPoolSize = "webui.kpi.loader.poolSize";
+	private static final int DEFAULT_KPILoaderPoolSize = 4;
+	private static final String SYSCONFIG_KPIRefreshIntervalSeconds = "webui.kpi.refresh.intervalSeconds";
+	private static final int DEFAULT_KPIRefreshIntervalSeconds = 10;
+
+	private final ExecutorService kpiLoaderExecutor;
+	private final ScheduledExecutorService kpiRefreshScheduler;
+
 	private final CCache<UserDashboardId, UserDashboardDataProvider> providers = CCache.<UserDashboardId, UserDashboardDataProvider>builder()
 			.expireMinutes(CCache.EXPIREMINUTES_Never)
 			.build();
@@ -58,17 +78,71 @@ public class UserDashboardDataService
 	{
 		this.userDashboardRepository = userDashboardRepository;
 
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		this.kpiLoaderExecutor = createKPILoaderExecutor(sysConfigBL);
+		this.kpiRefreshScheduler = Executors.newSingleThreadScheduledExecutor(
+				CustomizableThreadFactory.builder()
+						.setDaemon(true)
+						.setThreadNamePrefix(UserDashboardDataService.class.getSimpleName() + "-KPIRefresh-")
+						.build());
+
 		this.kpiDataProvider = KPIDataProvider.builder()
 				.kpiRepository(kpiRepository)
 				.esSystem(Services.get(IESSystem.class))
-				.sysConfigBL(Services.get(ISysConfigBL.class))
+				.sysConfigBL(sysConfigBL)
+				.asyncLoadExecutor(kpiLoaderExecutor)
+				.build();
+	}
+
+	private static ExecutorService createKPILoaderExecutor(@NonNull final ISysConfigBL sysConfigBL)
+	{
+		final int poolSize = Math.max(sysConfigBL.getIntValue(SYSCONFIG_KPILoaderPoolSize, DEFAULT_KPILoaderPoolSize), 1);
+
+		final CustomizableThreadFactory threadFactory = CustomizableThreadFactory.builder()
+				.setDaemon(true)
+				.setThreadNamePrefix(UserDashboardDataService.class.getSimpleName() + "-KPILoader-")
 				.build();
+
+		return new ThreadPoolExecutor(
+				poolSize, // corePoolSize
+				poolSize, // maxPoolSize
+				60L, // keepAliveTime
+				TimeUnit.SECONDS, // keepAliveTime unit
+				new LinkedBlockingQueue<>(), // workQueue
+				threadFactory);
 	}
 
 	@PostConstruct
 	void postConstruct()
 	{
 		CacheMgt.get().addCacheResetListener(this::onCacheResetRequest);
+
+		// Refresh the KPIs of the open dashboards before they expire.
+		// The changed data is pushed to frontend by the dashboard websocket producers.
+		final int refreshIntervalSeconds = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_KPIRefreshIntervalSeconds, DEFAULT_KPIRefreshIntervalSeconds);
+		if (refreshIntervalSeconds > 0)
+		{
+			kpiRefreshScheduler.scheduleWithFixedDelay(this::refreshActiveKPIs, refreshIntervalSeconds, refreshIntervalSeconds, TimeUnit.SECONDS);
+		}
+	}
+
+	@PreDestroy
+	void preDestroy()
+	{
+		kpiRefreshScheduler.shutdownNow();
+		kpiLoaderExecutor.shutdownNow();
+	}
+
+	private void refreshActiveKPIs()
+	{
+		try
+		{
+			kpiDataProvider.refreshActiveEntries();
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed refreshing active KPIs. Ignored.", ex);
+		}
 	}
 
 	private long onCacheResetRequest(final CacheInvalidateMultiRequest multiRequest)
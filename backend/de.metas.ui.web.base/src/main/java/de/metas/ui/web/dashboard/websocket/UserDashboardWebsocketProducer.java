@@ -158,6 +158,7 @@ class UserDashboardWebsocketProducer implements WebSocketProducer, WebSocketProd
 		final UserDashboardDataResponse data = dataProvider
 				.getAllItems(UserDashboardDataRequest.builder()
 						.context(kpiDataContext)
+						.skipItemsNotLoadedYet(true) // don't block the polling; the items will be sent when they are loaded
 						.build());
 
 		return Result.ofCollection(data.getItems());
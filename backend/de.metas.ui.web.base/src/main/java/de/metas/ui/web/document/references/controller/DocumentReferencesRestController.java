@@ -33,11 +33,15 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
 
 /*
  * #%L
@@ -75,8 +79,15 @@ public class DocumentReferencesRestController
 	private final MenuTreeRepository menuTreeRepository;
 
 	private static final String SYSCONFIG_SSE_EXECUTOR_MAX_POOL_SIZE = "webui.documentReferencesRestController.sseExecutor.maxPoolSize";
+	private static final String SYSCONFIG_SSE_EXECUTOR_QUEUE_CAPACITY = "webui.documentReferencesRestController.sseExecutor.queueCapacity";
 	private final ExecutorService sseExecutor;
 
+	/**
+	 * How long we shall evaluate the references of one document. The candidates which were not evaluated until then are skipped.
+	 */
+	private static final String SYSCONFIG_TIME_BUDGET_MILLIS = "webui.documentReferencesRestController.timeBudgetMillis";
+	private static final int DEFAULT_TIME_BUDGET_MILLIS = 30_000;
+
 	public DocumentReferencesRestController(
 			@NonNull final UserSession userSession,
 			@NonNull final WebuiDocumentReferencesService webuiDocumentReferencesService,
@@ -94,6 +105,7 @@ public class DocumentReferencesRestController
 	{
 		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
 		final int maxPoolSize = sysConfigBL.getIntValue(SYSCONFIG_SSE_EXECUTOR_MAX_POOL_SIZE, 20);
+		final int queueCapacity = sysConfigBL.getIntValue(SYSCONFIG_SSE_EXECUTOR_QUEUE_CAPACITY, 1000);
 
 		final CustomizableThreadFactory threadFactory = CustomizableThreadFactory.builder()
 				.setDaemon(true)
@@ -105,9 +117,14 @@ public class DocumentReferencesRestController
 				maxPoolSize,
 				60L, // keepAliveTime
 				TimeUnit.SECONDS, // keepAliveTime unit
-				new LinkedBlockingQueue<>(), // workQueue
+				new ArrayBlockingQueue<>(queueCapacity), // workQueue
 				threadFactory);
+	}
 
+	private static int getTimeBudgetMillis()
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		return sysConfigBL.getIntValue(SYSCONFIG_TIME_BUDGET_MILLIS, DEFAULT_TIME_BUDGET_MILLIS);
 	}
 
 	private JSONOptions newJSONOptions()
@@ -163,11 +180,14 @@ public class DocumentReferencesRestController
 					userSession.getUserRolePermissionsKey(),
 					jsonOpts.getAdLanguage());
 
+			final int timeBudgetMillis = getTimeBudgetMillis();
 			final AsyncRunContext context = AsyncRunContext.builder()
-					.permissions(RelatedDocumentsPermissionsFactory.ofRolePermissions(userSession.getUserRolePermissions()))
+					.permissions(permissions)
 					.jsonOpts(jsonOpts)
 					.menuTree(menuTree)
 					.publisher(publisher)
+					.timeBudgetMillis(timeBudgetMillis)
+					.deadlineMillis(System.currentTimeMillis() + timeBudgetMillis)
 					.build();
 
 			evaluateAndPublishAll(documentReferenceCandidates, context);
@@ -194,10 +214,22 @@ public class DocumentReferencesRestController
 		}
 
 		CompletableFuture.allOf(futures)
+				.orTimeout(context.getTimeBudgetMillis(), TimeUnit.MILLISECONDS)
 				.whenComplete((voidResult, exception) -> {
 					context.getPublisher().publishCompleted();
 
-					if (exception != null)
+					if (exception == null)
+					{
+						return;
+					}
+
+					final Throwable cause = exception instanceof CompletionException && exception.getCause() != null ? exception.getCause() : exception;
+					if (cause instanceof TimeoutException)
+					{
+						final long notEvaluatedCount = Stream.of(futures).filter(future -> future.cancel(false)).count();
+						logger.info("Time budget of {}ms exceeded. Skipped {} of {} candidates which were not finished yet.", context.getTimeBudgetMillis(), notEvaluatedCount, futures.length);
+					}
+					else
 					{
 						logger.warn("Failed processing some of the partial results", exception);
 					}
@@ -208,15 +240,28 @@ public class DocumentReferencesRestController
 			@NonNull final WebuiDocumentReferenceCandidate documentReferenceCandidate,
 			@NonNull final AsyncRunContext context)
 	{
-		return CompletableFuture.runAsync(
-				() -> evaluateAndPublishNow(documentReferenceCandidate, context),
-				sseExecutor);
+		try
+		{
+			return CompletableFuture.runAsync(
+					() -> evaluateAndPublishNow(documentReferenceCandidate, context),
+					sseExecutor);
+		}
+		catch (final RejectedExecutionException ex)
+		{
+			logger.warn("Skipped evaluating {} because the executor is saturated: {}", documentReferenceCandidate, sseExecutor);
+			return CompletableFuture.completedFuture(null);
+		}
 	}
 
 	private void evaluateAndPublishNow(
 			@NonNull final WebuiDocumentReferenceCandidate documentReferenceCandidate,
 			@NonNull final AsyncRunContext context)
 	{
+		// Don't start evaluating if we already ran out of time (i.e. the candidate was waiting too long in the executor's queue)
+		if (context.isDeadlineReached())
+		{
+			return;
+		}
 
 		final ImmutableList<WebuiDocumentReference> documentReferences = documentReferenceCandidate
 				.evaluateAndStream(
@@ -252,5 +297,13 @@ public class DocumentReferencesRestController
 
 		@NonNull
 		JSONDocumentReferencesEventPublisher publisher;
+
+		int timeBudgetMillis;
+		long deadlineMillis;
+
+		public boolean isDeadlineReached()
+		{
+			return System.currentTimeMillis() >= deadlineMillis;
+		}
 	}
 }
@@ -48,6 +48,11 @@ class JSONDocumentReferencesEventPublisher
 	@Getter
 	private final SseEmitter sseEmiter = new SseEmitter();
 
+	/**
+	 * Set after the COMPLETED event was sent. Partial results which are arriving afterwards (i.e. after the time budget was exceeded) are discarded.
+	 */
+	private boolean completed = false;
+
 	private JSONDocumentReferencesEventPublisher()
 	{
 	}
@@ -65,8 +70,14 @@ class JSONDocumentReferencesEventPublisher
 		}
 	}
 
-	public void publishPartialResult(@NonNull final JSONDocumentReferencesGroup group)
+	public synchronized void publishPartialResult(@NonNull final JSONDocumentReferencesGroup group)
 	{
+		if (completed)
+		{
+			logger.debug("Discarding partial result because already completed: {}", group);
+			return;
+		}
+
 		try
 		{
 			sseEmiter.send(JSONDocumentReferencesEvent.partialResult(group), MediaType.APPLICATION_JSON);
@@ -77,8 +88,14 @@ class JSONDocumentReferencesEventPublisher
 		}
 	}
 
-	public void publishCompleted()
+	public synchronized void publishCompleted()
 	{
+		if (completed)
+		{
+			return;
+		}
+		completed = true;
+
 		try
 		{
 			sseEmiter.send(JSONDocumentReferencesEvent.COMPLETED, MediaType.APPLICATION_JSON);
@@ -90,8 +107,15 @@ class JSONDocumentReferencesEventPublisher
 		}
 	}
 
-	public void publishCompletedWithError(final Throwable ex)
+	public synchronized void publishCompletedWithError(final Throwable ex)
 	{
+		if (completed)
+		{
+			logger.warn("Already completed. Ignoring error.", ex);
+			return;
+		}
+		completed = true;
+
 		try
 		{
 			sseEmiter.send(JSONDocumentReferencesEvent.COMPLETED, MediaType.APPLICATION_JSON);
@@ -34,19 +34,38 @@ import de.metas.ui.web.kpi.descriptor.KPIDatasourceType;
 import de.metas.ui.web.kpi.descriptor.KPIId;
 import de.metas.ui.web.kpi.descriptor.KPIRepository;
 import lombok.Builder;
+import lombok.Getter;
 import lombok.NonNull;
 import lombok.ToString;
 import lombok.Value;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.compiere.util.Env;
 import org.slf4j.Logger;
 
 import javax.annotation.Nullable;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Provides KPI data, caching it.
+ * <p>
+ * The data of a given KPI/context is loaded only once at a time ("single flight"), outside any cache lock,
+ * so a slow KPI is not blocking the requests for other KPIs.
+ * If an async load executor was provided, expired data is still served while it's refreshed in background (stale while revalidate)
+ * and the data of recently accessed KPIs can be refreshed before expiring, see {@link #refreshActiveEntries()}.
+ * <p>
+ * The background loads are not running with the context of the thread which triggered them (e.g. the refresh scheduler's context is empty),
+ * but with the context which was captured when the KPI/context was requested for the first time, see {@link #createLoadingCtx(KPIDataContext)}.
+ */
 public class KPIDataProvider
 {
 	public static final AdMessageKey MSG_FailedLoadingKPI = AdMessageKey.of("webui.dashboard.KPILoadError");
@@ -54,24 +73,45 @@ public class KPIDataProvider
 	private static final Logger logger = LogManager.getLogger(KPIDataProvider.class);
 	private final IESSystem esSystem;
 	private final KPIRepository kpiRepository;
+	@Nullable private final ExecutorService asyncLoadExecutor;
 
 	private final int cacheSize;
-	private final ConcurrentHashMap<KPIDataCacheKey, KPIDataCacheValue> cache;
+	private final ConcurrentHashMap<KPIDataCacheKey, KPIDataCacheEntry> cache;
+	private final Duration activeEntryTimeout;
 
 	private static final String SYSCONFIG_CacheSize = "webui.kpi.cache.size";
 	private static final int DEFAULT_CacheSize = 500;
 
+	private static final String SYSCONFIG_ActiveEntryTimeoutSeconds = "webui.kpi.cache.activeEntryTimeoutSeconds";
+	private static final int DEFAULT_ActiveEntryTimeoutSeconds = 120;
+
+	/**
+	 * Expired data is served (while it's refreshed in background) only if it's not older than this factor multiplied by the max stale accepted.
+	 */
+	private static final int STALE_WHILE_REVALIDATE_FACTOR = 2;
+
+	/**
+	 * Data of active entries is refreshed when this percentage of the max stale accepted has elapsed.
+	 */
+	private static final int PRE_REFRESH_AGE_PERCENT = 80;
+
+	/**
+	 * @param asyncLoadExecutor executor used to load the data in background. If null, the data is loaded in the caller's thread and there is no background refresh.
+	 */
 	@Builder
 	private KPIDataProvider(
 			@NonNull final KPIRepository kpiRepository,
 			@NonNull final IESSystem esSystem,
-			@NonNull final ISysConfigBL sysConfigBL)
+			@NonNull final ISysConfigBL sysConfigBL,
+			@Nullable final ExecutorService asyncLoadExecutor)
 	{
 		this.esSystem = esSystem;
 		this.kpiRepository = kpiRepository;
+		this.asyncLoadExecutor = asyncLoadExecutor;
 
 		this.cacheSize = getCacheSize(sysConfigBL);
-		logger.info("cacheSize={} (sysconfig: {})", cacheSize, SYSCONFIG_CacheSize);
+		this.activeEntryTimeout = Duration.ofSeconds(sysConfigBL.getIntValue(SYSCONFIG_ActiveEntryTimeoutSeconds, DEFAULT_ActiveEntryTimeoutSeconds));
+		logger.info("cacheSize={} (sysconfig: {}), activeEntryTimeout={}, asyncLoadExecutor={}", cacheSize, SYSCONFIG_CacheSize, activeEntryTimeout, asyncLoadExecutor);
 
 		this.cache = new ConcurrentHashMap<>(cacheSize);
 	}
@@ -82,56 +122,201 @@ public class KPIDataProvider
 		return cacheSize > 0 ? cacheSize : DEFAULT_CacheSize;
 	}
 
+	/**
+	 * Gets the KPI data, waiting for it to be loaded if there is no data which can be served.
+	 */
 	public KPIDataResult getKPIData(@NonNull final KPIDataRequest request)
+	{
+		return getKPIData(request, true)
+				.orElseThrow(() -> new AdempiereException("No KPI data loaded for " + request)); // shall not happen
+	}
+
+	/**
+	 * Gets the KPI data only if it can be served right away. If not, the loading is started in background and empty is returned.
+	 * <p>
+	 * Useful for callers which are polling, like the dashboard websocket producers.
+	 */
+	public Optional<KPIDataResult> getKPIDataIfAvailable(@NonNull final KPIDataRequest request)
+	{
+		return getKPIData(request, false);
+	}
+
+	private Optional<KPIDataResult> getKPIData(@NonNull final KPIDataRequest request, final boolean waitForData)
 	{
 		if (isCacheCleanupThresholdHit())
 		{
 			cacheRemoveExpiredEntries();
 		}
 
+		final KPIDataCacheEntry entry = cache.computeIfAbsent(extractCacheKey(request), key -> new KPIDataCacheEntry(key, createLoadingCtx(request.getContext())));
+		entry.markAccessed();
+
 		final Duration maxStaleAccepted = request.getMaxStaleAccepted();
-		final KPIDataCacheValue cacheValue = cache.compute(
-				extractCacheKey(request),
-				(cacheKey, existingCacheValue) -> computeCacheValueIfNeeded(cacheKey, existingCacheValue, maxStaleAccepted));
+		final KPIDataCacheValue existingValue = entry.getValue();
+		if (existingValue != null && !existingValue.isExpired(maxStaleAccepted))
+		{
+			logger.trace("getKPIData: existingValue is still valid. Returning it: {}", existingValue);
+			return Optional.of(existingValue.getData());
+		}
+		else if (existingValue != null && isAsyncLoadingEnabled() && !existingValue.isExpired(maxStaleAccepted, STALE_WHILE_REVALIDATE_FACTOR))
+		{
+			logger.trace("getKPIData: existingValue expired. Returning it while a new value is computed: {}", existingValue);
+			startLoading(entry);
+			return Optional.of(existingValue.getData());
+		}
+		else
+		{
+			logger.trace("getKPIData: no existingValue or it's too old. Computing a new value (waitForData={})", waitForData);
+			final CompletableFuture<KPIDataCacheValue> future = startLoading(entry);
+			return waitForData
+					? Optional.of(waitForValue(future).getData())
+					: Optional.empty();
+		}
+	}
 
-		return cacheValue.getData();
+	private boolean isAsyncLoadingEnabled()
+	{
+		return asyncLoadExecutor != null;
 	}
 
-	private KPIDataCacheKey extractCacheKey(@NonNull final KPIDataRequest request)
+	/**
+	 * Starts loading given entry's data, unless it's already loading.
+	 *
+	 * @return the future which will be completed when the data was loaded
+	 */
+	private CompletableFuture<KPIDataCacheValue> startLoading(@NonNull final KPIDataCacheEntry entry)
 	{
-		final KPI kpi = kpiRepository.getKPI(request.getKpiId());
-		final KPIDataContext contextReduced = request.getContext()
-				.retainOnlyRequiredParameters(kpi.getRequiredContextParameters());
+		final CompletableFuture<KPIDataCacheValue> future = new CompletableFuture<>();
+		final CompletableFuture<KPIDataCacheValue> alreadyLoadingFuture = entry.setLoadingIfNotAlreadyLoading(future);
+		if (alreadyLoadingFuture != null)
+		{
+			return alreadyLoadingFuture;
+		}
 
-		return KPIDataCacheKey.builder()
-				.kpiId(request.getKpiId())
-				.timeRangeDefaults(request.getTimeRangeDefaults())
-				.context(contextReduced)
-				.build();
+		if (asyncLoadExecutor == null)
+		{
+			load(entry, future, null);
+		}
+		else
+		{
+			final Properties ctx = entry.getLoadingCtx();
+			try
+			{
+				asyncLoadExecutor.execute(() -> load(entry, future, ctx));
+			}
+			catch (final RejectedExecutionException ex)
+			{
+				logger.warn("Failed scheduling the loading of {}. Loading it in current thread.", entry, ex);
+				load(entry, future, ctx);
+			}
+		}
+
+		return future;
 	}
 
-	private KPIDataCacheValue computeCacheValueIfNeeded(
-			@NonNull final KPIDataCacheKey cacheKey,
-			@Nullable final KPIDataCacheValue existingValue,
-			@Nullable final Duration maxStaleAccepted)
+	private void load(
+			@NonNull final KPIDataCacheEntry entry,
+			@NonNull final CompletableFuture<KPIDataCacheValue> future,
+			@Nullable final Properties ctx)
 	{
-		logger.trace("computeCacheValueIfNeeded: cacheKey={}, maxStaleAccepted={}, existingValue={}", cacheKey, maxStaleAccepted, existingValue);
+		try (final IAutoCloseable ignored = ctx != null ? Env.switchContext(ctx) : () -> {})
+		{
+			final KPIDataCacheValue previousValue = entry.getValue();
+			final KPIDataCacheValue newValue = computeCacheValue(entry.getKey(), previousValue != null ? previousValue.getData() : null);
+			entry.setLoadedValue(newValue);
+			future.complete(newValue);
+		}
+		catch (final Throwable ex)
+		{
+			entry.setLoadedValue(null);
+			future.completeExceptionally(ex);
+		}
+	}
 
-		if (existingValue == null)
+	private static KPIDataCacheValue waitForValue(@NonNull final CompletableFuture<KPIDataCacheValue> future)
+	{
+		try
 		{
-			logger.trace("computeCacheValueIfNeeded: no existingValue. Computing and returning a new value");
-			return computeCacheValue(cacheKey, null);
+			return future.join();
 		}
-		else if (existingValue.isExpired(maxStaleAccepted))
+		catch (final CompletionException ex)
 		{
-			logger.trace("computeCacheValueIfNeeded: existingValue expired. Computing and returning a new value");
-			return computeCacheValue(cacheKey, existingValue.getData());
+			throw AdempiereException.wrapIfNeeded(ex.getCause() != null ? ex.getCause() : ex);
 		}
-		else
+	}
+
+	/**
+	 * Shall be called periodically.
+	 * <ul>
+	 * <li>entries which were recently accessed (e.g. the KPIs of a dashboard which is open) are refreshed before they expire</li>
+	 * <li>entries which were not accessed recently and expired are removed</li>
+	 * </ul>
+	 */
+	public void refreshActiveEntries()
+	{
+		if (!isAsyncLoadingEnabled())
+		{
+			return;
+		}
+
+		final Instant now = SystemTime.asInstant();
+		int countRefreshing = 0;
+		for (final KPIDataCacheEntry entry : cache.values())
+		{
+			if (!entry.isAccessedSince(now.minus(activeEntryTimeout)))
+			{
+				if (entry.isExpired() && !entry.isLoading())
+				{
+					cache.remove(entry.getKey(), entry);
+				}
+			}
+			else if (entry.isPreRefreshNeeded())
+			{
+				startLoading(entry);
+				countRefreshing++;
+			}
+		}
+
+		logger.trace("refreshActiveEntries: {} entries refreshing, {} entries in cache", countRefreshing, cache.size());
+	}
+
+	/**
+	 * @return a copy of the current context, completed with the user, role, client and org of given KPI data context
+	 * (which might be missing from the current context, e.g. when called by a websocket producer)
+	 */
+	private static Properties createLoadingCtx(@NonNull final KPIDataContext context)
+	{
+		final Properties ctx = Env.copyCtx(Env.getCtx());
+		if (context.getUserId() != null)
+		{
+			Env.setLoggedUserId(ctx, context.getUserId());
+		}
+		if (context.getRoleId() != null)
 		{
-			logger.trace("computeCacheValueIfNeeded: existingValue is still valid. Returning it.");
-			return existingValue;
+			Env.setContext(ctx, Env.CTXNAME_AD_Role_ID, context.getRoleId().getRepoId());
 		}
+		if (context.getClientId() != null)
+		{
+			Env.setClientId(ctx, context.getClientId());
+		}
+		if (context.getOrgId() != null)
+		{
+			Env.setOrgId(ctx, context.getOrgId());
+		}
+		return ctx;
+	}
+
+	private KPIDataCacheKey extractCacheKey(@NonNull final KPIDataRequest request)
+	{
+		final KPI kpi = kpiRepository.getKPI(request.getKpiId());
+		final KPIDataContext contextReduced = request.getContext()
+				.retainOnlyRequiredParameters(kpi.getRequiredContextParameters());
+
+		return KPIDataCacheKey.builder()
+				.kpiId(request.getKpiId())
+				.timeRangeDefaults(request.getTimeRangeDefaults())
+				.context(contextReduced)
+				.build();
 	}
 
 	private KPIDataCacheValue computeCacheValue(
@@ -203,7 +388,7 @@ public class KPIDataProvider
 	{
 		logger.trace("cacheRemoveExpiredEntries: {} entries before cleanup", cache.size());
 
-		cache.values().removeIf(KPIDataCacheValue::isExpired);
+		cache.values().removeIf(entry -> entry.isExpired() && !entry.isLoading());
 
 		logger.trace("cacheRemoveExpiredEntries: {} entries after cleanup", cache.size());
 	}
@@ -256,6 +441,102 @@ public class KPIDataProvider
 		@NonNull KPIDataContext context;
 	}
 
+	@ToString(onlyExplicitlyIncluded = true)
+	private static class KPIDataCacheEntry
+	{
+		@Getter
+		@ToString.Include
+		@NonNull private final KPIDataCacheKey key;
+
+		/**
+		 * Context used for loading the data in background
+		 */
+		@Getter
+		@NonNull private final Properties loadingCtx;
+
+		@Nullable private volatile KPIDataCacheValue value;
+		@Nullable private CompletableFuture<KPIDataCacheValue> loadingFuture;
+		@NonNull private volatile Instant lastAccessed = SystemTime.asInstant();
+
+		private KPIDataCacheEntry(@NonNull final KPIDataCacheKey key, @NonNull final Properties loadingCtx)
+		{
+			this.key = key;
+			this.loadingCtx = loadingCtx;
+		}
+
+		@Nullable
+		public KPIDataCacheValue getValue()
+		{
+			return value;
+		}
+
+		public void markAccessed()
+		{
+			lastAccessed = SystemTime.asInstant();
+		}
+
+		public boolean isAccessedSince(@NonNull final Instant timestamp)
+		{
+			return !lastAccessed.isBefore(timestamp);
+		}
+
+		public boolean isExpired()
+		{
+			final KPIDataCacheValue value = this.value;
+			return value == null || value.isExpired();
+		}
+
+		/**
+		 * @return true if the data shall be refreshed in background. KPIs which don't accept stale data are never refreshed in background,
+		 * because they would be reloaded on each refresh run; they are loaded when requested.
+		 */
+		public boolean isPreRefreshNeeded()
+		{
+			final KPIDataCacheValue value = this.value;
+			if (value == null)
+			{
+				return true;
+			}
+			else if (!value.isStaleAccepted())
+			{
+				return false;
+			}
+			else
+			{
+				return value.isAgeExceedingPercent(PRE_REFRESH_AGE_PERCENT);
+			}
+		}
+
+		public synchronized boolean isLoading()
+		{
+			return loadingFuture != null;
+		}
+
+		/**
+		 * @return the future of the currently running load or null if the given future was set
+		 */
+		@Nullable
+		public synchronized CompletableFuture<KPIDataCacheValue> setLoadingIfNotAlreadyLoading(@NonNull final CompletableFuture<KPIDataCacheValue> future)
+		{
+			if (loadingFuture != null)
+			{
+				return loadingFuture;
+			}
+
+			loadingFuture = future;
+			return null;
+		}
+
+		public synchronized void setLoadedValue(@Nullable final KPIDataCacheValue value)
+		{
+			if (value != null)
+			{
+				this.value = value;
+			}
+			loadingFuture = null;
+		}
+	}
+
 	@Value
 	@ToString(exclude = "data" /* because it's too big */)
 	private static class KPIDataCacheValue
@@ -283,9 +564,13 @@ public class KPIDataProvider
 
 		public boolean isExpired(@Nullable final Duration maxStaleAccepted)
 		{
-			final Duration maxStaleAcceptedEffective = maxStaleAccepted != null
-					? maxStaleAccepted
-					: defaultMaxStaleAccepted;
+			return isExpired(maxStaleAccepted, 1);
+		}
+
+		public boolean isExpired(@Nullable final Duration maxStaleAccepted, final int maxStaleAcceptedMultiplier)
+		{
+			final Duration maxStaleAcceptedEffective = (maxStaleAccepted != null ? maxStaleAccepted : defaultMaxStaleAccepted)
+					.multipliedBy(maxStaleAcceptedMultiplier);
 
 			final Instant now = SystemTime.asInstant();
 			final Duration staleActual = Duration.between(created, now);
@@ -293,5 +578,17 @@ public class KPIDataProvider
 			logger.trace("isExpired={}, now={}, maxStaleAcceptedEffective={}, staleActual={}, cacheValue={}", expired, now, maxStaleAcceptedEffective, staleActual, this);
 			return expired;
 		}
+
+		public boolean isStaleAccepted()
+		{
+			return defaultMaxStaleAccepted.compareTo(Duration.ZERO) > 0;
+		}
+
+		public boolean isAgeExceedingPercent(final int percentOfDefaultMaxStaleAccepted)
+		{
+			final Duration age = Duration.between(created, SystemTime.asInstant());
+			final Duration threshold = defaultMaxStaleAccepted.multipliedBy(percentOfDefaultMaxStaleAccepted).dividedBy(100);
+			return age.compareTo(threshold) >= 0;
+		}
 	}
 }
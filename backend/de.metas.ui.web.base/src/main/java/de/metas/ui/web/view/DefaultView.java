@@ -564,6 +564,17 @@ public final class DefaultView implements IEditableView
 		return false;
 	}
 
+	@Override
+	public Stream<? extends IViewRow> streamAllRows(@NonNull final ViewRowsOrderBy orderBy, final int pageSize_NOTUSED)
+	{
+		assertNotClosed();
+		checkChangedRows(AddRemoveChangedRowIdsCollector.NOT_RECORDING);
+
+		// NOTE: we are not caching the rows because this is used to export huge amounts of rows
+		final ViewRowIdsOrderedSelection orderedSelection = getOrderedSelection(orderBy.toDocumentQueryOrderByList());
+		return viewDataRepository.streamAllRows(getViewEvaluationCtx(), orderedSelection);
+	}
+
 	@Override
 	public Stream<? extends IViewRow> streamByIds(@NonNull final DocumentIdsSelection rowIds)
 	{
@@ -18,6 +18,8 @@ import de.metas.ui.web.window.datatypes.LookupValuesList;
 import de.metas.ui.web.window.datatypes.LookupValuesPage;
 import de.metas.ui.web.window.model.DocumentQueryOrderByList;
 import de.metas.ui.web.window.model.sql.SqlOptions;
+import de.metas.util.collections.IteratorUtils;
+import de.metas.util.collections.PagedIterator.Page;
 import lombok.NonNull;
 import org.adempiere.ad.dao.QueryLimit;
 import org.adempiere.util.lang.impl.TableRecordReference;
@@ -155,6 +157,26 @@ public interface IView
 		return getPage(firstRow, pageLength, orderBy);
 	}
 
+	/**
+	 * Streams all rows of this view, in given order, without keeping them in memory.
+	 * <p>
+	 * The default implementation fetches the rows page by page, using {@link #getPage(int, int, ViewRowsOrderBy)}.
+	 * <p>
+	 * IMPORTANT: the returned stream shall be closed.
+	 *
+	 * @param pageSize page size to be used by views which cannot stream their rows directly
+	 */
+	default Stream<? extends IViewRow> streamAllRows(@NonNull final ViewRowsOrderBy orderBy, final int pageSize)
+	{
+		return IteratorUtils.<IViewRow>newPagedIterator()
+				.firstRow(0)
+				.maxRows(0) // no limit
+				.pageSize(pageSize)
+				.pageFetcher((firstRow, pageLength) -> Page.ofRowsOrNull(getPage(firstRow, pageLength, orderBy).getPage()))
+				.build()
+				.stream();
+	}
+
 	default ImmutableMap<String, Object> getParameters()
 	{
 		return ImmutableMap.of();
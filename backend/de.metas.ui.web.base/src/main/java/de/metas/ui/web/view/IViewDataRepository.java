@@ -61,6 +61,13 @@ public interface IViewDataRepository
 
 	List<DocumentId> retrieveRowIdsByPage(ViewEvaluationCtx viewEvalCtx, ViewRowIdsOrderedSelection orderedSelection, int firstRow, int pageLength);
 
+	/**
+	 * Streams all rows of given selection. The rows are loaded while the stream is consumed, so the memory usage does not depend on the selection's size.
+	 * <p>
+	 * IMPORTANT: the returned stream shall be closed.
+	 */
+	Stream<IViewRow> streamAllRows(ViewEvaluationCtx viewEvalCtx, ViewRowIdsOrderedSelection orderedSelection);
+
 	<T> List<T> retrieveModelsByIds(ViewId viewId, DocumentIdsSelection rowIds, Class<T> modelClass);
 
 	<T> Stream<T> retrieveModelsByIdsAsStream(ViewId viewId, DocumentIdsSelection rowIds, Class<T> modelClass);
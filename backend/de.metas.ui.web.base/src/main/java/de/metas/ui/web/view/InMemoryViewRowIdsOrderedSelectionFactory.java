@@ -0,0 +1,596 @@
+/*
+ * #%L
+ * de.metas.ui.web.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+package de.metas.ui.web.view;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.ImmutableIntArray;
+import de.metas.logging.LogManager;
+import de.metas.ui.web.document.filter.DocumentFilterList;
+import de.metas.ui.web.document.filter.sql.SqlDocumentFilterConverterContext;
+import de.metas.ui.web.view.descriptor.SqlAndParams;
+import de.metas.ui.web.view.descriptor.SqlViewBinding;
+import de.metas.ui.web.view.descriptor.SqlViewRowsWhereClause;
+import de.metas.ui.web.view.descriptor.SqlViewSelectionQueryBuilder;
+import de.metas.ui.web.view.descriptor.SqlViewSelectionQueryBuilder.SqlSelectSelection;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.ui.web.window.model.DocumentQueryOrderByList;
+import de.metas.util.Check;
+import de.metas.util.Services;
+import de.metas.util.StringUtils;
+import lombok.NonNull;
+import org.adempiere.ad.dao.QueryLimit;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.exceptions.DBException;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.util.DB;
+import org.slf4j.Logger;
+
+import javax.annotation.Nullable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the view selections as ordered row ID arrays in memory instead of inserting them into {@code T_WEBUI_ViewSelection}.
+ * <p>
+ * Pages are fetched by row ID lists (see {@link de.metas.ui.web.view.descriptor.SqlViewSelectData#selectByRowIds()}),
+ * so creating, filtering and paging a view does not write anything to database.
+ * <p>
+ * A selection is stored in {@code T_WEBUI_ViewSelection} (and from there on handled by {@link SqlViewRowIdsOrderedSelectionFactory}) only when:
+ * <ul>
+ * <li>an SQL where clause for all the rows of the selection is required (e.g. when running processes on the whole view)</li>
+ * <li>the selection is bigger than {@value #SYSCONFIG_MaxSize}; such a selection is created directly in database, after reading at most one row more than the max size</li>
+ * </ul>
+ * Only views with one integer key column and without grouping fields are supported, see {@link #isSupported(SqlViewBinding)}.
+ */
+public class InMemoryViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSelectionFactory
+{
+	public static boolean isSupported(@NonNull final SqlViewBinding viewBinding)
+	{
+		return !viewBinding.hasGroupingFields()
+				&& SqlViewSelectionQueryBuilder.isRowIdsListSupported(viewBinding.getSqlViewKeyColumnNamesMap());
+	}
+
+	public static InMemoryViewRowIdsOrderedSelectionFactory of(@NonNull final SqlViewBinding viewBinding)
+	{
+		return new InMemoryViewRowIdsOrderedSelectionFactory(viewBinding);
+	}
+
+	private static final Logger logger = LogManager.getLogger(InMemoryViewRowIdsOrderedSelectionFactory.class);
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+
+	/**
+	 * Enables in memory selections. Can be overridden per table by {@code de.metas.ui.web.view.InMemorySelection.Enabled.TableName}.
+	 */
+	private static final String SYSCONFIG_Enabled = "de.metas.ui.web.view.InMemorySelection.Enabled";
+	private static final boolean DEFAULT_Enabled = false;
+	private static final String SYSCONFIG_MaxSize = "de.metas.ui.web.view.InMemorySelection.MaxSize";
+	private static final int DEFAULT_MaxSize = 1_000_000;
+
+	private final SqlViewBinding viewBinding;
+	private final SqlViewRowIdsOrderedSelectionFactory databaseSelectionFactory;
+
+	private final ConcurrentHashMap<String, InMemorySelection> selectionsById = new ConcurrentHashMap<>();
+	private final Object storeInDatabaseLock = new Object();
+
+	private InMemoryViewRowIdsOrderedSelectionFactory(@NonNull final SqlViewBinding viewBinding)
+	{
+		Check.assume(isSupported(viewBinding), "view binding shall be supported: {}", viewBinding);
+		this.viewBinding = viewBinding;
+		this.databaseSelectionFactory = SqlViewRowIdsOrderedSelectionFactory.of(viewBinding);
+	}
+
+	private SqlViewSelectionQueryBuilder newSqlViewSelectionQueryBuilder()
+	{
+		return SqlViewSelectionQueryBuilder.newInstance(viewBinding);
+	}
+
+	private boolean isEnabled()
+	{
+		final String tableName = viewBinding.getTableName();
+		final String enabledForTable = sysConfigBL.getValue(SYSCONFIG_Enabled + "." + tableName);
+		if (!Check.isBlank(enabledForTable))
+		{
+			return StringUtils.toBoolean(enabledForTable);
+		}
+
+		return sysConfigBL.getBooleanValue(SYSCONFIG_Enabled, DEFAULT_Enabled);
+	}
+
+	private int getMaxSize()
+	{
+		final int maxSize = sysConfigBL.getIntValue(SYSCONFIG_MaxSize, DEFAULT_MaxSize);
+		return maxSize > 0 ? maxSize : Integer.MAX_VALUE;
+	}
+
+	/**
+	 * @return the in memory selection or null if the selection is stored in database
+	 */
+	@Nullable
+	InMemorySelection getInMemorySelection(@NonNull final String selectionId)
+	{
+		return selectionsById.get(selectionId);
+	}
+
+	@Override
+	public ViewRowIdsOrderedSelection createOrderedSelection(
+			final ViewEvaluationCtx viewEvalCtx,
+			final ViewId viewId,
+			final DocumentFilterList filters,
+			final DocumentQueryOrderByList orderBys,
+			final boolean applySecurityRestrictions,
+			final SqlDocumentFilterConverterContext context)
+	{
+		if (!isEnabled())
+		{
+			return databaseSelectionFactory.createOrderedSelection(viewEvalCtx, viewId, filters, orderBys, applySecurityRestrictions, context);
+		}
+
+		final QueryLimit queryLimit = databaseSelectionFactory.extractQueryLimit(viewEvalCtx);
+		final SqlSelectSelection sqlSelect = newSqlViewSelectionQueryBuilder()
+				.applySecurityRestrictions(applySecurityRestrictions)
+				.buildSqlSelectSelectionFrom(viewEvalCtx, viewId, filters, orderBys, queryLimit, context);
+		logger.trace("Creating in memory selection using {}", sqlSelect);
+
+		if (!context.isQueryIfNoFilters() && !sqlSelect.isAnyFilterApplied())
+		{
+			return SqlViewRowIdsOrderedSelectionFactory.createEmptySelectionPleaseFilterFirst(viewId, orderBys, queryLimit);
+		}
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final int maxSize = getMaxSize();
+		final ImmutableIntArray rowIds = retrieveRowIds(sqlSelect.getSqlSelectSelection(), maxSize);
+		if (rowIds == null)
+		{
+			logger.debug("Selection {} has more than {} rows => creating it in database; duration so far={}", viewId, maxSize, stopwatch);
+			return databaseSelectionFactory.createOrderedSelection(viewEvalCtx, viewId, filters, orderBys, applySecurityRestrictions, context);
+		}
+		logger.debug("Created in memory selection {}, rowsCount={}, duration={}", viewId, rowIds.length(), stopwatch);
+
+		return putSelection(viewId, rowIds, orderBys, queryLimit);
+	}
+
+	@Override
+	public ViewRowIdsOrderedSelection createOrderedSelectionFromSelection(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final ViewRowIdsOrderedSelection fromSelection,
+			@NonNull final DocumentFilterList filters,
+			@NonNull final DocumentQueryOrderByList orderBys,
+			@NonNull final SqlDocumentFilterConverterContext filterConverterCtx)
+	{
+		final InMemorySelection fromRowIds = getInMemorySelection(fromSelection.getSelectionId());
+		if (fromRowIds == null)
+		{
+			return databaseSelectionFactory.createOrderedSelectionFromSelection(viewEvalCtx, fromSelection, filters, orderBys, filterConverterCtx);
+		}
+
+		final ViewId newViewId = ViewId.random(fromSelection.getWindowId());
+		final SqlAndParams sqlSelect = newSqlViewSelectionQueryBuilder()
+				.buildSqlSelectSelectionFromRowIds(viewEvalCtx, newViewId, fromRowIds.toArray(), filters, orderBys, filterConverterCtx);
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final int maxSize = getMaxSize();
+		final ImmutableIntArray rowIds = retrieveRowIds(sqlSelect, maxSize);
+		if (rowIds == null)
+		{
+			// the max size was lowered meanwhile
+			logger.debug("Selection from {} has more than {} rows => creating it in database; duration so far={}", fromSelection.getViewId(), maxSize, stopwatch);
+			storeSelectionInDatabase(fromSelection.getSelectionId());
+			return databaseSelectionFactory.createOrderedSelectionFromSelection(viewEvalCtx, fromSelection, filters, orderBys, filterConverterCtx);
+		}
+		logger.debug("Created in memory selection {} from {}, rowsCount={}, duration={}", newViewId, fromSelection.getViewId(), rowIds.length(), stopwatch);
+
+		return putSelection(newViewId, rowIds, orderBys, fromSelection.getQueryLimit());
+	}
+
+	/**
+	 * @param sqlSelect SQL which selects UUID, Line and the key column (in this order)
+	 * @return row IDs or {@code null} if the selection has more than {@code maxSize} rows
+	 */
+	@Nullable
+	private static ImmutableIntArray retrieveRowIds(@NonNull final SqlAndParams sqlSelect, final int maxSize)
+	{
+		// fetch one row more than allowed, so a too big selection is detected without reading all of it
+		final String sqlLimit = maxSize < Integer.MAX_VALUE ? " LIMIT " + (maxSize + 1) : "";
+		final String sql = "SELECT s.* FROM (" + sqlSelect.getSql() + "\n) s ORDER BY 2" + sqlLimit;
+		final List<Object> sqlParams = sqlSelect.getSqlParams();
+
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_ThreadInherited);
+			DB.setParameters(pstmt, sqlParams);
+			rs = pstmt.executeQuery();
+			return readRowIds(rs, maxSize);
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql, sqlParams);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+
+	/**
+	 * NOTE: all rows are counted, including those without a row ID, so it gives up after reading {@code maxSize + 1} rows at most.
+	 *
+	 * @return row IDs or {@code null} if the result set has more than {@code maxSize} rows
+	 */
+	@VisibleForTesting
+	@Nullable
+	static ImmutableIntArray readRowIds(@NonNull final ResultSet rs, final int maxSize) throws SQLException
+	{
+		final ImmutableIntArray.Builder rowIds = ImmutableIntArray.builder();
+		int rowsCount = 0;
+		while (rs.next())
+		{
+			rowsCount++;
+			if (rowsCount > maxSize)
+			{
+				return null;
+			}
+
+			final int rowId = rs.getInt(3);
+			if (!rs.wasNull())
+			{
+				rowIds.add(rowId);
+			}
+		}
+		return rowIds.build();
+	}
+
+	private ViewRowIdsOrderedSelection putSelection(
+			@NonNull final ViewId viewId,
+			@NonNull final ImmutableIntArray rowIds,
+			@NonNull final DocumentQueryOrderByList orderBys,
+			@NonNull final QueryLimit queryLimit)
+	{
+		final String selectionId = viewId.getViewId();
+		selectionsById.put(selectionId, new InMemorySelection(rowIds));
+
+		return ViewRowIdsOrderedSelection.builder()
+				.viewId(viewId)
+				.size(rowIds.length())
+				.orderBys(orderBys)
+				.queryLimit(queryLimit)
+				.build();
+	}
+
+	/**
+	 * NOTE: the selection is inserted out of transaction, because it has to outlive the current transaction, just like the in memory selection would.
+	 */
+	private void insertIntoDatabase(@NonNull final String selectionId, @NonNull final ImmutableIntArray rowIds)
+	{
+		final SqlAndParams sqlInsert = newSqlViewSelectionQueryBuilder().buildSqlCreateSelectionFromRowIds(selectionId, rowIds.toArray());
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final int rowsCount = DB.executeUpdateAndThrowExceptionOnFail(sqlInsert.getSql(), sqlInsert.getSqlParamsArray(), ITrx.TRXNAME_None);
+		logger.debug("Stored selection {} in database, rowsCount={}, duration={}", selectionId, rowsCount, stopwatch);
+	}
+
+	private void deleteFromDatabase(@NonNull final String selectionId)
+	{
+		final SqlAndParams sqlDelete = newSqlViewSelectionQueryBuilder().buildSqlDeleteSelection(ImmutableSet.of(selectionId));
+		DB.executeUpdateAndThrowExceptionOnFail(sqlDelete.getSql(), sqlDelete.getSqlParamsArray(), ITrx.TRXNAME_None);
+	}
+
+	/**
+	 * Makes sure the given selection is stored in {@code T_WEBUI_ViewSelection}. From now on, the selection is handled by {@link SqlViewRowIdsOrderedSelectionFactory}.
+	 * <p>
+	 * The in memory selection is dropped only after it was stored, so the view keeps working if the storing fails or if the current transaction is rolled back.
+	 */
+	void storeSelectionInDatabase(@NonNull final String selectionId)
+	{
+		synchronized (storeInDatabaseLock)
+		{
+			InMemorySelection selection;
+			while ((selection = selectionsById.get(selectionId)) != null)
+			{
+				insertIntoDatabase(selectionId, selection.getRowIds());
+				if (selectionsById.remove(selectionId, selection))
+				{
+					return;
+				}
+
+				// rows were added or removed while we were inserting => store the changed selection instead
+				deleteFromDatabase(selectionId);
+			}
+		}
+	}
+
+	@Override
+	public SqlViewRowsWhereClause getSqlWhereClause(@NonNull final ViewId viewId, @NonNull final DocumentIdsSelection rowIds)
+	{
+		final String selectionId = viewId.getViewId();
+		final InMemorySelection selection = getInMemorySelection(selectionId);
+		if (selection == null)
+		{
+			return databaseSelectionFactory.getSqlWhereClause(viewId, rowIds);
+		}
+		else if (rowIds.isAll())
+		{
+			storeSelectionInDatabase(selectionId);
+			return databaseSelectionFactory.getSqlWhereClause(viewId, rowIds);
+		}
+		else
+		{
+			return newSqlViewSelectionQueryBuilder().buildSqlWhereClauseForRowIdsList(selection.retainRowIds(rowIds.toIntSet()), rowIds);
+		}
+	}
+
+	@Override
+	public ViewRowIdsOrderedSelection addRowIdsToSelection(final ViewRowIdsOrderedSelection selection, final DocumentIdsSelection rowIds)
+	{
+		return !rowIds.isEmpty()
+				? removeAndAddRowIdsFromSelection(selection, DocumentIdsSelection.EMPTY, rowIds, AddRemoveChangedRowIdsCollector.NOT_RECORDING)
+				: selection;
+	}
+
+	@Override
+	public ViewRowIdsOrderedSelection removeRowIdsFromSelection(final ViewRowIdsOrderedSelection selection, final DocumentIdsSelection rowIds)
+	{
+		return !rowIds.isEmpty()
+				? removeAndAddRowIdsFromSelection(selection, rowIds, DocumentIdsSelection.EMPTY, AddRemoveChangedRowIdsCollector.NOT_RECORDING)
+				: selection;
+	}
+
+	@Override
+	public ViewRowIdsOrderedSelection removeAndAddRowIdsFromSelection(
+			@NonNull final ViewRowIdsOrderedSelection selection,
+			@NonNull final DocumentIdsSelection rowIdsToRemove,
+			@NonNull final DocumentIdsSelection rowIdsToAdd,
+			@NonNull final AddRemoveChangedRowIdsCollector changesCollector)
+	{
+		// shall not happen
+		if (rowIdsToAdd.isAll())
+		{
+			throw new IllegalArgumentException("Cannot add ALL to selection");
+		}
+
+		final String selectionId = selection.getSelectionId();
+		final InMemorySelection newRowIds = selectionsById.computeIfPresent(
+				selectionId,
+				(id, rowIds) -> rowIds.removingAndAdding(rowIdsToRemove, rowIdsToAdd, changesCollector));
+		if (newRowIds == null)
+		{
+			return databaseSelectionFactory.removeAndAddRowIdsFromSelection(selection, rowIdsToRemove, rowIdsToAdd, changesCollector);
+		}
+
+		return selection.withSize(newRowIds.size());
+	}
+
+	@Override
+	public boolean containsAnyOfRowIds(final ViewRowIdsOrderedSelection selection, final DocumentIdsSelection rowIds)
+	{
+		final InMemorySelection inMemorySelection = getInMemorySelection(selection.getSelectionId());
+		if (inMemorySelection == null)
+		{
+			return databaseSelectionFactory.containsAnyOfRowIds(selection, rowIds);
+		}
+
+		if (rowIds.isEmpty())
+		{
+			return false;
+		}
+		else if (rowIds.isAll())
+		{
+			return inMemorySelection.size() > 0;
+		}
+		else
+		{
+			return !inMemorySelection.retainRowIds(rowIds.toIntSet()).isEmpty();
+		}
+	}
+
+	@Override
+	public void deleteSelections(@NonNull final Set<String> selectionIds)
+	{
+		final Set<String> selectionIdsInDatabase = removeInMemorySelections(selectionIds);
+		if (!selectionIdsInDatabase.isEmpty())
+		{
+			databaseSelectionFactory.deleteSelections(selectionIdsInDatabase);
+		}
+	}
+
+	@Override
+	public void scheduleDeleteSelections(@NonNull final Set<String> selectionIds)
+	{
+		final Set<String> selectionIdsInDatabase = removeInMemorySelections(selectionIds);
+		if (!selectionIdsInDatabase.isEmpty())
+		{
+			databaseSelectionFactory.scheduleDeleteSelections(selectionIdsInDatabase);
+		}
+	}
+
+	/**
+	 * @return the selection IDs which were not found in memory
+	 */
+	private Set<String> removeInMemorySelections(@NonNull final Set<String> selectionIds)
+	{
+		return selectionIds.stream()
+				.filter(selectionId -> selectionsById.remove(selectionId) == null)
+				.collect(ImmutableSet.toImmutableSet());
+	}
+
+	/**
+	 * Immutable, ordered list of row IDs.
+	 */
+	static final class InMemorySelection
+	{
+		private final ImmutableIntArray rowIds;
+		/**
+		 * Same as {@link #rowIds} but sorted, used for binary searching.
+		 */
+		private final int[] rowIdsSorted;
+
+		InMemorySelection(@NonNull final ImmutableIntArray rowIds)
+		{
+			this.rowIds = rowIds;
+			this.rowIdsSorted = rowIds.toArray();
+			Arrays.sort(this.rowIdsSorted);
+		}
+
+		@Override
+		public String toString()
+		{
+			return MoreObjects.toStringHelper(this)
+					.add("size", size())
+					.toString();
+		}
+
+		public int size()
+		{
+			return rowIds.length();
+		}
+
+		public ImmutableIntArray getRowIds()
+		{
+			return rowIds;
+		}
+
+		public int[] toArray()
+		{
+			return rowIds.toArray();
+		}
+
+		public boolean contains(final int rowId)
+		{
+			return Arrays.binarySearch(rowIdsSorted, rowId) >= 0;
+		}
+
+		public ImmutableIntArray getPage(final int firstRowZeroBased, final int pageLength)
+		{
+			Check.assume(firstRowZeroBased >= 0, "firstRow >= 0 but it was {}", firstRowZeroBased);
+			Check.assume(pageLength > 0, "pageLength > 0 but it was {}", pageLength);
+
+			final int size = rowIds.length();
+			if (firstRowZeroBased >= size)
+			{
+				return ImmutableIntArray.of();
+			}
+
+			return rowIds.subArray(firstRowZeroBased, Math.min(size, firstRowZeroBased + pageLength));
+		}
+
+		public ImmutableList<DocumentId> getPageAsDocumentIds(final int firstRowZeroBased, final int pageLength)
+		{
+			final ImmutableIntArray page = getPage(firstRowZeroBased, pageLength);
+			final ImmutableList.Builder<DocumentId> result = ImmutableList.builder();
+			page.forEach(rowId -> result.add(DocumentId.of(rowId)));
+			return result.build();
+		}
+
+		/**
+		 * @return those of given row IDs which are present in this selection
+		 */
+		public Set<Integer> retainRowIds(@NonNull final Collection<Integer> rowIdsToCheck)
+		{
+			final ImmutableSet.Builder<Integer> result = ImmutableSet.builder();
+			for (final Integer rowId : rowIdsToCheck)
+			{
+				if (contains(rowId))
+				{
+					result.add(rowId);
+				}
+			}
+			return result.build();
+		}
+
+		InMemorySelection removingAndAdding(
+				@NonNull final DocumentIdsSelection rowIdsToRemove,
+				@NonNull final DocumentIdsSelection rowIdsToAdd,
+				@NonNull final AddRemoveChangedRowIdsCollector changesCollector)
+		{
+			//
+			// Remove
+			final Set<Integer> removedRowIds;
+			if (rowIdsToRemove.isAll())
+			{
+				removedRowIds = new HashSet<>(rowIds.asList());
+			}
+			else if (!rowIdsToRemove.isEmpty())
+			{
+				removedRowIds = retainRowIds(rowIdsToRemove.toIntSet());
+			}
+			else
+			{
+				removedRowIds = ImmutableSet.of();
+			}
+
+			//
+			// Add (append at the end)
+			final List<Integer> addedRowIds = new ArrayList<>();
+			if (!rowIdsToAdd.isEmpty())
+			{
+				final Set<Integer> seenRowIds = new HashSet<>();
+				for (final DocumentId rowId : rowIdsToAdd.toSet())
+				{
+					final int rowIdInt = rowId.toInt();
+					final boolean alreadyPresent = contains(rowIdInt) && !removedRowIds.contains(rowIdInt);
+					if (!alreadyPresent && seenRowIds.add(rowIdInt))
+					{
+						addedRowIds.add(rowIdInt);
+					}
+				}
+			}
+
+			if (removedRowIds.isEmpty() && addedRowIds.isEmpty())
+			{
+				return this;
+			}
+
+			final ImmutableIntArray.Builder newRowIds = ImmutableIntArray.builder(rowIds.length() - removedRowIds.size() + addedRowIds.size());
+			rowIds.forEach(rowId -> {
+				if (!removedRowIds.contains(rowId))
+				{
+					newRowIds.add(rowId);
+				}
+			});
+			addedRowIds.forEach(newRowIds::add);
+
+			if (!removedRowIds.isEmpty())
+			{
+				changesCollector.collectRemovedRowIds(removedRowIds.stream().map(DocumentId::of).collect(ImmutableSet.toImmutableSet()));
+			}
+			addedRowIds.forEach(rowId -> changesCollector.collectAddedRowId(DocumentId.of(rowId)));
+
+			return new InMemorySelection(newRowIds.build());
+		}
+	}
+}
@@ -1,9 +1,12 @@
 package de.metas.ui.web.view;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.ImmutableIntArray;
+import de.metas.common.util.pair.ImmutablePair;
 import de.metas.logging.LogManager;
 import de.metas.ui.web.document.filter.DocumentFilterList;
 import de.metas.ui.web.document.filter.provider.DocumentFilterDescriptorsProvider;
@@ -12,6 +15,7 @@ import de.metas.ui.web.document.filter.sql.SqlDocumentFilterConverter;
 import de.metas.ui.web.document.filter.sql.SqlDocumentFilterConverterContext;
 import de.metas.ui.web.document.filter.sql.SqlDocumentFilterConverters;
 import de.metas.ui.web.exceptions.EntityNotFoundException;
+import de.metas.ui.web.view.InMemoryViewRowIdsOrderedSelectionFactory.InMemorySelection;
 import de.metas.ui.web.view.ViewRow.DefaultRowType;
 import de.metas.ui.web.view.descriptor.SqlAndParams;
 import de.metas.ui.web.view.descriptor.SqlViewBinding;
@@ -31,6 +35,8 @@ import de.metas.ui.web.window.descriptor.DocumentFieldWidgetType;
 import de.metas.ui.web.window.model.DocumentQueryOrderByList;
 import de.metas.ui.web.window.model.sql.SqlOptions;
 import de.metas.util.Services;
+import de.metas.util.collections.IteratorUtils;
+import de.metas.util.collections.PagedIterator.Page;
 import lombok.Getter;
 import lombok.NonNull;
 import org.adempiere.ad.dao.IQueryBL;
@@ -43,12 +49,14 @@ import org.compiere.util.DisplayType;
 import org.slf4j.Logger;
 
 import javax.annotation.Nullable;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -81,12 +89,16 @@ class SqlViewDataRepository implements IViewDataRepository
 {
 	private static final Logger logger = LogManager.getLogger(SqlViewDataRepository.class);
 
+	private static final int STREAM_ALL_ROWS_PAGE_SIZE = 1000;
+
 	private final String tableName;
 	private final String tableAlias;
 	private final SqlViewKeyColumnNamesMap keyColumnNamesMap;
 	private final ImmutableMap<String, DocumentFieldWidgetType> widgetTypesByFieldName;
 	private final SqlViewSelectData sqlViewSelect;
 	private final ViewRowIdsOrderedSelectionFactory viewRowIdsOrderedSelectionFactory;
+	@Nullable
+	private final InMemoryViewRowIdsOrderedSelectionFactory inMemorySelectionFactory;
 	private final DocumentFilterDescriptorsProvider viewFilterDescriptors;
 	private final DocumentQueryOrderByList defaultOrderBys;
 
@@ -107,7 +119,12 @@ class SqlViewDataRepository implements IViewDataRepository
 		widgetTypesByFieldName = sqlBindings.getWidgetTypesByFieldName();
 		sqlViewSelect = sqlBindings.getSqlViewSelect();
 		viewFilterDescriptors = sqlBindings.getViewFilterDescriptors();
-		viewRowIdsOrderedSelectionFactory = SqlViewRowIdsOrderedSelectionFactory.of(sqlBindings);
+		inMemorySelectionFactory = InMemoryViewRowIdsOrderedSelectionFactory.isSupported(sqlBindings)
+				? InMemoryViewRowIdsOrderedSelectionFactory.of(sqlBindings)
+				: null;
+		viewRowIdsOrderedSelectionFactory = inMemorySelectionFactory != null
+				? inMemorySelectionFactory
+				: SqlViewRowIdsOrderedSelectionFactory.of(sqlBindings);
 		defaultOrderBys = sqlBindings.getDefaultOrderBys();
 
 		this.hasIncludedRows = sqlBindings.hasGroupingFields();
@@ -210,14 +227,42 @@ class SqlViewDataRepository implements IViewDataRepository
 		viewRowIdsOrderedSelectionFactory.scheduleDeleteSelections(viewIds);
 	}
 
+	/**
+	 * @return the selection's row IDs if the selection is kept in memory or null if the selection is stored in database
+	 */
+	@Nullable
+	private InMemorySelection getInMemorySelection(@NonNull final String selectionId)
+	{
+		return inMemorySelectionFactory != null
+				? inMemorySelectionFactory.getInMemorySelection(selectionId)
+				: null;
+	}
+
 	@Override
 	public IViewRow retrieveById(final ViewEvaluationCtx viewEvalCtx, final ViewId viewId, final DocumentId rowId)
 	{
-		final SqlAndParams sqlAndParams = sqlViewSelect.selectById()
-				.viewEvalCtx(viewEvalCtx)
-				.viewId(viewId)
-				.rowId(rowId)
-				.build();
+		final SqlAndParams sqlAndParams;
+		final InMemorySelection inMemorySelection = getInMemorySelection(viewId.getViewId());
+		if (inMemorySelection != null)
+		{
+			if (!rowId.isInt() || !inMemorySelection.contains(rowId.toInt()))
+			{
+				throw new EntityNotFoundException("No document found for rowId=" + rowId + " in viewId=" + viewId);
+			}
+
+			sqlAndParams = sqlViewSelect.selectByRowIds()
+					.viewEvalCtx(viewEvalCtx)
+					.rowIds(new int[] { rowId.toInt() })
+					.build();
+		}
+		else
+		{
+			sqlAndParams = sqlViewSelect.selectById()
+					.viewEvalCtx(viewEvalCtx)
+					.viewId(viewId)
+					.rowId(rowId)
+					.build();
+		}
 
 		PreparedStatement pstmt = null;
 		ResultSet rs = null;
@@ -490,12 +535,30 @@ class SqlViewDataRepository implements IViewDataRepository
 		logger.debug("Using: {}", orderedSelection);
 
 		final ViewId viewId = orderedSelection.getViewId();
-		final SqlAndParams sqlAndParams = sqlViewSelect.selectByPage()
-				.viewEvalCtx(viewEvalCtx)
-				.viewId(viewId)
-				.firstRowZeroBased(firstRow)
-				.pageLength(pageLength)
-				.build();
+		final SqlAndParams sqlAndParams;
+		final InMemorySelection inMemorySelection = getInMemorySelection(viewId.getViewId());
+		if (inMemorySelection != null)
+		{
+			final ImmutableIntArray pageRowIds = inMemorySelection.getPage(firstRow, pageLength);
+			if (pageRowIds.isEmpty())
+			{
+				return ImmutableList.of();
+			}
+
+			sqlAndParams = sqlViewSelect.selectByRowIds()
+					.viewEvalCtx(viewEvalCtx)
+					.rowIds(pageRowIds.toArray())
+					.build();
+		}
+		else
+		{
+			sqlAndParams = sqlViewSelect.selectByPage()
+					.viewEvalCtx(viewEvalCtx)
+					.viewId(viewId)
+					.firstRowZeroBased(firstRow)
+					.pageLength(pageLength)
+					.build();
+		}
 
 		PreparedStatement pstmt = null;
 		ResultSet rs = null;
@@ -529,6 +592,12 @@ class SqlViewDataRepository implements IViewDataRepository
 		logger.debug("Using: {}", orderedSelection);
 
 		final ViewId viewId = orderedSelection.getViewId();
+		final InMemorySelection inMemorySelection = getInMemorySelection(viewId.getViewId());
+		if (inMemorySelection != null)
+		{
+			return inMemorySelection.getPageAsDocumentIds(firstRow, pageLength);
+		}
+
 		final SqlAndParams sqlAndParams = sqlViewSelect.selectRowIdsByPage()
 				.viewEvalCtx(viewEvalCtx)
 				.viewId(viewId)
@@ -571,6 +640,100 @@ class SqlViewDataRepository implements IViewDataRepository
 		}
 	}
 
+	@Override
+	public Stream<IViewRow> streamAllRows(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final ViewRowIdsOrderedSelection orderedSelection)
+	{
+		final ViewId viewId = orderedSelection.getViewId();
+
+		//
+		// Included rows are loaded page by page, for each page's root rows
+		if (hasIncludedRows)
+		{
+			return IteratorUtils.<IViewRow>newPagedIterator()
+					.firstRow(0)
+					.maxRows(0) // all
+					.pageSize(STREAM_ALL_ROWS_PAGE_SIZE)
+					.pageFetcher((firstRow, pageSize) -> Page.ofRowsOrNull(retrievePage(viewEvalCtx, orderedSelection, firstRow, pageSize)))
+					.build()
+					.stream();
+		}
+
+		final SqlAndParams sqlAndParams;
+		final InMemorySelection inMemorySelection = getInMemorySelection(viewId.getViewId());
+		if (inMemorySelection != null)
+		{
+			if (inMemorySelection.size() <= 0)
+			{
+				return Stream.empty();
+			}
+
+			sqlAndParams = sqlViewSelect.selectByRowIds()
+					.viewEvalCtx(viewEvalCtx)
+					.rowIds(inMemorySelection.toArray())
+					.build();
+		}
+		else
+		{
+			sqlAndParams = sqlViewSelect.selectByPage()
+					.viewEvalCtx(viewEvalCtx)
+					.viewId(viewId)
+					.firstRowZeroBased(0)
+					.pageLength(Integer.MAX_VALUE)
+					.build();
+		}
+
+		//
+		// Use a database cursor, i.e. fetch the rows in chunks while the stream is consumed
+		final ImmutablePair<Connection, PreparedStatement> connAndStmt = DB.prepareConnectionAndStatementForDataExport(sqlAndParams.getSql(), sqlAndParams.getSqlParams());
+		final Connection conn = connAndStmt.getLeft();
+		final PreparedStatement pstmt = connAndStmt.getRight();
+		final ResultSet rs;
+		try
+		{
+			rs = pstmt.executeQuery();
+		}
+		catch (final SQLException ex)
+		{
+			DB.close(pstmt);
+			DB.close(conn);
+			throw new DBException(ex, sqlAndParams.getSql(), sqlAndParams.getSqlParams());
+		}
+
+		final WindowId windowId = viewId.getWindowId();
+		final JSONOptions jsonOpts = viewEvalCtx.toJSONOptions();
+		final Iterator<IViewRow> rowsIterator = new AbstractIterator<IViewRow>()
+		{
+			@Override
+			protected IViewRow computeNext()
+			{
+				try
+				{
+					while (rs.next())
+					{
+						final ViewRow.Builder rowBuilder = loadViewRow(rs, windowId, jsonOpts);
+						if (rowBuilder != null)
+						{
+							return rowBuilder.build();
+						}
+					}
+					return endOfData();
+				}
+				catch (final SQLException ex)
+				{
+					throw new DBException(ex, sqlAndParams.getSql(), sqlAndParams.getSqlParams());
+				}
+			}
+		};
+
+		return IteratorUtils.stream(rowsIterator)
+				.onClose(() -> {
+					DB.close(rs, pstmt);
+					DB.close(conn);
+				});
+	}
+
 	private List<IViewRow> retrieveRowLines(final ViewEvaluationCtx viewEvalCtx, final ViewId viewId, final DocumentIdsSelection rowIds)
 	{
 		logger.debug("Getting row lines: rowId={} - {}", rowIds, this);
@@ -759,7 +922,10 @@ class SqlViewDataRepository implements IViewDataRepository
 			final int limit)
 	{
 		final SqlViewRowFieldLoader fieldLoader = rowFieldLoaders.get(fieldName);
-		final SqlAndParams sql = sqlViewSelect.selectFieldValues(viewEvalCtx, selectionId, fieldName, limit);
+		final InMemorySelection inMemorySelection = getInMemorySelection(selectionId);
+		final SqlAndParams sql = inMemorySelection != null
+				? sqlViewSelect.selectFieldValuesByRowIds(viewEvalCtx, inMemorySelection.toArray(), fieldName, limit)
+				: sqlViewSelect.selectFieldValues(viewEvalCtx, selectionId, fieldName, limit);
 
 		final String adLanguage = viewEvalCtx.getAdLanguage();
 		return DB.retrieveRows(
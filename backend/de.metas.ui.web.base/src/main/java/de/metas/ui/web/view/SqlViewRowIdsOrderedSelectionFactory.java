@@ -110,15 +110,7 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 
 		if (!context.isQueryIfNoFilters() && !sqlCreates.isAnyFilterApplied())
 		{
-			return ViewRowIdsOrderedSelection.builder()
-					.viewId(viewId)
-					.size(0)
-					.orderBys(orderBys)
-					.queryLimit(queryLimit)
-					.emptyReason(EmptyReason.of(
-							TranslatableStrings.adMessage(MSG_PleaseFilterFirst_Text),
-							TranslatableStrings.adMessage(MSG_PleaseFilterFirst_Hint)))
-					.build();
+			return createEmptySelectionPleaseFilterFirst(viewId, orderBys, queryLimit);
 		}
 
 		//
@@ -149,7 +141,23 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 				.build();
 	}
 
-	private QueryLimit extractQueryLimit(final ViewEvaluationCtx viewEvalCtx)
+	static ViewRowIdsOrderedSelection createEmptySelectionPleaseFilterFirst(
+			@NonNull final ViewId viewId,
+			@NonNull final DocumentQueryOrderByList orderBys,
+			@NonNull final QueryLimit queryLimit)
+	{
+		return ViewRowIdsOrderedSelection.builder()
+				.viewId(viewId)
+				.size(0)
+				.orderBys(orderBys)
+				.queryLimit(queryLimit)
+				.emptyReason(EmptyReason.of(
+						TranslatableStrings.adMessage(MSG_PleaseFilterFirst_Text),
+						TranslatableStrings.adMessage(MSG_PleaseFilterFirst_Hint)))
+				.build();
+	}
+
+	QueryLimit extractQueryLimit(final ViewEvaluationCtx viewEvalCtx)
 	{
 		final UserRolePermissionsKey permissionsKey = viewEvalCtx.getPermissionsKey();
 		final IUserRolePermissions permissions = userRolePermissionsRepo.getUserRolePermissions(permissionsKey);
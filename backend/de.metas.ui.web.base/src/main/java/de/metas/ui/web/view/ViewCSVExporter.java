@@ -0,0 +1,151 @@
+/*
+ * #%L
+ * de.metas.ui.web.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+package de.metas.ui.web.view;
+
+import com.google.common.collect.ImmutableList;
+import de.metas.i18n.Language;
+import de.metas.impexp.spreadsheet.csv.CSVWriter;
+import de.metas.impexp.spreadsheet.excel.CellValue;
+import de.metas.ui.web.view.descriptor.ViewLayout;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.ui.web.window.datatypes.json.JSONOptions;
+import lombok.Builder;
+import lombok.NonNull;
+import org.adempiere.exceptions.AdempiereException;
+
+import javax.annotation.Nullable;
+import java.io.OutputStream;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Exports view rows as CSV.
+ * <p>
+ * The rows are written to the output stream while they are fetched, so neither the rows nor the CSV content are kept in memory.
+ */
+/* package */ class ViewCSVExporter
+{
+	private final IView view;
+	private final DocumentIdsSelection rowIds;
+	private final ViewLayout layout;
+	private final Language language;
+	private final JSONOptions jsonOpts;
+	private final int pageSize;
+
+	@Builder
+	private ViewCSVExporter(
+			@NonNull final IView view,
+			@NonNull final DocumentIdsSelection rowIds,
+			@NonNull final ViewLayout layout,
+			@NonNull final Language language,
+			@NonNull final ZoneId zoneId,
+			final int pageSize)
+	{
+		if (rowIds.isEmpty())
+		{
+			throw new AdempiereException("@NoSelection@");
+		}
+
+		this.view = view;
+		this.rowIds = rowIds;
+		this.layout = layout;
+		this.language = language;
+		this.jsonOpts = JSONOptions.builder()
+				.adLanguage(language.getAD_Language())
+				.zoneId(zoneId)
+				.build();
+		this.pageSize = pageSize > 0 ? pageSize : 1000;
+	}
+
+	public void export(@NonNull final OutputStream out)
+	{
+		final CSVWriter csvWriter = CSVWriter.builder()
+				.outputStream(out)
+				.header(getHeaderNames())
+				.adLanguage(language.getAD_Language())
+				.build();
+
+		try (final Stream<? extends IViewRow> rows = streamRows())
+		{
+			csvWriter.appendHeaderIfNeeded();
+			rows.forEach(row -> csvWriter.appendRow(toCsvValues(row)));
+		}
+		finally
+		{
+			csvWriter.close();
+		}
+	}
+
+	private Stream<? extends IViewRow> streamRows()
+	{
+		if (rowIds.isAll())
+		{
+			final ViewRowsOrderBy orderBys = ViewRowsOrderBy.empty(jsonOpts); // default
+			return view.streamAllRows(orderBys, pageSize);
+		}
+		else
+		{
+			return view.streamByIds(rowIds);
+		}
+	}
+
+	private ImmutableList<String> getHeaderNames()
+	{
+		final String adLanguage = language.getAD_Language();
+		return layout.getElements()
+				.stream()
+				.map(element -> element.getCaption(adLanguage))
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	private List<Object> toCsvValues(@NonNull final IViewRow row)
+	{
+		final List<CellValue> cellValues = ViewExcelExporter.toCellValues(row, layout, jsonOpts);
+		final ArrayList<Object> result = new ArrayList<>(cellValues.size());
+		for (final CellValue cellValue : cellValues)
+		{
+			result.add(toCsvValue(cellValue));
+		}
+		return result;
+	}
+
+	@Nullable
+	private static Object toCsvValue(@Nullable final CellValue cellValue)
+	{
+		if (cellValue == null)
+		{
+			return null;
+		}
+		else if (cellValue.isDate())
+		{
+			return cellValue.dateValue();
+		}
+		else
+		{
+			return cellValue.stringValue();
+		}
+	}
+}
@@ -2,18 +2,17 @@ package de.metas.ui.web.view;
 
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
 
 import org.adempiere.exceptions.AdempiereException;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 
 import de.metas.i18n.Language;
@@ -23,7 +22,6 @@ import de.metas.impexp.spreadsheet.excel.CellValues;
 import de.metas.impexp.spreadsheet.excel.ExcelExportConstants;
 import de.metas.impexp.spreadsheet.excel.ExcelFormat;
 import de.metas.ui.web.view.descriptor.ViewLayout;
-import de.metas.ui.web.view.util.PageIndex;
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
 import de.metas.ui.web.window.datatypes.json.DateTimeConverters;
 import de.metas.ui.web.window.datatypes.json.JSONLookupValue;
@@ -31,6 +29,7 @@ import de.metas.ui.web.window.datatypes.json.JSONLookupValuesList;
 import de.metas.ui.web.window.datatypes.json.JSONNullValue;
 import de.metas.ui.web.window.datatypes.json.JSONOptions;
 import de.metas.ui.web.window.descriptor.DocumentFieldWidgetType;
+import de.metas.ui.web.window.descriptor.DocumentLayoutElementDescriptor;
 import de.metas.ui.web.window.descriptor.DocumentLayoutElementFieldDescriptor;
 import de.metas.util.Check;
 import lombok.Builder;
@@ -63,7 +62,6 @@ import lombok.NonNull;
 	private final RowsSupplier rows;
 	private final ViewLayout layout;
 	private final JSONOptions jsonOpts;
-	private int rowNumber = 0;
 
 	@Builder
 	private ViewExcelExporter(
@@ -102,14 +100,14 @@ import lombok.NonNull;
 		setFreezePane(0, 1);
 	}
 
-	private IViewRow getRow(final int rowIndex)
+	private String getFieldName(final int columnIndex)
 	{
-		return rows.getRow(rowIndex);
+		return extractFieldName(layout.getElements().get(columnIndex));
 	}
 
-	private String getFieldName(final int columnIndex)
+	private static String extractFieldName(final DocumentLayoutElementDescriptor element)
 	{
-		final Set<DocumentLayoutElementFieldDescriptor> fields = layout.getElements().get(columnIndex).getFields();
+		final Set<DocumentLayoutElementFieldDescriptor> fields = element.getFields();
 		return fields.iterator().next().getField();
 	}
 
@@ -164,23 +162,41 @@ import lombok.NonNull;
 		return getWidgetType(columnIndex).getDisplayType();
 	}
 
-	private CellValue getValueAt(final int rowIndex, final int columnIndex)
+	private CellValue getValueAt(@NonNull final IViewRow row, final int columnIndex)
 	{
-		final String fieldName = getFieldName(columnIndex);
+		return toCellValue(row, getFieldName(columnIndex), getWidgetType(columnIndex), jsonOpts);
+	}
 
-		final IViewRow row = getRow(rowIndex);
-		if (row == null)
+	/**
+	 * @return the cell values of given row, one for each layout element
+	 */
+	static List<CellValue> toCellValues(
+			@NonNull final IViewRow row,
+			@NonNull final ViewLayout layout,
+			@NonNull final JSONOptions jsonOpts)
+	{
+		final List<DocumentLayoutElementDescriptor> elements = layout.getElements();
+		final ArrayList<CellValue> result = new ArrayList<>(elements.size());
+		for (final DocumentLayoutElementDescriptor element : elements)
 		{
-			return null;
+			result.add(toCellValue(row, extractFieldName(element), element.getWidgetType(), jsonOpts));
 		}
+		return result;
+	}
 
+	@Nullable
+	private static CellValue toCellValue(
+			@NonNull final IViewRow row,
+			@NonNull final String fieldName,
+			@NonNull final DocumentFieldWidgetType widgetType,
+			@NonNull final JSONOptions jsonOpts)
+	{
 		final Object value = row.getFieldValueAsJsonObject(fieldName, jsonOpts);
 		if (JSONNullValue.isNull(value))
 		{
 			return null;
 		}
 
-		final DocumentFieldWidgetType widgetType = getWidgetType(columnIndex);
 		if (widgetType.isDateOrTime())
 		{
 			return CellValue.ofDate(DateTimeConverters.fromObject(value, widgetType));
@@ -214,29 +230,26 @@ import lombok.NonNull;
 
 	private interface RowsSupplier
 	{
-		IViewRow getRow(int rowIndex);
+		boolean hasNextRow();
+
+		IViewRow nextRow();
 
 		int getRowCount();
+
+		void close();
 	}
 
+	/**
+	 * Streams all view rows, so only the row which is currently exported is kept in memory.
+	 */
 	private static class AllRowsSupplier implements RowsSupplier
 	{
-		private final int pageSize;
 		private final IView view;
+		private final int pageSize;
 		private final JSONOptions jsonOpts;
 
-		private LoadingCache<PageIndex, ViewResult> cache = CacheBuilder.newBuilder()
-				.maximumSize(2) // cache max 2 pages
-				.build(new CacheLoader<PageIndex, ViewResult>()
-				{
-					@Override
-					public ViewResult load(final PageIndex pageIndex)
-					{
-						final ViewRowsOrderBy orderBys = ViewRowsOrderBy.empty(jsonOpts); // default
-						return view.getPage(pageIndex.getFirstRow(), pageIndex.getPageLength(), orderBys);
-					}
-
-				});
+		private Stream<? extends IViewRow> stream;
+		private Iterator<? extends IViewRow> iterator;
 
 		private AllRowsSupplier(
 				@NonNull final IView view,
@@ -248,37 +261,32 @@ import lombok.NonNull;
 			this.jsonOpts = jsonOpts;
 		}
 
-		private ViewResult getPage(final PageIndex pageIndex)
+		private Iterator<? extends IViewRow> getIterator()
 		{
-			try
-			{
-				return cache.get(pageIndex);
-			}
-			catch (ExecutionException e)
+			if (iterator == null)
 			{
-				throw AdempiereException.wrapIfNeeded(e);
+				final ViewRowsOrderBy orderBys = ViewRowsOrderBy.empty(jsonOpts); // default
+				stream = view.streamAllRows(orderBys, pageSize);
+				iterator = stream.iterator();
 			}
+			return iterator;
 		}
 
 		@Override
-		public IViewRow getRow(final int rowIndex)
+		public boolean hasNextRow()
 		{
-			final ViewResult page = getPage(PageIndex.getPageContainingRow(rowIndex, pageSize));
-
-			final int rowIndexInPage = rowIndex - page.getFirstRow();
-			if (rowIndexInPage < 0)
+			final boolean hasNext = getIterator().hasNext();
+			if (!hasNext)
 			{
-				// shall not happen
-				return null;
-			}
-
-			final List<IViewRow> rows = page.getPage();
-			if (rowIndexInPage >= rows.size())
-			{
-				return null;
+				close();
 			}
+			return hasNext;
+		}
 
-			return rows.get(rowIndexInPage);
+		@Override
+		public IViewRow nextRow()
+		{
+			return getIterator().next();
 		}
 
 		@Override
@@ -286,11 +294,23 @@ import lombok.NonNull;
 		{
 			return (int)view.size();
 		}
+
+		@Override
+		public void close()
+		{
+			if (stream != null)
+			{
+				stream.close();
+				stream = null;
+				iterator = Collections.emptyIterator();
+			}
+		}
 	}
 
 	private static class ListRowsSupplier implements RowsSupplier
 	{
 		private final ImmutableList<IViewRow> rows;
+		private int nextRowIndex = 0;
 
 		private ListRowsSupplier(@NonNull final IView view, @NonNull DocumentIdsSelection rowIds)
 		{
@@ -300,14 +320,18 @@ import lombok.NonNull;
 		}
 
 		@Override
-		public IViewRow getRow(final int rowIndex)
+		public boolean hasNextRow()
 		{
-			Check.assume(rowIndex >= 0, "rowIndex >= 0");
+			return nextRowIndex < rows.size();
+		}
 
+		@Override
+		public IViewRow nextRow()
+		{
 			final int rowsCount = rows.size();
-			Check.assume(rowIndex < rowsCount, "rowIndex < {}", rowsCount);
+			Check.assume(nextRowIndex < rowsCount, "rowIndex < {}", rowsCount);
 
-			return rows.get(rowIndex);
+			return rows.get(nextRowIndex++);
 		}
 
 		@Override
@@ -315,24 +339,36 @@ import lombok.NonNull;
 		{
 			return rows.size();
 		}
+
+		@Override
+		public void close()
+		{
+		}
 	}
 
 	@Override
 	protected List<CellValue> getNextRow()
 	{
+		final IViewRow row = rows.nextRow();
+
 		final ArrayList<CellValue> result = new ArrayList<>();
 		for (int i = 0; i < getColumnCount(); i++)
 		{
-			result.add(getValueAt(rowNumber, i));
+			result.add(getValueAt(row, i));
 		}
 
-		rowNumber++;
 		return result;
 	}
 
 	@Override
 	protected boolean hasNextRow()
 	{
-		return rowNumber < getRowCount();
+		return rows.hasNextRow();
+	}
+
+	@Override
+	protected void onExportFinished()
+	{
+		rows.close();
 	}
 }
@@ -24,6 +24,7 @@ package de.metas.ui.web.view;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import de.metas.impexp.spreadsheet.excel.ExcelExportConstants;
 import de.metas.impexp.spreadsheet.excel.ExcelFormat;
 import de.metas.impexp.spreadsheet.excel.ExcelFormats;
 import de.metas.monitoring.adapter.PerformanceMonitoringService;
@@ -66,11 +67,7 @@ import lombok.Builder;
 import lombok.NonNull;
 import org.adempiere.exceptions.AdempiereException;
 import org.compiere.util.MimeType;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -83,9 +80,7 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.request.WebRequest;
 
 import javax.annotation.Nullable;
-import java.io.File;
-import java.io.FileOutputStream;
-import java.nio.file.Files;
+import javax.servlet.http.HttpServletResponse;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -577,10 +572,11 @@ public class ViewRestController
 
 	@Monitor(type = PerformanceMonitoringService.Type.REST_CONTROLLER_WITH_WINDOW_ID)
 	@GetMapping("/{viewId}/export/excel")
-	public ResponseEntity<Resource> exportToExcel(
+	public void exportToExcel(
 			@PathVariable("windowId") final String windowIdStr,
 			@PathVariable(PARAM_ViewId) final String viewIdStr,
-			@RequestParam(name = "selectedIds", required = false) @Parameter(description = "comma separated IDs") final String selectedIdsListStr)
+			@RequestParam(name = "selectedIds", required = false) @Parameter(description = "comma separated IDs") final String selectedIdsListStr,
+			final HttpServletResponse response)
 			throws Exception
 	{
 		userSession.assertLoggedIn();
@@ -588,28 +584,58 @@ public class ViewRestController
 		final ViewId viewId = ViewId.ofViewIdString(viewIdStr, WindowId.fromJson(windowIdStr));
 
 		final ExcelFormat excelFormat = ExcelFormats.getDefaultFormat();
-		final File tmpFile = File.createTempFile("exportToExcel", "." + excelFormat.getFileExtension());
 
-		try (final FileOutputStream out = new FileOutputStream(tmpFile))
-		{
-			ViewExcelExporter.builder()
-					.excelFormat(excelFormat)
-					.view(viewsRepo.getView(viewId))
-					.rowIds(DocumentIdsSelection.ofCommaSeparatedString(selectedIdsListStr))
-					.layout(viewsRepo.getViewLayout(viewId.getWindowId(), JSONViewDataType.grid, ViewProfileId.NULL))
-					.language(userSession.getLanguage())
-					.zoneId(userSession.getTimeZone())
-					.build()
-					.export(out);
-		}
+		// Always use the streaming workbook, because views can be huge
+		final ExcelExportConstants constants = ExcelExportConstants.getFromSysConfig()
+				.toBuilder()
+				.useStreamingWorkbookImplementation(true)
+				.build();
+
+		final ViewExcelExporter exporter = ViewExcelExporter.builder()
+				.excelFormat(excelFormat)
+				.constants(constants)
+				.view(viewsRepo.getView(viewId))
+				.rowIds(DocumentIdsSelection.ofCommaSeparatedString(selectedIdsListStr))
+				.layout(viewsRepo.getViewLayout(viewId.getWindowId(), JSONViewDataType.grid, ViewProfileId.NULL))
+				.language(userSession.getLanguage())
+				.zoneId(userSession.getTimeZone())
+				.build();
+
+		setExportResponseHeaders(response, "report." + excelFormat.getFileExtension()); // TODO: use a better name
+		exporter.export(response.getOutputStream());
+	}
+
+	@Monitor(type = PerformanceMonitoringService.Type.REST_CONTROLLER_WITH_WINDOW_ID)
+	@GetMapping("/{viewId}/export/csv")
+	public void exportToCSV(
+			@PathVariable("windowId") final String windowIdStr,
+			@PathVariable(PARAM_ViewId) final String viewIdStr,
+			@RequestParam(name = "selectedIds", required = false) @Parameter(description = "comma separated IDs") final String selectedIdsListStr,
+			final HttpServletResponse response)
+			throws Exception
+	{
+		userSession.assertLoggedIn();
+
+		final ViewId viewId = ViewId.ofViewIdString(viewIdStr, WindowId.fromJson(windowIdStr));
 
-		final String filename = "report." + excelFormat.getFileExtension(); // TODO: use a better name
-		final String contentType = MimeType.getMimeType(filename);
-		final HttpHeaders headers = new HttpHeaders();
-		headers.setContentType(MediaType.parseMediaType(contentType));
-		headers.set(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"");
-		headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
+		final ViewCSVExporter exporter = ViewCSVExporter.builder()
+				.view(viewsRepo.getView(viewId))
+				.rowIds(DocumentIdsSelection.ofCommaSeparatedString(selectedIdsListStr))
+				.layout(viewsRepo.getViewLayout(viewId.getWindowId(), JSONViewDataType.grid, ViewProfileId.NULL))
+				.language(userSession.getLanguage())
+				.zoneId(userSession.getTimeZone())
+				.pageSize(ExcelExportConstants.getFromSysConfig().getAllRowsPageSize())
+				.build();
 
-		return new ResponseEntity<>(new InputStreamResource(Files.newInputStream(tmpFile.toPath())), headers, HttpStatus.OK);
+		// NOTE: the rows are written to the response while they are fetched from database
+		setExportResponseHeaders(response, "report.csv");
+		exporter.export(response.getOutputStream());
+	}
+
+	private static void setExportResponseHeaders(@NonNull final HttpServletResponse response, @NonNull final String filename)
+	{
+		response.setContentType(MimeType.getMimeType(filename));
+		response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"");
+		response.setHeader(HttpHeaders.CACHE_CONTROL, "must-revalidate, post-check=0, pre-check=0");
 	}
 }
@@ -77,6 +77,8 @@ public class SqlViewSelectData
 	@Getter(AccessLevel.PRIVATE)
 	private final IStringExpression sqlSelectById;
 	private final IStringExpression sqlSelectLines;
+	@Nullable
+	private final IStringExpression sqlSelectByRowIds;
 
 	@Builder
 	private SqlViewSelectData(
@@ -93,6 +95,7 @@ public class SqlViewSelectData
 		this.fieldsByFieldName = Maps.uniqueIndex(allFields, SqlViewRowFieldBinding::getFieldName);
 
 		final IStringExpression sqlSelect = buildSqlSelect(sqlTableName, sqlTableAlias, keyColumnNamesMap, displayFieldNames, allFields, groupingBinding);
+		final boolean rowIdsListSupported = groupingBinding == null && SqlViewSelectionQueryBuilder.isRowIdsListSupported(keyColumnNamesMap);
 
 		sqlSelectByPage = sqlSelect.toComposer()
 				.append("\n WHERE ")
@@ -129,6 +132,19 @@ public class SqlViewSelectData
 		this.sqlSelectLines = groupingBinding != null
 				? buildSqlSelectLines(sqlTableName, sqlTableAlias, keyColumnNamesMap, displayFieldNames, allFields)
 				: null;
+
+		this.sqlSelectByRowIds = rowIdsListSupported
+				? buildSqlSelect_WithoutGrouping(sqlTableName, sqlTableAlias, keyColumnNamesMap, displayFieldNames, allFields, true)
+				.toComposer()
+				.append("\n ORDER BY " + COLUMNNAME_Paging_SeqNo_OneBased)
+				.build()
+				: null;
+	}
+
+	private IStringExpression getSqlSelectByRowIds()
+	{
+		Check.assumeNotNull(sqlSelectByRowIds, "sqlSelectByRowIds is not null (only single integer keys without grouping are supported)");
+		return sqlSelectByRowIds;
 	}
 
 	private IStringExpression getSqlSelectLines()
@@ -158,7 +174,7 @@ public class SqlViewSelectData
 	{
 		if (groupingBinding == null)
 		{
-			return buildSqlSelect_WithoutGrouping(sqlTableName, sqlTableAlias, keyColumnNamesMap, displayFieldNames, allFields);
+			return buildSqlSelect_WithoutGrouping(sqlTableName, sqlTableAlias, keyColumnNamesMap, displayFieldNames, allFields, false);
 		}
 		else
 		{
@@ -166,12 +182,17 @@ public class SqlViewSelectData
 		}
 	}
 
+	/**
+	 * @param fromRowIds if true, the selection is not read from {@link I_T_WEBUI_ViewSelection} but from the row IDs list parameter,
+	 *                   see {@link SqlViewSelectionQueryBuilder#buildSqlSelectionFromRowIdsParam(SqlViewKeyColumnNamesMap)}
+	 */
 	private static IStringExpression buildSqlSelect_WithoutGrouping(
 			@NonNull final String sqlTableName,
 			@NonNull final String sqlTableAlias,
 			@NonNull final SqlViewKeyColumnNamesMap keyColumnNamesMap,
 			@NonNull final Collection<String> displayFieldNames,
-			@NonNull final Collection<SqlViewRowFieldBinding> allFields)
+			@NonNull final Collection<SqlViewRowFieldBinding> allFields,
+			final boolean fromRowIds)
 	{
 		final List<String> sqlSelectValuesList = new ArrayList<>();
 		final List<IStringExpression> sqlSelectDisplayNamesList = new ArrayList<>();
@@ -207,14 +228,22 @@ public class SqlViewSelectData
 				.append("\n   SELECT ")
 				.append("\n   ").append(Joiner.on("\n   , ").join(sqlSelectValuesList))
 				.append("\n , sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_Line + " AS " + COLUMNNAME_Paging_SeqNo_OneBased)
-				.append("\n , sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID + " AS " + COLUMNNAME_Paging_UUID)
+				.append("\n , " + (fromRowIds ? "null" : "sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID) + " AS " + COLUMNNAME_Paging_UUID)
 				.append("\n , ").append(keyColumnNamesMap.getWebuiSelectionColumnNamesCommaSeparated(columnName -> "sel." + columnName + " AS " + COLUMNNAME_Paging_Prefix + columnName))
-				.append("\n , " + keyColumnNamesMap.getSqlIsNullExpression(sqlTableName) + " AS " + COLUMNNAME_IsRecordMissing)
-				.append("\n   FROM " + I_T_WEBUI_ViewSelection.Table_Name + " sel")
-				.append("\n   LEFT OUTER JOIN " + sqlTableName + " ON (" + keyColumnNamesMap.getSqlJoinCondition(sqlTableName, "sel") + ")")
-				// Filter by UUID. Keep this closer to the source table, see https://github.com/metasfresh/metasfresh-webui-api/issues/437
-				.append("\n   WHERE sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID + "=?")
-				.append("\n ) " + sqlTableAlias); // FROM
+				.append("\n , " + keyColumnNamesMap.getSqlIsNullExpression(sqlTableName) + " AS " + COLUMNNAME_IsRecordMissing);
+		if (fromRowIds)
+		{
+			sql.append("\n   FROM " + SqlViewSelectionQueryBuilder.buildSqlSelectionFromRowIdsParam(keyColumnNamesMap))
+					.append("\n   LEFT OUTER JOIN " + sqlTableName + " ON (" + keyColumnNamesMap.getSqlJoinCondition(sqlTableName, "sel") + ")");
+		}
+		else
+		{
+			sql.append("\n   FROM " + I_T_WEBUI_ViewSelection.Table_Name + " sel")
+					.append("\n   LEFT OUTER JOIN " + sqlTableName + " ON (" + keyColumnNamesMap.getSqlJoinCondition(sqlTableName, "sel") + ")")
+					// Filter by UUID. Keep this closer to the source table, see https://github.com/metasfresh/metasfresh-webui-api/issues/437
+					.append("\n   WHERE sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID + "=?");
+		}
+		sql.append("\n ) " + sqlTableAlias); // FROM
 
 		return sql.build().caching();
 	}
@@ -426,6 +455,24 @@ public class SqlViewSelectData
 		return SqlAndParams.of(sql, sqlParams);
 	}
 
+	/**
+	 * Selects the rows of given row IDs, in the given order.
+	 * Can be used for selections which are not stored in {@link I_T_WEBUI_ViewSelection}.
+	 */
+	@Builder(builderMethodName = "selectByRowIds", builderClassName = "SelectByRowIdsBuilder")
+	private SqlAndParams selectByRowIdsBuilder(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final int[] rowIds)
+	{
+		final String sql = getSqlSelectByRowIds().evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail);
+		return SqlAndParams.of(sql, SqlViewSelectionQueryBuilder.toSqlRowIdsParam(rowIds));
+	}
+
+	public boolean isSelectByRowIdsSupported()
+	{
+		return sqlSelectByRowIds != null;
+	}
+
 	@Builder(builderMethodName = "selectIncludedLines", builderClassName = "SelectIncludedLinesBuilder")
 	private SqlAndParams selectIncludedLinesBuilder(
 			@NonNull final ViewEvaluationCtx viewEvalCtx,
@@ -457,6 +504,40 @@ public class SqlViewSelectData
 			@NonNull final String selectionId,
 			@NonNull final String fieldName,
 			final int limit)
+	{
+		return selectFieldValues(
+				viewEvalCtx,
+				SqlAndParams.builder()
+						.append(I_T_WEBUI_ViewSelection.Table_Name + " sel")
+						.append("\n INNER JOIN " + sqlTableName + " ON (" + keyColumnNamesMap.getSqlJoinCondition(sqlTableName, "sel") + ")")
+						// Filter by UUID. Keep this closer to the source table, see https://github.com/metasfresh/metasfresh-webui-api/issues/437
+						.append("\n WHERE sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID + "=?", selectionId)
+						.build(),
+				fieldName,
+				limit);
+	}
+
+	public SqlAndParams selectFieldValuesByRowIds(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final int[] rowIds,
+			@NonNull final String fieldName,
+			final int limit)
+	{
+		return selectFieldValues(
+				viewEvalCtx,
+				SqlAndParams.builder()
+						.append(SqlViewSelectionQueryBuilder.buildSqlSelectionFromRowIds(keyColumnNamesMap, rowIds))
+						.append("\n INNER JOIN " + sqlTableName + " ON (" + keyColumnNamesMap.getSqlJoinCondition(sqlTableName, "sel") + ")")
+						.build(),
+				fieldName,
+				limit);
+	}
+
+	private SqlAndParams selectFieldValues(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final SqlAndParams sqlFromSelectionJoinTable,
+			@NonNull final String fieldName,
+			final int limit)
 	{
 		Check.assumeGreaterThanZero(limit, "limit");
 
@@ -495,10 +576,7 @@ public class SqlViewSelectData
 			sqlExpression
 					.append("\n, ").append(sqlDisplayValue.withJoinOnTableNameOrAlias(sqlTableName).toStringExpressionWithColumnNameAlias());
 		}
-		sqlExpression.append("\n FROM " + I_T_WEBUI_ViewSelection.Table_Name + " sel")
-				.append("\n INNER JOIN " + sqlTableName + " ON (" + keyColumnNamesMap.getSqlJoinCondition(sqlTableName, "sel") + ")")
-				// Filter by UUID. Keep this closer to the source table, see https://github.com/metasfresh/metasfresh-webui-api/issues/437
-				.append("\n WHERE sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID + "=?")
+		sqlExpression.append("\n FROM ").append(sqlFromSelectionJoinTable.getSql())
 				.append("\n ORDER BY sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_Line)
 				.append("\n) t")
 				.append("\n LIMIT ?");
@@ -506,6 +584,8 @@ public class SqlViewSelectData
 		final String sql = sqlExpression.build()
 				.evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail);
 
-		return SqlAndParams.of(sql, selectionId, limit);
+		final ArrayList<Object> sqlParams = new ArrayList<>(sqlFromSelectionJoinTable.getSqlParams());
+		sqlParams.add(limit);
+		return SqlAndParams.of(sql, sqlParams);
 	}
 }
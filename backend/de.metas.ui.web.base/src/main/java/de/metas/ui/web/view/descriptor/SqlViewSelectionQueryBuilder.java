@@ -201,6 +201,17 @@ public final class SqlViewSelectionQueryBuilder
 		boolean isAnyFilterApplied = true;
 	}
 
+	@Value
+	@lombok.Builder
+	public static class SqlSelectSelection
+	{
+		/**
+		 * Selects UUID, Line and the key columns, just like they would be inserted into {@link I_T_WEBUI_ViewSelection}
+		 */
+		@NonNull SqlAndParams sqlSelectSelection;
+		boolean isAnyFilterApplied;
+	}
+
 	@Value
 	@lombok.Builder
 	private static class SqlAndParamsAndFlags
@@ -237,6 +248,28 @@ public final class SqlViewSelectionQueryBuilder
 		}
 	}
 
+	/**
+	 * Like {@link #buildSqlCreateSelectionFrom(ViewEvaluationCtx, ViewId, DocumentFilterList, DocumentQueryOrderByList, QueryLimit, SqlDocumentFilterConverterContext)},
+	 * but the selection's rows are only selected and not inserted into {@link I_T_WEBUI_ViewSelection}.
+	 * Not supported if there are grouping fields.
+	 */
+	public SqlSelectSelection buildSqlSelectSelectionFrom(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final ViewId newViewId,
+			@Nullable final DocumentFilterList filters,
+			@NonNull final DocumentQueryOrderByList orderBys,
+			@NonNull final QueryLimit queryLimit,
+			@NonNull final SqlDocumentFilterConverterContext filterConverterCtx)
+	{
+		Check.assume(!hasGroupingFields(), "grouping fields are not supported");
+
+		final SqlAndParamsAndFlags sqlSelect = buildSqlSelectSelection_WithoutGrouping(viewEvalCtx, newViewId, filters, orderBys, queryLimit, filterConverterCtx);
+		return SqlSelectSelection.builder()
+				.sqlSelectSelection(sqlSelect.getSql())
+				.isAnyFilterApplied(sqlSelect.isAnyFilterApplied())
+				.build();
+	}
+
 	private SqlAndParamsAndFlags buildSqlCreateSelection_WithoutGrouping(
 			@NonNull final ViewEvaluationCtx viewEvalCtx,
 			@NonNull final ViewId newViewId,
@@ -244,6 +277,36 @@ public final class SqlViewSelectionQueryBuilder
 			@NonNull final DocumentQueryOrderByList orderBys,
 			@NonNull final QueryLimit queryLimit,
 			@NonNull final SqlDocumentFilterConverterContext filterConverterCtx)
+	{
+		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
+		final SqlAndParamsAndFlags sqlSelect = buildSqlSelectSelection_WithoutGrouping(viewEvalCtx, newViewId, filters, orderBys, queryLimit, filterConverterCtx);
+
+		final SqlAndParams sqlInsert = SqlAndParams.builder()
+				//
+				// INSERT INTO T_WEBUI_ViewSelection (...)
+				.append("INSERT INTO " + I_T_WEBUI_ViewSelection.Table_Name + " ("
+						+ " " + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID
+						+ ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line // SeqNo
+						+ ", " + keyColumnNamesMap.getWebuiSelectionColumnNamesCommaSeparated() // keys: IntKey1... StringKey1...
+						+ ")")
+				//
+				// SELECT ... FROM ... WHERE 1=1
+				.append(sqlSelect.getSql())
+				.build();
+
+		return SqlAndParamsAndFlags.builder()
+				.sql(sqlInsert)
+				.isAnyFilterApplied(sqlSelect.isAnyFilterApplied())
+				.build();
+	}
+
+	private SqlAndParamsAndFlags buildSqlSelectSelection_WithoutGrouping(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final ViewId newViewId,
+			@Nullable final DocumentFilterList filters,
+			@NonNull final DocumentQueryOrderByList orderBys,
+			@NonNull final QueryLimit queryLimit,
+			@NonNull final SqlDocumentFilterConverterContext filterConverterCtx)
 	{
 		final String sqlTableName = getTableName();
 		final String sqlTableAlias = getTableAlias();
@@ -272,14 +335,7 @@ public final class SqlViewSelectionQueryBuilder
 				.buildSqlOrderBy(orderBys)
 				.orElseGet(() -> SqlAndParamsExpression.of(keyColumnNamesMap.getKeyColumnNamesCommaSeparated(sqlTableAlias)));
 
-		final SqlAndParamsExpression.Builder sqlInsert = SqlAndParamsExpression.builder()
-				//
-				// INSERT INTO T_WEBUI_ViewSelection[Line] (...)
-				.append("INSERT INTO " + I_T_WEBUI_ViewSelection.Table_Name + " ("
-						+ " " + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID
-						+ ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line // SeqNo
-						+ ", " + keyColumnNamesMap.getWebuiSelectionColumnNamesCommaSeparated() // keys: IntKey1... StringKey1...
-						+ ")")
+		final SqlAndParamsExpression.Builder sqlSelect = SqlAndParamsExpression.builder()
 				//
 				// SELECT ... FROM ... WHERE 1=1
 				.append(
@@ -301,7 +357,7 @@ public final class SqlViewSelectionQueryBuilder
 			final SqlAndParamsExpression sqlWhereClause = filterSqlExpression.getWhereClauseConsideringAlwaysIncludeSqls();
 			if (sqlWhereClause != null && !sqlWhereClause.isEmpty())
 			{
-				sqlInsert.append("\n AND (\n").append(sqlWhereClause).append("\n)");
+				sqlSelect.append("\n AND (\n").append(sqlWhereClause).append("\n)");
 				isAnyFilterApplied = true;
 			}
 		}
@@ -310,13 +366,13 @@ public final class SqlViewSelectionQueryBuilder
 		// Enforce a LIMIT, to not affect server performances on huge tables
 		if (queryLimit.isLimited())
 		{
-			sqlInsert.append("\n LIMIT ?", queryLimit.toInt());
+			sqlSelect.append("\n LIMIT ?", queryLimit.toInt());
 		}
 
 		//
 		// Evaluate the final SQL query
 		return SqlAndParamsAndFlags.builder()
-				.sql(sqlInsert.build().evaluate(viewEvalCtx.toEvaluatee()))
+				.sql(sqlSelect.build().evaluate(viewEvalCtx.toEvaluatee()))
 				.isAnyFilterApplied(isAnyFilterApplied)
 				.build();
 	}
@@ -565,6 +621,59 @@ public final class SqlViewSelectionQueryBuilder
 			@NonNull final DocumentFilterList filters,
 			@NonNull final DocumentQueryOrderByList orderBys,
 			@NonNull final SqlDocumentFilterConverterContext filterConverterCtx)
+	{
+		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
+
+		final SqlAndParams sqlSelect = buildSqlSelectSelectionFromSelection(
+				viewEvalCtx,
+				newViewId,
+				SqlAndParams.of(I_T_WEBUI_ViewSelection.Table_Name + " sel"),
+				SqlAndParams.of("sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID + "=?", fromSelectionId),
+				filters,
+				orderBys,
+				filterConverterCtx);
+
+		return SqlAndParams.builder()
+				.append("INSERT INTO " + I_T_WEBUI_ViewSelection.Table_Name + " (")
+				.append(" ").append(I_T_WEBUI_ViewSelection.COLUMNNAME_UUID)
+				.append(", ").append(I_T_WEBUI_ViewSelection.COLUMNNAME_Line)
+				.append(", ").append(keyColumnNamesMap.getWebuiSelectionColumnNamesCommaSeparated())
+				.append(")")
+				.append(sqlSelect)
+				.build();
+	}
+
+	/**
+	 * Like {@link #buildSqlCreateSelectionFromSelection(ViewEvaluationCtx, ViewId, String, DocumentFilterList, DocumentQueryOrderByList, SqlDocumentFilterConverterContext)},
+	 * but the source selection is given as an ordered list of row IDs (see {@link #buildSqlSelectionFromRowIds(SqlViewKeyColumnNamesMap, int[])})
+	 * and the new selection's rows are only selected, not inserted into {@link I_T_WEBUI_ViewSelection}.
+	 */
+	public SqlAndParams buildSqlSelectSelectionFromRowIds(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final ViewId newViewId,
+			@NonNull final int[] fromRowIds,
+			@NonNull final DocumentFilterList filters,
+			@NonNull final DocumentQueryOrderByList orderBys,
+			@NonNull final SqlDocumentFilterConverterContext filterConverterCtx)
+	{
+		return buildSqlSelectSelectionFromSelection(
+				viewEvalCtx,
+				newViewId,
+				buildSqlSelectionFromRowIds(getSqlViewKeyColumnNamesMap(), fromRowIds),
+				null,
+				filters,
+				orderBys,
+				filterConverterCtx);
+	}
+
+	private SqlAndParams buildSqlSelectSelectionFromSelection(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final ViewId newViewId,
+			@NonNull final SqlAndParams sqlFromSelection,
+			@Nullable final SqlAndParams sqlFromSelectionWhereClause,
+			@NonNull final DocumentFilterList filters,
+			@NonNull final DocumentQueryOrderByList orderBys,
+			@NonNull final SqlDocumentFilterConverterContext filterConverterCtx)
 	{
 		final String sqlTableAlias = getTableAlias();
 		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
@@ -670,21 +779,85 @@ public final class SqlViewSelectionQueryBuilder
 				.orElse(SqlAndParams.EMPTY);
 
 		//
-		return SqlAndParams.builder()
-				.append("INSERT INTO " + I_T_WEBUI_ViewSelection.Table_Name + " (")
-				.append(" ").append(I_T_WEBUI_ViewSelection.COLUMNNAME_UUID)
-				.append(", ").append(I_T_WEBUI_ViewSelection.COLUMNNAME_Line)
-				.append(", ").append(keyColumnNamesMap.getWebuiSelectionColumnNamesCommaSeparated())
-				.append(")")
+		final SqlAndParams.Builder sql = SqlAndParams.builder()
 				.append("\n SELECT ")
 				.append("\n  ?", newViewId.getViewId()) // newUUID
 				.append("\n, ").append("row_number() OVER (").append(sqlOrderBys).append(")") // Line
 				.append("\n, ").append(keyColumnNamesMap.getKeyColumnNamesCommaSeparated()) // keys
-				.append("\n FROM ").append(I_T_WEBUI_ViewSelection.Table_Name).append(" sel")
+				.append("\n FROM ").append(sqlFromSelection)
 				.append("\n INNER JOIN ").append(sqlSourceTable).append(" ").append(sqlTableAlias).append(" ON (")
 				.append(keyColumnNamesMap.getSqlJoinCondition(sqlTableAlias, "sel"))
-				.append(")")
-				.append("\n WHERE sel.").append(I_T_WEBUI_ViewSelection.COLUMNNAME_UUID).append("=?", fromSelectionId) // fromUUID
+				.append(")");
+		if (sqlFromSelectionWhereClause != null)
+		{
+			sql.append("\n WHERE ").append(sqlFromSelectionWhereClause); // fromUUID
+		}
+		return sql.build();
+	}
+
+	/**
+	 * @return true if the selections of this view can be kept as ordered row IDs lists, see {@link #buildSqlSelectionFromRowIds(SqlViewKeyColumnNamesMap, int[])}
+	 */
+	public static boolean isRowIdsListSupported(@NonNull final SqlViewKeyColumnNamesMap keyColumnNamesMap)
+	{
+		return keyColumnNamesMap.isSingleKey()
+				&& I_T_WEBUI_ViewSelection.COLUMNNAME_IntKeys.contains(keyColumnNamesMap.getSingleWebuiSelectionColumnName());
+	}
+
+	/**
+	 * @return SQL with one parameter (see {@link #toSqlRowIdsParam(int[])}), which can be used instead of {@link I_T_WEBUI_ViewSelection} in FROM clauses.
+	 * It provides the {@code Line} and the key column of the given row IDs and is aliased as {@code sel}.
+	 * The row IDs are passed as a single SQL parameter, so the SQL does not grow with the number of rows.
+	 */
+	public static String buildSqlSelectionFromRowIdsParam(@NonNull final SqlViewKeyColumnNamesMap keyColumnNamesMap)
+	{
+		Check.assume(isRowIdsListSupported(keyColumnNamesMap), "single integer key expected: {}", keyColumnNamesMap);
+		final String keyColumnName = keyColumnNamesMap.getSingleWebuiSelectionColumnName();
+
+		return "(SELECT t." + keyColumnName + ", t." + I_T_WEBUI_ViewSelection.COLUMNNAME_Line
+				+ " FROM unnest(string_to_array(?, ',')::numeric[]) WITH ORDINALITY AS t(" + keyColumnName + ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line + ")"
+				+ ") sel";
+	}
+
+	public static SqlAndParams buildSqlSelectionFromRowIds(@NonNull final SqlViewKeyColumnNamesMap keyColumnNamesMap, @NonNull final int[] rowIds)
+	{
+		return SqlAndParams.of(buildSqlSelectionFromRowIdsParam(keyColumnNamesMap), toSqlRowIdsParam(rowIds));
+	}
+
+	public static String toSqlRowIdsParam(@NonNull final int[] rowIds)
+	{
+		final StringBuilder sql = new StringBuilder(rowIds.length * 8);
+		for (final int rowId : rowIds)
+		{
+			if (sql.length() > 0)
+			{
+				sql.append(",");
+			}
+			sql.append(rowId);
+		}
+		return sql.toString();
+	}
+
+	/**
+	 * @return <pre>
+	 * INSERT INTO T_WEBUI_ViewSelection (UUID, Line, key) SELECT ... FROM [given rowIds]
+	 *         </pre>
+	 */
+	public SqlAndParams buildSqlCreateSelectionFromRowIds(@NonNull final String selectionId, @NonNull final int[] rowIds)
+	{
+		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
+		final String keyColumnName = keyColumnNamesMap.getSingleWebuiSelectionColumnName();
+
+		return SqlAndParams.builder()
+				.append("INSERT INTO " + I_T_WEBUI_ViewSelection.Table_Name + " ("
+						+ " " + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID
+						+ ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line
+						+ ", " + keyColumnName
+						+ ")")
+				.append("\n SELECT ?", selectionId)
+				.append(", sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_Line)
+				.append(", sel." + keyColumnName)
+				.append("\n FROM ").append(buildSqlSelectionFromRowIds(keyColumnNamesMap, rowIds))
 				.build();
 	}
 
@@ -753,25 +926,59 @@ public final class SqlViewSelectionQueryBuilder
 						+ " and " + keyColumnNamesMap.getSqlJoinCondition(sqlTableAlias, "sel")
 						+ ")");
 
-		final SqlAndParams rowsPresentInTable;
-		if (!rowIds.isAll())
-		{
-			rowsPresentInTable = keyColumnNamesMap.prepareSqlFilterByRowIds()
-					.sqlColumnPrefix(sqlTableAlias + ".")
-					.mappingType(SqlViewKeyColumnNamesMap.MappingType.SOURCE_TABLE)
-					.rowIds(rowIds)
-					.rowIdsConverter(rowIdsConverter)
-					.embedSqlParams(true)
-					.build();
-		}
-		else
+		final SqlAndParams rowsPresentInTable = !rowIds.isAll()
+				? buildSqlRowsPresentInTable(sqlTableAlias, keyColumnNamesMap, rowIds, rowIdsConverter)
+				: null;
+
+		return SqlViewRowsWhereClause.builder()
+				.rowsPresentInViewSelection(rowsPresentInViewSelection)
+				.rowsPresentInTable(rowsPresentInTable)
+				.build();
+	}
+
+	/**
+	 * Same as {@link #buildSqlWhereClause(String, DocumentIdsSelection)} but for selections which are not stored in {@link I_T_WEBUI_ViewSelection}.
+	 *
+	 * @param rowIdsPresentInSelection those of <code>rowIds</code> which are present in the selection
+	 * @param rowIds                   row IDs, not ALL
+	 */
+	public SqlViewRowsWhereClause buildSqlWhereClauseForRowIdsList(
+			@NonNull final Set<Integer> rowIdsPresentInSelection,
+			@NonNull final DocumentIdsSelection rowIds)
+	{
+		Check.assume(!rowIds.isAll(), "rowIds shall not be ALL");
+		if (rowIds.isEmpty())
 		{
-			rowsPresentInTable = null;
+			//noinspection ThrowableNotThrown
+			new AdempiereException("got empty rowIds").throwIfDeveloperModeOrLogWarningElse(logger);
+			return SqlViewRowsWhereClause.noRecords();
 		}
 
+		final String sqlTableAlias = getTableName();
+		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
+
+		final SqlAndParams rowsPresentInViewSelection = !rowIdsPresentInSelection.isEmpty()
+				? SqlAndParams.of(sqlTableAlias + "." + keyColumnNamesMap.getSingleKeyColumnName() + " IN " + DB.buildSqlList(rowIdsPresentInSelection))
+				: SqlAndParams.of("1=2");
+
 		return SqlViewRowsWhereClause.builder()
 				.rowsPresentInViewSelection(rowsPresentInViewSelection)
-				.rowsPresentInTable(rowsPresentInTable)
+				.rowsPresentInTable(buildSqlRowsPresentInTable(sqlTableAlias, keyColumnNamesMap, rowIds, getRowIdsConverter()))
+				.build();
+	}
+
+	private static SqlAndParams buildSqlRowsPresentInTable(
+			@NonNull final String sqlTableAlias,
+			@NonNull final SqlViewKeyColumnNamesMap keyColumnNamesMap,
+			@NonNull final DocumentIdsSelection rowIds,
+			@NonNull final SqlViewRowIdsConverter rowIdsConverter)
+	{
+		return keyColumnNamesMap.prepareSqlFilterByRowIds()
+				.sqlColumnPrefix(sqlTableAlias + ".")
+				.mappingType(SqlViewKeyColumnNamesMap.MappingType.SOURCE_TABLE)
+				.rowIds(rowIds)
+				.rowIdsConverter(rowIdsConverter)
+				.embedSqlParams(true)
 				.build();
 	}
 
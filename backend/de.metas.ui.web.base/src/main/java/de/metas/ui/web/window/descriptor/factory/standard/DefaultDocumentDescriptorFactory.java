@@ -9,9 +9,11 @@ import org.compiere.model.I_AD_Window;
 import org.springframework.stereotype.Service;
 
 import de.metas.cache.CCache;
+import de.metas.cache.CacheWarmUpLoader;
 import de.metas.ui.web.dataentry.window.descriptor.factory.DataEntrySubTabBindingDescriptorBuilder;
 import de.metas.ui.web.window.datatypes.WindowId;
 import de.metas.ui.web.window.descriptor.DocumentDescriptor;
+import de.metas.ui.web.window.descriptor.DocumentEntityDescriptor;
 import de.metas.ui.web.window.descriptor.factory.DocumentDescriptorFactory;
 import de.metas.ui.web.window.exceptions.DocumentLayoutBuildException;
 import lombok.NonNull;
@@ -44,7 +46,20 @@ public class DefaultDocumentDescriptorFactory implements DocumentDescriptorFacto
 	@NonNull
 	final DataEntrySubTabBindingDescriptorBuilder dataEntrySubTabBindingDescriptorBuilder;
 
-	private final CCache<WindowId, DocumentDescriptor> documentDescriptorsByWindowId = new CCache<>(I_AD_Window.Table_Name + "#DocumentDescriptor", 50);
+	/**
+	 * Document descriptors are big and their size varies a lot from window to window, so this cache is bounded by their estimated weight.
+	 * Its keys are remembered on shutdown, so the most used windows are loaded again right after restart.
+	 */
+	private final CCache<WindowId, DocumentDescriptor> documentDescriptorsByWindowId = CCache.<WindowId, DocumentDescriptor> builder()
+			.cacheName(I_AD_Window.Table_Name + "#DocumentDescriptor")
+			.expireMinutes(120)
+			.cacheMapType(CCache.CacheMapType.FrequencyAware)
+			.maximumWeightInBytes(DOCUMENT_DESCRIPTORS_CACHE_MAXIMUM_WEIGHT_IN_BYTES)
+			.weigher(DefaultDocumentDescriptorFactory::estimateWeightInBytes)
+			.warmUpLoader(new DocumentDescriptorWarmUpLoader())
+			.build();
+
+	private static final long DOCUMENT_DESCRIPTORS_CACHE_MAXIMUM_WEIGHT_IN_BYTES = 256L * 1024 * 1024;
 
 	private final Set<WindowId> unsupportedWindowIds = new HashSet<>();
 
@@ -73,6 +88,22 @@ public class DefaultDocumentDescriptorFactory implements DocumentDescriptorFacto
 		}
 	}
 
+	private static int estimateWeightInBytes(final WindowId windowId, final DocumentDescriptor descriptor)
+	{
+		return estimateEntityWeightInBytes(descriptor.getEntityDescriptor());
+	}
+
+	private static int estimateEntityWeightInBytes(final DocumentEntityDescriptor entityDescriptor)
+	{
+		// NOTE: the fields (incl. their lookup descriptors and translations) are by far the biggest part of a descriptor
+		int weight = 16 * 1024 + entityDescriptor.getFields().size() * 4 * 1024;
+		for (final DocumentEntityDescriptor includedEntityDescriptor : entityDescriptor.getIncludedEntities())
+		{
+			weight += estimateEntityWeightInBytes(includedEntityDescriptor);
+		}
+		return weight;
+	}
+
 	private DefaultDocumentDescriptorLoader createDocumentDescriptorLoader(@NonNull final WindowId windowId)
 	{
 		return new DefaultDocumentDescriptorLoader(
@@ -80,6 +111,34 @@ public class DefaultDocumentDescriptorFactory implements DocumentDescriptorFacto
 				dataEntrySubTabBindingDescriptorBuilder);
 	}
 
+	private class DocumentDescriptorWarmUpLoader implements CacheWarmUpLoader<WindowId, DocumentDescriptor>
+	{
+		@Override
+		public String toKeyString(@NonNull final WindowId windowId)
+		{
+			return windowId.toJson();
+		}
+
+		@Override
+		public WindowId fromKeyString(@NonNull final String keyString)
+		{
+			return WindowId.fromJson(keyString);
+		}
+
+		@Override
+		public DocumentDescriptor load(@NonNull final WindowId windowId)
+		{
+			return createDocumentDescriptorLoader(windowId).load();
+		}
+
+		@Override
+		public int getPriority()
+		{
+			// the window descriptors are needed before anything else can be shown to the user
+			return 100;
+		}
+	}
+
 	/**
 	 * @return {@code false} if the given {@code windowId} * <br>
 	 *         is {@code null} <br>
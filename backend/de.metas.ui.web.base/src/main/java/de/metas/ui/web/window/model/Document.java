@@ -1882,6 +1882,30 @@ public final class Document
 		return changes;
 	}
 
+	/**
+	 * Estimates how much memory this document is using, as the number of fields of this document and of its included documents which are currently loaded.
+	 * <p>
+	 * NOTE: it's not an exact measure but it's good enough to compare documents, e.g. a sales order with 300 lines vs. a business partner.
+	 */
+	public int estimateWeight()
+	{
+		int weight = fieldsByName.size();
+		for (final IIncludedDocumentsCollection includedDocumentsPerDetailId : includedDocuments.values())
+		{
+			weight += includedDocumentsPerDetailId.estimateWeight();
+		}
+		return weight;
+	}
+
+	/**
+	 * @return version of the record this document was loaded from or null if unknown
+	 */
+	@Nullable
+	/* package */ String getVersion()
+	{
+		return getStale().version;
+	}
+
 	/**
 	 * Checks if this document or any of it's included documents has changes.
 	 *
@@ -24,8 +24,6 @@ package de.metas.ui.web.window.model;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Preconditions;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import de.metas.copy_with_details.CopyRecordRequest;
@@ -60,6 +58,7 @@ import de.metas.ui.web.window.model.Document.CopyMode;
 import de.metas.ui.web.window.model.lookup.DocumentZoomIntoInfo;
 import de.metas.util.Check;
 import de.metas.util.Services;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.AllArgsConstructor;
 import lombok.NonNull;
 import org.adempiere.ad.element.api.AdWindowId;
@@ -80,6 +79,7 @@ import org.springframework.stereotype.Component;
 
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -88,7 +88,6 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutionException;
 import java.util.function.Function;
 
 @Component
@@ -96,6 +95,15 @@ public class DocumentCollection
 {
 	private static final String SYSCONFIG_CACHE_SIZE = "de.metas.ui.web.window.model.DocumentCollection.CacheSize";
 	private static final int DEFAULT_CACHE_SIZE = 800;
+	/**
+	 * Max weight of the cached documents, i.e. max number of loaded fields, see {@link Document#estimateWeight()}.
+	 * If set, it's used instead of {@link #SYSCONFIG_CACHE_SIZE}.
+	 */
+	private static final String SYSCONFIG_CACHE_MAX_WEIGHT = "de.metas.ui.web.window.model.DocumentCollection.CacheMaxWeight";
+	private static final String SYSCONFIG_SNAPSHOTS_CACHE_SIZE = "de.metas.ui.web.window.model.DocumentCollection.SnapshotsCacheSize";
+	private static final int DEFAULT_SNAPSHOTS_CACHE_SIZE = 5000;
+	private static final String SYSCONFIG_SNAPSHOTS_EXPIRE_MINUTES = "de.metas.ui.web.window.model.DocumentCollection.SnapshotsExpireMinutes";
+	private static final int DEFAULT_SNAPSHOTS_EXPIRE_MINUTES = 30;
 
 	private static final Logger logger = LogManager.getLogger(DocumentCollection.class);
 	public static final AdMessageKey MSG_CLONING_NOT_ALLOWED_FOR_CURRENT_WINDOW = AdMessageKey.of("de.metas.ui.web.window.model.DocumentCollection.CloningNotAllowedForCurrentWindow");
@@ -105,7 +113,7 @@ public class DocumentCollection
 	private final DocumentWebsocketPublisher websocketPublisher;
 	private final CopyRecordService copyRecordService;
 
-	private final Cache<DocumentKey, Document> rootDocuments;
+	private final RootDocumentsCache rootDocuments;
 	private final ConcurrentHashMap<String, Set<WindowId>> tableName2windowIds = new ConcurrentHashMap<>();
 
 	/* package */ DocumentCollection(
@@ -120,16 +128,22 @@ public class DocumentCollection
 		this.copyRecordService = copyRecordService;
 
 		// setup the cache
-		final int cacheSize = Services
-				.get(ISysConfigBL.class)
-				.getIntValue(SYSCONFIG_CACHE_SIZE, DEFAULT_CACHE_SIZE);
-
-		rootDocuments = CacheBuilder
-				.newBuilder()
-				.maximumSize(cacheSize)
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final int cacheSize = sysConfigBL.getIntValue(SYSCONFIG_CACHE_SIZE, DEFAULT_CACHE_SIZE);
+
+		rootDocuments = RootDocumentsCache.builder()
+				.maxSize(cacheSize)
+				.maxWeight(sysConfigBL.getIntValue(SYSCONFIG_CACHE_MAX_WEIGHT, -1))
+				.snapshotsMaxSize(sysConfigBL.getIntValue(SYSCONFIG_SNAPSHOTS_CACHE_SIZE, DEFAULT_SNAPSHOTS_CACHE_SIZE))
+				.snapshotsExpireAfterWrite(Duration.ofMinutes(sysConfigBL.getIntValue(SYSCONFIG_SNAPSHOTS_EXPIRE_MINUTES, DEFAULT_SNAPSHOTS_EXPIRE_MINUTES)))
 				.build();
 	}
 
+	/* package */ void bindMetrics(@NonNull final MeterRegistry registry)
+	{
+		rootDocuments.bindMetrics(registry);
+	}
+
 	public DocumentDescriptorFactory getDocumentDescriptorFactory()
 	{
 		return documentDescriptorFactory;
@@ -208,21 +222,17 @@ public class DocumentCollection
 	private Document getOrLoadDocument(
 			@NonNull final DocumentKey documentKey)
 	{
-		try
-		{
-			return rootDocuments.get(documentKey, () -> {
+		return rootDocuments.getOrLoad(documentKey, this::loadRootDocument);
+	}
 
-				final Document rootDocument = retrieveRootDocumentFromRepository(documentKey)
-						.copy(CopyMode.CheckInReadonly, NullDocumentChangesCollector.instance);
+	private Document loadRootDocument(@NonNull final DocumentKey documentKey)
+	{
+		final Document rootDocument = rootDocuments.restoreFromSnapshot(documentKey, getDocumentEntityDescriptor(documentKey.getWindowId()))
+				.orElseGet(() -> retrieveRootDocumentFromRepository(documentKey))
+				.copy(CopyMode.CheckInReadonly, NullDocumentChangesCollector.instance);
 
-				addToTableName2WindowIdsCache(rootDocument.getEntityDescriptor());
-				return rootDocument;
-			});
-		}
-		catch (final ExecutionException e)
-		{
-			throw AdempiereException.wrapIfNeeded(e);
-		}
+		addToTableName2WindowIdsCache(rootDocument.getEntityDescriptor());
+		return rootDocument;
 	}
 
 	public <R> R forRootDocumentReadonly(
@@ -418,6 +428,7 @@ public class DocumentCollection
 			}
 
 			rootDocuments.invalidateAll(documentKeysToInvalidate);
+			rootDocuments.invalidateAllSnapshots();
 
 			result = "invalidate " + documentKeysToInvalidate.size() + " documents with no changes;"
 					+ " skipped " + countDocumentsWithChanges + " documents with changes";
@@ -672,15 +683,7 @@ public class DocumentCollection
 			@NonNull final WindowId windowId)
 
 	{
-		final ImmutableList<DocumentKey> documentKeys = rootDocuments.asMap().keySet()
-				.stream()
-				.filter(documentKey -> windowId.equals(documentKey.getWindowId()))
-				.collect(ImmutableList.toImmutableList());
-		if (documentKeys.isEmpty())
-		{
-			return;
-		}
-		rootDocuments.invalidateAll(documentKeys);
+		rootDocuments.invalidateByWindowId(windowId);
 	}
 
 	public void invalidateAll(final Collection<DocumentToInvalidate> documentToInvalidateList)
@@ -729,6 +732,8 @@ public class DocumentCollection
 						}
 					}
 				}
+
+				rootDocuments.refreshWeight(rootDocumentKey);
 			}
 
 			//
@@ -737,6 +742,11 @@ public class DocumentCollection
 			{
 				rootDocuments.invalidate(rootDocumentKey);
 			}
+			else
+			{
+				// the root document's snapshot might have virtual columns which depend on the changed included documents
+				rootDocuments.invalidateSnapshot(rootDocumentKey);
+			}
 
 			//
 			// Notify frontend, even if the root document does not exist (or it was not cached).
@@ -863,7 +873,7 @@ public class DocumentCollection
 	}
 
 	@Immutable
-	private static final class DocumentKey
+	/* package */ static final class DocumentKey
 	{
 		public static DocumentKey of(@NonNull final Document document)
 		{
@@ -0,0 +1,49 @@
+/*
+ * #%L
+ * de.metas.ui.web.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+package de.metas.ui.web.window.model;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.NonNull;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the {@link DocumentCollection}'s cache metrics (size, weight, evictions, second tier snapshots).
+ */
+@Component
+public class DocumentCollectionMeterBinder implements MeterBinder
+{
+	private final DocumentCollection documentCollection;
+
+	public DocumentCollectionMeterBinder(@NonNull final DocumentCollection documentCollection)
+	{
+		this.documentCollection = documentCollection;
+	}
+
+	@Override
+	public void bindTo(@NonNull final MeterRegistry registry)
+	{
+		documentCollection.bindMetrics(registry);
+	}
+}
@@ -0,0 +1,126 @@
+/*
+ * #%L
+ * de.metas.ui.web.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+package de.metas.ui.web.window.model;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.descriptor.DocumentEntityDescriptor;
+import de.metas.ui.web.window.descriptor.DocumentFieldDescriptor;
+import de.metas.ui.web.window.model.Document.DocumentValuesSupplier;
+import lombok.NonNull;
+
+import javax.annotation.Nullable;
+
+/**
+ * Compact snapshot of a not changed root document: only the root document's field values are kept.
+ * <p>
+ * A document can be restored from it without querying the database. The included documents are loaded on demand, as usual.
+ */
+final class DocumentValuesSnapshot implements DocumentValuesSupplier
+{
+	/**
+	 * @return snapshot or null if the document has changes or it's not saved, so it cannot be restored from a snapshot
+	 */
+	@Nullable
+	public static DocumentValuesSnapshot ofDocumentOrNull(@NonNull final Document document)
+	{
+		if (!document.isRootDocument()
+				|| document.isNew()
+				|| document.isDeleted()
+				|| document.hasChangesRecursivelly())
+		{
+			return null;
+		}
+
+		final ImmutableMap.Builder<String, Object> values = ImmutableMap.builder();
+		for (final IDocumentFieldView field : document.getFieldViews())
+		{
+			final Object value = field.getValue();
+			if (value != null)
+			{
+				values.put(field.getFieldName(), value);
+			}
+		}
+
+		return new DocumentValuesSnapshot(document.getDocumentId(), document.getVersion(), values.build());
+	}
+
+	private final DocumentId documentId;
+	@Nullable private final String version;
+	private final ImmutableMap<String, Object> valuesByFieldName;
+
+	private DocumentValuesSnapshot(
+			@NonNull final DocumentId documentId,
+			@Nullable final String version,
+			@NonNull final ImmutableMap<String, Object> valuesByFieldName)
+	{
+		this.documentId = documentId;
+		this.version = version;
+		this.valuesByFieldName = valuesByFieldName;
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("documentId", documentId)
+				.add("version", version)
+				.add("fieldsCount", valuesByFieldName.size())
+				.toString();
+	}
+
+	@Override
+	public DocumentId getDocumentId()
+	{
+		return documentId;
+	}
+
+	@Override
+	public String getVersion()
+	{
+		return version;
+	}
+
+	@Override
+	@Nullable
+	public Object getValue(@NonNull final DocumentFieldDescriptor fieldDescriptor)
+	{
+		return valuesByFieldName.get(fieldDescriptor.getFieldName());
+	}
+
+	public int getWeight()
+	{
+		return valuesByFieldName.size();
+	}
+
+	/**
+	 * @return new root document, having the values of this snapshot
+	 */
+	public Document restore(@NonNull final DocumentEntityDescriptor entityDescriptor)
+	{
+		return Document.builder(entityDescriptor)
+				.initializeAsExistingRecord(this);
+	}
+}
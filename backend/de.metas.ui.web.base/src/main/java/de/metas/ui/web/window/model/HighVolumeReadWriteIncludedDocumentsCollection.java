@@ -407,6 +407,15 @@ public class HighVolumeReadWriteIncludedDocumentsCollection implements IIncluded
 				.anyMatch(document -> document.hasChangesRecursivelly());
 	}
 
+	@Override
+	public int estimateWeight()
+	{
+		return getChangedDocuments()
+				.stream()
+				.mapToInt(Document::estimateWeight)
+				.sum();
+	}
+
 	@Override
 	public void saveIfHasChanges()
 	{
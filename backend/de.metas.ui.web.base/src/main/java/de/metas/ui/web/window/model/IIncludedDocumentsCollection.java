@@ -76,6 +76,15 @@ public interface IIncludedDocumentsCollection
 
 	int getNextLineNo();
 
+	/**
+	 * @return estimated weight of the documents which are currently kept in memory by this collection
+	 * @see Document#estimateWeight()
+	 */
+	default int estimateWeight()
+	{
+		return 0;
+	}
+
 	default void onChildSaved(final Document document)
 	{
 		// nothing
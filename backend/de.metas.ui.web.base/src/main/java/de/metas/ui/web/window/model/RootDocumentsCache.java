@@ -0,0 +1,329 @@
+/*
+ * #%L
+ * de.metas.ui.web.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+package de.metas.ui.web.window.model;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.ImmutableList;
+import de.metas.logging.LogManager;
+import de.metas.ui.web.window.model.DocumentCollection.DocumentKey;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.ui.web.window.descriptor.DocumentEntityDescriptor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Builder;
+import lombok.NonNull;
+import org.adempiere.exceptions.AdempiereException;
+import org.slf4j.Logger;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Two tier cache of root documents:
+ * <ul>
+ * <li>first tier: the documents, limited either by count or, if a max weight is set, by their weight, see {@link Document#estimateWeight()}</li>
+ * <li>second tier: compact {@link DocumentValuesSnapshot}s of the not changed documents which were evicted from the first tier because it was full.
+ * When such a document is requested again, it's restored from the snapshot instead of loading it from the database.</li>
+ * </ul>
+ * The snapshot of a document is dropped whenever the document is invalidated, i.e. when its record or one of its included records was changed.
+ */
+final class RootDocumentsCache
+{
+	private static final Logger logger = LogManager.getLogger(RootDocumentsCache.class);
+
+	private static final String METER_PREFIX = "mf.webui.documents.";
+
+	private final boolean weighed;
+	private final Cache<DocumentKey, Document> documents;
+	private final Cache<DocumentKey, DocumentValuesSnapshot> snapshots;
+
+	private final AtomicLong countSnapshotsCreated = new AtomicLong();
+	private final AtomicLong countSnapshotsRestored = new AtomicLong();
+	private final AtomicLong countSnapshotsRestoreFailed = new AtomicLong();
+
+	/**
+	 * @param maxSize   max number of cached documents; used if maxWeight is not set
+	 * @param maxWeight max weight of the cached documents; if {@code <= 0}, the documents are limited by maxSize
+	 */
+	@Builder
+	private RootDocumentsCache(
+			final long maxSize,
+			final long maxWeight,
+			final long snapshotsMaxSize,
+			@NonNull final Duration snapshotsExpireAfterWrite)
+	{
+		final CacheBuilder<Object, Object> documentsCacheBuilder = CacheBuilder.newBuilder();
+		if (maxWeight > 0)
+		{
+			this.weighed = true;
+			documentsCacheBuilder
+					.maximumWeight(maxWeight)
+					.weigher((DocumentKey key, Document document) -> Math.max(document.estimateWeight(), 1));
+		}
+		else
+		{
+			this.weighed = false;
+			documentsCacheBuilder.maximumSize(Math.max(maxSize, 0));
+		}
+		this.documents = documentsCacheBuilder
+				.removalListener(this::onDocumentRemoved)
+				.recordStats()
+				.build();
+
+		this.snapshots = CacheBuilder.newBuilder()
+				.maximumSize(Math.max(snapshotsMaxSize, 0))
+				.expireAfterWrite(snapshotsExpireAfterWrite.toMillis(), TimeUnit.MILLISECONDS)
+				.recordStats()
+				.build();
+
+		logger.info("Created with maxSize={}, maxWeight={}, snapshotsMaxSize={}, snapshotsExpireAfterWrite={}", maxSize, maxWeight, snapshotsMaxSize, snapshotsExpireAfterWrite);
+	}
+
+	private void onDocumentRemoved(@NonNull final RemovalNotification<DocumentKey, Document> notification)
+	{
+		// Only the documents which were evicted because we ran out of space are moved to second tier.
+		// The explicitly invalidated or replaced ones are just dropped.
+		if (notification.getCause() != RemovalCause.SIZE)
+		{
+			return;
+		}
+
+		final DocumentKey key = notification.getKey();
+		final Document document = notification.getValue();
+		if (key == null || document == null)
+		{
+			return;
+		}
+
+		try
+		{
+			final DocumentValuesSnapshot snapshot = DocumentValuesSnapshot.ofDocumentOrNull(document);
+			if (snapshot != null)
+			{
+				snapshots.put(key, snapshot);
+				countSnapshotsCreated.incrementAndGet();
+				logger.trace("Evicted {} to second tier: {}", key, snapshot);
+			}
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed creating snapshot for evicted document {}. Ignored.", key, ex);
+		}
+	}
+
+	public Document getOrLoad(@NonNull final DocumentKey key, @NonNull final Function<DocumentKey, Document> loader)
+	{
+		try
+		{
+			return documents.get(key, () -> loader.apply(key));
+		}
+		catch (final ExecutionException e)
+		{
+			throw AdempiereException.wrapIfNeeded(e);
+		}
+	}
+
+	/**
+	 * Removes the snapshot of given document (if any) and restores the document from it.
+	 */
+	public Optional<Document> restoreFromSnapshot(@NonNull final DocumentKey key, @NonNull final DocumentEntityDescriptor entityDescriptor)
+	{
+		final DocumentValuesSnapshot snapshot = snapshots.asMap().remove(key);
+		if (snapshot == null)
+		{
+			return Optional.empty();
+		}
+
+		try
+		{
+			final Document document = snapshot.restore(entityDescriptor);
+			countSnapshotsRestored.incrementAndGet();
+			logger.trace("Restored {} from {}", key, snapshot);
+			return Optional.of(document);
+		}
+		catch (final Exception ex)
+		{
+			countSnapshotsRestoreFailed.incrementAndGet();
+			logger.warn("Failed restoring {} from {}. Loading it from repository.", key, snapshot, ex);
+			return Optional.empty();
+		}
+	}
+
+	@Nullable
+	public Document getIfPresent(@NonNull final DocumentKey key)
+	{
+		return documents.getIfPresent(key);
+	}
+
+	public void put(@NonNull final DocumentKey key, @NonNull final Document document)
+	{
+		documents.put(key, document);
+		snapshots.invalidate(key);
+	}
+
+	public void invalidate(@NonNull final DocumentKey key)
+	{
+		documents.invalidate(key);
+		snapshots.invalidate(key);
+	}
+
+	public void invalidateAll(@NonNull final Iterable<DocumentKey> keys)
+	{
+		documents.invalidateAll(keys);
+		snapshots.invalidateAll(keys);
+	}
+
+	public void invalidateAll()
+	{
+		documents.invalidateAll();
+		snapshots.invalidateAll();
+	}
+
+	public void invalidateAllSnapshots()
+	{
+		snapshots.invalidateAll();
+	}
+
+	public void invalidateSnapshot(@NonNull final DocumentKey key)
+	{
+		snapshots.invalidate(key);
+	}
+
+	public void invalidateByWindowId(@NonNull final WindowId windowId)
+	{
+		documents.invalidateAll(extractKeysByWindowId(documents, windowId));
+		snapshots.invalidateAll(extractKeysByWindowId(snapshots, windowId));
+	}
+
+	private static ImmutableList<DocumentKey> extractKeysByWindowId(@NonNull final Cache<DocumentKey, ?> cache, @NonNull final WindowId windowId)
+	{
+		return cache.asMap()
+				.keySet()
+				.stream()
+				.filter(key -> windowId.equals(key.getWindowId()))
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	/**
+	 * Weighs the cached document again.
+	 * Guava is weighing an entry only when it's put, so this shall be called after the cached document instance was changed in place.
+	 */
+	public void refreshWeight(@NonNull final DocumentKey key)
+	{
+		if (!weighed)
+		{
+			return;
+		}
+
+		final Document document = documents.asMap().get(key);
+		if (document != null)
+		{
+			documents.asMap().replace(key, document, document);
+		}
+	}
+
+	@VisibleForTesting
+	boolean hasSnapshot(@NonNull final DocumentKey key)
+	{
+		return snapshots.asMap().containsKey(key);
+	}
+
+	public long size()
+	{
+		return documents.size();
+	}
+
+	public ConcurrentMap<DocumentKey, Document> asMap()
+	{
+		return documents.asMap();
+	}
+
+	public void cleanUp()
+	{
+		documents.cleanUp();
+		snapshots.cleanUp();
+	}
+
+	private long getWeight()
+	{
+		return documents.asMap()
+				.values()
+				.stream()
+				.mapToLong(Document::estimateWeight)
+				.sum();
+	}
+
+	private long getSnapshotsWeight()
+	{
+		return snapshots.asMap()
+				.values()
+				.stream()
+				.mapToLong(DocumentValuesSnapshot::getWeight)
+				.sum();
+	}
+
+	public void bindMetrics(@NonNull final MeterRegistry registry)
+	{
+		Gauge.builder(METER_PREFIX + "size", this, RootDocumentsCache::size)
+				.register(registry);
+		Gauge.builder(METER_PREFIX + "weight", this, RootDocumentsCache::getWeight)
+				.baseUnit("fields")
+				.register(registry);
+		FunctionCounter.builder(METER_PREFIX + "gets", documents, c -> c.stats().hitCount())
+				.tag("result", "hit")
+				.register(registry);
+		FunctionCounter.builder(METER_PREFIX + "gets", documents, c -> c.stats().missCount())
+				.tag("result", "miss")
+				.register(registry);
+		FunctionCounter.builder(METER_PREFIX + "evictions", documents, c -> c.stats().evictionCount())
+				.register(registry);
+
+		Gauge.builder(METER_PREFIX + "snapshots.size", snapshots, Cache::size)
+				.register(registry);
+		Gauge.builder(METER_PREFIX + "snapshots.weight", this, RootDocumentsCache::getSnapshotsWeight)
+				.baseUnit("fields")
+				.register(registry);
+		FunctionCounter.builder(METER_PREFIX + "snapshots.created", countSnapshotsCreated, AtomicLong::get)
+				.register(registry);
+		FunctionCounter.builder(METER_PREFIX + "snapshots.restored", countSnapshotsRestored, AtomicLong::get)
+				.tag("result", "ok")
+				.register(registry);
+		FunctionCounter.builder(METER_PREFIX + "snapshots.restored", countSnapshotsRestoreFailed, AtomicLong::get)
+				.tag("result", "failed")
+				.register(registry);
+		FunctionCounter.builder(METER_PREFIX + "snapshots.evictions", snapshots, c -> c.stats().evictionCount())
+				.register(registry);
+	}
+}
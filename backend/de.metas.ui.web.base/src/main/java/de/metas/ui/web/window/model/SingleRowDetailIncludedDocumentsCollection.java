@@ -232,6 +232,12 @@ public class SingleRowDetailIncludedDocumentsCollection implements IIncludedDocu
 		return singleDocument.hasChangesRecursivelly();
 	}
 
+	@Override
+	public int estimateWeight()
+	{
+		return singleDocument != null ? singleDocument.estimateWeight() : 0;
+	}
+
 	@Override
 	public void saveIfHasChanges()
 	{
@@ -0,0 +1,319 @@
+/*
+ * #%L
+ * de.metas.ui.web.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.ui.web.kpi.data;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
+import de.metas.common.util.time.SystemTime;
+import de.metas.elasticsearch.IESSystem;
+import de.metas.i18n.BooleanWithReason;
+import de.metas.i18n.TranslatableStrings;
+import de.metas.ui.web.kpi.KPITimeRangeDefaults;
+import de.metas.ui.web.kpi.descriptor.KPI;
+import de.metas.ui.web.kpi.descriptor.KPIChartType;
+import de.metas.ui.web.kpi.descriptor.KPIDatasourceType;
+import de.metas.ui.web.kpi.descriptor.KPIField;
+import de.metas.ui.web.kpi.descriptor.KPIFieldValueType;
+import de.metas.ui.web.kpi.descriptor.KPIId;
+import de.metas.ui.web.kpi.descriptor.KPIRepository;
+import de.metas.ui.web.kpi.descriptor.elasticsearch.ElasticsearchDatasourceDescriptor;
+import de.metas.ui.web.kpi.descriptor.elasticsearch.ElasticsearchDatasourceFieldDescriptor;
+import de.metas.util.Services;
+import de.metas.organization.OrgId;
+import de.metas.security.RoleId;
+import de.metas.user.UserId;
+import lombok.NonNull;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.compiere.util.Env;
+import org.elasticsearch.action.search.SearchType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KPIDataProviderTest
+{
+	private static final ZonedDateTime START_TIME = ZonedDateTime.parse("2023-03-01T10:00:00+01:00");
+
+	private KPIRepository kpiRepository;
+	private IESSystem esSystem;
+
+	/**
+	 * Counts the KPI loads: each load of an elasticsearch KPI checks if elasticsearch is enabled
+	 */
+	private final AtomicInteger loadsCount = new AtomicInteger();
+	/**
+	 * The context of each load
+	 */
+	private final List<Properties> loadCtxs = new CopyOnWriteArrayList<>();
+	private CountDownLatch loadStarted;
+	private CountDownLatch loadMayFinish;
+
+	private ExecutorService executor;
+
+	@BeforeEach
+	void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+		SystemTime.setFixedTimeSource(START_TIME);
+
+		kpiRepository = Mockito.mock(KPIRepository.class);
+
+		loadStarted = new CountDownLatch(1);
+		loadMayFinish = new CountDownLatch(0);
+		esSystem = Mockito.mock(IESSystem.class);
+		Mockito.doAnswer(invocation -> {
+					loadsCount.incrementAndGet();
+					loadCtxs.add(Env.copyCtx(Env.getCtx()));
+					loadStarted.countDown();
+					assertThat(loadMayFinish.await(10, TimeUnit.SECONDS)).isTrue();
+					return BooleanWithReason.falseBecause("elasticsearch disabled for testing");
+				})
+				.when(esSystem).getEnabled();
+	}
+
+	@AfterEach
+	void afterEach()
+	{
+		SystemTime.resetTimeSource();
+		if (executor != null)
+		{
+			executor.shutdownNow();
+		}
+	}
+
+	private KPIDataProvider newKPIDataProvider(final ExecutorService asyncLoadExecutor)
+	{
+		return KPIDataProvider.builder()
+				.kpiRepository(kpiRepository)
+				.esSystem(esSystem)
+				.sysConfigBL(Services.get(ISysConfigBL.class))
+				.asyncLoadExecutor(asyncLoadExecutor)
+				.build();
+	}
+
+	private KPIDataRequest createKPI(final int kpiRepoId, @NonNull final Duration allowedStaleDuration)
+	{
+		return createKPI(kpiRepoId, allowedStaleDuration, KPIDataContext.builder().build());
+	}
+
+	private KPIDataRequest createKPI(final int kpiRepoId, @NonNull final Duration allowedStaleDuration, @NonNull final KPIDataContext context)
+	{
+		final KPIId kpiId = KPIId.ofRepoId(kpiRepoId);
+		final KPI kpi = KPI.builder()
+				.id(kpiId)
+				.caption(TranslatableStrings.anyLanguage("KPI " + kpiRepoId))
+				.description(TranslatableStrings.empty())
+				.chartType(KPIChartType.Metric)
+				.fields(ImmutableList.of(KPIField.builder()
+						.fieldName("Value")
+						.caption(TranslatableStrings.anyLanguage("Value"))
+						.valueType(KPIFieldValueType.Number)
+						.build()))
+				.timeRangeDefaults(KPITimeRangeDefaults.DEFAULT)
+				.datasourceType(KPIDatasourceType.ELASTICSEARCH)
+				.elasticsearchDatasource(ElasticsearchDatasourceDescriptor.builder()
+						.esSearchIndex("test_index")
+						.esSearchTypes(SearchType.DEFAULT)
+						.esQuery("{ \"query\": { \"match_all\": {} } }")
+						.fields(ImmutableList.of(ElasticsearchDatasourceFieldDescriptor.builder()
+								.fieldName("Value")
+								.valueType(KPIFieldValueType.Number)
+								.esPath("value")
+								.build()))
+						.build())
+				.allowedStaleDuration(allowedStaleDuration)
+				.build();
+		Mockito.doReturn(kpi).when(kpiRepository).getKPI(kpiId);
+
+		return KPIDataRequest.builder()
+				.kpiId(kpiId)
+				.timeRangeDefaults(KPITimeRangeDefaults.DEFAULT)
+				.context(context)
+				.build();
+	}
+
+	private void advanceTime(@NonNull final Duration duration)
+	{
+		SystemTime.setFixedTimeSource(SystemTime.asZonedDateTime().plus(duration));
+	}
+
+	@Test
+	void concurrentRequestsShareOneLoad() throws Exception
+	{
+		executor = Executors.newFixedThreadPool(4);
+		final KPIDataProvider kpiDataProvider = newKPIDataProvider(executor);
+		final KPIDataRequest request = createKPI(1, Duration.ofMinutes(1));
+
+		loadMayFinish = new CountDownLatch(1);
+
+		// start the load and wait until it's running
+		assertThat(kpiDataProvider.getKPIDataIfAvailable(request)).isEmpty();
+		assertThat(loadStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+		// further requests, while loading
+		assertThat(kpiDataProvider.getKPIDataIfAvailable(request)).isEmpty();
+		final List<CompletableFuture<KPIDataResult>> waitingRequests = new ArrayList<>();
+		for (int i = 0; i < 3; i++)
+		{
+			waitingRequests.add(CompletableFuture.supplyAsync(() -> kpiDataProvider.getKPIData(request)));
+		}
+
+		loadMayFinish.countDown();
+
+		final KPIDataResult result = kpiDataProvider.getKPIData(request);
+		for (final CompletableFuture<KPIDataResult> waitingRequest : waitingRequests)
+		{
+			assertThat(waitingRequest.get(10, TimeUnit.SECONDS)).isSameAs(result);
+		}
+		assertThat(loadsCount).hasValue(1);
+	}
+
+	@Test
+	void slowLoadIsNotBlockingOtherKPIs() throws Exception
+	{
+		executor = Executors.newFixedThreadPool(4);
+		final KPIDataProvider kpiDataProvider = newKPIDataProvider(executor);
+		final KPIDataRequest slowRequest = createKPI(1, Duration.ofMinutes(1));
+		final KPIDataRequest otherRequest = createKPI(2, Duration.ofMinutes(1));
+
+		loadMayFinish = new CountDownLatch(1);
+		assertThat(kpiDataProvider.getKPIDataIfAvailable(slowRequest)).isEmpty();
+		assertThat(loadStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+		// the other KPI's load is also blocked by our latch, but it's not waiting for the slow one
+		final CompletableFuture<KPIDataResult> otherResult = CompletableFuture.supplyAsync(() -> kpiDataProvider.getKPIData(otherRequest));
+		loadMayFinish.countDown();
+
+		assertThat(otherResult.get(10, TimeUnit.SECONDS)).isNotNull();
+		assertThat(kpiDataProvider.getKPIData(slowRequest)).isNotNull();
+		assertThat(loadsCount).hasValue(2);
+	}
+
+	@Test
+	void validDataIsNotReloaded()
+	{
+		final KPIDataProvider kpiDataProvider = newKPIDataProvider(null);
+		final KPIDataRequest request = createKPI(1, Duration.ofMinutes(1));
+
+		final KPIDataResult result = kpiDataProvider.getKPIData(request);
+		advanceTime(Duration.ofSeconds(30));
+
+		assertThat(kpiDataProvider.getKPIData(request)).isSameAs(result);
+		assertThat(loadsCount).hasValue(1);
+	}
+
+	@Test
+	void expiredDataIsServedWhileReloading()
+	{
+		final KPIDataProvider kpiDataProvider = newKPIDataProvider(MoreExecutors.newDirectExecutorService());
+		final KPIDataRequest request = createKPI(1, Duration.ofMinutes(1));
+
+		final KPIDataResult result = kpiDataProvider.getKPIData(request);
+		advanceTime(Duration.ofSeconds(90));
+
+		assertThat(kpiDataProvider.getKPIData(request)).isSameAs(result);
+		assertThat(loadsCount).hasValue(2);
+		assertThat(kpiDataProvider.getKPIData(request)).isNotSameAs(result);
+	}
+
+	@Test
+	void refreshActiveEntries_refreshesBeforeExpiring()
+	{
+		final KPIDataProvider kpiDataProvider = newKPIDataProvider(MoreExecutors.newDirectExecutorService());
+		final KPIDataRequest request = createKPI(1, Duration.ofMinutes(1));
+		kpiDataProvider.getKPIData(request);
+
+		advanceTime(Duration.ofSeconds(10));
+		kpiDataProvider.refreshActiveEntries();
+		assertThat(loadsCount).hasValue(1);
+
+		advanceTime(Duration.ofSeconds(40)); // 50s, i.e. more than 80% of 1min
+		kpiDataProvider.refreshActiveEntries();
+		assertThat(loadsCount).hasValue(2);
+	}
+
+	@Test
+	void refreshActiveEntries_skipsKPIsNotAcceptingStaleData()
+	{
+		final KPIDataProvider kpiDataProvider = newKPIDataProvider(MoreExecutors.newDirectExecutorService());
+		final KPIDataRequest request = createKPI(1, Duration.ZERO);
+		kpiDataProvider.getKPIData(request);
+
+		for (int i = 0; i < 3; i++)
+		{
+			advanceTime(Duration.ofSeconds(10));
+			kpiDataProvider.refreshActiveEntries();
+		}
+		assertThat(loadsCount).hasValue(1);
+
+		// still loaded when requested
+		assertThat(kpiDataProvider.getKPIData(request)).isNotNull();
+		assertThat(loadsCount).hasValue(2);
+	}
+
+	@Test
+	void refreshActiveEntries_loadsWithTheContextOfTheRequest()
+	{
+		final KPIDataProvider kpiDataProvider = newKPIDataProvider(MoreExecutors.newDirectExecutorService());
+		final KPIDataRequest request = createKPI(1, Duration.ofMinutes(1), KPIDataContext.builder()
+				.userId(UserId.ofRepoId(1234))
+				.roleId(RoleId.ofRepoId(5678))
+				.clientId(ClientId.ofRepoId(1000000))
+				.orgId(OrgId.ofRepoId(1000001))
+				.build());
+		kpiDataProvider.getKPIData(request);
+
+		// the refresh is running in a thread without context, like the scheduler's thread
+		advanceTime(Duration.ofSeconds(50));
+		try (final IAutoCloseable ignored = Env.switchContext(Env.newTemporaryCtx()))
+		{
+			kpiDataProvider.refreshActiveEntries();
+		}
+
+		assertThat(loadsCount).hasValue(2);
+		final Properties refreshCtx = loadCtxs.get(1);
+		assertThat(Env.getLoggedUserIdIfExists(refreshCtx)).contains(UserId.ofRepoId(1234));
+		assertThat(Env.getContextAsInt(refreshCtx, Env.CTXNAME_AD_Role_ID)).isEqualTo(5678);
+		assertThat(Env.getClientId(refreshCtx)).isEqualTo(ClientId.ofRepoId(1000000));
+		assertThat(Env.getOrgId(refreshCtx)).isEqualTo(OrgId.ofRepoId(1000001));
+	}
+}
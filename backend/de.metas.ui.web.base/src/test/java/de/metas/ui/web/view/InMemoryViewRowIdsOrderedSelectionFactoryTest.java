@@ -0,0 +1,156 @@
+/*
+ * #%L
+ * de.metas.ui.web.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+package de.metas.ui.web.view;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.ImmutableIntArray;
+import de.metas.ui.web.view.InMemoryViewRowIdsOrderedSelectionFactory.InMemorySelection;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryViewRowIdsOrderedSelectionFactoryTest
+{
+	@Nested
+	class InMemorySelectionTest
+	{
+		private final InMemorySelection selection = new InMemorySelection(ImmutableIntArray.of(30, 10, 50, 20, 40));
+
+		@Test
+		void getPage()
+		{
+			assertThat(selection.getPage(0, 2).toArray()).containsExactly(30, 10);
+			assertThat(selection.getPage(3, 10).toArray()).containsExactly(20, 40);
+			assertThat(selection.getPage(5, 10).isEmpty()).isTrue();
+		}
+
+		@Test
+		void getPageAsDocumentIds()
+		{
+			assertThat(selection.getPageAsDocumentIds(1, 2)).containsExactly(DocumentId.of(10), DocumentId.of(50));
+		}
+
+		@Test
+		void contains_and_retainRowIds()
+		{
+			assertThat(selection.contains(50)).isTrue();
+			assertThat(selection.contains(60)).isFalse();
+			assertThat(selection.retainRowIds(ImmutableSet.of(10, 60, 40))).containsExactlyInAnyOrder(10, 40);
+		}
+
+		@Test
+		void removingAndAdding()
+		{
+			final AddRemoveChangedRowIdsCollector changesCollector = AddRemoveChangedRowIdsCollector.newRecording();
+
+			final InMemorySelection newSelection = selection.removingAndAdding(
+					DocumentIdsSelection.ofIntSet(ImmutableSet.of(10, 60)),
+					DocumentIdsSelection.ofIntSet(ImmutableSet.of(70, 20)),
+					changesCollector);
+
+			assertThat(newSelection.toArray()).containsExactly(30, 50, 20, 40, 70);
+			assertThat(changesCollector.getRemovedRowIds()).containsExactly(DocumentId.of(10));
+			assertThat(changesCollector.getAddedRowIds()).containsExactly(DocumentId.of(70));
+
+			// the original selection is not changed
+			assertThat(selection.toArray()).containsExactly(30, 10, 50, 20, 40);
+		}
+
+		@Test
+		void removingAndAdding_noChanges()
+		{
+			final InMemorySelection newSelection = selection.removingAndAdding(
+					DocumentIdsSelection.ofIntSet(ImmutableSet.of(60)),
+					DocumentIdsSelection.ofIntSet(ImmutableSet.of(30)),
+					AddRemoveChangedRowIdsCollector.NOT_RECORDING);
+
+			assertThat(newSelection).isSameAs(selection);
+		}
+
+		@Test
+		void removingAll()
+		{
+			final InMemorySelection newSelection = selection.removingAndAdding(
+					DocumentIdsSelection.ALL,
+					DocumentIdsSelection.EMPTY,
+					AddRemoveChangedRowIdsCollector.NOT_RECORDING);
+
+			assertThat(newSelection.size()).isZero();
+		}
+	}
+
+	@Nested
+	class ReadRowIdsTest
+	{
+		private int rowsRead = 0;
+
+		/**
+		 * @return result set with the row IDs 10, 20, 30... where every {@code nullRowIdEvery}-th row ID is null
+		 */
+		private ResultSet resultSet(final int rowsCount, final int nullRowIdEvery) throws SQLException
+		{
+			final ResultSet rs = Mockito.mock(ResultSet.class);
+			Mockito.when(rs.next()).thenAnswer(invocation -> ++rowsRead <= rowsCount);
+			Mockito.when(rs.getInt(3)).thenAnswer(invocation -> rowsRead * 10);
+			Mockito.when(rs.wasNull()).thenAnswer(invocation -> nullRowIdEvery > 0 && rowsRead % nullRowIdEvery == 0);
+			return rs;
+		}
+
+		@Test
+		void notMoreThanMaxSize() throws SQLException
+		{
+			final ImmutableIntArray rowIds = InMemoryViewRowIdsOrderedSelectionFactory.readRowIds(resultSet(3, 0), 3);
+
+			assertThat(rowIds).isNotNull();
+			assertThat(rowIds.toArray()).containsExactly(10, 20, 30);
+		}
+
+		@Test
+		void moreThanMaxSize_stopsReadingAfterMaxSizePlusOneRows() throws SQLException
+		{
+			final ImmutableIntArray rowIds = InMemoryViewRowIdsOrderedSelectionFactory.readRowIds(resultSet(1_000_000, 0), 100);
+
+			assertThat(rowIds).isNull();
+			assertThat(rowsRead).isEqualTo(101);
+		}
+
+		@Test
+		void rowsWithoutRowId_areCountedButSkipped() throws SQLException
+		{
+			final ImmutableIntArray rowIds = InMemoryViewRowIdsOrderedSelectionFactory.readRowIds(resultSet(4, 2), 4);
+			assertThat(rowIds).isNotNull();
+			assertThat(rowIds.toArray()).containsExactly(10, 30);
+
+			rowsRead = 0;
+			assertThat(InMemoryViewRowIdsOrderedSelectionFactory.readRowIds(resultSet(4, 2), 3)).isNull();
+		}
+	}
+}
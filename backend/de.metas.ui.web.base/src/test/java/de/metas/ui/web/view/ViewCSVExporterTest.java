@@ -0,0 +1,138 @@
+/*
+ * #%L
+ * de.metas.ui.web.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.ui.web.view;
+
+import com.google.common.collect.ImmutableList;
+import de.metas.i18n.Language;
+import de.metas.ui.web.view.descriptor.ViewLayout;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.ui.web.window.datatypes.json.JSONOptions;
+import de.metas.ui.web.window.descriptor.DocumentFieldWidgetType;
+import de.metas.ui.web.window.descriptor.DocumentLayoutElementDescriptor;
+import de.metas.ui.web.window.descriptor.DocumentLayoutElementFieldDescriptor;
+import de.metas.ui.web.window.model.DocumentQueryOrderByList;
+import lombok.NonNull;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+
+class ViewCSVExporterTest
+{
+	private static final int ROWS_COUNT = 5;
+
+	private IView view;
+	private ViewLayout layout;
+
+	@BeforeEach
+	void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+
+		final ImmutableList<IViewRow> rows = createRows();
+
+		view = Mockito.mock(IView.class, Mockito.withSettings().defaultAnswer(Mockito.CALLS_REAL_METHODS));
+		Mockito.doAnswer(invocation -> {
+					final int firstRow = invocation.getArgument(0);
+					final int pageLength = invocation.getArgument(1);
+					final List<IViewRow> page = rows.subList(Math.min(firstRow, rows.size()), Math.min(firstRow + pageLength, rows.size()));
+					return ViewResult.ofViewAndPage(view, firstRow, pageLength, DocumentQueryOrderByList.EMPTY, page);
+				})
+				.when(view).getPage(anyInt(), anyInt(), any(ViewRowsOrderBy.class));
+		Mockito.doAnswer(invocation -> rows.stream())
+				.when(view).streamByIds(any(DocumentIdsSelection.class));
+
+		layout = Mockito.mock(ViewLayout.class);
+		Mockito.doReturn(ImmutableList.of(createElement("Name"), createElement("Description")))
+				.when(layout).getElements();
+	}
+
+	private static ImmutableList<IViewRow> createRows()
+	{
+		final ImmutableList.Builder<IViewRow> rows = ImmutableList.builder();
+		for (int i = 1; i <= ROWS_COUNT; i++)
+		{
+			final IViewRow row = Mockito.mock(IViewRow.class);
+			Mockito.doReturn(DocumentId.of(i)).when(row).getId();
+			Mockito.doReturn("name" + i).when(row).getFieldValueAsJsonObject(Mockito.eq("Name"), any(JSONOptions.class));
+			Mockito.doReturn("description " + i).when(row).getFieldValueAsJsonObject(Mockito.eq("Description"), any(JSONOptions.class));
+			rows.add(row);
+		}
+		return rows.build();
+	}
+
+	private static DocumentLayoutElementDescriptor createElement(@NonNull final String fieldName)
+	{
+		return DocumentLayoutElementDescriptor.builder()
+				.setCaption(fieldName)
+				.setWidgetType(DocumentFieldWidgetType.Text)
+				.addField(DocumentLayoutElementFieldDescriptor.builder(fieldName)
+						.setPublicField(true))
+				.build();
+	}
+
+	private String export(@NonNull final DocumentIdsSelection rowIds, final int pageSize)
+	{
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ViewCSVExporter.builder()
+				.view(view)
+				.rowIds(rowIds)
+				.layout(layout)
+				.language(Language.getBaseLanguage())
+				.zoneId(ZoneId.of("UTC"))
+				.pageSize(pageSize)
+				.build()
+				.export(out);
+		return out.toString(StandardCharsets.UTF_8);
+	}
+
+	@Test
+	void allRows_streamedAcrossPagesMatchesSinglePage()
+	{
+		final String exportedInOnePage = export(DocumentIdsSelection.ALL, 100);
+		final String exportedInPagesOf2 = export(DocumentIdsSelection.ALL, 2);
+
+		assertThat(exportedInPagesOf2).isEqualTo(exportedInOnePage);
+		assertThat(exportedInOnePage.lines()).hasSize(ROWS_COUNT + 1); // +1 header
+		assertThat(exportedInOnePage).containsSubsequence("name1", "name2", "name3", "name4", "name5");
+	}
+
+	@Test
+	void allRows_matchesExportOfSelectedRows()
+	{
+		final DocumentIdsSelection allRowIds = DocumentIdsSelection.of(ImmutableList.of(
+				DocumentId.of(1), DocumentId.of(2), DocumentId.of(3), DocumentId.of(4), DocumentId.of(5)));
+
+		assertThat(export(DocumentIdsSelection.ALL, 2)).isEqualTo(export(allRowIds, 2));
+	}
+}
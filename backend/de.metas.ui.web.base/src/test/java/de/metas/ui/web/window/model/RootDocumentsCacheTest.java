@@ -0,0 +1,184 @@
+/*
+ * #%L
+ * de.metas.ui.web.base
+ * %%
+ * Copyright (C) 2023 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.ui.web.window.model;
+
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.ui.web.window.model.DocumentCollection.DocumentKey;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RootDocumentsCacheTest
+{
+	private static final WindowId WINDOW_ID = WindowId.of(123);
+	private static final WindowId OTHER_WINDOW_ID = WindowId.of(456);
+
+	/**
+	 * NOTE: keep the max size/weight below 20, so guava uses only one segment and the evictions are deterministic
+	 */
+	private static RootDocumentsCache newCache(final long maxSize, final long maxWeight)
+	{
+		return RootDocumentsCache.builder()
+				.maxSize(maxSize)
+				.maxWeight(maxWeight)
+				.snapshotsMaxSize(100)
+				.snapshotsExpireAfterWrite(Duration.ofMinutes(30))
+				.build();
+	}
+
+	private static DocumentKey key(final WindowId windowId, final int documentId)
+	{
+		return DocumentKey.of(windowId, DocumentId.of(documentId));
+	}
+
+	private static DocumentKey key(final int documentId)
+	{
+		return key(WINDOW_ID, documentId);
+	}
+
+	private static Document document(final DocumentKey key, final int weight)
+	{
+		final Document document = Mockito.mock(Document.class);
+		Mockito.doReturn(true).when(document).isRootDocument();
+		Mockito.doReturn(key.getDocumentId()).when(document).getDocumentId();
+		Mockito.doReturn(weight).when(document).estimateWeight();
+		return document;
+	}
+
+	private static Document put(final RootDocumentsCache cache, final DocumentKey key, final int weight)
+	{
+		final Document document = document(key, weight);
+		cache.put(key, document);
+		return document;
+	}
+
+	@Test
+	void limitedByCountIfNoMaxWeight()
+	{
+		final RootDocumentsCache cache = newCache(2, 0);
+		put(cache, key(1), 1000);
+		put(cache, key(2), 1000);
+		assertThat(cache.size()).isEqualTo(2);
+
+		put(cache, key(3), 1);
+		assertThat(cache.getIfPresent(key(1))).isNull();
+		assertThat(cache.getIfPresent(key(2))).isNotNull();
+		assertThat(cache.getIfPresent(key(3))).isNotNull();
+		assertThat(cache.hasSnapshot(key(1))).isTrue();
+	}
+
+	@Test
+	void limitedByWeight()
+	{
+		final RootDocumentsCache cache = newCache(100, 19);
+		put(cache, key(1), 8);
+		put(cache, key(2), 8);
+		assertThat(cache.size()).isEqualTo(2);
+
+		put(cache, key(3), 5);
+		assertThat(cache.getIfPresent(key(1))).isNull();
+		assertThat(cache.getIfPresent(key(2))).isNotNull();
+		assertThat(cache.getIfPresent(key(3))).isNotNull();
+		assertThat(cache.hasSnapshot(key(1))).isTrue();
+	}
+
+	@Test
+	void refreshWeight_afterDocumentChangedInPlace()
+	{
+		final RootDocumentsCache cache = newCache(100, 19);
+		final Document document1 = put(cache, key(1), 8);
+		put(cache, key(2), 8);
+
+		// the cached document grew, but the cache does not know it yet
+		Mockito.doReturn(15).when(document1).estimateWeight();
+		assertThat(cache.size()).isEqualTo(2);
+
+		cache.refreshWeight(key(1));
+		assertThat(cache.getIfPresent(key(1))).isSameAs(document1);
+		assertThat(cache.getIfPresent(key(2))).isNull();
+		assertThat(cache.hasSnapshot(key(2))).isTrue();
+	}
+
+	@Test
+	void documentsWithChangesAreNotKeptAsSnapshots()
+	{
+		final RootDocumentsCache cache = newCache(1, 0);
+		final Document document1 = put(cache, key(1), 10);
+		Mockito.doReturn(true).when(document1).hasChangesRecursivelly();
+
+		put(cache, key(2), 10);
+		assertThat(cache.getIfPresent(key(1))).isNull();
+		assertThat(cache.hasSnapshot(key(1))).isFalse();
+	}
+
+	@Test
+	void invalidatedDocumentsAreNotKeptAsSnapshots()
+	{
+		final RootDocumentsCache cache = newCache(10, 0);
+		put(cache, key(1), 10);
+
+		cache.invalidate(key(1));
+		assertThat(cache.getIfPresent(key(1))).isNull();
+		assertThat(cache.hasSnapshot(key(1))).isFalse();
+	}
+
+	@Test
+	void invalidateDropsSnapshots()
+	{
+		final RootDocumentsCache cache = newCache(1, 0);
+		put(cache, key(1), 10);
+		put(cache, key(2), 10);
+		put(cache, key(3), 10);
+		assertThat(cache.hasSnapshot(key(1))).isTrue();
+		assertThat(cache.hasSnapshot(key(2))).isTrue();
+
+		cache.invalidate(key(1));
+		assertThat(cache.hasSnapshot(key(1))).isFalse();
+
+		cache.invalidateSnapshot(key(2));
+		assertThat(cache.hasSnapshot(key(2))).isFalse();
+	}
+
+	@Test
+	void invalidateByWindowId()
+	{
+		final RootDocumentsCache cache = newCache(2, 0);
+		put(cache, key(WINDOW_ID, 1), 10);
+		put(cache, key(OTHER_WINDOW_ID, 1), 10);
+		put(cache, key(WINDOW_ID, 2), 10);
+		put(cache, key(OTHER_WINDOW_ID, 2), 10);
+		assertThat(cache.hasSnapshot(key(WINDOW_ID, 1))).isTrue();
+		assertThat(cache.hasSnapshot(key(OTHER_WINDOW_ID, 1))).isTrue();
+
+		cache.invalidateByWindowId(WINDOW_ID);
+
+		assertThat(cache.hasSnapshot(key(WINDOW_ID, 1))).isFalse();
+		assertThat(cache.getIfPresent(key(WINDOW_ID, 2))).isNull();
+		assertThat(cache.hasSnapshot(key(OTHER_WINDOW_ID, 1))).isTrue();
+		assertThat(cache.getIfPresent(key(OTHER_WINDOW_ID, 2))).isNotNull();
+	}
+}
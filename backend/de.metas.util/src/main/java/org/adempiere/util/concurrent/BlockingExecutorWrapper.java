@@ -117,4 +117,9 @@ public class BlockingExecutorWrapper implements ExecutorService
 	{
 		return semaphore.availablePermits() > 0;
 	}
+
+	public int getAvailablePermits()
+	{
+		return Math.max(semaphore.availablePermits(), 0);
+	}
 }